@@ -0,0 +1,604 @@
+/*-
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wikidata.wdtk.datamodel.helpers;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.wikidata.wdtk.datamodel.implementation.DataObjectFactoryImpl;
+import org.wikidata.wdtk.datamodel.implementation.ReferenceImpl;
+import org.wikidata.wdtk.datamodel.implementation.ValueImpl;
+import org.wikidata.wdtk.datamodel.implementation.ValueSnakImpl;
+import org.wikidata.wdtk.datamodel.interfaces.DataObjectFactory;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentProcessor;
+import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.FormDocument;
+import org.wikidata.wdtk.datamodel.interfaces.FormIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.Reference;
+import org.wikidata.wdtk.datamodel.interfaces.SenseDocument;
+import org.wikidata.wdtk.datamodel.interfaces.SenseIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.SiteLink;
+import org.wikidata.wdtk.datamodel.interfaces.Snak;
+import org.wikidata.wdtk.datamodel.interfaces.SnakGroup;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
+import org.wikidata.wdtk.datamodel.interfaces.StatementRank;
+import org.wikidata.wdtk.datamodel.interfaces.Value;
+
+/**
+ * Streaming reader for files written by {@link BinarySerializer}. Documents
+ * are read one at a time with {@link #readEntityDocument()}, or skipped
+ * without decoding with {@link #skipEntityDocument()}. The objects created are
+ * those of the Jackson implementation of the datamodel, as for
+ * {@link JsonDeserializer}.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public class BinaryDeserializer implements Closeable {
+
+	private static final StatementRank[] RANKS = StatementRank.values();
+
+	private final DataObjectFactory factory = new DataObjectFactoryImpl();
+
+	private final InputStream inputStream;
+
+	/**
+	 * The string table read so far.
+	 */
+	private final List<String> stringTable = new ArrayList<>();
+
+	/**
+	 * Mappers used to read values that are stored as JSON, by site IRI.
+	 */
+	private final Map<String, DatamodelMapper> mappers = new HashMap<>();
+
+	/**
+	 * Payload of the current record.
+	 */
+	private byte[] bytes = new byte[4096];
+
+	/**
+	 * Read position in {@link #bytes}.
+	 */
+	private int position;
+
+	/**
+	 * Length of the payload in {@link #bytes}.
+	 */
+	private int limit;
+
+	private boolean finished = false;
+
+	/**
+	 * Constructs a new reader and reads the header of the data.
+	 *
+	 * @param inputStream
+	 *            the stream to read from; it will be closed when
+	 *            {@link #close()} is called
+	 * @throws IOException
+	 *             if the stream cannot be read or does not start with a
+	 *             supported header
+	 */
+	public BinaryDeserializer(InputStream inputStream) throws IOException {
+		this.inputStream = new BufferedInputStream(inputStream);
+		for (byte b : BinaryFormat.MAGIC) {
+			if (this.inputStream.read() != b) {
+				throw new IOException("Not a binary serialization of entity documents");
+			}
+		}
+		int version = this.inputStream.read();
+		if (version != BinaryFormat.VERSION) {
+			throw new IOException("Unsupported binary format version " + version);
+		}
+	}
+
+	/**
+	 * Reads the next document of the stream.
+	 *
+	 * @return the document, or null if the end of the data was reached
+	 * @throws IOException
+	 *             if the data cannot be read or is malformed
+	 */
+	public EntityDocument readEntityDocument() throws IOException {
+		int recordType = nextEntityRecord();
+		if (recordType == BinaryFormat.RECORD_END) {
+			return null;
+		}
+		readPayload();
+		try {
+			switch (recordType) {
+			case BinaryFormat.RECORD_ITEM:
+				return readItemDocument();
+			case BinaryFormat.RECORD_PROPERTY:
+				return readPropertyDocument();
+			case BinaryFormat.RECORD_LEXEME:
+				return readLexemeDocument();
+			case BinaryFormat.RECORD_MEDIA_INFO:
+				return readMediaInfoDocument();
+			default:
+				throw new IOException("Unknown record type " + recordType);
+			}
+		} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new IOException("Malformed binary entity document", e);
+		}
+	}
+
+	/**
+	 * Skips the next document of the stream without decoding it.
+	 *
+	 * @return false if the end of the data was reached
+	 * @throws IOException
+	 *             if the data cannot be read
+	 */
+	public boolean skipEntityDocument() throws IOException {
+		if (nextEntityRecord() == BinaryFormat.RECORD_END) {
+			return false;
+		}
+		long remaining = readRecordLength();
+		while (remaining > 0) {
+			long skipped = inputStream.skip(remaining);
+			if (skipped <= 0) {
+				if (inputStream.read() < 0) {
+					throw new EOFException();
+				}
+				skipped = 1;
+			}
+			remaining -= skipped;
+		}
+		return true;
+	}
+
+	/**
+	 * Reads all remaining documents of the stream and hands them to the given
+	 * processor.
+	 *
+	 * @param processor
+	 *            the processor to call for each document
+	 * @throws IOException
+	 *             if the data cannot be read or is malformed
+	 */
+	public void processAll(EntityDocumentProcessor processor) throws IOException {
+		EntityDocument document;
+		while ((document = readEntityDocument()) != null) {
+			if (document instanceof ItemDocument) {
+				processor.processItemDocument((ItemDocument) document);
+			} else if (document instanceof PropertyDocument) {
+				processor.processPropertyDocument((PropertyDocument) document);
+			} else if (document instanceof LexemeDocument) {
+				processor.processLexemeDocument((LexemeDocument) document);
+			} else if (document instanceof MediaInfoDocument) {
+				processor.processMediaInfoDocument((MediaInfoDocument) document);
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		inputStream.close();
+	}
+
+	/**
+	 * Reads records up to the next one that is not a string table record,
+	 * and returns its type. The length and payload of that record are not
+	 * read.
+	 */
+	private int nextEntityRecord() throws IOException {
+		if (finished) {
+			return BinaryFormat.RECORD_END;
+		}
+		while (true) {
+			int recordType = inputStream.read();
+			if (recordType < 0) {
+				throw new EOFException("Binary data ended without end marker");
+			}
+			if (recordType == BinaryFormat.RECORD_END) {
+				finished = true;
+				return recordType;
+			} else if (recordType == BinaryFormat.RECORD_STRINGS) {
+				readPayload();
+				int count = readSize();
+				for (int i = 0; i < count; i++) {
+					stringTable.add(readString());
+				}
+			} else {
+				return recordType;
+			}
+		}
+	}
+
+	private long readRecordLength() throws IOException {
+		long result = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = inputStream.read();
+			if (b < 0) {
+				throw new EOFException();
+			}
+			result |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new IOException("Malformed record length");
+	}
+
+	private void readPayload() throws IOException {
+		long length = readRecordLength();
+		if (length > Integer.MAX_VALUE - 8) {
+			throw new IOException("Record too large: " + length + " bytes");
+		}
+		if (length > bytes.length) {
+			bytes = new byte[(int) Math.max(length, 2L * bytes.length)];
+		}
+		int read = 0;
+		while (read < length) {
+			int count = inputStream.read(bytes, read, (int) length - read);
+			if (count < 0) {
+				throw new EOFException();
+			}
+			read += count;
+		}
+		position = 0;
+		limit = (int) length;
+	}
+
+	private int readByte() {
+		if (position >= limit) {
+			throw new IndexOutOfBoundsException("Read beyond end of record");
+		}
+		return bytes[position++];
+	}
+
+	private long readVarLong() {
+		long result = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = readByte();
+			result |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new IllegalArgumentException("Malformed varint");
+	}
+
+	private int readSize() {
+		long size = readVarLong();
+		if (size < 0 || size > limit - position) {
+			throw new IllegalArgumentException("Invalid size " + size);
+		}
+		return (int) size;
+	}
+
+	private double readDouble() {
+		long bits = 0;
+		for (int i = 0; i < 8; i++) {
+			bits = (bits << 8) | (readByte() & 0xFF);
+		}
+		return Double.longBitsToDouble(bits);
+	}
+
+	private String readString() {
+		int length = readSize();
+		String result = new String(bytes, position, length, StandardCharsets.UTF_8);
+		position += length;
+		return result;
+	}
+
+	private String readNullableString() {
+		long length = readVarLong();
+		if (length == 0) {
+			return null;
+		}
+		if (length - 1 > limit - position) {
+			throw new IllegalArgumentException("Invalid string length " + length);
+		}
+		String result = new String(bytes, position, (int) length - 1, StandardCharsets.UTF_8);
+		position += (int) length - 1;
+		return result;
+	}
+
+	private String readStringReference() {
+		long index = readVarLong();
+		return index == 0 ? null : stringTable.get((int) index - 1);
+	}
+
+	private BigDecimal readBigDecimal() {
+		int scale = (int) BinaryFormat.zigZagDecode(readVarLong());
+		int length = readSize();
+		byte[] unscaled = new byte[length];
+		System.arraycopy(bytes, position, unscaled, 0, length);
+		position += length;
+		return new BigDecimal(new BigInteger(unscaled), scale);
+	}
+
+	private EntityIdValue readEntityId() {
+		int idType = readByte();
+		String siteIri = readStringReference();
+		switch (idType) {
+		case BinaryFormat.ID_ITEM:
+			return factory.getItemIdValue("Q" + readVarLong(), siteIri);
+		case BinaryFormat.ID_PROPERTY:
+			return factory.getPropertyIdValue("P" + readVarLong(), siteIri);
+		case BinaryFormat.ID_LEXEME:
+			return factory.getLexemeIdValue("L" + readVarLong(), siteIri);
+		case BinaryFormat.ID_MEDIA_INFO:
+			return factory.getMediaInfoIdValue("M" + readVarLong(), siteIri);
+		case BinaryFormat.ID_FORM:
+			return factory.getFormIdValue(readString(), siteIri);
+		case BinaryFormat.ID_SENSE:
+			return factory.getSenseIdValue(readString(), siteIri);
+		default:
+			throw new IllegalArgumentException("Unknown entity id type " + idType);
+		}
+	}
+
+	private List<ItemIdValue> readItemIds() {
+		int count = readSize();
+		List<ItemIdValue> result = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			result.add((ItemIdValue) readEntityId());
+		}
+		return result;
+	}
+
+	private PropertyIdValue readPropertyId() {
+		String siteIri = readStringReference();
+		return factory.getPropertyIdValue("P" + readVarLong(), siteIri);
+	}
+
+	private List<MonolingualTextValue> readTerms() {
+		int count = readSize();
+		List<MonolingualTextValue> result = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			String languageCode = readStringReference();
+			result.add(factory.getMonolingualTextValue(readString(), languageCode));
+		}
+		return result;
+	}
+
+	private List<MonolingualTextValue> readAliases() {
+		int languageCount = readSize();
+		List<MonolingualTextValue> result = new ArrayList<>();
+		for (int i = 0; i < languageCount; i++) {
+			String languageCode = readStringReference();
+			int count = readSize();
+			for (int j = 0; j < count; j++) {
+				result.add(factory.getMonolingualTextValue(readString(), languageCode));
+			}
+		}
+		return result;
+	}
+
+	private List<StatementGroup> readStatementGroups(EntityIdValue subject) {
+		int groupCount = readSize();
+		List<StatementGroup> result = new ArrayList<>(groupCount);
+		for (int i = 0; i < groupCount; i++) {
+			int count = readSize();
+			List<Statement> statements = new ArrayList<>(count);
+			for (int j = 0; j < count; j++) {
+				statements.add(readStatement(subject));
+			}
+			result.add(factory.getStatementGroup(statements));
+		}
+		return result;
+	}
+
+	private Statement readStatement(EntityIdValue subject) {
+		String statementId = readString();
+		StatementRank rank = RANKS[readByte()];
+		Snak mainSnak = readSnak();
+		List<SnakGroup> qualifiers = readSnakGroups();
+		int referenceCount = readSize();
+		List<Reference> references = new ArrayList<>(referenceCount);
+		for (int i = 0; i < referenceCount; i++) {
+			String hash = readNullableString();
+			references.add(new ReferenceImpl(readSnakGroups(), hash));
+		}
+		return factory.getStatement(subject, mainSnak, qualifiers, references, rank, statementId);
+	}
+
+	private List<SnakGroup> readSnakGroups() {
+		int groupCount = readSize();
+		if (groupCount == 0) {
+			return Collections.emptyList();
+		}
+		List<SnakGroup> result = new ArrayList<>(groupCount);
+		for (int i = 0; i < groupCount; i++) {
+			int count = readSize();
+			List<Snak> snaks = new ArrayList<>(count);
+			for (int j = 0; j < count; j++) {
+				snaks.add(readSnak());
+			}
+			result.add(factory.getSnakGroup(snaks));
+		}
+		return result;
+	}
+
+	private Snak readSnak() {
+		int snakType = readByte();
+		PropertyIdValue propertyId = readPropertyId();
+		switch (snakType) {
+		case BinaryFormat.SNAK_VALUE:
+			String datatype = readStringReference();
+			return new ValueSnakImpl(propertyId, readValue(), datatype);
+		case BinaryFormat.SNAK_SOME_VALUE:
+			return factory.getSomeValueSnak(propertyId);
+		case BinaryFormat.SNAK_NO_VALUE:
+			return factory.getNoValueSnak(propertyId);
+		default:
+			throw new IllegalArgumentException("Unknown snak type " + snakType);
+		}
+	}
+
+	private Value readValue() {
+		int valueType = readByte();
+		switch (valueType) {
+		case BinaryFormat.VALUE_ENTITY_ID:
+			return readEntityId();
+		case BinaryFormat.VALUE_STRING:
+			return factory.getStringValue(readString());
+		case BinaryFormat.VALUE_MONOLINGUAL_TEXT:
+			String languageCode = readStringReference();
+			return factory.getMonolingualTextValue(readString(), languageCode);
+		case BinaryFormat.VALUE_TIME:
+			long year = BinaryFormat.zigZagDecode(readVarLong());
+			byte month = (byte) readByte();
+			byte day = (byte) readByte();
+			byte hour = (byte) readByte();
+			byte minute = (byte) readByte();
+			byte second = (byte) readByte();
+			byte precision = (byte) readByte();
+			int timezoneOffset = (int) BinaryFormat.zigZagDecode(readVarLong());
+			int beforeTolerance = (int) BinaryFormat.zigZagDecode(readVarLong());
+			int afterTolerance = (int) BinaryFormat.zigZagDecode(readVarLong());
+			return factory.getTimeValue(year, month, day, hour, minute, second,
+					precision, beforeTolerance, afterTolerance, timezoneOffset,
+					readStringReference());
+		case BinaryFormat.VALUE_GLOBE_COORDINATES:
+			double latitude = readDouble();
+			double longitude = readDouble();
+			double globePrecision = readDouble();
+			return factory.getGlobeCoordinatesValue(latitude, longitude,
+					globePrecision, readStringReference());
+		case BinaryFormat.VALUE_QUANTITY:
+			int flags = readByte();
+			BigDecimal amount = readBigDecimal();
+			BigDecimal lowerBound = null;
+			BigDecimal upperBound = null;
+			if ((flags & BinaryFormat.QUANTITY_HAS_BOUNDS) != 0) {
+				lowerBound = readBigDecimal();
+				upperBound = readBigDecimal();
+			}
+			ItemIdValue unit = null;
+			if ((flags & BinaryFormat.QUANTITY_HAS_UNIT) != 0) {
+				unit = (ItemIdValue) readEntityId();
+			}
+			return factory.getQuantityValue(amount, lowerBound, upperBound, unit);
+		case BinaryFormat.VALUE_UNSUPPORTED:
+			return readJsonValue(Datamodel.SITE_WIKIDATA);
+		case BinaryFormat.VALUE_UNSUPPORTED_ENTITY_ID:
+			return readJsonValue(readStringReference());
+		default:
+			throw new IllegalArgumentException("Unknown value type " + valueType);
+		}
+	}
+
+	private Value readJsonValue(String siteIri) {
+		String json = readString();
+		DatamodelMapper mapper = mappers.computeIfAbsent(siteIri, DatamodelMapper::new);
+		try {
+			return mapper.readValue(json, ValueImpl.class);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Invalid JSON value " + json, e);
+		}
+	}
+
+	private ItemDocument readItemDocument() {
+		ItemIdValue entityId = (ItemIdValue) readEntityId();
+		long revisionId = readVarLong();
+		List<MonolingualTextValue> labels = readTerms();
+		List<MonolingualTextValue> descriptions = readTerms();
+		List<MonolingualTextValue> aliases = readAliases();
+		List<StatementGroup> statementGroups = readStatementGroups(entityId);
+		int siteLinkCount = readSize();
+		Map<String, SiteLink> siteLinks = new HashMap<>(siteLinkCount);
+		for (int i = 0; i < siteLinkCount; i++) {
+			String siteKey = readStringReference();
+			String title = readString();
+			siteLinks.put(siteKey, factory.getSiteLink(title, siteKey, readItemIds()));
+		}
+		return factory.getItemDocument(entityId, labels, descriptions, aliases,
+				statementGroups, siteLinks, revisionId);
+	}
+
+	private PropertyDocument readPropertyDocument() {
+		PropertyIdValue entityId = (PropertyIdValue) readEntityId();
+		long revisionId = readVarLong();
+		List<MonolingualTextValue> labels = readTerms();
+		List<MonolingualTextValue> descriptions = readTerms();
+		List<MonolingualTextValue> aliases = readAliases();
+		List<StatementGroup> statementGroups = readStatementGroups(entityId);
+		String datatype = readStringReference();
+		return factory.getPropertyDocument(entityId, labels, descriptions,
+				aliases, statementGroups,
+				factory.getDatatypeIdValueFromJsonId(datatype), revisionId);
+	}
+
+	private LexemeDocument readLexemeDocument() {
+		LexemeIdValue entityId = (LexemeIdValue) readEntityId();
+		long revisionId = readVarLong();
+		ItemIdValue lexicalCategory = (ItemIdValue) readEntityId();
+		ItemIdValue language = (ItemIdValue) readEntityId();
+		List<MonolingualTextValue> lemmas = readTerms();
+		List<StatementGroup> statementGroups = readStatementGroups(entityId);
+		int formCount = readSize();
+		List<FormDocument> forms = new ArrayList<>(formCount);
+		for (int i = 0; i < formCount; i++) {
+			FormIdValue formId = (FormIdValue) readEntityId();
+			long formRevisionId = readVarLong();
+			List<MonolingualTextValue> representations = readTerms();
+			List<ItemIdValue> grammaticalFeatures = readItemIds();
+			forms.add(factory.getFormDocument(formId, representations,
+					grammaticalFeatures, readStatementGroups(formId),
+					formRevisionId));
+		}
+		int senseCount = readSize();
+		List<SenseDocument> senses = new ArrayList<>(senseCount);
+		for (int i = 0; i < senseCount; i++) {
+			SenseIdValue senseId = (SenseIdValue) readEntityId();
+			long senseRevisionId = readVarLong();
+			List<MonolingualTextValue> glosses = readTerms();
+			senses.add(factory.getSenseDocument(senseId, glosses,
+					readStatementGroups(senseId), senseRevisionId));
+		}
+		return factory.getLexemeDocument(entityId, lexicalCategory, language,
+				lemmas, statementGroups, forms, senses, revisionId);
+	}
+
+	private MediaInfoDocument readMediaInfoDocument() {
+		MediaInfoIdValue entityId = (MediaInfoIdValue) readEntityId();
+		long revisionId = readVarLong();
+		List<MonolingualTextValue> labels = readTerms();
+		return factory.getMediaInfoDocument(entityId, labels,
+				readStatementGroups(entityId), revisionId);
+	}
+
+}
@@ -0,0 +1,105 @@
+/*-
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wikidata.wdtk.datamodel.helpers;
+
+/**
+ * Constants of the binary serialization format written by
+ * {@link BinarySerializer} and read by {@link BinaryDeserializer}.
+ * <p>
+ * A file starts with {@link #MAGIC} followed by the format
+ * {@link #VERSION}. It then consists of a sequence of records, each of which
+ * is a record type byte, an unsigned varint with the length of the payload,
+ * and the payload itself. The file ends with a {@link #RECORD_END} byte.
+ * <p>
+ * Language codes, site IRIs, site keys, datatypes, calendar models and globes
+ * are stored in a per-file string table. New table entries are written in
+ * {@link #RECORD_STRINGS} records that precede the first entity record using
+ * them, so readers can skip entity records without losing track of the
+ * table. Inside payloads, table entries are referenced by their index plus
+ * one, with 0 denoting null. All other strings are written inline as the
+ * varint length of their UTF-8 encoding followed by the bytes.
+ */
+final class BinaryFormat {
+
+	/**
+	 * Bytes that every binary file starts with.
+	 */
+	static final byte[] MAGIC = { 'W', 'D', 'T', 'K', 'B' };
+	/**
+	 * Version of the format, written after {@link #MAGIC}.
+	 */
+	static final byte VERSION = 1;
+
+	static final int RECORD_END = 0;
+	static final int RECORD_STRINGS = 1;
+	static final int RECORD_ITEM = 2;
+	static final int RECORD_PROPERTY = 3;
+	static final int RECORD_LEXEME = 4;
+	static final int RECORD_MEDIA_INFO = 5;
+
+	static final int ID_ITEM = 1;
+	static final int ID_PROPERTY = 2;
+	static final int ID_LEXEME = 3;
+	static final int ID_FORM = 4;
+	static final int ID_SENSE = 5;
+	static final int ID_MEDIA_INFO = 6;
+
+	static final int VALUE_ENTITY_ID = 1;
+	static final int VALUE_STRING = 2;
+	static final int VALUE_MONOLINGUAL_TEXT = 3;
+	static final int VALUE_TIME = 4;
+	static final int VALUE_GLOBE_COORDINATES = 5;
+	static final int VALUE_QUANTITY = 6;
+	static final int VALUE_UNSUPPORTED = 7;
+	static final int VALUE_UNSUPPORTED_ENTITY_ID = 8;
+
+	static final int SNAK_VALUE = 1;
+	static final int SNAK_SOME_VALUE = 2;
+	static final int SNAK_NO_VALUE = 3;
+
+	/**
+	 * Flag set on quantities that have lower and upper bounds.
+	 */
+	static final int QUANTITY_HAS_BOUNDS = 1;
+	/**
+	 * Flag set on quantities that have a unit.
+	 */
+	static final int QUANTITY_HAS_UNIT = 2;
+
+	private BinaryFormat() {
+	}
+
+	/**
+	 * Maps a signed long to an unsigned one such that numbers of small
+	 * absolute value get small varint encodings.
+	 */
+	static long zigZagEncode(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	/**
+	 * Inverse of {@link #zigZagEncode(long)}.
+	 */
+	static long zigZagDecode(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+}
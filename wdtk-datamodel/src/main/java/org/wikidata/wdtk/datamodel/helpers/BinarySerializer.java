@@ -0,0 +1,609 @@
+/*-
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wikidata.wdtk.datamodel.helpers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikidata.wdtk.datamodel.implementation.ValueSnakImpl;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentDumpProcessor;
+import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.FormDocument;
+import org.wikidata.wdtk.datamodel.interfaces.FormIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.GlobeCoordinatesValue;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
+import org.wikidata.wdtk.datamodel.interfaces.NoValueSnak;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.QuantityValue;
+import org.wikidata.wdtk.datamodel.interfaces.Reference;
+import org.wikidata.wdtk.datamodel.interfaces.SenseDocument;
+import org.wikidata.wdtk.datamodel.interfaces.SenseIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.SiteLink;
+import org.wikidata.wdtk.datamodel.interfaces.Snak;
+import org.wikidata.wdtk.datamodel.interfaces.SnakGroup;
+import org.wikidata.wdtk.datamodel.interfaces.SomeValueSnak;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
+import org.wikidata.wdtk.datamodel.interfaces.StringValue;
+import org.wikidata.wdtk.datamodel.interfaces.TimeValue;
+import org.wikidata.wdtk.datamodel.interfaces.UnsupportedEntityIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.UnsupportedValue;
+import org.wikidata.wdtk.datamodel.interfaces.Value;
+import org.wikidata.wdtk.datamodel.interfaces.ValueSnak;
+import org.wikidata.wdtk.datamodel.interfaces.ValueVisitor;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * This class implements {@link EntityDocumentDumpProcessor} to provide a
+ * compact binary serializer for {@link EntityDocument} objects. The output can
+ * be read back with {@link BinaryDeserializer}. It is considerably smaller and
+ * faster to parse than the JSON written by {@link JsonSerializer}, but it is
+ * only meant as an intermediate format between processing steps: it is not
+ * stable across incompatible versions of the format, see
+ * {@link BinaryFormat#VERSION}.
+ * <p>
+ * Numeric ids are written as varints, frequent strings such as language codes
+ * and IRIs go to a string table, and each document is written as a
+ * length-prefixed record so that readers can skip it cheaply.
+ * <p>
+ * The implementation does not check if {@link #open()} has been called before
+ * the first document is serialized. It is the responsibility of the caller to
+ * do this. Entity redirects are not serialized.
+ */
+public class BinarySerializer implements EntityDocumentDumpProcessor {
+
+	private static final Logger logger = LoggerFactory.getLogger(BinarySerializer.class);
+
+	/**
+	 * The stream that the resulting data is written to.
+	 */
+	private final OutputStream outputStream;
+
+	/**
+	 * Indices of the strings in the string table.
+	 */
+	private final Map<String, Integer> stringTable = new HashMap<>();
+
+	/**
+	 * Strings added to the string table since the last record was written.
+	 */
+	private final List<String> newStrings = new ArrayList<>();
+
+	/**
+	 * Buffer in which the payload of the current record is assembled.
+	 */
+	private final RecordBuffer payload = new RecordBuffer();
+
+	/**
+	 * Buffer in which the string table additions are assembled.
+	 */
+	private final RecordBuffer stringPayload = new RecordBuffer();
+
+	private final ValueWriter valueWriter = new ValueWriter();
+
+	/**
+	 * Counter for the number of documents serialized so far.
+	 */
+	private int entityDocumentCount;
+
+	/**
+	 * Creates a new binary serializer that writes its output to the given
+	 * stream. The output stream will be managed by the object, i.e., it will be
+	 * closed when {@link #close()} is called.
+	 *
+	 * @param outputStream
+	 *            the output stream to write to
+	 */
+	public BinarySerializer(OutputStream outputStream) {
+		this.outputStream = outputStream;
+	}
+
+	@Override
+	public void open() {
+		this.entityDocumentCount = 0;
+		this.stringTable.clear();
+		this.newStrings.clear();
+
+		try {
+			this.outputStream.write(BinaryFormat.MAGIC);
+			this.outputStream.write(BinaryFormat.VERSION);
+		} catch (IOException e) {
+			reportException(e);
+		}
+	}
+
+	@Override
+	public void processItemDocument(ItemDocument itemDocument) {
+		payload.clear();
+		writeEntityId(itemDocument.getEntityId());
+		payload.writeVarLong(itemDocument.getRevisionId());
+		writeTerms(itemDocument.getLabels().values());
+		writeTerms(itemDocument.getDescriptions().values());
+		writeAliases(itemDocument.getAliases());
+		writeStatementGroups(itemDocument.getStatementGroups());
+		Collection<SiteLink> siteLinks = itemDocument.getSiteLinks().values();
+		payload.writeVarLong(siteLinks.size());
+		for (SiteLink siteLink : siteLinks) {
+			writeStringReference(siteLink.getSiteKey());
+			payload.writeString(siteLink.getPageTitle());
+			writeEntityIds(siteLink.getBadges());
+		}
+		writeRecord(BinaryFormat.RECORD_ITEM);
+	}
+
+	@Override
+	public void processPropertyDocument(PropertyDocument propertyDocument) {
+		payload.clear();
+		writeEntityId(propertyDocument.getEntityId());
+		payload.writeVarLong(propertyDocument.getRevisionId());
+		writeTerms(propertyDocument.getLabels().values());
+		writeTerms(propertyDocument.getDescriptions().values());
+		writeAliases(propertyDocument.getAliases());
+		writeStatementGroups(propertyDocument.getStatementGroups());
+		writeStringReference(propertyDocument.getDatatype().getJsonString());
+		writeRecord(BinaryFormat.RECORD_PROPERTY);
+	}
+
+	@Override
+	public void processLexemeDocument(LexemeDocument lexemeDocument) {
+		payload.clear();
+		writeEntityId(lexemeDocument.getEntityId());
+		payload.writeVarLong(lexemeDocument.getRevisionId());
+		writeEntityId(lexemeDocument.getLexicalCategory());
+		writeEntityId(lexemeDocument.getLanguage());
+		writeTerms(lexemeDocument.getLemmas().values());
+		writeStatementGroups(lexemeDocument.getStatementGroups());
+		payload.writeVarLong(lexemeDocument.getForms().size());
+		for (FormDocument form : lexemeDocument.getForms()) {
+			writeEntityId(form.getEntityId());
+			payload.writeVarLong(form.getRevisionId());
+			writeTerms(form.getRepresentations().values());
+			writeEntityIds(form.getGrammaticalFeatures());
+			writeStatementGroups(form.getStatementGroups());
+		}
+		payload.writeVarLong(lexemeDocument.getSenses().size());
+		for (SenseDocument sense : lexemeDocument.getSenses()) {
+			writeEntityId(sense.getEntityId());
+			payload.writeVarLong(sense.getRevisionId());
+			writeTerms(sense.getGlosses().values());
+			writeStatementGroups(sense.getStatementGroups());
+		}
+		writeRecord(BinaryFormat.RECORD_LEXEME);
+	}
+
+	@Override
+	public void processMediaInfoDocument(MediaInfoDocument mediaInfoDocument) {
+		payload.clear();
+		writeEntityId(mediaInfoDocument.getEntityId());
+		payload.writeVarLong(mediaInfoDocument.getRevisionId());
+		writeTerms(mediaInfoDocument.getLabels().values());
+		writeStatementGroups(mediaInfoDocument.getStatementGroups());
+		writeRecord(BinaryFormat.RECORD_MEDIA_INFO);
+	}
+
+	@Override
+	public void close() {
+		try {
+			this.outputStream.write(BinaryFormat.RECORD_END);
+			this.outputStream.close();
+		} catch (IOException e) {
+			reportException(e);
+		}
+	}
+
+	/**
+	 * Returns the number of entity documents serialized so far.
+	 *
+	 * @return number of serialized entity documents
+	 */
+	public int getEntityDocumentCount() {
+		return this.entityDocumentCount;
+	}
+
+	/**
+	 * Returns the number of distinct strings in the string table so far.
+	 *
+	 * @return size of the string table
+	 */
+	public int getStringTableSize() {
+		return this.stringTable.size();
+	}
+
+	/**
+	 * Reports a given exception as a RuntimeException, since the interface does
+	 * not allow us to throw checked exceptions directly.
+	 *
+	 * @param e
+	 *            the exception to report
+	 * @throws RuntimeException
+	 *             in all cases
+	 */
+	private void reportException(Exception e) {
+		logger.error("Failed to write binary export: " + e.toString());
+		throw new RuntimeException(e.toString(), e);
+	}
+
+	/**
+	 * Writes the current payload as a record of the given type, preceded by a
+	 * record with the string table entries it introduced, if any.
+	 *
+	 * @param recordType
+	 *            the record type byte
+	 */
+	private void writeRecord(int recordType) {
+		try {
+			if (!newStrings.isEmpty()) {
+				stringPayload.clear();
+				stringPayload.writeVarLong(newStrings.size());
+				for (String string : newStrings) {
+					stringPayload.writeString(string);
+				}
+				newStrings.clear();
+				stringPayload.writeRecordTo(BinaryFormat.RECORD_STRINGS, outputStream);
+			}
+			payload.writeRecordTo(recordType, outputStream);
+		} catch (IOException e) {
+			reportException(e);
+		}
+		this.entityDocumentCount++;
+	}
+
+	/**
+	 * Writes a reference to the string table, adding the string to the table
+	 * if needed.
+	 *
+	 * @param string
+	 *            the string to refer to, or null
+	 */
+	private void writeStringReference(String string) {
+		if (string == null) {
+			payload.writeVarLong(0);
+			return;
+		}
+		Integer index = stringTable.get(string);
+		if (index == null) {
+			index = stringTable.size();
+			stringTable.put(string, index);
+			newStrings.add(string);
+		}
+		payload.writeVarLong(index + 1);
+	}
+
+	private void writeEntityId(EntityIdValue entityId) {
+		if (entityId instanceof ItemIdValue) {
+			writeNumericEntityId(BinaryFormat.ID_ITEM, entityId);
+		} else if (entityId instanceof PropertyIdValue) {
+			writeNumericEntityId(BinaryFormat.ID_PROPERTY, entityId);
+		} else if (entityId instanceof LexemeIdValue) {
+			writeNumericEntityId(BinaryFormat.ID_LEXEME, entityId);
+		} else if (entityId instanceof MediaInfoIdValue) {
+			writeNumericEntityId(BinaryFormat.ID_MEDIA_INFO, entityId);
+		} else if (entityId instanceof FormIdValue) {
+			payload.write(BinaryFormat.ID_FORM);
+			writeStringReference(entityId.getSiteIri());
+			payload.writeString(entityId.getId());
+		} else if (entityId instanceof SenseIdValue) {
+			payload.write(BinaryFormat.ID_SENSE);
+			writeStringReference(entityId.getSiteIri());
+			payload.writeString(entityId.getId());
+		} else {
+			throw new IllegalArgumentException(
+					"Cannot serialize entity id of type " + entityId.getClass());
+		}
+	}
+
+	private void writeNumericEntityId(int idType, EntityIdValue entityId) {
+		payload.write(idType);
+		writeStringReference(entityId.getSiteIri());
+		payload.writeVarLong(Long.parseLong(entityId.getId().substring(1)));
+	}
+
+	private void writeEntityIds(List<? extends EntityIdValue> entityIds) {
+		payload.writeVarLong(entityIds.size());
+		for (EntityIdValue entityId : entityIds) {
+			writeEntityId(entityId);
+		}
+	}
+
+	private void writeTerms(Collection<MonolingualTextValue> terms) {
+		payload.writeVarLong(terms.size());
+		for (MonolingualTextValue term : terms) {
+			writeStringReference(term.getLanguageCode());
+			payload.writeString(term.getText());
+		}
+	}
+
+	private void writeAliases(Map<String, List<MonolingualTextValue>> aliases) {
+		payload.writeVarLong(aliases.size());
+		for (Map.Entry<String, List<MonolingualTextValue>> entry : aliases.entrySet()) {
+			writeStringReference(entry.getKey());
+			payload.writeVarLong(entry.getValue().size());
+			for (MonolingualTextValue alias : entry.getValue()) {
+				payload.writeString(alias.getText());
+			}
+		}
+	}
+
+	private void writeStatementGroups(List<StatementGroup> statementGroups) {
+		payload.writeVarLong(statementGroups.size());
+		for (StatementGroup statementGroup : statementGroups) {
+			payload.writeVarLong(statementGroup.size());
+			for (Statement statement : statementGroup) {
+				writeStatement(statement);
+			}
+		}
+	}
+
+	private void writeStatement(Statement statement) {
+		String statementId = statement.getStatementId();
+		payload.writeString(statementId == null ? "" : statementId);
+		payload.write(statement.getRank().ordinal());
+		writeSnak(statement.getMainSnak());
+		writeSnakGroups(statement.getQualifiers());
+		payload.writeVarLong(statement.getReferences().size());
+		for (Reference reference : statement.getReferences()) {
+			payload.writeNullableString(reference.getHash());
+			writeSnakGroups(reference.getSnakGroups());
+		}
+	}
+
+	private void writeSnakGroups(List<SnakGroup> snakGroups) {
+		payload.writeVarLong(snakGroups.size());
+		for (SnakGroup snakGroup : snakGroups) {
+			payload.writeVarLong(snakGroup.size());
+			for (Snak snak : snakGroup) {
+				writeSnak(snak);
+			}
+		}
+	}
+
+	private void writeSnak(Snak snak) {
+		if (snak instanceof ValueSnak) {
+			payload.write(BinaryFormat.SNAK_VALUE);
+			writePropertyId(snak.getPropertyId());
+			writeStringReference(snak instanceof ValueSnakImpl
+					? ((ValueSnakImpl) snak).getDatatype() : null);
+			((ValueSnak) snak).getValue().accept(valueWriter);
+		} else if (snak instanceof SomeValueSnak) {
+			payload.write(BinaryFormat.SNAK_SOME_VALUE);
+			writePropertyId(snak.getPropertyId());
+		} else if (snak instanceof NoValueSnak) {
+			payload.write(BinaryFormat.SNAK_NO_VALUE);
+			writePropertyId(snak.getPropertyId());
+		} else {
+			throw new IllegalArgumentException(
+					"Cannot serialize snak of type " + snak.getClass());
+		}
+	}
+
+	private void writePropertyId(PropertyIdValue propertyId) {
+		writeStringReference(propertyId.getSiteIri());
+		payload.writeVarLong(Long.parseLong(propertyId.getId().substring(1)));
+	}
+
+	private void writeBigDecimal(BigDecimal value) {
+		payload.writeVarLong(BinaryFormat.zigZagEncode(value.scale()));
+		byte[] unscaled = value.unscaledValue().toByteArray();
+		payload.writeVarLong(unscaled.length);
+		payload.write(unscaled, 0, unscaled.length);
+	}
+
+	/**
+	 * Writes the JSON serialization of a value that has no binary
+	 * representation.
+	 */
+	private void writeJson(Value value) {
+		try {
+			payload.writeString(JsonSerializer.mapper.writeValueAsString(value));
+		} catch (JsonProcessingException e) {
+			reportException(e);
+		}
+	}
+
+	/**
+	 * Writes values to the payload, preceded by their type byte.
+	 */
+	private class ValueWriter implements ValueVisitor<Void> {
+
+		@Override
+		public Void visit(EntityIdValue value) {
+			if (value instanceof UnsupportedEntityIdValue) {
+				payload.write(BinaryFormat.VALUE_UNSUPPORTED_ENTITY_ID);
+				writeStringReference(value.getSiteIri());
+				writeJson(value);
+			} else {
+				payload.write(BinaryFormat.VALUE_ENTITY_ID);
+				writeEntityId(value);
+			}
+			return null;
+		}
+
+		@Override
+		public Void visit(GlobeCoordinatesValue value) {
+			payload.write(BinaryFormat.VALUE_GLOBE_COORDINATES);
+			payload.writeDouble(value.getLatitude());
+			payload.writeDouble(value.getLongitude());
+			payload.writeDouble(value.getPrecision());
+			writeStringReference(value.getGlobe());
+			return null;
+		}
+
+		@Override
+		public Void visit(MonolingualTextValue value) {
+			payload.write(BinaryFormat.VALUE_MONOLINGUAL_TEXT);
+			writeStringReference(value.getLanguageCode());
+			payload.writeString(value.getText());
+			return null;
+		}
+
+		@Override
+		public Void visit(QuantityValue value) {
+			payload.write(BinaryFormat.VALUE_QUANTITY);
+			int flags = 0;
+			if (value.getLowerBound() != null) {
+				flags |= BinaryFormat.QUANTITY_HAS_BOUNDS;
+			}
+			if (value.getUnitItemId() != null) {
+				flags |= BinaryFormat.QUANTITY_HAS_UNIT;
+			}
+			payload.write(flags);
+			writeBigDecimal(value.getNumericValue());
+			if (value.getLowerBound() != null) {
+				writeBigDecimal(value.getLowerBound());
+				writeBigDecimal(value.getUpperBound());
+			}
+			if (value.getUnitItemId() != null) {
+				writeEntityId(value.getUnitItemId());
+			}
+			return null;
+		}
+
+		@Override
+		public Void visit(StringValue value) {
+			payload.write(BinaryFormat.VALUE_STRING);
+			payload.writeString(value.getString());
+			return null;
+		}
+
+		@Override
+		public Void visit(TimeValue value) {
+			payload.write(BinaryFormat.VALUE_TIME);
+			payload.writeVarLong(BinaryFormat.zigZagEncode(value.getYear()));
+			payload.write(value.getMonth());
+			payload.write(value.getDay());
+			payload.write(value.getHour());
+			payload.write(value.getMinute());
+			payload.write(value.getSecond());
+			payload.write(value.getPrecision());
+			payload.writeVarLong(BinaryFormat.zigZagEncode(value.getTimezoneOffset()));
+			payload.writeVarLong(BinaryFormat.zigZagEncode(value.getBeforeTolerance()));
+			payload.writeVarLong(BinaryFormat.zigZagEncode(value.getAfterTolerance()));
+			writeStringReference(value.getPreferredCalendarModel());
+			return null;
+		}
+
+		@Override
+		public Void visit(UnsupportedValue value) {
+			payload.write(BinaryFormat.VALUE_UNSUPPORTED);
+			writeJson(value);
+			return null;
+		}
+	}
+
+	/**
+	 * Growable byte buffer with the primitive encodings of the format.
+	 */
+	private static class RecordBuffer {
+
+		private byte[] bytes = new byte[4096];
+		private int size;
+
+		void clear() {
+			size = 0;
+		}
+
+		private void ensureCapacity(int additional) {
+			if (size + additional > bytes.length) {
+				byte[] newBytes = new byte[Math.max(bytes.length * 2, size + additional)];
+				System.arraycopy(bytes, 0, newBytes, 0, size);
+				bytes = newBytes;
+			}
+		}
+
+		void write(int b) {
+			ensureCapacity(1);
+			bytes[size++] = (byte) b;
+		}
+
+		void write(byte[] source, int offset, int length) {
+			ensureCapacity(length);
+			System.arraycopy(source, offset, bytes, size, length);
+			size += length;
+		}
+
+		void writeVarLong(long value) {
+			ensureCapacity(10);
+			while ((value & ~0x7FL) != 0) {
+				bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			bytes[size++] = (byte) value;
+		}
+
+		void writeDouble(double value) {
+			long bits = Double.doubleToRawLongBits(value);
+			ensureCapacity(8);
+			for (int shift = 56; shift >= 0; shift -= 8) {
+				bytes[size++] = (byte) (bits >>> shift);
+			}
+		}
+
+		void writeString(String string) {
+			byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+			writeVarLong(utf8.length);
+			write(utf8, 0, utf8.length);
+		}
+
+		/**
+		 * Writes a string that may be null. Null is encoded as length 0, and
+		 * all other strings have their length shifted by one.
+		 */
+		void writeNullableString(String string) {
+			if (string == null) {
+				writeVarLong(0);
+			} else {
+				byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+				writeVarLong(utf8.length + 1L);
+				write(utf8, 0, utf8.length);
+			}
+		}
+
+		void writeRecordTo(int recordType, OutputStream out) throws IOException {
+			out.write(recordType);
+			long length = size;
+			while ((length & ~0x7FL) != 0) {
+				out.write((int) ((length & 0x7F) | 0x80));
+				length >>>= 7;
+			}
+			out.write((int) length);
+			out.write(bytes, 0, size);
+		}
+	}
+
+}
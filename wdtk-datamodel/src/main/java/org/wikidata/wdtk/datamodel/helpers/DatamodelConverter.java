@@ -25,6 +25,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -71,6 +73,15 @@ import org.wikidata.wdtk.datamodel.interfaces.ValueVisitor;
  * immutable and do not need to be copied. The use of this class is to convert
  * data objects to a specific implementation, as might be needed for some
  * specialized purpose (e.g., for JSON export).
+ * <p>
+ * In the {@link CopyMode#STRUCTURAL_SHARING} mode, objects that already
+ * belong to the target implementation are reused instead of copied. The
+ * converter remembers the classes of the objects created by its factory, and
+ * an object of such a class is returned as it is if all of its parts are
+ * returned as they are. Otherwise, a new object is created with the converted
+ * parts, so only the containers of parts that change are rebuilt. This
+ * relies on data objects being immutable. The first object of each kind is
+ * always copied, since the classes of the factory are not known before.
  *
  * @author Markus Kroetzsch
  *
@@ -81,19 +92,124 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	static final Logger logger = LoggerFactory
 			.getLogger(DatamodelConverter.class);
 
+	/**
+	 * Ways of converting objects.
+	 */
+	public enum CopyMode {
+		/**
+		 * Every object is copied with the factory.
+		 */
+		DEEP_COPY,
+		/**
+		 * Objects that were created by the factory, or by the same
+		 * implementation, are reused if none of their parts change.
+		 */
+		STRUCTURAL_SHARING
+	}
+
 	/**
 	 * The factory to use for copying.
 	 */
 	private final DataObjectFactory dataObjectFactory;
 
 	/**
-	 * Constructor.
+	 * Classes of the objects created by {@link #dataObjectFactory}, or null if
+	 * objects are always copied.
+	 */
+	private final Set<Class<?>> targetClasses;
+
+	/**
+	 * Constructor. All objects are copied.
 	 *
 	 * @param dataObjectFactory
 	 *            the factory to use for creating new objects
 	 */
 	public DatamodelConverter(DataObjectFactory dataObjectFactory) {
+		this(dataObjectFactory, CopyMode.DEEP_COPY);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param dataObjectFactory
+	 *            the factory to use for creating new objects
+	 * @param copyMode
+	 *            whether objects of the target implementation are copied or
+	 *            reused
+	 */
+	public DatamodelConverter(DataObjectFactory dataObjectFactory, CopyMode copyMode) {
 		this.dataObjectFactory = dataObjectFactory;
+		this.targetClasses = copyMode == CopyMode.STRUCTURAL_SHARING
+				? ConcurrentHashMap.newKeySet() : null;
+	}
+
+	/**
+	 * Returns true if the given object can be reused, provided that its parts
+	 * are reused too.
+	 */
+	private boolean isShareable(Object object) {
+		return targetClasses != null && targetClasses.contains(object.getClass());
+	}
+
+	/**
+	 * Records the class of an object created by the factory.
+	 */
+	private <T> T created(T object) {
+		if (targetClasses != null && object != null) {
+			targetClasses.add(object.getClass());
+		}
+		return object;
+	}
+
+	private static boolean sameAliases(List<MonolingualTextValue> copies,
+			Map<String, List<MonolingualTextValue>> originals) {
+		int i = 0;
+		for (List<MonolingualTextValue> aliases : originals.values()) {
+			for (MonolingualTextValue alias : aliases) {
+				if (i >= copies.size() || copies.get(i++) != alias) {
+					return false;
+				}
+			}
+		}
+		return i == copies.size();
+	}
+
+	/**
+	 * Records the class of a document created by the factory, and the class
+	 * of its terms, which documents may store in another class than the one
+	 * of the monolingual text values of the factory.
+	 */
+	private <T> T created(T document, Map<String, MonolingualTextValue> terms) {
+		created(document);
+		if (targetClasses != null && !terms.isEmpty()) {
+			targetClasses.add(terms.values().iterator().next().getClass());
+		}
+		return document;
+	}
+
+	private static <K> boolean sameValues(Map<K, ?> copies, Map<K, ?> originals) {
+		if (copies.size() != originals.size()) {
+			return false;
+		}
+		for (Entry<K, ?> entry : originals.entrySet()) {
+			if (copies.get(entry.getKey()) != entry.getValue()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean sameElements(List<?> copies, Collection<?> originals) {
+		if (copies.size() != originals.size()) {
+			return false;
+		}
+		int i = 0;
+		for (Object original : originals) {
+			if (copies.get(i++) != original) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	/**
@@ -104,7 +220,10 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public ItemIdValue copy(ItemIdValue object) {
-		return dataObjectFactory.getItemIdValue(object.getId(), object.getSiteIri());
+		if (isShareable(object)) {
+			return object;
+		}
+		return created(dataObjectFactory.getItemIdValue(object.getId(), object.getSiteIri()));
 	}
 
 	/**
@@ -115,7 +234,10 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public PropertyIdValue copy(PropertyIdValue object) {
-		return dataObjectFactory.getPropertyIdValue(object.getId(), object.getSiteIri());
+		if (isShareable(object)) {
+			return object;
+		}
+		return created(dataObjectFactory.getPropertyIdValue(object.getId(), object.getSiteIri()));
 	}
 
 	/**
@@ -126,7 +248,10 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public LexemeIdValue copy(LexemeIdValue object) {
-		return dataObjectFactory.getLexemeIdValue(object.getId(), object.getSiteIri());
+		if (isShareable(object)) {
+			return object;
+		}
+		return created(dataObjectFactory.getLexemeIdValue(object.getId(), object.getSiteIri()));
 	}
 	
 	/**
@@ -137,7 +262,10 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
      * @return copied object
      */
     public FormIdValue copy(FormIdValue object) {
-        return dataObjectFactory.getFormIdValue(object.getId(), object.getSiteIri());
+        if (isShareable(object)) {
+        	return object;
+        }
+        return created(dataObjectFactory.getFormIdValue(object.getId(), object.getSiteIri()));
     }
     
     /**
@@ -148,7 +276,10 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
      * @return copied object
      */
     public SenseIdValue copy(SenseIdValue object) {
-        return dataObjectFactory.getSenseIdValue(object.getId(), object.getSiteIri());
+        if (isShareable(object)) {
+        	return object;
+        }
+        return created(dataObjectFactory.getSenseIdValue(object.getId(), object.getSiteIri()));
     }
     
     /**
@@ -159,7 +290,10 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
      * @return copied object
      */
     public MediaInfoIdValue copy(MediaInfoIdValue object) {
-        return dataObjectFactory.getMediaInfoIdValue(object.getId(), object.getSiteIri());
+        if (isShareable(object)) {
+        	return object;
+        }
+        return created(dataObjectFactory.getMediaInfoIdValue(object.getId(), object.getSiteIri()));
     }
 
 	/**
@@ -170,7 +304,10 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public DatatypeIdValue copy(DatatypeIdValue object) {
-		return dataObjectFactory.getDatatypeIdValueFromJsonId(object.getJsonString());
+		if (isShareable(object)) {
+			return object;
+		}
+		return created(dataObjectFactory.getDatatypeIdValueFromJsonId(object.getJsonString()));
 	}
 
 	/**
@@ -181,11 +318,14 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public TimeValue copy(TimeValue object) {
-		return dataObjectFactory.getTimeValue(object.getYear(),
+		if (isShareable(object)) {
+			return object;
+		}
+		return created(dataObjectFactory.getTimeValue(object.getYear(),
 				object.getMonth(), object.getDay(), object.getHour(),
 				object.getMinute(), object.getSecond(), object.getPrecision(),
 				object.getBeforeTolerance(), object.getAfterTolerance(),
-				object.getTimezoneOffset(), object.getPreferredCalendarModel());
+				object.getTimezoneOffset(), object.getPreferredCalendarModel()));
 	}
 
 	/**
@@ -196,9 +336,12 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public GlobeCoordinatesValue copy(GlobeCoordinatesValue object) {
-		return dataObjectFactory.getGlobeCoordinatesValue(
+		if (isShareable(object)) {
+			return object;
+		}
+		return created(dataObjectFactory.getGlobeCoordinatesValue(
 				object.getLatitude(), object.getLongitude(),
-				object.getPrecision(), object.getGlobe());
+				object.getPrecision(), object.getGlobe()));
 	}
 
 	/**
@@ -209,7 +352,10 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public StringValue copy(StringValue object) {
-		return dataObjectFactory.getStringValue(object.getString());
+		if (isShareable(object)) {
+			return object;
+		}
+		return created(dataObjectFactory.getStringValue(object.getString()));
 	}
 
 	/**
@@ -219,7 +365,10 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public MonolingualTextValue copy(MonolingualTextValue object) {
-		return dataObjectFactory.getMonolingualTextValue(object.getText(), object.getLanguageCode());
+		if (isShareable(object)) {
+			return object;
+		}
+		return created(dataObjectFactory.getMonolingualTextValue(object.getText(), object.getLanguageCode()));
 	}
 
 	/**
@@ -230,9 +379,12 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public QuantityValue copy(QuantityValue object) {
-		return dataObjectFactory.getQuantityValue(
+		if (isShareable(object)) {
+			return object;
+		}
+		return created(dataObjectFactory.getQuantityValue(
 				object.getNumericValue(), object.getLowerBound(),
-				object.getUpperBound(), object.getUnitItemId());
+				object.getUpperBound(), object.getUnitItemId()));
 	}
 	
 	/**
@@ -275,7 +427,14 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public ValueSnak copy(ValueSnak object) {
-		return dataObjectFactory.getValueSnak(copy(object.getPropertyId()), copyValue(object.getValue()));
+		PropertyIdValue propertyId = object.getPropertyId();
+		Value value = object.getValue();
+		PropertyIdValue propertyIdCopy = copy(propertyId);
+		Value valueCopy = copyValue(value);
+		if (propertyIdCopy == propertyId && valueCopy == value && isShareable(object)) {
+			return object;
+		}
+		return created(dataObjectFactory.getValueSnak(propertyIdCopy, valueCopy));
 	}
 
 	/**
@@ -286,7 +445,12 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public SomeValueSnak copy(SomeValueSnak object) {
-		return dataObjectFactory.getSomeValueSnak(copy(object.getPropertyId()));
+		PropertyIdValue propertyId = object.getPropertyId();
+		PropertyIdValue propertyIdCopy = copy(propertyId);
+		if (propertyIdCopy == propertyId && isShareable(object)) {
+			return object;
+		}
+		return created(dataObjectFactory.getSomeValueSnak(propertyIdCopy));
 	}
 
 	/**
@@ -297,7 +461,12 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public NoValueSnak copy(NoValueSnak object) {
-		return dataObjectFactory.getNoValueSnak(copy(object.getPropertyId()));
+		PropertyIdValue propertyId = object.getPropertyId();
+		PropertyIdValue propertyIdCopy = copy(propertyId);
+		if (propertyIdCopy == propertyId && isShareable(object)) {
+			return object;
+		}
+		return created(dataObjectFactory.getNoValueSnak(propertyIdCopy));
 	}
 
 	/**
@@ -312,7 +481,10 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 		for (Snak snak : object) {
 			snaks.add(copy(snak));
 		}
-		return dataObjectFactory.getSnakGroup(snaks);
+		if (isShareable(object) && sameElements(snaks, object.getSnaks())) {
+			return object;
+		}
+		return created(dataObjectFactory.getSnakGroup(snaks));
 	}
 
 	/**
@@ -323,10 +495,17 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public Claim copy(Claim object) {
-		return dataObjectFactory.getClaim(
-				(EntityIdValue) visit(object.getSubject()),
-				copy(object.getMainSnak()),
-				copy(object.getQualifiers()));
+		EntityIdValue subject = object.getSubject();
+		Snak mainSnak = object.getMainSnak();
+		List<SnakGroup> qualifiers = object.getQualifiers();
+		EntityIdValue subjectCopy = (EntityIdValue) visit(subject);
+		Snak mainSnakCopy = copy(mainSnak);
+		List<SnakGroup> qualifiersCopy = copy(qualifiers);
+		if (subjectCopy == subject && mainSnakCopy == mainSnak
+				&& isShareable(object) && sameElements(qualifiersCopy, qualifiers)) {
+			return object;
+		}
+		return created(dataObjectFactory.getClaim(subjectCopy, mainSnakCopy, qualifiersCopy));
 	}
 
 	/**
@@ -337,7 +516,12 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public Reference copy(Reference object) {
-		return dataObjectFactory.getReference(copy(object.getSnakGroups()));
+		List<SnakGroup> snakGroups = object.getSnakGroups();
+		List<SnakGroup> snakGroupsCopy = copy(snakGroups);
+		if (isShareable(object) && sameElements(snakGroupsCopy, snakGroups)) {
+			return object;
+		}
+		return created(dataObjectFactory.getReference(snakGroupsCopy));
 	}
 
 	/**
@@ -348,12 +532,20 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public Statement copy(Statement object) {
-		return dataObjectFactory.getStatement(
-				(EntityIdValue) visit(object.getSubject()),
-				copy(object.getMainSnak()),
-				copy(object.getQualifiers()),
-				copyReferences(object.getReferences()),
-				object.getRank(), object.getStatementId());
+		EntityIdValue subject = object.getSubject();
+		Snak mainSnak = object.getMainSnak();
+		List<SnakGroup> qualifiers = object.getQualifiers();
+		List<Reference> references = object.getReferences();
+		EntityIdValue subjectCopy = (EntityIdValue) visit(subject);
+		Snak mainSnakCopy = copy(mainSnak);
+		List<SnakGroup> qualifiersCopy = copy(qualifiers);
+		List<Reference> referencesCopy = copyReferences(references);
+		if (subjectCopy == subject && mainSnakCopy == mainSnak && isShareable(object)
+				&& sameElements(qualifiersCopy, qualifiers) && sameElements(referencesCopy, references)) {
+			return object;
+		}
+		return created(dataObjectFactory.getStatement(subjectCopy, mainSnakCopy, qualifiersCopy,
+				referencesCopy, object.getRank(), object.getStatementId()));
 	}
 
 	/**
@@ -363,11 +555,15 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public StatementGroup copy(StatementGroup object) {
-		List<Statement> statements = new ArrayList<>(object.getStatements().size());
-		for (Statement statement : object.getStatements()) {
+		List<Statement> originals = object.getStatements();
+		List<Statement> statements = new ArrayList<>(originals.size());
+		for (Statement statement : originals) {
 			statements.add(copy(statement));
 		}
-		return dataObjectFactory.getStatementGroup(statements);
+		if (isShareable(object) && sameElements(statements, originals)) {
+			return object;
+		}
+		return created(dataObjectFactory.getStatementGroup(statements));
 	}
 
 	/**
@@ -378,8 +574,11 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public SiteLink copy(SiteLink object) {
-		return dataObjectFactory.getSiteLink(object.getPageTitle(),
-				object.getSiteKey(), object.getBadges());
+		if (isShareable(object)) {
+			return object;
+		}
+		return created(dataObjectFactory.getSiteLink(object.getPageTitle(),
+				object.getSiteKey(), object.getBadges()));
 	}
 
 	/**
@@ -390,14 +589,29 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public PropertyDocument copy(PropertyDocument object) {
-		return dataObjectFactory.getPropertyDocument(
-				copy(object.getEntityId()),
-				copyMonoLingualTextValues(object.getLabels().values()),
-				copyMonoLingualTextValues(object.getDescriptions().values()),
-				copyAliasMap(object.getAliases()),
-				copyStatementGroups(object.getStatementGroups()),
-				copy(object.getDatatype()),
+		PropertyIdValue entityId = object.getEntityId();
+		Collection<MonolingualTextValue> labels = object.getLabels().values();
+		Collection<MonolingualTextValue> descriptions = object.getDescriptions().values();
+		Map<String, List<MonolingualTextValue>> aliases = object.getAliases();
+		List<StatementGroup> statementGroups = object.getStatementGroups();
+		DatatypeIdValue datatype = object.getDatatype();
+		PropertyIdValue entityIdCopy = copy(entityId);
+		List<MonolingualTextValue> labelsCopy = copyMonoLingualTextValues(labels);
+		List<MonolingualTextValue> descriptionsCopy = copyMonoLingualTextValues(descriptions);
+		List<MonolingualTextValue> aliasesCopy = copyAliasMap(aliases);
+		List<StatementGroup> statementGroupsCopy = copyStatementGroups(statementGroups);
+		DatatypeIdValue datatypeCopy = copy(datatype);
+		if (isShareable(object) && entityIdCopy == entityId && datatypeCopy == datatype
+				&& sameElements(labelsCopy, labels)
+				&& sameElements(descriptionsCopy, descriptions)
+				&& sameAliases(aliasesCopy, aliases)
+				&& sameElements(statementGroupsCopy, statementGroups)) {
+			return object;
+		}
+		PropertyDocument result = dataObjectFactory.getPropertyDocument(entityIdCopy, labelsCopy,
+				descriptionsCopy, aliasesCopy, statementGroupsCopy, datatypeCopy,
 				object.getRevisionId());
+		return created(result, result.getLabels());
 	}
 
 	/**
@@ -408,14 +622,30 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public ItemDocument copy(ItemDocument object) {
-		return dataObjectFactory.getItemDocument(
-				copy(object.getEntityId()),
-				copyMonoLingualTextValues(object.getLabels().values()),
-				copyMonoLingualTextValues(object.getDescriptions().values()),
-				copyAliasMap(object.getAliases()),
-				copyStatementGroups(object.getStatementGroups()),
-				copySiteLinks(object.getSiteLinks()),
+		ItemIdValue entityId = object.getEntityId();
+		Collection<MonolingualTextValue> labels = object.getLabels().values();
+		Collection<MonolingualTextValue> descriptions = object.getDescriptions().values();
+		Map<String, List<MonolingualTextValue>> aliases = object.getAliases();
+		List<StatementGroup> statementGroups = object.getStatementGroups();
+		Map<String, SiteLink> siteLinks = object.getSiteLinks();
+		ItemIdValue entityIdCopy = copy(entityId);
+		List<MonolingualTextValue> labelsCopy = copyMonoLingualTextValues(labels);
+		List<MonolingualTextValue> descriptionsCopy = copyMonoLingualTextValues(descriptions);
+		List<MonolingualTextValue> aliasesCopy = copyAliasMap(aliases);
+		List<StatementGroup> statementGroupsCopy = copyStatementGroups(statementGroups);
+		Map<String, SiteLink> siteLinksCopy = copySiteLinks(siteLinks);
+		if (isShareable(object) && entityIdCopy == entityId
+				&& sameElements(labelsCopy, labels)
+				&& sameElements(descriptionsCopy, descriptions)
+				&& sameAliases(aliasesCopy, aliases)
+				&& sameElements(statementGroupsCopy, statementGroups)
+				&& sameValues(siteLinksCopy, siteLinks)) {
+			return object;
+		}
+		ItemDocument result = dataObjectFactory.getItemDocument(entityIdCopy, labelsCopy,
+				descriptionsCopy, aliasesCopy, statementGroupsCopy, siteLinksCopy,
 				object.getRevisionId());
+		return created(result, result.getLabels());
 	}
 	
 	/**
@@ -426,11 +656,20 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	 * @return copied object
 	 */
 	public MediaInfoDocument copy(MediaInfoDocument object) {
-	    return dataObjectFactory.getMediaInfoDocument(
-	            copy(object.getEntityId()),
-	            copyMonoLingualTextValues(object.getLabels().values()),
-	            copyStatementGroups(object.getStatementGroups()),
-	            object.getRevisionId());
+	    MediaInfoIdValue entityId = object.getEntityId();
+	    Collection<MonolingualTextValue> labels = object.getLabels().values();
+	    List<StatementGroup> statementGroups = object.getStatementGroups();
+	    MediaInfoIdValue entityIdCopy = copy(entityId);
+	    List<MonolingualTextValue> labelsCopy = copyMonoLingualTextValues(labels);
+	    List<StatementGroup> statementGroupsCopy = copyStatementGroups(statementGroups);
+	    if (isShareable(object) && entityIdCopy == entityId
+	            && sameElements(labelsCopy, labels)
+	            && sameElements(statementGroupsCopy, statementGroups)) {
+	        return object;
+	    }
+	    MediaInfoDocument result = dataObjectFactory.getMediaInfoDocument(entityIdCopy, labelsCopy,
+	            statementGroupsCopy, object.getRevisionId());
+	    return created(result, result.getLabels());
 	}
 	
 	/**
@@ -441,15 +680,32 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
      * @return copied object
      */
     public LexemeDocument copy(LexemeDocument object) {
-        return dataObjectFactory.getLexemeDocument(
-                copy(object.getEntityId()),
-                copy(object.getLexicalCategory()),
-                copy(object.getLanguage()),
-                copyMonoLingualTextValues(object.getLemmas().values()),
-                copyStatementGroups(object.getStatementGroups()),
-                copyFormDocuments(object.getForms()),
-                copySenseDocuments(object.getSenses()),
+        LexemeIdValue entityId = object.getEntityId();
+        ItemIdValue lexicalCategory = object.getLexicalCategory();
+        ItemIdValue language = object.getLanguage();
+        Collection<MonolingualTextValue> lemmas = object.getLemmas().values();
+        List<StatementGroup> statementGroups = object.getStatementGroups();
+        List<FormDocument> forms = object.getForms();
+        List<SenseDocument> senses = object.getSenses();
+        LexemeIdValue entityIdCopy = copy(entityId);
+        ItemIdValue lexicalCategoryCopy = copy(lexicalCategory);
+        ItemIdValue languageCopy = copy(language);
+        List<MonolingualTextValue> lemmasCopy = copyMonoLingualTextValues(lemmas);
+        List<StatementGroup> statementGroupsCopy = copyStatementGroups(statementGroups);
+        List<FormDocument> formsCopy = copyFormDocuments(forms);
+        List<SenseDocument> sensesCopy = copySenseDocuments(senses);
+        if (isShareable(object) && entityIdCopy == entityId
+                && lexicalCategoryCopy == lexicalCategory && languageCopy == language
+                && sameElements(lemmasCopy, lemmas)
+                && sameElements(statementGroupsCopy, statementGroups)
+                && sameElements(formsCopy, forms)
+                && sameElements(sensesCopy, senses)) {
+            return object;
+        }
+        LexemeDocument result = dataObjectFactory.getLexemeDocument(entityIdCopy, lexicalCategoryCopy,
+                languageCopy, lemmasCopy, statementGroupsCopy, formsCopy, sensesCopy,
                 object.getRevisionId());
+        return created(result, result.getLemmas());
     }
     
     /**
@@ -460,12 +716,23 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
      * @return copied object
      */
     public FormDocument copy(FormDocument object) {
-        return dataObjectFactory.getFormDocument(
-                copy(object.getEntityId()),
-                copyMonoLingualTextValues(object.getRepresentations().values()),
-                copyItemIds(object.getGrammaticalFeatures()),
-                copyStatementGroups(object.getStatementGroups()),
-                object.getRevisionId());
+        FormIdValue entityId = object.getEntityId();
+        Collection<MonolingualTextValue> representations = object.getRepresentations().values();
+        List<ItemIdValue> grammaticalFeatures = object.getGrammaticalFeatures();
+        List<StatementGroup> statementGroups = object.getStatementGroups();
+        FormIdValue entityIdCopy = copy(entityId);
+        List<MonolingualTextValue> representationsCopy = copyMonoLingualTextValues(representations);
+        List<ItemIdValue> grammaticalFeaturesCopy = copyItemIds(grammaticalFeatures);
+        List<StatementGroup> statementGroupsCopy = copyStatementGroups(statementGroups);
+        if (isShareable(object) && entityIdCopy == entityId
+                && sameElements(representationsCopy, representations)
+                && sameElements(grammaticalFeaturesCopy, grammaticalFeatures)
+                && sameElements(statementGroupsCopy, statementGroups)) {
+            return object;
+        }
+        FormDocument result = dataObjectFactory.getFormDocument(entityIdCopy, representationsCopy,
+                grammaticalFeaturesCopy, statementGroupsCopy, object.getRevisionId());
+        return created(result, result.getRepresentations());
     }
     
 
@@ -477,11 +744,20 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
      * @return copied object
      */
     public SenseDocument copy(SenseDocument object) {
-        return dataObjectFactory.getSenseDocument(
-                copy(object.getEntityId()),
-                copyMonoLingualTextValues(object.getGlosses().values()),
-                copyStatementGroups(object.getStatementGroups()),
-                object.getRevisionId());
+        SenseIdValue entityId = object.getEntityId();
+        Collection<MonolingualTextValue> glosses = object.getGlosses().values();
+        List<StatementGroup> statementGroups = object.getStatementGroups();
+        SenseIdValue entityIdCopy = copy(entityId);
+        List<MonolingualTextValue> glossesCopy = copyMonoLingualTextValues(glosses);
+        List<StatementGroup> statementGroupsCopy = copyStatementGroups(statementGroups);
+        if (isShareable(object) && entityIdCopy == entityId
+                && sameElements(glossesCopy, glosses)
+                && sameElements(statementGroupsCopy, statementGroups)) {
+            return object;
+        }
+        SenseDocument result = dataObjectFactory.getSenseDocument(entityIdCopy, glossesCopy,
+                statementGroupsCopy, object.getRevisionId());
+        return created(result, result.getGlosses());
     }
     
     
@@ -620,8 +896,7 @@ public class DatamodelConverter implements SnakVisitor<Snak>,
 	private List<Reference> copyReferences(List<Reference> references) {
 		List<Reference> result = new ArrayList<>(references.size());
 		for (Reference reference : references) {
-			result.add(dataObjectFactory
-					.getReference(copy(reference.getSnakGroups())));
+			result.add(copy(reference));
 		}
 		return result;
 	}
@@ -26,7 +26,8 @@ import java.util.*;
 
 /**
  * This is a utility class that allows to filter {@link EntityDocument}
- * using the data declared in a {@link DocumentDataFilter}.
+ * using the data declared in a {@link DocumentDataFilter}. Lookups use the
+ * {@link CompiledDocumentDataFilter} of the filter.
  */
 public class DatamodelFilter {
 
@@ -129,16 +130,17 @@ public class DatamodelFilter {
 	}
 
 	private List<MonolingualTextValue> filterMonoLingualTextValues(Collection<MonolingualTextValue> values) {
-		if (filter.getLanguageFilter() == null) {
+		CompiledDocumentDataFilter compiled = filter.compile();
+		if (compiled.getLanguageFilter() == null) {
 			return new ArrayList<>(values);
 		}
-		if (filter.getLanguageFilter().isEmpty()) {
+		if (compiled.excludeAllLanguages()) {
 			return Collections.emptyList();
 		}
 
 		List<MonolingualTextValue> output = new ArrayList<>();
 		for(MonolingualTextValue value : values) {
-			if (filter.getLanguageFilter().contains(value.getLanguageCode())) {
+			if (compiled.includeLanguage(value.getLanguageCode())) {
 				output.add(value);
 			}
 		}
@@ -146,16 +148,17 @@ public class DatamodelFilter {
 	}
 
 	private List<StatementGroup> filterStatementGroups(List<StatementGroup> statementGroups) {
-		if (filter.getPropertyFilter() == null) {
+		CompiledDocumentDataFilter compiled = filter.compile();
+		if (compiled.getPropertyFilter() == null) {
 			return statementGroups;
 		}
-		if (filter.getPropertyFilter().isEmpty()) {
+		if (compiled.excludeAllProperties()) {
 			return Collections.emptyList();
 		}
 
 		List<StatementGroup> output = new ArrayList<>(statementGroups.size());
 		for(StatementGroup statementGroup : statementGroups) {
-			if(filter.getPropertyFilter().contains(statementGroup.getProperty())) {
+			if(compiled.includePropertyId(statementGroup.getProperty())) {
 				output.add(statementGroup);
 			}
 		}
@@ -163,16 +166,17 @@ public class DatamodelFilter {
 	}
 
 	private Map<String, SiteLink> filterSiteLinks(Map<String, SiteLink> siteLinks) {
-		if (filter.getSiteLinkFilter() == null) {
+		CompiledDocumentDataFilter compiled = filter.compile();
+		if (compiled.getSiteLinkFilter() == null) {
 			return siteLinks;
 		}
-		if (filter.getSiteLinkFilter().isEmpty()) {
+		if (compiled.excludeAllSiteLinks()) {
 			return Collections.emptyMap();
 		}
 
 		Map<String, SiteLink> result = new HashMap<>(siteLinks.size());
 		for (Map.Entry<String, SiteLink> entry : siteLinks.entrySet()) {
-			if (filter.getSiteLinkFilter().contains(entry.getKey())) {
+			if (compiled.includeSiteLink(entry.getKey())) {
 				result.put(entry.getKey(), entry.getValue());
 			}
 		}
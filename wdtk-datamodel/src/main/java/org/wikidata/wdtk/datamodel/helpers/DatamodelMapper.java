@@ -19,6 +19,8 @@
  */
 package org.wikidata.wdtk.datamodel.helpers;
 
+import org.wikidata.wdtk.datamodel.implementation.StreamingDeserializerModule;
+
 import com.fasterxml.jackson.databind.InjectableValues;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
@@ -26,7 +28,9 @@ import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 /**
  * Same as Jackson's celebrated ObjectMapper, except
  * that we add injections necessary to fill fields not
- * represented in JSON.
+ * represented in JSON, and register handwritten deserializers
+ * for the most frequent datamodel objects (see
+ * {@link StreamingDeserializerModule}).
  * 
  * @author antonin
  *
@@ -52,5 +56,6 @@ public class DatamodelMapper extends ObjectMapper {
 		 * Support for Optional properties.
 		 */
 		registerModule(new Jdk8Module());
+		registerModule(new StreamingDeserializerModule());
 	}
 }
@@ -0,0 +1,738 @@
+package org.wikidata.wdtk.datamodel.helpers;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang3.Validate;
+import org.wikidata.wdtk.datamodel.interfaces.AliasUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.EntityUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.FormDocument;
+import org.wikidata.wdtk.datamodel.interfaces.FormIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.FormUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.ItemUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.Reference;
+import org.wikidata.wdtk.datamodel.interfaces.SenseDocument;
+import org.wikidata.wdtk.datamodel.interfaces.SenseIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.SenseUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.SiteLink;
+import org.wikidata.wdtk.datamodel.interfaces.Snak;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+import org.wikidata.wdtk.datamodel.interfaces.StatementDocument;
+import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
+import org.wikidata.wdtk.datamodel.interfaces.StatementUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.TermUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.TermedStatementDocument;
+
+/**
+ * Computes the update which turns the current revision of an entity into a
+ * desired document, for instance to mirror an external source into a
+ * Wikibase site. The result is an {@link EntityUpdate} of the matching type,
+ * based on the current revision, which contains no redundant changes.
+ * <p>
+ * Statements of the desired document are matched with current statements in
+ * two steps. Statements whose ID is found in the current revision replace
+ * the current statement if they differ from it. Other statements are matched
+ * by their claim, that is, their main snak and their qualifiers in any
+ * order, like in the deprecated {@code StatementUpdate} of the Wikibase API
+ * module. A matched statement keeps its ID and the order of its qualifiers,
+ * takes the rank of the desired statement, and gets the references of both
+ * statements unless reference merging is disabled. Statements which match
+ * nothing are added. Claims and references are compared by hash, so diffing
+ * a document takes time linear in its size.
+ * <p>
+ * By default, anything which is missing from the desired document is
+ * removed. With {@link #withRemovals(boolean)}, the desired document can be
+ * treated as a partial document instead, whose contents are only added to
+ * the current revision.
+ * <p>
+ * Objects of this class are immutable and can be shared between threads.
+ * {@link #diffAll(List, List, ExecutorService)} diffs large batches of
+ * documents in parallel.
+ */
+public class EntityDocumentDiffer {
+
+	/**
+	 * Number of document pairs diffed by each task of
+	 * {@link #diffAll(List, List, ExecutorService)}.
+	 */
+	static final int BATCH_SIZE = 256;
+
+	private final boolean mergeReferences;
+
+	private final boolean removals;
+
+	/**
+	 * Creates a differ which merges the references of matched statements and
+	 * removes anything that is missing from the desired document.
+	 */
+	public EntityDocumentDiffer() {
+		this(true, true);
+	}
+
+	private EntityDocumentDiffer(boolean mergeReferences, boolean removals) {
+		this.mergeReferences = mergeReferences;
+		this.removals = removals;
+	}
+
+	/**
+	 * Returns a differ which, if {@code mergeReferences} is false, gives
+	 * statements matched by their claim the references of the desired
+	 * statement only, instead of the references of both statements.
+	 *
+	 * @param mergeReferences
+	 *            true if references of matched statements are merged
+	 * @return differ with the given setting
+	 */
+	public EntityDocumentDiffer withReferenceMerging(boolean mergeReferences) {
+		return new EntityDocumentDiffer(mergeReferences, removals);
+	}
+
+	/**
+	 * Returns a differ which, if {@code removals} is false, never removes
+	 * anything from the current revision. Terms, aliases, site links,
+	 * statements, grammatical features, forms and senses which are missing
+	 * from the desired document are then kept.
+	 *
+	 * @param removals
+	 *            true if whatever is missing from the desired document is
+	 *            removed
+	 * @return differ with the given setting
+	 */
+	public EntityDocumentDiffer withRemovals(boolean removals) {
+		return new EntityDocumentDiffer(mergeReferences, removals);
+	}
+
+	/**
+	 * Computes the update of an entity of any supported type. Supported types
+	 * are {@link ItemDocument}, {@link PropertyDocument},
+	 * {@link LexemeDocument}, {@link FormDocument}, {@link SenseDocument} and
+	 * {@link MediaInfoDocument}.
+	 *
+	 * @param current
+	 *            current revision of the entity
+	 * @param desired
+	 *            desired document of the same entity
+	 * @return update based on the current revision, which is empty if there
+	 *         is nothing to change
+	 * @throws NullPointerException
+	 *             if any parameter is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if the documents are of different or unsupported types, or
+	 *             have different entity IDs
+	 */
+	public EntityUpdate diff(EntityDocument current, EntityDocument desired) {
+		Objects.requireNonNull(current, "Current document cannot be null.");
+		Objects.requireNonNull(desired, "Desired document cannot be null.");
+		if (current instanceof ItemDocument && desired instanceof ItemDocument) {
+			return diff((ItemDocument) current, (ItemDocument) desired);
+		} else if (current instanceof PropertyDocument && desired instanceof PropertyDocument) {
+			return diff((PropertyDocument) current, (PropertyDocument) desired);
+		} else if (current instanceof LexemeDocument && desired instanceof LexemeDocument) {
+			return diff((LexemeDocument) current, (LexemeDocument) desired);
+		} else if (current instanceof FormDocument && desired instanceof FormDocument) {
+			return diff((FormDocument) current, (FormDocument) desired);
+		} else if (current instanceof SenseDocument && desired instanceof SenseDocument) {
+			return diff((SenseDocument) current, (SenseDocument) desired);
+		} else if (current instanceof MediaInfoDocument && desired instanceof MediaInfoDocument) {
+			return diff((MediaInfoDocument) current, (MediaInfoDocument) desired);
+		}
+		throw new IllegalArgumentException("Unrecognized or mismatched entity document types.");
+	}
+
+	/**
+	 * Computes the update of an item.
+	 *
+	 * @param current
+	 *            current revision of the item
+	 * @param desired
+	 *            desired document of the same item
+	 * @return update based on the current revision
+	 * @throws NullPointerException
+	 *             if any parameter is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if the documents have different entity IDs
+	 */
+	public ItemUpdate diff(ItemDocument current, ItemDocument desired) {
+		checkDocuments(current, desired);
+		ItemUpdateBuilder builder = ItemUpdateBuilder.forBaseRevision(current);
+		diffTermedDocuments(current, desired, builder);
+		Map<String, SiteLink> currentLinks = current.getSiteLinks();
+		Map<String, SiteLink> desiredLinks = desired.getSiteLinks();
+		for (SiteLink link : desiredLinks.values()) {
+			if (!link.equals(currentLinks.get(link.getSiteKey()))) {
+				builder.putSiteLink(link);
+			}
+		}
+		if (removals) {
+			for (String site : currentLinks.keySet()) {
+				if (!desiredLinks.containsKey(site)) {
+					builder.removeSiteLink(site);
+				}
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Computes the update of a property. The datatype of a property cannot be
+	 * changed, so it is ignored.
+	 *
+	 * @param current
+	 *            current revision of the property
+	 * @param desired
+	 *            desired document of the same property
+	 * @return update based on the current revision
+	 * @throws NullPointerException
+	 *             if any parameter is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if the documents have different entity IDs
+	 */
+	public PropertyUpdate diff(PropertyDocument current, PropertyDocument desired) {
+		checkDocuments(current, desired);
+		PropertyUpdateBuilder builder = PropertyUpdateBuilder.forBaseRevision(current);
+		diffTermedDocuments(current, desired, builder);
+		return builder.build();
+	}
+
+	/**
+	 * Computes the update of a lexeme. Forms and senses of the desired
+	 * document are matched with current ones by ID, and those without a known
+	 * ID are added.
+	 *
+	 * @param current
+	 *            current revision of the lexeme
+	 * @param desired
+	 *            desired document of the same lexeme
+	 * @return update based on the current revision
+	 * @throws NullPointerException
+	 *             if any parameter is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if the documents have different entity IDs
+	 */
+	public LexemeUpdate diff(LexemeDocument current, LexemeDocument desired) {
+		checkDocuments(current, desired);
+		LexemeUpdateBuilder builder = LexemeUpdateBuilder.forBaseRevision(current);
+		builder.setLanguage(desired.getLanguage());
+		builder.setLexicalCategory(desired.getLexicalCategory());
+		builder.updateLemmas(diffTerms(current.getLemmas(), desired.getLemmas()));
+		builder.updateStatements(diffStatements(current, desired));
+
+		Map<FormIdValue, FormDocument> currentForms = new HashMap<>();
+		for (FormDocument form : current.getForms()) {
+			currentForms.put(form.getEntityId(), form.withRevisionId(current.getRevisionId()));
+		}
+		Set<FormIdValue> keptForms = new HashSet<>();
+		for (FormDocument form : desired.getForms()) {
+			FormDocument original = currentForms.get(form.getEntityId());
+			if (original != null && keptForms.add(form.getEntityId())) {
+				FormUpdate update = diff(original, form);
+				if (!update.isEmpty()) {
+					builder.updateForm(update);
+				}
+			} else {
+				builder.addForm(form);
+			}
+		}
+
+		Map<SenseIdValue, SenseDocument> currentSenses = new HashMap<>();
+		for (SenseDocument sense : current.getSenses()) {
+			currentSenses.put(sense.getEntityId(), sense.withRevisionId(current.getRevisionId()));
+		}
+		Set<SenseIdValue> keptSenses = new HashSet<>();
+		for (SenseDocument sense : desired.getSenses()) {
+			SenseDocument original = currentSenses.get(sense.getEntityId());
+			if (original != null && keptSenses.add(sense.getEntityId())) {
+				SenseUpdate update = diff(original, sense);
+				if (!update.isEmpty()) {
+					builder.updateSense(update);
+				}
+			} else {
+				builder.addSense(sense);
+			}
+		}
+
+		if (removals) {
+			for (FormIdValue id : currentForms.keySet()) {
+				if (!keptForms.contains(id)) {
+					builder.removeForm(id);
+				}
+			}
+			for (SenseIdValue id : currentSenses.keySet()) {
+				if (!keptSenses.contains(id)) {
+					builder.removeSense(id);
+				}
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Computes the update of a form.
+	 *
+	 * @param current
+	 *            current revision of the form
+	 * @param desired
+	 *            desired document of the same form
+	 * @return update based on the current revision
+	 * @throws NullPointerException
+	 *             if any parameter is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if the documents have different entity IDs
+	 */
+	public FormUpdate diff(FormDocument current, FormDocument desired) {
+		checkDocuments(current, desired);
+		FormUpdateBuilder builder = FormUpdateBuilder.forBaseRevision(current);
+		builder.updateRepresentations(diffTerms(current.getRepresentations(), desired.getRepresentations()));
+		if (removals) {
+			builder.setGrammaticalFeatures(desired.getGrammaticalFeatures());
+		} else {
+			Set<ItemIdValue> features = new LinkedHashSet<>(current.getGrammaticalFeatures());
+			features.addAll(desired.getGrammaticalFeatures());
+			builder.setGrammaticalFeatures(features);
+		}
+		builder.updateStatements(diffStatements(current, desired));
+		return builder.build();
+	}
+
+	/**
+	 * Computes the update of a sense.
+	 *
+	 * @param current
+	 *            current revision of the sense
+	 * @param desired
+	 *            desired document of the same sense
+	 * @return update based on the current revision
+	 * @throws NullPointerException
+	 *             if any parameter is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if the documents have different entity IDs
+	 */
+	public SenseUpdate diff(SenseDocument current, SenseDocument desired) {
+		checkDocuments(current, desired);
+		SenseUpdateBuilder builder = SenseUpdateBuilder.forBaseRevision(current);
+		builder.updateGlosses(diffTerms(current.getGlosses(), desired.getGlosses()));
+		builder.updateStatements(diffStatements(current, desired));
+		return builder.build();
+	}
+
+	/**
+	 * Computes the update of a media info entity.
+	 *
+	 * @param current
+	 *            current revision of the media info entity
+	 * @param desired
+	 *            desired document of the same media info entity
+	 * @return update based on the current revision
+	 * @throws NullPointerException
+	 *             if any parameter is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if the documents have different entity IDs
+	 */
+	public MediaInfoUpdate diff(MediaInfoDocument current, MediaInfoDocument desired) {
+		checkDocuments(current, desired);
+		MediaInfoUpdateBuilder builder = MediaInfoUpdateBuilder.forBaseRevision(current);
+		builder.updateLabels(diffTerms(current.getLabels(), desired.getLabels()));
+		builder.updateStatements(diffStatements(current, desired));
+		return builder.build();
+	}
+
+	/**
+	 * Computes the statement changes which turn the statements of the current
+	 * document into those of the desired document, as described in the
+	 * documentation of this class.
+	 *
+	 * @param current
+	 *            current revision of the entity
+	 * @param desired
+	 *            desired document of the same entity
+	 * @return statement update
+	 * @throws NullPointerException
+	 *             if any parameter is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if the documents have different entity IDs or statements
+	 *             of the desired document have another subject
+	 */
+	public StatementUpdate diffStatements(StatementDocument current, StatementDocument desired) {
+		checkDocuments(current, desired);
+		Map<String, Statement> byId = new HashMap<>();
+		Map<SnakSet, ArrayDeque<Statement>> byClaim = new HashMap<>();
+		for (StatementGroup group : current.getStatementGroups()) {
+			for (Statement statement : group.getStatements()) {
+				byId.put(statement.getStatementId(), statement);
+				byClaim.computeIfAbsent(SnakSet.forClaim(statement), k -> new ArrayDeque<>(1)).add(statement);
+			}
+		}
+
+		StatementUpdateBuilder builder = StatementUpdateBuilder.create(current.getEntityId());
+		Set<String> matched = new HashSet<>();
+		List<Statement> unmatched = new ArrayList<>();
+		for (StatementGroup group : desired.getStatementGroups()) {
+			for (Statement statement : group.getStatements()) {
+				String id = statement.getStatementId();
+				Statement original = id.isEmpty() ? null : byId.get(id);
+				if (original != null && matched.add(id)) {
+					if (!statement.equals(original)) {
+						builder.replace(statement);
+					}
+				} else {
+					unmatched.add(statement);
+				}
+			}
+		}
+
+		for (Statement statement : unmatched) {
+			Statement original = null;
+			ArrayDeque<Statement> candidates = byClaim.get(SnakSet.forClaim(statement));
+			while (candidates != null && !candidates.isEmpty() && original == null) {
+				Statement candidate = candidates.poll();
+				if (matched.add(candidate.getStatementId())) {
+					original = candidate;
+				}
+			}
+			if (original == null) {
+				builder.add(statement);
+				continue;
+			}
+			List<Reference> references = mergeReferences
+					? mergeReferences(original.getReferences(), statement.getReferences())
+					: statement.getReferences();
+			Statement merged = Datamodel.makeStatement(original.getClaim(), references, statement.getRank(),
+					original.getStatementId());
+			if (!merged.equals(original)) {
+				builder.replace(merged);
+			}
+		}
+
+		if (removals) {
+			List<String> removed = new ArrayList<>();
+			for (String id : byId.keySet()) {
+				if (!matched.contains(id)) {
+					removed.add(id);
+				}
+			}
+			builder.removeAll(removed);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Diffs pairs of documents in parallel. The documents at the same
+	 * position of both lists form a pair, which is diffed like with
+	 * {@link #diff(EntityDocument, EntityDocument)}. The pairs are split into
+	 * batches, which are diffed by tasks submitted to the given executor.
+	 *
+	 * @param current
+	 *            current revisions of the entities
+	 * @param desired
+	 *            desired documents, in the same order
+	 * @param executor
+	 *            executor running the tasks
+	 * @return updates of the entities, in the same order
+	 * @throws NullPointerException
+	 *             if any parameter or document is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if the lists have different sizes or any pair cannot be
+	 *             diffed
+	 * @throws InterruptedException
+	 *             if the current thread is interrupted while waiting for the
+	 *             tasks
+	 */
+	public List<EntityUpdate> diffAll(List<? extends EntityDocument> current, List<? extends EntityDocument> desired,
+			ExecutorService executor) throws InterruptedException {
+		Objects.requireNonNull(current, "Current document list cannot be null.");
+		Objects.requireNonNull(desired, "Desired document list cannot be null.");
+		Objects.requireNonNull(executor, "Executor cannot be null.");
+		Validate.isTrue(current.size() == desired.size(), "Document lists must have the same size.");
+		List<? extends EntityDocument> currentList = current instanceof RandomAccess ? current
+				: new ArrayList<>(current);
+		List<? extends EntityDocument> desiredList = desired instanceof RandomAccess ? desired
+				: new ArrayList<>(desired);
+		EntityUpdate[] results = new EntityUpdate[currentList.size()];
+		List<Future<?>> tasks = new ArrayList<>(results.length / BATCH_SIZE + 1);
+		for (int start = 0; start < results.length; start += BATCH_SIZE) {
+			int from = start;
+			int to = Math.min(results.length, start + BATCH_SIZE);
+			tasks.add(executor.submit(() -> {
+				for (int i = from; i < to; i++) {
+					results[i] = diff(currentList.get(i), desiredList.get(i));
+				}
+			}));
+		}
+		try {
+			for (Future<?> task : tasks) {
+				task.get();
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		} finally {
+			for (Future<?> task : tasks) {
+				task.cancel(true);
+			}
+		}
+		return Collections.unmodifiableList(Arrays.asList(results));
+	}
+
+	private static void checkDocuments(EntityDocument current, EntityDocument desired) {
+		Objects.requireNonNull(current, "Current document cannot be null.");
+		Objects.requireNonNull(desired, "Desired document cannot be null.");
+		Validate.isTrue(current.getEntityId().equals(desired.getEntityId()),
+				"Documents must have the same entity ID.");
+	}
+
+	private void diffTermedDocuments(TermedStatementDocument current, TermedStatementDocument desired,
+			TermedDocumentUpdateBuilder builder) {
+		builder.updateLabels(diffTerms(current.getLabels(), desired.getLabels()));
+		builder.updateDescriptions(diffTerms(current.getDescriptions(), desired.getDescriptions()));
+		Map<String, List<MonolingualTextValue>> currentAliases = current.getAliases();
+		Map<String, List<MonolingualTextValue>> desiredAliases = desired.getAliases();
+		for (Map.Entry<String, List<MonolingualTextValue>> entry : desiredAliases.entrySet()) {
+			AliasUpdate update = diffAliases(
+					currentAliases.getOrDefault(entry.getKey(), Collections.emptyList()), entry.getValue());
+			if (!update.isEmpty()) {
+				builder.updateAliases(entry.getKey(), update);
+			}
+		}
+		if (removals) {
+			for (Map.Entry<String, List<MonolingualTextValue>> entry : currentAliases.entrySet()) {
+				if (!desiredAliases.containsKey(entry.getKey()) && !entry.getValue().isEmpty()) {
+					builder.updateAliases(entry.getKey(), AliasUpdateBuilder.forAliases(entry.getValue())
+							.recreate(Collections.emptyList())
+							.build());
+				}
+			}
+		}
+		builder.updateStatements(diffStatements(current, desired));
+	}
+
+	private TermUpdate diffTerms(Map<String, MonolingualTextValue> current,
+			Map<String, MonolingualTextValue> desired) {
+		List<MonolingualTextValue> modified = new ArrayList<>();
+		for (MonolingualTextValue term : desired.values()) {
+			if (!term.equals(current.get(term.getLanguageCode()))) {
+				modified.add(term);
+			}
+		}
+		List<String> removed = new ArrayList<>();
+		if (removals) {
+			for (String language : current.keySet()) {
+				if (!desired.containsKey(language)) {
+					removed.add(language);
+				}
+			}
+		}
+		if (modified.isEmpty() && removed.isEmpty()) {
+			return TermUpdate.EMPTY;
+		}
+		return TermUpdateBuilder.create().putAll(modified).removeAll(removed).build();
+	}
+
+	/**
+	 * Describes changes of the aliases in one language with additions and
+	 * removals if possible, and by recreating the list otherwise.
+	 */
+	private AliasUpdate diffAliases(List<MonolingualTextValue> current, List<MonolingualTextValue> desired) {
+		if (current.equals(desired)) {
+			return AliasUpdate.EMPTY;
+		}
+		Set<MonolingualTextValue> currentSet = new HashSet<>(current);
+		Set<MonolingualTextValue> desiredSet = new HashSet<>(desired);
+		List<MonolingualTextValue> result = new ArrayList<>(desired.size());
+		List<MonolingualTextValue> removed = new ArrayList<>();
+		for (MonolingualTextValue alias : current) {
+			if (desiredSet.contains(alias) || !removals) {
+				result.add(alias);
+			} else {
+				removed.add(alias);
+			}
+		}
+		List<MonolingualTextValue> added = new ArrayList<>();
+		for (MonolingualTextValue alias : desired) {
+			if (!currentSet.contains(alias)) {
+				added.add(alias);
+				result.add(alias);
+			}
+		}
+		AliasUpdateBuilder builder = AliasUpdateBuilder.forAliases(current);
+		if (!removals || result.equals(desired)) {
+			for (MonolingualTextValue alias : removed) {
+				builder.remove(alias);
+			}
+			for (MonolingualTextValue alias : added) {
+				builder.add(alias);
+			}
+		} else {
+			builder.recreate(desired);
+		}
+		return builder.build();
+	}
+
+	private static List<Reference> mergeReferences(List<Reference> current, List<Reference> desired) {
+		if (desired.isEmpty()) {
+			return current;
+		}
+		Set<SnakSet> known = new HashSet<>();
+		for (Reference reference : current) {
+			known.add(SnakSet.forReference(reference));
+		}
+		List<Reference> result = null;
+		for (Reference reference : desired) {
+			if (known.add(SnakSet.forReference(reference))) {
+				if (result == null) {
+					result = new ArrayList<>(current.size() + desired.size());
+					result.addAll(current);
+				}
+				result.add(reference);
+			}
+		}
+		return result == null ? current : result;
+	}
+
+	/**
+	 * Hash key of a claim or a reference, which compares the snaks regardless
+	 * of their order. For claims, the main snak is compared separately from
+	 * the qualifiers.
+	 */
+	static final class SnakSet {
+
+		private final Snak mainSnak;
+
+		private final Snak[] snaks;
+
+		private final int hash;
+
+		private SnakSet(Snak mainSnak, Iterator<Snak> snaks) {
+			this.mainSnak = mainSnak;
+			List<Snak> list = new ArrayList<>();
+			int hash = 0;
+			while (snaks.hasNext()) {
+				Snak snak = snaks.next();
+				list.add(snak);
+				hash += snak.hashCode();
+			}
+			this.snaks = list.toArray(new Snak[0]);
+			this.hash = 31 * Objects.hashCode(mainSnak) + hash;
+		}
+
+		static SnakSet forClaim(Statement statement) {
+			return new SnakSet(statement.getMainSnak(), statement.getAllQualifiers());
+		}
+
+		static SnakSet forReference(Reference reference) {
+			return new SnakSet(null, reference.getAllSnaks());
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) {
+				return true;
+			}
+			if (!(obj instanceof SnakSet)) {
+				return false;
+			}
+			SnakSet other = (SnakSet) obj;
+			return hash == other.hash
+					&& snaks.length == other.snaks.length
+					&& Objects.equals(mainSnak, other.mainSnak)
+					&& sameSnaks(snaks, other.snaks);
+		}
+
+		/**
+		 * Compares two arrays of snaks of the same length as multisets.
+		 * Arrays are short in practice, so small ones are compared by
+		 * marking matched snaks, and hashing is only used for larger ones.
+		 */
+		private static boolean sameSnaks(Snak[] snaks1, Snak[] snaks2) {
+			if (Arrays.equals(snaks1, snaks2)) {
+				return true;
+			}
+			if (snaks1.length <= 8) {
+				boolean[] used = new boolean[snaks1.length];
+				for (Snak snak : snaks2) {
+					boolean found = false;
+					for (int i = 0; i < snaks1.length && !found; i++) {
+						if (!used[i] && snak.equals(snaks1[i])) {
+							used[i] = true;
+							found = true;
+						}
+					}
+					if (!found) {
+						return false;
+					}
+				}
+				return true;
+			}
+			Map<Snak, Integer> counts = new HashMap<>();
+			for (Snak snak : snaks1) {
+				counts.merge(snak, 1, Integer::sum);
+			}
+			for (Snak snak : snaks2) {
+				Integer count = counts.get(snak);
+				if (count == null) {
+					return false;
+				}
+				if (count == 1) {
+					counts.remove(snak);
+				} else {
+					counts.put(snak, count - 1);
+				}
+			}
+			return true;
+		}
+	}
+}
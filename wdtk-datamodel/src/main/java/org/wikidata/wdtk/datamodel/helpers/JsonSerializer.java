@@ -22,10 +22,11 @@ package org.wikidata.wdtk.datamodel.helpers;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
+import java.io.StringWriter;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wikidata.wdtk.datamodel.implementation.StreamingSerializer;
 import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
 import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentDumpProcessor;
 import org.wikidata.wdtk.datamodel.interfaces.EntityUpdate;
@@ -35,8 +36,12 @@ import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
 import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
 import org.wikidata.wdtk.datamodel.interfaces.Statement;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 
@@ -48,8 +53,14 @@ import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
  * the first document is serialized. It is the responsibility of the caller to
  * do this.
  * <p>
- * Implementations of the data model are expected to be appropriately serializable
- * to JSON with Jackson.
+ * Entity documents and statements are written with {@link StreamingSerializer},
+ * which walks the data model interfaces and writes to a {@link JsonGenerator}
+ * directly, so that they can come from any implementation of the data model.
+ * The output is the same as the one of Jackson for the default implementation.
+ * The generator is flushed after each document, so that the output stream
+ * receives every document as soon as it is serialized. Other objects, like
+ * entity updates, are expected to be appropriately serializable to JSON with
+ * Jackson.
  *
  * @author Markus Kroetzsch
  *
@@ -58,15 +69,20 @@ public class JsonSerializer implements EntityDocumentDumpProcessor {
 
 	private static final Logger logger = LoggerFactory.getLogger(JsonSerializer.class);
 
-	private static final byte[] JSON_START_LIST = "[\n".getBytes(StandardCharsets.UTF_8);
-	private static final byte[] JSON_SEP = ",\n".getBytes(StandardCharsets.UTF_8);
-	private static final byte[] JSON_END_LIST = "\n]".getBytes(StandardCharsets.UTF_8);
+	private static final String JSON_START_LIST = "[\n";
+	private static final String JSON_SEP = ",\n";
+	private static final String JSON_END_LIST = "\n]";
 
 	/**
 	 * The stream that the resulting JSON is written to.
 	 */
 	private final OutputStream outputStream;
 
+	/**
+	 * The generator that writes to {@link #outputStream}.
+	 */
+	private final JsonGenerator generator;
+
 	/**
 	 * Object mapper that is used to serialize JSON.
 	 */
@@ -79,6 +95,16 @@ public class JsonSerializer implements EntityDocumentDumpProcessor {
 		mapper.registerModule(new Jdk8Module());
 	}
 
+	/**
+	 * Factory for the generators used with {@link StreamingSerializer}. No
+	 * separator is written between root values, since documents are
+	 * separated explicitly.
+	 */
+	private static final JsonFactory jsonFactory = new JsonFactoryBuilder()
+			.disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+			.rootValueSeparator((String) null)
+			.build();
+
 	/**
 	 * Counter for the number of documents serialized so far.
 	 */
@@ -94,6 +120,11 @@ public class JsonSerializer implements EntityDocumentDumpProcessor {
 	 */
 	public JsonSerializer(OutputStream outputStream) {
 		this.outputStream = outputStream;
+		try {
+			this.generator = jsonFactory.createGenerator(outputStream);
+		} catch (IOException e) {
+			throw new RuntimeException(e.toString(), e);
+		}
 	}
 
 	@Override
@@ -101,7 +132,7 @@ public class JsonSerializer implements EntityDocumentDumpProcessor {
 		this.entityDocumentCount = 0;
 
 		try {
-			this.outputStream.write(JSON_START_LIST);
+			this.generator.writeRaw(JSON_START_LIST);
 		} catch (IOException e) {
 			reportException(e);
 		}
@@ -130,7 +161,8 @@ public class JsonSerializer implements EntityDocumentDumpProcessor {
 	@Override
 	public void close() {
 		try {
-			this.outputStream.write(JSON_END_LIST);
+			this.generator.writeRaw(JSON_END_LIST);
+			this.generator.close();
 			this.outputStream.close();
 		} catch (IOException e) {
 			reportException(e);
@@ -169,9 +201,11 @@ public class JsonSerializer implements EntityDocumentDumpProcessor {
 	private void serializeEntityDocument(EntityDocument entityDocument) {
 		try {
 			if (this.entityDocumentCount > 0) {
-				this.outputStream.write(JSON_SEP);
+				this.generator.writeRaw(JSON_SEP);
 			}
-			mapper.writeValue(this.outputStream, entityDocument);
+			StreamingSerializer.writeEntityDocument(this.generator, entityDocument);
+			// pass each document on, as Jackson did with the stream before
+			this.generator.flush();
 		} catch (IOException e) {
 			reportException(e);
 		}
@@ -188,7 +222,7 @@ public class JsonSerializer implements EntityDocumentDumpProcessor {
 	 * @throws JsonProcessingException if the object cannot be serialized
 	 */
 	public static String getJsonString(EntityDocument entityDocument) throws JsonProcessingException {
-		return mapper.writeValueAsString(entityDocument);
+		return toJsonString(entityDocument, StreamingSerializer::writeEntityDocument);
 	}
 
 	/**
@@ -201,7 +235,7 @@ public class JsonSerializer implements EntityDocumentDumpProcessor {
 	 * @throws JsonProcessingException if the object cannot be serialized
 	 */
 	public static String getJsonString(ItemDocument itemDocument) throws JsonProcessingException {
-		return mapper.writeValueAsString(itemDocument);
+		return toJsonString(itemDocument, StreamingSerializer::writeEntityDocument);
 	}
 
 	/**
@@ -214,7 +248,7 @@ public class JsonSerializer implements EntityDocumentDumpProcessor {
 	 * @throws JsonProcessingException if the object cannot be serialized
 	 */
 	public static String getJsonString(PropertyDocument propertyDocument) throws JsonProcessingException {
-		return mapper.writeValueAsString(propertyDocument);
+		return toJsonString(propertyDocument, StreamingSerializer::writeEntityDocument);
 	}
 
 	/**
@@ -227,7 +261,7 @@ public class JsonSerializer implements EntityDocumentDumpProcessor {
 	 * @throws JsonProcessingException if the object cannot be serialized
 	 */
 	public static String getJsonString(MediaInfoDocument mediaInfoDocument) throws JsonProcessingException {
-		return mapper.writeValueAsString(mediaInfoDocument);
+		return toJsonString(mediaInfoDocument, StreamingSerializer::writeEntityDocument);
 	}
 
 	/**
@@ -240,7 +274,7 @@ public class JsonSerializer implements EntityDocumentDumpProcessor {
 	 * @throws JsonProcessingException if the object cannot be serialized
 	 */
 	public static String getJsonString(Statement statement) throws JsonProcessingException {
-		return mapper.writeValueAsString(statement);
+		return toJsonString(statement, StreamingSerializer::writeStatement);
 	}
 
 	/**
@@ -256,4 +290,26 @@ public class JsonSerializer implements EntityDocumentDumpProcessor {
 		return mapper.writeValueAsString(update);
 	}
 
+	/**
+	 * Writes an object to a string with the given {@link StreamingSerializer}
+	 * method.
+	 */
+	private static <T> String toJsonString(T object, GeneratorWriter<T> writer) throws JsonProcessingException {
+		StringWriter stringWriter = new StringWriter();
+		try (JsonGenerator stringGenerator = jsonFactory.createGenerator(stringWriter)) {
+			writer.write(stringGenerator, object);
+		} catch (JsonProcessingException e) {
+			throw e;
+		} catch (IOException e) {
+			// a StringWriter does not fail
+			throw JsonMappingException.fromUnexpectedIOE(e);
+		}
+		return stringWriter.toString();
+	}
+
+	@FunctionalInterface
+	private interface GeneratorWriter<T> {
+		void write(JsonGenerator generator, T object) throws IOException;
+	}
+
 }
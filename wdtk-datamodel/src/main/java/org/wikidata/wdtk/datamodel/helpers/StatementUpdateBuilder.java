@@ -20,13 +20,11 @@
 package org.wikidata.wdtk.datamodel.helpers;
 
 import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toMap;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -46,7 +44,7 @@ public class StatementUpdateBuilder {
 
 	private final Map<String, Statement> base;
 	private EntityIdValue subject;
-	private final List<Statement> added = new ArrayList<>();
+	private final ArrayList<Statement> added = new ArrayList<>();
 	private final Map<String, Statement> replaced = new HashMap<>();
 	private final Set<String> removed = new HashSet<>();
 
@@ -56,6 +54,7 @@ public class StatementUpdateBuilder {
 			this.subject = subject;
 		}
 		if (base != null) {
+			Map<String, Statement> index = new HashMap<>(Math.max(16, (int) (base.size() / 0.75f) + 1));
 			for (Statement statement : base) {
 				Objects.requireNonNull(statement, "Base document statements cannot be null.");
 				Validate.isTrue(
@@ -67,14 +66,11 @@ public class StatementUpdateBuilder {
 					this.subject = statement.getSubject();
 				}
 				Validate.notBlank(statement.getStatementId(), "Base document statement must have valid ID.");
+				Validate.isTrue(
+						index.putIfAbsent(statement.getStatementId(), statement) == null,
+						"Base document statements must have unique IDs.");
 			}
-			Validate.isTrue(
-					base.stream().map(s -> s.getSubject()).distinct().count() <= 1,
-					"Base document statements must all refer to the same subject.");
-			Validate.isTrue(
-					base.stream().map(s -> s.getStatementId()).distinct().count() == base.size(),
-					"Base document statements must have unique IDs.");
-			this.base = base.stream().collect(toMap(s -> s.getStatementId(), s -> s));
+			this.base = index;
 		} else {
 			this.base = null;
 		}
@@ -313,6 +309,125 @@ public class StatementUpdateBuilder {
 		return this;
 	}
 
+	/**
+	 * Adds all given statements to the entity, as if by calling
+	 * {@link #add(Statement)} for each of them in iteration order. All statements
+	 * are checked before any of them is added, so the builder is left unchanged
+	 * if any of them is invalid.
+	 * 
+	 * @param statements
+	 *            new statements to add
+	 * @return {@code this} (fluent method)
+	 * @throws NullPointerException
+	 *             if {@code statements} or any of its items is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if subject of any statement is inconsistent with other
+	 *             statements or it is a placeholder ID
+	 */
+	public StatementUpdateBuilder addAll(Collection<Statement> statements) {
+		Objects.requireNonNull(statements, "Statement collection cannot be null.");
+		EntityIdValue expected = subject;
+		for (Statement statement : statements) {
+			Objects.requireNonNull(statement, "Statement cannot be null.");
+			Validate.isTrue(
+					!statement.getSubject().isPlaceholder(),
+					"Statement subject cannot be a placeholder ID.");
+			if (expected != null) {
+				Validate.isTrue(expected.equals(statement.getSubject()), "Inconsistent statement subject.");
+			} else {
+				expected = statement.getSubject();
+			}
+		}
+		added.ensureCapacity(added.size() + statements.size());
+		for (Statement statement : statements) {
+			added.add(statement.getStatementId().isEmpty() ? statement : statement.withStatementId(""));
+		}
+		subject = expected;
+		return this;
+	}
+
+	/**
+	 * Replaces all given statements in the entity, as if by calling
+	 * {@link #replace(Statement)} for each of them in iteration order. If the
+	 * collection contains several statements with the same ID, the last one wins.
+	 * All statements are checked before any of them is replaced, so the builder
+	 * is left unchanged if any of them is invalid.
+	 * 
+	 * @param statements
+	 *            replacements for existing statements
+	 * @return {@code this} (fluent method)
+	 * @throws NullPointerException
+	 *             if {@code statements} or any of its items is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if any statement does not have statement ID or it is not
+	 *             among base revision statements (if available) or its subject
+	 *             is inconsistent with other statements or a placeholder ID
+	 */
+	public StatementUpdateBuilder replaceAll(Collection<Statement> statements) {
+		Objects.requireNonNull(statements, "Statement collection cannot be null.");
+		EntityIdValue expected = subject;
+		for (Statement statement : statements) {
+			Objects.requireNonNull(statement, "Statement cannot be null.");
+			Validate.isTrue(
+					!statement.getSubject().isPlaceholder(),
+					"Statement subject cannot be a placeholder ID.");
+			Validate.notEmpty(statement.getStatementId(), "Statement must have an ID.");
+			if (expected != null) {
+				Validate.isTrue(expected.equals(statement.getSubject()), "Inconsistent statement subject.");
+			} else {
+				expected = statement.getSubject();
+			}
+			if (base != null) {
+				Validate.isTrue(
+						base.containsKey(statement.getStatementId()),
+						"Replaced statement is not in base revision.");
+			}
+		}
+		for (Statement statement : statements) {
+			String id = statement.getStatementId();
+			removed.remove(id);
+			if (base != null && statement.equals(base.get(id))) {
+				replaced.remove(id);
+			} else {
+				replaced.put(id, statement);
+				if (subject == null) {
+					subject = statement.getSubject();
+				}
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Removes all given statements from the entity, as if by calling
+	 * {@link #remove(String)} for each of them. All IDs are checked before any
+	 * statement is removed, so the builder is left unchanged if any of them is
+	 * invalid.
+	 * 
+	 * @param statementIds
+	 *            IDs of the removed statements
+	 * @return {@code this} (fluent method)
+	 * @throws NullPointerException
+	 *             if {@code statementIds} or any of its items is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if any ID is empty or it is not among base revision statements
+	 *             (if available)
+	 */
+	public StatementUpdateBuilder removeAll(Collection<String> statementIds) {
+		Objects.requireNonNull(statementIds, "Statement ID collection cannot be null.");
+		for (String statementId : statementIds) {
+			Validate.notBlank(statementId, "Statement ID must not be empty.");
+			if (base != null) {
+				Validate.isTrue(base.containsKey(statementId), "Removed statement is not in base revision.");
+			}
+		}
+		for (String statementId : statementIds) {
+			removed.add(statementId);
+			replaced.remove(statementId);
+		}
+		return this;
+	}
+
 	/**
 	 * Replays all changes in provided update into this builder object. Changes are
 	 * performed as if by calling {@link #add(Statement)},
@@ -329,15 +444,9 @@ public class StatementUpdateBuilder {
 	 */
 	public StatementUpdateBuilder append(StatementUpdate update) {
 		Objects.requireNonNull(update, "Statement update cannot be null.");
-		for (Statement statement : update.getAdded()) {
-			add(statement);
-		}
-		for (Statement statement : update.getReplaced().values()) {
-			replace(statement);
-		}
-		for (String statementId : update.getRemoved()) {
-			remove(statementId);
-		}
+		addAll(update.getAdded());
+		replaceAll(update.getReplaced().values());
+		removeAll(update.getRemoved());
 		return this;
 	}
 
@@ -19,8 +19,6 @@
  */
 package org.wikidata.wdtk.datamodel.helpers;
 
-import static java.util.stream.Collectors.toMap;
-
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -43,13 +41,14 @@ public class TermUpdateBuilder {
 
 	private TermUpdateBuilder(Collection<MonolingualTextValue> base) {
 		if (base != null) {
+			Map<String, MonolingualTextValue> index = new HashMap<>(Math.max(16, (int) (base.size() / 0.75f) + 1));
 			for (MonolingualTextValue value : base) {
 				Objects.requireNonNull(value, "Base document terms cannot be null.");
+				Validate.isTrue(
+						index.putIfAbsent(value.getLanguageCode(), value) == null,
+						"Base document terms must have unique language codes.");
 			}
-			Validate.isTrue(
-					base.stream().map(v -> v.getLanguageCode()).distinct().count() == base.size(),
-					"Base document terms must have unique language codes.");
-			this.base = base.stream().collect(toMap(v -> v.getLanguageCode(), v -> v));
+			this.base = index;
 		} else
 			this.base = null;
 	}
@@ -140,6 +139,63 @@ public class TermUpdateBuilder {
 		return this;
 	}
 
+	/**
+	 * Adds or changes all given terms, as if by calling
+	 * {@link #put(MonolingualTextValue)} for each of them in iteration order. All
+	 * terms are checked before any of them is stored, so the builder is left
+	 * unchanged if any of them is {@code null}.
+	 * 
+	 * @param terms
+	 *            terms to add or change
+	 * @return {@code this} (fluent method)
+	 * @throws NullPointerException
+	 *             if {@code terms} or any of its items is {@code null}
+	 */
+	public TermUpdateBuilder putAll(Collection<MonolingualTextValue> terms) {
+		Objects.requireNonNull(terms, "Term collection cannot be null.");
+		for (MonolingualTextValue term : terms) {
+			Objects.requireNonNull(term, "Term cannot be null.");
+		}
+		for (MonolingualTextValue term : terms) {
+			String language = term.getLanguageCode();
+			removed.remove(language);
+			if (base != null && term.equals(base.get(language))) {
+				modified.remove(language);
+			} else {
+				modified.put(language, term);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Removes all terms with given language codes, as if by calling
+	 * {@link #remove(String)} for each of them. All language codes are checked
+	 * before any term is removed, so the builder is left unchanged if any of them
+	 * is invalid.
+	 * 
+	 * @param languageCodes
+	 *            language codes of the removed terms
+	 * @return {@code this} (fluent method)
+	 * @throws NullPointerException
+	 *             if {@code languageCodes} or any of its items is {@code null}
+	 * @throws IllegalArgumentException
+	 *             if any language code is blank
+	 */
+	public TermUpdateBuilder removeAll(Collection<String> languageCodes) {
+		Objects.requireNonNull(languageCodes, "Language code collection cannot be null.");
+		for (String languageCode : languageCodes) {
+			Validate.notBlank(languageCode, "Language code must be provided.");
+		}
+		for (String languageCode : languageCodes) {
+			modified.remove(languageCode);
+			if (base == null || base.containsKey(languageCode)) {
+				removed.add(languageCode);
+			}
+		}
+		return this;
+	}
+
 	/**
 	 * Replays all changes in provided update into this builder object. Changes are
 	 * performed as if by calling {@link #put(MonolingualTextValue)} and
@@ -153,12 +209,8 @@ public class TermUpdateBuilder {
 	 */
 	public TermUpdateBuilder append(TermUpdate update) {
 		Objects.requireNonNull(update, "Term update cannot be null.");
-		for (MonolingualTextValue term : update.getModified().values()) {
-			put(term);
-		}
-		for (String language : update.getRemoved()) {
-			remove(language);
-		}
+		putAll(update.getModified().values());
+		removeAll(update.getRemoved());
 		return this;
 	}
 
@@ -127,7 +127,7 @@ public abstract class EntityDocumentImpl implements EntityDocument {
 		Validate.notNull(jsonId);
 		this.entityId = jsonId;
 		Validate.notNull(siteIri);
-		this.siteIri = siteIri;
+		this.siteIri = StringInterner.intern(siteIri);
 		this.revisionId = revisionId;
 	}
 
@@ -95,7 +95,7 @@ public abstract class EntityIdValueImpl extends ValueImpl implements
 		super(JSON_VALUE_TYPE_ENTITY_ID);
 		this.value = new JacksonInnerEntityId(id);
 		Validate.notNull(siteIri, "Entity site IRIs cannot be null");
-		this.siteIri = siteIri;
+		this.siteIri = StringInterner.intern(siteIri);
 	}
 
 	/**
@@ -107,7 +107,7 @@ public abstract class EntityIdValueImpl extends ValueImpl implements
 			@JacksonInject String siteIri) {
 		super(JSON_VALUE_TYPE_ENTITY_ID);
 		this.value = value;
-		this.siteIri = siteIri;
+		this.siteIri = StringInterner.intern(siteIri);
 	}
 
 	/**
@@ -260,7 +260,7 @@ public abstract class EntityIdValueImpl extends ValueImpl implements
 					throw new IllegalArgumentException("You should provide an id or an entity type and a numeric id");
 				} else {
 					this.id = buildIdFromNumericId(entityType, numericId);
-					this.entityType = entityType;
+					this.entityType = StringInterner.intern(entityType);
 					this.numericId = numericId;
 				}
 			} else {
@@ -271,7 +271,7 @@ public abstract class EntityIdValueImpl extends ValueImpl implements
 				} else if(!id.equals(buildIdFromNumericId(entityType, numericId))) {
 					throw new IllegalArgumentException("Numerical id is different from the string id");
 				} else {
-					this.entityType = entityType;
+					this.entityType = StringInterner.intern(entityType);
 					this.numericId = numericId;
 				}
 			}
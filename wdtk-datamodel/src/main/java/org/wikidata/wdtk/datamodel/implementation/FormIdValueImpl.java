@@ -69,7 +69,7 @@ public class FormIdValueImpl extends ValueImpl implements FormIdValue {
 		}
 		this.id = id;
 		Validate.notNull(siteIri);
-		this.siteIri = siteIri;
+		this.siteIri = StringInterner.intern(siteIri);
 	}
 
 	/**
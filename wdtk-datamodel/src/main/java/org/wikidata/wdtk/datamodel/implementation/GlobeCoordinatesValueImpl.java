@@ -186,7 +186,7 @@ public class GlobeCoordinatesValueImpl extends ValueImpl implements
 			} else {
 				this.precision = precision;
 			}
-			this.globe = globe;
+			this.globe = StringInterner.intern(globe);
 		}
 
 		/**
@@ -0,0 +1,128 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.wikidata.wdtk.datamodel.helpers.Equality;
+import org.wikidata.wdtk.datamodel.helpers.Hash;
+import org.wikidata.wdtk.datamodel.helpers.ToString;
+import org.wikidata.wdtk.datamodel.implementation.LazyJsonDocumentReader.Sections;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
+import org.wikidata.wdtk.datamodel.interfaces.SiteLink;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+
+/**
+ * Lazy view of an item, backed by its JSON serialization. Modified copies are
+ * instances of {@link ItemDocumentImpl}.
+ */
+class LazyItemDocumentImpl extends LazyTermedStatementDocumentImpl implements ItemDocument {
+
+	LazyItemDocumentImpl(LazyJsonDocumentReader reader, byte[] json, Sections sections) {
+		super(reader, json, sections);
+	}
+
+	@Override
+	String getJsonHeader() {
+		return "\"type\":\"" + EntityDocumentImpl.JSON_TYPE_ITEM + "\",\"id\":" + quote(entityId) + ",";
+	}
+
+	@Override
+	TermedStatementDocumentImpl readSection(byte[] prefix, byte[] json, int start, int end) throws IOException {
+		return reader.readItemSection(prefix, json, start, end);
+	}
+
+	@Override
+	public ItemIdValue getEntityId() {
+		checkNotReleased();
+		return new ItemIdValueImpl(entityId, reader.getSiteIri());
+	}
+
+	@Override
+	public Map<String, SiteLink> getSiteLinks() {
+		ItemDocumentImpl section = (ItemDocumentImpl) getSection(Sections.SITELINKS);
+		return section == null ? Collections.emptyMap() : section.getSiteLinks();
+	}
+
+	/**
+	 * Parses all sections into an item of the default implementation.
+	 */
+	private ItemDocumentImpl materialize() {
+		return new ItemDocumentImpl(getEntityId(), getLabels(), getDescriptions(), getAliases(),
+				getJsonClaims(), getSiteLinks(), revisionId);
+	}
+
+	@Override
+	public int hashCode() {
+		return Hash.hashCode(this);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return Equality.equalsItemDocument(this, obj);
+	}
+
+	@Override
+	public String toString() {
+		return ToString.toString(this);
+	}
+
+	@Override
+	public ItemDocument withEntityId(ItemIdValue itemId) {
+		return materialize().withEntityId(itemId);
+	}
+
+	@Override
+	public ItemDocument withRevisionId(long newRevisionId) {
+		return materialize().withRevisionId(newRevisionId);
+	}
+
+	@Override
+	public ItemDocument withLabel(MonolingualTextValue newLabel) {
+		return materialize().withLabel(newLabel);
+	}
+
+	@Override
+	public ItemDocument withDescription(MonolingualTextValue newDescription) {
+		return materialize().withDescription(newDescription);
+	}
+
+	@Override
+	public ItemDocument withAliases(String language, List<MonolingualTextValue> aliases) {
+		return materialize().withAliases(language, aliases);
+	}
+
+	@Override
+	public ItemDocument withStatement(Statement statement) {
+		return materialize().withStatement(statement);
+	}
+
+	@Override
+	public ItemDocument withoutStatementIds(Set<String> statementIds) {
+		return materialize().withoutStatementIds(statementIds);
+	}
+}
@@ -0,0 +1,329 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+
+/**
+ * Reads entity documents from the raw JSON bytes of a single document, as
+ * found on each line of a JSON dump. Items and properties are returned as
+ * lazy views: reading them only locates their top-level sections (labels,
+ * descriptions, aliases, claims and sitelinks) and decodes the scalar fields.
+ * Each section is deserialized on first access and cached. This is much
+ * cheaper for processors that only look at a few parts of each document.
+ * <p>
+ * Other documents (lexemes, media info) are deserialized completely, like
+ * with {@link DatamodelMapper}.
+ * <p>
+ * The lazy documents keep a reference to the given byte array, which must
+ * therefore not be modified afterwards. Errors in sections are only detected
+ * when the section is accessed, and are then reported as
+ * {@link java.io.UncheckedIOException}.
+ * <p>
+ * For single-threaded scans over a reused buffer,
+ * {@link #readRecycledEntityDocument(byte[], int, int)} avoids creating new
+ * objects for every item and property, at the price of documents that are
+ * only valid until the next document is read. Instances of this class are
+ * not thread-safe when used that way.
+ */
+public class LazyJsonDocumentReader {
+
+	private final String siteIri;
+
+	private final JsonFactory jsonFactory;
+
+	private final ObjectReader documentReader;
+
+	private final ObjectReader itemReader;
+
+	private final ObjectReader propertyReader;
+
+	/**
+	 * Sections of the last document read by
+	 * {@link #readRecycledEntityDocument(byte[], int, int)}.
+	 */
+	private final Sections recycledSections = new Sections();
+
+	private LazyItemDocumentImpl recycledItem;
+
+	private LazyPropertyDocumentImpl recycledProperty;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param siteIri
+	 *            the IRI of the site the documents come from
+	 */
+	public LazyJsonDocumentReader(String siteIri) {
+		this.siteIri = siteIri;
+		DatamodelMapper mapper = new DatamodelMapper(siteIri);
+		this.jsonFactory = mapper.getFactory();
+		this.documentReader = mapper.readerFor(EntityDocumentImpl.class)
+				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
+		this.itemReader = documentReader.forType(ItemDocumentImpl.class);
+		this.propertyReader = documentReader.forType(PropertyDocumentImpl.class);
+	}
+
+	/**
+	 * Reads an entity document from the given JSON bytes.
+	 *
+	 * @param json
+	 *            the serialization of the document
+	 * @return the document, lazy for items and properties
+	 * @throws IOException
+	 *             if the JSON is malformed
+	 */
+	public EntityDocument readEntityDocument(byte[] json) throws IOException {
+		return readEntityDocument(json, 0, json.length);
+	}
+
+	/**
+	 * Reads an entity document from a range of the given JSON bytes.
+	 *
+	 * @param json
+	 *            the array containing the serialization of the document
+	 * @param offset
+	 *            the start of the document in the array
+	 * @param length
+	 *            the length of the document in the array
+	 * @return the document, lazy for items and properties
+	 * @throws IOException
+	 *             if the JSON is malformed
+	 */
+	public EntityDocument readEntityDocument(byte[] json, int offset, int length) throws IOException {
+		Sections sections = new Sections();
+		scan(json, offset, length, sections);
+		if (sections.id != null && EntityDocumentImpl.JSON_TYPE_ITEM.equals(sections.type)) {
+			return new LazyItemDocumentImpl(this, json, sections);
+		} else if (sections.id != null && sections.datatype != null
+				&& EntityDocumentImpl.JSON_TYPE_PROPERTY.equals(sections.type)) {
+			return new LazyPropertyDocumentImpl(this, json, sections);
+		}
+		return documentReader.readValue(json, offset, length);
+	}
+
+	/**
+	 * Reads an entity document from a range of the given JSON bytes, reusing
+	 * the objects of the previous call. Items and properties are returned as
+	 * the same lazy instance for every call, which then views the new
+	 * document, so the result is only valid until the next call of this
+	 * method. Like other lazy documents, it also becomes invalid when the
+	 * bytes of the array are overwritten. This suits single-threaded scans
+	 * that read each document from the same buffer and do not keep the
+	 * documents: the objects obtained from a document, such as its labels
+	 * and statements, are independent of it and remain valid.
+	 * <p>
+	 * Lexemes and media info are deserialized completely, as in
+	 * {@link #readEntityDocument(byte[], int, int)}, and stay valid.
+	 *
+	 * @param json
+	 *            the array containing the serialization of the document
+	 * @param offset
+	 *            the start of the document in the array
+	 * @param length
+	 *            the length of the document in the array
+	 * @return the document, lazy and recycled for items and properties
+	 * @throws IOException
+	 *             if the JSON is malformed
+	 */
+	public EntityDocument readRecycledEntityDocument(byte[] json, int offset, int length) throws IOException {
+		Sections sections = recycledSections;
+		sections.clear();
+		scan(json, offset, length, sections);
+		if (sections.id != null && EntityDocumentImpl.JSON_TYPE_ITEM.equals(sections.type)) {
+			if (recycledItem == null) {
+				recycledItem = new LazyItemDocumentImpl(this, json, sections);
+			} else {
+				recycledItem.recycle(json, sections);
+			}
+			return recycledItem;
+		} else if (sections.id != null && sections.datatype != null
+				&& EntityDocumentImpl.JSON_TYPE_PROPERTY.equals(sections.type)) {
+			if (recycledProperty == null) {
+				recycledProperty = new LazyPropertyDocumentImpl(this, json, sections);
+			} else {
+				recycledProperty.recycle(json, sections);
+			}
+			return recycledProperty;
+		}
+		return documentReader.readValue(json, offset, length);
+	}
+
+	String getSiteIri() {
+		return siteIri;
+	}
+
+	/**
+	 * Deserializes a section of a lazy item, as the only section of an
+	 * otherwise empty item.
+	 */
+	ItemDocumentImpl readItemSection(byte[] prefix, byte[] json, int start, int end) throws IOException {
+		return itemReader.readValue(wrap(prefix, json, start, end));
+	}
+
+	/**
+	 * Deserializes a section of a lazy property, as the only section of an
+	 * otherwise empty property.
+	 */
+	PropertyDocumentImpl readPropertySection(byte[] prefix, byte[] json, int start, int end) throws IOException {
+		return propertyReader.readValue(wrap(prefix, json, start, end));
+	}
+
+	private static byte[] wrap(byte[] prefix, byte[] json, int start, int end) {
+		byte[] result = new byte[prefix.length + end - start + 1];
+		System.arraycopy(prefix, 0, result, 0, prefix.length);
+		System.arraycopy(json, start, result, prefix.length, end - start);
+		result[result.length - 1] = '}';
+		return result;
+	}
+
+	/**
+	 * Finds the top-level sections of a document and reads its scalar fields,
+	 * without building any objects for the sections.
+	 */
+	private void scan(byte[] json, int offset, int length, Sections sections) throws IOException {
+		try (JsonParser parser = jsonFactory.createParser(json, offset, length)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw MismatchedInputException.from(parser, EntityDocumentImpl.class,
+						"Expected an object for an entity document");
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				JsonToken token = parser.nextToken();
+				int section = Sections.indexOf(field);
+				if (section >= 0 && (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY)) {
+					sections.starts[section] = offset + (int) parser.getTokenLocation().getByteOffset();
+					parser.skipChildren();
+					sections.ends[section] = offset + (int) parser.getCurrentLocation().getByteOffset();
+				} else if (token.isStructStart()) {
+					parser.skipChildren();
+				} else if (token != JsonToken.VALUE_NULL) {
+					switch (field) {
+					case "type":
+						sections.type = parser.getText();
+						break;
+					case "id":
+						sections.id = parser.getText();
+						break;
+					case "datatype":
+						sections.datatype = parser.getText();
+						break;
+					case "lastrevid":
+						sections.revisionId = parser.getValueAsLong();
+						break;
+					default:
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Positions of the top-level sections of a document, together with its
+	 * scalar fields.
+	 */
+	static class Sections {
+
+		static final int LABELS = 0;
+		static final int DESCRIPTIONS = 1;
+		static final int ALIASES = 2;
+		static final int CLAIMS = 3;
+		static final int SITELINKS = 4;
+
+		static final String[] NAMES = { "labels", "descriptions", "aliases", "claims", "sitelinks" };
+
+		final int[] starts = { -1, -1, -1, -1, -1 };
+		final int[] ends = new int[NAMES.length];
+
+		String type;
+		String id;
+		String datatype;
+		long revisionId;
+
+		void clear() {
+			Arrays.fill(starts, -1);
+			type = null;
+			id = null;
+			datatype = null;
+			revisionId = 0;
+		}
+
+		static int indexOf(String field) {
+			for (int i = 0; i < NAMES.length; i++) {
+				if (NAMES[i].equals(field)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+	}
+
+	/**
+	 * Returns true if the given document is a lazy view created by this
+	 * class.
+	 *
+	 * @param document
+	 *            the document to check
+	 * @return true if the document is lazy
+	 */
+	public static boolean isLazy(EntityDocument document) {
+		return document instanceof LazyTermedStatementDocumentImpl;
+	}
+
+	/**
+	 * Marks a lazy document as released: any further access to it throws an
+	 * {@link IllegalStateException} that names the entity. This is meant for
+	 * detecting processors that keep documents which are only valid for a
+	 * limited time, such as the ones read from a reused buffer. Other
+	 * documents are not affected.
+	 *
+	 * @param document
+	 *            the document to release
+	 */
+	public static void release(EntityDocument document) {
+		if (document instanceof LazyTermedStatementDocumentImpl) {
+			((LazyTermedStatementDocumentImpl) document).release();
+		}
+	}
+
+	/**
+	 * Returns true if the given section of a lazy document has already been
+	 * deserialized. Only meant for tests and diagnostics.
+	 */
+	static boolean isSectionParsed(EntityDocument document, int section) {
+		if (document instanceof LazyTermedStatementDocumentImpl) {
+			return ((LazyTermedStatementDocumentImpl) document).isParsed(section);
+		}
+		return false;
+	}
+}
@@ -0,0 +1,136 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import org.wikidata.wdtk.datamodel.helpers.Equality;
+import org.wikidata.wdtk.datamodel.helpers.Hash;
+import org.wikidata.wdtk.datamodel.helpers.ToString;
+import org.wikidata.wdtk.datamodel.implementation.LazyJsonDocumentReader.Sections;
+import org.wikidata.wdtk.datamodel.interfaces.DatatypeIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+
+/**
+ * Lazy view of a property, backed by its JSON serialization. Modified copies
+ * are instances of {@link PropertyDocumentImpl}.
+ */
+class LazyPropertyDocumentImpl extends LazyTermedStatementDocumentImpl implements PropertyDocument {
+
+	private String datatype;
+
+	LazyPropertyDocumentImpl(LazyJsonDocumentReader reader, byte[] json, Sections sections) {
+		super(reader, json, sections);
+		this.datatype = sections.datatype;
+	}
+
+	@Override
+	void recycle(byte[] json, Sections sections) {
+		super.recycle(json, sections);
+		this.datatype = sections.datatype;
+	}
+
+	@Override
+	String getJsonHeader() {
+		return "\"type\":\"" + EntityDocumentImpl.JSON_TYPE_PROPERTY + "\",\"id\":" + quote(entityId)
+				+ ",\"datatype\":" + quote(datatype) + ",";
+	}
+
+	@Override
+	TermedStatementDocumentImpl readSection(byte[] prefix, byte[] json, int start, int end) throws IOException {
+		return reader.readPropertySection(prefix, json, start, end);
+	}
+
+	@Override
+	public PropertyIdValue getEntityId() {
+		checkNotReleased();
+		return new PropertyIdValueImpl(entityId, reader.getSiteIri());
+	}
+
+	@Override
+	public DatatypeIdValue getDatatype() {
+		checkNotReleased();
+		return new DatatypeIdImpl(DatatypeIdImpl.getDatatypeIriFromJsonDatatype(datatype), datatype);
+	}
+
+	/**
+	 * Parses all sections into a property of the default implementation.
+	 */
+	private PropertyDocumentImpl materialize() {
+		return new PropertyDocumentImpl(getEntityId(), getLabels(), getDescriptions(), getAliases(),
+				getJsonClaims(), getDatatype(), revisionId);
+	}
+
+	@Override
+	public int hashCode() {
+		return Hash.hashCode(this);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return Equality.equalsPropertyDocument(this, obj);
+	}
+
+	@Override
+	public String toString() {
+		return ToString.toString(this);
+	}
+
+	@Override
+	public PropertyDocument withEntityId(PropertyIdValue newEntityId) {
+		return materialize().withEntityId(newEntityId);
+	}
+
+	@Override
+	public PropertyDocument withRevisionId(long newRevisionId) {
+		return materialize().withRevisionId(newRevisionId);
+	}
+
+	@Override
+	public PropertyDocument withLabel(MonolingualTextValue newLabel) {
+		return materialize().withLabel(newLabel);
+	}
+
+	@Override
+	public PropertyDocument withDescription(MonolingualTextValue newDescription) {
+		return materialize().withDescription(newDescription);
+	}
+
+	@Override
+	public PropertyDocument withAliases(String language, List<MonolingualTextValue> aliases) {
+		return materialize().withAliases(language, aliases);
+	}
+
+	@Override
+	public PropertyDocument withStatement(Statement statement) {
+		return materialize().withStatement(statement);
+	}
+
+	@Override
+	public PropertyDocument withoutStatementIds(Set<String> statementIds) {
+		return materialize().withoutStatementIds(statementIds);
+	}
+}
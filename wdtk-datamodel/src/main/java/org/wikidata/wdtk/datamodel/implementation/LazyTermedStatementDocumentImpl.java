@@ -0,0 +1,247 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.wikidata.wdtk.datamodel.implementation.LazyJsonDocumentReader.Sections;
+import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
+import org.wikidata.wdtk.datamodel.interfaces.TermedStatementDocument;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Base class of the lazy, JSON-backed views of items and properties created
+ * by {@link LazyJsonDocumentReader}. Each top-level section is deserialized
+ * on first access, as the only section of an otherwise empty document of the
+ * default implementation, and this document is cached. The scalar fields are
+ * decoded right away.
+ * <p>
+ * Access to the sections is not synchronized. If a section is first accessed
+ * by several threads at once, it may be deserialized more than once, but
+ * all threads see equal data.
+ * <p>
+ * For single-threaded scans, an instance can be recycled to view another
+ * document, and it can be released to make any further access fail; see
+ * {@link LazyJsonDocumentReader#readRecycledEntityDocument(byte[], int, int)}
+ * and {@link LazyJsonDocumentReader#release(org.wikidata.wdtk.datamodel.interfaces.EntityDocument)}.
+ */
+@JsonSerialize(using = LazyTermedStatementDocumentImpl.LazyDocumentSerializer.class)
+abstract class LazyTermedStatementDocumentImpl implements TermedStatementDocument {
+
+	protected final LazyJsonDocumentReader reader;
+
+	protected String entityId;
+
+	protected long revisionId;
+
+	private byte[] json;
+
+	private int[] sectionStarts;
+
+	private int[] sectionEnds;
+
+	/**
+	 * Deserialized sections, indexed like {@link Sections#NAMES}.
+	 */
+	private final TermedStatementDocumentImpl[] parsedSections;
+
+	/**
+	 * The start of the JSON of the document which wraps a section, up to the
+	 * name of the section.
+	 */
+	private byte[] sectionPrefix;
+
+	/**
+	 * True once the document must no longer be accessed.
+	 */
+	private boolean released;
+
+	LazyTermedStatementDocumentImpl(LazyJsonDocumentReader reader, byte[] json, Sections sections) {
+		this.reader = reader;
+		this.entityId = sections.id;
+		this.revisionId = sections.revisionId;
+		this.json = json;
+		this.sectionStarts = sections.starts;
+		this.sectionEnds = sections.ends;
+		this.parsedSections = new TermedStatementDocumentImpl[Sections.NAMES.length];
+	}
+
+	/**
+	 * Makes this object a view of another document, dropping the sections
+	 * deserialized so far.
+	 */
+	void recycle(byte[] json, Sections sections) {
+		this.entityId = sections.id;
+		this.revisionId = sections.revisionId;
+		this.json = json;
+		this.sectionStarts = sections.starts;
+		this.sectionEnds = sections.ends;
+		this.sectionPrefix = null;
+		Arrays.fill(parsedSections, null);
+	}
+
+	/**
+	 * Makes any further access to this document fail.
+	 */
+	void release() {
+		released = true;
+	}
+
+	/**
+	 * Fails if the document has been released.
+	 *
+	 * @throws IllegalStateException
+	 *             if the document has been released
+	 */
+	void checkNotReleased() {
+		if (released) {
+			throw new IllegalStateException("The lazy document of " + entityId
+					+ " was accessed after it was released. Documents of a recycling scan are only valid"
+					+ " while they are processed and must not be retained; keep the objects obtained"
+					+ " from them, or a copy made with DatamodelConverter, instead.");
+		}
+	}
+
+	/**
+	 * Returns the scalar fields of the wrapping document, such as
+	 * {@code "type":"item","id":"Q42",}, which precede the section.
+	 */
+	abstract String getJsonHeader();
+
+	/**
+	 * Deserializes a document which wraps a single section.
+	 */
+	abstract TermedStatementDocumentImpl readSection(byte[] prefix, byte[] json, int start, int end)
+			throws IOException;
+
+	/**
+	 * Quotes a string for the header of the wrapping document.
+	 */
+	static String quote(String string) {
+		return "\"" + new String(JsonStringEncoder.getInstance().quoteAsString(string)) + "\"";
+	}
+
+	/**
+	 * Returns the deserialized section, or null if the document has no such
+	 * section.
+	 */
+	TermedStatementDocumentImpl getSection(int section) {
+		checkNotReleased();
+		TermedStatementDocumentImpl result = parsedSections[section];
+		if (result == null && sectionStarts[section] >= 0) {
+			if (sectionPrefix == null) {
+				sectionPrefix = ("{" + getJsonHeader()).getBytes(StandardCharsets.UTF_8);
+			}
+			byte[] prefix = concat(sectionPrefix,
+					("\"" + Sections.NAMES[section] + "\":").getBytes(StandardCharsets.UTF_8));
+			try {
+				result = readSection(prefix, json, sectionStarts[section], sectionEnds[section]);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Failed to read the " + Sections.NAMES[section]
+						+ " of " + entityId + ": " + e.getMessage(), e);
+			}
+			parsedSections[section] = result;
+		}
+		return result;
+	}
+
+	boolean isParsed(int section) {
+		return parsedSections[section] != null;
+	}
+
+	private static byte[] concat(byte[] first, byte[] second) {
+		byte[] result = new byte[first.length + second.length];
+		System.arraycopy(first, 0, result, 0, first.length);
+		System.arraycopy(second, 0, result, first.length, second.length);
+		return result;
+	}
+
+	@Override
+	public long getRevisionId() {
+		checkNotReleased();
+		return revisionId;
+	}
+
+	@Override
+	public Map<String, MonolingualTextValue> getLabels() {
+		TermedStatementDocumentImpl section = getSection(Sections.LABELS);
+		return section == null ? Collections.emptyMap() : section.getLabels();
+	}
+
+	@Override
+	public Map<String, MonolingualTextValue> getDescriptions() {
+		TermedStatementDocumentImpl section = getSection(Sections.DESCRIPTIONS);
+		return section == null ? Collections.emptyMap() : section.getDescriptions();
+	}
+
+	@Override
+	public Map<String, List<MonolingualTextValue>> getAliases() {
+		TermedStatementDocumentImpl section = getSection(Sections.ALIASES);
+		return section == null ? Collections.emptyMap() : section.getAliases();
+	}
+
+	@Override
+	public List<StatementGroup> getStatementGroups() {
+		TermedStatementDocumentImpl section = getSection(Sections.CLAIMS);
+		return section == null ? Collections.emptyList() : section.getStatementGroups();
+	}
+
+	@Override
+	public StatementGroup findStatementGroup(String propertyId) {
+		TermedStatementDocumentImpl section = getSection(Sections.CLAIMS);
+		return section == null ? null : section.findStatementGroup(propertyId);
+	}
+
+	/**
+	 * Returns the statements as a map from property ids to statements, as
+	 * found in JSON.
+	 */
+	Map<String, List<Statement>> getJsonClaims() {
+		TermedStatementDocumentImpl section = getSection(Sections.CLAIMS);
+		return section == null ? Collections.emptyMap() : section.getJsonClaims();
+	}
+
+	/**
+	 * Serializes lazy documents with {@link StreamingSerializer}, which
+	 * produces the same JSON as for the default implementation.
+	 */
+	static class LazyDocumentSerializer extends JsonSerializer<LazyTermedStatementDocumentImpl> {
+
+		@Override
+		public void serialize(LazyTermedStatementDocumentImpl value, JsonGenerator generator,
+				SerializerProvider provider) throws IOException {
+			StreamingSerializer.writeEntityDocument(generator, value);
+		}
+	}
+}
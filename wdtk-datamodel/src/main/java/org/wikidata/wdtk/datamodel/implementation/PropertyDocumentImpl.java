@@ -112,10 +112,10 @@ public class PropertyDocumentImpl extends TermedStatementDocumentImpl
     }
 
     /**
-	 * Private constructor, meant to be used to create modified copies
+	 * Constructor meant to be used to create modified copies
 	 * of instances.
 	 */
-	private PropertyDocumentImpl(
+	PropertyDocumentImpl(
 			PropertyIdValue id,
 			Map<String, MonolingualTextValue> labels,
 			Map<String, MonolingualTextValue> descriptions,
@@ -31,9 +31,17 @@ import org.wikidata.wdtk.datamodel.interfaces.QuantityValue;
 import org.wikidata.wdtk.datamodel.interfaces.ValueVisitor;
 
 import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Jackson implementation of {@link QuantityValue}.
+ * <p>
+ * Numbers with at most 18 digits, which covers almost all quantities in
+ * Wikidata, are stored as a long unscaled value and an int scale, so that
+ * reading them from JSON allocates no {@link BigDecimal}. Decimals are only
+ * created when they are requested; {@link #getNumericValueAsDouble()} and
+ * {@link #getNumericValueAsLong()} avoid them altogether. Units are interned.
  *
  * @author Fredo Erxleben
  * @author Antonin Delpeuch
@@ -151,18 +159,59 @@ public class QuantityValueImpl extends ValueImpl implements QuantityValue {
 		return this.value.getUnitItemId();
 	}
 
+	@JsonIgnore
+	@Override
+	public double getNumericValueAsDouble() {
+		return this.value.amount.doubleValue();
+	}
+
+	@JsonIgnore
+	@Override
+	public long getNumericValueAsLong() {
+		return this.value.amount.longValueExact();
+	}
+
+	@JsonIgnore
+	@Override
+	public double getLowerBoundAsDouble() {
+		return this.value.lowerBound == null ? Double.NaN : this.value.lowerBound.doubleValue();
+	}
+
+	@JsonIgnore
+	@Override
+	public double getUpperBoundAsDouble() {
+		return this.value.upperBound == null ? Double.NaN : this.value.upperBound.doubleValue();
+	}
+
 	@Override
 	public <T> T accept(ValueVisitor<T> valueVisitor) {
 		return valueVisitor.visit(this);
 	}
 
+	/**
+	 * Computes the same hash code as {@link Hash#hashCode(QuantityValue)}
+	 * without creating decimals.
+	 */
 	@Override
 	public int hashCode() {
-		return Hash.hashCode(this);
+		int result = this.value.amount.hashCode();
+		result = 31 * result + this.value.getUnit().hashCode();
+		if (this.value.lowerBound != null) {
+			result = 31 * result + this.value.lowerBound.hashCode();
+			result = 31 * result + this.value.upperBound.hashCode();
+		}
+		return result;
 	}
 
 	@Override
 	public boolean equals(Object obj) {
+		if (obj instanceof QuantityValueImpl) {
+			JacksonInnerQuantity other = ((QuantityValueImpl) obj).value;
+			return this.value.amount.equals(other.amount)
+					&& CompactDecimal.equals(this.value.lowerBound, other.lowerBound)
+					&& CompactDecimal.equals(this.value.upperBound, other.upperBound)
+					&& this.value.getUnit().equals(other.getUnit());
+		}
 		return Equality.equalsQuantityValue(this, obj);
 	}
 
@@ -171,15 +220,235 @@ public class QuantityValueImpl extends ValueImpl implements QuantityValue {
 		return ToString.toString(this);
 	}
 
+	/**
+	 * An immutable decimal number, stored as a long unscaled value and an int
+	 * scale if the unscaled value has at most 18 digits, and as a
+	 * {@link BigDecimal} otherwise. Two numbers are equal if their decimals
+	 * are equal, that is, if they have the same value and scale.
+	 */
+	static final class CompactDecimal {
+
+		private static final int MAX_COMPACT_DIGITS = 18;
+
+		private static final long[] LONG_POWERS_OF_TEN = new long[MAX_COMPACT_DIGITS + 1];
+
+		/**
+		 * Powers of ten which are exact doubles.
+		 */
+		private static final double[] DOUBLE_POWERS_OF_TEN = new double[23];
+
+		static {
+			LONG_POWERS_OF_TEN[0] = 1;
+			for (int i = 1; i < LONG_POWERS_OF_TEN.length; i++) {
+				LONG_POWERS_OF_TEN[i] = 10 * LONG_POWERS_OF_TEN[i - 1];
+			}
+			DOUBLE_POWERS_OF_TEN[0] = 1;
+			for (int i = 1; i < DOUBLE_POWERS_OF_TEN.length; i++) {
+				DOUBLE_POWERS_OF_TEN[i] = 10 * DOUBLE_POWERS_OF_TEN[i - 1];
+			}
+		}
+
+		private final long unscaled;
+		private final int scale;
+		/**
+		 * The value, if it does not fit in a long unscaled value.
+		 */
+		private final BigDecimal big;
+
+		private CompactDecimal(long unscaled, int scale, BigDecimal big) {
+			this.unscaled = unscaled;
+			this.scale = scale;
+			this.big = big;
+		}
+
+		static CompactDecimal valueOf(BigDecimal decimal) {
+			if (decimal.precision() <= MAX_COMPACT_DIGITS) {
+				return new CompactDecimal(decimal.unscaledValue().longValue(), decimal.scale(), null);
+			}
+			return new CompactDecimal(0, 0, decimal);
+		}
+
+		/**
+		 * Parses a decimal in the syntax of {@link BigDecimal#BigDecimal(String)}.
+		 * Plain decimals with at most 18 digits are parsed without creating a
+		 * {@link BigDecimal}.
+		 *
+		 * @throws NumberFormatException
+		 *             if the string is not a valid decimal
+		 */
+		static CompactDecimal parse(String string) {
+			String text = string.trim();
+			int length = text.length();
+			int position = 0;
+			boolean negative = false;
+			if (length > 0 && (text.charAt(0) == '+' || text.charAt(0) == '-')) {
+				negative = text.charAt(0) == '-';
+				position++;
+			}
+			long unscaled = 0;
+			int digits = 0;
+			int scale = 0;
+			boolean point = false;
+			for (; position < length; position++) {
+				char c = text.charAt(position);
+				if (c >= '0' && c <= '9') {
+					unscaled = 10 * unscaled + (c - '0');
+					digits++;
+					if (point) {
+						scale++;
+					}
+				} else if (c == '.' && !point && digits > 0) {
+					point = true;
+				} else {
+					break;
+				}
+			}
+			if (position == length && digits > 0 && digits <= MAX_COMPACT_DIGITS
+					&& (!point || scale > 0)) {
+				return new CompactDecimal(negative ? -unscaled : unscaled, scale, null);
+			}
+			return valueOf(new BigDecimal(text));
+		}
+
+		static boolean equals(CompactDecimal first, CompactDecimal second) {
+			return first == null ? second == null : first.equals(second);
+		}
+
+		BigDecimal toBigDecimal() {
+			return big != null ? big : BigDecimal.valueOf(unscaled, scale);
+		}
+
+		int signum() {
+			return big != null ? big.signum() : Long.signum(unscaled);
+		}
+
+		double doubleValue() {
+			if (big == null && scale >= 0 && scale < DOUBLE_POWERS_OF_TEN.length
+					&& Math.abs(unscaled) < (1L << 53)) {
+				// both operands are exact, so the division is correctly rounded
+				return unscaled / DOUBLE_POWERS_OF_TEN[scale];
+			}
+			return toBigDecimal().doubleValue();
+		}
+
+		long longValueExact() {
+			if (big == null && scale >= 0 && scale < LONG_POWERS_OF_TEN.length
+					&& unscaled % LONG_POWERS_OF_TEN[scale] == 0) {
+				return unscaled / LONG_POWERS_OF_TEN[scale];
+			}
+			return toBigDecimal().longValueExact();
+		}
+
+		/**
+		 * Compares the values of two numbers, ignoring their scale.
+		 */
+		int compareTo(CompactDecimal other) {
+			if (big == null && other.big == null) {
+				if (scale == other.scale) {
+					return Long.compare(unscaled, other.unscaled);
+				}
+				try {
+					if (scale < other.scale) {
+						return Long.compare(rescale(unscaled, other.scale - scale), other.unscaled);
+					} else {
+						return Long.compare(unscaled, rescale(other.unscaled, scale - other.scale));
+					}
+				} catch (ArithmeticException e) {
+					// overflow; compare the decimals below
+				}
+			}
+			return toBigDecimal().compareTo(other.toBigDecimal());
+		}
+
+		private static long rescale(long unscaled, int scaleDifference) {
+			if (scaleDifference >= LONG_POWERS_OF_TEN.length) {
+				throw new ArithmeticException("long overflow");
+			}
+			return Math.multiplyExact(unscaled, LONG_POWERS_OF_TEN[scaleDifference]);
+		}
+
+		/**
+		 * Returns the same string as {@link BigDecimal#toString()}.
+		 */
+		@Override
+		public String toString() {
+			if (big != null || scale < 0) {
+				return toBigDecimal().toString();
+			}
+			String coefficient = Long.toString(Math.abs(unscaled));
+			if (scale == 0) {
+				return unscaled < 0 ? "-" + coefficient : coefficient;
+			}
+			int integerDigits = coefficient.length() - scale;
+			if (integerDigits < -5) {
+				// BigDecimal uses scientific notation for such small numbers
+				return toBigDecimal().toString();
+			}
+			StringBuilder builder = new StringBuilder(scale + 3);
+			if (unscaled < 0) {
+				builder.append('-');
+			}
+			if (integerDigits > 0) {
+				builder.append(coefficient, 0, integerDigits).append('.')
+						.append(coefficient, integerDigits, coefficient.length());
+			} else {
+				builder.append("0.");
+				for (int i = integerDigits; i < 0; i++) {
+					builder.append('0');
+				}
+				builder.append(coefficient);
+			}
+			return builder.toString();
+		}
+
+		/**
+		 * Returns the same hash code as {@link BigDecimal#hashCode()}.
+		 */
+		@Override
+		public int hashCode() {
+			if (big != null) {
+				return big.hashCode();
+			}
+			long magnitude = Math.abs(unscaled);
+			int temp = (int) ((int) (magnitude >>> 32) * 31 + (magnitude & 0xffffffffL));
+			return 31 * (unscaled < 0 ? -temp : temp) + scale;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof CompactDecimal)) {
+				return false;
+			}
+			CompactDecimal other = (CompactDecimal) obj;
+			if (big == null && other.big == null) {
+				return unscaled == other.unscaled && scale == other.scale;
+			}
+			return toBigDecimal().equals(other.toBigDecimal());
+		}
+	}
+
 	/**
 	 * Helper object that represents the JSON object structure of the value.
 	 */
 	@JsonIgnoreProperties(ignoreUnknown = true)
 	static class JacksonInnerQuantity {
 
-		private final BigDecimal amount;
-		private final BigDecimal upperBound;
-		private final BigDecimal lowerBound;
+		/**
+		 * Maximal number of units that are interned.
+		 */
+		private static final int MAX_INTERNED_UNITS = 10000;
+
+		/**
+		 * Interned units, by IRI.
+		 */
+		private static final Map<String, ItemIdValue> UNITS = new ConcurrentHashMap<>();
+
+		private final CompactDecimal amount;
+		private final CompactDecimal upperBound;
+		private final CompactDecimal lowerBound;
 		private final ItemIdValue unit;
 
 		/**
@@ -194,29 +463,55 @@ public class QuantityValueImpl extends ValueImpl implements QuantityValue {
 		 * 		the upper bound of this quantity
 		 * @param unit
 		 * 		the unit of this quantity, as an IRI to the relevant entity
+		 * @throws NumberFormatException
+		 * 		if one of the numbers is not a valid decimal
 		 */
 		@JsonCreator
 		JacksonInnerQuantity(
-				@JsonProperty("amount") BigDecimal amount,
-				@JsonProperty("lowerBound") BigDecimal lowerBound,
-				@JsonProperty("upperBound") BigDecimal upperBound,
+				@JsonProperty("amount") String amount,
+				@JsonProperty("lowerBound") String lowerBound,
+				@JsonProperty("upperBound") String upperBound,
 				@JsonProperty("unit") String unit) {
-		    this(amount, lowerBound, upperBound, parseUnit(unit));
+			this(parse(Validate.notNull(amount, "Numeric value cannot be null")),
+					parse(lowerBound), parse(upperBound), parseUnit(unit));
 		}
 
         protected static ItemIdValue parseUnit(String unit) {
 		    Validate.notNull(unit, "Unit cannot be null");
             Validate.notEmpty(unit, "Unit cannot be empty. Use \"1\" for unit-less quantities.");
-            return "1".equals(unit) ? null : ItemIdValueImpl.fromIri(unit);
+            if ("1".equals(unit)) {
+            	return null;
+            }
+            ItemIdValue result = UNITS.get(unit);
+            if (result == null) {
+            	result = ItemIdValueImpl.fromIri(unit);
+            	if (UNITS.size() < MAX_INTERNED_UNITS) {
+            		UNITS.putIfAbsent(unit, result);
+            	}
+            }
+            return result;
         }
-		
+
+        private static CompactDecimal parse(String number) {
+        	return number == null ? null : CompactDecimal.parse(number);
+        }
+
         JacksonInnerQuantity(
                 BigDecimal amount,
                 BigDecimal lowerBound,
                 BigDecimal upperBound,
                 ItemIdValue unit) {
-            Validate.notNull(amount, "Numeric value cannot be null");
+        	this(CompactDecimal.valueOf(Validate.notNull(amount, "Numeric value cannot be null")),
+        			lowerBound == null ? null : CompactDecimal.valueOf(lowerBound),
+        			upperBound == null ? null : CompactDecimal.valueOf(upperBound),
+        			unit);
+        }
 
+        private JacksonInnerQuantity(
+                CompactDecimal amount,
+                CompactDecimal lowerBound,
+                CompactDecimal upperBound,
+                ItemIdValue unit) {
             if(lowerBound != null || upperBound != null) {
                 Validate.notNull(lowerBound, "Lower and upper bounds should be null at the same time");
                 Validate.notNull(upperBound, "Lower and upper bounds should be null at the same time");
@@ -244,7 +539,7 @@ public class QuantityValueImpl extends ValueImpl implements QuantityValue {
 		 */
 		@JsonIgnore
 		BigDecimal getAmount() {
-			return amount;
+			return amount.toBigDecimal();
 		}
 
 		/**
@@ -255,7 +550,7 @@ public class QuantityValueImpl extends ValueImpl implements QuantityValue {
 		 */
 		@JsonIgnore
 		BigDecimal getUpperBound() {
-			return upperBound;
+			return upperBound == null ? null : upperBound.toBigDecimal();
 		}
 
 		/**
@@ -266,24 +561,24 @@ public class QuantityValueImpl extends ValueImpl implements QuantityValue {
 		 */
 		@JsonIgnore
 		BigDecimal getLowerBound() {
-			return lowerBound;
+			return lowerBound == null ? null : lowerBound.toBigDecimal();
 		}
 
 		@JsonProperty("amount")
 		String getAmountAsString() {
-			return bigDecimalToSignedString(this.amount);
+			return toSignedString(this.amount);
 		}
 
 		@JsonProperty("upperBound")
 		@JsonInclude(JsonInclude.Include.NON_NULL)
 		String getUpperBoundAsString() {
-			return this.upperBound != null ? bigDecimalToSignedString(this.upperBound) : null;
+			return this.upperBound != null ? toSignedString(this.upperBound) : null;
 		}
 
 		@JsonProperty("lowerBound")
 		@JsonInclude(JsonInclude.Include.NON_NULL)
 		String getLowerBoundAsString() {
-			return this.lowerBound != null ? bigDecimalToSignedString(this.lowerBound) : null;
+			return this.lowerBound != null ? toSignedString(this.lowerBound) : null;
 		}
 
 		/**
@@ -310,7 +605,7 @@ public class QuantityValueImpl extends ValueImpl implements QuantityValue {
 		/**
 		 * Formats the string output with a leading signum as JSON expects it.
 		 */
-		private String bigDecimalToSignedString(BigDecimal value) {
+		private static String toSignedString(CompactDecimal value) {
 			if (value.signum() < 0) {
 				return value.toString();
 			} else {
@@ -70,9 +70,24 @@ public class ReferenceImpl implements Reference {
 	 * 		the snaks group which form the reference
 	 */
 	public ReferenceImpl(List<SnakGroup> groups) {
+		this(groups, null);
+	}
+
+	/**
+	 * Constructor for references whose hash on the Wikibase site is known.
+	 * <p>
+	 * The order of the snaks groups provided will be respected.
+	 * the properties used by the snak groups should be distinct.
+	 *
+	 * @param groups
+	 * 		the snaks group which form the reference
+	 * @param hash
+	 * 		the hash of the reference, or null if unknown
+	 */
+	public ReferenceImpl(List<SnakGroup> groups, String hash) {
 		propertyOrder = new ArrayList<>(groups.size());
 		snaks = new HashMap<>(groups.size());
-		hash = null;
+		this.hash = hash;
 
 		for(SnakGroup group : groups) {
 			propertyOrder.add(group.getProperty().getId());
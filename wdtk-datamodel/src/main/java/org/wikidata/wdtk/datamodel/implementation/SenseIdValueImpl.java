@@ -69,7 +69,7 @@ public class SenseIdValueImpl extends ValueImpl implements SenseIdValue {
 		}
 		this.id = id;
 		Validate.notNull(siteIri);
-		this.siteIri = siteIri;
+		this.siteIri = StringInterner.intern(siteIri);
 	}
 
 	/**
@@ -78,9 +78,9 @@ public class SitesImpl implements Sites {
 			Validate.notNull(filePath, "File path must not be null.");
 			Validate.notNull(pagePath, "Page path must not be null.");
 
-			this.siteKey = siteKey;
+			this.siteKey = StringInterner.add(siteKey);
 			this.group = group;
-			this.languageCode = languageCode;
+			this.languageCode = StringInterner.add(languageCode);
 			this.siteType = siteType;
 
 			filePath = addProtocolPrefix(filePath);
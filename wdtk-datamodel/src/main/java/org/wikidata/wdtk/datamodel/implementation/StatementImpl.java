@@ -42,6 +42,10 @@ import java.util.*;
 /**
  * Jackson implementation of {@link Statement}. In JSON, the corresponding
  * structures are referred to as "claim".
+ * <p>
+ * The order of the JSON fields is fixed, since most of them are read from
+ * methods without a matching field or creator parameter, for which Jackson
+ * would otherwise use the unspecified order of reflection.
  *
  * @author Fredo Erxleben
  * @author Antonin Delpeuch
@@ -49,6 +53,7 @@ import java.util.*;
  *
  */
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonPropertyOrder({ "rank", "id", "mainsnak", "qualifiers-order", "references", "type", "qualifiers" })
 public class StatementImpl implements Statement {
 
 	private final String statementId;
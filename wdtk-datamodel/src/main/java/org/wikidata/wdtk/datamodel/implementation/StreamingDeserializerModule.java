@@ -0,0 +1,1066 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
+import org.wikidata.wdtk.datamodel.interfaces.Reference;
+import org.wikidata.wdtk.datamodel.interfaces.SiteLink;
+import org.wikidata.wdtk.datamodel.interfaces.StatementRank;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserSequence;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Jackson module with handwritten deserializers for entity documents,
+ * statements, references, snaks and values. They pull tokens directly from
+ * the {@link JsonParser} and call the same JSON constructors as the
+ * annotation-driven deserialization, so that the resulting objects are
+ * identical. This avoids the buffering of creator properties, the
+ * resolution of polymorphic types and the intermediate JSON trees built for
+ * values and aliases.
+ * <p>
+ * Items, properties and media info are read completely by hand. Lexemes,
+ * forms and senses are still read with their annotations, but use the
+ * handwritten deserializers for their statements and terms. Values of
+ * unsupported types are delegated to {@link ValueImpl.JacksonDeserializer}.
+ * <p>
+ * This module is registered by {@link DatamodelMapper}. Like the annotated
+ * classes, it relies on the "siteIri" injectable value.
+ */
+public class StreamingDeserializerModule extends SimpleModule {
+
+	private static final long serialVersionUID = -4567915187203935437L;
+
+	private static final ValueImpl.JacksonDeserializer FALLBACK_VALUE_DESERIALIZER = new ValueImpl.JacksonDeserializer();
+
+	/**
+	 * Constructs the module.
+	 */
+	public StreamingDeserializerModule() {
+		super("WikidataToolkitStreamingDeserializers");
+		addDeserializer(EntityDocumentImpl.class, new EntityDocumentDeserializer());
+		addDeserializer(ItemDocumentImpl.class, new ItemDocumentDeserializer());
+		addDeserializer(PropertyDocumentImpl.class, new PropertyDocumentDeserializer());
+		addDeserializer(MediaInfoDocumentImpl.class, new MediaInfoDocumentDeserializer());
+		addDeserializer(StatementImpl.PreStatement.class, new StatementDeserializer());
+		addDeserializer(ReferenceImpl.class, new ReferenceDeserializer());
+		addDeserializer(SnakImpl.class, new SnakDeserializer());
+		addDeserializer(TermImpl.class, new TermDeserializer());
+	}
+
+	/**
+	 * Reads a JSON value at the current position of a parser.
+	 */
+	@FunctionalInterface
+	private interface Reader<T> {
+		T read(JsonParser p, DeserializationContext ctxt, String siteIri) throws IOException;
+	}
+
+	/**
+	 * Base class of the deserializers of this module. The polymorphic type
+	 * information declared on the classes is ignored, since the deserializers
+	 * know which fields determine the concrete type. Exceptions thrown by
+	 * the constructors are reported like Jackson does for creators.
+	 */
+	private static abstract class StreamingDeserializer<T> extends StdDeserializer<T> {
+
+		private static final long serialVersionUID = 1L;
+
+		StreamingDeserializer(Class<T> type) {
+			super(type);
+		}
+
+		@Override
+		public T deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+			try {
+				return read(p, ctxt, getSiteIri(ctxt));
+			} catch (IllegalArgumentException | NullPointerException e) {
+				throw ctxt.instantiationException(handledType(), e);
+			}
+		}
+
+		@Override
+		public Object deserializeWithType(JsonParser p, DeserializationContext ctxt,
+				TypeDeserializer typeDeserializer) throws IOException {
+			return deserialize(p, ctxt);
+		}
+
+		abstract T read(JsonParser p, DeserializationContext ctxt, String siteIri) throws IOException;
+
+		String getSiteIri(DeserializationContext ctxt) throws IOException {
+			return (String) ctxt.findInjectableValue("siteIri", null, null);
+		}
+	}
+
+	/**
+	 * Dispatches entity documents on their "type" field, buffering the
+	 * fields that precede it.
+	 */
+	static class EntityDocumentDeserializer extends StreamingDeserializer<EntityDocumentImpl> {
+
+		private static final long serialVersionUID = 1L;
+
+		EntityDocumentDeserializer() {
+			super(EntityDocumentImpl.class);
+		}
+
+		@Override
+		EntityDocumentImpl read(JsonParser p, DeserializationContext ctxt, String siteIri) throws IOException {
+			TokenBuffer buffer = null;
+			for (JsonToken t = startObject(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+				String field = p.currentName();
+				p.nextToken();
+				if ("type".equals(field)) {
+					String type = p.getText();
+					if (buffer != null) {
+						p.clearCurrentToken();
+						p = JsonParserSequence.createFlattened(false, buffer.asParser(p), p);
+					}
+					if (p.currentToken() != JsonToken.END_OBJECT) {
+						p.nextToken();
+					}
+					return readDocument(type, p, ctxt, siteIri);
+				}
+				if (buffer == null) {
+					buffer = ctxt.bufferForInputBuffering(p);
+				}
+				buffer.writeFieldName(field);
+				buffer.copyCurrentStructure(p);
+			}
+			throw ctxt.missingTypeIdException(ctxt.constructType(EntityDocumentImpl.class),
+					"missing type id property 'type'");
+		}
+
+		private EntityDocumentImpl readDocument(String type, JsonParser p,
+				DeserializationContext ctxt, String siteIri) throws IOException {
+			switch (type) {
+			case EntityDocumentImpl.JSON_TYPE_ITEM:
+				return readItemDocument(p, ctxt, siteIri);
+			case EntityDocumentImpl.JSON_TYPE_PROPERTY:
+				return readPropertyDocument(p, ctxt, siteIri);
+			case EntityDocumentImpl.JSON_TYPE_MEDIA_INFO:
+				return readMediaInfoDocument(p, ctxt, siteIri);
+			case EntityDocumentImpl.JSON_TYPE_LEXEME:
+				return readWithAnnotations(LexemeDocumentImpl.class, p, ctxt);
+			case EntityDocumentImpl.JSON_TYPE_FORM:
+				return readWithAnnotations(FormDocumentImpl.class, p, ctxt);
+			case EntityDocumentImpl.JSON_TYPE_SENSE:
+				return readWithAnnotations(SenseDocumentImpl.class, p, ctxt);
+			default:
+				throw ctxt.invalidTypeIdException(ctxt.constructType(EntityDocumentImpl.class), type,
+						"not a known entity document type");
+			}
+		}
+
+		private EntityDocumentImpl readWithAnnotations(Class<? extends EntityDocumentImpl> type,
+				JsonParser p, DeserializationContext ctxt) throws IOException {
+			JavaType javaType = ctxt.constructType(type);
+			JsonDeserializer<Object> deserializer = ctxt.findContextualValueDeserializer(javaType, null);
+			return (EntityDocumentImpl) deserializer.deserialize(p, ctxt);
+		}
+	}
+
+	static class ItemDocumentDeserializer extends StreamingDeserializer<ItemDocumentImpl> {
+
+		private static final long serialVersionUID = 1L;
+
+		ItemDocumentDeserializer() {
+			super(ItemDocumentImpl.class);
+		}
+
+		@Override
+		ItemDocumentImpl read(JsonParser p, DeserializationContext ctxt, String siteIri) throws IOException {
+			return readItemDocument(p, ctxt, siteIri);
+		}
+	}
+
+	static class PropertyDocumentDeserializer extends StreamingDeserializer<PropertyDocumentImpl> {
+
+		private static final long serialVersionUID = 1L;
+
+		PropertyDocumentDeserializer() {
+			super(PropertyDocumentImpl.class);
+		}
+
+		@Override
+		PropertyDocumentImpl read(JsonParser p, DeserializationContext ctxt, String siteIri) throws IOException {
+			return readPropertyDocument(p, ctxt, siteIri);
+		}
+	}
+
+	static class MediaInfoDocumentDeserializer extends StreamingDeserializer<MediaInfoDocumentImpl> {
+
+		private static final long serialVersionUID = 1L;
+
+		MediaInfoDocumentDeserializer() {
+			super(MediaInfoDocumentImpl.class);
+		}
+
+		@Override
+		MediaInfoDocumentImpl read(JsonParser p, DeserializationContext ctxt, String siteIri) throws IOException {
+			return readMediaInfoDocument(p, ctxt, siteIri);
+		}
+	}
+
+	static class StatementDeserializer extends StreamingDeserializer<StatementImpl.PreStatement> {
+
+		private static final long serialVersionUID = 1L;
+
+		StatementDeserializer() {
+			super(StatementImpl.PreStatement.class);
+		}
+
+		@Override
+		StatementImpl.PreStatement read(JsonParser p, DeserializationContext ctxt, String siteIri) throws IOException {
+			return readStatement(p, ctxt, siteIri);
+		}
+	}
+
+	static class ReferenceDeserializer extends StreamingDeserializer<ReferenceImpl> {
+
+		private static final long serialVersionUID = 1L;
+
+		ReferenceDeserializer() {
+			super(ReferenceImpl.class);
+		}
+
+		@Override
+		ReferenceImpl read(JsonParser p, DeserializationContext ctxt, String siteIri) throws IOException {
+			return readReference(p, ctxt, siteIri);
+		}
+	}
+
+	static class SnakDeserializer extends StreamingDeserializer<SnakImpl> {
+
+		private static final long serialVersionUID = 1L;
+
+		SnakDeserializer() {
+			super(SnakImpl.class);
+		}
+
+		@Override
+		SnakImpl read(JsonParser p, DeserializationContext ctxt, String siteIri) throws IOException {
+			return readSnak(p, ctxt, siteIri);
+		}
+	}
+
+	static class TermDeserializer extends StreamingDeserializer<TermImpl> {
+
+		private static final long serialVersionUID = 1L;
+
+		TermDeserializer() {
+			super(TermImpl.class);
+		}
+
+		@Override
+		TermImpl read(JsonParser p, DeserializationContext ctxt, String siteIri) throws IOException {
+			return readTerm(p, ctxt, siteIri);
+		}
+
+		@Override
+		String getSiteIri(DeserializationContext ctxt) {
+			return null;
+		}
+	}
+
+	static ItemDocumentImpl readItemDocument(JsonParser p, DeserializationContext ctxt, String siteIri)
+			throws IOException {
+		String id = null;
+		Map<String, MonolingualTextValue> labels = null;
+		Map<String, MonolingualTextValue> descriptions = null;
+		Map<String, List<MonolingualTextValue>> aliases = null;
+		Map<String, List<StatementImpl.PreStatement>> claims = null;
+		Map<String, SiteLink> sitelinks = null;
+		long revisionId = 0;
+		for (JsonToken t = startObject(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+			String field = p.currentName();
+			p.nextToken();
+			switch (field) {
+			case "type":
+				checkDocumentType(EntityDocumentImpl.JSON_TYPE_ITEM, ItemDocumentImpl.class, p, ctxt);
+				break;
+			case "id":
+				id = p.getValueAsString();
+				break;
+			case "labels":
+				labels = readMap(p, ctxt, siteIri, StreamingDeserializerModule::readTerm);
+				break;
+			case "descriptions":
+				descriptions = readMap(p, ctxt, siteIri, StreamingDeserializerModule::readTerm);
+				break;
+			case "aliases":
+				aliases = readAliases(p, ctxt);
+				break;
+			case "claims":
+				claims = readMap(p, ctxt, siteIri, StreamingDeserializerModule::readStatementList);
+				break;
+			case "sitelinks":
+				sitelinks = readMap(p, ctxt, siteIri, StreamingDeserializerModule::readSiteLink);
+				break;
+			case "lastrevid":
+				revisionId = p.getValueAsLong();
+				break;
+			default:
+				p.skipChildren();
+			}
+		}
+		return new ItemDocumentImpl(id, labels, descriptions, aliases, claims, sitelinks, revisionId, siteIri);
+	}
+
+	static PropertyDocumentImpl readPropertyDocument(JsonParser p, DeserializationContext ctxt, String siteIri)
+			throws IOException {
+		String id = null;
+		Map<String, MonolingualTextValue> labels = null;
+		Map<String, MonolingualTextValue> descriptions = null;
+		Map<String, List<MonolingualTextValue>> aliases = null;
+		Map<String, List<StatementImpl.PreStatement>> claims = null;
+		String datatype = null;
+		long revisionId = 0;
+		for (JsonToken t = startObject(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+			String field = p.currentName();
+			p.nextToken();
+			switch (field) {
+			case "type":
+				checkDocumentType(EntityDocumentImpl.JSON_TYPE_PROPERTY, PropertyDocumentImpl.class, p, ctxt);
+				break;
+			case "id":
+				id = p.getValueAsString();
+				break;
+			case "labels":
+				labels = readMap(p, ctxt, siteIri, StreamingDeserializerModule::readTerm);
+				break;
+			case "descriptions":
+				descriptions = readMap(p, ctxt, siteIri, StreamingDeserializerModule::readTerm);
+				break;
+			case "aliases":
+				aliases = readAliases(p, ctxt);
+				break;
+			case "claims":
+				claims = readMap(p, ctxt, siteIri, StreamingDeserializerModule::readStatementList);
+				break;
+			case "datatype":
+				datatype = p.getValueAsString();
+				break;
+			case "lastrevid":
+				revisionId = p.getValueAsLong();
+				break;
+			default:
+				p.skipChildren();
+			}
+		}
+		return new PropertyDocumentImpl(id, labels, descriptions, aliases, claims, datatype, revisionId, siteIri);
+	}
+
+	static MediaInfoDocumentImpl readMediaInfoDocument(JsonParser p, DeserializationContext ctxt, String siteIri)
+			throws IOException {
+		String id = null;
+		Map<String, MonolingualTextValue> labels = null;
+		Map<String, List<StatementImpl.PreStatement>> claims = null;
+		Map<String, List<StatementImpl.PreStatement>> statements = null;
+		long revisionId = 0;
+		for (JsonToken t = startObject(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+			String field = p.currentName();
+			p.nextToken();
+			switch (field) {
+			case "type":
+				checkDocumentType(EntityDocumentImpl.JSON_TYPE_MEDIA_INFO, MediaInfoDocumentImpl.class, p, ctxt);
+				break;
+			case "id":
+				id = p.getValueAsString();
+				break;
+			case "labels":
+				labels = readMap(p, ctxt, siteIri, StreamingDeserializerModule::readTerm);
+				break;
+			case "claims":
+				claims = readMap(p, ctxt, siteIri, StreamingDeserializerModule::readStatementList);
+				break;
+			case "statements":
+				statements = readMap(p, ctxt, siteIri, StreamingDeserializerModule::readStatementList);
+				break;
+			case "lastrevid":
+				revisionId = p.getValueAsLong();
+				break;
+			default:
+				p.skipChildren();
+			}
+		}
+		return new MediaInfoDocumentImpl(id, labels, claims, statements, revisionId, siteIri);
+	}
+
+	/**
+	 * Rejects documents whose "type" field does not match the requested
+	 * class, as the type resolution of the annotated classes would.
+	 */
+	private static void checkDocumentType(String expected, Class<?> documentClass, JsonParser p,
+			DeserializationContext ctxt) throws IOException {
+		String type = p.getValueAsString();
+		if (!expected.equals(type)) {
+			throw ctxt.invalidTypeIdException(ctxt.constructType(documentClass), type,
+					"not a subtype of " + documentClass.getName());
+		}
+	}
+
+	static TermImpl readTerm(JsonParser p, DeserializationContext ctxt, String siteIri) throws IOException {
+		String language = null;
+		String value = null;
+		for (JsonToken t = startObject(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+			String field = p.currentName();
+			p.nextToken();
+			switch (field) {
+			case "language":
+				language = p.getValueAsString();
+				break;
+			case "value":
+				value = p.getValueAsString();
+				break;
+			default:
+				p.skipChildren();
+			}
+		}
+		return new TermImpl(language, value);
+	}
+
+	/**
+	 * Reads aliases. Like {@link TermedStatementDocumentImpl.AliasesDeserializer},
+	 * this accepts arrays in place of empty maps.
+	 */
+	private static Map<String, List<MonolingualTextValue>> readAliases(JsonParser p, DeserializationContext ctxt)
+			throws IOException {
+		if (p.currentToken() == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		Map<String, List<MonolingualTextValue>> aliases = new HashMap<>();
+		if (p.currentToken() == JsonToken.START_ARRAY) {
+			p.skipChildren();
+			return aliases;
+		}
+		for (JsonToken t = startObject(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+			String language = p.currentName();
+			if (p.nextToken() != JsonToken.START_ARRAY) {
+				throw ctxt.wrongTokenException(p, Map.class, JsonToken.START_ARRAY,
+						"Unexpected alias list serialization");
+			}
+			List<MonolingualTextValue> terms = new ArrayList<>();
+			while (p.nextToken() != JsonToken.END_ARRAY) {
+				terms.add(readTerm(p, ctxt, null));
+			}
+			aliases.put(language, terms);
+		}
+		return aliases;
+	}
+
+	private static SiteLinkImpl readSiteLink(JsonParser p, DeserializationContext ctxt, String siteIri)
+			throws IOException {
+		String title = null;
+		String site = null;
+		List<String> badges = null;
+		for (JsonToken t = startObject(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+			String field = p.currentName();
+			p.nextToken();
+			switch (field) {
+			case "title":
+				title = p.getValueAsString();
+				break;
+			case "site":
+				site = p.getValueAsString();
+				break;
+			case "badges":
+				badges = readList(p, ctxt, siteIri, StreamingDeserializerModule::readString);
+				break;
+			default:
+				p.skipChildren();
+			}
+		}
+		return new SiteLinkImpl(title, site, badges, siteIri);
+	}
+
+	private static List<StatementImpl.PreStatement> readStatementList(JsonParser p,
+			DeserializationContext ctxt, String siteIri) throws IOException {
+		return readList(p, ctxt, siteIri, StreamingDeserializerModule::readStatement);
+	}
+
+	static StatementImpl.PreStatement readStatement(JsonParser p, DeserializationContext ctxt, String siteIri)
+			throws IOException {
+		String id = null;
+		StatementRank rank = null;
+		SnakImpl mainSnak = null;
+		Map<String, List<SnakImpl>> qualifiers = null;
+		List<String> qualifiersOrder = null;
+		List<Reference> references = null;
+		for (JsonToken t = startObject(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+			String field = p.currentName();
+			p.nextToken();
+			switch (field) {
+			case "id":
+				id = p.getValueAsString();
+				break;
+			case "rank":
+				rank = readRank(p);
+				break;
+			case "mainsnak":
+				mainSnak = readSnak(p, ctxt, siteIri);
+				break;
+			case "qualifiers":
+				qualifiers = readMap(p, ctxt, siteIri, StreamingDeserializerModule::readSnakList);
+				break;
+			case "qualifiers-order":
+				qualifiersOrder = readList(p, ctxt, siteIri, StreamingDeserializerModule::readString);
+				break;
+			case "references":
+				references = readList(p, ctxt, siteIri, StreamingDeserializerModule::readReference);
+				break;
+			default:
+				p.skipChildren();
+			}
+		}
+		return StatementImpl.PreStatement.fromJson(id, rank, mainSnak, qualifiers, qualifiersOrder, references);
+	}
+
+	private static StatementRank readRank(JsonParser p) throws IOException {
+		String rank = p.getText();
+		switch (rank) {
+		case "normal":
+			return StatementRank.NORMAL;
+		case "preferred":
+			return StatementRank.PREFERRED;
+		case "deprecated":
+			return StatementRank.DEPRECATED;
+		default:
+			return StatementRank.valueOf(rank.toUpperCase());
+		}
+	}
+
+	static ReferenceImpl readReference(JsonParser p, DeserializationContext ctxt, String siteIri)
+			throws IOException {
+		Map<String, List<SnakImpl>> snaks = null;
+		List<String> propertyOrder = null;
+		String hash = null;
+		for (JsonToken t = startObject(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+			String field = p.currentName();
+			p.nextToken();
+			switch (field) {
+			case "snaks":
+				snaks = readMap(p, ctxt, siteIri, StreamingDeserializerModule::readSnakList);
+				break;
+			case "snaks-order":
+				propertyOrder = readList(p, ctxt, siteIri, StreamingDeserializerModule::readString);
+				break;
+			case "hash":
+				hash = p.getValueAsString();
+				break;
+			default:
+				p.skipChildren();
+			}
+		}
+		return new ReferenceImpl(snaks, propertyOrder, hash);
+	}
+
+	private static List<SnakImpl> readSnakList(JsonParser p, DeserializationContext ctxt, String siteIri)
+			throws IOException {
+		return readList(p, ctxt, siteIri, StreamingDeserializerModule::readSnak);
+	}
+
+	static SnakImpl readSnak(JsonParser p, DeserializationContext ctxt, String siteIri) throws IOException {
+		String snakType = null;
+		String property = null;
+		String datatype = null;
+		ValueImpl datavalue = null;
+		for (JsonToken t = startObject(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+			String field = p.currentName();
+			p.nextToken();
+			switch (field) {
+			case "snaktype":
+				snakType = p.getValueAsString();
+				break;
+			case "property":
+				property = p.getValueAsString();
+				break;
+			case "datatype":
+				datatype = p.getValueAsString();
+				break;
+			case "datavalue":
+				datavalue = readValue(p, ctxt, siteIri);
+				break;
+			default:
+				p.skipChildren();
+			}
+		}
+		if (snakType == null) {
+			throw ctxt.missingTypeIdException(ctxt.constructType(SnakImpl.class),
+					"missing type id property 'snaktype'");
+		}
+		switch (snakType) {
+		case SnakImpl.JSON_SNAK_TYPE_VALUE:
+			return new ValueSnakImpl(property, datatype, datavalue, siteIri);
+		case SnakImpl.JSON_SNAK_TYPE_SOMEVALUE:
+			return new SomeValueSnakImpl(property, siteIri);
+		case SnakImpl.JSON_SNAK_TYPE_NOVALUE:
+			return new NoValueSnakImpl(property, siteIri);
+		default:
+			throw ctxt.invalidTypeIdException(ctxt.constructType(SnakImpl.class), snakType,
+					"not a known snak type");
+		}
+	}
+
+	/**
+	 * Reads a value. The "value" field is read directly if the "type" field
+	 * precedes it. Otherwise, the fields are buffered until the type is
+	 * known, which is cheaper than the JSON tree built by
+	 * {@link ValueImpl.JacksonDeserializer}.
+	 */
+	static ValueImpl readValue(JsonParser p, DeserializationContext ctxt, String siteIri) throws IOException {
+		if (p.currentToken() == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		String type = null;
+		TokenBuffer buffer = null;
+		for (JsonToken t = startObject(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+			String field = p.currentName();
+			p.nextToken();
+			if ("type".equals(field)) {
+				type = p.getValueAsString();
+			} else if ("value".equals(field) && buffer == null && isSupportedValueType(type)) {
+				ValueImpl value = readDataValue(type, p, ctxt, siteIri);
+				while (p.nextToken() == JsonToken.FIELD_NAME) {
+					p.nextToken();
+					p.skipChildren();
+				}
+				return value;
+			} else {
+				if (buffer == null) {
+					buffer = ctxt.bufferForInputBuffering(p);
+					buffer.writeStartObject();
+				}
+				buffer.writeFieldName(field);
+				buffer.copyCurrentStructure(p);
+			}
+		}
+		if (type == null) {
+			return (ValueImpl) ctxt.handleUnexpectedToken(ValueImpl.class, p);
+		}
+
+		if (buffer == null) {
+			buffer = ctxt.bufferForInputBuffering(p);
+			buffer.writeStartObject();
+		}
+		buffer.writeStringField("type", type);
+		buffer.writeEndObject();
+		if (isSupportedValueType(type)) {
+			JsonParser replay = buffer.asParser(p);
+			replay.nextToken();
+			for (JsonToken t = replay.nextToken(); t == JsonToken.FIELD_NAME; t = replay.nextToken()) {
+				String field = replay.currentName();
+				replay.nextToken();
+				if ("value".equals(field)) {
+					return readDataValue(type, replay, ctxt, siteIri);
+				}
+				replay.skipChildren();
+			}
+		}
+		JsonParser replay = buffer.asParser(p);
+		replay.nextToken();
+		return FALLBACK_VALUE_DESERIALIZER.deserialize(replay, ctxt);
+	}
+
+	private static boolean isSupportedValueType(String type) {
+		if (type == null) {
+			return false;
+		}
+		switch (type) {
+		case ValueImpl.JSON_VALUE_TYPE_ENTITY_ID:
+		case ValueImpl.JSON_VALUE_TYPE_STRING:
+		case ValueImpl.JSON_VALUE_TYPE_TIME:
+		case ValueImpl.JSON_VALUE_TYPE_GLOBE_COORDINATES:
+		case ValueImpl.JSON_VALUE_TYPE_QUANTITY:
+		case ValueImpl.JSON_VALUE_TYPE_MONOLINGUAL_TEXT:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Reads the contents of the "value" field of a value of a supported type.
+	 */
+	private static ValueImpl readDataValue(String type, JsonParser p, DeserializationContext ctxt,
+			String siteIri) throws IOException {
+		switch (type) {
+		case ValueImpl.JSON_VALUE_TYPE_ENTITY_ID:
+			return readEntityIdValue(p, ctxt, siteIri);
+		case ValueImpl.JSON_VALUE_TYPE_STRING:
+			String string = p.getValueAsString();
+			p.skipChildren();
+			return new StringValueImpl(string);
+		case ValueImpl.JSON_VALUE_TYPE_TIME:
+			return readTimeValue(p, ctxt);
+		case ValueImpl.JSON_VALUE_TYPE_GLOBE_COORDINATES:
+			return readGlobeCoordinatesValue(p, ctxt);
+		case ValueImpl.JSON_VALUE_TYPE_QUANTITY:
+			return readQuantityValue(p, ctxt);
+		case ValueImpl.JSON_VALUE_TYPE_MONOLINGUAL_TEXT:
+			return readMonolingualTextValue(p, ctxt);
+		default:
+			throw new IllegalStateException("Unsupported value type " + type);
+		}
+	}
+
+	/**
+	 * Reads the inner object of an entity id value. Ids of unsupported
+	 * entity types are rebuilt as JSON and handed to
+	 * {@link ValueImpl.JacksonDeserializer}, so that all of their fields are
+	 * kept.
+	 */
+	private static ValueImpl readEntityIdValue(JsonParser p, DeserializationContext ctxt, String siteIri)
+			throws IOException {
+		String id = null;
+		String entityType = null;
+		int numericId = 0;
+		boolean hasNumericId = false;
+		TokenBuffer otherFields = null;
+		for (JsonToken t = startObject(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+			String field = p.currentName();
+			p.nextToken();
+			switch (field) {
+			case "id":
+				id = p.getValueAsString();
+				break;
+			case "entity-type":
+				entityType = p.getValueAsString();
+				break;
+			case "numeric-id":
+				numericId = p.getValueAsInt();
+				hasNumericId = true;
+				break;
+			default:
+				if (otherFields == null) {
+					otherFields = ctxt.bufferForInputBuffering(p);
+					otherFields.writeStartObject();
+				}
+				otherFields.writeFieldName(field);
+				otherFields.copyCurrentStructure(p);
+			}
+		}
+
+		String resolvedType = entityType;
+		if (resolvedType == null) {
+			if (id == null) {
+				return (ValueImpl) ctxt.handleUnexpectedToken(ValueImpl.class, JsonToken.END_OBJECT, p,
+						"Unexpected entity id serialization");
+			}
+			try {
+				resolvedType = EntityIdValueImpl.guessEntityTypeFromId(id, true);
+			} catch (IllegalArgumentException e) {
+				resolvedType = null;
+			}
+		}
+		if (resolvedType != null) {
+			switch (resolvedType) {
+			case EntityIdValueImpl.JSON_ENTITY_TYPE_ITEM:
+				return new ItemIdValueImpl(new EntityIdValueImpl.JacksonInnerEntityId(id, numericId, entityType),
+						siteIri);
+			case EntityIdValueImpl.JSON_ENTITY_TYPE_PROPERTY:
+				return new PropertyIdValueImpl(
+						new EntityIdValueImpl.JacksonInnerEntityId(id, numericId, entityType), siteIri);
+			case EntityIdValueImpl.JSON_ENTITY_TYPE_LEXEME:
+				return new LexemeIdValueImpl(new EntityIdValueImpl.JacksonInnerEntityId(id, numericId, entityType),
+						siteIri);
+			case EntityIdValueImpl.JSON_ENTITY_TYPE_MEDIA_INFO:
+				return new MediaInfoIdValueImpl(
+						new EntityIdValueImpl.JacksonInnerEntityId(id, numericId, entityType), siteIri);
+			case EntityIdValueImpl.JSON_ENTITY_TYPE_FORM:
+				return new FormIdValueImpl(id, siteIri);
+			case EntityIdValueImpl.JSON_ENTITY_TYPE_SENSE:
+				return new SenseIdValueImpl(id, siteIri);
+			default:
+				break;
+			}
+		}
+
+		TokenBuffer buffer = ctxt.bufferForInputBuffering(p);
+		buffer.writeStartObject();
+		buffer.writeStringField("type", ValueImpl.JSON_VALUE_TYPE_ENTITY_ID);
+		buffer.writeFieldName("value");
+		if (otherFields != null) {
+			JsonParser otherParser = otherFields.asParser(p);
+			otherParser.nextToken();
+			buffer.writeStartObject();
+			while (otherParser.nextToken() == JsonToken.FIELD_NAME) {
+				buffer.copyCurrentStructure(otherParser);
+			}
+		} else {
+			buffer.writeStartObject();
+		}
+		if (id != null) {
+			buffer.writeStringField("id", id);
+		}
+		if (entityType != null) {
+			buffer.writeStringField("entity-type", entityType);
+		}
+		if (hasNumericId) {
+			buffer.writeNumberField("numeric-id", numericId);
+		}
+		buffer.writeEndObject();
+		buffer.writeEndObject();
+		JsonParser replay = buffer.asParser(p);
+		replay.nextToken();
+		return FALLBACK_VALUE_DESERIALIZER.deserialize(replay, ctxt);
+	}
+
+	private static TimeValueImpl readTimeValue(JsonParser p, DeserializationContext ctxt) throws IOException {
+		String time = null;
+		int timezone = 0;
+		int before = 0;
+		int after = 0;
+		int precision = 0;
+		String calendarModel = null;
+		for (JsonToken t = startObject(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+			String field = p.currentName();
+			p.nextToken();
+			switch (field) {
+			case "time":
+				time = p.getValueAsString();
+				break;
+			case "timezone":
+				timezone = p.getValueAsInt();
+				break;
+			case "before":
+				before = p.getValueAsInt();
+				break;
+			case "after":
+				after = p.getValueAsInt();
+				break;
+			case "precision":
+				precision = p.getValueAsInt();
+				break;
+			case "calendarmodel":
+				calendarModel = p.getValueAsString();
+				break;
+			default:
+				p.skipChildren();
+			}
+		}
+		return new TimeValueImpl(new TimeValueImpl.JacksonInnerTime(time, timezone, before, after, precision,
+				calendarModel));
+	}
+
+	private static GlobeCoordinatesValueImpl readGlobeCoordinatesValue(JsonParser p,
+			DeserializationContext ctxt) throws IOException {
+		double latitude = 0;
+		double longitude = 0;
+		double precision = 0;
+		String globe = null;
+		for (JsonToken t = startObject(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+			String field = p.currentName();
+			p.nextToken();
+			switch (field) {
+			case "latitude":
+				latitude = p.getValueAsDouble();
+				break;
+			case "longitude":
+				longitude = p.getValueAsDouble();
+				break;
+			case "precision":
+				precision = p.getValueAsDouble();
+				break;
+			case "globe":
+				globe = p.getValueAsString();
+				break;
+			default:
+				p.skipChildren();
+			}
+		}
+		return new GlobeCoordinatesValueImpl(new GlobeCoordinatesValueImpl.JacksonInnerGlobeCoordinates(
+				latitude, longitude, precision, globe));
+	}
+
+	private static QuantityValueImpl readQuantityValue(JsonParser p, DeserializationContext ctxt)
+			throws IOException {
+		String amount = null;
+		String lowerBound = null;
+		String upperBound = null;
+		String unit = null;
+		for (JsonToken t = startObject(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+			String field = p.currentName();
+			p.nextToken();
+			switch (field) {
+			case "amount":
+				amount = readDecimalText(p, ctxt);
+				break;
+			case "lowerBound":
+				lowerBound = readDecimalText(p, ctxt);
+				break;
+			case "upperBound":
+				upperBound = readDecimalText(p, ctxt);
+				break;
+			case "unit":
+				unit = p.getValueAsString();
+				break;
+			default:
+				p.skipChildren();
+			}
+		}
+		return new QuantityValueImpl(new QuantityValueImpl.JacksonInnerQuantity(amount, lowerBound, upperBound,
+				unit));
+	}
+
+	/**
+	 * Reads the text of a decimal, given as a string or a number. It is parsed
+	 * by {@link QuantityValueImpl}, mostly without creating a
+	 * {@link BigDecimal}.
+	 */
+	private static String readDecimalText(JsonParser p, DeserializationContext ctxt) throws IOException {
+		switch (p.currentToken()) {
+		case VALUE_STRING:
+		case VALUE_NUMBER_INT:
+		case VALUE_NUMBER_FLOAT:
+			return p.getText();
+		case VALUE_NULL:
+			return null;
+		default:
+			Object result = ctxt.handleUnexpectedToken(BigDecimal.class, p);
+			return result == null ? null : result.toString();
+		}
+	}
+
+	private static MonolingualTextValueImpl readMonolingualTextValue(JsonParser p, DeserializationContext ctxt)
+			throws IOException {
+		String language = null;
+		String text = null;
+		for (JsonToken t = startObject(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+			String field = p.currentName();
+			p.nextToken();
+			switch (field) {
+			case "language":
+				language = p.getValueAsString();
+				break;
+			case "text":
+				text = p.getValueAsString();
+				break;
+			default:
+				p.skipChildren();
+			}
+		}
+		return new MonolingualTextValueImpl(new MonolingualTextValueImpl.JacksonInnerMonolingualText(language,
+				text));
+	}
+
+	private static String readString(JsonParser p, DeserializationContext ctxt, String siteIri)
+			throws IOException {
+		if (p.currentToken().isScalarValue()) {
+			return p.getValueAsString();
+		}
+		return (String) ctxt.handleUnexpectedToken(String.class, p);
+	}
+
+	/**
+	 * Reads a JSON object into a map, preserving the order of its keys like
+	 * Jackson's default maps do. Returns null for JSON null and, if
+	 * {@link DeserializationFeature#ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT} is
+	 * enabled, for empty arrays.
+	 */
+	private static <T> Map<String, T> readMap(JsonParser p, DeserializationContext ctxt, String siteIri,
+			Reader<T> reader) throws IOException {
+		if (isNullObject(p, ctxt)) {
+			return null;
+		}
+		Map<String, T> map = new LinkedHashMap<>();
+		for (JsonToken t = startObject(p); t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+			String key = p.currentName();
+			p.nextToken();
+			map.put(key, reader.read(p, ctxt, siteIri));
+		}
+		return map;
+	}
+
+	private static <T> List<T> readList(JsonParser p, DeserializationContext ctxt, String siteIri,
+			Reader<T> reader) throws IOException {
+		JsonToken t = p.currentToken();
+		if (t == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		if (t != JsonToken.START_ARRAY) {
+			@SuppressWarnings("unchecked")
+			List<T> result = (List<T>) ctxt.handleUnexpectedToken(List.class, p);
+			return result;
+		}
+		if (p.nextToken() == JsonToken.END_ARRAY) {
+			return new ArrayList<>();
+		}
+		List<T> list = new ArrayList<>();
+		do {
+			list.add(reader.read(p, ctxt, siteIri));
+		} while (p.nextToken() != JsonToken.END_ARRAY);
+		return list;
+	}
+
+	private static boolean isNullObject(JsonParser p, DeserializationContext ctxt) throws IOException {
+		JsonToken t = p.currentToken();
+		if (t == JsonToken.VALUE_NULL) {
+			return true;
+		}
+		if (t == JsonToken.START_ARRAY
+				&& ctxt.isEnabled(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT)) {
+			if (p.nextToken() == JsonToken.END_ARRAY) {
+				return true;
+			}
+			ctxt.handleUnexpectedToken(Map.class, JsonToken.START_ARRAY, p,
+					"Only empty arrays can be used in place of objects");
+		}
+		return false;
+	}
+
+	/**
+	 * Moves past the start of an object, if the parser is positioned on it,
+	 * and returns the current token. This also allows starting on the first
+	 * field name, as happens when a type id has been read before.
+	 */
+	private static JsonToken startObject(JsonParser p) throws IOException {
+		JsonToken t = p.currentToken();
+		if (t == JsonToken.START_OBJECT) {
+			return p.nextToken();
+		}
+		if (t == JsonToken.FIELD_NAME || t == JsonToken.END_OBJECT) {
+			return t;
+		}
+		throw MismatchedInputException.from(p, (Class<?>) null,
+				"Unexpected token " + t + ", expected an object");
+	}
+
+}
@@ -0,0 +1,616 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.FormDocument;
+import org.wikidata.wdtk.datamodel.interfaces.FormIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.GlobeCoordinatesValue;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
+import org.wikidata.wdtk.datamodel.interfaces.NoValueSnak;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.QuantityValue;
+import org.wikidata.wdtk.datamodel.interfaces.Reference;
+import org.wikidata.wdtk.datamodel.interfaces.SenseDocument;
+import org.wikidata.wdtk.datamodel.interfaces.SenseIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.SiteLink;
+import org.wikidata.wdtk.datamodel.interfaces.Snak;
+import org.wikidata.wdtk.datamodel.interfaces.SnakGroup;
+import org.wikidata.wdtk.datamodel.interfaces.SomeValueSnak;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+import org.wikidata.wdtk.datamodel.interfaces.StatementDocument;
+import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
+import org.wikidata.wdtk.datamodel.interfaces.StatementRank;
+import org.wikidata.wdtk.datamodel.interfaces.StringValue;
+import org.wikidata.wdtk.datamodel.interfaces.TimeValue;
+import org.wikidata.wdtk.datamodel.interfaces.UnsupportedEntityIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.Value;
+import org.wikidata.wdtk.datamodel.interfaces.ValueSnak;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+
+/**
+ * Writes entity documents and statements as JSON directly to a
+ * {@link JsonGenerator}, without the bean introspection of the
+ * annotation-driven serialization.
+ * <p>
+ * The serializer walks the datamodel interfaces, so that documents created
+ * by any {@link org.wikidata.wdtk.datamodel.interfaces.DataObjectFactory}
+ * can be written. The output is byte-identical to the one produced by
+ * Jackson for the objects of this package: fields are written in the same
+ * order and omitted in the same cases. For objects of this package, the maps
+ * used by Jackson (qualifiers, reference snaks, claims) are iterated
+ * directly, so that their order is kept as well. Other implementations are
+ * written as their conversion to this package would be.
+ * <p>
+ * Entity documents of unknown types, unsupported values and unsupported
+ * entity ids are delegated to an {@link ObjectMapper}. As with Jackson,
+ * runtime exceptions thrown by the objects are reported as
+ * {@link JsonMappingException}.
+ */
+public class StreamingSerializer {
+
+	/**
+	 * Mapper used for the objects which are not written by hand.
+	 */
+	private static final ObjectMapper fallbackMapper = new ObjectMapper();
+	static {
+		fallbackMapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+		fallbackMapper.configure(SerializationFeature.FLUSH_AFTER_WRITE_VALUE, false);
+		fallbackMapper.registerModule(new Jdk8Module());
+	}
+
+	/**
+	 * JSON names of the statement ranks, indexed by their ordinal.
+	 */
+	private static final String[] RANK_NAMES = new String[StatementRank.values().length];
+	static {
+		for (StatementRank rank : StatementRank.values()) {
+			RANK_NAMES[rank.ordinal()] = rank.name().toLowerCase();
+		}
+	}
+
+	private StreamingSerializer() {
+	}
+
+	/**
+	 * Writes the JSON serialization of an entity document.
+	 *
+	 * @param generator
+	 *            the generator to write to
+	 * @param document
+	 *            the document to serialize
+	 * @throws IOException
+	 *             if the generator fails to write
+	 */
+	public static void writeEntityDocument(JsonGenerator generator, EntityDocument document) throws IOException {
+		try {
+			writeDocument(generator, document);
+		} catch (RuntimeException e) {
+			throw JsonMappingException.from(generator, "Failed to serialize entity document: " + e, e);
+		}
+	}
+
+	/**
+	 * Writes the JSON serialization of a statement.
+	 *
+	 * @param generator
+	 *            the generator to write to
+	 * @param statement
+	 *            the statement to serialize
+	 * @throws IOException
+	 *             if the generator fails to write
+	 */
+	public static void writeStatement(JsonGenerator generator, Statement statement) throws IOException {
+		try {
+			writeStatementObject(generator, statement);
+		} catch (RuntimeException e) {
+			throw JsonMappingException.from(generator, "Failed to serialize statement: " + e, e);
+		}
+	}
+
+	private static void writeDocument(JsonGenerator generator, EntityDocument document) throws IOException {
+		if (document instanceof ItemDocument) {
+			writeItemDocument(generator, (ItemDocument) document);
+		} else if (document instanceof PropertyDocument) {
+			writePropertyDocument(generator, (PropertyDocument) document);
+		} else if (document instanceof LexemeDocument) {
+			writeLexemeDocument(generator, (LexemeDocument) document);
+		} else if (document instanceof FormDocument) {
+			writeFormDocument(generator, (FormDocument) document);
+		} else if (document instanceof SenseDocument) {
+			writeSenseDocument(generator, (SenseDocument) document);
+		} else if (document instanceof MediaInfoDocument) {
+			writeMediaInfoDocument(generator, (MediaInfoDocument) document);
+		} else {
+			fallbackMapper.writeValue(generator, document);
+		}
+	}
+
+	private static void writeStatementObject(JsonGenerator generator, Statement statement) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("rank", RANK_NAMES[statement.getRank().ordinal()]);
+		String statementId = statement.getStatementId();
+		if (statementId != null && !statementId.isEmpty()) {
+			generator.writeStringField("id", statementId);
+		}
+		generator.writeFieldName("mainsnak");
+		writeSnak(generator, statement.getMainSnak());
+
+		Map<String, List<Snak>> qualifiers;
+		List<String> qualifiersOrder;
+		if (statement instanceof StatementImpl) {
+			qualifiers = ((StatementImpl) statement).getJsonQualifiers();
+			qualifiersOrder = ((StatementImpl) statement).getQualifiersOrder();
+		} else {
+			List<SnakGroup> groups = statement.getQualifiers();
+			qualifiers = new HashMap<>();
+			qualifiersOrder = new ArrayList<>(groups.size());
+			for (SnakGroup group : groups) {
+				qualifiers.put(group.getProperty().getId(), group.getSnaks());
+				qualifiersOrder.add(group.getProperty().getId());
+			}
+		}
+		if (!qualifiersOrder.isEmpty()) {
+			generator.writeFieldName("qualifiers-order");
+			writeStrings(generator, qualifiersOrder);
+		}
+		List<Reference> references = statement.getReferences();
+		if (!references.isEmpty()) {
+			generator.writeArrayFieldStart("references");
+			for (Reference reference : references) {
+				writeReference(generator, reference);
+			}
+			generator.writeEndArray();
+		}
+		generator.writeStringField("type", "statement");
+		if (!qualifiers.isEmpty()) {
+			generator.writeFieldName("qualifiers");
+			writeSnakMap(generator, qualifiers);
+		}
+		generator.writeEndObject();
+	}
+
+	private static void writeItemDocument(JsonGenerator generator, ItemDocument document) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("type", EntityDocumentImpl.JSON_TYPE_ITEM);
+		writeId(generator, document);
+		writeTerms(generator, "labels", document.getLabels());
+		writeTerms(generator, "descriptions", document.getDescriptions());
+		writeAliases(generator, document.getAliases());
+		writeClaims(generator, document);
+		generator.writeObjectFieldStart("sitelinks");
+		for (Map.Entry<String, SiteLink> entry : document.getSiteLinks().entrySet()) {
+			generator.writeFieldName(entry.getKey());
+			writeSiteLink(generator, entry.getValue());
+		}
+		generator.writeEndObject();
+		writeRevisionId(generator, document);
+		generator.writeEndObject();
+	}
+
+	private static void writePropertyDocument(JsonGenerator generator, PropertyDocument document)
+			throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("type", EntityDocumentImpl.JSON_TYPE_PROPERTY);
+		writeId(generator, document);
+		writeTerms(generator, "labels", document.getLabels());
+		writeTerms(generator, "descriptions", document.getDescriptions());
+		writeAliases(generator, document.getAliases());
+		writeClaims(generator, document);
+		generator.writeStringField("datatype", document.getDatatype().getJsonString());
+		writeRevisionId(generator, document);
+		generator.writeEndObject();
+	}
+
+	private static void writeLexemeDocument(JsonGenerator generator, LexemeDocument document) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("type", EntityDocumentImpl.JSON_TYPE_LEXEME);
+		writeId(generator, document);
+		generator.writeStringField("lexicalCategory", document.getLexicalCategory().getId());
+		generator.writeStringField("language", document.getLanguage().getId());
+		writeTerms(generator, "lemmas", document.getLemmas());
+		writeClaims(generator, document);
+		generator.writeArrayFieldStart("forms");
+		for (FormDocument form : document.getForms()) {
+			writeFormDocument(generator, form);
+		}
+		generator.writeEndArray();
+		generator.writeArrayFieldStart("senses");
+		for (SenseDocument sense : document.getSenses()) {
+			writeSenseDocument(generator, sense);
+		}
+		generator.writeEndArray();
+		writeRevisionId(generator, document);
+		generator.writeEndObject();
+	}
+
+	private static void writeFormDocument(JsonGenerator generator, FormDocument document) throws IOException {
+		generator.writeStartObject();
+		writeId(generator, document);
+		writeTerms(generator, "representations", document.getRepresentations());
+		generator.writeArrayFieldStart("grammaticalFeatures");
+		for (ItemIdValue feature : document.getGrammaticalFeatures()) {
+			generator.writeString(feature.getId());
+		}
+		generator.writeEndArray();
+		writeClaims(generator, document);
+		writeRevisionId(generator, document);
+		generator.writeStringField("type", EntityDocumentImpl.JSON_TYPE_FORM);
+		generator.writeEndObject();
+	}
+
+	private static void writeSenseDocument(JsonGenerator generator, SenseDocument document) throws IOException {
+		generator.writeStartObject();
+		writeId(generator, document);
+		writeTerms(generator, "glosses", document.getGlosses());
+		writeClaims(generator, document);
+		writeRevisionId(generator, document);
+		generator.writeStringField("type", EntityDocumentImpl.JSON_TYPE_SENSE);
+		generator.writeEndObject();
+	}
+
+	private static void writeMediaInfoDocument(JsonGenerator generator, MediaInfoDocument document)
+			throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("type", EntityDocumentImpl.JSON_TYPE_MEDIA_INFO);
+		writeId(generator, document);
+		writeTerms(generator, "labels", document.getLabels());
+		writeClaims(generator, document);
+		writeRevisionId(generator, document);
+		generator.writeEndObject();
+	}
+
+	/**
+	 * Writes the "id" field, which is omitted for local entities, like
+	 * {@link EntityDocumentImpl#getJsonId()} does.
+	 */
+	private static void writeId(JsonGenerator generator, EntityDocument document) throws IOException {
+		EntityIdValue entityId = document.getEntityId();
+		if (!EntityIdValue.SITE_LOCAL.equals(entityId.getSiteIri()) && !entityId.getId().isEmpty()) {
+			generator.writeStringField("id", entityId.getId());
+		}
+	}
+
+	private static void writeRevisionId(JsonGenerator generator, EntityDocument document) throws IOException {
+		if (document.getRevisionId() != 0) {
+			generator.writeNumberField("lastrevid", document.getRevisionId());
+		}
+	}
+
+	private static void writeClaims(JsonGenerator generator, StatementDocument document) throws IOException {
+		generator.writeObjectFieldStart("claims");
+		if (document instanceof StatementDocumentImpl) {
+			for (Map.Entry<String, List<Statement>> entry : ((StatementDocumentImpl) document).getJsonClaims()
+					.entrySet()) {
+				generator.writeFieldName(entry.getKey());
+				writeStatements(generator, entry.getValue());
+			}
+		} else if (document instanceof LazyTermedStatementDocumentImpl) {
+			for (Map.Entry<String, List<Statement>> entry : ((LazyTermedStatementDocumentImpl) document)
+					.getJsonClaims().entrySet()) {
+				generator.writeFieldName(entry.getKey());
+				writeStatements(generator, entry.getValue());
+			}
+		} else {
+			for (StatementGroup group : document.getStatementGroups()) {
+				generator.writeFieldName(group.getProperty().getId());
+				writeStatements(generator, group.getStatements());
+			}
+		}
+		generator.writeEndObject();
+	}
+
+	private static void writeStatements(JsonGenerator generator, List<Statement> statements) throws IOException {
+		generator.writeStartArray();
+		for (Statement statement : statements) {
+			writeStatementObject(generator, statement);
+		}
+		generator.writeEndArray();
+	}
+
+	private static void writeTerms(JsonGenerator generator, String fieldName, Map<String, MonolingualTextValue> terms)
+			throws IOException {
+		generator.writeObjectFieldStart(fieldName);
+		for (Map.Entry<String, MonolingualTextValue> entry : terms.entrySet()) {
+			generator.writeFieldName(entry.getKey());
+			writeTerm(generator, entry.getValue());
+		}
+		generator.writeEndObject();
+	}
+
+	private static void writeAliases(JsonGenerator generator, Map<String, List<MonolingualTextValue>> aliases)
+			throws IOException {
+		generator.writeObjectFieldStart("aliases");
+		for (Map.Entry<String, List<MonolingualTextValue>> entry : aliases.entrySet()) {
+			generator.writeArrayFieldStart(entry.getKey());
+			for (MonolingualTextValue alias : entry.getValue()) {
+				writeTerm(generator, alias);
+			}
+			generator.writeEndArray();
+		}
+		generator.writeEndObject();
+	}
+
+	private static void writeTerm(JsonGenerator generator, MonolingualTextValue term) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("language", term.getLanguageCode());
+		generator.writeStringField("value", term.getText());
+		generator.writeEndObject();
+	}
+
+	private static void writeSiteLink(JsonGenerator generator, SiteLink siteLink) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("title", siteLink.getPageTitle());
+		generator.writeStringField("site", siteLink.getSiteKey());
+		generator.writeArrayFieldStart("badges");
+		for (ItemIdValue badge : siteLink.getBadges()) {
+			generator.writeString(badge.getId());
+		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
+
+	private static void writeReference(JsonGenerator generator, Reference reference) throws IOException {
+		Map<String, List<Snak>> snaks;
+		List<String> propertyOrder;
+		if (reference instanceof ReferenceImpl) {
+			snaks = ((ReferenceImpl) reference).getSnaks();
+			propertyOrder = ((ReferenceImpl) reference).getPropertyOrder();
+		} else {
+			List<SnakGroup> groups = reference.getSnakGroups();
+			snaks = new HashMap<>(groups.size());
+			propertyOrder = new ArrayList<>(groups.size());
+			for (SnakGroup group : groups) {
+				snaks.put(group.getProperty().getId(), group.getSnaks());
+				propertyOrder.add(group.getProperty().getId());
+			}
+		}
+		generator.writeStartObject();
+		generator.writeFieldName("snaks");
+		writeSnakMap(generator, snaks);
+		generator.writeFieldName("snaks-order");
+		writeStrings(generator, propertyOrder);
+		String hash = reference.getHash();
+		if (hash != null) {
+			generator.writeStringField("hash", hash);
+		}
+		generator.writeEndObject();
+	}
+
+	private static void writeSnakMap(JsonGenerator generator, Map<String, List<Snak>> snaks) throws IOException {
+		generator.writeStartObject();
+		for (Map.Entry<String, List<Snak>> entry : snaks.entrySet()) {
+			generator.writeArrayFieldStart(entry.getKey());
+			for (Snak snak : entry.getValue()) {
+				writeSnak(generator, snak);
+			}
+			generator.writeEndArray();
+		}
+		generator.writeEndObject();
+	}
+
+	private static void writeSnak(JsonGenerator generator, Snak snak) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("property", snak.getPropertyId().getId());
+		if (snak instanceof ValueSnak) {
+			String datatype = getDatatype((ValueSnak) snak);
+			if (datatype != null) {
+				generator.writeStringField("datatype", datatype);
+			}
+			generator.writeFieldName("datavalue");
+			writeValue(generator, ((ValueSnak) snak).getValue());
+			generator.writeStringField("snaktype", SnakImpl.JSON_SNAK_TYPE_VALUE);
+		} else if (snak instanceof SomeValueSnak) {
+			generator.writeStringField("snaktype", SnakImpl.JSON_SNAK_TYPE_SOMEVALUE);
+		} else if (snak instanceof NoValueSnak) {
+			generator.writeStringField("snaktype", SnakImpl.JSON_SNAK_TYPE_NOVALUE);
+		} else {
+			throw new IllegalArgumentException("Unsupported snak type " + snak.getClass());
+		}
+		generator.writeEndObject();
+	}
+
+	/**
+	 * Returns the datatype of a value snak as found in JSON. Snaks of other
+	 * implementations get the datatype that {@link ValueSnakImpl} would infer
+	 * for their value.
+	 */
+	private static String getDatatype(ValueSnak snak) {
+		if (snak instanceof ValueSnakImpl) {
+			return ((ValueSnakImpl) snak).getDatatype();
+		}
+		try {
+			return ValueSnakImpl.getJsonPropertyTypeForValueType(snak.getValue());
+		} catch (UnsupportedOperationException e) {
+			return null;
+		}
+	}
+
+	private static void writeValue(JsonGenerator generator, Value value) throws IOException {
+		if (value instanceof EntityIdValue && !(value instanceof UnsupportedEntityIdValue)) {
+			writeEntityIdValue(generator, (EntityIdValue) value);
+		} else if (value instanceof StringValue) {
+			generator.writeStartObject();
+			generator.writeStringField("value", ((StringValue) value).getString());
+			generator.writeStringField("type", ValueImpl.JSON_VALUE_TYPE_STRING);
+			generator.writeEndObject();
+		} else if (value instanceof TimeValue) {
+			writeTimeValue(generator, (TimeValue) value);
+		} else if (value instanceof GlobeCoordinatesValue) {
+			writeGlobeCoordinatesValue(generator, (GlobeCoordinatesValue) value);
+		} else if (value instanceof QuantityValue) {
+			writeQuantityValue(generator, (QuantityValue) value);
+		} else if (value instanceof MonolingualTextValue) {
+			MonolingualTextValue text = (MonolingualTextValue) value;
+			generator.writeStartObject();
+			generator.writeObjectFieldStart("value");
+			generator.writeStringField("language", text.getLanguageCode());
+			generator.writeStringField("text", text.getText());
+			generator.writeEndObject();
+			generator.writeStringField("type", ValueImpl.JSON_VALUE_TYPE_MONOLINGUAL_TEXT);
+			generator.writeEndObject();
+		} else {
+			fallbackMapper.writeValue(generator, value);
+		}
+	}
+
+	/**
+	 * Writes an entity id value. Forms and senses have no numeric id in JSON.
+	 */
+	private static void writeEntityIdValue(JsonGenerator generator, EntityIdValue value) throws IOException {
+		String entityType;
+		int numericId = 0;
+		if (value instanceof EntityIdValueImpl) {
+			EntityIdValueImpl.JacksonInnerEntityId inner = ((EntityIdValueImpl) value).getValue();
+			entityType = inner.getJsonEntityType();
+			numericId = inner.getNumericId();
+		} else if (value instanceof FormIdValue) {
+			entityType = EntityIdValueImpl.JSON_ENTITY_TYPE_FORM;
+		} else if (value instanceof SenseIdValue) {
+			entityType = EntityIdValueImpl.JSON_ENTITY_TYPE_SENSE;
+		} else if (value instanceof ItemIdValue) {
+			entityType = EntityIdValueImpl.JSON_ENTITY_TYPE_ITEM;
+		} else if (value instanceof PropertyIdValue) {
+			entityType = EntityIdValueImpl.JSON_ENTITY_TYPE_PROPERTY;
+		} else if (value instanceof LexemeIdValue) {
+			entityType = EntityIdValueImpl.JSON_ENTITY_TYPE_LEXEME;
+		} else if (value instanceof MediaInfoIdValue) {
+			entityType = EntityIdValueImpl.JSON_ENTITY_TYPE_MEDIA_INFO;
+		} else {
+			fallbackMapper.writeValue(generator, value);
+			return;
+		}
+		boolean hasNumericId = !(value instanceof FormIdValue) && !(value instanceof SenseIdValue);
+		if (hasNumericId && !(value instanceof EntityIdValueImpl)) {
+			numericId = Integer.parseInt(value.getId().substring(1));
+		}
+
+		generator.writeStartObject();
+		generator.writeObjectFieldStart("value");
+		generator.writeStringField("id", value.getId());
+		if (hasNumericId) {
+			generator.writeNumberField("numeric-id", numericId);
+		}
+		generator.writeStringField("entity-type", entityType);
+		generator.writeEndObject();
+		generator.writeStringField("type", ValueImpl.JSON_VALUE_TYPE_ENTITY_ID);
+		generator.writeEndObject();
+	}
+
+	private static void writeTimeValue(JsonGenerator generator, TimeValue value) throws IOException {
+		generator.writeStartObject();
+		generator.writeObjectFieldStart("value");
+		if (value instanceof TimeValueImpl) {
+			generator.writeStringField("time", ((TimeValueImpl) value).getValue().getTime());
+		} else {
+			generator.writeStringField("time", TimeValueImpl.JacksonInnerTime.formatTime(value.getYear(),
+					value.getMonth(), value.getDay(), value.getHour(), value.getMinute(), value.getSecond()));
+		}
+		generator.writeNumberField("timezone", value.getTimezoneOffset());
+		generator.writeNumberField("before", value.getBeforeTolerance());
+		generator.writeNumberField("after", value.getAfterTolerance());
+		generator.writeNumberField("precision", value.getPrecision());
+		generator.writeStringField("calendarmodel", value.getPreferredCalendarModel());
+		generator.writeEndObject();
+		generator.writeStringField("type", ValueImpl.JSON_VALUE_TYPE_TIME);
+		generator.writeEndObject();
+	}
+
+	private static void writeGlobeCoordinatesValue(JsonGenerator generator, GlobeCoordinatesValue value)
+			throws IOException {
+		generator.writeStartObject();
+		generator.writeObjectFieldStart("value");
+		generator.writeNumberField("latitude", value.getLatitude());
+		generator.writeNumberField("longitude", value.getLongitude());
+		generator.writeNumberField("precision", value.getPrecision());
+		generator.writeStringField("globe", value.getGlobe());
+		generator.writeEndObject();
+		generator.writeStringField("type", ValueImpl.JSON_VALUE_TYPE_GLOBE_COORDINATES);
+		generator.writeEndObject();
+	}
+
+	private static void writeQuantityValue(JsonGenerator generator, QuantityValue value) throws IOException {
+		generator.writeStartObject();
+		generator.writeObjectFieldStart("value");
+		if (value instanceof QuantityValueImpl) {
+			// avoids creating decimals for compact quantities
+			QuantityValueImpl.JacksonInnerQuantity inner = ((QuantityValueImpl) value).getValue();
+			generator.writeStringField("amount", inner.getAmountAsString());
+			if (inner.getLowerBoundAsString() != null) {
+				generator.writeStringField("lowerBound", inner.getLowerBoundAsString());
+				generator.writeStringField("upperBound", inner.getUpperBoundAsString());
+			}
+			generator.writeStringField("unit", inner.getUnit());
+			generator.writeEndObject();
+			generator.writeStringField("type", ValueImpl.JSON_VALUE_TYPE_QUANTITY);
+			generator.writeEndObject();
+			return;
+		}
+		generator.writeStringField("amount", toSignedString(value.getNumericValue()));
+		if (value.getLowerBound() != null) {
+			generator.writeStringField("lowerBound", toSignedString(value.getLowerBound()));
+		}
+		if (value.getUpperBound() != null) {
+			generator.writeStringField("upperBound", toSignedString(value.getUpperBound()));
+		}
+		generator.writeStringField("unit", value.getUnit());
+		generator.writeEndObject();
+		generator.writeStringField("type", ValueImpl.JSON_VALUE_TYPE_QUANTITY);
+		generator.writeEndObject();
+	}
+
+	/**
+	 * Formats a decimal with a leading signum, like the JSON of quantities
+	 * expects it.
+	 */
+	private static String toSignedString(BigDecimal value) {
+		String string = value.toString();
+		return value.signum() < 0 ? string : "+" + string;
+	}
+
+	private static void writeStrings(JsonGenerator generator, List<String> strings) throws IOException {
+		generator.writeStartArray();
+		for (String string : strings) {
+			generator.writeString(string);
+		}
+		generator.writeEndArray();
+	}
+}
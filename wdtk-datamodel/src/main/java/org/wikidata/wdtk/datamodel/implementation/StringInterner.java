@@ -0,0 +1,142 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.Validate;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.GlobeCoordinatesValue;
+import org.wikidata.wdtk.datamodel.interfaces.Sites;
+import org.wikidata.wdtk.datamodel.interfaces.TimeValue;
+import org.wikidata.wdtk.datamodel.interfaces.WikimediaLanguageCodes;
+
+/**
+ * Canonical instances of the strings which recur in almost every document,
+ * such as language codes, site keys, site IRIs, calendar models and globes.
+ * The data objects of this package pass such strings through
+ * {@link #intern(String)} when they are created, both during deserialization
+ * and by {@link DataObjectFactoryImpl}, so that millions of objects share a
+ * few instances instead of keeping a copy each.
+ * <p>
+ * The table is seeded with the language codes of
+ * {@link WikimediaLanguageCodes} and the usual IRIs, and the site keys and
+ * language codes of each {@link Sites} table are added when it is loaded.
+ * Other strings are added on first use, until the table reaches its maximum
+ * size; later strings are then returned unchanged. The table can be used by
+ * any number of threads.
+ */
+public final class StringInterner {
+
+	/**
+	 * Default maximum number of strings in the table.
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = 100000;
+
+	private static final ConcurrentHashMap<String, String> STRINGS = new ConcurrentHashMap<>(4096);
+
+	private static volatile int maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+	static {
+		for (String languageCode : WikimediaLanguageCodes.getKnownLanguageCodes()) {
+			add(languageCode);
+		}
+		add(Datamodel.SITE_WIKIDATA);
+		add(Datamodel.SITE_WIKIMEDIA_COMMONS);
+		add(EntityIdValue.SITE_LOCAL);
+		add(TimeValue.CM_GREGORIAN_PRO);
+		add(TimeValue.CM_JULIAN_PRO);
+		add(GlobeCoordinatesValue.GLOBE_EARTH);
+		add(GlobeCoordinatesValue.GLOBE_MOON);
+	}
+
+	private StringInterner() {
+	}
+
+	/**
+	 * Returns the canonical instance of the given string. If the string is not
+	 * in the table yet, it is added, unless the table is full.
+	 *
+	 * @param string
+	 *            the string to intern, or null
+	 * @return an equal string, or null if the argument is null
+	 */
+	public static String intern(String string) {
+		if (string == null || maximumSize == 0) {
+			return string;
+		}
+		String result = STRINGS.get(string);
+		if (result != null) {
+			return result;
+		}
+		if (STRINGS.size() >= maximumSize) {
+			return string;
+		}
+		result = STRINGS.putIfAbsent(string, string);
+		return result == null ? string : result;
+	}
+
+	/**
+	 * Adds a string to the table even if it is full, so that it is always
+	 * interned, and returns its canonical instance. Used for seeding the
+	 * table.
+	 */
+	static String add(String string) {
+		if (string == null) {
+			return null;
+		}
+		String result = STRINGS.putIfAbsent(string, string);
+		return result == null ? string : result;
+	}
+
+	/**
+	 * Sets the maximum number of strings in the table. Strings already in the
+	 * table are kept. A maximum size of zero disables interning altogether.
+	 *
+	 * @param size
+	 *            the new maximum size
+	 * @throws IllegalArgumentException
+	 *             if the size is negative
+	 */
+	public static void setMaximumSize(int size) {
+		Validate.isTrue(size >= 0, "Maximum size cannot be negative.");
+		maximumSize = size;
+	}
+
+	/**
+	 * Returns the maximum number of strings in the table.
+	 *
+	 * @return the maximum size
+	 */
+	public static int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Returns the number of strings in the table.
+	 *
+	 * @return the size
+	 */
+	public static int size() {
+		return STRINGS.size();
+	}
+}
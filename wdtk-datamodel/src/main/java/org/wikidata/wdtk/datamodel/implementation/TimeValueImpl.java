@@ -40,6 +40,11 @@ import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 /**
  * Jackson implementation of {@link TimeValue}.
+ * <p>
+ * The date and time are only stored as numbers: the time string of the JSON
+ * serialization is formatted when needed, unless the parsed string was not
+ * in the usual format, in which case it is kept to be written back exactly.
+ * Calendar model IRIs are interned.
  *
  * @author Fredo Erxleben
  * @author Markus Kroetzsch
@@ -55,6 +60,10 @@ public class TimeValueImpl extends ValueImpl implements TimeValue {
 	 * structure that is required here.
 	 */
 	private final JacksonInnerTime value;
+
+	private static final ItemIdValue GREGORIAN_PRO_ITEM_ID = ItemIdValueImpl.fromIri(TimeValue.CM_GREGORIAN_PRO);
+
+	private static final ItemIdValue JULIAN_PRO_ITEM_ID = ItemIdValueImpl.fromIri(TimeValue.CM_JULIAN_PRO);
 	
 	/**
 	 * Constructor.
@@ -163,7 +172,13 @@ public class TimeValueImpl extends ValueImpl implements TimeValue {
 	@JsonIgnore
 	@Override
 	public ItemIdValue getPreferredCalendarModelItemId() {
-		return ItemIdValueImpl.fromIri(this.value.getCalendarmodel());
+		String calendarModel = this.value.getCalendarmodel();
+		if (TimeValue.CM_GREGORIAN_PRO.equals(calendarModel)) {
+			return GREGORIAN_PRO_ITEM_ID;
+		} else if (TimeValue.CM_JULIAN_PRO.equals(calendarModel)) {
+			return JULIAN_PRO_ITEM_ID;
+		}
+		return ItemIdValueImpl.fromIri(calendarModel);
 	}
 
 	@JsonIgnore
@@ -245,19 +260,26 @@ public class TimeValueImpl extends ValueImpl implements TimeValue {
 	 */
 	@JsonIgnoreProperties(ignoreUnknown = true)
 	static class JacksonInnerTime {
-		private final String time;
+
 		private final int timezone;
 		private final int before;
 		private final int after;
 		private final int precision;
 		private final String calendarmodel;
 
-		private long year;
-		private byte month;
-		private byte day;
-		private byte hour;
-		private byte minute;
-		private byte second;
+		private final long year;
+		private final byte month;
+		private final byte day;
+		private final byte hour;
+		private final byte minute;
+		private final byte second;
+
+		/**
+		 * The time string given in JSON, if it is not the one computed by
+		 * {@link #formatTime}, for example because the year has extra leading
+		 * zeros. Null for almost all values.
+		 */
+		private final String nonCanonicalTime;
 
 		/**
 		 * Constructs a new object for the given data.
@@ -289,14 +311,20 @@ public class TimeValueImpl extends ValueImpl implements TimeValue {
 				@JsonProperty("after") int after,
 				@JsonProperty("precision") int precision,
 				@JsonProperty("calendarmodel") String calendarModel) {
-			this.time = time;
 			this.timezone = timezone;
 			this.before = before;
 			this.after = after;
 			this.precision = precision;
-			this.calendarmodel = calendarModel;
-
-			this.decomposeTimeString();
+			this.calendarmodel = internCalendarModel(calendarModel);
+
+			TimeParser parser = new TimeParser(Validate.notNull(time, "Time must not be null"));
+			this.year = parser.year;
+			this.month = parser.month;
+			this.day = parser.day;
+			this.hour = parser.hour;
+			this.minute = parser.minute;
+			this.second = parser.second;
+			this.nonCanonicalTime = parser.canonical ? null : time;
 		}
 
 		/**
@@ -345,33 +373,136 @@ public class TimeValueImpl extends ValueImpl implements TimeValue {
 			this.before = before;
 			this.after = after;
 			this.precision = precision;
-			this.calendarmodel = calendarModel;
-			this.time = composeTimeString();
+			this.calendarmodel = internCalendarModel(calendarModel);
+			this.nonCanonicalTime = null;
 		}
 
 		/**
-		 * Helper method to decompose the time string into its parts.
+		 * Returns a shared instance of the given calendar model IRI, so that
+		 * values do not keep their own copies of the few IRIs in use.
 		 */
-		private void decomposeTimeString() {
-			// decompose the time string into its parts
-			String[] substrings = time.split("(?<!\\A)[\\-:TZ]");
-
-			// get the components of the date
-			this.year = Long.parseLong(substrings[0]);
-			this.month = Byte.parseByte(substrings[1]);
-			this.day = Byte.parseByte(substrings[2]);
-			this.hour = Byte.parseByte(substrings[3]);
-			this.minute = Byte.parseByte(substrings[4]);
-			this.second = Byte.parseByte(substrings[5]);
+		static String internCalendarModel(String calendarModel) {
+			if (TimeValue.CM_GREGORIAN_PRO.equals(calendarModel)) {
+				return TimeValue.CM_GREGORIAN_PRO;
+			}
+			return StringInterner.intern(calendarModel);
 		}
 
 		/**
-		 * Helper method to compose the time string from its components.
+		 * Formats the given components like
+		 * {@code String.format("%+04d-%02d-%02dT%02d:%02d:%02dZ", ...)}.
 		 */
-		private String composeTimeString() {
-			return String.format("%+04d-%02d-%02dT%02d:%02d:%02dZ",
-					this.year, this.month, this.day, this.hour, this.minute,
-					this.second);
+		static String formatTime(long year, byte month, byte day, byte hour, byte minute, byte second) {
+			StringBuilder builder = new StringBuilder(24);
+			String yearString = Long.toString(year);
+			int yearStart = year < 0 ? 1 : 0;
+			builder.append(year < 0 ? '-' : '+');
+			for (int i = yearString.length() - yearStart; i < 3; i++) {
+				builder.append('0');
+			}
+			builder.append(yearString, yearStart, yearString.length());
+			appendTwoDigits(builder.append('-'), month);
+			appendTwoDigits(builder.append('-'), day);
+			appendTwoDigits(builder.append('T'), hour);
+			appendTwoDigits(builder.append(':'), minute);
+			appendTwoDigits(builder.append(':'), second);
+			return builder.append('Z').toString();
+		}
+
+		private static void appendTwoDigits(StringBuilder builder, byte value) {
+			if (value >= 0 && value < 10) {
+				builder.append('0');
+			}
+			builder.append(value);
+		}
+
+		/**
+		 * Parses time strings of the form {@code +2013-01-01T00:00:00Z} into
+		 * their components, and checks whether {@link #formatTime} gives the
+		 * same string back.
+		 */
+		private static class TimeParser {
+
+			private final String time;
+			private int position;
+			private boolean canonical = true;
+
+			long year;
+			byte month;
+			byte day;
+			byte hour;
+			byte minute;
+			byte second;
+
+			TimeParser(String time) {
+				this.time = time;
+				char sign = time.isEmpty() ? 0 : time.charAt(0);
+				if (sign == '+' || sign == '-') {
+					position = 1;
+				} else {
+					canonical = false;
+				}
+				int yearStart = position;
+				skipDigits();
+				if (position - yearStart > 18) {
+					this.year = Long.parseLong(time.substring(0, position));
+				} else {
+					this.year = parseNumber(yearStart, position, sign == '-');
+				}
+				int yearDigits = position - yearStart;
+				int significantDigits = Long.toString(Math.abs(this.year)).length();
+				if (yearDigits != Math.max(3, significantDigits) || (sign == '-') != (this.year < 0)) {
+					canonical = false;
+				}
+				this.month = parseComponent('-');
+				this.day = parseComponent('-');
+				this.hour = parseComponent('T');
+				this.minute = parseComponent(':');
+				this.second = parseComponent(':');
+				if (position == time.length() - 1 && time.charAt(position) == 'Z') {
+					return;
+				} else if (position != time.length()) {
+					throw invalid();
+				}
+				canonical = false;
+			}
+
+			private byte parseComponent(char separator) {
+				if (position >= time.length() || time.charAt(position) != separator) {
+					throw invalid();
+				}
+				int start = ++position;
+				skipDigits();
+				if (position - start != 2) {
+					canonical = false;
+				}
+				long value = parseNumber(start, position, false);
+				if (value > Byte.MAX_VALUE) {
+					throw invalid();
+				}
+				return (byte) value;
+			}
+
+			private void skipDigits() {
+				while (position < time.length() && time.charAt(position) >= '0' && time.charAt(position) <= '9') {
+					position++;
+				}
+			}
+
+			private long parseNumber(int start, int end, boolean negative) {
+				if (start == end || end - start > 18) {
+					throw invalid();
+				}
+				long result = 0;
+				for (int i = start; i < end; i++) {
+					result = 10 * result + (time.charAt(i) - '0');
+				}
+				return negative ? -result : result;
+			}
+
+			private IllegalArgumentException invalid() {
+				return new IllegalArgumentException("Invalid time string: " + time);
+			}
 		}
 
 		/**
@@ -381,7 +512,10 @@ public class TimeValueImpl extends ValueImpl implements TimeValue {
 		 * @return the time string
 		 */
 		public String getTime() {
-			return this.time;
+			if (nonCanonicalTime != null) {
+				return nonCanonicalTime;
+			}
+			return formatTime(year, month, day, hour, minute, second);
 		}
 
 		/**
@@ -66,7 +66,7 @@ public class UnsupportedEntityIdValueImpl extends ValueImpl implements Unsupport
 			String siteIri) {
 		super(JSON_VALUE_TYPE_ENTITY_ID);
 		this.value = value;
-		this.siteIri = siteIri;
+		this.siteIri = StringInterner.intern(siteIri);
 	}
 
 	private static class JacksonIdValue {
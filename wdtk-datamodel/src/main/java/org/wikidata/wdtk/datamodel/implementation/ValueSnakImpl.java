@@ -84,6 +84,24 @@ public class ValueSnakImpl extends SnakImpl implements ValueSnak {
 		this.datatype = getJsonPropertyTypeForValueType(datavalue);
 	}
 
+	/**
+	 * Constructor that keeps the JSON datatype of the property, which is not
+	 * part of the datamodel but should survive a round trip to JSON.
+	 *
+	 * @param property
+	 * 		the id of the property used in this snak
+	 * @param value
+	 * 		the target value for this snak
+	 * @param datatype
+	 * 		the JSON datatype of the property, or null if unknown
+	 */
+	public ValueSnakImpl(PropertyIdValue property, Value value, String datatype) {
+		super(property);
+		Validate.notNull(value, "A datavalue must be provided to create a value snak.");
+		this.datavalue = value;
+		this.datatype = datatype;
+	}
+
 	/**
 	 * Constructor used to deserialize from JSON with Jackson.
 	 */
@@ -0,0 +1,321 @@
+package org.wikidata.wdtk.datamodel.interfaces;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Immutable form of a {@link DocumentDataFilter} that is optimized for
+ * checking many documents. Properties are looked up in a bitset indexed by
+ * their numeric id, without hashing {@link PropertyIdValue} objects; language
+ * codes and site keys are looked up in small open-addressing tables, which
+ * compare strings by identity before comparing their contents.
+ * <p>
+ * Objects of this class are obtained from
+ * {@link DocumentDataFilter#compile()}. They are a snapshot of the filter
+ * sets at the time of compilation: the sets are copied, so later changes of
+ * the filter do not affect this object.
+ *
+ * @see DocumentDataFilter
+ */
+public final class CompiledDocumentDataFilter {
+
+	/**
+	 * Largest numeric property id that is stored in the bitset. Filters with
+	 * larger ids fall back to hash set lookups.
+	 */
+	private static final int MAX_BITSET_PROPERTY = 1 << 24;
+
+	private final Set<String> languageFilter;
+	private final Set<PropertyIdValue> propertyFilter;
+	private final Set<String> siteLinkFilter;
+
+	private final StringTable languages;
+	private final StringTable siteLinks;
+
+	/**
+	 * Bits of the numeric ids of the filtered properties, or null if there is
+	 * no property filter or if the filter cannot be represented that way.
+	 */
+	private final long[] propertyBits;
+
+	/**
+	 * Site IRI of all the filtered properties, if {@link #propertyBits} is
+	 * used.
+	 */
+	private final String propertySiteIri;
+
+	CompiledDocumentDataFilter(Set<String> languageFilter, Set<PropertyIdValue> propertyFilter,
+			Set<String> siteLinkFilter) {
+		this.languageFilter = copy(languageFilter);
+		this.propertyFilter = copy(propertyFilter);
+		this.siteLinkFilter = copy(siteLinkFilter);
+		this.languages = languageFilter == null ? null : new StringTable(languageFilter);
+		this.siteLinks = siteLinkFilter == null ? null : new StringTable(siteLinkFilter);
+
+		long[] bits = null;
+		String siteIri = null;
+		if (propertyFilter != null) {
+			int maxId = 0;
+			for (PropertyIdValue property : propertyFilter) {
+				int id = parsePropertyNumber(property.getId());
+				if (id < 0 || id > MAX_BITSET_PROPERTY
+						|| (siteIri != null && !siteIri.equals(property.getSiteIri()))) {
+					maxId = -1;
+					break;
+				}
+				siteIri = property.getSiteIri();
+				maxId = Math.max(maxId, id);
+			}
+			if (maxId >= 0) {
+				bits = new long[(maxId >> 6) + 1];
+				for (PropertyIdValue property : propertyFilter) {
+					int id = parsePropertyNumber(property.getId());
+					bits[id >> 6] |= 1L << id;
+				}
+			}
+		}
+		this.propertyBits = bits;
+		this.propertySiteIri = siteIri;
+	}
+
+	private static <T> Set<T> copy(Set<T> set) {
+		return set == null ? null : Collections.unmodifiableSet(new HashSet<>(set));
+	}
+
+	/**
+	 * Returns the numeric part of a property id like "P31", or -1 if the id
+	 * does not have this form.
+	 */
+	static int parsePropertyNumber(String propertyId) {
+		int length = propertyId.length();
+		if (length < 2 || length > 10 || propertyId.charAt(0) != 'P'
+				|| (propertyId.charAt(1) == '0' && length > 2)) {
+			return -1;
+		}
+		int result = 0;
+		for (int i = 1; i < length; i++) {
+			char c = propertyId.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			result = 10 * result + (c - '0');
+		}
+		return result;
+	}
+
+	/**
+	 * Returns an unmodifiable copy of the set of language codes this filter
+	 * was compiled from, or null if terms are not filtered.
+	 *
+	 * @return set of language codes to use for filtering
+	 */
+	public Set<String> getLanguageFilter() {
+		return languageFilter;
+	}
+
+	/**
+	 * Returns an unmodifiable copy of the set of properties this filter was
+	 * compiled from, or null if statements are not filtered.
+	 *
+	 * @return set of properties to use for filtering
+	 */
+	public Set<PropertyIdValue> getPropertyFilter() {
+		return propertyFilter;
+	}
+
+	/**
+	 * Returns an unmodifiable copy of the set of site keys this filter was
+	 * compiled from, or null if site links are not filtered.
+	 *
+	 * @return set of site keys to use for filtering
+	 */
+	public Set<String> getSiteLinkFilter() {
+		return siteLinkFilter;
+	}
+
+	/**
+	 * Returns true if none of the filters is set, so that documents are not
+	 * changed by filtering.
+	 *
+	 * @return true if nothing is filtered
+	 */
+	public boolean isEmpty() {
+		return languageFilter == null && propertyFilter == null && siteLinkFilter == null;
+	}
+
+	/**
+	 * Returns true if the given language is included (not filtered).
+	 *
+	 * @param languageCode
+	 *            code of the language to check
+	 * @return true if there is no language filter, or a language filter that
+	 *         includes the given language
+	 */
+	public boolean includeLanguage(String languageCode) {
+		return languages == null || languages.contains(languageCode);
+	}
+
+	/**
+	 * Returns true if the given property is included (not filtered).
+	 *
+	 * @param propertyIdValue
+	 *            property id to check
+	 * @return true if there is no property filter, or a property filter that
+	 *         includes the given property
+	 */
+	public boolean includePropertyId(PropertyIdValue propertyIdValue) {
+		if (propertyFilter == null) {
+			return true;
+		}
+		if (propertyBits != null) {
+			int id = parsePropertyNumber(propertyIdValue.getId());
+			if (id >= 0) {
+				return isPropertyBitSet(id) && propertySiteIri.equals(propertyIdValue.getSiteIri());
+			}
+		}
+		return propertyFilter.contains(propertyIdValue);
+	}
+
+	/**
+	 * Returns true if the property of the given id and site is included (not
+	 * filtered). This avoids creating {@link PropertyIdValue} objects when
+	 * reading raw data.
+	 *
+	 * @param propertyId
+	 *            id of the property to check, such as "P31"
+	 * @param siteIri
+	 *            IRI of the site of the property
+	 * @return true if there is no property filter, or a property filter that
+	 *         includes the given property
+	 */
+	public boolean includePropertyId(String propertyId, String siteIri) {
+		if (propertyFilter == null) {
+			return true;
+		}
+		if (propertyBits != null) {
+			int id = parsePropertyNumber(propertyId);
+			if (id >= 0) {
+				return isPropertyBitSet(id) && propertySiteIri.equals(siteIri);
+			}
+		}
+		for (PropertyIdValue property : propertyFilter) {
+			if (property.getId().equals(propertyId) && property.getSiteIri().equals(siteIri)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isPropertyBitSet(int id) {
+		int word = id >> 6;
+		return word < propertyBits.length && (propertyBits[word] & (1L << id)) != 0;
+	}
+
+	/**
+	 * Returns true if the given site link is included (not filtered).
+	 *
+	 * @param siteLink
+	 *            key of the site to check
+	 * @return true if there is no site link filter, or a site link filter that
+	 *         includes the given site
+	 */
+	public boolean includeSiteLink(String siteLink) {
+		return siteLinks == null || siteLinks.contains(siteLink);
+	}
+
+	/**
+	 * Returns true if terms in all languages are excluded.
+	 *
+	 * @return true if all terms are excluded
+	 */
+	public boolean excludeAllLanguages() {
+		return languageFilter != null && languageFilter.isEmpty();
+	}
+
+	/**
+	 * Returns true if statements for all properties are excluded.
+	 *
+	 * @return true if all statements are excluded
+	 */
+	public boolean excludeAllProperties() {
+		return propertyFilter != null && propertyFilter.isEmpty();
+	}
+
+	/**
+	 * Returns true if site links for all sites are excluded.
+	 *
+	 * @return true if all site links are excluded
+	 */
+	public boolean excludeAllSiteLinks() {
+		return siteLinkFilter != null && siteLinkFilter.isEmpty();
+	}
+
+	/**
+	 * Immutable set of strings with linear probing. The table is at most half
+	 * full, so that lookups of missing strings usually stop at the first empty
+	 * slot.
+	 */
+	private static final class StringTable {
+
+		private final String[] entries;
+		private final int[] hashes;
+		private final int mask;
+
+		StringTable(Set<String> strings) {
+			int capacity = Integer.highestOneBit(Math.max(2, strings.size()) * 2 - 1) << 1;
+			this.entries = new String[capacity];
+			this.hashes = new int[capacity];
+			this.mask = capacity - 1;
+			for (String string : strings) {
+				if (string != null && !contains(string)) {
+					int hash = string.hashCode();
+					int i = spread(hash) & mask;
+					while (entries[i] != null) {
+						i = (i + 1) & mask;
+					}
+					entries[i] = string;
+					hashes[i] = hash;
+				}
+			}
+		}
+
+		boolean contains(String string) {
+			if (string == null) {
+				return false;
+			}
+			int hash = string.hashCode();
+			for (int i = spread(hash) & mask; entries[i] != null; i = (i + 1) & mask) {
+				String entry = entries[i];
+				if (entry == string || (hashes[i] == hash && entry.equals(string))) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private static int spread(int hash) {
+			return hash ^ (hash >>> 16);
+		}
+	}
+}
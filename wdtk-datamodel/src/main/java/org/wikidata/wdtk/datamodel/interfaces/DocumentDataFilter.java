@@ -26,6 +26,11 @@ import java.util.Set;
  * This class is used to describe restrictions to data in {@link EntityDocument}
  * objects. This is used, e.g., to restrict only part of the data when copying
  * objects.
+ * <p>
+ * Code that checks many documents can use {@link #compile()} to get a
+ * faster, immutable snapshot of the filter. The snapshot is taken when the
+ * filter is first compiled after a setter call; a set that is modified in
+ * place afterwards must be passed to its setter again to be compiled.
  *
  * @author Markus Kroetzsch
  */
@@ -49,6 +54,12 @@ public class DocumentDataFilter {
 	 */
 	private Set<String> siteLinkFilter = null;
 
+	/**
+	 * Last compiled form of the filters, or null if it has not been created
+	 * yet or a setter has been called since.
+	 */
+	private CompiledDocumentDataFilter compiled = null;
+
 	/**
 	 * Returns the (possibly empty) set of language codes that are used to
 	 * filter data, or null if no such filter is configured (default). If not
@@ -73,6 +84,7 @@ public class DocumentDataFilter {
 	 */
 	public void setLanguageFilter(Set<String> languageFilter) {
 		this.languageFilter = languageFilter;
+		this.compiled = null;
 	}
 
 	/**
@@ -101,6 +113,7 @@ public class DocumentDataFilter {
 	 */
 	public void setPropertyFilter(Set<PropertyIdValue> propertyFilter) {
 		this.propertyFilter = propertyFilter;
+		this.compiled = null;
 	}
 
 	/**
@@ -126,6 +139,26 @@ public class DocumentDataFilter {
 	 */
 	public void setSiteLinkFilter(Set<String> siteLinkFilter) {
 		this.siteLinkFilter = siteLinkFilter;
+		this.compiled = null;
+	}
+
+	/**
+	 * Returns the compiled form of the current filters. It is a snapshot,
+	 * which is reused until one of the setters is called, so that calling
+	 * this method for each document is cheap. Changes made to the sets in
+	 * place are not seen by the snapshot until the changed set is passed to
+	 * its setter again.
+	 *
+	 * @return the compiled filter
+	 */
+	public CompiledDocumentDataFilter compile() {
+		CompiledDocumentDataFilter result = this.compiled;
+		if (result == null) {
+			result = new CompiledDocumentDataFilter(this.languageFilter,
+					this.propertyFilter, this.siteLinkFilter);
+			this.compiled = result;
+		}
+		return result;
 	}
 
 	/**
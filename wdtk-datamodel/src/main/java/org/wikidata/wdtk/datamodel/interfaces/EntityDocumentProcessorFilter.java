@@ -27,8 +27,8 @@ import org.wikidata.wdtk.datamodel.implementation.DataObjectFactoryImpl;
  * Implementation of {@link EntityDocumentProcessor} that acts as a filter,
  * removing some of the data from {@link EntityDocument} objects before passing
  * them on to another processor. There is an overhead involved in using this,
- * even if no filters are set, since a deep copy of the data is created to
- * filter it.
+ * since a copy of the data is created to filter it. If no filters are set,
+ * documents are passed on unchanged.
  *
  *
  * @author Markus Kroetzsch
@@ -38,6 +38,7 @@ public class EntityDocumentProcessorFilter implements EntityDocumentProcessor {
 
 	private final EntityDocumentProcessor entityDocumentProcessor;
 	private final DatamodelFilter datamodelFilter;
+	private final DocumentDataFilter filter;
 
 	/**
 	 * Constructor.
@@ -52,21 +53,34 @@ public class EntityDocumentProcessorFilter implements EntityDocumentProcessor {
 			DocumentDataFilter filter) {
 		this.entityDocumentProcessor = entityDocumentProcessor;
 		this.datamodelFilter = new DatamodelFilter(new DataObjectFactoryImpl(), filter);
+		this.filter = filter;
 	}
 
 	@Override
 	public void processItemDocument(ItemDocument itemDocument) {
-		entityDocumentProcessor.processItemDocument(datamodelFilter.filter(itemDocument));
+		if (filter.compile().isEmpty()) {
+			entityDocumentProcessor.processItemDocument(itemDocument);
+		} else {
+			entityDocumentProcessor.processItemDocument(datamodelFilter.filter(itemDocument));
+		}
 	}
 
 	@Override
 	public void processPropertyDocument(PropertyDocument propertyDocument) {
-		entityDocumentProcessor.processPropertyDocument(datamodelFilter.filter(propertyDocument));
+		if (filter.compile().isEmpty()) {
+			entityDocumentProcessor.processPropertyDocument(propertyDocument);
+		} else {
+			entityDocumentProcessor.processPropertyDocument(datamodelFilter.filter(propertyDocument));
+		}
 	}
 
 	@Override
 	public void processLexemeDocument(LexemeDocument lexemeDocument) {
-		entityDocumentProcessor.processLexemeDocument(datamodelFilter.filter(lexemeDocument));
+		if (filter.compile().isEmpty()) {
+			entityDocumentProcessor.processLexemeDocument(lexemeDocument);
+		} else {
+			entityDocumentProcessor.processLexemeDocument(datamodelFilter.filter(lexemeDocument));
+		}
 	}
 
 }
@@ -67,4 +67,51 @@ public interface QuantityValue extends Value {
 	 */
 	ItemIdValue getUnitItemId();
 
+	/**
+	 * Returns the main numeric value of this quantity as a double, rounded
+	 * like {@link BigDecimal#doubleValue()}. Implementations may provide
+	 * this without creating a {@link BigDecimal}.
+	 *
+	 * @return numeric value as a double
+	 */
+	default double getNumericValueAsDouble() {
+		return getNumericValue().doubleValue();
+	}
+
+	/**
+	 * Returns the main numeric value of this quantity as a long.
+	 * Implementations may provide this without creating a
+	 * {@link BigDecimal}.
+	 *
+	 * @return numeric value as a long
+	 * @throws ArithmeticException
+	 *             if the value has a nonzero fractional part or does not fit
+	 *             in a long, like {@link BigDecimal#longValueExact()}
+	 */
+	default long getNumericValueAsLong() {
+		return getNumericValue().longValueExact();
+	}
+
+	/**
+	 * Returns the lower bound of this quantity as a double.
+	 *
+	 * @return lower bound as a double, or {@link Double#NaN} if not set
+	 * @see #getNumericValueAsDouble()
+	 */
+	default double getLowerBoundAsDouble() {
+		BigDecimal lowerBound = getLowerBound();
+		return lowerBound == null ? Double.NaN : lowerBound.doubleValue();
+	}
+
+	/**
+	 * Returns the upper bound of this quantity as a double.
+	 *
+	 * @return upper bound as a double, or {@link Double#NaN} if not set
+	 * @see #getNumericValueAsDouble()
+	 */
+	default double getUpperBoundAsDouble() {
+		BigDecimal upperBound = getUpperBound();
+		return upperBound == null ? Double.NaN : upperBound.doubleValue();
+	}
+
 }
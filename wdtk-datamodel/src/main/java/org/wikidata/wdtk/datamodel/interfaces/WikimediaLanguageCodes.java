@@ -20,8 +20,11 @@ package org.wikidata.wdtk.datamodel.interfaces;
  * #L%
  */
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This class helps to interpret Wikimedia language codes in terms of official
@@ -618,4 +621,16 @@ public class WikimediaLanguageCodes {
 	public static String fixLanguageCodeIfDeprecated(String wikimediaLanguageCode) {
 		return DEPRECATED_LANGUAGE_CODES.getOrDefault(wikimediaLanguageCode, wikimediaLanguageCode);
 	}
+
+	/**
+	 * Returns all Wikimedia language codes known to this class, including
+	 * deprecated ones.
+	 *
+	 * @return unmodifiable set of language codes as used by Wikimedia
+	 */
+	public static Set<String> getKnownLanguageCodes() {
+		Set<String> result = new HashSet<>(LANGUAGE_CODES.keySet());
+		result.addAll(DEPRECATED_LANGUAGE_CODES.keySet());
+		return Collections.unmodifiableSet(result);
+	}
 }
@@ -0,0 +1,239 @@
+/*-
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+package org.wikidata.wdtk.datamodel.helpers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentProcessor;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+import org.wikidata.wdtk.datamodel.interfaces.StatementRank;
+import org.wikidata.wdtk.datamodel.interfaces.TimeValue;
+
+public class BinarySerializerTest {
+
+	private final JsonDeserializer wikidataDeserializer = new JsonDeserializer(Datamodel.SITE_WIKIDATA);
+	private final JsonDeserializer commonsDeserializer = new JsonDeserializer(Datamodel.SITE_WIKIMEDIA_COMMONS);
+
+	private String loadJson(String filename) throws IOException {
+		InputStream stream = BinarySerializerTest.class.getClassLoader()
+				.getResourceAsStream("JsonDeserializer/" + filename);
+		return IOUtils.toString(stream, StandardCharsets.UTF_8);
+	}
+
+	private List<EntityDocument> loadDocuments() throws IOException {
+		return Arrays.asList(
+				wikidataDeserializer.deserializeItemDocument(loadJson("item.json")),
+				wikidataDeserializer.deserializePropertyDocument(loadJson("property.json")),
+				wikidataDeserializer.deserializeLexemeDocument(loadJson("lexeme.json")),
+				commonsDeserializer.deserializeMediaInfoDocument(loadJson("mediainfo.json")),
+				makeItemWithAllValues());
+	}
+
+	private ItemDocument makeItemWithAllValues() {
+		ItemIdValue subject = Datamodel.makeWikidataItemIdValue("Q42");
+		PropertyIdValue property = Datamodel.makeWikidataPropertyIdValue("P17");
+		Statement quantity = StatementBuilder.forSubjectAndProperty(subject, property)
+				.withValue(Datamodel.makeQuantityValue(new BigDecimal("-123.4500"),
+						new BigDecimal("-124"), new BigDecimal("99999999999999999999.1"),
+						Datamodel.makeWikidataItemIdValue("Q11573")))
+				.withQualifierValue(Datamodel.makeWikidataPropertyIdValue("P580"),
+						Datamodel.makeTimeValue(-13798000000L, (byte) 0, (byte) 0,
+								(byte) 0, (byte) 0, (byte) 0, TimeValue.PREC_100MY, 0, 0, -60,
+								TimeValue.CM_JULIAN_PRO))
+				.withReference(ReferenceBuilder.newInstance()
+						.withPropertyValue(Datamodel.makeWikidataPropertyIdValue("P854"),
+								Datamodel.makeStringValue("https://example.org/"))
+						.build())
+				.withRank(StatementRank.PREFERRED)
+				.withId("Q42$1")
+				.build();
+		Statement coordinates = StatementBuilder
+				.forSubjectAndProperty(subject, Datamodel.makeWikidataPropertyIdValue("P625"))
+				.withValue(Datamodel.makeGlobeCoordinatesValue(51.5, -0.12, 0.001,
+						"http://www.wikidata.org/entity/Q2"))
+				.withQualifierValue(Datamodel.makeWikidataPropertyIdValue("P1476"),
+						Datamodel.makeMonolingualTextValue("Titre", "fr"))
+				.withQualifierSomeValue(Datamodel.makeWikidataPropertyIdValue("P1"))
+				.withQualifierNoValue(Datamodel.makeWikidataPropertyIdValue("P2"))
+				.withId("Q42$2")
+				.build();
+		return ItemDocumentBuilder.forItemId(subject)
+				.withLabel("Douglas Adams", "en")
+				.withDescription("écrivain", "fr")
+				.withAlias("DNA", "en")
+				.withAlias("Douglas Noël Adams", "en")
+				.withStatement(quantity)
+				.withStatement(coordinates)
+				.withSiteLink("Douglas Adams", "enwiki",
+						Datamodel.makeWikidataItemIdValue("Q17437796"))
+				.withRevisionId(123456789012L)
+				.build();
+	}
+
+	private byte[] serialize(List<EntityDocument> documents) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinarySerializer serializer = new BinarySerializer(out);
+		serializer.open();
+		for (EntityDocument document : documents) {
+			if (document instanceof ItemDocument) {
+				serializer.processItemDocument((ItemDocument) document);
+			} else if (document instanceof PropertyDocument) {
+				serializer.processPropertyDocument((PropertyDocument) document);
+			} else if (document instanceof LexemeDocument) {
+				serializer.processLexemeDocument((LexemeDocument) document);
+			} else if (document instanceof MediaInfoDocument) {
+				serializer.processMediaInfoDocument((MediaInfoDocument) document);
+			}
+		}
+		serializer.close();
+		assertEquals(documents.size(), serializer.getEntityDocumentCount());
+		return out.toByteArray();
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		List<EntityDocument> documents = loadDocuments();
+		BinaryDeserializer deserializer = new BinaryDeserializer(
+				new ByteArrayInputStream(serialize(documents)));
+		List<EntityDocument> result = new ArrayList<>();
+		EntityDocument document;
+		while ((document = deserializer.readEntityDocument()) != null) {
+			result.add(document);
+		}
+		deserializer.close();
+
+		assertEquals(documents, result);
+		for (int i = 0; i < documents.size(); i++) {
+			assertSameJson(documents.get(i), result.get(i));
+		}
+	}
+
+	@Test
+	public void testSkip() throws IOException {
+		List<EntityDocument> documents = loadDocuments();
+		BinaryDeserializer deserializer = new BinaryDeserializer(
+				new ByteArrayInputStream(serialize(documents)));
+		assertTrue(deserializer.skipEntityDocument());
+		assertTrue(deserializer.skipEntityDocument());
+		assertEquals(documents.get(2), deserializer.readEntityDocument());
+		assertTrue(deserializer.skipEntityDocument());
+		assertEquals(documents.get(4), deserializer.readEntityDocument());
+		assertFalse(deserializer.skipEntityDocument());
+		assertNull(deserializer.readEntityDocument());
+	}
+
+	@Test
+	public void testProcessAll() throws IOException {
+		List<EntityDocument> documents = loadDocuments();
+		BinaryDeserializer deserializer = new BinaryDeserializer(
+				new ByteArrayInputStream(serialize(documents)));
+		List<EntityDocument> result = new ArrayList<>();
+		deserializer.processAll(new EntityDocumentProcessor() {
+			@Override
+			public void processItemDocument(ItemDocument itemDocument) {
+				result.add(itemDocument);
+			}
+
+			@Override
+			public void processPropertyDocument(PropertyDocument propertyDocument) {
+				result.add(propertyDocument);
+			}
+
+			@Override
+			public void processLexemeDocument(LexemeDocument lexemeDocument) {
+				result.add(lexemeDocument);
+			}
+
+			@Override
+			public void processMediaInfoDocument(MediaInfoDocument mediaInfoDocument) {
+				result.add(mediaInfoDocument);
+			}
+		});
+		assertEquals(documents, result);
+	}
+
+	@Test
+	public void testSmallerThanJson() throws IOException {
+		List<EntityDocument> documents = loadDocuments();
+		ByteArrayOutputStream json = new ByteArrayOutputStream();
+		JsonSerializer jsonSerializer = new JsonSerializer(json);
+		jsonSerializer.open();
+		for (EntityDocument document : documents) {
+			if (document instanceof ItemDocument) {
+				jsonSerializer.processItemDocument((ItemDocument) document);
+			}
+		}
+		jsonSerializer.close();
+		byte[] binary = serialize(Collections.singletonList(documents.get(0)));
+		assertTrue(binary.length * 2 < json.size());
+	}
+
+	@Test
+	public void testInvalidHeader() {
+		assertThrows(IOException.class, () -> new BinaryDeserializer(
+				new ByteArrayInputStream("[{}]".getBytes(StandardCharsets.UTF_8))));
+	}
+
+	@Test
+	public void testTruncatedData() throws IOException {
+		byte[] data = serialize(loadDocuments());
+		BinaryDeserializer deserializer = new BinaryDeserializer(
+				new ByteArrayInputStream(Arrays.copyOf(data, data.length / 2)));
+		assertThrows(IOException.class, () -> {
+			while (deserializer.readEntityDocument() != null) {
+				// read until the data ends
+			}
+		});
+	}
+
+	/**
+	 * Checks that documents serialize to the same JSON, which also covers data
+	 * that is not part of the datamodel equality, like datatypes of snaks.
+	 */
+	private static void assertSameJson(EntityDocument expected, EntityDocument actual) throws IOException {
+		assertEquals(JsonSerializer.mapper.readTree(JsonSerializer.getJsonString(expected)),
+				JsonSerializer.mapper.readTree(JsonSerializer.getJsonString(actual)));
+	}
+}
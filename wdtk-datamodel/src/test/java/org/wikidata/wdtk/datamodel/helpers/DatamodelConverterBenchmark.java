@@ -0,0 +1,128 @@
+package org.wikidata.wdtk.datamodel.helpers;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.wikidata.wdtk.datamodel.implementation.DataObjectFactoryImpl;
+import org.wikidata.wdtk.datamodel.implementation.EntityDocumentImpl;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * JMH benchmark comparing the copy modes of {@link DatamodelConverter} when
+ * converting documents which already belong to the target implementation,
+ * such as documents read from JSON and converted with
+ * {@link DataObjectFactoryImpl}.
+ * <p>
+ * This is not run with the unit tests. After compiling the tests, run the
+ * {@link #main(String[])} method of this class with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatamodelConverterBenchmark {
+
+	/**
+	 * Number of documents to convert; it repeats the documents used by the
+	 * JsonDeserializer tests.
+	 */
+	@Param({ "10000" })
+	public int documentCount;
+
+	@Param({ "DEEP_COPY", "STRUCTURAL_SHARING" })
+	public DatamodelConverter.CopyMode copyMode;
+
+	private List<EntityDocument> documents;
+	private DatamodelConverter converter;
+
+	@Setup
+	public void setUp() throws IOException {
+		ObjectReader reader = new DatamodelMapper(Datamodel.SITE_WIKIDATA)
+				.readerFor(EntityDocumentImpl.class)
+				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
+		String[] files = { "item.json", "property.json", "lexeme.json" };
+		documents = new ArrayList<>(documentCount);
+		for (int i = 0; i < documentCount; i++) {
+			try (InputStream stream = DatamodelConverterBenchmark.class.getClassLoader()
+					.getResourceAsStream("JsonDeserializer/" + files[i % files.length])) {
+				documents.add(reader.readValue(IOUtils.toString(stream, StandardCharsets.UTF_8)));
+			}
+		}
+		converter = new DatamodelConverter(new DataObjectFactoryImpl(), copyMode);
+		// lets the converter learn the classes of the factory
+		for (EntityDocument document : documents) {
+			copy(document);
+		}
+	}
+
+	private EntityDocument copy(EntityDocument document) {
+		if (document instanceof ItemDocument) {
+			return converter.copy((ItemDocument) document);
+		} else if (document instanceof PropertyDocument) {
+			return converter.copy((PropertyDocument) document);
+		} else {
+			return converter.copy((LexemeDocument) document);
+		}
+	}
+
+	@Benchmark
+	public void convert(Blackhole blackhole) {
+		for (EntityDocument document : documents) {
+			blackhole.consume(copy(document));
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(DatamodelConverterBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
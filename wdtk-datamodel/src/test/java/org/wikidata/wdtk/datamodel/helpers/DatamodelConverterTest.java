@@ -24,6 +24,7 @@ import static org.junit.Assert.*;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -297,6 +298,88 @@ public class DatamodelConverterTest {
         assertEquals(document, converter.copy(document));
     }
 	
+    @Test
+    public void testStructuralSharingReusesUnchangedDocuments() {
+        ItemDocument item = getTestItemDocument(getTestStatementGroup(2, 5, 3, EntityIdValue.ET_ITEM));
+        DatamodelConverter converter = new DatamodelConverter(new DataObjectFactoryImpl(),
+                DatamodelConverter.CopyMode.STRUCTURAL_SHARING);
+        // the classes of the factory are only known after the first copy
+        assertEquals(item, converter.copy(item));
+        assertSame(item, converter.copy(item));
+
+        DatamodelConverter copyingConverter = new DatamodelConverter(new DataObjectFactoryImpl());
+        copyingConverter.copy(item);
+        assertNotSame(item, copyingConverter.copy(item));
+    }
+
+    @Test
+    public void testStructuralSharingRebuildsChangedContainers() {
+        StatementGroup unchanged = getTestStatementGroup(2, 5, 3, EntityIdValue.ET_ITEM);
+        Statement foreignStatement = Datamodel.makeStatement(getTestItemIdValue(2),
+                Datamodel.makeValueSnak(getTestPropertyIdValue(6), new ForeignStringValue("foo")),
+                Collections.emptyList(), Collections.emptyList(), StatementRank.NORMAL, "id");
+        StatementGroup changed = Datamodel.makeStatementGroup(Collections.singletonList(foreignStatement));
+        ItemDocument item = getTestItemDocument(unchanged, changed);
+        DatamodelConverter converter = new DatamodelConverter(new DataObjectFactoryImpl(),
+                DatamodelConverter.CopyMode.STRUCTURAL_SHARING);
+        converter.copy(getTestItemDocument(unchanged));
+
+        ItemDocument copy = converter.copy(item);
+        assertNotSame(item, copy);
+        assertEquals(item, copy);
+        List<StatementGroup> statementGroups = item.getStatementGroups();
+        List<StatementGroup> copiedStatementGroups = copy.getStatementGroups();
+        assertSame(statementGroups.get(0).getStatements().get(0),
+                copiedStatementGroups.get(0).getStatements().get(0));
+        Statement copiedStatement = copiedStatementGroups.get(1).getStatements().get(0);
+        assertNotSame(foreignStatement, copiedStatement);
+        assertTrue(copiedStatement.getValue() instanceof StringValueImpl);
+        assertSame(foreignStatement.getSubject(), copiedStatement.getSubject());
+        assertSame(copiedStatement, converter.copy(copiedStatement));
+    }
+
+    private ItemDocument getTestItemDocument(StatementGroup... statementGroups) {
+        return Datamodel.makeItemDocument(
+                getTestItemIdValue(2),
+                Collections.singletonList(Datamodel.makeMonolingualTextValue("label", "en")),
+                Collections.singletonList(Datamodel.makeMonolingualTextValue("description", "en")),
+                Collections.singletonList(Datamodel.makeMonolingualTextValue("alias", "en")),
+                Arrays.asList(statementGroups),
+                Collections.singletonMap("enwiki", Datamodel.makeSiteLink("foo", "enwiki")));
+    }
+
+    /**
+     * String value which is not part of the default implementation.
+     */
+    static class ForeignStringValue implements StringValue {
+
+        private final String string;
+
+        ForeignStringValue(String string) {
+            this.string = string;
+        }
+
+        @Override
+        public String getString() {
+            return string;
+        }
+
+        @Override
+        public <T> T accept(ValueVisitor<T> valueVisitor) {
+            return valueVisitor.visit(this);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return Equality.equalsStringValue(this, obj);
+        }
+
+        @Override
+        public int hashCode() {
+            return Hash.hashCode(this);
+        }
+    }
+
 	public enum ValueType {
 		STRING, ITEM, GLOBE_COORDINATES, TIME, QUANTITY, MONOLINGUAL_TEXT;
 
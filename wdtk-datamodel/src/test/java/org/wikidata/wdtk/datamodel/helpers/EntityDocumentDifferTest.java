@@ -0,0 +1,307 @@
+package org.wikidata.wdtk.datamodel.helpers;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.FormDocument;
+import org.wikidata.wdtk.datamodel.interfaces.FormIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.ItemUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeUpdate;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.Reference;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+import org.wikidata.wdtk.datamodel.interfaces.StatementRank;
+import org.wikidata.wdtk.datamodel.interfaces.StatementUpdate;
+
+public class EntityDocumentDifferTest {
+
+	static final ItemIdValue ITEM = Datamodel.makeWikidataItemIdValue("Q1");
+	static final ItemIdValue OTHER_ITEM = Datamodel.makeWikidataItemIdValue("Q2");
+	static final PropertyIdValue COLOR = Datamodel.makeWikidataPropertyIdValue("P1");
+	static final PropertyIdValue SINCE = Datamodel.makeWikidataPropertyIdValue("P2");
+	static final PropertyIdValue UNTIL = Datamodel.makeWikidataPropertyIdValue("P3");
+	static final PropertyIdValue SOURCE = Datamodel.makeWikidataPropertyIdValue("P4");
+	static final Reference REF1 = ReferenceBuilder.newInstance()
+			.withPropertyValue(SOURCE, Datamodel.makeStringValue("one"))
+			.withPropertyValue(COLOR, Datamodel.makeStringValue("x"))
+			.build();
+	static final Reference REF1_REORDERED = ReferenceBuilder.newInstance()
+			.withPropertyValue(COLOR, Datamodel.makeStringValue("x"))
+			.withPropertyValue(SOURCE, Datamodel.makeStringValue("one"))
+			.build();
+	static final Reference REF2 = ReferenceBuilder.newInstance()
+			.withPropertyValue(SOURCE, Datamodel.makeStringValue("two"))
+			.build();
+	static final Statement RED = StatementBuilder.forSubjectAndProperty(ITEM, COLOR)
+			.withValue(Datamodel.makeStringValue("red"))
+			.withQualifierValue(SINCE, Datamodel.makeStringValue("2001"))
+			.withQualifierValue(UNTIL, Datamodel.makeStringValue("2002"))
+			.withReference(REF1)
+			.withId("ID1")
+			.build();
+	static final Statement BLUE = StatementBuilder.forSubjectAndProperty(ITEM, COLOR)
+			.withValue(Datamodel.makeStringValue("blue"))
+			.withId("ID2")
+			.build();
+	static final Statement GREEN = StatementBuilder.forSubjectAndProperty(ITEM, COLOR)
+			.withValue(Datamodel.makeStringValue("green"))
+			.withId("ID3")
+			.build();
+	/**
+	 * Same claim as {@link #RED}, with qualifiers in another order.
+	 */
+	static final Statement NEW_RED = StatementBuilder.forSubjectAndProperty(ITEM, COLOR)
+			.withValue(Datamodel.makeStringValue("red"))
+			.withQualifierValue(UNTIL, Datamodel.makeStringValue("2002"))
+			.withQualifierValue(SINCE, Datamodel.makeStringValue("2001"))
+			.withReference(REF1_REORDERED)
+			.withReference(REF2)
+			.withRank(StatementRank.PREFERRED)
+			.build();
+	static final Statement NEW_YELLOW = StatementBuilder.forSubjectAndProperty(ITEM, COLOR)
+			.withValue(Datamodel.makeStringValue("yellow"))
+			.build();
+
+	static final ItemDocument CURRENT = ItemDocumentBuilder.forItemId(ITEM)
+			.withLabel("color", "en")
+			.withLabel("Farbe", "de")
+			.withDescription("a color", "en")
+			.withAlias("colour", "en")
+			.withAlias("hue", "en")
+			.withAlias("Ton", "de")
+			.withSiteLink("Color", "enwiki")
+			.withSiteLink("Farbe", "dewiki")
+			.withStatement(RED)
+			.withStatement(BLUE)
+			.withStatement(GREEN)
+			.withRevisionId(123)
+			.build();
+
+	@Test
+	public void testIdenticalDocuments() {
+		EntityDocumentDiffer differ = new EntityDocumentDiffer();
+		ItemUpdate update = differ.diff(CURRENT, CURRENT);
+		assertTrue(update.isEmpty());
+		assertEquals(123, update.getBaseRevisionId());
+		assertTrue(differ.diff(CURRENT, ItemDocumentBuilder.fromItemDocument(CURRENT).withRevisionId(0).build())
+				.isEmpty());
+	}
+
+	@Test
+	public void testInvalidDocuments() {
+		EntityDocumentDiffer differ = new EntityDocumentDiffer();
+		assertThrows(NullPointerException.class, () -> differ.diff(CURRENT, (ItemDocument) null));
+		assertThrows(IllegalArgumentException.class,
+				() -> differ.diff(CURRENT, ItemDocumentBuilder.forItemId(OTHER_ITEM).build()));
+		EntityDocument property = Datamodel.makePropertyDocument(COLOR, Datamodel.makeDatatypeIdValueFromJsonString("string"));
+		assertThrows(IllegalArgumentException.class, () -> differ.diff((EntityDocument) CURRENT, property));
+	}
+
+	@Test
+	public void testTermsAndSiteLinks() {
+		ItemDocument desired = ItemDocumentBuilder.forItemId(ITEM)
+				.withLabel("colour", "en")
+				.withLabel("Farbe", "de")
+				.withLabel("couleur", "fr")
+				.withAlias("colour", "en")
+				.withAlias("tint", "en")
+				.withAlias("Farbton", "de")
+				.withAlias("Ton", "de")
+				.withSiteLink("Colour", "enwiki")
+				.withStatement(RED)
+				.withStatement(BLUE)
+				.withStatement(GREEN)
+				.build();
+		ItemUpdate update = new EntityDocumentDiffer().diff(CURRENT, desired);
+		assertThat(update.getLabels().getModified().keySet(), containsInAnyOrder("en", "fr"));
+		assertThat(update.getLabels().getRemoved(), is(empty()));
+		assertThat(update.getDescriptions().getModified(), is(anEmptyMap()));
+		assertThat(update.getDescriptions().getRemoved(), contains("en"));
+		assertThat(update.getAliases().get("en").getAdded(),
+				contains(Datamodel.makeMonolingualTextValue("tint", "en")));
+		assertThat(update.getAliases().get("en").getRemoved(),
+				contains(Datamodel.makeMonolingualTextValue("hue", "en")));
+		// new alias is not at the end
+		assertThat(update.getAliases().get("de").getRecreated().get(), contains(
+				Datamodel.makeMonolingualTextValue("Farbton", "de"),
+				Datamodel.makeMonolingualTextValue("Ton", "de")));
+		assertThat(update.getModifiedSiteLinks().keySet(), contains("enwiki"));
+		assertThat(update.getRemovedSiteLinks(), contains("dewiki"));
+		assertTrue(update.getStatements().isEmpty());
+	}
+
+	@Test
+	public void testStatementsMatchedById() {
+		Statement changedBlue = StatementBuilder.forSubjectAndProperty(ITEM, COLOR)
+				.withValue(Datamodel.makeStringValue("navy"))
+				.withId("ID2")
+				.build();
+		ItemDocument desired = ItemDocumentBuilder.fromItemDocument(CURRENT)
+				.build()
+				.withoutStatementIds(Collections.singleton("ID2"))
+				.withStatement(changedBlue);
+		StatementUpdate update = new EntityDocumentDiffer().diff(CURRENT, desired).getStatements();
+		assertThat(update.getAdded(), is(empty()));
+		assertThat(update.getReplaced().values(), contains(changedBlue));
+		assertThat(update.getRemoved(), is(empty()));
+	}
+
+	@Test
+	public void testStatementsMatchedByClaim() {
+		ItemDocument desired = ItemDocumentBuilder.fromItemDocument(CURRENT)
+				.build()
+				.withoutStatementIds(new HashSet<>(Arrays.asList("ID1", "ID3")))
+				.withStatement(NEW_RED)
+				.withStatement(NEW_YELLOW);
+		StatementUpdate update = new EntityDocumentDiffer().diff(CURRENT, desired).getStatements();
+		assertThat(update.getAdded(), contains(NEW_YELLOW));
+		Statement red = update.getReplaced().get("ID1");
+		assertEquals(RED.getClaim(), red.getClaim());
+		assertEquals(StatementRank.PREFERRED, red.getRank());
+		assertThat(red.getReferences(), contains(REF1, REF2));
+		assertThat(update.getRemoved(), contains("ID3"));
+
+		update = new EntityDocumentDiffer().withReferenceMerging(false).withRemovals(false)
+				.diff(CURRENT, desired).getStatements();
+		assertThat(update.getAdded(), contains(NEW_YELLOW));
+		assertThat(update.getReplaced().get("ID1").getReferences(), contains(REF1_REORDERED, REF2));
+		assertThat(update.getRemoved(), is(empty()));
+	}
+
+	@Test
+	public void testDuplicateClaims() {
+		Statement secondRed = RED.withStatementId("ID4");
+		ItemDocument current = ItemDocumentBuilder.forItemId(ITEM).withStatement(RED).withStatement(secondRed).build();
+		ItemDocument desired = ItemDocumentBuilder.forItemId(ITEM)
+				.withStatement(RED.withStatementId(""))
+				.withStatement(RED.withStatementId(""))
+				.withStatement(RED.withStatementId(""))
+				.build();
+		StatementUpdate update = new EntityDocumentDiffer().diff(current, desired).getStatements();
+		assertThat(update.getAdded(), contains(RED.withStatementId("")));
+		assertThat(update.getReplaced(), is(anEmptyMap()));
+		assertThat(update.getRemoved(), is(empty()));
+	}
+
+	@Test
+	public void testWithoutRemovals() {
+		ItemDocument desired = ItemDocumentBuilder.forItemId(ITEM)
+				.withLabel("couleur", "fr")
+				.withAlias("tint", "en")
+				.build();
+		ItemUpdate update = new EntityDocumentDiffer().withRemovals(false).diff(CURRENT, desired);
+		assertThat(update.getLabels().getModified().keySet(), contains("fr"));
+		assertThat(update.getLabels().getRemoved(), is(empty()));
+		assertTrue(update.getDescriptions().isEmpty());
+		assertThat(update.getAliases().keySet(), contains("en"));
+		assertThat(update.getAliases().get("en").getAdded(),
+				contains(Datamodel.makeMonolingualTextValue("tint", "en")));
+		assertThat(update.getAliases().get("en").getRemoved(), is(empty()));
+		assertThat(update.getRemovedSiteLinks(), is(empty()));
+		assertTrue(update.getStatements().isEmpty());
+	}
+
+	@Test
+	public void testLexeme() {
+		LexemeIdValue lexemeId = Datamodel.makeWikidataLexemeIdValue("L1");
+		FormIdValue form1 = Datamodel.makeWikidataFormIdValue("L1-F1");
+		FormIdValue form2 = Datamodel.makeWikidataFormIdValue("L1-F2");
+		LexemeDocument current = Datamodel.makeLexemeDocument(lexemeId, ITEM, OTHER_ITEM,
+				Arrays.asList(Datamodel.makeMonolingualTextValue("color", "en")))
+				.withForm(Datamodel.makeFormDocument(form1,
+						Arrays.asList(Datamodel.makeMonolingualTextValue("color", "en")),
+						Arrays.asList(ITEM), Collections.emptyList()))
+				.withForm(Datamodel.makeFormDocument(form2,
+						Arrays.asList(Datamodel.makeMonolingualTextValue("colors", "en")),
+						Collections.emptyList(), Collections.emptyList()))
+				.withRevisionId(5);
+		LexemeDocument desired = Datamodel.makeLexemeDocument(lexemeId, OTHER_ITEM, OTHER_ITEM,
+				Arrays.asList(Datamodel.makeMonolingualTextValue("color", "en")))
+				.withForm(Datamodel.makeFormDocument(form1,
+						Arrays.asList(Datamodel.makeMonolingualTextValue("color", "en")),
+						Arrays.asList(OTHER_ITEM), Collections.emptyList()));
+		FormDocument newForm = desired.createForm(Arrays.asList(Datamodel.makeMonolingualTextValue("colour", "en")));
+		desired = desired.withForm(newForm);
+		LexemeUpdate update = new EntityDocumentDiffer().diff(current, desired);
+		assertEquals(5, update.getBaseRevisionId());
+		assertEquals(OTHER_ITEM, update.getLexicalCategory().get());
+		assertFalse(update.getLanguage().isPresent());
+		assertTrue(update.getLemmas().isEmpty());
+		assertThat(update.getUpdatedForms().keySet(), contains(form1));
+		assertThat(update.getUpdatedForms().get(form1).getGrammaticalFeatures().get(), contains(OTHER_ITEM));
+		assertEquals(1, update.getAddedForms().size());
+		assertEquals(newForm.getRepresentations(), update.getAddedForms().get(0).getRepresentations());
+		assertThat(update.getRemovedForms(), contains(form2));
+	}
+
+	@Test
+	public void testDiffAll() throws InterruptedException {
+		List<ItemDocument> current = new ArrayList<>();
+		List<ItemDocument> desired = new ArrayList<>();
+		for (int i = 0; i < 3 * EntityDocumentDiffer.BATCH_SIZE + 7; i++) {
+			current.add(CURRENT);
+			desired.add(i % 2 == 0 ? CURRENT : CURRENT.withLabel(Datamodel.makeMonolingualTextValue("" + i, "en")));
+		}
+		EntityDocumentDiffer differ = new EntityDocumentDiffer();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			assertThrows(IllegalArgumentException.class,
+					() -> differ.diffAll(current, desired.subList(1, desired.size()), executor));
+			List<EntityUpdate> updates = differ.diffAll(current, desired, executor);
+			assertEquals(current.size(), updates.size());
+			for (int i = 0; i < updates.size(); i++) {
+				assertEquals(differ.diff(current.get(i), desired.get(i)), updates.get(i));
+				assertEquals(i % 2 == 0, updates.get(i).isEmpty());
+			}
+			List<ItemDocument> invalid = new ArrayList<>(desired);
+			invalid.set(300, ItemDocumentBuilder.forItemId(OTHER_ITEM).build());
+			assertThrows(IllegalArgumentException.class, () -> differ.diffAll(current, invalid, executor));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}
@@ -101,6 +101,26 @@ public class JsonSerializerTest {
 		assertEquals(inputDocuments, outputDocuments);
 	}
 
+	@Test
+	public void testSerializerWritesEachDocument() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		JsonSerializer serializer = new JsonSerializer(out);
+		ItemDocument id = Datamodel.makeItemDocument(
+				Datamodel.makeWikidataItemIdValue("Q42"),
+				Collections.emptyList(), Collections.emptyList(), Collections.emptyList(),
+				Collections.emptyList(), Collections.emptyMap());
+
+		serializer.open();
+		serializer.processItemDocument(id);
+		String written = out.toString();
+		assertTrue(written.startsWith("[\n{"));
+		assertTrue(written.endsWith("}"));
+		assertTrue(written.contains("\"Q42\""));
+
+		serializer.close();
+		assertEquals(written + "\n]", out.toString());
+	}
+
 	@Test
 	public void testItemDocumentToJson() throws JsonProcessingException {
 		ItemDocument id = Datamodel.makeItemDocument(
@@ -0,0 +1,132 @@
+package org.wikidata.wdtk.datamodel.helpers;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+import org.wikidata.wdtk.datamodel.interfaces.StatementUpdate;
+
+/**
+ * JMH benchmark of {@link StatementUpdateBuilder} on a large entity: it
+ * builds an update which adds, replaces and removes a share of the statements
+ * of the base revision, once with the single-statement methods and once with
+ * the bulk methods.
+ * <p>
+ * This is not run with the unit tests. After compiling the tests, run the
+ * {@link #main(String[])} method of this class with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatementUpdateBuilderBenchmark {
+
+	/**
+	 * Number of statements of the base revision. A tenth of them is
+	 * replaced, another tenth is removed, and as many new statements are
+	 * added.
+	 */
+	@Param({ "10000" })
+	public int statementCount;
+
+	private List<Statement> base;
+	private List<Statement> added;
+	private List<Statement> replaced;
+	private List<String> removed;
+
+	@Setup
+	public void setUp() {
+		ItemIdValue subject = Datamodel.makeWikidataItemIdValue("Q42");
+		base = new ArrayList<>(statementCount);
+		added = new ArrayList<>();
+		replaced = new ArrayList<>();
+		removed = new ArrayList<>();
+		for (int i = 0; i < statementCount; i++) {
+			Statement statement = StatementBuilder
+					.forSubjectAndProperty(subject, Datamodel.makeWikidataPropertyIdValue("P" + (1 + i % 100)))
+					.withId("Q42$" + i)
+					.withValue(Datamodel.makeStringValue("value " + i))
+					.build();
+			base.add(statement);
+			if (i % 10 == 0) {
+				replaced.add(StatementBuilder
+						.forSubjectAndProperty(subject, statement.getMainSnak().getPropertyId())
+						.withId(statement.getStatementId())
+						.withValue(Datamodel.makeStringValue("changed " + i))
+						.build());
+			} else if (i % 10 == 1) {
+				removed.add(statement.getStatementId());
+			} else if (i % 10 == 2) {
+				added.add(statement.withStatementId(""));
+			}
+		}
+	}
+
+	@Benchmark
+	public StatementUpdate buildSingle() {
+		StatementUpdateBuilder builder = StatementUpdateBuilder.forStatements(base);
+		for (Statement statement : added) {
+			builder.add(statement);
+		}
+		for (Statement statement : replaced) {
+			builder.replace(statement);
+		}
+		for (String statementId : removed) {
+			builder.remove(statementId);
+		}
+		return builder.build();
+	}
+
+	@Benchmark
+	public StatementUpdate buildBulk() {
+		return StatementUpdateBuilder.forStatements(base)
+				.addAll(added)
+				.replaceAll(replaced)
+				.removeAll(removed)
+				.build();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(StatementUpdateBuilderBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -272,6 +272,37 @@ public class StatementUpdateBuilderTest {
 		assertThat(update.getRemoved(), containsInAnyOrder(JOHN_ALREADY_HAS_BROWN_HAIR.getStatementId()));
 	}
 
+	@Test
+	public void testBulkOperations() {
+		StatementUpdateBuilder builder = StatementUpdateBuilder.forStatements(Arrays.asList(
+				JOHN_ALREADY_HAS_BROWN_HAIR, JOHN_ALREADY_HAS_BROWN_EYES, JOHN_ALREADY_HAS_BLUE_SHIRT));
+		assertThrows(NullPointerException.class, () -> builder.addAll(null));
+		assertThrows(NullPointerException.class, () -> builder.replaceAll(null));
+		assertThrows(NullPointerException.class, () -> builder.removeAll(null));
+		// invalid items leave the builder unchanged
+		assertThrows(IllegalArgumentException.class,
+				() -> builder.addAll(Arrays.asList(JOHN_HAS_BLUE_TROUSERS, RITA_HAS_BROWN_HAIR)));
+		assertThrows(IllegalArgumentException.class,
+				() -> builder.replaceAll(Arrays.asList(JOHN_ALREADY_HAS_SILVER_HAIR.withStatementId("ID2"),
+						JOHN_ALREADY_HAS_BROWN_TROUSERS)));
+		assertThrows(IllegalArgumentException.class,
+				() -> builder.removeAll(Arrays.asList(JOHN_ALREADY_HAS_BROWN_EYES.getStatementId(), "ID99")));
+		assertThat(builder.build().isEmpty(), is(true));
+		StatementUpdate update = builder
+				.addAll(Arrays.asList(JOHN_HAS_BLUE_TROUSERS, JOHN_ALREADY_HAS_SILVER_HAIR))
+				.removeAll(Arrays.asList(
+						JOHN_ALREADY_HAS_BROWN_HAIR.getStatementId(),
+						JOHN_ALREADY_HAS_BLUE_SHIRT.getStatementId()))
+				.replaceAll(Arrays.asList(
+						JOHN_HAS_SILVER_HAIR.withStatementId("ID2"), // overrides removal
+						JOHN_HAS_BLUE_EYES.withStatementId("ID4"),
+						JOHN_ALREADY_HAS_BROWN_EYES)) // last one wins, same as base
+				.build();
+		assertThat(update.getAdded(), containsInAnyOrder(JOHN_HAS_BLUE_TROUSERS, JOHN_HAS_SILVER_HAIR));
+		assertThat(update.getReplaced().values(), containsInAnyOrder(JOHN_HAS_SILVER_HAIR.withStatementId("ID2")));
+		assertThat(update.getRemoved(), containsInAnyOrder(JOHN_ALREADY_HAS_BLUE_SHIRT.getStatementId()));
+	}
+
 	@Test
 	public void testMerge() {
 		assertThrows(NullPointerException.class, () -> StatementUpdateBuilder.create().append(null));
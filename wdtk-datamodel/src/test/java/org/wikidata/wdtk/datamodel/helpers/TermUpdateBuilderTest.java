@@ -121,6 +121,23 @@ public class TermUpdateBuilderTest {
 		assertThat(update.getRemoved(), containsInAnyOrder("en", "sk"));
 	}
 
+	@Test
+	public void testBulkOperations() {
+		TermUpdateBuilder builder = TermUpdateBuilder.forTerms(Arrays.asList(EN, SK, CS));
+		assertThrows(NullPointerException.class, () -> builder.putAll(null));
+		assertThrows(NullPointerException.class, () -> builder.removeAll(null));
+		// invalid items leave the builder unchanged
+		assertThrows(NullPointerException.class, () -> builder.putAll(Arrays.asList(DE, null)));
+		assertThrows(IllegalArgumentException.class, () -> builder.removeAll(Arrays.asList("sk", " ")));
+		assertThat(builder.build().isEmpty(), is(true));
+		TermUpdate update = builder
+				.removeAll(Arrays.asList("en", "sk", "fr")) // missing term is ignored
+				.putAll(Arrays.asList(EN2, DE, SK, DE2)) // last one wins, same as base
+				.build();
+		assertThat(update.getModified().values(), containsInAnyOrder(EN2, DE2));
+		assertThat(update.getRemoved(), is(empty()));
+	}
+
 	@Test
 	public void testMerge() {
 		assertThrows(NullPointerException.class, () -> TermUpdateBuilder.create().append(null));
@@ -0,0 +1,254 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+import org.wikidata.wdtk.datamodel.helpers.JsonSerializer;
+import org.wikidata.wdtk.datamodel.implementation.LazyJsonDocumentReader.Sections;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+
+public class LazyJsonDocumentReaderTest {
+
+	private final LazyJsonDocumentReader reader = new LazyJsonDocumentReader(Datamodel.SITE_WIKIDATA);
+
+	private final DatamodelMapper datamodelMapper = new DatamodelMapper(Datamodel.SITE_WIKIDATA);
+
+	private final ObjectMapper mapper = new ObjectMapper().registerModule(new Jdk8Module());
+
+	private byte[] loadJson(String filename) throws IOException {
+		InputStream stream = LazyJsonDocumentReaderTest.class.getClassLoader()
+				.getResourceAsStream("JsonDeserializer/" + filename);
+		return IOUtils.toByteArray(stream);
+	}
+
+	private EntityDocument readFully(byte[] json) throws IOException {
+		return datamodelMapper.readerFor(EntityDocumentImpl.class)
+				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT)
+				.readValue(json);
+	}
+
+	@Test
+	public void testItemEqualsFullyParsedItem() throws IOException {
+		byte[] json = loadJson("item.json");
+		EntityDocument lazy = reader.readEntityDocument(json);
+		EntityDocument full = readFully(json);
+
+		assertTrue(lazy instanceof ItemDocument);
+		assertTrue(LazyJsonDocumentReader.isLazy(lazy));
+		assertEquals(full, lazy);
+		assertEquals(lazy, full);
+		assertEquals(full.hashCode(), lazy.hashCode());
+		assertEquals(full.toString(), lazy.toString());
+	}
+
+	@Test
+	public void testPropertyEqualsFullyParsedProperty() throws IOException {
+		byte[] json = loadJson("property.json");
+		EntityDocument lazy = reader.readEntityDocument(json);
+		EntityDocument full = readFully(json);
+
+		assertTrue(lazy instanceof PropertyDocument);
+		assertTrue(LazyJsonDocumentReader.isLazy(lazy));
+		assertEquals(((PropertyDocument) full).getDatatype(), ((PropertyDocument) lazy).getDatatype());
+		assertEquals(full, lazy);
+		assertEquals(lazy, full);
+		assertEquals(full.hashCode(), lazy.hashCode());
+	}
+
+	@Test
+	public void testSectionsAreParsedOnAccess() throws IOException {
+		ItemDocument item = (ItemDocument) reader.readEntityDocument(loadJson("item.json"));
+
+		assertEquals("Q34987", item.getEntityId().getId());
+		assertEquals(Datamodel.SITE_WIKIDATA, item.getEntityId().getSiteIri());
+		assertEquals(1062625956, item.getRevisionId());
+		for (int section = 0; section < Sections.NAMES.length; section++) {
+			assertFalse(LazyJsonDocumentReader.isSectionParsed(item, section));
+		}
+
+		assertEquals("Bile", item.findLabel("en"));
+		assertTrue(LazyJsonDocumentReader.isSectionParsed(item, Sections.LABELS));
+		assertFalse(LazyJsonDocumentReader.isSectionParsed(item, Sections.CLAIMS));
+		assertFalse(LazyJsonDocumentReader.isSectionParsed(item, Sections.SITELINKS));
+
+		item.findStatementGroup("P31");
+		assertTrue(LazyJsonDocumentReader.isSectionParsed(item, Sections.CLAIMS));
+		assertFalse(LazyJsonDocumentReader.isSectionParsed(item, Sections.SITELINKS));
+	}
+
+	@Test
+	public void testSerializationMatchesFullyParsedDocument() throws IOException {
+		for (String file : new String[] { "item.json", "property.json" }) {
+			byte[] json = loadJson(file);
+			EntityDocument lazy = reader.readEntityDocument(json);
+			EntityDocument full = readFully(json);
+
+			assertEquals(mapper.writeValueAsString(full), mapper.writeValueAsString(lazy));
+			if (lazy instanceof ItemDocument) {
+				assertEquals(JsonSerializer.getJsonString((ItemDocument) full),
+						JsonSerializer.getJsonString((ItemDocument) lazy));
+			} else {
+				assertEquals(JsonSerializer.getJsonString((PropertyDocument) full),
+						JsonSerializer.getJsonString((PropertyDocument) lazy));
+			}
+		}
+	}
+
+	@Test
+	public void testModifiedCopies() throws IOException {
+		byte[] json = loadJson("item.json");
+		ItemDocument lazy = (ItemDocument) reader.readEntityDocument(json);
+		ItemDocument full = (ItemDocument) readFully(json);
+
+		ItemDocument modified = lazy.withLabel(Datamodel.makeMonolingualTextValue("Bile language", "en"));
+		assertFalse(LazyJsonDocumentReader.isLazy(modified));
+		assertEquals(full.withLabel(Datamodel.makeMonolingualTextValue("Bile language", "en")), modified);
+		assertNotEquals(lazy, modified);
+		assertEquals(full.withRevisionId(1234), lazy.withRevisionId(1234));
+		String statementId = "Q34987$A5EE01BE-0FD2-478C-9405-5ECF86B0DF9B";
+		assertEquals(full.withoutStatementIds(Collections.singleton(statementId)),
+				lazy.withoutStatementIds(Collections.singleton(statementId)));
+	}
+
+	@Test
+	public void testMissingSections() throws IOException {
+		ItemDocument item = (ItemDocument) reader.readEntityDocument(
+				"{\"type\":\"item\",\"id\":\"Q42\",\"labels\":{\"en\":{\"language\":\"en\",\"value\":\"Douglas\"}}}"
+						.getBytes(StandardCharsets.UTF_8));
+
+		assertTrue(item.getDescriptions().isEmpty());
+		assertTrue(item.getAliases().isEmpty());
+		assertTrue(item.getStatementGroups().isEmpty());
+		assertTrue(item.getSiteLinks().isEmpty());
+		assertEquals(Datamodel.makeItemDocument(Datamodel.makeWikidataItemIdValue("Q42"),
+				Collections.singletonList(Datamodel.makeMonolingualTextValue("Douglas", "en")),
+				Collections.emptyList(), Collections.emptyList(), Collections.emptyList(),
+				Collections.emptyMap()), item);
+	}
+
+	@Test
+	public void testEmptyArraySections() throws IOException {
+		ItemDocument item = (ItemDocument) reader.readEntityDocument(
+				"{\"type\":\"item\",\"id\":\"Q42\",\"labels\":[],\"claims\":[],\"sitelinks\":[]}"
+						.getBytes(StandardCharsets.UTF_8));
+
+		assertTrue(item.getLabels().isEmpty());
+		assertTrue(item.getStatementGroups().isEmpty());
+		assertTrue(item.getSiteLinks().isEmpty());
+	}
+
+	@Test
+	public void testOffset() throws IOException {
+		byte[] document = loadJson("property.json");
+		byte[] json = new byte[document.length + 10];
+		System.arraycopy(document, 0, json, 7, document.length);
+
+		EntityDocument lazy = reader.readEntityDocument(json, 7, document.length);
+		assertEquals(readFully(document), lazy);
+	}
+
+	@Test
+	public void testOtherDocumentsAreParsedFully() throws IOException {
+		EntityDocument lexeme = reader.readEntityDocument(loadJson("lexeme.json"));
+
+		assertTrue(lexeme instanceof LexemeDocument);
+		assertFalse(LazyJsonDocumentReader.isLazy(lexeme));
+		assertEquals(readFully(loadJson("lexeme.json")), lexeme);
+	}
+
+	@Test
+	public void testMalformedSectionIsReportedOnAccess() throws IOException {
+		ItemDocument item = (ItemDocument) reader.readEntityDocument(
+				"{\"type\":\"item\",\"id\":\"Q42\",\"labels\":{\"en\":{\"language\":\"en\"}}}"
+						.getBytes(StandardCharsets.UTF_8));
+
+		assertEquals("Q42", item.getEntityId().getId());
+		assertThrows(UncheckedIOException.class, item::getLabels);
+	}
+
+	@Test
+	public void testRecycledDocuments() throws IOException {
+		byte[] item = loadJson("item.json");
+		byte[] property = loadJson("property.json");
+		byte[] buffer = new byte[Math.max(item.length, property.length)];
+
+		System.arraycopy(item, 0, buffer, 0, item.length);
+		EntityDocument first = reader.readRecycledEntityDocument(buffer, 0, item.length);
+		assertEquals(readFully(item), first);
+		Object labels = ((ItemDocument) first).getLabels();
+
+		System.arraycopy(property, 0, buffer, 0, property.length);
+		EntityDocument second = reader.readRecycledEntityDocument(buffer, 0, property.length);
+		assertEquals(readFully(property), second);
+
+		System.arraycopy(item, 0, buffer, 0, item.length);
+		EntityDocument third = reader.readRecycledEntityDocument(buffer, 0, item.length);
+		assertSame(first, third);
+		assertEquals(readFully(item), third);
+		// objects obtained from a recycled document stay valid
+		assertEquals(((ItemDocument) readFully(item)).getLabels(), labels);
+	}
+
+	@Test
+	public void testReleasedDocumentCannotBeAccessed() throws IOException {
+		ItemDocument item = (ItemDocument) reader.readEntityDocument(loadJson("item.json"));
+		item.getLabels();
+		LazyJsonDocumentReader.release(item);
+
+		// also fails for sections which were already parsed
+		assertThrows(IllegalStateException.class, item::getLabels);
+		assertThrows(IllegalStateException.class, item::getStatementGroups);
+		assertThrows(IllegalStateException.class, item::getEntityId);
+		assertThrows(IllegalStateException.class, item::getRevisionId);
+
+		LexemeDocument lexeme = (LexemeDocument) reader.readEntityDocument(loadJson("lexeme.json"));
+		LazyJsonDocumentReader.release(lexeme);
+		assertEquals(readFully(loadJson("lexeme.json")), lexeme);
+	}
+
+	@Test(expected = IOException.class)
+	public void testMalformedJson() throws IOException {
+		reader.readEntityDocument("{\"type\":\"item\",\"id\":".getBytes(StandardCharsets.UTF_8));
+	}
+}
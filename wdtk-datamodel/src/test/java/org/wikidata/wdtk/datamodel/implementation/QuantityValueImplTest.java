@@ -21,14 +21,17 @@
 package org.wikidata.wdtk.datamodel.implementation;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 
 import org.junit.Test;
+import org.wikidata.wdtk.datamodel.helpers.Hash;
 import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
 import org.wikidata.wdtk.datamodel.interfaces.QuantityValue;
 
@@ -185,4 +188,69 @@ public class QuantityValueImplTest {
 	public void testUnboundedToJava() throws IOException {
 		assertEquals(q3, mapper.readValue(JSON_UNBOUNDED_QUANTITY_VALUE, ValueImpl.class));
 	}
+
+	private static QuantityValueImpl parse(String amount, String lowerBound, String upperBound, String unit) {
+		return new QuantityValueImpl(
+				new QuantityValueImpl.JacksonInnerQuantity(amount, lowerBound, upperBound, unit));
+	}
+
+	@Test
+	public void compactValuesBehaveLikeDecimals() {
+		String[] numbers = { "0", "+0", "-0", "0.00", "+4", "4.00", "-1.5", "123456789012345678",
+				"-123456789012345678", "1234567890123456789", "0.000001", "0.0000001", "-0.0000123",
+				"1E+3", "1e-10", "9223372036854775807.5", "  +7.25 " };
+		for (String number : numbers) {
+			BigDecimal decimal = new BigDecimal(number.trim());
+			QuantityValueImpl compact = parse(number, null, null, "1");
+			QuantityValue reference = new QuantityValueImpl(decimal, null, null, (ItemIdValue) null);
+			assertEquals(number, decimal, compact.getNumericValue());
+			assertEquals(number, (decimal.signum() < 0 ? "" : "+") + decimal,
+					compact.getValue().getAmountAsString());
+			assertEquals(number, reference, compact);
+			assertEquals(number, Hash.hashCode(reference), compact.hashCode());
+			assertEquals(number, decimal.doubleValue(), compact.getNumericValueAsDouble(), 0.0);
+		}
+	}
+
+	@Test
+	public void scaleIsSignificantForEquality() {
+		assertNotEquals(parse("4.00", null, null, "1"), parse("4", null, null, "1"));
+		assertEquals(parse("4.00", null, null, "1"), parse("+4.00", null, null, "1"));
+	}
+
+	@Test
+	public void primitiveAccessors() {
+		QuantityValueImpl value = parse("+12.00", "-3.5", "20", unitMeter);
+		assertEquals(12.0, value.getNumericValueAsDouble(), 0.0);
+		assertEquals(12L, value.getNumericValueAsLong());
+		assertEquals(-3.5, value.getLowerBoundAsDouble(), 0.0);
+		assertEquals(20.0, value.getUpperBoundAsDouble(), 0.0);
+		assertEquals(0.1, parse("0.1", null, null, "1").getNumericValueAsDouble(), 0.0);
+		assertEquals(Double.NaN, q3.getLowerBoundAsDouble(), 0.0);
+		assertEquals(Double.NaN, q3.getUpperBoundAsDouble(), 0.0);
+		assertThrows(ArithmeticException.class, () -> parse("12.5", null, null, "1").getNumericValueAsLong());
+		assertThrows(ArithmeticException.class, () -> q1.getNumericValueAsLong());
+	}
+
+	@Test
+	public void boundsAreComparedAcrossScales() {
+		parse("1.5", "1", "2.000", "1");
+		parse("1", "0.999999999999999999999999999", "2", "1");
+		assertThrows(IllegalArgumentException.class, () -> parse("1", "1.000000000000000000000000001", "2", "1"));
+		assertThrows(IllegalArgumentException.class, () -> parse("2.5", "1", "2.49", "1"));
+	}
+
+	@Test
+	public void invalidNumbers() {
+		assertThrows(NumberFormatException.class, () -> parse("1.5.3", null, null, "1"));
+		assertThrows(NumberFormatException.class, () -> parse("", null, null, "1"));
+		assertThrows(NumberFormatException.class, () -> parse("+", null, null, "1"));
+	}
+
+	@Test
+	public void unitsAreInterned() {
+		assertSame(parse("1", null, null, unitMeter).getUnitItemId(),
+				parse("2", null, null, unitMeter).getUnitItemId());
+		assertFalse(parse("1", null, null, "1").equals(parse("1", null, null, unitMeter)));
+	}
 }
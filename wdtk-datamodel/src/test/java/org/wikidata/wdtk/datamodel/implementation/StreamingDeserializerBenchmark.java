@@ -0,0 +1,107 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.InjectableValues;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+
+/**
+ * JMH benchmark comparing the throughput of the handwritten deserializers of
+ * {@link StreamingDeserializerModule} with the annotation-driven
+ * deserialization, on the documents used by the JsonDeserializer tests.
+ * <p>
+ * This is not run with the unit tests. After compiling the tests, run the
+ * {@link #main(String[])} method of this class with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamingDeserializerBenchmark {
+
+	@Param({ "item.json", "property.json", "lexeme.json" })
+	public String document;
+
+	private byte[] json;
+	private ObjectReader streamingReader;
+	private ObjectReader annotationReader;
+
+	@Setup
+	public void setUp() throws IOException {
+		try (InputStream stream = StreamingDeserializerBenchmark.class.getClassLoader()
+				.getResourceAsStream("JsonDeserializer/" + document)) {
+			json = IOUtils.toString(stream, StandardCharsets.UTF_8).getBytes(StandardCharsets.UTF_8);
+		}
+		streamingReader = new DatamodelMapper(Datamodel.SITE_WIKIDATA)
+				.readerFor(EntityDocumentImpl.class)
+				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
+		ObjectMapper annotationMapper = new ObjectMapper();
+		annotationMapper.setInjectableValues(
+				new InjectableValues.Std().addValue("siteIri", Datamodel.SITE_WIKIDATA));
+		annotationMapper.registerModule(new Jdk8Module());
+		annotationReader = annotationMapper.readerFor(EntityDocumentImpl.class)
+				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
+	}
+
+	@Benchmark
+	public EntityDocumentImpl streaming() throws IOException {
+		return streamingReader.readValue(json);
+	}
+
+	@Benchmark
+	public EntityDocumentImpl annotations() throws IOException {
+		return annotationReader.readValue(json);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(StreamingDeserializerBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
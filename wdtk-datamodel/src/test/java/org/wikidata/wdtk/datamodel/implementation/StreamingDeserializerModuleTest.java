@@ -0,0 +1,191 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.Value;
+import org.wikidata.wdtk.datamodel.interfaces.ValueSnak;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.InjectableValues;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+
+public class StreamingDeserializerModuleTest {
+
+	private static final String STATEMENT_TEMPLATE = "{'type':'item','id':'Q1','claims':{'P1':[{'id':'Q1$1','type':'statement','rank':'normal','mainsnak':"
+			+ "{'snaktype':'value','property':'P1','datatype':'x','datavalue':%s}}]}}";
+
+	private final ObjectMapper serializer = new ObjectMapper().registerModule(new Jdk8Module());
+
+	private String loadJson(String filename) throws IOException {
+		InputStream stream = StreamingDeserializerModuleTest.class.getClassLoader()
+				.getResourceAsStream("JsonDeserializer/" + filename);
+		return IOUtils.toString(stream, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Mapper configured like {@link DatamodelMapper}, but without the
+	 * handwritten deserializers.
+	 */
+	private static ObjectMapper annotationMapper(String siteIri) {
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.setInjectableValues(new InjectableValues.Std().addValue("siteIri", siteIri));
+		mapper.registerModule(new Jdk8Module());
+		return mapper;
+	}
+
+	private static ObjectReader reader(ObjectMapper mapper, Class<?> type) {
+		return mapper.readerFor(type).with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
+	}
+
+	/**
+	 * Checks that both deserialization paths produce equal objects which
+	 * serialize to the very same JSON.
+	 */
+	private Object assertSameAsAnnotations(String json, Class<?> type, String siteIri) throws IOException {
+		Object expected = reader(annotationMapper(siteIri), type).readValue(json);
+		Object actual = reader(new DatamodelMapper(siteIri), type).readValue(json);
+		assertEquals(expected.getClass(), actual.getClass());
+		assertEquals(expected, actual);
+		assertEquals(serializer.writeValueAsString(expected), serializer.writeValueAsString(actual));
+		return actual;
+	}
+
+	@Test
+	public void testDocumentResources() throws IOException {
+		assertSameAsAnnotations(loadJson("item.json"), EntityDocumentImpl.class, Datamodel.SITE_WIKIDATA);
+		assertSameAsAnnotations(loadJson("item.json"), ItemDocumentImpl.class, Datamodel.SITE_WIKIDATA);
+		assertSameAsAnnotations(loadJson("property.json"), EntityDocumentImpl.class, Datamodel.SITE_WIKIDATA);
+		assertSameAsAnnotations(loadJson("property.json"), PropertyDocumentImpl.class, Datamodel.SITE_WIKIDATA);
+		assertSameAsAnnotations(loadJson("lexeme.json"), EntityDocumentImpl.class, Datamodel.SITE_WIKIDATA);
+		assertSameAsAnnotations(loadJson("mediainfo.json"), EntityDocumentImpl.class,
+				Datamodel.SITE_WIKIMEDIA_COMMONS);
+		assertSameAsAnnotations(loadJson("mediainfo.json"), MediaInfoDocumentImpl.class,
+				Datamodel.SITE_WIKIMEDIA_COMMONS);
+	}
+
+	@Test
+	public void testEmptyContainers() throws IOException {
+		String json = "{'type':'item','id':'Q1','labels':[],'descriptions':{},'aliases':[],'claims':[],'sitelinks':[]}";
+		assertSameAsAnnotations(json.replace('\'', '"'), EntityDocumentImpl.class, Datamodel.SITE_WIKIDATA);
+	}
+
+	@Test
+	public void testValues() throws IOException {
+		String[] values = {
+				"{'value':{'entity-type':'item','numeric-id':5,'id':'Q5'},'type':'wikibase-entityid'}",
+				"{'type':'wikibase-entityid','value':{'id':'P5'}}",
+				"{'value':{'entity-type':'lexeme','numeric-id':7},'type':'wikibase-entityid'}",
+				"{'value':{'entity-type':'form','id':'L7-F1'},'type':'wikibase-entityid'}",
+				"{'value':{'id':'L7-S2'},'type':'wikibase-entityid'}",
+				"{'value':{'entity-type':'mediainfo','id':'M9'},'type':'wikibase-entityid'}",
+				"{'value':'some string','type':'string'}",
+				"{'type':'monolingualtext','value':{'text':'Titre','language':'fr'}}",
+				"{'value':{'time':'+2019-11-26T00:00:00Z','timezone':60,'before':0,'after':1,'precision':11,"
+						+ "'calendarmodel':'http://www.wikidata.org/entity/Q1985727'},'type':'time'}",
+				"{'value':{'latitude':51.5,'longitude':-0.12,'altitude':null,'precision':0.001,"
+						+ "'globe':'http://www.wikidata.org/entity/Q2'},'type':'globecoordinate'}",
+				"{'value':{'amount':'+99999999999999999999.10','unit':'http://www.wikidata.org/entity/Q11573',"
+						+ "'upperBound':'+100000000000000000000','lowerBound':'+99999999999999999999'},'type':'quantity'}",
+				"{'type':'quantity','value':{'amount':'-3','unit':'1'}}",
+				"{'value':{'foo':[1,{'bar':'baz'}]},'type':'funky','extra':true}",
+				"{'type':'funky','value':'x'}",
+				"{'value':{'entity-type':'funky','id':'F1','more':{'a':1}},'type':'wikibase-entityid'}",
+				"{'value':{'id':'X12'},'type':'wikibase-entityid'}" };
+		for (String value : values) {
+			String json = String.format(STATEMENT_TEMPLATE, value).replace('\'', '"');
+			assertSameAsAnnotations(json, EntityDocumentImpl.class, Datamodel.SITE_WIKIDATA);
+		}
+	}
+
+	@Test
+	public void testUnsupportedValuesKeepTheirClasses() throws IOException {
+		String json = String.format(STATEMENT_TEMPLATE,
+				"{'value':{'entity-type':'funky','id':'F1'},'type':'wikibase-entityid'}").replace('\'', '"');
+		ItemDocument document = (ItemDocument) assertSameAsAnnotations(json, EntityDocumentImpl.class,
+				Datamodel.SITE_WIKIDATA);
+		Value value = ((ValueSnak) document.getAllStatements().next().getMainSnak()).getValue();
+		assertTrue(value instanceof UnsupportedEntityIdValueImpl);
+	}
+
+	@Test
+	public void testSnaksAndReferences() throws IOException {
+		String json = ("{'type':'item','id':'Q1','claims':{'P1':[{'mainsnak':{'property':'P1','snaktype':'novalue'},"
+				+ "'rank':'preferred','qualifiers':{'P2':[{'snaktype':'somevalue','property':'P2','hash':'h'}]},"
+				+ "'qualifiers-order':['P2'],'references':[{'hash':'abc','snaks':{'P3':[{'snaktype':'value',"
+				+ "'property':'P3','datavalue':{'value':'s','type':'string'},'datatype':'string'}]},"
+				+ "'snaks-order':['P3']}]}]}}").replace('\'', '"');
+		assertSameAsAnnotations(json, EntityDocumentImpl.class, Datamodel.SITE_WIKIDATA);
+		assertSameAsAnnotations(json, ItemDocumentImpl.class, Datamodel.SITE_WIKIDATA);
+	}
+
+	@Test
+	public void testSiteLinks() throws IOException {
+		String json = ("{'id':'Q1','sitelinks':{'enwiki':{'site':'enwiki','title':'Universe','badges':['Q17437796']},"
+				+ "'frwiki':{'site':'frwiki','title':'Univers','badges':[]}},'type':'item','lastrevid':42}")
+				.replace('\'', '"');
+		assertSameAsAnnotations(json, EntityDocumentImpl.class, Datamodel.SITE_WIKIDATA);
+	}
+
+	@Test
+	public void testWrongDocumentType() {
+		String json = "{\"type\":\"property\",\"id\":\"P1\",\"datatype\":\"string\"}";
+		ObjectReader reader = reader(new DatamodelMapper(Datamodel.SITE_WIKIDATA), ItemDocumentImpl.class);
+		assertThrows(JsonMappingException.class, () -> reader.readValue(json));
+	}
+
+	@Test
+	public void testUnknownDocumentType() {
+		String json = "{\"type\":\"redirect\",\"id\":\"Q1\"}";
+		ObjectReader reader = reader(new DatamodelMapper(Datamodel.SITE_WIKIDATA), EntityDocumentImpl.class);
+		assertThrows(JsonMappingException.class, () -> reader.readValue(json));
+	}
+
+	@Test
+	public void testInvalidStatement() {
+		String json = String.format(STATEMENT_TEMPLATE, "null").replace('\'', '"');
+		ObjectReader reader = reader(new DatamodelMapper(Datamodel.SITE_WIKIDATA), EntityDocumentImpl.class);
+		assertThrows(JsonMappingException.class, () -> reader.readValue(json));
+	}
+
+	@Test
+	public void testInvalidQuantity() {
+		String json = String.format(STATEMENT_TEMPLATE, "{'type':'quantity','value':{'amount':'abc','unit':'1'}}")
+				.replace('\'', '"');
+		ObjectReader reader = reader(new DatamodelMapper(Datamodel.SITE_WIKIDATA), EntityDocumentImpl.class);
+		assertThrows(JsonMappingException.class, () -> reader.readValue(json));
+	}
+}
@@ -0,0 +1,197 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+import org.wikidata.wdtk.datamodel.helpers.JsonSerializer;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+
+/**
+ * JMH benchmark comparing {@link StreamingSerializer} with the
+ * annotation-driven serialization on dump-sized jobs: serializing a batch of
+ * documents in the format of {@link JsonSerializer}, and rewriting a JSON
+ * dump, that is, reading all of its documents and writing them again.
+ * <p>
+ * This is not run with the unit tests. After compiling the tests, run the
+ * {@link #main(String[])} method of this class with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamingSerializerBenchmark {
+
+	private static final byte[] JSON_SEP = ",\n".getBytes(StandardCharsets.UTF_8);
+
+	/**
+	 * Number of documents in the dump; it repeats the documents used by the
+	 * JsonDeserializer tests.
+	 */
+	@Param({ "10000" })
+	public int documentCount;
+
+	private byte[] dump;
+	private List<EntityDocument> documents;
+	private ObjectReader reader;
+	private ObjectMapper annotationMapper;
+
+	@Setup
+	public void setUp() throws IOException {
+		String[] files = { "item.json", "property.json", "lexeme.json" };
+		String[] json = new String[files.length];
+		for (int i = 0; i < files.length; i++) {
+			try (InputStream stream = StreamingSerializerBenchmark.class.getClassLoader()
+					.getResourceAsStream("JsonDeserializer/" + files[i])) {
+				json[i] = IOUtils.toString(stream, StandardCharsets.UTF_8).trim();
+			}
+		}
+		StringBuilder builder = new StringBuilder("[\n");
+		for (int i = 0; i < documentCount; i++) {
+			if (i > 0) {
+				builder.append(",\n");
+			}
+			builder.append(json[i % json.length]);
+		}
+		dump = builder.append("\n]").toString().getBytes(StandardCharsets.UTF_8);
+
+		reader = new DatamodelMapper(Datamodel.SITE_WIKIDATA)
+				.readerFor(EntityDocumentImpl.class)
+				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
+		documents = readDump();
+
+		annotationMapper = new ObjectMapper();
+		annotationMapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+		annotationMapper.registerModule(new Jdk8Module());
+	}
+
+	private List<EntityDocument> readDump() throws IOException {
+		List<EntityDocument> result = new ArrayList<>(documentCount);
+		try (MappingIterator<EntityDocument> iterator = reader.readValues(dump)) {
+			while (iterator.hasNextValue()) {
+				result.add(iterator.nextValue());
+			}
+		}
+		return result;
+	}
+
+	private static void writeStreaming(List<EntityDocument> documents, OutputStream out) {
+		JsonSerializer serializer = new JsonSerializer(out);
+		serializer.open();
+		for (EntityDocument document : documents) {
+			if (document instanceof ItemDocument) {
+				serializer.processItemDocument((ItemDocument) document);
+			} else if (document instanceof PropertyDocument) {
+				serializer.processPropertyDocument((PropertyDocument) document);
+			} else {
+				serializer.processLexemeDocument((LexemeDocument) document);
+			}
+		}
+		serializer.close();
+	}
+
+	/**
+	 * Writes documents like {@link JsonSerializer} used to, with one mapper
+	 * call per document.
+	 */
+	private void writeAnnotations(List<EntityDocument> documents, OutputStream out) throws IOException {
+		out.write('[');
+		out.write('\n');
+		boolean first = true;
+		for (EntityDocument document : documents) {
+			if (!first) {
+				out.write(JSON_SEP);
+			}
+			first = false;
+			annotationMapper.writeValue(out, document);
+		}
+		out.write('\n');
+		out.write(']');
+		out.close();
+	}
+
+	@Benchmark
+	public void serializeStreaming() {
+		writeStreaming(documents, NullOutputStream.INSTANCE);
+	}
+
+	@Benchmark
+	public void serializeAnnotations() throws IOException {
+		writeAnnotations(documents, NullOutputStream.INSTANCE);
+	}
+
+	@Benchmark
+	public int rewriteStreaming() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(dump.length);
+		writeStreaming(readDump(), out);
+		return out.size();
+	}
+
+	@Benchmark
+	public int rewriteAnnotations() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(dump.length);
+		writeAnnotations(readDump(), out);
+		return out.size();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(StreamingSerializerBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,298 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.ItemDocumentBuilder;
+import org.wikidata.wdtk.datamodel.helpers.JsonDeserializer;
+import org.wikidata.wdtk.datamodel.helpers.JsonSerializer;
+import org.wikidata.wdtk.datamodel.helpers.ReferenceBuilder;
+import org.wikidata.wdtk.datamodel.helpers.StatementBuilder;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.FormDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.SenseDocument;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+import org.wikidata.wdtk.datamodel.interfaces.StatementRank;
+import org.wikidata.wdtk.datamodel.interfaces.TimeValue;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+
+public class StreamingSerializerTest {
+
+	private final ObjectMapper mapper = new ObjectMapper().registerModule(new Jdk8Module());
+
+	private String loadJson(String filename) throws IOException {
+		InputStream stream = StreamingSerializerTest.class.getClassLoader()
+				.getResourceAsStream("JsonDeserializer/" + filename);
+		return IOUtils.toString(stream, StandardCharsets.UTF_8);
+	}
+
+	private static String write(EntityDocument document) throws IOException {
+		StringWriter writer = new StringWriter();
+		try (JsonGenerator generator = new ObjectMapper().createGenerator(writer)) {
+			StreamingSerializer.writeEntityDocument(generator, document);
+		}
+		return writer.toString();
+	}
+
+	private static String write(Statement statement) throws IOException {
+		StringWriter writer = new StringWriter();
+		try (JsonGenerator generator = new ObjectMapper().createGenerator(writer)) {
+			StreamingSerializer.writeStatement(generator, statement);
+		}
+		return writer.toString();
+	}
+
+	/**
+	 * Wraps an object in a proxy which only implements the given interface,
+	 * to simulate objects from another implementation of the data model.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> T foreign(Class<T> type, T target) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+				(proxy, method, args) -> {
+					try {
+						return method.invoke(target, args);
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+				});
+	}
+
+	private List<EntityDocument> loadDocuments() throws IOException {
+		JsonDeserializer wikidata = new JsonDeserializer(Datamodel.SITE_WIKIDATA);
+		return Arrays.asList(
+				wikidata.deserializeItemDocument(loadJson("item.json")),
+				wikidata.deserializePropertyDocument(loadJson("property.json")),
+				wikidata.deserializeLexemeDocument(loadJson("lexeme.json")),
+				new JsonDeserializer(Datamodel.SITE_WIKIMEDIA_COMMONS)
+						.deserializeMediaInfoDocument(loadJson("mediainfo.json")));
+	}
+
+	private Statement makeStatementWithAllValues(ItemIdValue subject) {
+		return StatementBuilder.forSubjectAndProperty(subject, Datamodel.makeWikidataPropertyIdValue("P17"))
+				.withValue(Datamodel.makeQuantityValue(new BigDecimal("-123.4500"),
+						new BigDecimal("-124"), new BigDecimal("99999999999999999999.1"),
+						Datamodel.makeWikidataItemIdValue("Q11573")))
+				.withQualifierValue(Datamodel.makeWikidataPropertyIdValue("P580"),
+						Datamodel.makeTimeValue(-13798000000L, (byte) 0, (byte) 0,
+								(byte) 0, (byte) 0, (byte) 0, TimeValue.PREC_100MY, 0, 0, -60,
+								TimeValue.CM_JULIAN_PRO))
+				.withQualifierValue(Datamodel.makeWikidataPropertyIdValue("P582"),
+						Datamodel.makeQuantityValue(new BigDecimal("12")))
+				.withQualifierValue(Datamodel.makeWikidataPropertyIdValue("P625"),
+						Datamodel.makeGlobeCoordinatesValue(51.5, -0.12, 0.001,
+								"http://www.wikidata.org/entity/Q2"))
+				.withQualifierValue(Datamodel.makeWikidataPropertyIdValue("P1476"),
+						Datamodel.makeMonolingualTextValue("Titre", "fr"))
+				.withQualifierValue(Datamodel.makeWikidataPropertyIdValue("P1"),
+						Datamodel.makeWikidataPropertyIdValue("P31"))
+				.withQualifier(new ValueSnakImpl(Datamodel.makeWikidataPropertyIdValue("P2"),
+						Datamodel.makeWikidataLexemeIdValue("L7"), "wikibase-lexeme"))
+				.withQualifier(new ValueSnakImpl(Datamodel.makeWikidataPropertyIdValue("P3"),
+						Datamodel.makeWikidataFormIdValue("L7-F1"), "wikibase-form"))
+				.withQualifier(new ValueSnakImpl(Datamodel.makeWikidataPropertyIdValue("P4"),
+						Datamodel.makeWikidataSenseIdValue("L7-S2"), "wikibase-sense"))
+				.withQualifier(new ValueSnakImpl(Datamodel.makeWikidataPropertyIdValue("P5"),
+						Datamodel.makeWikimediaCommonsMediaInfoIdValue("M9"), null))
+				.withQualifierSomeValue(Datamodel.makeWikidataPropertyIdValue("P6"))
+				.withQualifierNoValue(Datamodel.makeWikidataPropertyIdValue("P7"))
+				.withReference(ReferenceBuilder.newInstance()
+						.withPropertyValue(Datamodel.makeWikidataPropertyIdValue("P854"),
+								Datamodel.makeStringValue("https://example.org/é\"\n"))
+						.withPropertyValue(Datamodel.makeWikidataPropertyIdValue("P813"),
+								Datamodel.makeTimeValue(2019, (byte) 11, (byte) 26, TimeValue.CM_GREGORIAN_PRO))
+						.build())
+				.withRank(StatementRank.PREFERRED)
+				.withId("Q42$1")
+				.build();
+	}
+
+	private ItemDocument makeItem(String siteIri) {
+		ItemIdValue subject = Datamodel.makeItemIdValue("Q42", siteIri);
+		return ItemDocumentBuilder.forItemId(subject)
+				.withLabel("Douglas Adams", "en")
+				.withDescription("écrivain", "fr")
+				.withAlias("DNA", "en")
+				.withAlias("Douglas Noël Adams", "en")
+				.withStatement(makeStatementWithAllValues(subject))
+				.withStatement(StatementBuilder
+						.forSubjectAndProperty(subject, Datamodel.makeWikidataPropertyIdValue("P31"))
+						.withValue(Datamodel.makeWikidataItemIdValue("Q5"))
+						.withRank(StatementRank.DEPRECATED)
+						.build())
+				.withSiteLink("Douglas Adams", "enwiki", Datamodel.makeWikidataItemIdValue("Q17437796"))
+				.withSiteLink("Douglas Adams", "frwiki")
+				.withRevisionId(123456789012L)
+				.build();
+	}
+
+	@Test
+	public void testDocumentResources() throws IOException {
+		for (EntityDocument document : loadDocuments()) {
+			assertEquals(mapper.writeValueAsString(document), write(document));
+		}
+	}
+
+	@Test
+	public void testAllValues() throws IOException {
+		ItemDocument document = makeItem(Datamodel.SITE_WIKIDATA);
+		assertEquals(mapper.writeValueAsString(document), write(document));
+		Statement statement = document.getAllStatements().next();
+		assertEquals(mapper.writeValueAsString(statement), write(statement));
+	}
+
+	@Test
+	public void testLocalDocument() throws IOException {
+		ItemDocument document = makeItem(EntityIdValue.SITE_LOCAL);
+		assertEquals(mapper.writeValueAsString(document), write(document));
+	}
+
+	@Test
+	public void testFormsAndSenses() throws IOException {
+		FormDocument form = Datamodel.makeFormDocument(Datamodel.makeWikidataFormIdValue("L1-F1"),
+				Collections.singletonList(Datamodel.makeMonolingualTextValue("x", "en")),
+				Collections.singletonList(Datamodel.makeWikidataItemIdValue("Q1")),
+				Collections.emptyList()).withRevisionId(5);
+		SenseDocument sense = Datamodel.makeSenseDocument(Datamodel.makeWikidataSenseIdValue("L1-S1"),
+				Collections.singletonList(Datamodel.makeMonolingualTextValue("y", "en")),
+				Collections.emptyList()).withRevisionId(5);
+		assertEquals(mapper.writeValueAsString(form), write(form));
+		assertEquals(mapper.writeValueAsString(sense), write(sense));
+	}
+
+	@Test
+	public void testUnsupportedValues() throws IOException {
+		String json = ("{'type':'item','id':'Q1','claims':{'P1':[{'type':'statement','rank':'normal','mainsnak':"
+				+ "{'snaktype':'value','property':'P1','datatype':'x','datavalue':{'value':{'foo':[1]},"
+				+ "'type':'funky'}}},{'type':'statement','rank':'normal','mainsnak':{'snaktype':'value',"
+				+ "'property':'P1','datavalue':{'value':{'entity-type':'funky','id':'F1'},"
+				+ "'type':'wikibase-entityid'}}}]}}").replace('\'', '"');
+		EntityDocument document = new JsonDeserializer(Datamodel.SITE_WIKIDATA).deserializeEntityDocument(json);
+		assertEquals(mapper.writeValueAsString(document), write(document));
+	}
+
+	@Test
+	public void testOtherImplementations() throws IOException {
+		ItemDocument document = makeItem(Datamodel.SITE_WIKIDATA);
+		Statement statement = document.getAllStatements().next();
+		assertEquals(mapper.writeValueAsString(statement), write(foreign(Statement.class, statement)));
+		assertEquals(mapper.writeValueAsString(document), write(foreign(ItemDocument.class, document)));
+
+		TimeValue time = Datamodel.makeTimeValue(-13798000000L, (byte) 0, (byte) 0,
+				(byte) 0, (byte) 0, (byte) 0, TimeValue.PREC_100MY, 0, 0, -60, TimeValue.CM_JULIAN_PRO);
+		PropertyIdValue property = Datamodel.makeWikidataPropertyIdValue("P585");
+		Statement expected = StatementBuilder.forSubjectAndProperty(document.getEntityId(), property)
+				.withValue(time)
+				.withQualifier(new ValueSnakImpl(property, Datamodel.makeWikidataLexemeIdValue("L7"),
+						"wikibase-lexeme"))
+				.build();
+		Statement actual = StatementBuilder.forSubjectAndProperty(document.getEntityId(), property)
+				.withValue(foreign(TimeValue.class, time))
+				.withQualifier(new ValueSnakImpl(property,
+						foreign(LexemeIdValue.class, Datamodel.makeWikidataLexemeIdValue("L7")), "wikibase-lexeme"))
+				.build();
+		assertEquals(mapper.writeValueAsString(expected), write(actual));
+
+		for (EntityDocument loaded : loadDocuments()) {
+			EntityDocument wrapped;
+			if (loaded instanceof PropertyDocument) {
+				wrapped = foreign(PropertyDocument.class, (PropertyDocument) loaded);
+			} else if (loaded instanceof LexemeDocument) {
+				wrapped = foreign(LexemeDocument.class, (LexemeDocument) loaded);
+			} else if (loaded instanceof MediaInfoDocument) {
+				wrapped = foreign(MediaInfoDocument.class, (MediaInfoDocument) loaded);
+			} else {
+				wrapped = foreign(ItemDocument.class, (ItemDocument) loaded);
+			}
+			assertEquals(mapper.writeValueAsString(loaded), write(wrapped));
+		}
+	}
+
+	@Test
+	public void testJsonSerializerOutput() throws IOException {
+		List<EntityDocument> documents = loadDocuments();
+		StringBuilder expected = new StringBuilder("[\n");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		JsonSerializer serializer = new JsonSerializer(out);
+		serializer.open();
+		for (EntityDocument document : documents) {
+			if (expected.length() > 2) {
+				expected.append(",\n");
+			}
+			expected.append(mapper.writeValueAsString(document));
+			if (document instanceof ItemDocument) {
+				serializer.processItemDocument((ItemDocument) document);
+			} else if (document instanceof PropertyDocument) {
+				serializer.processPropertyDocument((PropertyDocument) document);
+			} else if (document instanceof LexemeDocument) {
+				serializer.processLexemeDocument((LexemeDocument) document);
+			} else {
+				serializer.processMediaInfoDocument((MediaInfoDocument) document);
+			}
+		}
+		serializer.close();
+		expected.append("\n]");
+		assertEquals(expected.toString(), new String(out.toByteArray(), StandardCharsets.UTF_8));
+		assertEquals(documents.size(), serializer.getEntityDocumentCount());
+	}
+
+	@Test
+	public void testBrokenDocument() {
+		ItemDocument document = makeItem(Datamodel.SITE_WIKIDATA);
+		ItemDocument broken = (ItemDocument) Proxy.newProxyInstance(ItemDocument.class.getClassLoader(),
+				new Class<?>[] { ItemDocument.class }, (proxy, method, args) -> {
+					if ("getSiteLinks".equals(method.getName())) {
+						return null;
+					}
+					return method.invoke(document, args);
+				});
+		assertThrows(JsonMappingException.class, () -> write(broken));
+	}
+}
@@ -0,0 +1,99 @@
+package org.wikidata.wdtk.datamodel.implementation;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Test;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
+import org.wikidata.wdtk.datamodel.interfaces.SiteLink;
+
+public class StringInternerTest {
+
+	private final DatamodelMapper mapper = new DatamodelMapper(Datamodel.SITE_WIKIDATA);
+
+	@After
+	public void restoreMaximumSize() {
+		StringInterner.setMaximumSize(StringInterner.DEFAULT_MAXIMUM_SIZE);
+	}
+
+	@Test
+	public void testSeededStrings() {
+		StringInterner.setMaximumSize(StringInterner.size());
+		String first = StringInterner.intern(new String("de"));
+		assertSame(first, StringInterner.intern(new String("de")));
+		assertSame(Datamodel.SITE_WIKIDATA, StringInterner.intern(new String(Datamodel.SITE_WIKIDATA)));
+	}
+
+	@Test
+	public void testNewStrings() {
+		String first = StringInterner.intern(new String("testNewStrings"));
+		assertSame(first, StringInterner.intern(new String("testNewStrings")));
+		assertEquals(null, StringInterner.intern(null));
+	}
+
+	@Test
+	public void testMaximumSize() {
+		assertThrows(IllegalArgumentException.class, () -> StringInterner.setMaximumSize(-1));
+		StringInterner.setMaximumSize(StringInterner.size());
+		String string = new String("testMaximumSize");
+		assertSame(string, StringInterner.intern(string));
+		assertNotSame(string, StringInterner.intern(new String("testMaximumSize")));
+		StringInterner.setMaximumSize(0);
+		string = new String("en");
+		assertSame(string, StringInterner.intern(string));
+	}
+
+	@Test
+	public void testSitesAreSeeded() {
+		StringInterner.setMaximumSize(StringInterner.size());
+		new SitesImpl().setSiteInformation(new String("testwiki"), "wikipedia", new String("testlang"),
+				"mediawiki", "//test.wikipedia.org/w/$1", "//test.wikipedia.org/wiki/$1");
+		assertSame(StringInterner.intern(new String("testwiki")), StringInterner.intern(new String("testwiki")));
+		assertSame(StringInterner.intern(new String("testlang")), StringInterner.intern(new String("testlang")));
+	}
+
+	@Test
+	public void testDeserializedObjectsShareStrings() throws IOException {
+		String json = "{\"language\":\"en\",\"value\":\"test\"}";
+		MonolingualTextValue term1 = mapper.readValue(json, TermImpl.class);
+		MonolingualTextValue term2 = mapper.readValue(json, TermImpl.class);
+		assertSame(term1.getLanguageCode(), term2.getLanguageCode());
+
+		json = "{\"site\":\"enwiki\",\"title\":\"Test\",\"badges\":[]}";
+		SiteLink link1 = mapper.readValue(json, SiteLinkImpl.class);
+		SiteLink link2 = mapper.readValue(json, SiteLinkImpl.class);
+		assertSame(link1.getSiteKey(), link2.getSiteKey());
+
+		ItemIdValue id1 = ItemIdValueImpl.fromIri(new String("http://www.wikidata.org/entity/Q1"));
+		ItemIdValue id2 = ItemIdValueImpl.fromIri(new String("http://www.wikidata.org/entity/Q2"));
+		assertSame(id1.getSiteIri(), id2.getSiteIri());
+	}
+}
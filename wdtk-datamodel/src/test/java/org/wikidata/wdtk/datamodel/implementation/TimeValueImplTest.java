@@ -22,6 +22,8 @@ package org.wikidata.wdtk.datamodel.implementation;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
 
 import java.io.IOException;
 
@@ -172,4 +174,52 @@ public class TimeValueImplTest {
 		assertEquals(TimeValue.CM_GREGORIAN_PRO, gregorian.getPreferredCalendarModel());
 	}
 
+	@Test
+	public void formatTimeLikeStringFormat() {
+		long[] years = { 0, 1, -1, 44, -44, 999, 1000, 2013, -13800000000L, Long.MAX_VALUE, Long.MIN_VALUE };
+		byte[] bytes = { 0, 1, 9, 10, 31, 60, -5 };
+		for (long year : years) {
+			for (byte b : bytes) {
+				assertEquals(String.format("%+04d-%02d-%02dT%02d:%02d:%02dZ", year, b, b, b, b, b),
+						TimeValueImpl.JacksonInnerTime.formatTime(year, b, b, b, b, b));
+			}
+		}
+	}
+
+	@Test
+	public void exactTimeStringRoundTrip() {
+		String[] times = { "+2013-01-01T00:00:00Z", "-13800000000-00-00T00:00:00Z", "+000-01-01T00:00:00Z",
+				"-044-03-15T00:00:00Z", "-0044-03-15T00:00:00Z", "+00000002013-01-01T00:00:00Z", "2013-01-01T00:00:00Z",
+				"+2013-1-1T00:00:00Z", "+2013-01-01T00:00:00", "-0000-01-01T00:00:00Z" };
+		for (String time : times) {
+			TimeValueImpl.JacksonInnerTime value = new TimeValueImpl.JacksonInnerTime(time, 0, 0, 0,
+					TimeValue.PREC_DAY, TimeValue.CM_GREGORIAN_PRO);
+			assertEquals(time, value.getTime());
+		}
+		TimeValueImpl.JacksonInnerTime value = new TimeValueImpl.JacksonInnerTime("+00000002007-05-12T10:45:00Z", 60,
+				0, 1, TimeValue.PREC_SECOND, TimeValue.CM_GREGORIAN_PRO);
+		assertEquals(t1, new TimeValueImpl(value));
+	}
+
+	@Test
+	public void invalidTimeStrings() {
+		String[] times = { "", "+", "+2013", "+2013-01-01", "+2013-01-01T00:00:00Zx", "+2013-01-01T00:00:00.5Z",
+				"+2013-01-0aT00:00:00Z", "+2013-300-01T00:00:00Z" };
+		for (String time : times) {
+			assertThrows(time, IllegalArgumentException.class, () -> new TimeValueImpl.JacksonInnerTime(time, 0,
+					0, 0, TimeValue.PREC_DAY, TimeValue.CM_GREGORIAN_PRO));
+		}
+	}
+
+	@Test
+	public void calendarModelsAreInterned() throws IOException {
+		TimeValue value = mapper.readValue(JSON_TIME_VALUE, TimeValueImpl.class);
+		assertSame(TimeValue.CM_GREGORIAN_PRO, value.getPreferredCalendarModel());
+		String other = "http://www.wikidata.org/entity/Q12138";
+		TimeValue first = new TimeValueImpl(new TimeValueImpl.JacksonInnerTime("+2013-01-01T00:00:00Z", 0, 0, 0,
+				TimeValue.PREC_DAY, new String(other)));
+		TimeValue second = new TimeValueImpl(new TimeValueImpl.JacksonInnerTime("+2013-01-01T00:00:00Z", 0, 0, 0,
+				TimeValue.PREC_DAY, new String(other)));
+		assertSame(first.getPreferredCalendarModel(), second.getPreferredCalendarModel());
+	}
 }
@@ -0,0 +1,176 @@
+package org.wikidata.wdtk.datamodel.interfaces;
+
+/*
+ * #%L
+ * Wikidata Toolkit Data Model
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+
+public class CompiledDocumentDataFilterTest {
+
+	@Test
+	public void testNoFilters() {
+		CompiledDocumentDataFilter filter = new DocumentDataFilter().compile();
+		assertTrue(filter.isEmpty());
+		assertTrue(filter.includeLanguage("en"));
+		assertTrue(filter.includeSiteLink("enwiki"));
+		assertTrue(filter.includePropertyId(Datamodel.makeWikidataPropertyIdValue("P31")));
+		assertTrue(filter.includePropertyId("P31", Datamodel.SITE_WIKIDATA));
+		assertFalse(filter.excludeAllLanguages());
+		assertFalse(filter.excludeAllProperties());
+		assertFalse(filter.excludeAllSiteLinks());
+	}
+
+	@Test
+	public void testEmptyFilters() {
+		DocumentDataFilter documentDataFilter = new DocumentDataFilter();
+		documentDataFilter.setLanguageFilter(Collections.emptySet());
+		documentDataFilter.setPropertyFilter(Collections.emptySet());
+		documentDataFilter.setSiteLinkFilter(Collections.emptySet());
+		CompiledDocumentDataFilter filter = documentDataFilter.compile();
+		assertFalse(filter.isEmpty());
+		assertFalse(filter.includeLanguage("en"));
+		assertFalse(filter.includeSiteLink("enwiki"));
+		assertFalse(filter.includePropertyId(Datamodel.makeWikidataPropertyIdValue("P31")));
+		assertFalse(filter.includePropertyId("P31", Datamodel.SITE_WIKIDATA));
+		assertTrue(filter.excludeAllLanguages());
+		assertTrue(filter.excludeAllProperties());
+		assertTrue(filter.excludeAllSiteLinks());
+	}
+
+	@Test
+	public void testPropertyBitset() {
+		DocumentDataFilter documentDataFilter = new DocumentDataFilter();
+		documentDataFilter.setPropertyFilter(new HashSet<>(Arrays.asList(
+				Datamodel.makeWikidataPropertyIdValue("P31"),
+				Datamodel.makeWikidataPropertyIdValue("P64"),
+				Datamodel.makeWikidataPropertyIdValue("P12345"))));
+		CompiledDocumentDataFilter filter = documentDataFilter.compile();
+		for (String id : new String[] { "P31", "P64", "P12345" }) {
+			assertTrue(filter.includePropertyId(Datamodel.makeWikidataPropertyIdValue(id)));
+			assertTrue(filter.includePropertyId(id, Datamodel.SITE_WIKIDATA));
+			assertFalse(filter.includePropertyId(Datamodel.makePropertyIdValue(id, "http://example.org/entity/")));
+			assertFalse(filter.includePropertyId(id, "http://example.org/entity/"));
+		}
+		for (String id : new String[] { "P1", "P30", "P32", "P63", "P12344", "P999999", "P031", "Q31" }) {
+			assertFalse(filter.includePropertyId(id, Datamodel.SITE_WIKIDATA));
+		}
+		assertFalse(filter.includePropertyId(Datamodel.makeWikidataPropertyIdValue("P999999")));
+	}
+
+	@Test
+	public void testPropertiesOfSeveralSites() {
+		String otherSite = "http://example.org/entity/";
+		DocumentDataFilter documentDataFilter = new DocumentDataFilter();
+		documentDataFilter.setPropertyFilter(new HashSet<>(Arrays.asList(
+				Datamodel.makeWikidataPropertyIdValue("P31"),
+				Datamodel.makePropertyIdValue("P279", otherSite))));
+		CompiledDocumentDataFilter filter = documentDataFilter.compile();
+		assertTrue(filter.includePropertyId(Datamodel.makeWikidataPropertyIdValue("P31")));
+		assertTrue(filter.includePropertyId("P279", otherSite));
+		assertFalse(filter.includePropertyId("P279", Datamodel.SITE_WIKIDATA));
+		assertFalse(filter.includePropertyId(Datamodel.makePropertyIdValue("P31", otherSite)));
+	}
+
+	@Test
+	public void testLanguagesAndSiteLinks() {
+		Set<String> languages = new HashSet<>();
+		for (int i = 0; i < 100; i++) {
+			languages.add("lang" + i);
+		}
+		DocumentDataFilter documentDataFilter = new DocumentDataFilter();
+		documentDataFilter.setLanguageFilter(languages);
+		documentDataFilter.setSiteLinkFilter(Collections.singleton("enwiki"));
+		CompiledDocumentDataFilter filter = documentDataFilter.compile();
+		for (int i = 0; i < 100; i++) {
+			assertTrue(filter.includeLanguage("lang" + i));
+			assertTrue(documentDataFilter.includeLanguage(new String("lang" + i)));
+		}
+		assertFalse(filter.includeLanguage("lang100"));
+		assertFalse(filter.includeLanguage(null));
+		assertTrue(filter.includeSiteLink("enwiki"));
+		assertFalse(filter.includeSiteLink("dewiki"));
+		assertEquals(languages, filter.getLanguageFilter());
+		assertThrows(UnsupportedOperationException.class, () -> filter.getLanguageFilter().add("en"));
+	}
+
+	@Test
+	public void testSetsModifiedInPlace() {
+		Set<String> languages = new HashSet<>(Collections.singleton("en"));
+		Set<PropertyIdValue> properties = new HashSet<>();
+		DocumentDataFilter documentDataFilter = new DocumentDataFilter();
+		documentDataFilter.setLanguageFilter(languages);
+		documentDataFilter.setPropertyFilter(properties);
+		CompiledDocumentDataFilter filter = documentDataFilter.compile();
+		assertSame(filter, documentDataFilter.compile());
+
+		languages.add("de");
+		properties.add(Datamodel.makeWikidataPropertyIdValue("P31"));
+		// the snapshot is unchanged and still reused
+		assertSame(filter, documentDataFilter.compile());
+		assertFalse(filter.includeLanguage("de"));
+		assertEquals(Collections.singleton("en"), filter.getLanguageFilter());
+		assertTrue(filter.excludeAllProperties());
+		// the filter itself sees the change
+		assertTrue(documentDataFilter.includeLanguage("de"));
+		assertTrue(documentDataFilter.includePropertyId(Datamodel.makeWikidataPropertyIdValue("P31")));
+		// setting the sets again compiles them anew
+		documentDataFilter.setLanguageFilter(languages);
+		documentDataFilter.setPropertyFilter(properties);
+		CompiledDocumentDataFilter changed = documentDataFilter.compile();
+		assertNotSame(filter, changed);
+		assertTrue(changed.includeLanguage("de"));
+		assertTrue(changed.includePropertyId("P31", Datamodel.SITE_WIKIDATA));
+		assertEquals(languages, changed.getLanguageFilter());
+	}
+
+	@Test
+	public void testCompiledFilterIsCachedUntilChanged() {
+		DocumentDataFilter documentDataFilter = new DocumentDataFilter();
+		CompiledDocumentDataFilter filter = documentDataFilter.compile();
+		assertSame(filter, documentDataFilter.compile());
+
+		documentDataFilter.setLanguageFilter(Collections.singleton("en"));
+		CompiledDocumentDataFilter changed = documentDataFilter.compile();
+		assertNotSame(filter, changed);
+		assertFalse(documentDataFilter.includeLanguage("de"));
+		assertTrue(documentDataFilter.includeLanguage("en"));
+
+		documentDataFilter.setSiteLinkFilter(Collections.emptySet());
+		assertNotSame(changed, documentDataFilter.compile());
+		assertFalse(documentDataFilter.includeSiteLink("enwiki"));
+
+		documentDataFilter.setPropertyFilter(Collections.singleton(Datamodel.makeWikidataPropertyIdValue("P31")));
+		assertTrue(documentDataFilter.includePropertyId(Datamodel.makeWikidataPropertyIdValue("P31")));
+		assertFalse(documentDataFilter.includePropertyId(Datamodel.makeWikidataPropertyIdValue("P32")));
+	}
+}
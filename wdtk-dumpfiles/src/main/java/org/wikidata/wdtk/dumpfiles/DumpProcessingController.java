@@ -55,6 +55,9 @@ import org.wikidata.wdtk.util.WebResourceFetcherImpl;
  * {@link #registerMwRevisionProcessor(MwRevisionProcessor, String, boolean)}
  * and
  * {@link #registerEntityDocumentProcessor(EntityDocumentProcessor, String, boolean)}.
+ * For JSON dumps, {@link #registerEntityEventHandler(EntityEventHandler)}
+ * registers listeners that receive the data of entities through callbacks
+ * instead of entity documents.
  * <p>
  * For processing the content of wiki pages, there are two modes of operation:
  * revision-based and entity-document-based. The former is used when processing
@@ -141,6 +144,11 @@ public class DumpProcessingController {
 		}
 	}
 
+	/**
+	 * List of all {@link EntityEventHandler} objects registered so far.
+	 */
+	final List<EntityEventHandler> entityEventHandlers = new ArrayList<>();
+
 	/**
 	 * Map of all {@link EntityDocumentProcessor} object registered so far,
 	 * based on the model and revision (current or not) they are registered for.
@@ -182,6 +190,11 @@ public class DumpProcessingController {
 
 	final DocumentDataFilter filter = new DocumentDataFilter();
 
+	/**
+	 * How documents from JSON dumps are created.
+	 */
+	JsonDumpFileProcessor.DocumentMode jsonDocumentMode = JsonDumpFileProcessor.DocumentMode.COMPLETE;
+
 	/**
 	 * Creates a new DumpFileProcessingController for the project of the given
 	 * name. By default, the dump file directory will be assumed to be in the
@@ -238,6 +251,42 @@ public class DumpProcessingController {
 		}
 	}
 
+	/**
+	 * Enables or disables lazy documents for JSON dumps. If enabled, items
+	 * and properties are passed to the processors as views on their JSON
+	 * that only deserialize the parts that are accessed, such as the labels
+	 * or the statements. This can save much time for processors that only
+	 * look at a few parts of each document. Lazy documents keep the JSON of
+	 * the document in memory, so processors that keep many documents should
+	 * not use this.
+	 *
+	 * @param lazyJsonDocumentsEnabled
+	 *            if true, lazy documents are created for JSON dumps
+	 * @see org.wikidata.wdtk.datamodel.implementation.LazyJsonDocumentReader
+	 */
+	public void setLazyJsonDocuments(boolean lazyJsonDocumentsEnabled) {
+		this.jsonDocumentMode = lazyJsonDocumentsEnabled
+				? JsonDumpFileProcessor.DocumentMode.LAZY
+				: JsonDumpFileProcessor.DocumentMode.COMPLETE;
+	}
+
+	/**
+	 * Sets how documents from JSON dumps are created. Besides complete and
+	 * lazy documents (see {@link #setLazyJsonDocuments(boolean)}), this
+	 * allows recycling documents, which avoids allocating a document for
+	 * every item and property, but requires that processors do not keep the
+	 * documents they receive beyond the call that passes them. Use
+	 * {@link JsonDumpFileProcessor.DocumentMode#RECYCLING_CHECKED} to find
+	 * processors that break this rule.
+	 *
+	 * @param documentMode
+	 *            the mode to use for JSON dumps
+	 * @see JsonDumpFileProcessor.DocumentMode
+	 */
+	public void setJsonDocumentMode(JsonDumpFileProcessor.DocumentMode documentMode) {
+		this.jsonDocumentMode = documentMode;
+	}
+
 	/**
 	 * Sets a property filter. If given, all data will be preprocessed to
 	 * contain only statements for the given (main) properties.
@@ -333,6 +382,27 @@ public class DumpProcessingController {
 				this.entityDocumentProcessors);
 	}
 
+	/**
+	 * Registers an EntityEventHandler, which will henceforth be notified of
+	 * the data of all entities in JSON dumps through callbacks, without
+	 * building entity documents. This is an alternative to
+	 * {@link #registerEntityDocumentProcessor(EntityDocumentProcessor, String, boolean)}
+	 * for jobs that only count or extract a few parts of each entity. The
+	 * filters of this controller apply to the reported data.
+	 * <p>
+	 * Entity event handlers are only used for JSON dumps. If entity document
+	 * processors are registered as well, JSON dumps are read twice, once for
+	 * each kind of listener.
+	 *
+	 * @param entityEventHandler
+	 *            the entity event handler to register
+	 * @see JsonEntityEventDumpFileProcessor
+	 */
+	public void registerEntityEventHandler(
+			EntityEventHandler entityEventHandler) {
+		this.entityEventHandlers.add(entityEventHandler);
+	}
+
 	/**
 	 * Processes the most recent dump of the sites table to extract information
 	 * about registered sites.
@@ -447,6 +517,12 @@ public class DumpProcessingController {
 			dumpFileProcessor = getRevisionDumpFileProcessor();
 			break;
 		case JSON:
+			if (!this.entityEventHandlers.isEmpty()) {
+				processDumpFile(dumpFile, getJsonEntityEventDumpFileProcessor());
+				if (this.entityDocumentProcessors.isEmpty()) {
+					return;
+				}
+			}
 			dumpFileProcessor = getJsonDumpFileProcessor();
 			break;
 		case SITES:
@@ -549,7 +625,34 @@ public class DumpProcessingController {
 	 */
 	MwDumpFileProcessor getJsonDumpFileProcessor() {
 		return new JsonDumpFileProcessor(getMasterEntityDocumentProcessor(),
-				Datamodel.SITE_WIKIDATA);
+				Datamodel.SITE_WIKIDATA, jsonDocumentMode);
+	}
+
+	/**
+	 * Return the dump file processor that should be used to send the content
+	 * of JSON dumps to the registered entity event handlers.
+	 *
+	 * @return the MwDumpFileProcessor for entity events
+	 */
+	MwDumpFileProcessor getJsonEntityEventDumpFileProcessor() {
+		EntityEventHandler handler;
+		if (this.entityEventHandlers.size() == 1) {
+			handler = this.entityEventHandlers.get(0);
+		} else {
+			EntityEventHandlerBroker broker = new EntityEventHandlerBroker();
+			for (EntityEventHandler eeh : this.entityEventHandlers) {
+				broker.registerEntityEventHandler(eeh);
+			}
+			handler = broker;
+		}
+
+		if (this.filter.compile().isEmpty()) {
+			return new JsonEntityEventDumpFileProcessor(handler,
+					Datamodel.SITE_WIKIDATA);
+		} else {
+			return new JsonEntityEventDumpFileProcessor(handler,
+					Datamodel.SITE_WIKIDATA, this.filter);
+		}
 	}
 
 	/**
@@ -623,9 +726,7 @@ public class DumpProcessingController {
 	 */
 	private EntityDocumentProcessor filterEntityDocumentProcessor(
 			EntityDocumentProcessor processor) {
-		if (this.filter.getPropertyFilter() == null
-				&& this.filter.getSiteLinkFilter() == null
-				&& this.filter.getLanguageFilter() == null) {
+		if (this.filter.compile().isEmpty()) {
 			return processor;
 		} else {
 			return new EntityDocumentProcessorFilter(
@@ -0,0 +1,278 @@
+package org.wikidata.wdtk.dumpfiles;
+
+/*
+ * #%L
+ * Wikidata Toolkit Dump File Handling
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentProcessor;
+import org.wikidata.wdtk.datamodel.interfaces.EntityRedirectDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+
+/**
+ * Publisher of the entity documents of a dump file, with demand-driven
+ * backpressure. Each subscription reads the dump anew, using an
+ * {@link MwDumpFileProcessor} such as {@link JsonDumpFileProcessor} or an
+ * {@link MwRevisionDumpFileProcessor} with a
+ * {@link WikibaseRevisionProcessor}.
+ * <p>
+ * The dump is read by a task of the given executor, which calls
+ * {@link Flow.Subscriber#onNext(Object)} for each document. When all requested
+ * documents have been sent, the task waits for more demand, so that reading
+ * is paused and at most one document is held back. Cancelling the
+ * subscription stops reading the dump and closes it. Since the task blocks
+ * while there is no demand, the executor should not be shared with
+ * computations, such as the common fork-join pool.
+ */
+public class EntityDocumentPublisher implements Flow.Publisher<EntityDocument> {
+
+	static final Logger logger = LoggerFactory
+			.getLogger(EntityDocumentPublisher.class);
+
+	private final MwDumpFile dumpFile;
+
+	private final Function<EntityDocumentProcessor, MwDumpFileProcessor> dumpFileProcessorFactory;
+
+	private final Executor executor;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param dumpFile
+	 *            the dump to read
+	 * @param dumpFileProcessorFactory
+	 *            function creating a processor for the dump which sends
+	 *            the documents to the given entity document processor
+	 * @param executor
+	 *            the executor that runs the tasks reading the dump
+	 */
+	public EntityDocumentPublisher(MwDumpFile dumpFile,
+			Function<EntityDocumentProcessor, MwDumpFileProcessor> dumpFileProcessorFactory,
+			Executor executor) {
+		this.dumpFile = Objects.requireNonNull(dumpFile, "Dump file cannot be null.");
+		this.dumpFileProcessorFactory = Objects.requireNonNull(
+				dumpFileProcessorFactory, "Dump file processor factory cannot be null.");
+		this.executor = Objects.requireNonNull(executor, "Executor cannot be null.");
+	}
+
+	/**
+	 * Creates a publisher for the documents of a JSON dump.
+	 *
+	 * @param dumpFile
+	 *            the JSON dump to read
+	 * @param siteIri
+	 *            the IRI of the site the dump comes from
+	 * @param executor
+	 *            the executor that runs the tasks reading the dump
+	 * @return the publisher
+	 */
+	public static EntityDocumentPublisher forJsonDump(MwDumpFile dumpFile,
+			String siteIri, Executor executor) {
+		return new EntityDocumentPublisher(dumpFile,
+				processor -> new JsonDumpFileProcessor(processor, siteIri),
+				executor);
+	}
+
+	/**
+	 * Creates a publisher for the documents in the revisions of an XML
+	 * revision dump, including redirects.
+	 *
+	 * @param dumpFile
+	 *            the revision dump to read
+	 * @param siteIri
+	 *            the IRI of the site the dump comes from
+	 * @param executor
+	 *            the executor that runs the tasks reading the dump
+	 * @return the publisher
+	 */
+	public static EntityDocumentPublisher forRevisionDump(MwDumpFile dumpFile,
+			String siteIri, Executor executor) {
+		return new EntityDocumentPublisher(dumpFile,
+				processor -> new MwRevisionDumpFileProcessor(
+						new WikibaseRevisionProcessor(processor, siteIri)),
+				executor);
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super EntityDocument> subscriber) {
+		Objects.requireNonNull(subscriber, "Subscriber cannot be null.");
+		DumpSubscription subscription = new DumpSubscription(subscriber);
+		subscriber.onSubscribe(subscription);
+		try {
+			executor.execute(subscription::run);
+		} catch (RuntimeException e) {
+			subscriber.onError(e);
+		}
+	}
+
+	/**
+	 * Thrown by the processor of a subscription to stop reading the dump
+	 * once the subscription is cancelled.
+	 */
+	private static class CancellationException extends RuntimeException {
+		private static final long serialVersionUID = 4117584417466375829L;
+
+		CancellationException() {
+			super(null, null, false, false);
+		}
+	}
+
+	/**
+	 * Subscription which reads the dump and hands the documents to the
+	 * subscriber as they are requested.
+	 */
+	private class DumpSubscription implements Flow.Subscription, EntityDocumentProcessor {
+
+		private final Flow.Subscriber<? super EntityDocument> subscriber;
+
+		/**
+		 * Number of documents requested but not yet sent, guarded by this
+		 * object.
+		 */
+		private long demand = 0;
+
+		private boolean cancelled = false;
+
+		/**
+		 * Error to send to the subscriber, set when it requested an invalid
+		 * number of documents.
+		 */
+		private Throwable requestError;
+
+		DumpSubscription(Flow.Subscriber<? super EntityDocument> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public synchronized void request(long n) {
+			if (n <= 0) {
+				if (requestError == null && !cancelled) {
+					requestError = new IllegalArgumentException(
+							"The number of requested documents must be positive, but was " + n + ".");
+				}
+				cancelled = true;
+			} else {
+				demand += n;
+				if (demand < 0) {
+					demand = Long.MAX_VALUE;
+				}
+			}
+			notifyAll();
+		}
+
+		@Override
+		public synchronized void cancel() {
+			cancelled = true;
+			notifyAll();
+		}
+
+		/**
+		 * Reads the dump, and signals its completion or failure.
+		 */
+		void run() {
+			Throwable error = null;
+			try (InputStream inputStream = dumpFile.getDumpFileStream()) {
+				dumpFileProcessorFactory.apply(this).processDumpFileContents(
+						inputStream, dumpFile);
+			} catch (CancellationException e) {
+				// the subscription was cancelled
+			} catch (Exception e) {
+				error = e;
+			}
+			synchronized (this) {
+				if (requestError != null) {
+					error = requestError;
+				} else if (cancelled) {
+					if (error != null) {
+						logger.warn("Error when reading cancelled dump " + dumpFile
+								+ ": " + error);
+					}
+					return;
+				}
+				cancelled = true;
+			}
+			if (error != null) {
+				subscriber.onError(error);
+			} else {
+				subscriber.onComplete();
+			}
+		}
+
+		/**
+		 * Sends a document to the subscriber once it is requested.
+		 *
+		 * @throws CancellationException
+		 *             if the subscription was cancelled
+		 */
+		private void publish(EntityDocument document) {
+			synchronized (this) {
+				while (demand == 0 && !cancelled) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						cancelled = true;
+					}
+				}
+				if (cancelled) {
+					throw new CancellationException();
+				}
+				if (demand != Long.MAX_VALUE) {
+					demand--;
+				}
+			}
+			subscriber.onNext(document);
+		}
+
+		@Override
+		public void processItemDocument(ItemDocument itemDocument) {
+			publish(itemDocument);
+		}
+
+		@Override
+		public void processPropertyDocument(PropertyDocument propertyDocument) {
+			publish(propertyDocument);
+		}
+
+		@Override
+		public void processLexemeDocument(LexemeDocument lexemeDocument) {
+			publish(lexemeDocument);
+		}
+
+		@Override
+		public void processMediaInfoDocument(MediaInfoDocument mediaInfoDocument) {
+			publish(mediaInfoDocument);
+		}
+
+		@Override
+		public void processEntityRedirectDocument(EntityRedirectDocument entityRedirectDocument) {
+			publish(entityRedirectDocument);
+		}
+	}
+}
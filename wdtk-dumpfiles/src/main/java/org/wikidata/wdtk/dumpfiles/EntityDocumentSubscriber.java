@@ -0,0 +1,139 @@
+package org.wikidata.wdtk.dumpfiles;
+
+/*
+ * #%L
+ * Wikidata Toolkit Dump File Handling
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentProcessor;
+
+/**
+ * Subscriber which passes the received documents to an
+ * {@link EntityDocumentProcessor}, so that existing processors can consume
+ * any {@link Flow.Publisher} of documents, such as an
+ * {@link EntityDocumentPublisher}.
+ * <p>
+ * Documents are requested in batches: the subscriber first requests a whole
+ * batch, and then requests more each time half a batch has been processed.
+ * If the processor throws an exception, the subscription is cancelled. The
+ * outcome can be observed with {@link #getCompletion()}.
+ */
+public class EntityDocumentSubscriber implements Flow.Subscriber<EntityDocument> {
+
+	/**
+	 * Number of documents requested at once if no other value is given.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 256;
+
+	private final EntityDocumentProcessor entityDocumentProcessor;
+
+	private final int batchSize;
+
+	private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+	private Flow.Subscription subscription;
+
+	/**
+	 * Number of documents processed since more were requested.
+	 */
+	private int processed = 0;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param entityDocumentProcessor
+	 *            the processor to send the documents to
+	 */
+	public EntityDocumentSubscriber(EntityDocumentProcessor entityDocumentProcessor) {
+		this(entityDocumentProcessor, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param entityDocumentProcessor
+	 *            the processor to send the documents to
+	 * @param batchSize
+	 *            the maximal number of documents requested at once
+	 * @throws IllegalArgumentException
+	 *             if {@code batchSize} is not positive
+	 */
+	public EntityDocumentSubscriber(EntityDocumentProcessor entityDocumentProcessor,
+			int batchSize) {
+		this.entityDocumentProcessor = Objects.requireNonNull(entityDocumentProcessor,
+				"Entity document processor cannot be null.");
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("Batch size must be positive.");
+		}
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Returns a future that completes when the publisher has sent all
+	 * documents, or completes exceptionally when the publisher or the
+	 * processor fails.
+	 *
+	 * @return the completion of this subscriber
+	 */
+	public CompletableFuture<Void> getCompletion() {
+		return completion;
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		if (this.subscription != null) {
+			subscription.cancel();
+			return;
+		}
+		this.subscription = subscription;
+		subscription.request(batchSize);
+	}
+
+	@Override
+	public void onNext(EntityDocument document) {
+		if (completion.isDone()) {
+			return;
+		}
+		try {
+			JsonDumpFileProcessor.dispatchDocument(document, entityDocumentProcessor);
+		} catch (RuntimeException e) {
+			subscription.cancel();
+			completion.completeExceptionally(e);
+			return;
+		}
+		processed++;
+		if (processed >= Math.max(1, batchSize / 2)) {
+			subscription.request(processed);
+			processed = 0;
+		}
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+		completion.completeExceptionally(throwable);
+	}
+
+	@Override
+	public void onComplete() {
+		completion.complete(null);
+	}
+}
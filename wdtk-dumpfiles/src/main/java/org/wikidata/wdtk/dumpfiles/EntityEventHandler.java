@@ -0,0 +1,165 @@
+package org.wikidata.wdtk.dumpfiles;
+
+/*
+ * #%L
+ * Wikidata Toolkit Dump File Handling
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.wikidata.wdtk.datamodel.interfaces.StatementRank;
+import org.wikidata.wdtk.datamodel.interfaces.Value;
+
+/**
+ * Interface for classes that process the entities of JSON dumps as a stream
+ * of events, in the style of SAX. The events are generated directly from the
+ * tokens of the JSON parser, without building entity documents, which makes
+ * this much cheaper than an {@link org.wikidata.wdtk.datamodel.interfaces.EntityDocumentProcessor}
+ * for jobs that count or extract a few pieces of data.
+ * <p>
+ * For each entity, {@link #onEntityStart(String, String)} is called first and
+ * {@link #onEntityEnd(String)} last. In between, the events for the terms,
+ * statements and site links follow in the order in which they appear in the
+ * JSON. All other methods return true if the handler wants to receive further
+ * events for the current entity; once a method returns false, the remainder of
+ * the entity is skipped, up to the call of {@link #onEntityEnd(String)}. The
+ * default implementations do nothing and return true.
+ * <p>
+ * Only the top-level data of entities is reported: the statements of the
+ * forms and senses of lexemes are not, and neither are references. Snaks
+ * without a value (some value and no value) only generate their statement
+ * event.
+ *
+ * @see JsonEntityEventDumpFileProcessor
+ */
+public interface EntityEventHandler {
+
+	/**
+	 * Called at the start of an entity.
+	 *
+	 * @param entityId
+	 *            the id of the entity, such as "Q42"
+	 * @param entityType
+	 *            the type of the entity as given in JSON, such as "item" or
+	 *            "property"
+	 * @return true to receive the events of this entity, false to skip it
+	 */
+	default boolean onEntityStart(String entityId, String entityType) {
+		return true;
+	}
+
+	/**
+	 * Called for each label of the current entity.
+	 *
+	 * @param languageCode
+	 *            the language code of the label
+	 * @param text
+	 *            the text of the label
+	 * @return false to skip the rest of the entity
+	 */
+	default boolean onLabel(String languageCode, String text) {
+		return true;
+	}
+
+	/**
+	 * Called for each description of the current entity.
+	 *
+	 * @param languageCode
+	 *            the language code of the description
+	 * @param text
+	 *            the text of the description
+	 * @return false to skip the rest of the entity
+	 */
+	default boolean onDescription(String languageCode, String text) {
+		return true;
+	}
+
+	/**
+	 * Called for each alias of the current entity.
+	 *
+	 * @param languageCode
+	 *            the language code of the alias
+	 * @param text
+	 *            the text of the alias
+	 * @return false to skip the rest of the entity
+	 */
+	default boolean onAlias(String languageCode, String text) {
+		return true;
+	}
+
+	/**
+	 * Called at the start of each statement of the current entity. The
+	 * events for its main snak and qualifiers follow.
+	 *
+	 * @param propertyId
+	 *            the id of the main property of the statement, such as "P31"
+	 * @param rank
+	 *            the rank of the statement
+	 * @return false to skip the rest of the entity
+	 */
+	default boolean onStatement(String propertyId, StatementRank rank) {
+		return true;
+	}
+
+	/**
+	 * Called for the value of the main snak of the current statement, if
+	 * the main snak has a value.
+	 *
+	 * @param propertyId
+	 *            the id of the main property of the statement
+	 * @param value
+	 *            the value of the main snak
+	 * @return false to skip the rest of the entity
+	 */
+	default boolean onMainSnakValue(String propertyId, Value value) {
+		return true;
+	}
+
+	/**
+	 * Called for each qualifier of the current statement that has a value.
+	 *
+	 * @param propertyId
+	 *            the id of the property of the qualifier
+	 * @param value
+	 *            the value of the qualifier
+	 * @return false to skip the rest of the entity
+	 */
+	default boolean onQualifier(String propertyId, Value value) {
+		return true;
+	}
+
+	/**
+	 * Called for each site link of the current entity.
+	 *
+	 * @param siteKey
+	 *            the key of the site, such as "enwiki"
+	 * @param pageTitle
+	 *            the title of the linked page
+	 * @return false to skip the rest of the entity
+	 */
+	default boolean onSitelink(String siteKey, String pageTitle) {
+		return true;
+	}
+
+	/**
+	 * Called at the end of each entity, even if it was skipped.
+	 *
+	 * @param entityId
+	 *            the id of the entity
+	 */
+	default void onEntityEnd(String entityId) {
+	}
+}
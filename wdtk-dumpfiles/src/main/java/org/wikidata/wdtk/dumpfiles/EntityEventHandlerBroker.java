@@ -0,0 +1,133 @@
+package org.wikidata.wdtk.dumpfiles;
+
+/*
+ * #%L
+ * Wikidata Toolkit Dump File Handling
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.wikidata.wdtk.datamodel.interfaces.StatementRank;
+import org.wikidata.wdtk.datamodel.interfaces.Value;
+
+/**
+ * Broker implementation of {@link EntityEventHandler} which distributes
+ * events to multiple registered handlers. Each handler only receives the
+ * events of an entity until it asks to skip the rest of it. The broker asks
+ * to skip the rest of an entity once all handlers have done so.
+ */
+public class EntityEventHandlerBroker implements EntityEventHandler {
+
+	private final List<EntityEventHandler> entityEventHandlers = new ArrayList<>();
+
+	/**
+	 * Whether the handler of the same index still wants the events of the
+	 * current entity.
+	 */
+	private boolean[] active = new boolean[0];
+
+	/**
+	 * Registers a handler which will be called for all entities that are
+	 * processed. The exact same object cannot be registered twice.
+	 *
+	 * @param entityEventHandler
+	 *            the handler to register
+	 */
+	public void registerEntityEventHandler(EntityEventHandler entityEventHandler) {
+		if (!entityEventHandlers.contains(entityEventHandler)) {
+			entityEventHandlers.add(entityEventHandler);
+			active = new boolean[entityEventHandlers.size()];
+		}
+	}
+
+	/**
+	 * Interface for calls of a single handler method.
+	 */
+	@FunctionalInterface
+	private interface Event {
+		boolean sendTo(EntityEventHandler entityEventHandler);
+	}
+
+	/**
+	 * Sends an event to all active handlers and returns true if any of them
+	 * is still active afterwards.
+	 */
+	private boolean send(Event event) {
+		boolean anyActive = false;
+		for (int i = 0; i < active.length; i++) {
+			if (active[i]) {
+				active[i] = event.sendTo(entityEventHandlers.get(i));
+				anyActive |= active[i];
+			}
+		}
+		return anyActive;
+	}
+
+	@Override
+	public boolean onEntityStart(String entityId, String entityType) {
+		boolean anyActive = false;
+		for (int i = 0; i < active.length; i++) {
+			active[i] = entityEventHandlers.get(i).onEntityStart(entityId, entityType);
+			anyActive |= active[i];
+		}
+		return anyActive;
+	}
+
+	@Override
+	public boolean onLabel(String languageCode, String text) {
+		return send(handler -> handler.onLabel(languageCode, text));
+	}
+
+	@Override
+	public boolean onDescription(String languageCode, String text) {
+		return send(handler -> handler.onDescription(languageCode, text));
+	}
+
+	@Override
+	public boolean onAlias(String languageCode, String text) {
+		return send(handler -> handler.onAlias(languageCode, text));
+	}
+
+	@Override
+	public boolean onStatement(String propertyId, StatementRank rank) {
+		return send(handler -> handler.onStatement(propertyId, rank));
+	}
+
+	@Override
+	public boolean onMainSnakValue(String propertyId, Value value) {
+		return send(handler -> handler.onMainSnakValue(propertyId, value));
+	}
+
+	@Override
+	public boolean onQualifier(String propertyId, Value value) {
+		return send(handler -> handler.onQualifier(propertyId, value));
+	}
+
+	@Override
+	public boolean onSitelink(String siteKey, String pageTitle) {
+		return send(handler -> handler.onSitelink(siteKey, pageTitle));
+	}
+
+	@Override
+	public void onEntityEnd(String entityId) {
+		for (EntityEventHandler entityEventHandler : entityEventHandlers) {
+			entityEventHandler.onEntityEnd(entityId);
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package org.wikidata.wdtk.dumpfiles;
+
+/*
+ * #%L
+ * Wikidata Toolkit Dump File Handling
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Interfaces for demand-driven streams of items with backpressure, following
+ * the Reactive Streams specification. They have the same methods as the
+ * interfaces of {@code java.util.concurrent.Flow}, which is not available on
+ * Java 8, so that adapting them to those interfaces only requires wrapping
+ * each method call.
+ *
+ * @see EntityDocumentPublisher
+ * @see EntityDocumentSubscriber
+ */
+public final class Flow {
+
+	private Flow() {
+	}
+
+	/**
+	 * Producer of items that are received by subscribers.
+	 *
+	 * @param <T>
+	 *            the type of the published items
+	 */
+	public interface Publisher<T> {
+
+		/**
+		 * Adds the given subscriber. The publisher calls
+		 * {@link Subscriber#onSubscribe(Subscription)}, and then sends items
+		 * as they are requested.
+		 *
+		 * @param subscriber
+		 *            the subscriber
+		 * @throws NullPointerException
+		 *             if {@code subscriber} is null
+		 */
+		void subscribe(Subscriber<? super T> subscriber);
+	}
+
+	/**
+	 * Receiver of items from a publisher. The methods of a subscriber are
+	 * called in sequence, never concurrently.
+	 *
+	 * @param <T>
+	 *            the type of the received items
+	 */
+	public interface Subscriber<T> {
+
+		/**
+		 * Called before any other method, with the subscription that is used
+		 * to request items or to cancel.
+		 *
+		 * @param subscription
+		 *            the new subscription
+		 */
+		void onSubscribe(Subscription subscription);
+
+		/**
+		 * Called with each requested item.
+		 *
+		 * @param item
+		 *            the item
+		 */
+		void onNext(T item);
+
+		/**
+		 * Called when the publisher fails. No other method is called
+		 * afterwards.
+		 *
+		 * @param throwable
+		 *            the error
+		 */
+		void onError(Throwable throwable);
+
+		/**
+		 * Called when all items have been sent. No other method is called
+		 * afterwards.
+		 */
+		void onComplete();
+	}
+
+	/**
+	 * Link between a publisher and a subscriber.
+	 */
+	public interface Subscription {
+
+		/**
+		 * Requests up to {@code n} more items. Demand accumulates over calls.
+		 * If {@code n} is not positive, the subscriber receives an
+		 * {@link IllegalArgumentException} in
+		 * {@link Subscriber#onError(Throwable)}.
+		 *
+		 * @param n
+		 *            the number of additional items
+		 */
+		void request(long n);
+
+		/**
+		 * Stops sending items to the subscriber. Some items may still be
+		 * received after this call.
+		 */
+		void cancel();
+	}
+}
@@ -24,12 +24,14 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.Arrays;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
 import org.wikidata.wdtk.datamodel.implementation.EntityDocumentImpl;
+import org.wikidata.wdtk.datamodel.implementation.LazyJsonDocumentReader;
 import org.wikidata.wdtk.datamodel.interfaces.*;
 
 import com.fasterxml.jackson.core.JsonParser.Feature;
@@ -48,16 +50,97 @@ public class JsonDumpFileProcessor implements MwDumpFileProcessor {
 	static final Logger logger = LoggerFactory
 			.getLogger(JsonDumpFileProcessor.class);
 
+	/**
+	 * How the documents sent to the processor are created.
+	 */
+	public enum DocumentMode {
+		/**
+		 * Documents are deserialized completely.
+		 */
+		COMPLETE,
+		/**
+		 * Items and properties are lazy views that only deserialize the parts
+		 * of their JSON that are accessed; see {@link LazyJsonDocumentReader}.
+		 */
+		LAZY,
+		/**
+		 * Like {@link #LAZY}, but the documents view the buffer the line was
+		 * read into, and the same document object is reused for all items and
+		 * properties. A document is therefore only valid during the call of
+		 * the processor that receives it, and must not be retained. The
+		 * objects obtained from it, such as its labels and statements, are
+		 * immutable and may be kept.
+		 */
+		RECYCLING,
+		/**
+		 * Debugging variant of {@link #RECYCLING} with the same contract.
+		 * Every item and property is a new object, which is released once the
+		 * processor returns, so that any later access to a retained document
+		 * throws an {@link IllegalStateException}.
+		 */
+		RECYCLING_CHECKED
+	}
+
 	private final ObjectReader documentReader;
 
 	private final EntityDocumentProcessor entityDocumentProcessor;
 
+	/**
+	 * Reader for lazy documents, or null if documents are deserialized
+	 * completely.
+	 */
+	private final LazyJsonDocumentReader lazyDocumentReader;
+
+	private final DocumentMode documentMode;
+
 	public JsonDumpFileProcessor(
 			EntityDocumentProcessor entityDocumentProcessor, String siteIri) {
+		this(entityDocumentProcessor, siteIri, DocumentMode.COMPLETE);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param entityDocumentProcessor
+	 *            the processor to send the documents to
+	 * @param siteIri
+	 *            the IRI of the site the dump comes from
+	 * @param lazyDocuments
+	 *            if true, items and properties are sent to the processor as
+	 *            lazy views that only deserialize the parts of their JSON
+	 *            that are accessed; see {@link LazyJsonDocumentReader}. This
+	 *            requires each entity to be on its own line, as in the dumps
+	 *            published by Wikimedia.
+	 */
+	public JsonDumpFileProcessor(
+			EntityDocumentProcessor entityDocumentProcessor, String siteIri,
+			boolean lazyDocuments) {
+		this(entityDocumentProcessor, siteIri,
+				lazyDocuments ? DocumentMode.LAZY : DocumentMode.COMPLETE);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param entityDocumentProcessor
+	 *            the processor to send the documents to
+	 * @param siteIri
+	 *            the IRI of the site the dump comes from
+	 * @param documentMode
+	 *            how documents are created; all modes but
+	 *            {@link DocumentMode#COMPLETE} require each entity to be on
+	 *            its own line, as in the dumps published by Wikimedia
+	 */
+	public JsonDumpFileProcessor(
+			EntityDocumentProcessor entityDocumentProcessor, String siteIri,
+			DocumentMode documentMode) {
 		this.entityDocumentProcessor = entityDocumentProcessor;
+		this.documentMode = documentMode;
 		this.documentReader = new DatamodelMapper(siteIri)
 				.readerFor(EntityDocumentImpl.class)
 				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
+		this.lazyDocumentReader = documentMode != DocumentMode.COMPLETE
+				? new LazyJsonDocumentReader(siteIri) : null;
 	}
 
 	/**
@@ -75,6 +158,16 @@ public class JsonDumpFileProcessor implements MwDumpFileProcessor {
 
 		logger.info("Processing JSON dump file " + dumpFile.toString());
 
+		if (lazyDocumentReader != null) {
+			try {
+				processDumpFileContentsLazy(inputStream);
+			} catch (IOException e) {
+				throw new RuntimeException("Cannot read JSON input: "
+						+ e.getMessage(), e);
+			}
+			return;
+		}
+
 		try {
 			try {
 				MappingIterator<EntityDocument> documentIterator = documentReader.readValues(inputStream);
@@ -118,18 +211,40 @@ public class JsonDumpFileProcessor implements MwDumpFileProcessor {
 	 *            the document to process
 	 */
 	private void handleDocument(EntityDocument document) {
+		dispatchDocument(document, this.entityDocumentProcessor);
+	}
+
+	/**
+	 * Calls the processing method of the given processor that matches the
+	 * type of the document. Redirects are passed to
+	 * {@link EntityDocumentProcessor#processEntityRedirectDocument(EntityRedirectDocument)};
+	 * JSON dumps do not contain them, but an {@link EntityDocumentPublisher}
+	 * also publishes the redirects it receives, such as those of revision
+	 * dumps, and its subscribers dispatch them here. Documents of other types
+	 * are ignored.
+	 *
+	 * @param document
+	 *            the document to process
+	 * @param entityDocumentProcessor
+	 *            the processor to send it to
+	 */
+	static void dispatchDocument(EntityDocument document,
+			EntityDocumentProcessor entityDocumentProcessor) {
 		if (document instanceof ItemDocument) {
-			this.entityDocumentProcessor
+			entityDocumentProcessor
 					.processItemDocument((ItemDocument) document);
 		} else if (document instanceof PropertyDocument) {
-			this.entityDocumentProcessor
+			entityDocumentProcessor
 					.processPropertyDocument((PropertyDocument) document);
 		} else if(document instanceof LexemeDocument) {
-			this.entityDocumentProcessor
+			entityDocumentProcessor
 					.processLexemeDocument((LexemeDocument) document);
 		} else if(document instanceof MediaInfoDocument) {
-			this.entityDocumentProcessor
+			entityDocumentProcessor
 					.processMediaInfoDocument((MediaInfoDocument) document);
+		} else if (document instanceof EntityRedirectDocument) {
+			entityDocumentProcessor
+					.processEntityRedirectDocument((EntityRedirectDocument) document);
 		}
 	}
 
@@ -186,4 +301,69 @@ public class JsonDumpFileProcessor implements MwDumpFileProcessor {
 			line = br.readLine();
 		}
 	}
+
+	/**
+	 * Process dump file data from the given input stream, creating lazy
+	 * documents. The stream is assumed to contain the JSON serialization of a
+	 * list of JSON entities, with each entity serialization in one line. Lines
+	 * are read as bytes and handed to the {@link LazyJsonDocumentReader}
+	 * without decoding them into strings. Lines that cannot be read are
+	 * logged and skipped.
+	 *
+	 * @param inputStream
+	 *            the stream to read from
+	 * @throws IOException
+	 *             if there is a problem reading the stream
+	 */
+	private void processDumpFileContentsLazy(InputStream inputStream)
+			throws IOException {
+		JsonDumpLineReader lineReader = new JsonDumpLineReader(inputStream);
+		while (lineReader.next()) {
+			processLazyLine(lineReader.getBuffer(), lineReader.getStart(),
+					lineReader.getLength());
+		}
+	}
+
+	/**
+	 * Reads a lazy document from one line of a dump file, as found by a
+	 * {@link JsonDumpLineReader}, and handles it.
+	 *
+	 * @param line
+	 *            the buffer containing the line, which is only retained by
+	 *            the documents of the recycling modes
+	 * @param start
+	 *            the position of the line in the buffer
+	 * @param length
+	 *            the length of the line
+	 */
+	private void processLazyLine(byte[] line, int start, int length) {
+		EntityDocument document;
+		try {
+			switch (documentMode) {
+			case RECYCLING:
+				document = lazyDocumentReader.readRecycledEntityDocument(line,
+						start, length);
+				break;
+			case RECYCLING_CHECKED:
+				document = lazyDocumentReader.readEntityDocument(line, start,
+						length);
+				break;
+			default:
+				document = lazyDocumentReader.readEntityDocument(Arrays
+						.copyOfRange(line, start, start + length));
+				break;
+			}
+		} catch (IOException e) {
+			JsonDumpLineReader.logError(JsonDumpFileProcessor.logger, e, line,
+					start, length);
+			return;
+		}
+		try {
+			handleDocument(document);
+		} finally {
+			if (documentMode == DocumentMode.RECYCLING_CHECKED) {
+				LazyJsonDocumentReader.release(document);
+			}
+		}
+	}
 }
@@ -0,0 +1,246 @@
+package org.wikidata.wdtk.dumpfiles;
+
+/*
+ * #%L
+ * Wikidata Toolkit Dump File Handling
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+import org.wikidata.wdtk.datamodel.implementation.EntityDocumentImpl;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Spliterator over the entity documents of a JSON dump, which is read from an
+ * input stream with one entity per line, as in the dumps published by
+ * Wikimedia. It is the basis of {@link MwDumpFile#entities()}.
+ * <p>
+ * Splitting reads a batch of lines from the stream, without deserializing
+ * them, and returns a spliterator over this batch. Documents are only
+ * deserialized when they are consumed, so that in a parallel stream the
+ * deserialization is done by the worker threads. Batches grow from
+ * {@value #BATCH_SIZE_INCREMENT} up to {@value #MAX_BATCH_SIZE} lines, like
+ * in other spliterators over sources of unknown size.
+ * <p>
+ * Lines that cannot be deserialized are logged and skipped. Errors when
+ * reading the stream are thrown as {@link UncheckedIOException}. The
+ * spliterator does not close the stream; use
+ * {@link #stream(InputStream, String)} for a stream that closes it.
+ */
+public class JsonDumpFileSpliterator implements Spliterator<EntityDocument> {
+
+	static final Logger logger = LoggerFactory
+			.getLogger(JsonDumpFileSpliterator.class);
+
+	/**
+	 * Number of lines by which the size of each batch exceeds the previous
+	 * one.
+	 */
+	static final int BATCH_SIZE_INCREMENT = 256;
+
+	/**
+	 * Maximal number of lines in a batch.
+	 */
+	static final int MAX_BATCH_SIZE = 4096;
+
+	private final JsonDumpLineReader lineReader;
+
+	private final ObjectReader documentReader;
+
+	private int batchSize = 0;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inputStream
+	 *            the stream to read the dump from
+	 * @param siteIri
+	 *            the IRI of the site the dump comes from
+	 */
+	public JsonDumpFileSpliterator(InputStream inputStream, String siteIri) {
+		this.lineReader = new JsonDumpLineReader(inputStream);
+		this.documentReader = new DatamodelMapper(siteIri)
+				.readerFor(EntityDocumentImpl.class)
+				.with(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
+	}
+
+	/**
+	 * Creates a sequential stream of the entity documents of a JSON dump.
+	 * Closing the stream closes the input stream. The stream can be made
+	 * parallel with {@link Stream#parallel()}.
+	 *
+	 * @param inputStream
+	 *            the stream to read the dump from
+	 * @param siteIri
+	 *            the IRI of the site the dump comes from
+	 * @return the stream of documents
+	 */
+	public static Stream<EntityDocument> stream(InputStream inputStream,
+			String siteIri) {
+		return StreamSupport.stream(
+				new JsonDumpFileSpliterator(inputStream, siteIri), false)
+				.onClose(() -> {
+					try {
+						inputStream.close();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super EntityDocument> action) {
+		byte[] json;
+		while ((json = nextDocumentLine()) != null) {
+			EntityDocument document = readDocument(documentReader, json);
+			if (document != null) {
+				action.accept(document);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Spliterator<EntityDocument> trySplit() {
+		int size = Math.min(batchSize + BATCH_SIZE_INCREMENT, MAX_BATCH_SIZE);
+		byte[][] batch = new byte[size][];
+		int count = 0;
+		byte[] json;
+		while (count < size && (json = nextDocumentLine()) != null) {
+			batch[count++] = json;
+		}
+		if (count == 0) {
+			return null;
+		}
+		batchSize = size;
+		return new BatchSpliterator(documentReader, batch, 0, count);
+	}
+
+	@Override
+	public long estimateSize() {
+		return Long.MAX_VALUE;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL;
+	}
+
+	/**
+	 * Deserializes a document, logging errors.
+	 *
+	 * @return the document, or null if it could not be read
+	 */
+	static EntityDocument readDocument(ObjectReader documentReader,
+			byte[] json) {
+		try {
+			return documentReader.readValue(json);
+		} catch (IOException e) {
+			JsonDumpLineReader.logError(logger, e, json, 0, json.length);
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the next line that contains a JSON object, without the
+	 * surrounding whitespace and the separating comma.
+	 *
+	 * @return the bytes of the object, or null at the end of the stream
+	 */
+	private byte[] nextDocumentLine() {
+		try {
+			return lineReader.next() ? lineReader.copyLine() : null;
+		} catch (IOException e) {
+			throw new UncheckedIOException(
+					"Cannot read JSON input: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Spliterator over a batch of lines that have been read but not yet
+	 * deserialized.
+	 */
+	private static class BatchSpliterator implements Spliterator<EntityDocument> {
+
+		private final ObjectReader documentReader;
+
+		private final byte[][] lines;
+
+		private int index;
+
+		private final int end;
+
+		BatchSpliterator(ObjectReader documentReader, byte[][] lines,
+				int start, int end) {
+			this.documentReader = documentReader;
+			this.lines = lines;
+			this.index = start;
+			this.end = end;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super EntityDocument> action) {
+			while (index < end) {
+				byte[] json = lines[index];
+				// drops the line so that the batch does not keep it in memory
+				lines[index++] = null;
+				EntityDocument document = readDocument(documentReader, json);
+				if (document != null) {
+					action.accept(document);
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public Spliterator<EntityDocument> trySplit() {
+			int middle = (index + end) >>> 1;
+			if (middle <= index) {
+				return null;
+			}
+			Spliterator<EntityDocument> prefix = new BatchSpliterator(
+					documentReader, lines, index, middle);
+			index = middle;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return end - index;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | NONNULL;
+		}
+	}
+}
@@ -0,0 +1,193 @@
+package org.wikidata.wdtk.dumpfiles;
+
+/*
+ * #%L
+ * Wikidata Toolkit Dump File Handling
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+
+/**
+ * Reads the lines of a JSON dump that contain entities, with one entity per
+ * line, as in the dumps published by Wikimedia. The lines are read as bytes
+ * into a buffer which is reused for each line, and the surrounding whitespace
+ * and the separating comma are removed. Lines that do not contain an object,
+ * such as the enclosing brackets, are skipped.
+ * <p>
+ * This is shared by the lazy mode of {@link JsonDumpFileProcessor} and by
+ * {@link JsonDumpFileSpliterator}.
+ */
+class JsonDumpLineReader {
+
+	private final InputStream inputStream;
+
+	private final byte[] chunk = new byte[1 << 16];
+
+	private int chunkStart = 0;
+
+	private int chunkEnd = 0;
+
+	private byte[] line = new byte[1 << 16];
+
+	private int start = 0;
+
+	private int end = 0;
+
+	/**
+	 * Constructor. The stream is not closed by this object.
+	 *
+	 * @param inputStream
+	 *            the stream to read the dump from
+	 */
+	JsonDumpLineReader(InputStream inputStream) {
+		this.inputStream = inputStream;
+	}
+
+	/**
+	 * Moves to the next line that contains a JSON object.
+	 *
+	 * @return false at the end of the stream
+	 * @throws IOException
+	 *             if the stream cannot be read
+	 */
+	boolean next() throws IOException {
+		int length;
+		while ((length = readLine()) >= 0) {
+			int lineStart = 0;
+			int lineEnd = length;
+			while (lineStart < lineEnd && this.line[lineStart] <= ' ') {
+				lineStart++;
+			}
+			while (lineEnd > lineStart && (this.line[lineEnd - 1] <= ' '
+					|| this.line[lineEnd - 1] == ',')) {
+				lineEnd--;
+			}
+			if (lineStart < lineEnd && this.line[lineStart] == '{') {
+				this.start = lineStart;
+				this.end = lineEnd;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the buffer containing the current line. It is overwritten by
+	 * the next call of {@link #next()}, and it may be replaced by a larger
+	 * buffer.
+	 *
+	 * @return the buffer
+	 */
+	byte[] getBuffer() {
+		return this.line;
+	}
+
+	/**
+	 * Returns the position of the current line in the buffer.
+	 *
+	 * @return the index of the first byte of the line
+	 */
+	int getStart() {
+		return this.start;
+	}
+
+	/**
+	 * Returns the length of the current line.
+	 *
+	 * @return the number of bytes of the line
+	 */
+	int getLength() {
+		return this.end - this.start;
+	}
+
+	/**
+	 * Returns a copy of the current line.
+	 *
+	 * @return a new array with the bytes of the line
+	 */
+	byte[] copyLine() {
+		return Arrays.copyOfRange(this.line, this.start, this.end);
+	}
+
+	/**
+	 * Reads the next line into the line buffer.
+	 *
+	 * @return the length of the line, or -1 at the end of the stream
+	 */
+	private int readLine() throws IOException {
+		int length = 0;
+		boolean found = false;
+		while (true) {
+			if (this.chunkStart == this.chunkEnd) {
+				int read = this.inputStream.read(this.chunk);
+				if (read == -1) {
+					return found ? length : -1;
+				}
+				this.chunkStart = 0;
+				this.chunkEnd = read;
+			}
+			found = true;
+			int i = this.chunkStart;
+			while (i < this.chunkEnd && this.chunk[i] != '\n') {
+				i++;
+			}
+			int count = i - this.chunkStart;
+			if (length + count > this.line.length) {
+				this.line = Arrays.copyOf(this.line,
+						Math.max(2 * this.line.length, length + count));
+			}
+			System.arraycopy(this.chunk, this.chunkStart, this.line, length,
+					count);
+			length += count;
+			if (i < this.chunkEnd) {
+				this.chunkStart = i + 1;
+				return length;
+			}
+			this.chunkStart = this.chunkEnd;
+		}
+	}
+
+	/**
+	 * Logs that a line could not be deserialized, with its beginning.
+	 *
+	 * @param logger
+	 *            the logger to use
+	 * @param exception
+	 *            the error that occurred
+	 * @param line
+	 *            the buffer containing the line
+	 * @param start
+	 *            the position of the line in the buffer
+	 * @param length
+	 *            the length of the line
+	 */
+	static void logError(Logger logger, IOException exception, byte[] line,
+			int start, int length) {
+		logger.error("Error when reading JSON for entity: "
+				+ exception.getMessage());
+		logger.error("Problematic line was: "
+				+ new String(line, start, Math.min(50, length),
+						StandardCharsets.UTF_8) + "...");
+	}
+
+}
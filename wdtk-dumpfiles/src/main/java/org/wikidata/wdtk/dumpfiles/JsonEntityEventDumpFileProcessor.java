@@ -0,0 +1,500 @@
+package org.wikidata.wdtk.dumpfiles;
+
+/*
+ * #%L
+ * Wikidata Toolkit Dump File Handling
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+import org.wikidata.wdtk.datamodel.implementation.SnakImpl;
+import org.wikidata.wdtk.datamodel.interfaces.CompiledDocumentDataFilter;
+import org.wikidata.wdtk.datamodel.interfaces.DocumentDataFilter;
+import org.wikidata.wdtk.datamodel.interfaces.Snak;
+import org.wikidata.wdtk.datamodel.interfaces.StatementRank;
+import org.wikidata.wdtk.datamodel.interfaces.ValueSnak;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Processor for JSON dumpfiles which reports the entities to an
+ * {@link EntityEventHandler}. The events are generated while the JSON is
+ * tokenized; only the snaks of statements are deserialized, one at a time.
+ * Everything a handler does not look at, including the remainder of skipped
+ * entities, is only tokenized.
+ * <p>
+ * The events of a statement are sent once the statement has been read, since
+ * the rank usually follows the main snak in JSON. If the id of an entity
+ * comes after some of its sections, these sections are buffered until the id
+ * is found. In the dumps published by Wikimedia, the type and id are always
+ * the first fields.
+ * <p>
+ * If a {@link DocumentDataFilter} is given, terms in other languages,
+ * statements for other properties and links to other sites are not
+ * reported.
+ */
+public class JsonEntityEventDumpFileProcessor implements MwDumpFileProcessor {
+
+	static final Logger logger = LoggerFactory
+			.getLogger(JsonEntityEventDumpFileProcessor.class);
+
+	private final EntityEventHandler entityEventHandler;
+
+	private final String siteIri;
+
+	/**
+	 * The filter for the reported data, or null if all data is reported.
+	 */
+	private final DocumentDataFilter filter;
+
+	/**
+	 * The compiled form of {@link #filter} for the entity being processed,
+	 * so that changes of the filter apply from the next entity on.
+	 */
+	private CompiledDocumentDataFilter compiledFilter;
+
+	private final ObjectReader snakReader;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param entityEventHandler
+	 *            the handler to send the events to
+	 * @param siteIri
+	 *            the IRI of the site the dump comes from
+	 */
+	public JsonEntityEventDumpFileProcessor(
+			EntityEventHandler entityEventHandler, String siteIri) {
+		this(entityEventHandler, siteIri, null);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param entityEventHandler
+	 *            the handler to send the events to
+	 * @param siteIri
+	 *            the IRI of the site the dump comes from
+	 * @param filter
+	 *            the filter for the reported data, or null to report all data
+	 */
+	public JsonEntityEventDumpFileProcessor(
+			EntityEventHandler entityEventHandler, String siteIri,
+			DocumentDataFilter filter) {
+		this.entityEventHandler = entityEventHandler;
+		this.siteIri = siteIri;
+		this.filter = filter;
+		this.snakReader = new DatamodelMapper(siteIri)
+				.readerFor(SnakImpl.class);
+	}
+
+	/**
+	 * Process dump file data from the given input stream. If an error occurs
+	 * in one entity, the rest of the file is processed line by line with
+	 * {@link #processDumpFileContentsRecovery(InputStream)}.
+	 *
+	 * @see MwDumpFileProcessor#processDumpFileContents(InputStream, MwDumpFile)
+	 */
+	@Override
+	public void processDumpFileContents(InputStream inputStream,
+			MwDumpFile dumpFile) {
+
+		logger.info("Processing JSON dump file " + dumpFile.toString()
+				+ " as entity events");
+
+		try {
+			try (JsonParser parser = snakReader.getFactory().createParser(
+					inputStream)) {
+				parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+				JsonToken token = parser.nextToken();
+				if (token == JsonToken.START_ARRAY) {
+					token = parser.nextToken();
+				}
+				while (token == JsonToken.START_OBJECT) {
+					processEntity(parser);
+					token = parser.nextToken();
+				}
+			} catch (JsonProcessingException e) {
+				logJsonProcessingException(e);
+				processDumpFileContentsRecovery(inputStream);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("Cannot read JSON input: "
+					+ e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Process dump file data from the given input stream, with each entity
+	 * serialization in one line. To recover from the previous error, the
+	 * first line is skipped.
+	 *
+	 * @param inputStream
+	 *            the stream to read from
+	 * @throws IOException
+	 *             if there is a problem reading the stream
+	 */
+	private void processDumpFileContentsRecovery(InputStream inputStream)
+			throws IOException {
+		JsonEntityEventDumpFileProcessor.logger
+				.warn("Entering recovery mode to parse rest of file. This might be slightly slower.");
+
+		BufferedReader br = new BufferedReader(new InputStreamReader(
+				inputStream, StandardCharsets.UTF_8));
+
+		String line = br.readLine();
+		if (line == null) {
+			return;
+		}
+		JsonEntityEventDumpFileProcessor.logger
+				.warn("Skipping rest of current line.");
+
+		line = br.readLine();
+		while (line != null && line.length() > 1) {
+			if (line.charAt(line.length() - 1) == ',') {
+				line = line.substring(0, line.length() - 1);
+			}
+			try (JsonParser parser = snakReader.getFactory().createParser(
+					line)) {
+				if (parser.nextToken() == JsonToken.START_OBJECT) {
+					processEntity(parser);
+				}
+			} catch (JsonProcessingException e) {
+				logJsonProcessingException(e);
+				JsonEntityEventDumpFileProcessor.logger
+						.error("Problematic line was: "
+								+ line.substring(0, Math.min(50, line.length()))
+								+ "...");
+			}
+			line = br.readLine();
+		}
+	}
+
+	private void logJsonProcessingException(JsonProcessingException exception) {
+		JsonEntityEventDumpFileProcessor.logger
+				.error("Error when reading JSON for entity: "
+						+ exception.getMessage());
+	}
+
+	/**
+	 * Reads one entity and sends its events to the handler.
+	 *
+	 * @param parser
+	 *            the parser, positioned at the start of the entity; it is
+	 *            left at the end of the entity
+	 * @throws IOException
+	 *             if the JSON cannot be read
+	 */
+	void processEntity(JsonParser parser) throws IOException {
+		this.compiledFilter = this.filter == null ? null : this.filter.compile();
+		String type = null;
+		String id = null;
+		boolean started = false;
+		boolean active = false;
+		TokenBuffer pendingSections = null;
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.currentName();
+			parser.nextToken();
+			if ("type".equals(field)) {
+				type = parser.getValueAsString();
+			} else if ("id".equals(field)) {
+				id = parser.getValueAsString();
+			} else if (!isSection(field)) {
+				parser.skipChildren();
+			} else {
+				if (!started && type != null && id != null) {
+					active = entityEventHandler.onEntityStart(id, type);
+					started = true;
+				}
+				if (started) {
+					active = processSection(field, parser, active);
+				} else {
+					if (pendingSections == null) {
+						pendingSections = new TokenBuffer(parser, null);
+						pendingSections.writeStartObject();
+					}
+					pendingSections.writeFieldName(field);
+					pendingSections.copyCurrentStructure(parser);
+				}
+			}
+		}
+
+		if (!started) {
+			active = entityEventHandler.onEntityStart(id, type);
+		}
+		if (pendingSections != null) {
+			pendingSections.writeEndObject();
+			try (JsonParser replay = pendingSections.asParser(parser)) {
+				replay.nextToken();
+				while (replay.nextToken() == JsonToken.FIELD_NAME) {
+					String field = replay.currentName();
+					replay.nextToken();
+					active = processSection(field, replay, active);
+				}
+			}
+		}
+		entityEventHandler.onEntityEnd(id);
+	}
+
+	private static boolean isSection(String field) {
+		switch (field) {
+		case "labels":
+		case "descriptions":
+		case "aliases":
+		case "claims":
+		case "statements":
+		case "sitelinks":
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Reads a top-level section of an entity, or skips it if the handler does
+	 * not want further events.
+	 *
+	 * @return true if the handler still wants events for the entity
+	 */
+	private boolean processSection(String field, JsonParser parser,
+			boolean active) throws IOException {
+		if (!active || parser.currentToken() != JsonToken.START_OBJECT) {
+			// null, or an empty array for an empty map
+			parser.skipChildren();
+			return active;
+		}
+		switch (field) {
+		case "labels":
+		case "descriptions":
+			return processTerms(parser, "labels".equals(field));
+		case "aliases":
+			return processAliases(parser);
+		case "claims":
+		case "statements":
+			return processStatements(parser);
+		case "sitelinks":
+			return processSiteLinks(parser);
+		default:
+			parser.skipChildren();
+			return true;
+		}
+	}
+
+	private boolean includeLanguage(String languageCode) {
+		return compiledFilter == null || compiledFilter.includeLanguage(languageCode);
+	}
+
+	private boolean includeProperty(String propertyId) {
+		return compiledFilter == null
+				|| compiledFilter.includePropertyId(propertyId, siteIri);
+	}
+
+	private boolean includeSiteLink(String siteKey) {
+		return compiledFilter == null || compiledFilter.includeSiteLink(siteKey);
+	}
+
+	private boolean processTerms(JsonParser parser, boolean labels)
+			throws IOException {
+		boolean active = true;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String languageCode = parser.currentName();
+			parser.nextToken();
+			if (!active || !includeLanguage(languageCode)) {
+				parser.skipChildren();
+				continue;
+			}
+			String text = readTermText(parser);
+			if (text != null) {
+				active = labels
+						? entityEventHandler.onLabel(languageCode, text)
+						: entityEventHandler.onDescription(languageCode, text);
+			}
+		}
+		return active;
+	}
+
+	private boolean processAliases(JsonParser parser) throws IOException {
+		boolean active = true;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String languageCode = parser.currentName();
+			parser.nextToken();
+			if (!active || !includeLanguage(languageCode)
+					|| parser.currentToken() != JsonToken.START_ARRAY) {
+				parser.skipChildren();
+				continue;
+			}
+			while (parser.nextToken() != JsonToken.END_ARRAY) {
+				String text = active ? readTermText(parser) : null;
+				if (text != null) {
+					active = entityEventHandler.onAlias(languageCode, text);
+				} else {
+					parser.skipChildren();
+				}
+			}
+		}
+		return active;
+	}
+
+	/**
+	 * Reads the text of a term object, or returns null if there is no term.
+	 */
+	private static String readTermText(JsonParser parser) throws IOException {
+		if (parser.currentToken() != JsonToken.START_OBJECT) {
+			parser.skipChildren();
+			return null;
+		}
+		String text = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.currentName();
+			parser.nextToken();
+			if ("value".equals(field)) {
+				text = parser.getValueAsString();
+			} else {
+				parser.skipChildren();
+			}
+		}
+		return text;
+	}
+
+	private boolean processStatements(JsonParser parser) throws IOException {
+		boolean active = true;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String propertyId = parser.currentName();
+			parser.nextToken();
+			if (!active || !includeProperty(propertyId)
+					|| parser.currentToken() != JsonToken.START_ARRAY) {
+				parser.skipChildren();
+				continue;
+			}
+			while (parser.nextToken() != JsonToken.END_ARRAY) {
+				if (active) {
+					active = processStatement(parser, propertyId);
+				} else {
+					parser.skipChildren();
+				}
+			}
+		}
+		return active;
+	}
+
+	/**
+	 * Reads a statement and sends its events.
+	 *
+	 * @return true if the handler still wants events for the entity
+	 */
+	private boolean processStatement(JsonParser parser, String propertyId)
+			throws IOException {
+		StatementRank rank = StatementRank.NORMAL;
+		Snak mainSnak = null;
+		List<ValueSnak> qualifiers = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.currentName();
+			parser.nextToken();
+			switch (field) {
+			case "rank":
+				rank = StatementRank.valueOf(parser.getText().toUpperCase());
+				break;
+			case "mainsnak":
+				mainSnak = snakReader.readValue(parser);
+				break;
+			case "qualifiers":
+				qualifiers = readQualifiers(parser);
+				break;
+			default:
+				parser.skipChildren();
+			}
+		}
+
+		boolean active = entityEventHandler.onStatement(propertyId, rank);
+		if (active && mainSnak instanceof ValueSnak) {
+			active = entityEventHandler.onMainSnakValue(propertyId,
+					((ValueSnak) mainSnak).getValue());
+		}
+		if (qualifiers != null) {
+			for (int i = 0; active && i < qualifiers.size(); i++) {
+				ValueSnak qualifier = qualifiers.get(i);
+				active = entityEventHandler.onQualifier(qualifier
+						.getPropertyId().getId(), qualifier.getValue());
+			}
+		}
+		return active;
+	}
+
+	/**
+	 * Reads the qualifiers of a statement, keeping those with a value.
+	 */
+	private List<ValueSnak> readQualifiers(JsonParser parser)
+			throws IOException {
+		List<ValueSnak> qualifiers = new ArrayList<>();
+		if (parser.currentToken() != JsonToken.START_OBJECT) {
+			parser.skipChildren();
+			return qualifiers;
+		}
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				parser.skipChildren();
+				continue;
+			}
+			while (parser.nextToken() != JsonToken.END_ARRAY) {
+				Snak snak = snakReader.readValue(parser);
+				if (snak instanceof ValueSnak) {
+					qualifiers.add((ValueSnak) snak);
+				}
+			}
+		}
+		return qualifiers;
+	}
+
+	private boolean processSiteLinks(JsonParser parser) throws IOException {
+		boolean active = true;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String siteKey = parser.currentName();
+			parser.nextToken();
+			if (!active || !includeSiteLink(siteKey)) {
+				parser.skipChildren();
+				continue;
+			}
+			String title = null;
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.currentName();
+				parser.nextToken();
+				if ("title".equals(field)) {
+					title = parser.getValueAsString();
+				} else {
+					parser.skipChildren();
+				}
+			}
+			active = entityEventHandler.onSitelink(siteKey, title);
+		}
+		return active;
+	}
+}
@@ -24,6 +24,10 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
 
 /**
  * Representation of MediaWiki dump files, which provides access to important
@@ -120,4 +124,44 @@ public interface MwDumpFile {
 	 *             if there was a problem preparing the files
 	 */
 	void prepareDumpFile() throws IOException;
+
+	/**
+	 * Returns a stream of the entity documents of this JSON dump, using
+	 * Wikidata as the site the dump comes from. See
+	 * {@link #entities(String)}.
+	 *
+	 * @return the stream of documents, which must be closed after use
+	 * @throws IOException
+	 *             if the dump file contents could not be accessed
+	 */
+	default Stream<EntityDocument> entities() throws IOException {
+		return entities(Datamodel.SITE_WIKIDATA);
+	}
+
+	/**
+	 * Returns a stream of the entity documents of this JSON dump. The stream
+	 * is sequential, but can be made parallel with {@link Stream#parallel()},
+	 * in which case the documents are also deserialized in parallel; see
+	 * {@link JsonDumpFileSpliterator}. Lines which cannot be read as entity
+	 * documents are logged and skipped.
+	 * <p>
+	 * It is important to close the stream after use, for instance with a
+	 * try-with-resources statement, since this closes the dump file.
+	 *
+	 * @param siteIri
+	 *            the IRI of the site the dump comes from
+	 * @return the stream of documents, which must be closed after use
+	 * @throws IOException
+	 *             if the dump file contents could not be accessed
+	 * @throws UnsupportedOperationException
+	 *             if this is not a JSON dump
+	 */
+	default Stream<EntityDocument> entities(String siteIri) throws IOException {
+		if (getDumpContentType() != DumpContentType.JSON) {
+			throw new UnsupportedOperationException(
+					"Entity streams are only available for JSON dumps, not for "
+							+ getDumpContentType() + " dumps.");
+		}
+		return JsonDumpFileSpliterator.stream(getDumpFileStream(), siteIri);
+	}
 }
@@ -0,0 +1,226 @@
+package org.wikidata.wdtk.dumpfiles;
+
+/*
+ * #%L
+ * Wikidata Toolkit Dump File Handling
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentProcessor;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.testing.MockDirectoryManager;
+import org.wikidata.wdtk.testing.MockStringContentFactory;
+import org.wikidata.wdtk.util.DirectoryManagerFactory;
+
+public class EntityDocumentPublisherTest {
+
+	MockDirectoryManager dm;
+	Path dmPath;
+	ExecutorService executor;
+
+	/**
+	 * Subscriber which records the documents and the final signal.
+	 */
+	static class RecordingSubscriber implements Flow.Subscriber<EntityDocument> {
+
+		final long initialRequest;
+		final List<String> ids = new CopyOnWriteArrayList<>();
+		final CompletableFuture<Void> completion = new CompletableFuture<>();
+		volatile Flow.Subscription subscription;
+
+		RecordingSubscriber(long initialRequest) {
+			this.initialRequest = initialRequest;
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+			subscription.request(initialRequest);
+		}
+
+		@Override
+		public void onNext(EntityDocument item) {
+			ids.add(item.getEntityId().getId());
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			completion.completeExceptionally(throwable);
+		}
+
+		@Override
+		public void onComplete() {
+			completion.complete(null);
+		}
+
+		void awaitDocuments(int count) throws InterruptedException {
+			long deadline = System.currentTimeMillis() + 10000;
+			while (ids.size() < count && System.currentTimeMillis() < deadline) {
+				Thread.sleep(5);
+			}
+		}
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		DirectoryManagerFactory
+				.setDirectoryManagerClass(MockDirectoryManager.class);
+		this.dmPath = Paths.get("/").toAbsolutePath();
+		this.dm = new MockDirectoryManager(this.dmPath, true, true);
+		this.executor = Executors.newSingleThreadExecutor();
+	}
+
+	@After
+	public void tearDown() {
+		this.executor.shutdownNow();
+	}
+
+	static String makeJsonDump(int count) {
+		return IntStream.range(0, count)
+				.mapToObj(i -> "{\"type\":\"item\",\"id\":\"Q" + i + "\"}")
+				.collect(Collectors.joining(",\n", "[\n", "\n]\n"));
+	}
+
+	static List<String> makeIds(int count) {
+		return IntStream.range(0, count).mapToObj(i -> "Q" + i)
+				.collect(Collectors.toList());
+	}
+
+	MwDumpFile makeJsonDumpFile(String contents) throws IOException {
+		this.dm.setFileContents(this.dmPath.resolve("testdump-20150512.json"),
+				contents);
+		return new MwLocalDumpFile("/testdump-20150512.json",
+				DumpContentType.JSON, "20150512", "wikidatawiki");
+	}
+
+	@Test
+	public void testPublishesAllDocuments() throws Exception {
+		String dump = MockStringContentFactory.getStringFromUrl(
+				EntityDocumentPublisherTest.class.getResource("/mock-dump-for-testing.json"));
+		MwDumpFile dumpFile = makeJsonDumpFile(dump);
+		List<String> expected;
+		try (Stream<EntityDocument> documents = dumpFile.entities()) {
+			expected = documents.map(document -> document.getEntityId().getId())
+					.collect(Collectors.toList());
+		}
+
+		RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+		EntityDocumentPublisher.forJsonDump(dumpFile, Datamodel.SITE_WIKIDATA, executor)
+				.subscribe(subscriber);
+		subscriber.completion.get(10, TimeUnit.SECONDS);
+
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, subscriber.ids);
+	}
+
+	@Test
+	public void testHonorsDemandAndCancellation() throws Exception {
+		MwDumpFile dumpFile = makeJsonDumpFile(makeJsonDump(1000));
+		RecordingSubscriber subscriber = new RecordingSubscriber(2);
+		EntityDocumentPublisher.forJsonDump(dumpFile, Datamodel.SITE_WIKIDATA, executor)
+				.subscribe(subscriber);
+
+		subscriber.awaitDocuments(2);
+		Thread.sleep(100);
+		assertEquals(makeIds(2), subscriber.ids);
+
+		subscriber.subscription.request(3);
+		subscriber.awaitDocuments(5);
+		Thread.sleep(100);
+		assertEquals(makeIds(5), subscriber.ids);
+
+		subscriber.subscription.cancel();
+		executor.shutdown();
+		// the task stops reading the dump
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		assertEquals(makeIds(5), subscriber.ids);
+		assertFalse(subscriber.completion.isDone());
+	}
+
+	@Test
+	public void testInvalidRequest() throws Exception {
+		MwDumpFile dumpFile = makeJsonDumpFile(makeJsonDump(10));
+		RecordingSubscriber subscriber = new RecordingSubscriber(0);
+		EntityDocumentPublisher.forJsonDump(dumpFile, Datamodel.SITE_WIKIDATA, executor)
+				.subscribe(subscriber);
+
+		ExecutionException e = assertThrows(ExecutionException.class,
+				() -> subscriber.completion.get(10, TimeUnit.SECONDS));
+		assertTrue(e.getCause() instanceof IllegalArgumentException);
+		assertTrue(subscriber.ids.isEmpty());
+	}
+
+	@Test
+	public void testMissingDumpFile() throws Exception {
+		RecordingSubscriber subscriber = new RecordingSubscriber(10);
+		EntityDocumentPublisher.forJsonDump(
+				new MwLocalDumpFile("/missing-20150512.json",
+						DumpContentType.JSON, "20150512", "wikidatawiki"),
+				Datamodel.SITE_WIKIDATA, executor).subscribe(subscriber);
+
+		ExecutionException e = assertThrows(ExecutionException.class,
+				() -> subscriber.completion.get(10, TimeUnit.SECONDS));
+		assertTrue(e.getCause() instanceof IOException);
+	}
+
+	@Test
+	public void testRevisionDump() throws Exception {
+		this.dm.setFileContents(this.dmPath.resolve("testdump-20140220.xml"),
+				MockStringContentFactory.getStringFromUrl(EntityDocumentPublisherTest.class
+						.getResource("/mock-dump-for-testing.xml")));
+		MwDumpFile dumpFile = new MwLocalDumpFile("/testdump-20140220.xml",
+				DumpContentType.FULL, "20140220", "wikidatawiki");
+
+		List<EntityDocument> documents = new CopyOnWriteArrayList<>();
+		EntityDocumentSubscriber subscriber = new EntityDocumentSubscriber(
+				new EntityDocumentProcessor() {
+					@Override
+					public void processItemDocument(ItemDocument itemDocument) {
+						documents.add(itemDocument);
+					}
+				}, 1);
+		EntityDocumentPublisher.forRevisionDump(dumpFile, Datamodel.SITE_WIKIDATA, executor)
+				.subscribe(subscriber);
+		subscriber.getCompletion().get(10, TimeUnit.SECONDS);
+
+		assertFalse(documents.isEmpty());
+	}
+}
@@ -0,0 +1,207 @@
+package org.wikidata.wdtk.dumpfiles;
+
+/*
+ * #%L
+ * Wikidata Toolkit Dump File Handling
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Test;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.JsonDeserializer;
+import org.wikidata.wdtk.datamodel.interfaces.DatatypeIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentProcessor;
+import org.wikidata.wdtk.datamodel.interfaces.EntityRedirectDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+
+public class EntityDocumentSubscriberTest {
+
+	/**
+	 * Publisher which sends a list of documents on the calling thread as
+	 * they are requested, and records the requests.
+	 */
+	static class ListPublisher implements Flow.Publisher<EntityDocument>, Flow.Subscription {
+
+		final List<EntityDocument> documents;
+		final List<Long> requests = new ArrayList<>();
+		Flow.Subscriber<? super EntityDocument> subscriber;
+		int next = 0;
+		long demand = 0;
+		boolean cancelled = false;
+		boolean emitting = false;
+
+		ListPublisher(List<EntityDocument> documents) {
+			this.documents = documents;
+		}
+
+		@Override
+		public void subscribe(Flow.Subscriber<? super EntityDocument> subscriber) {
+			this.subscriber = subscriber;
+			subscriber.onSubscribe(this);
+		}
+
+		@Override
+		public void request(long n) {
+			requests.add(n);
+			demand += n;
+			if (emitting) {
+				return;
+			}
+			emitting = true;
+			while (demand > 0 && !cancelled && next < documents.size()) {
+				demand--;
+				subscriber.onNext(documents.get(next++));
+			}
+			emitting = false;
+			if (!cancelled && next == documents.size()) {
+				cancelled = true;
+				subscriber.onComplete();
+			}
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+		}
+	}
+
+	static List<EntityDocument> makeDocuments(int count) {
+		List<EntityDocument> documents = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			documents.add(i % 2 == 0
+					? Datamodel.makeItemDocument(Datamodel.makeWikidataItemIdValue("Q" + i))
+					: Datamodel.makePropertyDocument(Datamodel.makeWikidataPropertyIdValue("P" + i),
+							Datamodel.makeDatatypeIdValueFromJsonString(DatatypeIdValue.JSON_DT_STRING)));
+		}
+		return documents;
+	}
+
+	@Test
+	public void testProcessesAllDocumentsInBatches() throws Exception {
+		List<EntityDocument> documents = makeDocuments(10);
+		List<EntityDocument> processed = new ArrayList<>();
+		EntityDocumentSubscriber subscriber = new EntityDocumentSubscriber(
+				new EntityDocumentProcessor() {
+					@Override
+					public void processItemDocument(ItemDocument itemDocument) {
+						processed.add(itemDocument);
+					}
+
+					@Override
+					public void processPropertyDocument(PropertyDocument propertyDocument) {
+						processed.add(propertyDocument);
+					}
+				}, 4);
+		ListPublisher publisher = new ListPublisher(documents);
+		publisher.subscribe(subscriber);
+
+		subscriber.getCompletion().get();
+		assertEquals(documents, processed);
+		assertEquals(4L, (long) publisher.requests.get(0));
+		assertTrue(publisher.requests.stream().allMatch(n -> n == 4 || n == 2));
+	}
+
+	@Test
+	public void testProcessorErrorCancels() {
+		ListPublisher publisher = new ListPublisher(makeDocuments(10));
+		RuntimeException error = new RuntimeException("failed");
+		EntityDocumentSubscriber subscriber = new EntityDocumentSubscriber(
+				new EntityDocumentProcessor() {
+					@Override
+					public void processPropertyDocument(PropertyDocument propertyDocument) {
+						throw error;
+					}
+				});
+		publisher.subscribe(subscriber);
+
+		ExecutionException e = assertThrows(ExecutionException.class,
+				() -> subscriber.getCompletion().get());
+		assertEquals(error, e.getCause());
+		assertTrue(publisher.cancelled);
+		assertEquals(2, publisher.next);
+	}
+
+	@Test
+	public void testPublisherError() {
+		EntityDocumentSubscriber subscriber = new EntityDocumentSubscriber(
+				new EntityDocumentProcessor() {
+				});
+		subscriber.onSubscribe(new Flow.Subscription() {
+			@Override
+			public void request(long n) {
+			}
+
+			@Override
+			public void cancel() {
+			}
+		});
+		IllegalStateException error = new IllegalStateException();
+		subscriber.onError(error);
+
+		ExecutionException e = assertThrows(ExecutionException.class,
+				() -> subscriber.getCompletion().get());
+		assertEquals(error, e.getCause());
+	}
+
+	@Test
+	public void testForwardsRedirects() throws Exception {
+		EntityRedirectDocument redirect = new JsonDeserializer(Datamodel.SITE_WIKIDATA)
+				.deserializeEntityRedirectDocument(
+						"{\"entity\":\"Q1\",\"redirect\":\"Q2\",\"lastrevid\":42}");
+		List<EntityDocument> documents = new ArrayList<>(makeDocuments(2));
+		documents.add(1, redirect);
+		List<EntityDocument> processed = new ArrayList<>();
+		EntityDocumentSubscriber subscriber = new EntityDocumentSubscriber(
+				new EntityDocumentProcessor() {
+					@Override
+					public void processItemDocument(ItemDocument itemDocument) {
+						processed.add(itemDocument);
+					}
+
+					@Override
+					public void processPropertyDocument(PropertyDocument propertyDocument) {
+						processed.add(propertyDocument);
+					}
+
+					@Override
+					public void processEntityRedirectDocument(
+							EntityRedirectDocument entityRedirectDocument) {
+						processed.add(entityRedirectDocument);
+					}
+				});
+		new ListPublisher(documents).subscribe(subscriber);
+
+		subscriber.getCompletion().get();
+		assertEquals(documents, processed);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidBatchSize() {
+		new EntityDocumentSubscriber(new EntityDocumentProcessor() {
+		}, 0);
+	}
+}
@@ -21,17 +21,44 @@ package org.wikidata.wdtk.dumpfiles;
  */
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.net.URL;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.junit.Ignore;
 import org.junit.Test;
+import org.wikidata.wdtk.datamodel.implementation.DataObjectFactoryImpl;
+import org.wikidata.wdtk.datamodel.implementation.LazyJsonDocumentReader;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelConverter;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
 import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentProcessor;
 import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+import org.wikidata.wdtk.datamodel.interfaces.SiteLink;
+import org.wikidata.wdtk.datamodel.interfaces.Snak;
+import org.wikidata.wdtk.datamodel.interfaces.SnakGroup;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+import org.wikidata.wdtk.datamodel.interfaces.StatementRank;
+import org.wikidata.wdtk.datamodel.interfaces.TermedStatementDocument;
+import org.wikidata.wdtk.datamodel.interfaces.Value;
+import org.wikidata.wdtk.datamodel.interfaces.ValueSnak;
+import org.wikidata.wdtk.dumpfiles.JsonDumpFileProcessor.DocumentMode;
 import org.wikidata.wdtk.dumpfiles.wmf.WmfDumpFile;
 import org.wikidata.wdtk.testing.MockDirectoryManager;
 import org.wikidata.wdtk.testing.MockStringContentFactory;
@@ -68,6 +95,154 @@ public class JsonDumpFileProcessingTest {
 
 	}
 
+	/**
+	 * Test class that keeps all documents.
+	 */
+	private static class CollectingDocumentProcessor implements EntityDocumentProcessor {
+
+		final List<EntityDocument> documents = new ArrayList<>();
+
+		/**
+		 * Converter used to copy the documents before keeping them, or null
+		 * if the documents are kept as they are.
+		 */
+		final DatamodelConverter converter;
+
+		CollectingDocumentProcessor() {
+			this(null);
+		}
+
+		CollectingDocumentProcessor(DatamodelConverter converter) {
+			this.converter = converter;
+		}
+
+		@Override
+		public void processItemDocument(ItemDocument itemDocument) {
+			documents.add(converter == null ? itemDocument : converter.copy(itemDocument));
+		}
+
+		@Override
+		public void processPropertyDocument(PropertyDocument propertyDocument) {
+			documents.add(converter == null ? propertyDocument : converter.copy(propertyDocument));
+		}
+
+		@Override
+		public void processLexemeDocument(LexemeDocument lexemeDocument) {
+			documents.add(converter == null ? lexemeDocument : converter.copy(lexemeDocument));
+		}
+	}
+
+	/**
+	 * Test class that records all events as strings, grouped by entity.
+	 */
+	private static class RecordingEventHandler implements EntityEventHandler {
+
+		final List<String> entityIds = new ArrayList<>();
+		final List<Set<String>> entityEvents = new ArrayList<>();
+		Set<String> events;
+		int ended = 0;
+
+		@Override
+		public boolean onEntityStart(String entityId, String entityType) {
+			entityIds.add(entityId);
+			events = new HashSet<>();
+			entityEvents.add(events);
+			return true;
+		}
+
+		@Override
+		public boolean onLabel(String languageCode, String text) {
+			events.add("label " + languageCode + " " + text);
+			return true;
+		}
+
+		@Override
+		public boolean onDescription(String languageCode, String text) {
+			events.add("description " + languageCode + " " + text);
+			return true;
+		}
+
+		@Override
+		public boolean onAlias(String languageCode, String text) {
+			events.add("alias " + languageCode + " " + text);
+			return true;
+		}
+
+		@Override
+		public boolean onStatement(String propertyId, StatementRank rank) {
+			events.add("statement " + propertyId + " " + rank);
+			return true;
+		}
+
+		@Override
+		public boolean onMainSnakValue(String propertyId, Value value) {
+			events.add("value " + propertyId + " " + value);
+			return true;
+		}
+
+		@Override
+		public boolean onQualifier(String propertyId, Value value) {
+			events.add("qualifier " + propertyId + " " + value);
+			return true;
+		}
+
+		@Override
+		public boolean onSitelink(String siteKey, String pageTitle) {
+			events.add("sitelink " + siteKey + " " + pageTitle);
+			return true;
+		}
+
+		@Override
+		public void onEntityEnd(String entityId) {
+			ended++;
+		}
+	}
+
+	/**
+	 * Returns the events expected for a document, as recorded by
+	 * {@link RecordingEventHandler}.
+	 */
+	private static Set<String> getExpectedEvents(EntityDocument document) {
+		Set<String> events = new HashSet<>();
+		if (!(document instanceof TermedStatementDocument)) {
+			return events;
+		}
+		TermedStatementDocument termed = (TermedStatementDocument) document;
+		for (MonolingualTextValue label : termed.getLabels().values()) {
+			events.add("label " + label.getLanguageCode() + " " + label.getText());
+		}
+		for (MonolingualTextValue description : termed.getDescriptions().values()) {
+			events.add("description " + description.getLanguageCode() + " " + description.getText());
+		}
+		for (List<MonolingualTextValue> aliases : termed.getAliases().values()) {
+			for (MonolingualTextValue alias : aliases) {
+				events.add("alias " + alias.getLanguageCode() + " " + alias.getText());
+			}
+		}
+		for (Iterator<Statement> it = termed.getAllStatements(); it.hasNext();) {
+			Statement statement = it.next();
+			String propertyId = statement.getMainSnak().getPropertyId().getId();
+			events.add("statement " + propertyId + " " + statement.getRank());
+			if (statement.getValue() != null) {
+				events.add("value " + propertyId + " " + statement.getValue());
+			}
+			for (SnakGroup group : statement.getQualifiers()) {
+				for (Snak snak : group) {
+					if (snak instanceof ValueSnak) {
+						events.add("qualifier " + group.getProperty().getId() + " "
+								+ ((ValueSnak) snak).getValue());
+					}
+				}
+			}
+		}
+		if (document instanceof ItemDocument) {
+			for (Map.Entry<String, SiteLink> entry : ((ItemDocument) document).getSiteLinks().entrySet()) {
+				events.add("sitelink " + entry.getKey() + " " + entry.getValue().getPageTitle());
+			}
+		}
+		return events;
+	}
+
 	@Test
 	public void testRegularJsonProcessing() throws IOException {
 		Path dmPath = Paths.get(System.getProperty("user.dir"));
@@ -110,6 +285,177 @@ public class JsonDumpFileProcessingTest {
 		assertTrue(timer.entityCount >= 3);
 	}
 
+	@Test
+	public void testLazyJsonProcessing() throws IOException {
+		for (String fileName : new String[] { "mock-dump-for-testing.json",
+				"mock-dump-with-bugs.json" }) {
+			List<EntityDocument> expected = processJsonDump(fileName, false);
+			List<EntityDocument> lazy = processJsonDump(fileName, true);
+
+			assertTrue(lazy.size() >= expected.size());
+			assertTrue(lazy.containsAll(expected));
+			assertTrue(lazy.stream().anyMatch(LazyJsonDocumentReader::isLazy));
+		}
+	}
+
+	@Test
+	public void testLazyJsonProcessingEqualsRegularProcessing() throws IOException {
+		assertEquals(processJsonDump("mock-dump-for-testing.json", false),
+				processJsonDump("mock-dump-for-testing.json", true));
+	}
+
+	@Test
+	public void testRecyclingJsonProcessingEqualsRegularProcessing() throws IOException {
+		List<EntityDocument> expected = processJsonDump("mock-dump-for-testing.json", false);
+		for (DocumentMode mode : new DocumentMode[] { DocumentMode.RECYCLING,
+				DocumentMode.RECYCLING_CHECKED }) {
+			CollectingDocumentProcessor processor = new CollectingDocumentProcessor(
+					new DatamodelConverter(new DataObjectFactoryImpl()));
+			processJsonDump("mock-dump-for-testing.json", mode, processor);
+			assertEquals(expected, processor.documents);
+		}
+	}
+
+	@Test
+	public void testRetainedRecycledDocumentsAreDetected() throws IOException {
+		CollectingDocumentProcessor processor = new CollectingDocumentProcessor();
+		processJsonDump("mock-dump-for-testing.json",
+				DocumentMode.RECYCLING_CHECKED, processor);
+
+		List<EntityDocument> lazy = processor.documents.stream()
+				.filter(LazyJsonDocumentReader::isLazy)
+				.collect(Collectors.toList());
+		assertFalse(lazy.isEmpty());
+		for (EntityDocument document : lazy) {
+			assertThrows(IllegalStateException.class,
+					() -> ((TermedStatementDocument) document).getLabels());
+			assertThrows(IllegalStateException.class, document::getEntityId);
+		}
+	}
+
+	@Test
+	public void testEntityEventProcessing() throws IOException {
+		List<EntityDocument> documents = processJsonDump(
+				"mock-dump-for-testing.json", false);
+
+		DumpProcessingController dpc = createController("mock-dump-for-testing.json");
+		RecordingEventHandler handler = new RecordingEventHandler();
+		dpc.registerEntityEventHandler(handler);
+		dpc.processMostRecentJsonDump();
+
+		assertEquals(documents.size(), handler.entityIds.size());
+		assertEquals(documents.size(), handler.ended);
+		for (int i = 0; i < documents.size(); i++) {
+			assertEquals(documents.get(i).getEntityId().getId(),
+					handler.entityIds.get(i));
+			assertEquals(getExpectedEvents(documents.get(i)),
+					handler.entityEvents.get(i));
+		}
+	}
+
+	@Test
+	public void testEntityEventSkipping() throws IOException {
+		DumpProcessingController dpc = createController("mock-dump-for-testing.json");
+		RecordingEventHandler recorder = new RecordingEventHandler();
+		List<String> firstStatements = new ArrayList<>();
+		List<String> ended = new ArrayList<>();
+		dpc.registerEntityEventHandler(recorder);
+		dpc.registerEntityEventHandler(new EntityEventHandler() {
+
+			@Override
+			public boolean onEntityStart(String entityId, String entityType) {
+				return "item".equals(entityType);
+			}
+
+			@Override
+			public boolean onStatement(String propertyId, StatementRank rank) {
+				firstStatements.add(propertyId);
+				return false;
+			}
+
+			@Override
+			public void onEntityEnd(String entityId) {
+				ended.add(entityId);
+			}
+		});
+		dpc.processMostRecentJsonDump();
+
+		assertEquals(recorder.entityIds, ended);
+		assertEquals(2, firstStatements.size());
+		// the other handler still receives all events
+		assertEquals(getExpectedEvents(processJsonDump(
+				"mock-dump-for-testing.json", false).get(0)),
+				recorder.entityEvents.get(0));
+	}
+
+	@Test
+	public void testFilteredEntityEventProcessing() throws IOException {
+		DumpProcessingController dpc = createController("mock-dump-for-testing.json");
+		dpc.setLanguageFilter(Collections.emptySet());
+		dpc.setSiteLinkFilter(Collections.emptySet());
+		dpc.setPropertyFilter(Collections.singleton(
+				Datamodel.makeWikidataPropertyIdValue("P18")));
+		RecordingEventHandler handler = new RecordingEventHandler();
+		dpc.registerEntityEventHandler(handler);
+		dpc.processMostRecentJsonDump();
+
+		for (Set<String> events : handler.entityEvents) {
+			for (String event : events) {
+				assertTrue(event, event.startsWith("statement P18 ")
+						|| event.startsWith("value P18 "));
+			}
+		}
+		assertTrue(handler.entityEvents.get(0).contains(
+				"statement P18 NORMAL"));
+	}
+
+	@Test
+	public void testBuggyEntityEventProcessing() throws IOException {
+		DumpProcessingController dpc = createController("mock-dump-with-bugs.json");
+		RecordingEventHandler handler = new RecordingEventHandler();
+		dpc.registerEntityEventHandler(handler);
+		dpc.processMostRecentJsonDump();
+
+		assertTrue(handler.entityIds.size() >= 3);
+	}
+
+	private DumpProcessingController createController(String fileName)
+			throws IOException {
+		Path dmPath = Paths.get(System.getProperty("user.dir"));
+		MockDirectoryManager dm = new MockDirectoryManager(dmPath, true, true);
+		setLocalJsonDumpFile(fileName, "20150223", dm);
+
+		DumpProcessingController dpc = new DumpProcessingController(
+				"wikidatawiki");
+		dpc.downloadDirectoryManager = dm;
+		dpc.setOfflineMode(true);
+		return dpc;
+	}
+
+	private List<EntityDocument> processJsonDump(String fileName,
+			boolean lazy) throws IOException {
+		CollectingDocumentProcessor processor = new CollectingDocumentProcessor();
+		processJsonDump(fileName, lazy ? DocumentMode.LAZY : DocumentMode.COMPLETE,
+				processor);
+		return processor.documents;
+	}
+
+	private void processJsonDump(String fileName, DocumentMode documentMode,
+			EntityDocumentProcessor processor) throws IOException {
+		Path dmPath = Paths.get(System.getProperty("user.dir"));
+		MockDirectoryManager dm = new MockDirectoryManager(dmPath, true, true);
+		setLocalJsonDumpFile(fileName, "20150223", dm);
+
+		DumpProcessingController dpc = new DumpProcessingController(
+				"wikidatawiki");
+		dpc.downloadDirectoryManager = dm;
+		dpc.setOfflineMode(true);
+		dpc.setJsonDocumentMode(documentMode);
+
+		dpc.registerEntityDocumentProcessor(processor, null, true);
+		dpc.processMostRecentJsonDump();
+	}
+
 	/**
 	 * TODO: fix on JDK 9 and enable again
 	 */
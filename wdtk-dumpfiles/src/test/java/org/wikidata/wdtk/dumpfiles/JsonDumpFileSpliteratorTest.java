@@ -0,0 +1,132 @@
+package org.wikidata.wdtk.dumpfiles;
+
+/*
+ * #%L
+ * Wikidata Toolkit Dump File Handling
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+
+public class JsonDumpFileSpliteratorTest {
+
+	/**
+	 * Input stream which records whether it has been closed.
+	 */
+	private static class ClosingInputStream extends ByteArrayInputStream {
+
+		boolean closed = false;
+
+		ClosingInputStream(byte[] bytes) {
+			super(bytes);
+		}
+
+		@Override
+		public void close() throws IOException {
+			closed = true;
+			super.close();
+		}
+	}
+
+	private static ClosingInputStream makeDump(int count) {
+		String dump = IntStream.range(0, count)
+				.mapToObj(i -> "{\"type\":\"item\",\"id\":\"Q" + i + "\",\"labels\":{},\"descriptions\":{},"
+						+ "\"aliases\":{},\"claims\":{},\"sitelinks\":{}}")
+				.collect(Collectors.joining(",\n", "[\n", "\n]\n"));
+		return new ClosingInputStream(dump.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static List<String> getIds(Stream<EntityDocument> documents) {
+		return documents.map(document -> document.getEntityId().getId())
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void testSequentialStream() throws IOException {
+		try (Stream<EntityDocument> documents = JsonDumpFileSpliterator.stream(
+				makeDump(1000), Datamodel.SITE_WIKIDATA)) {
+			assertEquals(
+					IntStream.range(0, 1000).mapToObj(i -> "Q" + i).collect(Collectors.toList()),
+					getIds(documents));
+		}
+	}
+
+	@Test
+	public void testParallelStreamKeepsOrder() throws IOException {
+		int count = 3 * JsonDumpFileSpliterator.MAX_BATCH_SIZE;
+		try (Stream<EntityDocument> documents = JsonDumpFileSpliterator.stream(
+				makeDump(count), Datamodel.SITE_WIKIDATA)) {
+			assertEquals(
+					IntStream.range(0, count).mapToObj(i -> "Q" + i).collect(Collectors.toList()),
+					getIds(documents.parallel()));
+		}
+	}
+
+	@Test
+	public void testSplitting() {
+		JsonDumpFileSpliterator spliterator = new JsonDumpFileSpliterator(
+				makeDump(1000), Datamodel.SITE_WIKIDATA);
+
+		Spliterator<EntityDocument> first = spliterator.trySplit();
+		assertEquals(JsonDumpFileSpliterator.BATCH_SIZE_INCREMENT, first.estimateSize());
+		Spliterator<EntityDocument> second = spliterator.trySplit();
+		assertEquals(2 * JsonDumpFileSpliterator.BATCH_SIZE_INCREMENT, second.estimateSize());
+
+		Spliterator<EntityDocument> half = second.trySplit();
+		assertEquals(JsonDumpFileSpliterator.BATCH_SIZE_INCREMENT, half.estimateSize());
+		half.tryAdvance(document -> assertEquals("Q256", document.getEntityId().getId()));
+		second.tryAdvance(document -> assertEquals("Q512", document.getEntityId().getId()));
+		spliterator.tryAdvance(document -> assertEquals("Q768", document.getEntityId().getId()));
+	}
+
+	@Test
+	public void testMalformedLinesAreSkipped() {
+		String dump = "[\n{\"type\":\"item\",\"id\":\"Q1\"},\n"
+				+ "{\"type\":\"item\",\"id\":\n"
+				+ "{\"type\":\"item\",\"id\":\"Q3\"}\n]";
+		try (Stream<EntityDocument> documents = JsonDumpFileSpliterator.stream(
+				new ByteArrayInputStream(dump.getBytes(StandardCharsets.UTF_8)),
+				Datamodel.SITE_WIKIDATA)) {
+			assertEquals(Arrays.asList("Q1", "Q3"), getIds(documents));
+		}
+	}
+
+	@Test
+	public void testCloseClosesInput() {
+		ClosingInputStream input = makeDump(10);
+		try (Stream<EntityDocument> documents = JsonDumpFileSpliterator.stream(
+				input, Datamodel.SITE_WIKIDATA)) {
+			assertEquals(3, documents.limit(3).count());
+		}
+		assertTrue(input.closed);
+	}
+}
@@ -0,0 +1,82 @@
+package org.wikidata.wdtk.dumpfiles;
+
+/*
+ * #%L
+ * Wikidata Toolkit Dump File Handling
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class JsonDumpLineReaderTest {
+
+	static List<String> readLines(String input) throws IOException {
+		JsonDumpLineReader reader = new JsonDumpLineReader(
+				new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+		List<String> lines = new ArrayList<>();
+		while (reader.next()) {
+			String line = new String(reader.getBuffer(), reader.getStart(),
+					reader.getLength(), StandardCharsets.UTF_8);
+			assertEquals(line, new String(reader.copyLine(),
+					StandardCharsets.UTF_8));
+			lines.add(line);
+		}
+		assertFalse(reader.next());
+		return lines;
+	}
+
+	@Test
+	public void testTrimsLines() throws IOException {
+		assertEquals(Arrays.asList("{\"id\":\"Q1\"}", "{\"id\":\"Q2\"}"),
+				readLines("[\n  {\"id\":\"Q1\"}, \r\n\n{\"id\":\"Q2\"}\n]\n"));
+	}
+
+	@Test
+	public void testLastLineWithoutNewline() throws IOException {
+		assertEquals(Collections.singletonList("{\"id\":\"Q1\"}"),
+				readLines("{\"id\":\"Q1\"}"));
+	}
+
+	@Test
+	public void testEmptyInput() throws IOException {
+		assertEquals(Collections.emptyList(), readLines(""));
+		assertEquals(Collections.emptyList(), readLines("[\n]"));
+	}
+
+	@Test
+	public void testLongLines() throws IOException {
+		// lines longer than the chunks and the initial line buffer
+		char[] padding = new char[200000];
+		Arrays.fill(padding, 'x');
+		String first = "{\"a\":\"" + new String(padding) + "\"}";
+		String second = "{\"b\":\"" + new String(padding, 0, 70000) + "\"}";
+		assertEquals(Arrays.asList(first, second),
+				readLines("[\n" + first + ",\n" + second + "\n]"));
+	}
+
+}
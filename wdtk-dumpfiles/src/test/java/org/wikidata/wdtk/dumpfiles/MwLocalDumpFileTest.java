@@ -24,9 +24,13 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
 import org.wikidata.wdtk.testing.MockDirectoryManager;
 import org.wikidata.wdtk.util.CompressionType;
 import org.wikidata.wdtk.util.DirectoryManagerFactory;
@@ -107,6 +111,27 @@ public class MwLocalDumpFileTest {
 		assertNull(br.readLine());
 	}
 
+	@Test
+	public void testEntities() throws IOException {
+		this.dm.setFileContents(this.dmPath
+				.resolve("testdump-20150512.json.gz"),
+				"[\n{\"type\":\"item\",\"id\":\"Q1\"},\n{\"type\":\"property\",\"id\":\"P2\",\"datatype\":\"string\"}\n]",
+				CompressionType.GZIP);
+		MwLocalDumpFile df = new MwLocalDumpFile(
+				"/testdump-20150512.json.gz");
+		try (Stream<EntityDocument> entities = df.entities()) {
+			assertEquals(Arrays.asList("Q1", "P2"), entities
+					.map(document -> document.getEntityId().getId())
+					.collect(Collectors.toList()));
+		}
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testEntitiesOfOtherDumps() throws IOException {
+		this.dm.setFileContents(this.dmPath.resolve("test.sql.gz"), "");
+		new MwLocalDumpFile("/test.sql.gz").entities();
+	}
+
 	@Test(expected = IOException.class)
 	public void testUnavailableReader() throws IOException {
 		MwLocalDumpFile df = new MwLocalDumpFile(
@@ -47,6 +47,7 @@ import org.wikidata.wdtk.datamodel.interfaces.StringValue;
 import org.wikidata.wdtk.datamodel.interfaces.TermedDocument;
 import org.wikidata.wdtk.datamodel.interfaces.Value;
 import org.wikidata.wdtk.datamodel.interfaces.ValueSnak;
+import org.wikidata.wdtk.storage.datastructures.EntityCounter;
 
 /**
  * This advanced example analyses the use of properties and classes in a dump
@@ -127,7 +128,7 @@ public class ClassPropertyUsageAnalyzer implements EntityDocumentProcessor {
 		 * that use this entity (where "use" has the meaning explained for
 		 * {@link UsageRecord#itemCount}).
 		 */
-		public HashMap<PropertyIdValue, Integer> propertyCoCounts = new HashMap<>();
+		public EntityCounter propertyCoCounts = new EntityCounter();
 	}
 
 	/**
@@ -421,13 +422,7 @@ public class ClassPropertyUsageAnalyzer implements EntityDocumentProcessor {
 			UsageRecord usageRecord, PropertyIdValue thisPropertyIdValue) {
 		for (StatementGroup sg : itemDocument.getStatementGroups()) {
 			if (!sg.getProperty().equals(thisPropertyIdValue)) {
-				if (!usageRecord.propertyCoCounts.containsKey(sg.getProperty())) {
-					usageRecord.propertyCoCounts.put(sg.getProperty(), 1);
-				} else {
-					usageRecord.propertyCoCounts
-							.put(sg.getProperty(), usageRecord.propertyCoCounts
-									.get(sg.getProperty()) + 1);
-				}
+				usageRecord.propertyCoCounts.increment(sg.getProperty());
 			}
 		}
 	}
@@ -795,23 +790,22 @@ public class ClassPropertyUsageAnalyzer implements EntityDocumentProcessor {
 
 		List<ImmutablePair<PropertyIdValue, Double>> list = new ArrayList<>(
 				usageRecord.propertyCoCounts.size());
-		for (Entry<PropertyIdValue, Integer> coCountEntry : usageRecord.propertyCoCounts
-				.entrySet()) {
-			double otherThisItemRate = (double) coCountEntry.getValue()
+		usageRecord.propertyCoCounts.forEach((entityIdValue, coCount) -> {
+			PropertyIdValue propertyIdValue = (PropertyIdValue) entityIdValue;
+			double otherThisItemRate = (double) coCount
 					/ usageRecord.itemCount;
 			double otherGlobalItemRate = (double) this.propertyRecords
-					.get(coCountEntry.getKey()).itemCount
+					.get(propertyIdValue).itemCount
 					/ this.countPropertyItems;
 			double otherThisItemRateStep = 1 / (1 + Math.exp(6 * (-2
 					* otherThisItemRate + 0.5)));
 			double otherInvGlobalItemRateStep = 1 / (1 + Math.exp(6 * (-2
 					* (1 - otherGlobalItemRate) + 0.5)));
 
-			list.add(new ImmutablePair<>(coCountEntry
-					.getKey(), otherThisItemRateStep
-					* otherInvGlobalItemRateStep * otherThisItemRate
-					/ otherGlobalItemRate));
-		}
+			list.add(new ImmutablePair<>(propertyIdValue,
+					otherThisItemRateStep * otherInvGlobalItemRateStep
+							* otherThisItemRate / otherGlobalItemRate));
+		});
 
 		list.sort((o1, o2) -> o2.getValue().compareTo(o1.getValue()));
 
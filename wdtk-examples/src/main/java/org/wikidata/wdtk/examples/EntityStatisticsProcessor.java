@@ -38,6 +38,7 @@ import org.wikidata.wdtk.datamodel.interfaces.Statement;
 import org.wikidata.wdtk.datamodel.interfaces.StatementDocument;
 import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
 import org.wikidata.wdtk.datamodel.interfaces.TermedDocument;
+import org.wikidata.wdtk.storage.datastructures.EntityCounter;
 
 /**
  * A simple example class that processes EntityDocuments to compute basic
@@ -75,9 +76,9 @@ class EntityStatisticsProcessor implements EntityDocumentProcessor {
 		long countReferencedStatements = 0;
 
 		// Maps to store property usage data for each property:
-		final HashMap<PropertyIdValue, Integer> propertyCountsMain = new HashMap<>();
-		final HashMap<PropertyIdValue, Integer> propertyCountsQualifier = new HashMap<>();
-		final HashMap<PropertyIdValue, Integer> propertyCountsReferences = new HashMap<>();
+		final EntityCounter propertyCountsMain = new EntityCounter();
+		final EntityCounter propertyCountsQualifier = new EntityCounter();
+		final EntityCounter propertyCountsReferences = new EntityCounter();
 		final HashMap<String, Integer> labelCounts = new HashMap<>();
 		final HashMap<String, Integer> descriptionCounts = new HashMap<>();
 		final HashMap<String, Integer> aliasCounts = new HashMap<>();
@@ -268,16 +269,15 @@ class EntityStatisticsProcessor implements EntityDocumentProcessor {
 
 			out.println("Property id,in statements,in qualifiers,in references,total");
 
-			for (Entry<PropertyIdValue, Integer> entry : usageStatistics.propertyCountsMain
-					.entrySet()) {
-				int qCount = usageStatistics.propertyCountsQualifier.get(entry
-						.getKey());
-				int rCount = usageStatistics.propertyCountsReferences.get(entry
-						.getKey());
-				int total = entry.getValue() + qCount + rCount;
-				out.println(entry.getKey().getId() + "," + entry.getValue()
-						+ "," + qCount + "," + rCount + "," + total);
-			}
+			usageStatistics.propertyCountsMain.forEach((property, count) -> {
+				int qCount = usageStatistics.propertyCountsQualifier
+						.getCount(property);
+				int rCount = usageStatistics.propertyCountsReferences
+						.getCount(property);
+				int total = count + qCount + rCount;
+				out.println(property.getId() + "," + count + "," + qCount
+						+ "," + rCount + "," + total);
+			});
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -368,8 +368,7 @@ class EntityStatisticsProcessor implements EntityDocumentProcessor {
 	private void countPropertyMain(UsageStatistics usageStatistics,
 			PropertyIdValue property, int count) {
 		addPropertyCounters(usageStatistics, property);
-		usageStatistics.propertyCountsMain.put(property,
-				usageStatistics.propertyCountsMain.get(property) + count);
+		usageStatistics.propertyCountsMain.add(property, count);
 	}
 
 	/**
@@ -386,8 +385,7 @@ class EntityStatisticsProcessor implements EntityDocumentProcessor {
 	private void countPropertyQualifier(UsageStatistics usageStatistics,
 			PropertyIdValue property, int count) {
 		addPropertyCounters(usageStatistics, property);
-		usageStatistics.propertyCountsQualifier.put(property,
-				usageStatistics.propertyCountsQualifier.get(property) + count);
+		usageStatistics.propertyCountsQualifier.add(property, count);
 	}
 
 	/**
@@ -403,8 +401,7 @@ class EntityStatisticsProcessor implements EntityDocumentProcessor {
 	private void countPropertyReference(UsageStatistics usageStatistics,
 			PropertyIdValue property, int count) {
 		addPropertyCounters(usageStatistics, property);
-		usageStatistics.propertyCountsReferences.put(property,
-				usageStatistics.propertyCountsReferences.get(property) + count);
+		usageStatistics.propertyCountsReferences.add(property, count);
 	}
 
 	/**
@@ -417,10 +414,10 @@ class EntityStatisticsProcessor implements EntityDocumentProcessor {
 	 */
 	private void addPropertyCounters(UsageStatistics usageStatistics,
 			PropertyIdValue property) {
-		if (!usageStatistics.propertyCountsMain.containsKey(property)) {
-			usageStatistics.propertyCountsMain.put(property, 0);
-			usageStatistics.propertyCountsQualifier.put(property, 0);
-			usageStatistics.propertyCountsReferences.put(property, 0);
+		if (!usageStatistics.propertyCountsMain.contains(property)) {
+			usageStatistics.propertyCountsMain.add(property, 0);
+			usageStatistics.propertyCountsQualifier.add(property, 0);
+			usageStatistics.propertyCountsReferences.add(property, 0);
 		}
 	}
 
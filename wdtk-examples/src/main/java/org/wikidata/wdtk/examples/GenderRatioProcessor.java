@@ -38,6 +38,7 @@ import org.wikidata.wdtk.datamodel.interfaces.SiteLink;
 import org.wikidata.wdtk.datamodel.interfaces.Statement;
 import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
 import org.wikidata.wdtk.datamodel.interfaces.Value;
+import org.wikidata.wdtk.storage.datastructures.EntityCounter;
 
 /**
  * This document processor calculates the gender ratios of people featured on
@@ -83,7 +84,7 @@ public class GenderRatioProcessor implements EntityDocumentProcessor {
 		public int pageCount = 0;
 		public int humanGenderPageCount = 0;
 		public int humanPageCount = 0;
-		public final HashMap<EntityIdValue, Integer> genderCounts = new HashMap<>();
+		public final EntityCounter genderCounts = new EntityCounter();
 		public final String siteKey;
 
 		public SiteRecord(String siteKey) {
@@ -264,11 +265,7 @@ public class GenderRatioProcessor implements EntityDocumentProcessor {
 						+ siteRecord.humanGenderPageCount);
 
 				for (EntityIdValue gender : this.genderNamesList) {
-					if (siteRecord.genderCounts.containsKey(gender)) {
-						out.print("," + siteRecord.genderCounts.get(gender));
-					} else {
-						out.print(",0");
-					}
+					out.print("," + siteRecord.genderCounts.getCount(gender));
 				}
 				out.println();
 			}
@@ -323,16 +320,9 @@ public class GenderRatioProcessor implements EntityDocumentProcessor {
 			for (EntityIdValue gender : this.genderNamesList) {
 				System.out.print(this.genderNames.get(gender) + " ");
 
-				int count;
-				float ratio;
-				if (siteRecord.genderCounts.containsKey(gender)) {
-					count = siteRecord.genderCounts.get(gender);
-					ratio = (float) count / siteRecord.humanGenderPageCount
-							* 100;
-				} else {
-					count = 0;
-					ratio = 0;
-				}
+				int count = siteRecord.genderCounts.getCount(gender);
+				float ratio = count == 0 ? 0
+						: (float) count / siteRecord.humanGenderPageCount * 100;
 
 				if (genderCount < 2) {
 					System.out.printf("%7d (%5.3f%%) ", count, ratio);
@@ -441,7 +431,7 @@ public class GenderRatioProcessor implements EntityDocumentProcessor {
 	 *            the site record to count it for
 	 */
 	private void countGender(EntityIdValue gender, SiteRecord siteRecord) {
-		siteRecord.genderCounts.merge(gender, 1, Integer::sum);
+		siteRecord.genderCounts.increment(gender);
 	}
 
 }
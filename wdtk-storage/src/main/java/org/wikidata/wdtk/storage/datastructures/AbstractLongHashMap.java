@@ -0,0 +1,348 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.util.Arrays;
+
+/**
+ * Base class of hash maps with primitive <b>long</b> keys, which are stored
+ * with open addressing and linear probing in a single array. Compared to a
+ * {@link java.util.HashMap}, this avoids boxed keys and values as well as an
+ * object for each entry, so a map takes a few bytes per entry instead of
+ * several dozen.
+ * <p>
+ * A free slot contains the key 0, so the value of the key 0 is stored in an
+ * extra slot at the end of the array of values, which subclasses define.
+ * Removed keys do not leave tombstones: the following keys of their probe
+ * sequence are shifted back instead.
+ * <p>
+ * The maps are not synchronized. For parallel aggregation, each worker can
+ * fill its own map, and the maps are merged at the end.
+ */
+abstract class AbstractLongHashMap {
+
+	/**
+	 * Consumer of the slots of the keys of a map.
+	 */
+	@FunctionalInterface
+	interface SlotConsumer {
+
+		void accept(long key, int slot);
+	}
+
+	/**
+	 * Consumer of the slots of keys which are merged from another map.
+	 */
+	@FunctionalInterface
+	interface SlotMerger {
+
+		/**
+		 * Merges the value of a key.
+		 *
+		 * @param slot
+		 *            slot of the key in this map, as returned by
+		 *            {@link AbstractLongHashMap#insert(long)}
+		 * @param otherSlot
+		 *            slot of the key in the other map
+		 */
+		void merge(int slot, int otherSlot);
+	}
+
+	static final int DEFAULT_EXPECTED_SIZE = 16;
+
+	static final int MIN_CAPACITY = 8;
+
+	static final int MAX_CAPACITY = 1 << 30;
+
+	/**
+	 * Largest fraction of the slots which are used before the arrays are
+	 * enlarged.
+	 */
+	static final double LOAD_FACTOR = 0.75;
+
+	long[] keys;
+
+	int mask;
+
+	/**
+	 * Number of non-zero keys after which the arrays are enlarged.
+	 */
+	int resizeAt;
+
+	/**
+	 * Number of keys, including the key 0.
+	 */
+	int size;
+
+	boolean hasZeroKey;
+
+	AbstractLongHashMap(int expectedSize) {
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException("Wrong expected size '"
+					+ expectedSize + "'. Expected size cannot be negative.");
+		}
+		allocate(getCapacity(expectedSize));
+	}
+
+	/**
+	 * Returns the smallest power of two greater than the given number of keys
+	 * divided by the load factor.
+	 */
+	static int getCapacity(long expectedSize) {
+		long capacity = MIN_CAPACITY;
+		while (capacity * LOAD_FACTOR < expectedSize) {
+			capacity <<= 1;
+		}
+		if (capacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("The map cannot hold "
+					+ expectedSize + " keys.");
+		}
+		return (int) capacity;
+	}
+
+	/**
+	 * Returns the hash of a key, whose lowest bits are its first slot.
+	 */
+	static int hash(long key) {
+		long hash = key * 0x9e3779b97f4a7c15L;
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	/**
+	 * Creates empty arrays with the given number of slots for non-zero keys.
+	 */
+	void allocate(int capacity) {
+		this.keys = new long[capacity];
+		this.mask = capacity - 1;
+		this.resizeAt = (int) (capacity * LOAD_FACTOR);
+		allocateValues(capacity + 1);
+	}
+
+	/**
+	 * Replaces the array of values by an empty array of the given length.
+	 */
+	abstract void allocateValues(int length);
+
+	/**
+	 * Returns the array of values.
+	 */
+	abstract Object getValues();
+
+	/**
+	 * Copies a value from another array of values, or from the same array.
+	 */
+	abstract void copyValue(Object source, int from, int to);
+
+	/**
+	 * Resets the value in a slot, so that it does not keep an object alive.
+	 */
+	abstract void clearValue(int slot);
+
+	/**
+	 * Returns the number of keys.
+	 *
+	 * @return the size of this map
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns whether this map has no keys.
+	 *
+	 * @return <code>true</code> if the size of this map is 0
+	 */
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Returns whether this map contains a key.
+	 *
+	 * @param key
+	 *            key
+	 * @return <code>true</code> if the map has a value for the key
+	 */
+	public boolean containsKey(long key) {
+		return indexOf(key) >= 0;
+	}
+
+	/**
+	 * Returns the keys of this map, in no particular order.
+	 *
+	 * @return a new array with the keys
+	 */
+	public long[] keys() {
+		long[] ret = new long[this.size];
+		int i = 0;
+		if (this.hasZeroKey) {
+			i++;
+		}
+		for (long key : this.keys) {
+			if (key != 0) {
+				ret[i++] = key;
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Calls the consumer with each key and its slot, in no particular order.
+	 * The map must not be modified meanwhile.
+	 */
+	void forEachSlot(SlotConsumer consumer) {
+		if (this.hasZeroKey) {
+			consumer.accept(0, this.keys.length);
+		}
+		for (int slot = 0; slot < this.keys.length; slot++) {
+			long key = this.keys[slot];
+			if (key != 0) {
+				consumer.accept(key, slot);
+			}
+		}
+	}
+
+	/**
+	 * Inserts the keys of another map, and calls the merger with the slot of
+	 * each key in both maps. The slot in this map is negative for a new key,
+	 * as for {@link #insert(long)}.
+	 */
+	void mergeSlots(AbstractLongHashMap other, SlotMerger merger) {
+		other.forEachSlot((key, otherSlot) -> merger.merge(insert(key),
+				otherSlot));
+	}
+
+	/**
+	 * Removes all keys, but keeps the current capacity.
+	 */
+	public void clear() {
+		Arrays.fill(this.keys, 0);
+		for (int slot = 0; slot <= this.keys.length; slot++) {
+			clearValue(slot);
+		}
+		this.size = 0;
+		this.hasZeroKey = false;
+	}
+
+	/**
+	 * Returns the slot of a key, or -1 if the map does not contain it.
+	 */
+	int indexOf(long key) {
+		if (key == 0) {
+			return this.hasZeroKey ? this.keys.length : -1;
+		}
+		int slot = hash(key) & this.mask;
+		long existing;
+		while ((existing = this.keys[slot]) != 0) {
+			if (existing == key) {
+				return slot;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the slot of a key, and adds the key if the map does not contain
+	 * it yet. The slot of a new key is returned as its bitwise complement,
+	 * which is negative, and the caller must set its value.
+	 */
+	int insert(long key) {
+		if (key == 0) {
+			if (this.hasZeroKey) {
+				return this.keys.length;
+			}
+			this.hasZeroKey = true;
+			this.size++;
+			return ~this.keys.length;
+		}
+		int slot = hash(key) & this.mask;
+		long existing;
+		while ((existing = this.keys[slot]) != 0) {
+			if (existing == key) {
+				return slot;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		this.keys[slot] = key;
+		this.size++;
+		if (this.size - (this.hasZeroKey ? 1 : 0) > this.resizeAt) {
+			rehash(this.keys.length << 1);
+			slot = indexOf(key);
+		}
+		return ~slot;
+	}
+
+	/**
+	 * Moves all keys and values to new arrays with the given number of slots
+	 * for non-zero keys.
+	 */
+	void rehash(int capacity) {
+		if (capacity > MAX_CAPACITY) {
+			throw new IllegalStateException("The map cannot hold more than "
+					+ (int) (MAX_CAPACITY * LOAD_FACTOR) + " keys.");
+		}
+		long[] oldKeys = this.keys;
+		Object oldValues = getValues();
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			long key = oldKeys[i];
+			if (key != 0) {
+				int slot = hash(key) & this.mask;
+				while (this.keys[slot] != 0) {
+					slot = (slot + 1) & this.mask;
+				}
+				this.keys[slot] = key;
+				copyValue(oldValues, i, slot);
+			}
+		}
+		copyValue(oldValues, oldKeys.length, this.keys.length);
+	}
+
+	/**
+	 * Removes the key in a slot, and shifts the following keys of its probe
+	 * sequence back, so that no probe sequence contains a free slot.
+	 */
+	void removeAt(int slot) {
+		this.size--;
+		if (slot == this.keys.length) {
+			this.hasZeroKey = false;
+			clearValue(slot);
+			return;
+		}
+		Object values = getValues();
+		int hole = slot;
+		int next = (hole + 1) & this.mask;
+		long key;
+		while ((key = this.keys[next]) != 0) {
+			int first = hash(key) & this.mask;
+			// the key can be moved if the hole is not before its first slot
+			if (((next - first) & this.mask) >= ((next - hole) & this.mask)) {
+				this.keys[hole] = key;
+				copyValue(values, next, hole);
+				hole = next;
+			}
+			next = (next + 1) & this.mask;
+		}
+		this.keys[hole] = 0;
+		clearValue(hole);
+	}
+
+}
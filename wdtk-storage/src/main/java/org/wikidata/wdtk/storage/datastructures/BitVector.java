@@ -1,6 +1,9 @@
 package org.wikidata.wdtk.storage.datastructures;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
 
 /*
  * #%L
@@ -24,6 +27,10 @@ import java.util.Iterator;
 
 /**
  * Interface for a bit vector.
+ * <p>
+ * The methods to search, iterate and combine bit vectors have default
+ * implementations that access one bit at a time. Implementations override
+ * them to work on whole words where possible.
  * 
  * @author Julian Mendez
  */
@@ -81,4 +88,185 @@ public interface BitVector {
 	 */
 	void setBit(long position, boolean bit);
 
+	/**
+	 * Returns the first position with a <code>true</code> value from the
+	 * given position on.
+	 *
+	 * @param fromPosition
+	 *            position where the search starts
+	 * @return the position, or -1 if there is none
+	 * @throws IndexOutOfBoundsException
+	 *             if the position is a negative number
+	 */
+	default long nextSetBit(long fromPosition) {
+		BitVectorImpl.assertNonNegative(fromPosition);
+		for (long position = fromPosition; position < size(); position++) {
+			if (getBit(position)) {
+				return position;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the first position with a <code>false</code> value from the
+	 * given position on. Positions beyond the size of the bit vector are
+	 * regarded as <code>false</code>, so this is at most the larger of
+	 * <i>fromPosition</i> and the size.
+	 *
+	 * @param fromPosition
+	 *            position where the search starts
+	 * @return the position
+	 * @throws IndexOutOfBoundsException
+	 *             if the position is a negative number
+	 */
+	default long nextClearBit(long fromPosition) {
+		BitVectorImpl.assertNonNegative(fromPosition);
+		for (long position = fromPosition; position < size(); position++) {
+			if (!getBit(position)) {
+				return position;
+			}
+		}
+		return Math.max(fromPosition, size());
+	}
+
+	/**
+	 * Returns an iterator over the positions of the <code>true</code> values,
+	 * in increasing order. Unlike {@link #iterator()}, it does not visit the
+	 * <code>false</code> values and does not create objects.
+	 *
+	 * @return an iterator over the positions of the <code>true</code> values
+	 */
+	default PrimitiveIterator.OfLong setBitIterator() {
+		return new PrimitiveIterator.OfLong() {
+
+			long next = nextSetBit(0);
+
+			@Override
+			public boolean hasNext() {
+				return this.next >= 0;
+			}
+
+			@Override
+			public long nextLong() {
+				if (this.next < 0) {
+					throw new NoSuchElementException();
+				}
+				long ret = this.next;
+				this.next = nextSetBit(ret + 1);
+				return ret;
+			}
+		};
+	}
+
+	/**
+	 * Passes the position of each <code>true</code> value to the consumer, in
+	 * increasing order.
+	 *
+	 * @param consumer
+	 *            consumer
+	 */
+	default void forEachSetBit(LongConsumer consumer) {
+		for (long position = nextSetBit(0); position >= 0; position = nextSetBit(position + 1)) {
+			consumer.accept(position);
+		}
+	}
+
+	/**
+	 * Sets the bits from <i>fromPosition</i> (included) to <i>toPosition</i>
+	 * (excluded) to <code>true</code>, enlarging the bit vector if needed.
+	 *
+	 * @param fromPosition
+	 *            first position of the range
+	 * @param toPosition
+	 *            position after the last position of the range
+	 * @throws IndexOutOfBoundsException
+	 *             if the range is out of bounds
+	 */
+	default void setRange(long fromPosition, long toPosition) {
+		BitVectorImpl.assertValidRange(fromPosition, toPosition);
+		for (long position = fromPosition; position < toPosition; position++) {
+			setBit(position, true);
+		}
+	}
+
+	/**
+	 * Sets the bits from <i>fromPosition</i> (included) to <i>toPosition</i>
+	 * (excluded) to <code>false</code>. The size of the bit vector is
+	 * unchanged.
+	 *
+	 * @param fromPosition
+	 *            first position of the range
+	 * @param toPosition
+	 *            position after the last position of the range
+	 * @throws IndexOutOfBoundsException
+	 *             if the range is out of bounds
+	 */
+	default void clearRange(long fromPosition, long toPosition) {
+		BitVectorImpl.assertValidRange(fromPosition, toPosition);
+		long end = Math.min(toPosition, size());
+		for (long position = fromPosition; position < end; position++) {
+			setBit(position, false);
+		}
+	}
+
+	/**
+	 * Keeps the <code>true</code> values that are also <code>true</code> in
+	 * the other bit vector. The size of this bit vector is unchanged.
+	 *
+	 * @param other
+	 *            other bit vector
+	 */
+	default void and(BitVector other) {
+		for (long position = nextSetBit(0); position >= 0; position = nextSetBit(position + 1)) {
+			if (position >= other.size() || !other.getBit(position)) {
+				setBit(position, false);
+			}
+		}
+	}
+
+	/**
+	 * Clears the <code>true</code> values that are <code>true</code> in the
+	 * other bit vector. The size of this bit vector is unchanged.
+	 *
+	 * @param other
+	 *            other bit vector
+	 */
+	default void andNot(BitVector other) {
+		long size = size();
+		other.forEachSetBit(position -> {
+			if (position < size) {
+				setBit(position, false);
+			}
+		});
+	}
+
+	/**
+	 * Sets the values that are <code>true</code> in the other bit vector. The
+	 * size of this bit vector becomes the larger of both sizes.
+	 *
+	 * @param other
+	 *            other bit vector
+	 */
+	default void or(BitVector other) {
+		if (other.size() > size()) {
+			setBit(other.size() - 1, false);
+		}
+		other.forEachSetBit(position -> setBit(position, true));
+	}
+
+	/**
+	 * Flips the values that are <code>true</code> in the other bit vector.
+	 * The size of this bit vector becomes the larger of both sizes.
+	 *
+	 * @param other
+	 *            other bit vector
+	 */
+	default void xor(BitVector other) {
+		if (other.size() > size()) {
+			setBit(other.size() - 1, false);
+		}
+		other.forEachSetBit(position -> setBit(position, !getBit(position)));
+	}
+
 }
@@ -21,6 +21,9 @@ package org.wikidata.wdtk.storage.datastructures;
  */
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
 
 import org.apache.commons.lang3.Validate;
 
@@ -77,9 +80,7 @@ public class BitVectorImpl implements BitVector, Iterable<Boolean> {
 		} else {
 			this.arrayOfBits = new long[getMinimumArraySize(bitVector.size())];
 			this.size = bitVector.size();
-			for (long index = 0; index < bitVector.size(); index++) {
-				setBit(index, bitVector.getBit(index));
-			}
+			bitVector.forEachSetBit(position -> setBit(position, true));
 		}
 	}
 
@@ -115,6 +116,74 @@ public class BitVectorImpl implements BitVector, Iterable<Boolean> {
 		return ((word >> position) & 1) == 1;
 	}
 
+	/**
+	 * @param position
+	 *            position
+	 * @throws IndexOutOfBoundsException
+	 *             if the position is a negative number
+	 */
+	static void assertNonNegative(long position) {
+		if (position < 0) {
+			throw new IndexOutOfBoundsException("Position " + position
+					+ " is out of bounds.");
+		}
+	}
+
+	/**
+	 * @param fromPosition
+	 *            first position of a range
+	 * @param toPosition
+	 *            position after the last position of a range
+	 * @throws IndexOutOfBoundsException
+	 *             if the first position is a negative number or greater than
+	 *             the second one
+	 */
+	static void assertValidRange(long fromPosition, long toPosition) {
+		if (fromPosition < 0 || fromPosition > toPosition) {
+			throw new IndexOutOfBoundsException("Range from " + fromPosition
+					+ " to " + toPosition + " is out of bounds.");
+		}
+	}
+
+	/**
+	 * @param bitVector
+	 *            bit vector
+	 * @return the words of the bit vector if it is stored in an array, and
+	 *         <code>null</code> otherwise
+	 */
+	static long[] getArrayOfBits(BitVector bitVector) {
+		if (bitVector instanceof BitVectorImpl) {
+			return ((BitVectorImpl) bitVector).arrayOfBits;
+		} else if (bitVector instanceof RankedBitVectorImpl) {
+			return ((RankedBitVectorImpl) bitVector).bitVector.arrayOfBits;
+		} else {
+			return null;
+		}
+	}
+
+	/**
+	 * @param arrayOfBits
+	 *            words of a bit vector
+	 * @param bitVectorSize
+	 *            size of the bit vector
+	 * @param wordIndex
+	 *            index of a word
+	 * @return the word, where the positions beyond the size are
+	 *         <code>false</code>
+	 */
+	static long getMaskedWord(long[] arrayOfBits, long bitVectorSize,
+			int wordIndex) {
+		long start = (long) wordIndex << LG_WORD_SIZE;
+		if (start >= bitVectorSize) {
+			return 0;
+		}
+		long word = arrayOfBits[wordIndex];
+		if (bitVectorSize - start < WORD_SIZE) {
+			word &= -1L >>> (WORD_SIZE - (bitVectorSize - start));
+		}
+		return word;
+	}
+
 	/**
 	 * @param bitVectorSize
 	 *            bit vector sizes
@@ -276,6 +345,203 @@ public class BitVectorImpl implements BitVector, Iterable<Boolean> {
 		return true;
 	}
 
+	@Override
+	public long nextSetBit(long fromPosition) {
+		assertNonNegative(fromPosition);
+		if (fromPosition >= this.size) {
+			return -1;
+		}
+		int wordIndex = (int) (fromPosition >> LG_WORD_SIZE);
+		int lastWordIndex = (int) ((this.size - 1) >> LG_WORD_SIZE);
+		long word = this.arrayOfBits[wordIndex] & (-1L << fromPosition);
+		while (word == 0) {
+			if (wordIndex == lastWordIndex) {
+				return -1;
+			}
+			wordIndex++;
+			word = this.arrayOfBits[wordIndex];
+		}
+		long ret = ((long) wordIndex << LG_WORD_SIZE)
+				+ Long.numberOfTrailingZeros(word);
+		return ret < this.size ? ret : -1;
+	}
+
+	@Override
+	public long nextClearBit(long fromPosition) {
+		assertNonNegative(fromPosition);
+		if (fromPosition >= this.size) {
+			return fromPosition;
+		}
+		int wordIndex = (int) (fromPosition >> LG_WORD_SIZE);
+		int lastWordIndex = (int) ((this.size - 1) >> LG_WORD_SIZE);
+		long word = ~this.arrayOfBits[wordIndex] & (-1L << fromPosition);
+		while (word == 0) {
+			if (wordIndex == lastWordIndex) {
+				return this.size;
+			}
+			wordIndex++;
+			word = ~this.arrayOfBits[wordIndex];
+		}
+		return Math.min(((long) wordIndex << LG_WORD_SIZE)
+				+ Long.numberOfTrailingZeros(word), this.size);
+	}
+
+	@Override
+	public PrimitiveIterator.OfLong setBitIterator() {
+		return new PrimitiveIterator.OfLong() {
+
+			final int sizeInWords = (int) ((BitVectorImpl.this.size + WORD_MASK) >> LG_WORD_SIZE);
+
+			int wordIndex = -1;
+
+			long word = 0;
+
+			@Override
+			public boolean hasNext() {
+				while (this.word == 0) {
+					if (this.wordIndex + 1 >= this.sizeInWords) {
+						return false;
+					}
+					this.wordIndex++;
+					this.word = BitVectorImpl.this.arrayOfBits[this.wordIndex];
+				}
+				return true;
+			}
+
+			@Override
+			public long nextLong() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				long ret = ((long) this.wordIndex << LG_WORD_SIZE)
+						+ Long.numberOfTrailingZeros(this.word);
+				this.word &= this.word - 1;
+				return ret;
+			}
+		};
+	}
+
+	@Override
+	public void forEachSetBit(LongConsumer consumer) {
+		int sizeInWords = (int) ((this.size + WORD_MASK) >> LG_WORD_SIZE);
+		for (int i = 0; i < sizeInWords; i++) {
+			long word = this.arrayOfBits[i];
+			while (word != 0) {
+				consumer.accept(((long) i << LG_WORD_SIZE)
+						+ Long.numberOfTrailingZeros(word));
+				word &= word - 1;
+			}
+		}
+	}
+
+	@Override
+	public void setRange(long fromPosition, long toPosition) {
+		assertValidRange(fromPosition, toPosition);
+		if (fromPosition == toPosition) {
+			return;
+		}
+		ensureSize(toPosition - 1);
+		this.validHashCode = false;
+		int first = (int) (fromPosition >> LG_WORD_SIZE);
+		int last = (int) ((toPosition - 1) >> LG_WORD_SIZE);
+		long firstMask = -1L << fromPosition;
+		long lastMask = -1L >>> -toPosition;
+		if (first == last) {
+			this.arrayOfBits[first] |= firstMask & lastMask;
+			return;
+		}
+		this.arrayOfBits[first] |= firstMask;
+		for (int i = first + 1; i < last; i++) {
+			this.arrayOfBits[i] = -1L;
+		}
+		this.arrayOfBits[last] |= lastMask;
+	}
+
+	@Override
+	public void clearRange(long fromPosition, long toPosition) {
+		assertValidRange(fromPosition, toPosition);
+		long end = Math.min(toPosition, this.size);
+		if (fromPosition >= end) {
+			return;
+		}
+		this.validHashCode = false;
+		int first = (int) (fromPosition >> LG_WORD_SIZE);
+		int last = (int) ((end - 1) >> LG_WORD_SIZE);
+		long firstMask = -1L << fromPosition;
+		long lastMask = -1L >>> -end;
+		if (first == last) {
+			this.arrayOfBits[first] &= ~(firstMask & lastMask);
+			return;
+		}
+		this.arrayOfBits[first] &= ~firstMask;
+		for (int i = first + 1; i < last; i++) {
+			this.arrayOfBits[i] = 0;
+		}
+		this.arrayOfBits[last] &= ~lastMask;
+	}
+
+	@Override
+	public void and(BitVector other) {
+		long[] otherBits = getArrayOfBits(other);
+		if (otherBits == null) {
+			BitVector.super.and(other);
+			return;
+		}
+		this.validHashCode = false;
+		int sizeInWords = (int) ((this.size + WORD_MASK) >> LG_WORD_SIZE);
+		for (int i = 0; i < sizeInWords; i++) {
+			this.arrayOfBits[i] &= getMaskedWord(otherBits, other.size(), i);
+		}
+	}
+
+	@Override
+	public void andNot(BitVector other) {
+		long[] otherBits = getArrayOfBits(other);
+		if (otherBits == null) {
+			BitVector.super.andNot(other);
+			return;
+		}
+		this.validHashCode = false;
+		int sizeInWords = (int) ((Math.min(this.size, other.size()) + WORD_MASK) >> LG_WORD_SIZE);
+		for (int i = 0; i < sizeInWords; i++) {
+			this.arrayOfBits[i] &= ~getMaskedWord(otherBits, other.size(), i);
+		}
+	}
+
+	@Override
+	public void or(BitVector other) {
+		long[] otherBits = getArrayOfBits(other);
+		if (otherBits == null) {
+			BitVector.super.or(other);
+			return;
+		}
+		if (other.size() > this.size) {
+			ensureSize(other.size() - 1);
+		}
+		this.validHashCode = false;
+		int sizeInWords = (int) ((other.size() + WORD_MASK) >> LG_WORD_SIZE);
+		for (int i = 0; i < sizeInWords; i++) {
+			this.arrayOfBits[i] |= getMaskedWord(otherBits, other.size(), i);
+		}
+	}
+
+	@Override
+	public void xor(BitVector other) {
+		long[] otherBits = getArrayOfBits(other);
+		if (otherBits == null) {
+			BitVector.super.xor(other);
+			return;
+		}
+		if (other.size() > this.size) {
+			ensureSize(other.size() - 1);
+		}
+		this.validHashCode = false;
+		int sizeInWords = (int) ((other.size() + WORD_MASK) >> LG_WORD_SIZE);
+		for (int i = 0; i < sizeInWords; i++) {
+			this.arrayOfBits[i] ^= getMaskedWord(otherBits, other.size(), i);
+		}
+	}
+
 	@Override
 	public boolean getBit(long position) {
 		assertNonNegativePosition(position);
@@ -0,0 +1,378 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Thread-safe implementation of {@link BitVector}, for sets of ids shared by
+ * several workers. The words are stored in segments of 2<sup>22</sup> bits,
+ * which are allocated when a bit is first set in them. Bits are set with
+ * atomic compare-and-set updates of their words, and a segment is published
+ * with a compare-and-set of its slot, so no operation takes a lock and
+ * readers never wait for a writer. Existing words are never moved, so the
+ * bit vector can grow while it is read.
+ * <p>
+ * Like {@link BitVectorImpl}, this bit vector is <i>flexible</i>: any
+ * position below {@link #MAX_SIZE} can be set, which enlarges the bit vector
+ * if needed, and positions outside the bit vector contain <code>false</code>.
+ * Operations that read several bits, such as {@link #equals(Object)}, are
+ * not atomic: they may see some concurrent updates and miss others.
+ * <p>
+ * Once all writers have finished, {@link #freeze()} turns the bit vector into
+ * an immutable {@link RankedBitVector}.
+ */
+public class ConcurrentBitVector implements BitVector, Iterable<Boolean> {
+
+	static final int LG_SEGMENT_SIZE = 22;
+
+	static final int LG_WORDS_PER_SEGMENT = LG_SEGMENT_SIZE
+			- BitVectorImpl.LG_WORD_SIZE;
+
+	static final int WORDS_PER_SEGMENT = 1 << LG_WORDS_PER_SEGMENT;
+
+	static final int NUMBER_OF_SEGMENTS = 1 << 15;
+
+	/**
+	 * Maximum size of a concurrent bit vector.
+	 */
+	public static final long MAX_SIZE = (long) NUMBER_OF_SEGMENTS << LG_SEGMENT_SIZE;
+
+	final AtomicReferenceArray<AtomicLongArray> segments = new AtomicReferenceArray<>(
+			NUMBER_OF_SEGMENTS);
+
+	final AtomicLong size;
+
+	/**
+	 * The immutable bit vector created by {@link #freeze()}, which answers
+	 * all queries afterwards, or <code>null</code>.
+	 */
+	volatile ImmutableRankedBitVector frozen;
+
+	/**
+	 * Constructor of a bit vector of size 0.
+	 */
+	public ConcurrentBitVector() {
+		this(0);
+	}
+
+	/**
+	 * Constructor of a bit vector of size <i>initialSize</i>. The bit vector
+	 * contains <code>false</code> at all indexes. No memory is allocated for
+	 * the bits until they are set.
+	 *
+	 * @param initialSize
+	 *            initial size of this bit vector
+	 * @throws IllegalArgumentException
+	 *             if the size is negative or greater than {@link #MAX_SIZE}
+	 */
+	public ConcurrentBitVector(long initialSize) {
+		if (initialSize < 0 || initialSize > MAX_SIZE) {
+			throw new IllegalArgumentException("Wrong bit vector size '"
+					+ initialSize + "'. Bit vector size must be non-negative"
+					+ " and at most " + MAX_SIZE + ".");
+		}
+		this.size = new AtomicLong(initialSize);
+	}
+
+	/**
+	 * @param position
+	 *            position
+	 * @throws IndexOutOfBoundsException
+	 *             if the position is negative or not less than
+	 *             {@link #MAX_SIZE}
+	 */
+	static void assertValidPosition(long position) {
+		if (position < 0 || position >= MAX_SIZE) {
+			throw new IndexOutOfBoundsException("Position " + position
+					+ " is out of bounds.");
+		}
+	}
+
+	/**
+	 * @throws IllegalStateException
+	 *             if the bit vector has been frozen
+	 */
+	void assertNotFrozen() {
+		if (this.frozen != null) {
+			throw new IllegalStateException(
+					"The bit vector cannot be modified after it was frozen.");
+		}
+	}
+
+	/**
+	 * @return the segment with the given index, which is created if needed
+	 */
+	AtomicLongArray getOrCreateSegment(int segmentIndex) {
+		AtomicLongArray segment = this.segments.get(segmentIndex);
+		if (segment == null) {
+			AtomicLongArray newSegment = new AtomicLongArray(WORDS_PER_SEGMENT);
+			if (this.segments.compareAndSet(segmentIndex, null, newSegment)) {
+				segment = newSegment;
+			} else {
+				// another thread has created the segment in the meantime
+				segment = this.segments.get(segmentIndex);
+			}
+		}
+		return segment;
+	}
+
+	/**
+	 * @return the word with the given index
+	 */
+	long getWord(long wordIndex) {
+		AtomicLongArray segment = this.segments
+				.get((int) (wordIndex >>> LG_WORDS_PER_SEGMENT));
+		return segment == null ? 0 : segment
+				.get((int) (wordIndex & (WORDS_PER_SEGMENT - 1)));
+	}
+
+	/**
+	 * Enlarges the bit vector, if needed, so that it contains the given
+	 * position.
+	 */
+	void ensureSize(long position) {
+		long current = this.size.get();
+		while (current <= position
+				&& !this.size.compareAndSet(current, position + 1)) {
+			current = this.size.get();
+		}
+	}
+
+	/**
+	 * Sets a bit at a particular position, and returns its previous value.
+	 * This can be used by several threads to process each position only
+	 * once, since exactly one of them sees the change.
+	 *
+	 * @param position
+	 *            position
+	 * @param bit
+	 *            bit
+	 * @return the previous value of the bit
+	 * @throws IndexOutOfBoundsException
+	 *             if the position is out of range
+	 * @throws IllegalStateException
+	 *             if the bit vector has been frozen
+	 */
+	public boolean getAndSetBit(long position, boolean bit) {
+		assertValidPosition(position);
+		assertNotFrozen();
+		ensureSize(position);
+		int segmentIndex = (int) (position >>> LG_SEGMENT_SIZE);
+		AtomicLongArray segment = bit ? getOrCreateSegment(segmentIndex)
+				: this.segments.get(segmentIndex);
+		if (segment == null) {
+			return false;
+		}
+		int wordIndex = (int) ((position >>> BitVectorImpl.LG_WORD_SIZE) & (WORDS_PER_SEGMENT - 1));
+		long mask = 1L << position;
+		long word;
+		long newWord;
+		do {
+			word = segment.get(wordIndex);
+			newWord = bit ? word | mask : word & ~mask;
+			if (newWord == word) {
+				break;
+			}
+		} while (!segment.compareAndSet(wordIndex, word, newWord));
+		return (word & mask) != 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws IllegalStateException
+	 *             if the bit vector has been frozen
+	 */
+	@Override
+	public void setBit(long position, boolean bit) {
+		getAndSetBit(position, bit);
+	}
+
+	/**
+	 * Appends a <i>bit</i> to this bit vector. When several threads append
+	 * bits at once, each bit gets its own position.
+	 *
+	 * @throws IllegalStateException
+	 *             if the bit vector has been frozen
+	 */
+	@Override
+	public boolean addBit(boolean bit) {
+		assertNotFrozen();
+		long position = this.size.getAndIncrement();
+		if (bit) {
+			setBit(position, true);
+		}
+		return true;
+	}
+
+	@Override
+	public boolean getBit(long position) {
+		ImmutableRankedBitVector frozenBitVector = this.frozen;
+		if (frozenBitVector != null) {
+			return frozenBitVector.getBit(position);
+		}
+		BitVectorImpl.assertNonNegative(position);
+		if (position >= MAX_SIZE) {
+			return false;
+		}
+		return (getWord(position >>> BitVectorImpl.LG_WORD_SIZE) & (1L << position)) != 0;
+	}
+
+	@Override
+	public long size() {
+		ImmutableRankedBitVector frozenBitVector = this.frozen;
+		if (frozenBitVector != null) {
+			return frozenBitVector.size();
+		}
+		return this.size.get();
+	}
+
+	@Override
+	public long nextSetBit(long fromPosition) {
+		ImmutableRankedBitVector frozenBitVector = this.frozen;
+		if (frozenBitVector != null) {
+			return frozenBitVector.nextSetBit(fromPosition);
+		}
+		BitVectorImpl.assertNonNegative(fromPosition);
+		long size = this.size.get();
+		if (fromPosition >= size) {
+			return -1;
+		}
+		long wordIndex = fromPosition >>> BitVectorImpl.LG_WORD_SIZE;
+		long lastWordIndex = (size - 1) >>> BitVectorImpl.LG_WORD_SIZE;
+		long word = getWord(wordIndex) & (-1L << fromPosition);
+		while (word == 0) {
+			if (wordIndex == lastWordIndex) {
+				return -1;
+			}
+			wordIndex++;
+			if ((wordIndex & (WORDS_PER_SEGMENT - 1)) == 0) {
+				// skip segments that have not been created
+				while (wordIndex < lastWordIndex
+						&& this.segments.get((int) (wordIndex >>> LG_WORDS_PER_SEGMENT)) == null) {
+					wordIndex += WORDS_PER_SEGMENT;
+				}
+				wordIndex = Math.min(wordIndex, lastWordIndex);
+			}
+			word = getWord(wordIndex);
+		}
+		long ret = (wordIndex << BitVectorImpl.LG_WORD_SIZE)
+				+ Long.numberOfTrailingZeros(word);
+		return ret < size ? ret : -1;
+	}
+
+	/**
+	 * Returns an immutable copy of this bit vector, with a rank and select
+	 * directory. Afterwards, this bit vector can no longer be modified, and it
+	 * answers queries from the copy; the memory of its segments is released.
+	 * Calling this method again returns the same copy.
+	 * <p>
+	 * This method must be called after all writers have finished; bits set
+	 * at the same time may be lost, and readers which are running while it
+	 * releases the segments may miss some bits.
+	 *
+	 * @return the immutable bit vector
+	 * @throws IllegalArgumentException
+	 *             if the bit vector is too large to be copied into an array
+	 */
+	public synchronized RankedBitVector freeze() {
+		if (this.frozen == null) {
+			long size = this.size.get();
+			int sizeInWords = BitVectorImpl.getSizeInWords(size);
+			BitVectorImpl bitVector = new BitVectorImpl(size);
+			for (int segmentIndex = 0; segmentIndex < NUMBER_OF_SEGMENTS; segmentIndex++) {
+				AtomicLongArray segment = this.segments.get(segmentIndex);
+				if (segment == null) {
+					continue;
+				}
+				int first = segmentIndex << LG_WORDS_PER_SEGMENT;
+				int end = Math.min(WORDS_PER_SEGMENT, sizeInWords - first);
+				for (int i = 0; i < end; i++) {
+					bitVector.arrayOfBits[first + i] = segment.get(i);
+				}
+			}
+			this.frozen = new ImmutableRankedBitVector(bitVector);
+			for (int segmentIndex = 0; segmentIndex < NUMBER_OF_SEGMENTS; segmentIndex++) {
+				this.segments.set(segmentIndex, null);
+			}
+		}
+		return this.frozen;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof BitVector)) {
+			return false;
+		}
+		BitVector other = (BitVector) obj;
+		long size = size();
+		if (size != other.size()) {
+			return false;
+		}
+		for (long position = 0; position < size; position++) {
+			if (getBit(position) != other.getBit(position)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the same hash code as {@link BitVectorImpl} for the same bits.
+	 */
+	@Override
+	public int hashCode() {
+		ImmutableRankedBitVector frozenBitVector = this.frozen;
+		if (frozenBitVector != null) {
+			return frozenBitVector.hashCode();
+		}
+		long size = this.size.get();
+		long ret = size;
+		long sizeInWords = (size + BitVectorImpl.WORD_MASK) >>> BitVectorImpl.LG_WORD_SIZE;
+		for (long i = 0; i < sizeInWords; i++) {
+			ret += 0x1F * getWord(i);
+		}
+		return (int) ret;
+	}
+
+	@Override
+	public Iterator<Boolean> iterator() {
+		return new BitVectorIterator(this);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		long size = size();
+		for (long position = 0; position < size; position++) {
+			sb.append(getBit(position) ? "1" : "0");
+		}
+		return sb.toString();
+	}
+
+}
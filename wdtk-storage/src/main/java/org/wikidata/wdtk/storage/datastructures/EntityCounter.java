@@ -0,0 +1,201 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.util.function.ObjIntConsumer;
+
+import org.apache.commons.lang3.Validate;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+import org.wikidata.wdtk.storage.entitystore.EntityType;
+
+/**
+ * Counts the occurrences of entities, such as the uses of properties in
+ * statements. The counts are stored in a {@link LongIntHashMap} under the
+ * numeric ids of the entities, with their {@link EntityType} in the upper
+ * bits, so the counter takes about 21 bytes per entity instead of about 100
+ * for a {@link java.util.HashMap} from {@link EntityIdValue} objects to
+ * {@link Integer} objects. The {@link EntityIdValue} objects are created
+ * again when the counts are read with {@link #forEach(ObjIntConsumer)}.
+ * <p>
+ * Items, properties, lexemes and media info entities can be counted; all of
+ * them must belong to the same site. Counters are not synchronized, but the
+ * counters of several workers can be merged.
+ */
+public class EntityCounter {
+
+	/**
+	 * Position of the entity type in the keys.
+	 */
+	static final int TYPE_SHIFT = 56;
+
+	static final long NUMERIC_ID_MASK = (1L << TYPE_SHIFT) - 1;
+
+	final String siteIri;
+
+	final LongIntHashMap counts = new LongIntHashMap();
+
+	/**
+	 * Creates a counter of entities of Wikidata.
+	 */
+	public EntityCounter() {
+		this(Datamodel.SITE_WIKIDATA);
+	}
+
+	/**
+	 * Creates a counter.
+	 *
+	 * @param siteIri
+	 *            IRI of the site of the entities, which is used to create
+	 *            their {@link EntityIdValue} objects
+	 */
+	public EntityCounter(String siteIri) {
+		Validate.notNull(siteIri, "Site IRI cannot be null.");
+		this.siteIri = siteIri;
+	}
+
+	/**
+	 * Returns the key of an entity.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the entity is not an item, property, lexeme or media
+	 *             info entity
+	 */
+	static long getKey(EntityIdValue entityIdValue) {
+		String id = entityIdValue.getId();
+		long numericId = EntityType.getNumericId(id);
+		if (numericId > NUMERIC_ID_MASK) {
+			throw new IllegalArgumentException("Entity id '" + id
+					+ "' is too large.");
+		}
+		return ((long) EntityType.forEntityId(id).ordinal() << TYPE_SHIFT)
+				| numericId;
+	}
+
+	/**
+	 * Returns the entity of a key.
+	 */
+	EntityIdValue getEntityIdValue(long key) {
+		EntityType type = EntityType.values()[(int) (key >>> TYPE_SHIFT)];
+		String id = type.getEntityId(key & NUMERIC_ID_MASK);
+		switch (type) {
+		case ITEM:
+			return Datamodel.makeItemIdValue(id, this.siteIri);
+		case PROPERTY:
+			return Datamodel.makePropertyIdValue(id, this.siteIri);
+		case LEXEME:
+			return Datamodel.makeLexemeIdValue(id, this.siteIri);
+		default:
+			return Datamodel.makeMediaInfoIdValue(id, this.siteIri);
+		}
+	}
+
+	/**
+	 * Adds one to the count of an entity.
+	 *
+	 * @param entityIdValue
+	 *            entity
+	 * @return the new count of the entity
+	 * @throws IllegalArgumentException
+	 *             if the entity is not an item, property, lexeme or media
+	 *             info entity
+	 */
+	public int increment(EntityIdValue entityIdValue) {
+		return add(entityIdValue, 1);
+	}
+
+	/**
+	 * Adds to the count of an entity.
+	 *
+	 * @param entityIdValue
+	 *            entity
+	 * @param count
+	 *            number added to the count
+	 * @return the new count of the entity
+	 * @throws IllegalArgumentException
+	 *             if the entity is not an item, property, lexeme or media
+	 *             info entity
+	 */
+	public int add(EntityIdValue entityIdValue, int count) {
+		return this.counts.addTo(getKey(entityIdValue), count);
+	}
+
+	/**
+	 * Returns the count of an entity.
+	 *
+	 * @param entityIdValue
+	 *            entity
+	 * @return the count of the entity, which is 0 if it has not been counted
+	 * @throws IllegalArgumentException
+	 *             if the entity is not an item, property, lexeme or media
+	 *             info entity
+	 */
+	public int getCount(EntityIdValue entityIdValue) {
+		return this.counts.getOrDefault(getKey(entityIdValue), 0);
+	}
+
+	/**
+	 * Returns whether an entity has been counted, even if its count is 0.
+	 *
+	 * @param entityIdValue
+	 *            entity
+	 * @return <code>true</code> if the entity has been counted
+	 * @throws IllegalArgumentException
+	 *             if the entity is not an item, property, lexeme or media
+	 *             info entity
+	 */
+	public boolean contains(EntityIdValue entityIdValue) {
+		return this.counts.containsKey(getKey(entityIdValue));
+	}
+
+	/**
+	 * Returns the number of entities which have been counted.
+	 *
+	 * @return the number of entities
+	 */
+	public int size() {
+		return this.counts.size();
+	}
+
+	/**
+	 * Calls the consumer with each entity which has been counted and its
+	 * count, in no particular order.
+	 *
+	 * @param consumer
+	 *            consumer of the entities and counts
+	 */
+	public void forEach(ObjIntConsumer<EntityIdValue> consumer) {
+		this.counts.forEach((key, count) -> consumer.accept(
+				getEntityIdValue(key), count));
+	}
+
+	/**
+	 * Adds the counts of another counter to this counter.
+	 *
+	 * @param other
+	 *            counter of entities of the same site
+	 */
+	public void merge(EntityCounter other) {
+		Validate.isTrue(this.siteIri.equals(other.siteIri),
+				"Counters of different sites cannot be merged.");
+		this.counts.merge(other.counts, Integer::sum);
+	}
+
+}
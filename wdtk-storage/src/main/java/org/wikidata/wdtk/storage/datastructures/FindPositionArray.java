@@ -56,6 +56,10 @@ import org.apache.commons.lang3.ArrayUtils;
  * For efficiency reasons, this class assumes that the bit vector is unmodified.
  * Any modification of the bit vector needs to be notified in
  * {@link FindPositionArray#update()}.
+ * <p>
+ * {@link RankedBitVectorImpl} uses the word-based {@link RankSelectIndex}
+ * instead. This class is kept as a simple reference for tests and
+ * benchmarks.
  * 
  * @see RankedBitVectorImpl
  * 
@@ -0,0 +1,172 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Iterator;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+
+/**
+ * Immutable {@link RankedBitVector}, as returned by
+ * {@link ConcurrentBitVector#freeze()}. The rank and select directory is
+ * built when the object is created, so the object can be read by several
+ * threads at once. All methods that would modify the bit vector throw an
+ * {@link UnsupportedOperationException}.
+ */
+class ImmutableRankedBitVector implements RankedBitVector, Iterable<Boolean> {
+
+	final BitVectorImpl bitVector;
+
+	final RankSelectIndex index;
+
+	/**
+	 * Hash code, computed in advance because {@link BitVectorImpl} caches it
+	 * without synchronization.
+	 */
+	final int hashCode;
+
+	/**
+	 * Constructs an immutable bit vector that takes ownership of the given
+	 * bit vector, which must not be modified afterwards.
+	 *
+	 * @param bitVector
+	 *            bit vector
+	 */
+	ImmutableRankedBitVector(BitVectorImpl bitVector) {
+		this.bitVector = bitVector;
+		this.index = new RankSelectIndex(bitVector,
+				RankedBitVectorImpl.defaultFindPositionBlockSize);
+		this.index.updateDirectory();
+		this.hashCode = bitVector.hashCode();
+	}
+
+	static UnsupportedOperationException unsupported() {
+		return new UnsupportedOperationException(
+				"The bit vector is immutable.");
+	}
+
+	@Override
+	public boolean addBit(boolean bit) {
+		throw unsupported();
+	}
+
+	@Override
+	public void and(BitVector other) {
+		throw unsupported();
+	}
+
+	@Override
+	public void andNot(BitVector other) {
+		throw unsupported();
+	}
+
+	@Override
+	public void clearRange(long fromPosition, long toPosition) {
+		throw unsupported();
+	}
+
+	@Override
+	public long countBits(boolean bit, long position) {
+		return this.index.countBits(bit, position);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof BitVector)) {
+			return false;
+		}
+		return this.bitVector.equals(obj);
+	}
+
+	@Override
+	public long findPosition(boolean bit, long nOccurrence) {
+		return this.index.findPosition(bit, nOccurrence);
+	}
+
+	@Override
+	public void forEachSetBit(LongConsumer consumer) {
+		this.bitVector.forEachSetBit(consumer);
+	}
+
+	@Override
+	public boolean getBit(long position) {
+		return this.bitVector.getBit(position);
+	}
+
+	@Override
+	public int hashCode() {
+		return this.hashCode;
+	}
+
+	@Override
+	public Iterator<Boolean> iterator() {
+		return this.bitVector.iterator();
+	}
+
+	@Override
+	public long nextClearBit(long fromPosition) {
+		return this.bitVector.nextClearBit(fromPosition);
+	}
+
+	@Override
+	public long nextSetBit(long fromPosition) {
+		return this.bitVector.nextSetBit(fromPosition);
+	}
+
+	@Override
+	public void or(BitVector other) {
+		throw unsupported();
+	}
+
+	@Override
+	public void setBit(long position, boolean bit) {
+		throw unsupported();
+	}
+
+	@Override
+	public PrimitiveIterator.OfLong setBitIterator() {
+		return this.bitVector.setBitIterator();
+	}
+
+	@Override
+	public void setRange(long fromPosition, long toPosition) {
+		throw unsupported();
+	}
+
+	@Override
+	public long size() {
+		return this.bitVector.size();
+	}
+
+	@Override
+	public String toString() {
+		return this.bitVector.toString();
+	}
+
+	@Override
+	public void xor(BitVector other) {
+		throw unsupported();
+	}
+
+}
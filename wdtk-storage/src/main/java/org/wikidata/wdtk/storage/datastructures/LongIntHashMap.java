@@ -0,0 +1,197 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Hash map from <b>long</b> keys to <b>int</b> values, such as numeric
+ * entity ids to counts. Absent keys have no value; the methods which return
+ * a previous value return 0 for them.
+ * <p>
+ * The map takes about 21 bytes per key on average, while a
+ * {@link java.util.HashMap} with boxed keys and values takes about 70.
+ * See {@link AbstractLongHashMap} for the layout.
+ */
+public class LongIntHashMap extends AbstractLongHashMap {
+
+	/**
+	 * Consumer of the entries of a map.
+	 */
+	@FunctionalInterface
+	public interface EntryConsumer {
+
+		/**
+		 * Processes an entry.
+		 *
+		 * @param key
+		 *            key
+		 * @param value
+		 *            value of the key
+		 */
+		void accept(long key, int value);
+	}
+
+	int[] values;
+
+	/**
+	 * Creates an empty map.
+	 */
+	public LongIntHashMap() {
+		this(DEFAULT_EXPECTED_SIZE);
+	}
+
+	/**
+	 * Creates an empty map which can hold the given number of keys without
+	 * being enlarged.
+	 *
+	 * @param expectedSize
+	 *            expected number of keys
+	 * @throws IllegalArgumentException
+	 *             if the size is negative or too large
+	 */
+	public LongIntHashMap(int expectedSize) {
+		super(expectedSize);
+	}
+
+	@Override
+	void allocateValues(int length) {
+		this.values = new int[length];
+	}
+
+	@Override
+	Object getValues() {
+		return this.values;
+	}
+
+	@Override
+	void copyValue(Object source, int from, int to) {
+		this.values[to] = ((int[]) source)[from];
+	}
+
+	@Override
+	void clearValue(int slot) {
+		this.values[slot] = 0;
+	}
+
+	/**
+	 * Returns the value of a key.
+	 *
+	 * @param key
+	 *            key
+	 * @param defaultValue
+	 *            value returned if the map does not contain the key
+	 * @return the value of the key, or the default value
+	 */
+	public int getOrDefault(long key, int defaultValue) {
+		int slot = indexOf(key);
+		return slot < 0 ? defaultValue : this.values[slot];
+	}
+
+	/**
+	 * Sets the value of a key.
+	 *
+	 * @param key
+	 *            key
+	 * @param value
+	 *            new value of the key
+	 * @return the previous value of the key, or 0
+	 */
+	public int put(long key, int value) {
+		int slot = insert(key);
+		if (slot < 0) {
+			this.values[~slot] = value;
+			return 0;
+		}
+		int ret = this.values[slot];
+		this.values[slot] = value;
+		return ret;
+	}
+
+	/**
+	 * Adds to the value of a key, which is 0 if the map does not contain the
+	 * key yet.
+	 *
+	 * @param key
+	 *            key
+	 * @param increment
+	 *            number added to the value
+	 * @return the new value of the key
+	 */
+	public int addTo(long key, int increment) {
+		int slot = insert(key);
+		if (slot < 0) {
+			this.values[~slot] = increment;
+			return increment;
+		}
+		return this.values[slot] += increment;
+	}
+
+	/**
+	 * Removes a key.
+	 *
+	 * @param key
+	 *            key
+	 * @return the previous value of the key, or 0
+	 */
+	public int remove(long key) {
+		int slot = indexOf(key);
+		if (slot < 0) {
+			return 0;
+		}
+		int ret = this.values[slot];
+		removeAt(slot);
+		return ret;
+	}
+
+	/**
+	 * Calls the consumer with each entry of this map, in no particular order.
+	 * The map must not be modified meanwhile.
+	 *
+	 * @param consumer
+	 *            consumer of the entries
+	 */
+	public void forEach(EntryConsumer consumer) {
+		forEachSlot((key, slot) -> consumer.accept(key, this.values[slot]));
+	}
+
+	/**
+	 * Adds the entries of another map to this map. The values of keys which
+	 * are in both maps are combined with a function, for instance
+	 * {@link Integer#sum(int, int)} to merge counts.
+	 *
+	 * @param other
+	 *            map whose entries are added
+	 * @param function
+	 *            function applied to the value in this map and the value in
+	 *            the other map
+	 */
+	public void merge(LongIntHashMap other, IntBinaryOperator function) {
+		mergeSlots(other, (slot, otherSlot) -> {
+			int value = other.values[otherSlot];
+			if (slot < 0) {
+				this.values[~slot] = value;
+			} else {
+				this.values[slot] = function.applyAsInt(this.values[slot], value);
+			}
+		});
+	}
+
+}
@@ -0,0 +1,229 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BinaryOperator;
+import java.util.function.LongFunction;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Hash map from <b>long</b> keys to objects, such as numeric entity ids to
+ * records about the entities. The values cannot be <code>null</code>, which
+ * is returned for absent keys.
+ * <p>
+ * The map takes about 21 bytes per key on average, plus the values, while a
+ * {@link java.util.HashMap} with boxed keys takes about 55. See
+ * {@link AbstractLongHashMap} for the layout.
+ *
+ * @param <V>
+ *            type of the values
+ */
+public class LongObjectHashMap<V> extends AbstractLongHashMap {
+
+	/**
+	 * Consumer of the entries of a map.
+	 *
+	 * @param <V>
+	 *            type of the values
+	 */
+	@FunctionalInterface
+	public interface EntryConsumer<V> {
+
+		/**
+		 * Processes an entry.
+		 *
+		 * @param key
+		 *            key
+		 * @param value
+		 *            value of the key
+		 */
+		void accept(long key, V value);
+	}
+
+	Object[] values;
+
+	/**
+	 * Creates an empty map.
+	 */
+	public LongObjectHashMap() {
+		this(DEFAULT_EXPECTED_SIZE);
+	}
+
+	/**
+	 * Creates an empty map which can hold the given number of keys without
+	 * being enlarged.
+	 *
+	 * @param expectedSize
+	 *            expected number of keys
+	 * @throws IllegalArgumentException
+	 *             if the size is negative or too large
+	 */
+	public LongObjectHashMap(int expectedSize) {
+		super(expectedSize);
+	}
+
+	@Override
+	void allocateValues(int length) {
+		this.values = new Object[length];
+	}
+
+	@Override
+	Object getValues() {
+		return this.values;
+	}
+
+	@Override
+	void copyValue(Object source, int from, int to) {
+		this.values[to] = ((Object[]) source)[from];
+	}
+
+	@Override
+	void clearValue(int slot) {
+		this.values[slot] = null;
+	}
+
+	/**
+	 * Returns the value of a key.
+	 *
+	 * @param key
+	 *            key
+	 * @return the value of the key, or <code>null</code> if the map does not
+	 *         contain the key
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(long key) {
+		int slot = indexOf(key);
+		return slot < 0 ? null : (V) this.values[slot];
+	}
+
+	/**
+	 * Sets the value of a key.
+	 *
+	 * @param key
+	 *            key
+	 * @param value
+	 *            new value of the key
+	 * @return the previous value of the key, or <code>null</code>
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(long key, V value) {
+		Validate.notNull(value, "Value cannot be null.");
+		int slot = insert(key);
+		if (slot < 0) {
+			this.values[~slot] = value;
+			return null;
+		}
+		V ret = (V) this.values[slot];
+		this.values[slot] = value;
+		return ret;
+	}
+
+	/**
+	 * Returns the value of a key, and computes it first if the map does not
+	 * contain the key yet.
+	 *
+	 * @param key
+	 *            key
+	 * @param function
+	 *            function which computes the value of a new key
+	 * @return the value of the key
+	 */
+	@SuppressWarnings("unchecked")
+	public V computeIfAbsent(long key, LongFunction<? extends V> function) {
+		int slot = indexOf(key);
+		if (slot >= 0) {
+			return (V) this.values[slot];
+		}
+		V value = function.apply(key);
+		Validate.notNull(value, "Value cannot be null.");
+		this.values[~insert(key)] = value;
+		return value;
+	}
+
+	/**
+	 * Removes a key.
+	 *
+	 * @param key
+	 *            key
+	 * @return the previous value of the key, or <code>null</code>
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(long key) {
+		int slot = indexOf(key);
+		if (slot < 0) {
+			return null;
+		}
+		V ret = (V) this.values[slot];
+		removeAt(slot);
+		return ret;
+	}
+
+	/**
+	 * Returns the values of this map, in no particular order.
+	 *
+	 * @return a new list with the values
+	 */
+	public List<V> values() {
+		List<V> ret = new ArrayList<>(this.size);
+		forEach((key, value) -> ret.add(value));
+		return ret;
+	}
+
+	/**
+	 * Calls the consumer with each entry of this map, in no particular order.
+	 * The map must not be modified meanwhile.
+	 *
+	 * @param consumer
+	 *            consumer of the entries
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEach(EntryConsumer<? super V> consumer) {
+		forEachSlot((key, slot) -> consumer.accept(key, (V) this.values[slot]));
+	}
+
+	/**
+	 * Adds the entries of another map to this map. The values of keys which
+	 * are in both maps are combined with a function.
+	 *
+	 * @param other
+	 *            map whose entries are added
+	 * @param function
+	 *            function applied to the value in this map and the value in
+	 *            the other map, which must not return <code>null</code>
+	 */
+	@SuppressWarnings("unchecked")
+	public void merge(LongObjectHashMap<? extends V> other,
+			BinaryOperator<V> function) {
+		mergeSlots(other, (slot, otherSlot) -> {
+			V value = (V) other.values[otherSlot];
+			if (slot < 0) {
+				this.values[~slot] = value;
+			} else {
+				V merged = function.apply((V) this.values[slot], value);
+				Validate.notNull(merged, "Value cannot be null.");
+				this.values[slot] = merged;
+			}
+		});
+	}
+
+}
@@ -0,0 +1,732 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.stream.LongStream;
+
+import org.apache.commons.lang3.Validate;
+import org.wikidata.wdtk.storage.io.MappedFile;
+
+/**
+ * Implementation of {@link RankedBitVector} stored in a memory-mapped file.
+ * The file contains the words of the bit vector, followed by the rank and
+ * select directory described in {@link RankSelectIndex}. As the directory is
+ * persisted, opening a file only maps it, and processes that open the same
+ * file share its pages through the page cache of the operating system. Files
+ * larger than 2 GB are mapped in several chunks.
+ * <p>
+ * Contrary to {@link BitVectorImpl}, this bit vector has a fixed size, which
+ * is given when the file is created, and positions outside of it cannot be
+ * read or written.
+ * <p>
+ * A bit vector opened for writing can be modified with
+ * {@link #setBit(long, boolean)}. The directory is then rebuilt on the next
+ * query, and it is written to the file by {@link #flush()} and
+ * {@link #close()}. A file modified after its directory was last written can
+ * only be opened for writing, which rebuilds the directory. Writing the same
+ * file from several processes at once is not supported.
+ * <p>
+ * The object must not be used after it is closed. The mapped memory is
+ * released by the garbage collector once the object is no longer referenced.
+ */
+public class MappedRankedBitVector implements RankedBitVector,
+		Iterable<Boolean>, Closeable {
+
+	/**
+	 * The first bytes of a file: "WDTKBITS" in ASCII.
+	 */
+	static final long MAGIC_NUMBER = 0x535449424b544457L;
+
+	/**
+	 * Version of the file format. All values are stored in little-endian byte
+	 * order.
+	 */
+	static final long VERSION = 1;
+
+	static final int HEADER_MAGIC_NUMBER = 0;
+	static final int HEADER_VERSION = 1;
+	static final int HEADER_SIZE = 2;
+	static final int HEADER_SAMPLE_RATE = 3;
+	static final int HEADER_TRUE_COUNT = 4;
+	static final int HEADER_DIRECTORY_WRITTEN = 5;
+
+	/**
+	 * Number of <b>long</b> values of the header, which precedes the words.
+	 */
+	static final int HEADER_LENGTH = 8;
+
+	/**
+	 * Binary logarithm of the size in bytes of the chunks mapped by default.
+	 */
+	static final int DEFAULT_LG_CHUNK_SIZE = 30;
+
+	static final int LG_LONG_SIZE = 3;
+
+	final MappedFile file;
+
+	final boolean writable;
+
+	final long size;
+
+	/**
+	 * Number of occurrences between two samples used to find positions.
+	 */
+	final int sampleRate;
+
+	final long numberOfBlocks;
+
+	/**
+	 * Index of the first <b>long</b> value of the directory, which is laid
+	 * out as in {@link RankSelectIndex}.
+	 */
+	final long directoryStart;
+
+	/**
+	 * Index of the first <b>long</b> value of the samples, with the samples
+	 * of <code>true</code> values followed by those of <code>false</code>
+	 * values.
+	 */
+	final long samplesStart;
+
+	/**
+	 * Number of <code>true</code> values when the directory was last built.
+	 */
+	long trueCount;
+
+	/**
+	 * If this value is <code>true</code>, the bit vector has changed and the
+	 * directory needs to be rebuilt.
+	 */
+	boolean hasChanged;
+
+	int hashCode;
+
+	boolean validHashCode = false;
+
+	MappedRankedBitVector(FileChannel channel, boolean writable, long size,
+			int sampleRate, int lgChunkSize) throws IOException {
+		this.writable = writable;
+		this.size = size;
+		this.sampleRate = sampleRate;
+
+		long sizeInWords = getSizeInWords(size);
+		this.numberOfBlocks = (sizeInWords + RankSelectIndex.WORDS_PER_BLOCK - 1) >>> RankSelectIndex.LG_WORDS_PER_BLOCK;
+		this.directoryStart = HEADER_LENGTH + sizeInWords;
+		this.samplesStart = this.directoryStart + 2 * this.numberOfBlocks + 1;
+
+		this.file = new MappedFile(channel, writable, ByteOrder.LITTLE_ENDIAN,
+				getFileLength(size, sampleRate) << LG_LONG_SIZE, lgChunkSize);
+	}
+
+	/**
+	 * Creates a file containing a bit vector of the given size, where all
+	 * bits are <code>false</code>. An existing file is overwritten. The bit
+	 * vector is open for writing.
+	 *
+	 * @param file
+	 *            file
+	 * @param size
+	 *            size of the bit vector
+	 * @return the bit vector
+	 * @throws IOException
+	 *             if the file cannot be created
+	 * @throws IllegalArgumentException
+	 *             if the size is negative
+	 */
+	public static MappedRankedBitVector create(Path file, long size)
+			throws IOException {
+		return create(file, size,
+				RankedBitVectorImpl.defaultFindPositionBlockSize,
+				DEFAULT_LG_CHUNK_SIZE);
+	}
+
+	/**
+	 * Creates a file containing a copy of the given bit vector. An existing
+	 * file is overwritten. The bit vector is open for writing, and its
+	 * directory has been written.
+	 *
+	 * @param file
+	 *            file
+	 * @param bitVector
+	 *            bit vector to copy
+	 * @return the bit vector
+	 * @throws IOException
+	 *             if the file cannot be created
+	 */
+	public static MappedRankedBitVector create(Path file, BitVector bitVector)
+			throws IOException {
+		Validate.notNull(bitVector, "Bit vector cannot be null.");
+		MappedRankedBitVector ret = create(file, bitVector.size());
+		try {
+			ret.copyFrom(bitVector);
+			ret.flush();
+		} catch (IOException | RuntimeException e) {
+			ret.close();
+			throw e;
+		}
+		return ret;
+	}
+
+	/**
+	 * Creates a file containing a bit vector of the given size, where the
+	 * given positions are <code>true</code> and all other positions are
+	 * <code>false</code>. This can be used to store a set of entity ids, for
+	 * instance. An existing file is overwritten. The bit vector is open for
+	 * writing, and its directory has been written.
+	 *
+	 * @param file
+	 *            file
+	 * @param size
+	 *            size of the bit vector
+	 * @param positions
+	 *            positions of the <code>true</code> values, in any order
+	 * @return the bit vector
+	 * @throws IOException
+	 *             if the file cannot be created
+	 * @throws IndexOutOfBoundsException
+	 *             if a position is out of range
+	 */
+	public static MappedRankedBitVector create(Path file, long size,
+			LongStream positions) throws IOException {
+		Validate.notNull(positions, "Positions cannot be null.");
+		MappedRankedBitVector ret = create(file, size);
+		try {
+			positions.forEach(position -> ret.setBit(position, true));
+			ret.flush();
+		} catch (IOException | RuntimeException e) {
+			ret.close();
+			throw e;
+		}
+		return ret;
+	}
+
+	static MappedRankedBitVector create(Path file, long size, int sampleRate,
+			int lgChunkSize) throws IOException {
+		Validate.notNull(file, "File cannot be null.");
+		if (size < 0) {
+			throw new IllegalArgumentException("Wrong bit vector size '"
+					+ size + "'. Bit vector size must be non-negative.");
+		}
+		FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			MappedRankedBitVector ret = new MappedRankedBitVector(channel,
+					true, size, sampleRate, lgChunkSize);
+			ret.putLong(HEADER_MAGIC_NUMBER, MAGIC_NUMBER);
+			ret.putLong(HEADER_VERSION, VERSION);
+			ret.putLong(HEADER_SIZE, size);
+			ret.putLong(HEADER_SAMPLE_RATE, sampleRate);
+			ret.hasChanged = true;
+			return ret;
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens a bit vector file for reading only.
+	 *
+	 * @param file
+	 *            file
+	 * @return the bit vector
+	 * @throws IOException
+	 *             if the file cannot be read, if it does not contain a bit
+	 *             vector, or if it was modified after its directory was last
+	 *             written
+	 */
+	public static MappedRankedBitVector open(Path file) throws IOException {
+		return open(file, false);
+	}
+
+	/**
+	 * Opens a bit vector file.
+	 *
+	 * @param file
+	 *            file
+	 * @param writable
+	 *            <code>true</code> if the bit vector can be modified
+	 * @return the bit vector
+	 * @throws IOException
+	 *             if the file cannot be read, if it does not contain a bit
+	 *             vector, or if it is opened for reading only and it was
+	 *             modified after its directory was last written
+	 */
+	public static MappedRankedBitVector open(Path file, boolean writable)
+			throws IOException {
+		return open(file, writable, DEFAULT_LG_CHUNK_SIZE);
+	}
+
+	static MappedRankedBitVector open(Path file, boolean writable,
+			int lgChunkSize) throws IOException {
+		Validate.notNull(file, "File cannot be null.");
+		FileChannel channel = writable ? FileChannel.open(file,
+				StandardOpenOption.READ, StandardOpenOption.WRITE)
+				: FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			ByteBuffer header = ByteBuffer
+					.allocate(HEADER_LENGTH << LG_LONG_SIZE).order(
+							ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining()
+					&& channel.read(header, header.position()) > 0) {
+			}
+			if (header.hasRemaining()
+					|| header.getLong(HEADER_MAGIC_NUMBER << LG_LONG_SIZE) != MAGIC_NUMBER) {
+				throw new IOException("The file " + file
+						+ " does not contain a bit vector.");
+			}
+			long version = header.getLong(HEADER_VERSION << LG_LONG_SIZE);
+			if (version != VERSION) {
+				throw new IOException("The bit vector file " + file
+						+ " has the unsupported version " + version + ".");
+			}
+			long size = header.getLong(HEADER_SIZE << LG_LONG_SIZE);
+			long sampleRate = header.getLong(HEADER_SAMPLE_RATE << LG_LONG_SIZE);
+			if (size < 0 || sampleRate < 1 || sampleRate > Integer.MAX_VALUE
+					|| channel.size() != getFileLength(size, (int) sampleRate) << LG_LONG_SIZE) {
+				throw new IOException("The bit vector file " + file
+						+ " is corrupted.");
+			}
+			boolean directoryWritten = header
+					.getLong(HEADER_DIRECTORY_WRITTEN << LG_LONG_SIZE) != 0;
+			if (!writable && !directoryWritten) {
+				throw new IOException("The bit vector file " + file
+						+ " was modified after its directory was written."
+						+ " Open it for writing to rebuild the directory.");
+			}
+
+			MappedRankedBitVector ret = new MappedRankedBitVector(channel,
+					writable, size, (int) sampleRate, lgChunkSize);
+			ret.trueCount = header.getLong(HEADER_TRUE_COUNT << LG_LONG_SIZE);
+			ret.hasChanged = !directoryWritten;
+			return ret;
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @param sizeInBits
+	 *            size in bits
+	 * @return the number of words needed for the bits
+	 */
+	static long getSizeInWords(long sizeInBits) {
+		return (sizeInBits + BitVectorImpl.WORD_MASK) >>> BitVectorImpl.LG_WORD_SIZE;
+	}
+
+	/**
+	 * Returns the number of <b>long</b> values of a file. The samples take at
+	 * most <i>size</i> / <i>sampleRate</i> + 2 values, whatever the number of
+	 * <code>true</code> values.
+	 */
+	static long getFileLength(long size, int sampleRate) {
+		long sizeInWords = getSizeInWords(size);
+		long numberOfBlocks = (sizeInWords + RankSelectIndex.WORDS_PER_BLOCK - 1) >>> RankSelectIndex.LG_WORDS_PER_BLOCK;
+		return HEADER_LENGTH + sizeInWords + 2 * numberOfBlocks + 1 + size
+				/ sampleRate + 2;
+	}
+
+	long getLong(long index) {
+		return this.file.getLong(index);
+	}
+
+	void putLong(long index, long value) {
+		this.file.putLong(index, value);
+	}
+
+	long getWord(long wordIndex) {
+		return getLong(HEADER_LENGTH + wordIndex);
+	}
+
+	/**
+	 * Copies a bit vector of the same size.
+	 */
+	void copyFrom(BitVector bitVector) {
+		long[] arrayOfBits = BitVectorImpl.getArrayOfBits(bitVector);
+		if (arrayOfBits != null) {
+			int sizeInWords = (int) getSizeInWords(this.size);
+			for (int i = 0; i < sizeInWords; i++) {
+				putLong(HEADER_LENGTH + i, BitVectorImpl.getMaskedWord(arrayOfBits, this.size, i));
+			}
+			markChanged();
+		} else {
+			for (long position = 0; position < this.size; position++) {
+				if (bitVector.getBit(position)) {
+					setBit(position, true);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param position
+	 *            position
+	 * @throws IndexOutOfBoundsException
+	 *             if the position is out of range
+	 */
+	void assertValidPosition(long position) {
+		if (position < 0 || position >= this.size) {
+			throw new IndexOutOfBoundsException("Position " + position
+					+ " is out of bounds.");
+		}
+	}
+
+	/**
+	 * Records that the bit vector has changed, also in the file, so that the
+	 * file cannot be read before its directory is written again.
+	 */
+	void markChanged() {
+		this.validHashCode = false;
+		this.hasChanged = true;
+		putLong(HEADER_DIRECTORY_WRITTEN, 0);
+	}
+
+	/**
+	 * This operation is not supported, because the size of the bit vector is
+	 * fixed.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             always
+	 */
+	@Override
+	public boolean addBit(boolean bit) {
+		throw new UnsupportedOperationException(
+				"The size of a memory-mapped bit vector is fixed.");
+	}
+
+	@Override
+	public boolean getBit(long position) {
+		assertValidPosition(position);
+		return ((getWord(position >>> BitVectorImpl.LG_WORD_SIZE) >>> (position & BitVectorImpl.WORD_MASK)) & 1) == 1;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws UnsupportedOperationException
+	 *             if the bit vector was opened for reading only
+	 */
+	@Override
+	public void setBit(long position, boolean bit) {
+		if (!this.writable) {
+			throw new UnsupportedOperationException(
+					"The bit vector was opened for reading only.");
+		}
+		assertValidPosition(position);
+		long index = HEADER_LENGTH + (position >>> BitVectorImpl.LG_WORD_SIZE);
+		long word = getLong(index);
+		long newWord = bit ? word | (1L << position) : word & ~(1L << position);
+		if (newWord != word) {
+			putLong(index, newWord);
+			markChanged();
+		}
+	}
+
+	@Override
+	public long size() {
+		return this.size;
+	}
+
+	@Override
+	public long nextSetBit(long fromPosition) {
+		BitVectorImpl.assertNonNegative(fromPosition);
+		if (fromPosition >= this.size) {
+			return -1;
+		}
+		long wordIndex = fromPosition >>> BitVectorImpl.LG_WORD_SIZE;
+		long lastWordIndex = (this.size - 1) >>> BitVectorImpl.LG_WORD_SIZE;
+		long word = getWord(wordIndex) & (-1L << fromPosition);
+		while (word == 0) {
+			if (wordIndex == lastWordIndex) {
+				return -1;
+			}
+			wordIndex++;
+			word = getWord(wordIndex);
+		}
+		return (wordIndex << BitVectorImpl.LG_WORD_SIZE)
+				+ Long.numberOfTrailingZeros(word);
+	}
+
+	@Override
+	public long countBits(boolean bit, long position) {
+		updateDirectory();
+		long trueValues;
+		if (position < 0) {
+			trueValues = 0;
+		} else if (position >= this.size) {
+			trueValues = this.trueCount;
+		} else {
+			long wordIndex = position >>> BitVectorImpl.LG_WORD_SIZE;
+			trueValues = countBefore(wordIndex)
+					+ Long.bitCount(getWord(wordIndex)
+							& (-1L >>> (BitVectorImpl.WORD_MASK - (position & BitVectorImpl.WORD_MASK))));
+		}
+		return bit ? trueValues : ((position + 1) - trueValues);
+	}
+
+	@Override
+	public long findPosition(boolean bit, long nOccurrence) {
+		updateDirectory();
+		long total = bit ? this.trueCount : this.size - this.trueCount;
+		if (nOccurrence <= 0 || nOccurrence > total) {
+			return NOT_FOUND;
+		}
+
+		long firstSample = bit ? this.samplesStart : this.samplesStart
+				+ getNumberOfSamples(this.trueCount);
+		long sample = (nOccurrence - 1) / this.sampleRate;
+		long low = getLong(firstSample + sample);
+		long high = sample + 1 < getNumberOfSamples(total) ? getLong(firstSample
+				+ sample + 1) : this.numberOfBlocks - 1;
+		while (low < high) {
+			long middle = (low + high + 1) >>> 1;
+			if (countBlockBefore(bit, middle) < nOccurrence) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+
+		long remaining = nOccurrence - countBlockBefore(bit, low);
+		long relativeCounts = getLong(this.directoryStart + 2 * low + 1);
+		int wordInBlock = 0;
+		long countInBlock = 0;
+		for (int i = 1; i < RankSelectIndex.WORDS_PER_BLOCK; i++) {
+			long count = (relativeCounts >>> (RankSelectIndex.RELATIVE_COUNT_SIZE * (i - 1)))
+					& RankSelectIndex.RELATIVE_COUNT_MASK;
+			if (!bit) {
+				count = ((long) i << BitVectorImpl.LG_WORD_SIZE) - count;
+			}
+			if (count >= remaining) {
+				break;
+			}
+			wordInBlock = i;
+			countInBlock = count;
+		}
+
+		long wordIndex = (low << RankSelectIndex.LG_WORDS_PER_BLOCK)
+				+ wordInBlock;
+		long word = getWord(wordIndex);
+		return (wordIndex << BitVectorImpl.LG_WORD_SIZE)
+				+ RankSelectIndex.selectInWord(bit ? word : ~word,
+						(int) (remaining - countInBlock - 1));
+	}
+
+	/**
+	 * Returns the number of <code>true</code> values before the given word.
+	 */
+	long countBefore(long wordIndex) {
+		long block = wordIndex >>> RankSelectIndex.LG_WORDS_PER_BLOCK;
+		int wordInBlock = (int) (wordIndex & (RankSelectIndex.WORDS_PER_BLOCK - 1));
+		long ret = getLong(this.directoryStart + 2 * block);
+		if (wordInBlock > 0) {
+			ret += (getLong(this.directoryStart + 2 * block + 1) >>> (RankSelectIndex.RELATIVE_COUNT_SIZE * (wordInBlock - 1)))
+					& RankSelectIndex.RELATIVE_COUNT_MASK;
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the number of occurrences of <i>bit</i> before the given block.
+	 */
+	long countBlockBefore(boolean bit, long block) {
+		long trueValues = getLong(this.directoryStart + 2 * block);
+		return bit ? trueValues : (block << RankSelectIndex.LG_BLOCK_SIZE)
+				- trueValues;
+	}
+
+	long getNumberOfSamples(long occurrences) {
+		return (occurrences + this.sampleRate - 1) / this.sampleRate;
+	}
+
+	/**
+	 * Rebuilds the directory in the file only if the bit vector has been
+	 * changed since it was last built.
+	 */
+	void updateDirectory() {
+		if (!this.hasChanged) {
+			return;
+		}
+		long sizeInWords = getSizeInWords(this.size);
+		long total = 0;
+		for (long block = 0; block < this.numberOfBlocks; block++) {
+			putLong(this.directoryStart + 2 * block, total);
+			long first = block << RankSelectIndex.LG_WORDS_PER_BLOCK;
+			long relativeCounts = 0;
+			long count = 0;
+			for (int i = 0; i < RankSelectIndex.WORDS_PER_BLOCK; i++) {
+				if (i > 0) {
+					relativeCounts |= count << (RankSelectIndex.RELATIVE_COUNT_SIZE * (i - 1));
+				}
+				if (first + i < sizeInWords) {
+					count += Long.bitCount(getWord(first + i));
+				}
+			}
+			putLong(this.directoryStart + 2 * block + 1, relativeCounts);
+			total += count;
+		}
+		putLong(this.directoryStart + 2 * this.numberOfBlocks, total);
+		this.trueCount = total;
+		putLong(HEADER_TRUE_COUNT, total);
+
+		long next = writeSamples(true, total, this.samplesStart);
+		writeSamples(false, this.size - total, next);
+		this.hasChanged = false;
+	}
+
+	/**
+	 * Writes the blocks that contain every <i>sampleRate</i>-th occurrence of
+	 * <i>bit</i>, and returns the index following the last sample.
+	 */
+	long writeSamples(boolean bit, long total, long start) {
+		long numberOfSamples = getNumberOfSamples(total);
+		long sample = 0;
+		for (long block = 0; block < this.numberOfBlocks
+				&& sample < numberOfSamples; block++) {
+			long countAfter = countBlockBefore(bit, block + 1);
+			while (sample < numberOfSamples
+					&& sample * this.sampleRate + 1 <= countAfter) {
+				putLong(start + sample, block);
+				sample++;
+			}
+		}
+		return start + numberOfSamples;
+	}
+
+	/**
+	 * Rebuilds the directory if needed, and writes all changes to the file.
+	 * This method does nothing if the bit vector was opened for reading
+	 * only.
+	 *
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public void flush() throws IOException {
+		if (!this.writable) {
+			return;
+		}
+		updateDirectory();
+		this.file.force();
+		// the directory is marked as written once it is in the file
+		putLong(HEADER_DIRECTORY_WRITTEN, 1);
+		this.file.force(HEADER_DIRECTORY_WRITTEN << LG_LONG_SIZE);
+	}
+
+	/**
+	 * Writes all changes to the file, as {@link #flush()}, and closes it.
+	 *
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.file.isOpen()) {
+			try {
+				flush();
+			} finally {
+				this.file.close();
+			}
+		}
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof BitVector)) {
+			return false;
+		}
+		BitVector other = (BitVector) obj;
+		if (this.size != other.size()) {
+			return false;
+		}
+
+		long[] arrayOfBits = BitVectorImpl.getArrayOfBits(other);
+		long sizeInWords = getSizeInWords(this.size);
+		if (arrayOfBits != null) {
+			for (int i = 0; i < sizeInWords; i++) {
+				if (getWord(i) != BitVectorImpl.getMaskedWord(arrayOfBits, this.size, i)) {
+					return false;
+				}
+			}
+			return true;
+		} else if (other instanceof MappedRankedBitVector) {
+			MappedRankedBitVector otherMapped = (MappedRankedBitVector) other;
+			for (long i = 0; i < sizeInWords; i++) {
+				if (getWord(i) != otherMapped.getWord(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		for (long i = 0; i < this.size; i++) {
+			if (getBit(i) != other.getBit(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the same hash code as {@link BitVectorImpl} for the same bits.
+	 */
+	@Override
+	public int hashCode() {
+		if (!this.validHashCode) {
+			long ret = this.size;
+			long sizeInWords = getSizeInWords(this.size);
+			for (long i = 0; i < sizeInWords; i++) {
+				ret += 0x1F * getWord(i);
+			}
+			this.hashCode = (int) ret;
+			this.validHashCode = true;
+		}
+		return this.hashCode;
+	}
+
+	@Override
+	public Iterator<Boolean> iterator() {
+		return new BitVectorIterator(this);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (long position = 0; position < this.size; position++) {
+			sb.append(getBit(position) ? "1" : "0");
+		}
+		return sb.toString();
+	}
+
+}
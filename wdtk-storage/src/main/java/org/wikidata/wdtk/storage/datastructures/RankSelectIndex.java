@@ -0,0 +1,363 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Rank and select directory over the words of a {@link BitVectorImpl}.
+ * <p>
+ * The bit vector is divided in blocks of 8 words (512 bits). For each block,
+ * the directory stores two <b>long</b> values: the number of
+ * <code>true</code> values before the block, and the number of
+ * <code>true</code> values before each of the words 1 to 7 within the block,
+ * packed in fields of 9 bits. Hence, counting the occurrences up to a position
+ * only needs two lookups and one {@link Long#bitCount(long)}.
+ * <p>
+ * For finding the <i>n</i>-th occurrence of a bit, the block containing every
+ * <i>sampleRate</i>-th occurrence is stored. A query searches the blocks
+ * between two samples, then the words of the block, and finally the position
+ * in the word with a broadword selection.
+ * <p>
+ * The directory relies on the unused bits of the last word being
+ * <code>false</code>, as they are in {@link BitVectorImpl}. For efficiency
+ * reasons, this class assumes that the bit vector is unmodified. Any
+ * modification of the bit vector needs to be notified with
+ * {@link #update()}, and the directory is then rebuilt on the next query.
+ *
+ * @see RankedBitVectorImpl
+ */
+class RankSelectIndex {
+
+	static final int LG_WORDS_PER_BLOCK = 3;
+
+	static final int LG_BLOCK_SIZE = BitVectorImpl.LG_WORD_SIZE
+			+ LG_WORDS_PER_BLOCK;
+
+	static final int WORDS_PER_BLOCK = 1 << LG_WORDS_PER_BLOCK;
+
+	static final int RELATIVE_COUNT_SIZE = 9;
+
+	static final long RELATIVE_COUNT_MASK = (1L << RELATIVE_COUNT_SIZE) - 1;
+
+	static final long ONES_STEP_4 = 0x1111111111111111L;
+
+	static final long ONES_STEP_8 = 0x0101010101010101L;
+
+	static final long MSBS_STEP_8 = 0x80L * ONES_STEP_8;
+
+	/**
+	 * Position of the <i>r</i>-th (from 0) <code>true</code> value in a byte
+	 * <i>b</i>, at index <i>b</i> | <i>r</i> &lt;&lt; 8.
+	 */
+	static final byte[] SELECT_IN_BYTE = new byte[256 * 8];
+
+	static {
+		for (int b = 0; b < 256; b++) {
+			int rank = 0;
+			for (int i = 0; i < 8; i++) {
+				if ((b & (1 << i)) != 0) {
+					SELECT_IN_BYTE[b | rank << 8] = (byte) i;
+					rank++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * The bit vector, which is assumed unmodified.
+	 */
+	final BitVectorImpl bitVector;
+
+	/**
+	 * Number of occurrences between two samples.
+	 */
+	final int sampleRate;
+
+	/**
+	 * If this value is <code>true</code>, the bit vector has changed and the
+	 * directory needs to be rebuilt.
+	 */
+	boolean hasChanged = true;
+
+	/**
+	 * Words of the bit vector when the directory was built.
+	 */
+	long[] words;
+
+	/**
+	 * Size of the bit vector when the directory was built.
+	 */
+	long size;
+
+	/**
+	 * Number of words used by the bit vector.
+	 */
+	int sizeInWords;
+
+	/**
+	 * Number of blocks of the directory.
+	 */
+	int numberOfBlocks;
+
+	/**
+	 * Number of <code>true</code> values of the bit vector.
+	 */
+	long trueCount;
+
+	/**
+	 * Counts of <code>true</code> values, two for each block, followed by the
+	 * total count.
+	 */
+	long[] directory;
+
+	/**
+	 * Blocks containing the occurrences of <code>true</code> number 1,
+	 * <i>sampleRate</i> + 1, 2 * <i>sampleRate</i> + 1, and so on.
+	 */
+	int[] trueSamples;
+
+	/**
+	 * Blocks containing the occurrences of <code>false</code> number 1,
+	 * <i>sampleRate</i> + 1, 2 * <i>sampleRate</i> + 1, and so on.
+	 */
+	int[] falseSamples;
+
+	/**
+	 * Creates a directory for the given bit vector.
+	 *
+	 * @param bitVector
+	 *            bit vector
+	 * @param sampleRate
+	 *            number of occurrences between two samples used to find
+	 *            positions; this value must be a positive number
+	 * @throws IllegalArgumentException
+	 *             if the sample rate is not a positive number
+	 */
+	RankSelectIndex(BitVectorImpl bitVector, int sampleRate) {
+		if (sampleRate < 1) {
+			throw new IllegalArgumentException(
+					"The sample rate must be a positive number. The received value was: "
+							+ sampleRate + ".");
+		}
+		this.bitVector = bitVector;
+		this.sampleRate = sampleRate;
+	}
+
+	/**
+	 * Returns the number of occurrences of <i>bit</i> up to <i>position</i>.
+	 *
+	 * @param bit
+	 *            bit
+	 * @param position
+	 *            position
+	 * @return number of occurrences of <i>bit</i> up to <i>position</i>
+	 */
+	long countBits(boolean bit, long position) {
+		updateDirectory();
+		long trueValues;
+		if (position < 0) {
+			trueValues = 0;
+		} else if (position >= this.size) {
+			trueValues = this.trueCount;
+		} else {
+			int wordIndex = (int) (position >>> BitVectorImpl.LG_WORD_SIZE);
+			trueValues = countBefore(wordIndex)
+					+ Long.bitCount(this.words[wordIndex]
+							& (-1L >>> (BitVectorImpl.WORD_MASK - (position & BitVectorImpl.WORD_MASK))));
+		}
+		return bit ? trueValues : ((position + 1) - trueValues);
+	}
+
+	/**
+	 * Returns the position of the <i>n</i>-th occurrence of <i>bit</i>.
+	 *
+	 * @param bit
+	 *            bit
+	 * @param nOccurrence
+	 *            number of occurrences
+	 * @return the position of the <i>n</i>-th occurrence of <i>bit</i> or
+	 *         {@link RankedBitVector#NOT_FOUND} if there are not enough
+	 *         occurrences
+	 */
+	long findPosition(boolean bit, long nOccurrence) {
+		updateDirectory();
+		long total = bit ? this.trueCount : this.size - this.trueCount;
+		if (nOccurrence <= 0 || nOccurrence > total) {
+			return RankedBitVector.NOT_FOUND;
+		}
+
+		int[] samples = bit ? this.trueSamples : this.falseSamples;
+		int sample = (int) ((nOccurrence - 1) / this.sampleRate);
+		int low = samples[sample];
+		int high = sample + 1 < samples.length ? samples[sample + 1]
+				: this.numberOfBlocks - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (countBlockBefore(bit, middle) < nOccurrence) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+
+		long remaining = nOccurrence - countBlockBefore(bit, low);
+		long relativeCounts = this.directory[2 * low + 1];
+		int wordInBlock = 0;
+		long countInBlock = 0;
+		for (int i = 1; i < WORDS_PER_BLOCK; i++) {
+			long count = (relativeCounts >>> (RELATIVE_COUNT_SIZE * (i - 1)))
+					& RELATIVE_COUNT_MASK;
+			if (!bit) {
+				count = ((long) i << BitVectorImpl.LG_WORD_SIZE) - count;
+			}
+			if (count >= remaining) {
+				break;
+			}
+			wordInBlock = i;
+			countInBlock = count;
+		}
+
+		int wordIndex = (low << LG_WORDS_PER_BLOCK) + wordInBlock;
+		long word = this.words[wordIndex];
+		return ((long) wordIndex << BitVectorImpl.LG_WORD_SIZE)
+				+ selectInWord(bit ? word : ~word,
+						(int) (remaining - countInBlock - 1));
+	}
+
+	/**
+	 * Returns the number of <code>true</code> values before the given word.
+	 */
+	long countBefore(int wordIndex) {
+		int block = wordIndex >>> LG_WORDS_PER_BLOCK;
+		int wordInBlock = wordIndex & (WORDS_PER_BLOCK - 1);
+		long ret = this.directory[2 * block];
+		if (wordInBlock > 0) {
+			ret += (this.directory[2 * block + 1] >>> (RELATIVE_COUNT_SIZE * (wordInBlock - 1)))
+					& RELATIVE_COUNT_MASK;
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the number of occurrences of <i>bit</i> before the given block.
+	 */
+	long countBlockBefore(boolean bit, int block) {
+		long trueValues = this.directory[2 * block];
+		return bit ? trueValues : ((long) block << LG_BLOCK_SIZE) - trueValues;
+	}
+
+	/**
+	 * Returns the position of the <code>true</code> value with the given rank
+	 * in a word, using the broadword algorithm of Sebastiano Vigna: the
+	 * cumulative counts of all bytes are computed at once to find the byte,
+	 * and the position in the byte is looked up in a table.
+	 *
+	 * @param word
+	 *            word
+	 * @param rank
+	 *            number of <code>true</code> values before the requested
+	 *            one, which must be less than the number of
+	 *            <code>true</code> values in the word
+	 * @return the position of the value in the word
+	 */
+	static int selectInWord(long word, int rank) {
+		long byteSums = word - ((word & 0xA * ONES_STEP_4) >>> 1);
+		byteSums = (byteSums & 3 * ONES_STEP_4)
+				+ ((byteSums >>> 2) & 3 * ONES_STEP_4);
+		byteSums = (byteSums + (byteSums >>> 4)) & 0x0F * ONES_STEP_8;
+		byteSums *= ONES_STEP_8;
+
+		long rankStep8 = rank * ONES_STEP_8;
+		int byteOffset = (int) ((((((rankStep8 | MSBS_STEP_8) - byteSums) & MSBS_STEP_8) >>> 7)
+				* ONES_STEP_8 >>> 53) & ~0x7);
+		int byteRank = (int) (rank - (((byteSums << 8) >>> byteOffset) & 0xFF));
+		return byteOffset
+				+ SELECT_IN_BYTE[(int) (word >>> byteOffset & 0xFF) | byteRank << 8];
+	}
+
+	/**
+	 * Notifies this object that the bit vector has changed, and therefore,
+	 * the directory must be rebuilt.
+	 */
+	void update() {
+		this.hasChanged = true;
+	}
+
+	/**
+	 * Rebuilds the directory only if the bit vector has been changed since
+	 * the last update or creation of this class.
+	 */
+	void updateDirectory() {
+		if (!this.hasChanged) {
+			return;
+		}
+		this.words = this.bitVector.arrayOfBits;
+		this.size = this.bitVector.size;
+		this.sizeInWords = (int) ((this.size + BitVectorImpl.WORD_MASK) >>> BitVectorImpl.LG_WORD_SIZE);
+		this.numberOfBlocks = (this.sizeInWords + WORDS_PER_BLOCK - 1) >>> LG_WORDS_PER_BLOCK;
+		this.directory = new long[2 * this.numberOfBlocks + 1];
+		long total = 0;
+		for (int block = 0; block < this.numberOfBlocks; block++) {
+			this.directory[2 * block] = total;
+			int first = block << LG_WORDS_PER_BLOCK;
+			int end = Math.min(first + WORDS_PER_BLOCK, this.sizeInWords);
+			long relativeCounts = 0;
+			long count = 0;
+			for (int wordIndex = first; wordIndex < end; wordIndex++) {
+				if (wordIndex > first) {
+					relativeCounts |= count << (RELATIVE_COUNT_SIZE * (wordIndex - first - 1));
+				}
+				count += Long.bitCount(this.words[wordIndex]);
+			}
+			for (int i = end - first; i < WORDS_PER_BLOCK; i++) {
+				if (i > 0) {
+					relativeCounts |= count << (RELATIVE_COUNT_SIZE * (i - 1));
+				}
+			}
+			this.directory[2 * block + 1] = relativeCounts;
+			total += count;
+		}
+		this.directory[2 * this.numberOfBlocks] = total;
+		this.trueCount = total;
+
+		this.trueSamples = computeSamples(true, total);
+		this.falseSamples = computeSamples(false, this.size - total);
+		this.hasChanged = false;
+	}
+
+	/**
+	 * Finds the blocks that contain every <i>sampleRate</i>-th occurrence of
+	 * <i>bit</i>.
+	 */
+	int[] computeSamples(boolean bit, long total) {
+		int[] ret = new int[(int) ((total + this.sampleRate - 1) / this.sampleRate)];
+		int sample = 0;
+		for (int block = 0; block < this.numberOfBlocks && sample < ret.length; block++) {
+			long countAfter = countBlockBefore(bit, block + 1);
+			while (sample < ret.length
+					&& (long) sample * this.sampleRate + 1 <= countAfter) {
+				ret[sample] = block;
+				sample++;
+			}
+		}
+		return ret;
+	}
+
+}
@@ -21,44 +21,34 @@ package org.wikidata.wdtk.storage.datastructures;
  */
 
 import java.util.Iterator;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
 
 /**
  * Default implementation of {@link RankedBitVector}. This implementation uses
- * auxiliary classes to have efficient performance for the methods of a ranked
- * bit vector. Hence, {@link #countBits(boolean, long)} uses an instance of
- * {@link CountBitsArray} and {@link #findPosition(boolean, long)} uses two
- * instances of {@link FindPositionArray}.
+ * an auxiliary {@link RankSelectIndex}, built from the words of the bit
+ * vector, to have efficient performance for
+ * {@link #countBits(boolean, long)} and {@link #findPosition(boolean, long)}.
+ * The index is rebuilt on the first query after a modification.
  * 
- * @see CountBitsArray
- * 
- * @see FindPositionArray
+ * @see RankSelectIndex
  * 
  * @author Julian Mendez
  */
 public class RankedBitVectorImpl implements RankedBitVector, Iterable<Boolean> {
 
-	static final int defaultCountBitsBlockSize = 0x400;
-
 	static final int defaultFindPositionBlockSize = 0x2000;
 
 	final BitVectorImpl bitVector;
 
-	final CountBitsArray countBitsArray;
-
-	final FindPositionArray findPositionOfFalse;
-
-	final FindPositionArray findPositionOfTrue;
+	final RankSelectIndex index;
 
 	/**
 	 * Constructor of a ranked bit vector of size 0.
 	 */
 	public RankedBitVectorImpl() {
 		this.bitVector = new BitVectorImpl();
-		this.countBitsArray = new CountBitsArray(this.bitVector,
-				defaultCountBitsBlockSize);
-		this.findPositionOfFalse = new FindPositionArray(this.bitVector, false,
-				defaultFindPositionBlockSize);
-		this.findPositionOfTrue = new FindPositionArray(this.bitVector, true,
+		this.index = new RankSelectIndex(this.bitVector,
 				defaultFindPositionBlockSize);
 	}
 
@@ -71,18 +61,12 @@ public class RankedBitVectorImpl implements RankedBitVector, Iterable<Boolean> {
 	public RankedBitVectorImpl(BitVector bitVector) {
 		this.bitVector = new BitVectorImpl(bitVector);
 		if (bitVector instanceof RankedBitVectorImpl) {
-			this.countBitsArray = new CountBitsArray(this.bitVector,
-					((RankedBitVectorImpl) bitVector).countBitsArray
-							.getBlockSize());
+			this.index = new RankSelectIndex(this.bitVector,
+					((RankedBitVectorImpl) bitVector).index.sampleRate);
 		} else {
-			this.countBitsArray = new CountBitsArray(this.bitVector,
-					defaultCountBitsBlockSize);
+			this.index = new RankSelectIndex(this.bitVector,
+					defaultFindPositionBlockSize);
 		}
-		this.findPositionOfFalse = new FindPositionArray(this.bitVector, false,
-				defaultFindPositionBlockSize);
-		this.findPositionOfTrue = new FindPositionArray(this.bitVector, true,
-				defaultFindPositionBlockSize);
-
 	}
 
 	/**
@@ -94,38 +78,65 @@ public class RankedBitVectorImpl implements RankedBitVector, Iterable<Boolean> {
 	 */
 	public RankedBitVectorImpl(long initialSize) {
 		this.bitVector = new BitVectorImpl(initialSize);
-		this.countBitsArray = new CountBitsArray(this.bitVector,
-				defaultCountBitsBlockSize);
-		this.findPositionOfFalse = new FindPositionArray(this.bitVector, false,
-				defaultFindPositionBlockSize);
-		this.findPositionOfTrue = new FindPositionArray(this.bitVector, true,
+		this.index = new RankSelectIndex(this.bitVector,
 				defaultFindPositionBlockSize);
 	}
 
 	/**
 	 * Constructor of a ranked bit vector of size <i>initialSize</i> and block
-	 * size <i>blockSize</i>. The bit vector contains <code>false</code> at all
-	 * indexes.
+	 * size <i>findPositionBlockSize</i>. The bit vector contains
+	 * <code>false</code> at all indexes.
+	 * 
+	 * @param initialSize
+	 *            initial size of this ranked bit vector
+	 * @param findPositionBlockSize
+	 *            block size to find the position of the <i>n</i>-th occurrence
+	 *            of a value, that is, the number of occurrences between two
+	 *            sampled positions; this value must be greater than or equal
+	 *            to 64
+	 * @throws IllegalArgumentException
+	 *             if the block size is too small
+	 */
+	public RankedBitVectorImpl(long initialSize, int findPositionBlockSize) {
+		if (findPositionBlockSize < 0x40) {
+			throw new IllegalArgumentException(
+					"The block size must be greater than or equal to " + 0x40
+							+ ". The received value was " + findPositionBlockSize
+							+ ".");
+		}
+		this.bitVector = new BitVectorImpl(initialSize);
+		this.index = new RankSelectIndex(this.bitVector, findPositionBlockSize);
+	}
+
+	/**
+	 * Constructor of a ranked bit vector of size <i>initialSize</i> and block
+	 * sizes <i>countBlockSize</i> and <i>findPositionBlockSize</i>. The bit
+	 * vector contains <code>false</code> at all indexes.
 	 * 
 	 * @param initialSize
 	 *            initial size of this ranked bit vector
 	 * @param countBlockSize
-	 *            block size to count number of occurrences of a value; this
-	 *            value must be a positive number
+	 *            ignored, except that it must be a positive number
 	 * @param findPositionBlockSize
 	 *            block size to find the position of the <i>n</i>-th occurrence
-	 *            of a value; this value must be greater than or equal to 64
+	 *            of a value, that is, the number of occurrences between two
+	 *            sampled positions; this value must be greater than or equal
+	 *            to 64
 	 * @throws IllegalArgumentException
 	 *             if any of the block sizes is too small
+	 * @deprecated counting occurrences always uses blocks of 512 bits, so the
+	 *             count block size has no effect; use
+	 *             {@link #RankedBitVectorImpl(long, int)}
 	 */
+	@Deprecated
 	public RankedBitVectorImpl(long initialSize, int countBlockSize,
 			int findPositionBlockSize) {
-		this.bitVector = new BitVectorImpl(initialSize);
-		this.countBitsArray = new CountBitsArray(this.bitVector, countBlockSize);
-		this.findPositionOfFalse = new FindPositionArray(this.bitVector, false,
-				findPositionBlockSize);
-		this.findPositionOfTrue = new FindPositionArray(this.bitVector, true,
-				findPositionBlockSize);
+		this(initialSize, findPositionBlockSize);
+		if (countBlockSize < 1) {
+			throw new IllegalArgumentException(
+					"The block size must be a positive number. The received value was: "
+							+ countBlockSize + ".");
+		}
 	}
 
 	@Override
@@ -135,9 +146,27 @@ public class RankedBitVectorImpl implements RankedBitVector, Iterable<Boolean> {
 		return ret;
 	}
 
+	@Override
+	public void and(BitVector other) {
+		this.bitVector.and(other);
+		notifyObservers();
+	}
+
+	@Override
+	public void andNot(BitVector other) {
+		this.bitVector.andNot(other);
+		notifyObservers();
+	}
+
+	@Override
+	public void clearRange(long fromPosition, long toPosition) {
+		this.bitVector.clearRange(fromPosition, toPosition);
+		notifyObservers();
+	}
+
 	@Override
 	public long countBits(boolean bit, long position) {
-		return this.countBitsArray.countBits(bit, position);
+		return this.index.countBits(bit, position);
 	}
 
 	@Override
@@ -156,8 +185,12 @@ public class RankedBitVectorImpl implements RankedBitVector, Iterable<Boolean> {
 		if (nOccurrence <= 0) {
 			return NOT_FOUND;
 		}
-		return bit ? this.findPositionOfTrue.findPosition(nOccurrence)
-				: this.findPositionOfFalse.findPosition(nOccurrence);
+		return this.index.findPosition(bit, nOccurrence);
+	}
+
+	@Override
+	public void forEachSetBit(LongConsumer consumer) {
+		this.bitVector.forEachSetBit(consumer);
 	}
 
 	@Override
@@ -175,10 +208,24 @@ public class RankedBitVectorImpl implements RankedBitVector, Iterable<Boolean> {
 		return this.bitVector.iterator();
 	}
 
+	@Override
+	public long nextClearBit(long fromPosition) {
+		return this.bitVector.nextClearBit(fromPosition);
+	}
+
+	@Override
+	public long nextSetBit(long fromPosition) {
+		return this.bitVector.nextSetBit(fromPosition);
+	}
+
 	void notifyObservers() {
-		this.countBitsArray.update();
-		this.findPositionOfFalse.update();
-		this.findPositionOfTrue.update();
+		this.index.update();
+	}
+
+	@Override
+	public void or(BitVector other) {
+		this.bitVector.or(other);
+		notifyObservers();
 	}
 
 	@Override
@@ -190,6 +237,17 @@ public class RankedBitVectorImpl implements RankedBitVector, Iterable<Boolean> {
 		}
 	}
 
+	@Override
+	public PrimitiveIterator.OfLong setBitIterator() {
+		return this.bitVector.setBitIterator();
+	}
+
+	@Override
+	public void setRange(long fromPosition, long toPosition) {
+		this.bitVector.setRange(fromPosition, toPosition);
+		notifyObservers();
+	}
+
 	@Override
 	public long size() {
 		return this.bitVector.size();
@@ -200,4 +258,10 @@ public class RankedBitVectorImpl implements RankedBitVector, Iterable<Boolean> {
 		return this.bitVector.toString();
 	}
 
+	@Override
+	public void xor(BitVector other) {
+		this.bitVector.xor(other);
+		notifyObservers();
+	}
+
 }
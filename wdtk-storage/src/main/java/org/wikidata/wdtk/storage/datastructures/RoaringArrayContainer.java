@@ -0,0 +1,246 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Container storing its values in a sorted array, for at most
+ * {@link RoaringContainer#MAX_ARRAY_SIZE} values.
+ */
+class RoaringArrayContainer extends RoaringContainer {
+
+	static final int INITIAL_CAPACITY = 4;
+
+	/**
+	 * Values in increasing order, followed by unused entries.
+	 */
+	char[] values;
+
+	int cardinality;
+
+	RoaringArrayContainer() {
+		this(new char[INITIAL_CAPACITY], 0);
+	}
+
+	RoaringArrayContainer(char[] values, int cardinality) {
+		this.values = values;
+		this.cardinality = cardinality;
+	}
+
+	static RoaringArrayContainer fromWords(long[] words, int cardinality) {
+		char[] values = new char[Math.max(cardinality, INITIAL_CAPACITY)];
+		int n = 0;
+		for (int i = 0; i < NUMBER_OF_WORDS; i++) {
+			long word = words[i];
+			while (word != 0) {
+				values[n++] = (char) ((i << BitVectorImpl.LG_WORD_SIZE) + Long
+						.numberOfTrailingZeros(word));
+				word &= word - 1;
+			}
+		}
+		return new RoaringArrayContainer(values, cardinality);
+	}
+
+	static RoaringArrayContainer readContent(DataInput input)
+			throws IOException {
+		int cardinality = input.readUnsignedShort();
+		if (cardinality == 0 || cardinality > MAX_ARRAY_SIZE) {
+			throw new IOException("Invalid size of array container: "
+					+ cardinality + ".");
+		}
+		char[] values = new char[cardinality];
+		for (int i = 0; i < cardinality; i++) {
+			values[i] = input.readChar();
+			if (i > 0 && values[i] <= values[i - 1]) {
+				throw new IOException("Values of array container are not sorted.");
+			}
+		}
+		return new RoaringArrayContainer(values, cardinality);
+	}
+
+	int indexOf(int value) {
+		return Arrays.binarySearch(this.values, 0, this.cardinality,
+				(char) value);
+	}
+
+	@Override
+	int cardinality() {
+		return this.cardinality;
+	}
+
+	@Override
+	boolean contains(int value) {
+		return indexOf(value) >= 0;
+	}
+
+	@Override
+	RoaringContainer add(int value) {
+		int index = indexOf(value);
+		if (index >= 0) {
+			return this;
+		}
+		if (this.cardinality == MAX_ARRAY_SIZE) {
+			return new RoaringBitmapContainer(toWords(), this.cardinality)
+					.add(value);
+		}
+		index = -index - 1;
+		if (this.cardinality == this.values.length) {
+			this.values = Arrays.copyOf(this.values,
+					Math.min(2 * this.values.length, MAX_ARRAY_SIZE));
+		}
+		System.arraycopy(this.values, index, this.values, index + 1,
+				this.cardinality - index);
+		this.values[index] = (char) value;
+		this.cardinality++;
+		return this;
+	}
+
+	@Override
+	RoaringContainer remove(int value) {
+		int index = indexOf(value);
+		if (index >= 0) {
+			System.arraycopy(this.values, index + 1, this.values, index,
+					this.cardinality - index - 1);
+			this.cardinality--;
+		}
+		return this;
+	}
+
+	@Override
+	int rank(int value) {
+		int index = indexOf(value);
+		return index >= 0 ? index + 1 : -index - 1;
+	}
+
+	@Override
+	int select(int rank) {
+		return this.values[rank];
+	}
+
+	@Override
+	int nextValue(int from) {
+		int index = indexOf(from);
+		if (index < 0) {
+			index = -index - 1;
+		}
+		return index < this.cardinality ? this.values[index] : -1;
+	}
+
+	@Override
+	long getWord(int wordIndex) {
+		int start = wordIndex << BitVectorImpl.LG_WORD_SIZE;
+		int index = indexOf(start);
+		if (index < 0) {
+			index = -index - 1;
+		}
+		long word = 0;
+		while (index < this.cardinality
+				&& this.values[index] < start + BitVectorImpl.WORD_SIZE) {
+			word |= 1L << this.values[index];
+			index++;
+		}
+		return word;
+	}
+
+	@Override
+	void orInto(long[] words) {
+		for (int i = 0; i < this.cardinality; i++) {
+			char value = this.values[i];
+			words[value >>> BitVectorImpl.LG_WORD_SIZE] |= 1L << value;
+		}
+	}
+
+	@Override
+	void forEach(long base, LongConsumer consumer) {
+		for (int i = 0; i < this.cardinality; i++) {
+			consumer.accept(base | this.values[i]);
+		}
+	}
+
+	@Override
+	RoaringContainer copy() {
+		return new RoaringArrayContainer(Arrays.copyOf(this.values,
+				Math.max(this.cardinality, INITIAL_CAPACITY)), this.cardinality);
+	}
+
+	@Override
+	void writeTo(DataOutput output) throws IOException {
+		output.writeByte(ARRAY);
+		output.writeShort(this.cardinality);
+		for (int i = 0; i < this.cardinality; i++) {
+			output.writeChar(this.values[i]);
+		}
+	}
+
+	/**
+	 * Returns the values of this container that are in the other container,
+	 * if <i>keep</i> is <code>true</code>, or that are not, otherwise.
+	 */
+	RoaringArrayContainer filter(RoaringContainer other, boolean keep) {
+		char[] result = new char[Math.max(this.cardinality, INITIAL_CAPACITY)];
+		int n = 0;
+		for (int i = 0; i < this.cardinality; i++) {
+			if (other.contains(this.values[i]) == keep) {
+				result[n++] = this.values[i];
+			}
+		}
+		return new RoaringArrayContainer(result, n);
+	}
+
+	/**
+	 * Merges the values of two array containers, whose cardinalities add up
+	 * to at most {@link RoaringContainer#MAX_ARRAY_SIZE}.
+	 */
+	RoaringArrayContainer union(RoaringArrayContainer other) {
+		char[] result = new char[Math.max(this.cardinality + other.cardinality,
+				INITIAL_CAPACITY)];
+		int i = 0;
+		int j = 0;
+		int n = 0;
+		while (i < this.cardinality && j < other.cardinality) {
+			char a = this.values[i];
+			char b = other.values[j];
+			if (a <= b) {
+				result[n++] = a;
+				i++;
+				if (a == b) {
+					j++;
+				}
+			} else {
+				result[n++] = b;
+				j++;
+			}
+		}
+		while (i < this.cardinality) {
+			result[n++] = this.values[i++];
+		}
+		while (j < other.cardinality) {
+			result[n++] = other.values[j++];
+		}
+		return new RoaringArrayContainer(result, n);
+	}
+
+}
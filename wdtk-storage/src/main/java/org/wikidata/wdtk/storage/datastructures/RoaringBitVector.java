@@ -0,0 +1,718 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Compressed implementation of {@link RankedBitVector}, for sparse or
+ * clustered bits, following the design of Roaring bitmaps. The positions of
+ * the <code>true</code> values are grouped by their bits above the lowest 16.
+ * Each non-empty group is stored in a container, which is a sorted array for
+ * up to 4096 values, a bitmap of 8 kB for more values, or a list of runs of
+ * consecutive values after {@link #runOptimize()}. Empty ranges of the bit
+ * vector take no memory.
+ * <p>
+ * Like {@link BitVectorImpl}, this bit vector is <i>flexible</i>: any
+ * non-negative position can be set, which enlarges the bit vector if needed,
+ * and positions outside the bit vector contain <code>false</code>.
+ * <p>
+ * Set operations are done in place, container by container, with other bit
+ * vectors of this class; other bit vectors are compressed first.
+ * {@link #writeTo(DataOutput)} writes a compact serialization of the
+ * containers.
+ */
+public class RoaringBitVector implements RankedBitVector, Iterable<Boolean> {
+
+	static final int INITIAL_CAPACITY = 4;
+
+	/**
+	 * Keys of the containers, which are the positions shifted right by 16, in
+	 * increasing order.
+	 */
+	long[] keys;
+
+	RoaringContainer[] containers;
+
+	int numberOfContainers;
+
+	long size;
+
+	/**
+	 * Number of <code>true</code> values before each container, followed by
+	 * the total, or <code>null</code> if they need to be computed again.
+	 */
+	long[] countsBefore;
+
+	int hashCode;
+
+	boolean validHashCode = false;
+
+	/**
+	 * Constructor of a bit vector of size 0.
+	 */
+	public RoaringBitVector() {
+		this(0);
+	}
+
+	/**
+	 * Constructor of a bit vector of size <i>initialSize</i>. The bit vector
+	 * contains <code>false</code> at all indexes.
+	 *
+	 * @param initialSize
+	 *            initial size of this bit vector
+	 */
+	public RoaringBitVector(long initialSize) {
+		if (initialSize < 0) {
+			throw new IllegalArgumentException("Wrong bit vector size '"
+					+ initialSize + "'. Bit vector size must be non-negative.");
+		}
+		this.keys = new long[INITIAL_CAPACITY];
+		this.containers = new RoaringContainer[INITIAL_CAPACITY];
+		this.size = initialSize;
+	}
+
+	/**
+	 * Copy constructor of a bit vector.
+	 *
+	 * @param bitVector
+	 *            bit vector
+	 */
+	public RoaringBitVector(BitVector bitVector) {
+		Validate.notNull(bitVector, "Bit vector cannot be null.");
+		if (bitVector instanceof RoaringBitVector) {
+			RoaringBitVector other = (RoaringBitVector) bitVector;
+			int capacity = Math.max(other.numberOfContainers, INITIAL_CAPACITY);
+			this.keys = Arrays.copyOf(other.keys, capacity);
+			this.containers = new RoaringContainer[capacity];
+			for (int i = 0; i < other.numberOfContainers; i++) {
+				this.containers[i] = other.containers[i].copy();
+			}
+			this.numberOfContainers = other.numberOfContainers;
+			this.size = other.size;
+		} else {
+			this.keys = new long[INITIAL_CAPACITY];
+			this.containers = new RoaringContainer[INITIAL_CAPACITY];
+			this.size = bitVector.size();
+			bitVector.forEachSetBit(position -> setBit(position, true));
+		}
+	}
+
+	/**
+	 * Reads a bit vector written by {@link #writeTo(DataOutput)}.
+	 *
+	 * @param input
+	 *            input
+	 * @return the bit vector
+	 * @throws IOException
+	 *             if the input cannot be read or does not contain a bit
+	 *             vector
+	 */
+	public static RoaringBitVector readFrom(DataInput input)
+			throws IOException {
+		long size = input.readLong();
+		int numberOfContainers = input.readInt();
+		if (size < 0 || numberOfContainers < 0) {
+			throw new IOException("Invalid size of bit vector.");
+		}
+		RoaringBitVector ret = new RoaringBitVector(size);
+		ret.ensureCapacity(numberOfContainers);
+		for (int i = 0; i < numberOfContainers; i++) {
+			long key = input.readLong();
+			if (key < 0 || (i > 0 && key <= ret.keys[i - 1])) {
+				throw new IOException("Keys of bit vector are not sorted.");
+			}
+			ret.keys[i] = key;
+			ret.containers[i] = RoaringContainer.readFrom(input);
+			ret.numberOfContainers++;
+		}
+		if (numberOfContainers > 0 && ret.lastPosition() >= size) {
+			throw new IOException("Bit vector contains positions beyond its size.");
+		}
+		return ret;
+	}
+
+	/**
+	 * Writes this bit vector: its size and number of containers, followed by
+	 * the key, kind and content of each container.
+	 *
+	 * @param output
+	 *            output
+	 * @throws IOException
+	 *             if the output cannot be written
+	 */
+	public void writeTo(DataOutput output) throws IOException {
+		output.writeLong(this.size);
+		output.writeInt(this.numberOfContainers);
+		for (int i = 0; i < this.numberOfContainers; i++) {
+			output.writeLong(this.keys[i]);
+			this.containers[i].writeTo(output);
+		}
+	}
+
+	static long getKey(long position) {
+		return position >>> RoaringContainer.LG_CONTAINER_SIZE;
+	}
+
+	static int getValue(long position) {
+		return (int) (position & RoaringContainer.CONTAINER_MASK);
+	}
+
+	long getBase(int index) {
+		return this.keys[index] << RoaringContainer.LG_CONTAINER_SIZE;
+	}
+
+	/**
+	 * @return the index of the container with the given key, or (-(insertion
+	 *         point) - 1) if there is none
+	 */
+	int indexOf(long key) {
+		return Arrays.binarySearch(this.keys, 0, this.numberOfContainers, key);
+	}
+
+	long lastPosition() {
+		int last = this.numberOfContainers - 1;
+		return getBase(last)
+				+ this.containers[last]
+						.select(this.containers[last].cardinality() - 1);
+	}
+
+	void ensureCapacity(int capacity) {
+		if (capacity > this.keys.length) {
+			int newCapacity = Math.max(capacity, 2 * this.keys.length);
+			this.keys = Arrays.copyOf(this.keys, newCapacity);
+			this.containers = Arrays.copyOf(this.containers, newCapacity);
+		}
+	}
+
+	void insertContainer(int index, long key, RoaringContainer container) {
+		ensureCapacity(this.numberOfContainers + 1);
+		System.arraycopy(this.keys, index, this.keys, index + 1,
+				this.numberOfContainers - index);
+		System.arraycopy(this.containers, index, this.containers, index + 1,
+				this.numberOfContainers - index);
+		this.keys[index] = key;
+		this.containers[index] = container;
+		this.numberOfContainers++;
+	}
+
+	void removeContainer(int index) {
+		System.arraycopy(this.keys, index + 1, this.keys, index,
+				this.numberOfContainers - index - 1);
+		System.arraycopy(this.containers, index + 1, this.containers, index,
+				this.numberOfContainers - index - 1);
+		this.numberOfContainers--;
+		this.containers[this.numberOfContainers] = null;
+	}
+
+	/**
+	 * Records that the bits have changed.
+	 */
+	void notifyChange() {
+		this.countsBefore = null;
+		this.validHashCode = false;
+	}
+
+	/**
+	 * @param position
+	 *            position
+	 * @throws IndexOutOfBoundsException
+	 *             if the position is a negative number
+	 */
+	void assertNonNegativePosition(long position) {
+		if (position < 0) {
+			throw new IndexOutOfBoundsException("Position " + position
+					+ " is out of bounds.");
+		}
+	}
+
+	@Override
+	public boolean addBit(boolean bit) {
+		this.size++;
+		setBit(this.size - 1, bit);
+		return true;
+	}
+
+	@Override
+	public boolean getBit(long position) {
+		assertNonNegativePosition(position);
+		int index = indexOf(getKey(position));
+		return index >= 0
+				&& this.containers[index].contains(getValue(position));
+	}
+
+	@Override
+	public void setBit(long position, boolean bit) {
+		assertNonNegativePosition(position);
+		if (position >= this.size) {
+			this.size = position + 1;
+			this.validHashCode = false;
+		}
+		long key = getKey(position);
+		int index = indexOf(key);
+		if (bit) {
+			if (index >= 0) {
+				this.containers[index] = this.containers[index]
+						.add(getValue(position));
+			} else {
+				insertContainer(-index - 1, key,
+						new RoaringArrayContainer().add(getValue(position)));
+			}
+			notifyChange();
+		} else if (index >= 0) {
+			RoaringContainer container = this.containers[index]
+					.remove(getValue(position));
+			if (container.cardinality() == 0) {
+				removeContainer(index);
+			} else {
+				this.containers[index] = container;
+			}
+			notifyChange();
+		}
+	}
+
+	@Override
+	public long size() {
+		return this.size;
+	}
+
+	/**
+	 * @return the number of <code>true</code> values of this bit vector
+	 */
+	public long cardinality() {
+		return getCountsBefore()[this.numberOfContainers];
+	}
+
+	long[] getCountsBefore() {
+		if (this.countsBefore == null) {
+			long[] counts = new long[this.numberOfContainers + 1];
+			for (int i = 0; i < this.numberOfContainers; i++) {
+				counts[i + 1] = counts[i] + this.containers[i].cardinality();
+			}
+			this.countsBefore = counts;
+		}
+		return this.countsBefore;
+	}
+
+	@Override
+	public long countBits(boolean bit, long position) {
+		long trueValues;
+		if (position < 0) {
+			trueValues = 0;
+		} else {
+			long[] counts = getCountsBefore();
+			int index = indexOf(getKey(position));
+			if (index >= 0) {
+				trueValues = counts[index]
+						+ this.containers[index].rank(getValue(position));
+			} else {
+				trueValues = counts[-index - 1];
+			}
+		}
+		return bit ? trueValues : ((position + 1) - trueValues);
+	}
+
+	@Override
+	public long findPosition(boolean bit, long nOccurrence) {
+		if (nOccurrence <= 0) {
+			return NOT_FOUND;
+		}
+		long[] counts = getCountsBefore();
+		if (bit) {
+			if (nOccurrence > counts[this.numberOfContainers]) {
+				return NOT_FOUND;
+			}
+			// last container with fewer occurrences before it
+			int low = 0;
+			int high = this.numberOfContainers - 1;
+			while (low < high) {
+				int middle = (low + high + 1) >>> 1;
+				if (counts[middle] < nOccurrence) {
+					low = middle;
+				} else {
+					high = middle - 1;
+				}
+			}
+			return getBase(low)
+					+ this.containers[low]
+							.select((int) (nOccurrence - counts[low] - 1));
+		}
+
+		// last container with fewer occurrences of false before it
+		int low = -1;
+		int high = this.numberOfContainers - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (getBase(middle) - counts[middle] < nOccurrence) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		long ret;
+		if (low < 0) {
+			ret = nOccurrence - 1;
+		} else {
+			long remaining = nOccurrence - (getBase(low) - counts[low]);
+			int zeros = RoaringContainer.CONTAINER_SIZE
+					- this.containers[low].cardinality();
+			if (remaining <= zeros) {
+				ret = getBase(low)
+						+ this.containers[low].selectZero((int) remaining - 1);
+			} else {
+				ret = getBase(low) + RoaringContainer.CONTAINER_SIZE
+						+ (remaining - zeros) - 1;
+			}
+		}
+		return ret < this.size ? ret : NOT_FOUND;
+	}
+
+	@Override
+	public long nextSetBit(long fromPosition) {
+		assertNonNegativePosition(fromPosition);
+		int index = indexOf(getKey(fromPosition));
+		if (index >= 0) {
+			int value = this.containers[index].nextValue(getValue(fromPosition));
+			if (value >= 0) {
+				return getBase(index) + value;
+			}
+			index++;
+		} else {
+			index = -index - 1;
+		}
+		if (index < this.numberOfContainers) {
+			return getBase(index) + this.containers[index].select(0);
+		}
+		return NOT_FOUND;
+	}
+
+	@Override
+	public long nextClearBit(long fromPosition) {
+		assertNonNegativePosition(fromPosition);
+		long position = fromPosition;
+		while (true) {
+			int index = indexOf(getKey(position));
+			if (index < 0) {
+				return position;
+			}
+			RoaringContainer container = this.containers[index];
+			int value = getValue(position);
+			if (!container.contains(value)) {
+				return position;
+			}
+			int zeros = container.rankOfZeros(value);
+			if (zeros < RoaringContainer.CONTAINER_SIZE
+					- container.cardinality()) {
+				return getBase(index) + container.selectZero(zeros);
+			}
+			// the container is full from the position on
+			position = getBase(index) + RoaringContainer.CONTAINER_SIZE;
+		}
+	}
+
+	@Override
+	public PrimitiveIterator.OfLong setBitIterator() {
+		return new PrimitiveIterator.OfLong() {
+
+			int index = 0;
+
+			int nextValue = RoaringBitVector.this.numberOfContainers > 0 ? RoaringBitVector.this.containers[0]
+					.select(0) : -1;
+
+			@Override
+			public boolean hasNext() {
+				return this.nextValue >= 0;
+			}
+
+			@Override
+			public long nextLong() {
+				if (this.nextValue < 0) {
+					throw new NoSuchElementException();
+				}
+				long ret = getBase(this.index) + this.nextValue;
+				RoaringContainer[] containers = RoaringBitVector.this.containers;
+				this.nextValue = this.nextValue < RoaringContainer.CONTAINER_MASK ? containers[this.index]
+						.nextValue(this.nextValue + 1) : -1;
+				if (this.nextValue < 0) {
+					this.index++;
+					if (this.index < RoaringBitVector.this.numberOfContainers) {
+						this.nextValue = containers[this.index].select(0);
+					}
+				}
+				return ret;
+			}
+		};
+	}
+
+	@Override
+	public void forEachSetBit(LongConsumer consumer) {
+		for (int i = 0; i < this.numberOfContainers; i++) {
+			this.containers[i].forEach(getBase(i), consumer);
+		}
+	}
+
+	@Override
+	public void setRange(long fromPosition, long toPosition) {
+		BitVectorImpl.assertValidRange(fromPosition, toPosition);
+		if (fromPosition < toPosition) {
+			merge(makeRange(fromPosition, toPosition), false);
+		}
+	}
+
+	@Override
+	public void clearRange(long fromPosition, long toPosition) {
+		BitVectorImpl.assertValidRange(fromPosition, toPosition);
+		long end = Math.min(toPosition, this.size);
+		if (fromPosition < end) {
+			andNot(makeRange(fromPosition, end));
+		}
+	}
+
+	/**
+	 * Returns a bit vector where the given range is <code>true</code>, stored
+	 * in run containers.
+	 */
+	static RoaringBitVector makeRange(long fromPosition, long toPosition) {
+		RoaringBitVector ret = new RoaringBitVector(toPosition);
+		long firstKey = getKey(fromPosition);
+		long lastKey = getKey(toPosition - 1);
+		ret.ensureCapacity((int) (lastKey - firstKey + 1));
+		for (long key = firstKey; key <= lastKey; key++) {
+			int start = key == firstKey ? getValue(fromPosition) : 0;
+			int end = key == lastKey ? getValue(toPosition - 1)
+					: RoaringContainer.CONTAINER_MASK;
+			ret.keys[ret.numberOfContainers] = key;
+			ret.containers[ret.numberOfContainers] = new RoaringRunContainer(
+					new char[] { (char) start, (char) (end - start) }, 1);
+			ret.numberOfContainers++;
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the given bit vector, or a compressed copy of it.
+	 */
+	static RoaringBitVector toRoaringBitVector(BitVector bitVector) {
+		Validate.notNull(bitVector, "Bit vector cannot be null.");
+		if (bitVector instanceof RoaringBitVector) {
+			return (RoaringBitVector) bitVector;
+		}
+		return new RoaringBitVector(bitVector);
+	}
+
+	@Override
+	public void and(BitVector bitVector) {
+		RoaringBitVector other = toRoaringBitVector(bitVector);
+		int n = 0;
+		int j = 0;
+		for (int i = 0; i < this.numberOfContainers; i++) {
+			while (j < other.numberOfContainers
+					&& other.keys[j] < this.keys[i]) {
+				j++;
+			}
+			if (j < other.numberOfContainers && other.keys[j] == this.keys[i]) {
+				RoaringContainer container = this.containers[i]
+						.and(other.containers[j]);
+				if (container.cardinality() > 0) {
+					this.keys[n] = this.keys[i];
+					this.containers[n] = container;
+					n++;
+				}
+			}
+		}
+		Arrays.fill(this.containers, n, this.numberOfContainers, null);
+		this.numberOfContainers = n;
+		notifyChange();
+	}
+
+	@Override
+	public void andNot(BitVector bitVector) {
+		RoaringBitVector other = toRoaringBitVector(bitVector);
+		int n = 0;
+		int j = 0;
+		for (int i = 0; i < this.numberOfContainers; i++) {
+			while (j < other.numberOfContainers
+					&& other.keys[j] < this.keys[i]) {
+				j++;
+			}
+			RoaringContainer container = this.containers[i];
+			if (j < other.numberOfContainers && other.keys[j] == this.keys[i]) {
+				container = container.andNot(other.containers[j]);
+			}
+			if (container.cardinality() > 0) {
+				this.keys[n] = this.keys[i];
+				this.containers[n] = container;
+				n++;
+			}
+		}
+		Arrays.fill(this.containers, n, this.numberOfContainers, null);
+		this.numberOfContainers = n;
+		notifyChange();
+	}
+
+	@Override
+	public void or(BitVector bitVector) {
+		merge(toRoaringBitVector(bitVector), false);
+	}
+
+	@Override
+	public void xor(BitVector bitVector) {
+		merge(toRoaringBitVector(bitVector), true);
+	}
+
+	/**
+	 * Computes the union or the symmetric difference with the other bit
+	 * vector, into new arrays of containers.
+	 */
+	void merge(RoaringBitVector other, boolean xor) {
+		int capacity = Math.max(this.numberOfContainers
+				+ other.numberOfContainers, INITIAL_CAPACITY);
+		long[] newKeys = new long[capacity];
+		RoaringContainer[] newContainers = new RoaringContainer[capacity];
+		int n = 0;
+		int i = 0;
+		int j = 0;
+		while (i < this.numberOfContainers || j < other.numberOfContainers) {
+			long key;
+			RoaringContainer container;
+			if (j == other.numberOfContainers
+					|| (i < this.numberOfContainers && this.keys[i] < other.keys[j])) {
+				key = this.keys[i];
+				container = this.containers[i++];
+			} else if (i == this.numberOfContainers
+					|| other.keys[j] < this.keys[i]) {
+				key = other.keys[j];
+				container = other.containers[j++].copy();
+			} else {
+				key = this.keys[i];
+				container = xor ? this.containers[i++]
+						.xor(other.containers[j++]) : this.containers[i++]
+						.or(other.containers[j++]);
+			}
+			if (container.cardinality() > 0) {
+				newKeys[n] = key;
+				newContainers[n] = container;
+				n++;
+			}
+		}
+		this.keys = newKeys;
+		this.containers = newContainers;
+		this.numberOfContainers = n;
+		this.size = Math.max(this.size, other.size);
+		notifyChange();
+	}
+
+	/**
+	 * Converts each container to the kind that takes the least memory, which
+	 * stores long runs of consecutive <code>true</code> values compactly. Run
+	 * containers are replaced again when they are modified.
+	 */
+	public void runOptimize() {
+		for (int i = 0; i < this.numberOfContainers; i++) {
+			this.containers[i] = this.containers[i].runOptimize();
+		}
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof BitVector)) {
+			return false;
+		}
+		BitVector other = (BitVector) obj;
+		if (this.size != other.size()) {
+			return false;
+		}
+
+		if (other instanceof RoaringBitVector) {
+			RoaringBitVector otherRoaring = (RoaringBitVector) other;
+			if (this.numberOfContainers != otherRoaring.numberOfContainers) {
+				return false;
+			}
+			for (int i = 0; i < this.numberOfContainers; i++) {
+				RoaringContainer container = this.containers[i];
+				RoaringContainer otherContainer = otherRoaring.containers[i];
+				if (this.keys[i] != otherRoaring.keys[i]
+						|| container.cardinality() != otherContainer
+								.cardinality()) {
+					return false;
+				}
+				for (int w = 0; w < RoaringContainer.NUMBER_OF_WORDS; w++) {
+					if (container.getWord(w) != otherContainer.getWord(w)) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+
+		for (long i = 0; i < this.size; i++) {
+			if (getBit(i) != other.getBit(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the same hash code as {@link BitVectorImpl} for the same bits.
+	 */
+	@Override
+	public int hashCode() {
+		if (!this.validHashCode) {
+			long ret = this.size;
+			for (int i = 0; i < this.numberOfContainers; i++) {
+				for (long word : this.containers[i].toWords()) {
+					ret += 0x1F * word;
+				}
+			}
+			this.hashCode = (int) ret;
+			this.validHashCode = true;
+		}
+		return this.hashCode;
+	}
+
+	@Override
+	public Iterator<Boolean> iterator() {
+		return new BitVectorIterator(this);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (long position = 0; position < this.size; position++) {
+			sb.append(getBit(position) ? "1" : "0");
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,167 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.LongConsumer;
+
+/**
+ * Container storing its values as the bits of 1024 words, for more than
+ * {@link RoaringContainer#MAX_ARRAY_SIZE} values.
+ */
+class RoaringBitmapContainer extends RoaringContainer {
+
+	final long[] words;
+
+	int cardinality;
+
+	RoaringBitmapContainer(long[] words, int cardinality) {
+		this.words = words;
+		this.cardinality = cardinality;
+	}
+
+	static RoaringBitmapContainer readContent(DataInput input)
+			throws IOException {
+		long[] words = new long[NUMBER_OF_WORDS];
+		int cardinality = 0;
+		for (int i = 0; i < NUMBER_OF_WORDS; i++) {
+			words[i] = input.readLong();
+			cardinality += Long.bitCount(words[i]);
+		}
+		if (cardinality <= MAX_ARRAY_SIZE) {
+			throw new IOException("Invalid size of bitmap container: "
+					+ cardinality + ".");
+		}
+		return new RoaringBitmapContainer(words, cardinality);
+	}
+
+	@Override
+	int cardinality() {
+		return this.cardinality;
+	}
+
+	@Override
+	boolean contains(int value) {
+		return (this.words[value >>> BitVectorImpl.LG_WORD_SIZE] & (1L << value)) != 0;
+	}
+
+	@Override
+	RoaringContainer add(int value) {
+		int index = value >>> BitVectorImpl.LG_WORD_SIZE;
+		long word = this.words[index];
+		long newWord = word | (1L << value);
+		if (newWord != word) {
+			this.words[index] = newWord;
+			this.cardinality++;
+		}
+		return this;
+	}
+
+	@Override
+	RoaringContainer remove(int value) {
+		int index = value >>> BitVectorImpl.LG_WORD_SIZE;
+		long word = this.words[index];
+		long newWord = word & ~(1L << value);
+		if (newWord != word) {
+			this.words[index] = newWord;
+			this.cardinality--;
+			if (this.cardinality <= MAX_ARRAY_SIZE) {
+				return RoaringArrayContainer.fromWords(this.words,
+						this.cardinality);
+			}
+		}
+		return this;
+	}
+
+	@Override
+	int rank(int value) {
+		int last = value >>> BitVectorImpl.LG_WORD_SIZE;
+		int ret = 0;
+		for (int i = 0; i < last; i++) {
+			ret += Long.bitCount(this.words[i]);
+		}
+		return ret
+				+ Long.bitCount(this.words[last]
+						& (-1L >>> (BitVectorImpl.WORD_MASK - (value & BitVectorImpl.WORD_MASK))));
+	}
+
+	@Override
+	int select(int rank) {
+		int remaining = rank;
+		for (int i = 0; i < NUMBER_OF_WORDS; i++) {
+			int count = Long.bitCount(this.words[i]);
+			if (remaining < count) {
+				return (i << BitVectorImpl.LG_WORD_SIZE)
+						+ RankSelectIndex.selectInWord(this.words[i], remaining);
+			}
+			remaining -= count;
+		}
+		throw new IllegalArgumentException("Rank " + rank
+				+ " is not less than the cardinality " + this.cardinality + ".");
+	}
+
+	@Override
+	int nextValue(int from) {
+		int ret = nextBit(this.words, from, true);
+		return ret == CONTAINER_SIZE ? -1 : ret;
+	}
+
+	@Override
+	long getWord(int wordIndex) {
+		return this.words[wordIndex];
+	}
+
+	@Override
+	void orInto(long[] words) {
+		for (int i = 0; i < NUMBER_OF_WORDS; i++) {
+			words[i] |= this.words[i];
+		}
+	}
+
+	@Override
+	void forEach(long base, LongConsumer consumer) {
+		for (int i = 0; i < NUMBER_OF_WORDS; i++) {
+			long word = this.words[i];
+			while (word != 0) {
+				consumer.accept(base
+						| ((i << BitVectorImpl.LG_WORD_SIZE) + Long
+								.numberOfTrailingZeros(word)));
+				word &= word - 1;
+			}
+		}
+	}
+
+	@Override
+	RoaringContainer copy() {
+		return new RoaringBitmapContainer(this.words.clone(), this.cardinality);
+	}
+
+	@Override
+	void writeTo(DataOutput output) throws IOException {
+		output.writeByte(BITMAP);
+		for (long word : this.words) {
+			output.writeLong(word);
+		}
+	}
+
+}
@@ -0,0 +1,353 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.LongConsumer;
+
+/**
+ * Set of 16-bit values, used by {@link RoaringBitVector} for the positions
+ * that share their higher bits. There are three implementations: a sorted
+ * array for sparse sets, a bitmap of 1024 words for dense sets, and a list of
+ * runs for sets made of consecutive values.
+ * <p>
+ * Modifications return the container that holds the result, which is either
+ * this container or a new one of a more suitable kind.
+ */
+abstract class RoaringContainer {
+
+	static final int LG_CONTAINER_SIZE = 16;
+
+	static final int CONTAINER_SIZE = 1 << LG_CONTAINER_SIZE;
+
+	static final int CONTAINER_MASK = CONTAINER_SIZE - 1;
+
+	static final int NUMBER_OF_WORDS = CONTAINER_SIZE >>> BitVectorImpl.LG_WORD_SIZE;
+
+	/**
+	 * Maximum cardinality of an array container. Above it, a bitmap takes
+	 * less memory.
+	 */
+	static final int MAX_ARRAY_SIZE = 4096;
+
+	static final byte ARRAY = 0;
+
+	static final byte BITMAP = 1;
+
+	static final byte RUN = 2;
+
+	/**
+	 * @return the number of values of this container
+	 */
+	abstract int cardinality();
+
+	/**
+	 * @param value
+	 *            value
+	 * @return <code>true</code> if the value is in this container
+	 */
+	abstract boolean contains(int value);
+
+	/**
+	 * Adds a value.
+	 *
+	 * @param value
+	 *            value
+	 * @return the container holding the result
+	 */
+	abstract RoaringContainer add(int value);
+
+	/**
+	 * Removes a value. The resulting container can be empty.
+	 *
+	 * @param value
+	 *            value
+	 * @return the container holding the result
+	 */
+	abstract RoaringContainer remove(int value);
+
+	/**
+	 * @param value
+	 *            value
+	 * @return the number of values in this container up to the given value
+	 */
+	abstract int rank(int value);
+
+	/**
+	 * @param rank
+	 *            number of values before the requested one, which must be
+	 *            less than the cardinality
+	 * @return the value with the given rank
+	 */
+	abstract int select(int rank);
+
+	/**
+	 * @param from
+	 *            value where the search starts
+	 * @return the smallest value of this container that is not less than
+	 *         <i>from</i>, or -1 if there is none
+	 */
+	abstract int nextValue(int from);
+
+	/**
+	 * @param wordIndex
+	 *            index of a word, between 0 and 1023
+	 * @return the 64 bits of the given word
+	 */
+	abstract long getWord(int wordIndex);
+
+	/**
+	 * Sets the bits of all values of this container in the given words.
+	 *
+	 * @param words
+	 *            array of 1024 words
+	 */
+	abstract void orInto(long[] words);
+
+	/**
+	 * Passes each value of this container, plus the given base, to the
+	 * consumer in increasing order.
+	 *
+	 * @param base
+	 *            position of value 0
+	 * @param consumer
+	 *            consumer
+	 */
+	abstract void forEach(long base, LongConsumer consumer);
+
+	/**
+	 * @return a copy of this container
+	 */
+	abstract RoaringContainer copy();
+
+	/**
+	 * Writes the kind of this container, followed by its content.
+	 *
+	 * @param output
+	 *            output
+	 * @throws IOException
+	 *             if the output cannot be written
+	 */
+	abstract void writeTo(DataOutput output) throws IOException;
+
+	/**
+	 * Reads a container written by {@link #writeTo(DataOutput)}.
+	 *
+	 * @param input
+	 *            input
+	 * @return the container, which is not empty
+	 * @throws IOException
+	 *             if the input cannot be read or does not contain a container
+	 */
+	static RoaringContainer readFrom(DataInput input) throws IOException {
+		byte kind = input.readByte();
+		switch (kind) {
+		case ARRAY:
+			return RoaringArrayContainer.readContent(input);
+		case BITMAP:
+			return RoaringBitmapContainer.readContent(input);
+		case RUN:
+			return RoaringRunContainer.readContent(input);
+		default:
+			throw new IOException("Unknown kind of container: " + kind + ".");
+		}
+	}
+
+	/**
+	 * @return the number of values not in this container up to the given
+	 *         value
+	 */
+	int rankOfZeros(int value) {
+		return value + 1 - rank(value);
+	}
+
+	/**
+	 * @param rank
+	 *            number of values not in this container before the requested
+	 *            one, which must be less than the number of such values
+	 * @return the value with the given rank among those not in this container
+	 */
+	int selectZero(int rank) {
+		int low = 0;
+		int high = CONTAINER_MASK;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (rankOfZeros(middle) > rank) {
+				high = middle;
+			} else {
+				low = middle + 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return the bits of this container as an array of 1024 words
+	 */
+	long[] toWords() {
+		long[] words = new long[NUMBER_OF_WORDS];
+		orInto(words);
+		return words;
+	}
+
+	RoaringContainer and(RoaringContainer other) {
+		if (this instanceof RoaringArrayContainer) {
+			return ((RoaringArrayContainer) this).filter(other, true);
+		} else if (other instanceof RoaringArrayContainer) {
+			return ((RoaringArrayContainer) other).filter(this, true);
+		}
+		long[] words = toWords();
+		for (int i = 0; i < NUMBER_OF_WORDS; i++) {
+			words[i] &= other.getWord(i);
+		}
+		return fromWords(words);
+	}
+
+	RoaringContainer or(RoaringContainer other) {
+		if (this instanceof RoaringArrayContainer
+				&& other instanceof RoaringArrayContainer
+				&& cardinality() + other.cardinality() <= MAX_ARRAY_SIZE) {
+			return ((RoaringArrayContainer) this)
+					.union((RoaringArrayContainer) other);
+		}
+		long[] words = toWords();
+		other.orInto(words);
+		return fromWords(words);
+	}
+
+	RoaringContainer xor(RoaringContainer other) {
+		long[] words = toWords();
+		for (int i = 0; i < NUMBER_OF_WORDS; i++) {
+			words[i] ^= other.getWord(i);
+		}
+		return fromWords(words);
+	}
+
+	RoaringContainer andNot(RoaringContainer other) {
+		if (this instanceof RoaringArrayContainer) {
+			return ((RoaringArrayContainer) this).filter(other, false);
+		}
+		long[] words = toWords();
+		for (int i = 0; i < NUMBER_OF_WORDS; i++) {
+			words[i] &= ~other.getWord(i);
+		}
+		return fromWords(words);
+	}
+
+	/**
+	 * Returns the kind of container that takes the least memory for the
+	 * values of this container, which can be this container.
+	 *
+	 * @return the container holding the result
+	 */
+	RoaringContainer runOptimize() {
+		long[] words = toWords();
+		int runs = countRuns(words);
+		int cardinality = cardinality();
+		int runBytes = 4 * runs;
+		int arrayBytes = cardinality <= MAX_ARRAY_SIZE ? 2 * cardinality
+				: Integer.MAX_VALUE;
+		int bitmapBytes = 8 * NUMBER_OF_WORDS;
+		if (runBytes < Math.min(arrayBytes, bitmapBytes)) {
+			return this instanceof RoaringRunContainer ? this
+					: RoaringRunContainer.fromWords(words, runs);
+		} else if (arrayBytes <= bitmapBytes) {
+			return this instanceof RoaringArrayContainer ? this
+					: RoaringArrayContainer.fromWords(words, cardinality);
+		} else {
+			return this instanceof RoaringBitmapContainer ? this
+					: new RoaringBitmapContainer(words, cardinality);
+		}
+	}
+
+	/**
+	 * Returns an array or bitmap container with the given bits, which can be
+	 * empty.
+	 *
+	 * @param words
+	 *            array of 1024 words, which is owned by the result
+	 * @return the container
+	 */
+	static RoaringContainer fromWords(long[] words) {
+		int cardinality = 0;
+		for (long word : words) {
+			cardinality += Long.bitCount(word);
+		}
+		if (cardinality <= MAX_ARRAY_SIZE) {
+			return RoaringArrayContainer.fromWords(words, cardinality);
+		}
+		return new RoaringBitmapContainer(words, cardinality);
+	}
+
+	/**
+	 * @return the number of runs of consecutive values in the given words
+	 */
+	static int countRuns(long[] words) {
+		int ret = 0;
+		long carry = 0;
+		for (long word : words) {
+			ret += Long.bitCount(word & ~((word << 1) | carry));
+			carry = word >>> BitVectorImpl.WORD_MASK;
+		}
+		return ret;
+	}
+
+	/**
+	 * @return the position of the first bit equal to <i>bit</i> from the given
+	 *         position on, or {@link #CONTAINER_SIZE} if there is none
+	 */
+	static int nextBit(long[] words, int from, boolean bit) {
+		int wordIndex = from >>> BitVectorImpl.LG_WORD_SIZE;
+		if (wordIndex >= NUMBER_OF_WORDS) {
+			return CONTAINER_SIZE;
+		}
+		long word = (bit ? words[wordIndex] : ~words[wordIndex]) & (-1L << from);
+		while (word == 0) {
+			wordIndex++;
+			if (wordIndex == NUMBER_OF_WORDS) {
+				return CONTAINER_SIZE;
+			}
+			word = bit ? words[wordIndex] : ~words[wordIndex];
+		}
+		return (wordIndex << BitVectorImpl.LG_WORD_SIZE)
+				+ Long.numberOfTrailingZeros(word);
+	}
+
+	/**
+	 * Sets the bits from <i>start</i> to <i>end</i>, both included.
+	 */
+	static void setRange(long[] words, int start, int end) {
+		int first = start >>> BitVectorImpl.LG_WORD_SIZE;
+		int last = end >>> BitVectorImpl.LG_WORD_SIZE;
+		if (first == last) {
+			words[first] |= (-1L << start) & (-1L >>> (BitVectorImpl.WORD_MASK - (end & BitVectorImpl.WORD_MASK)));
+			return;
+		}
+		words[first] |= -1L << start;
+		for (int i = first + 1; i < last; i++) {
+			words[i] = -1L;
+		}
+		words[last] |= -1L >>> (BitVectorImpl.WORD_MASK - (end & BitVectorImpl.WORD_MASK));
+	}
+
+}
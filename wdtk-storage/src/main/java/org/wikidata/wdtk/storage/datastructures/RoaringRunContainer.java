@@ -0,0 +1,224 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Container storing its values as runs of consecutive values. Each run is
+ * given by its first value and by its length minus one.
+ * <p>
+ * This container is created by {@link RoaringContainer#runOptimize()}. It is
+ * not modified in place: adding or removing a value returns an array or a
+ * bitmap container.
+ */
+class RoaringRunContainer extends RoaringContainer {
+
+	/**
+	 * Pairs of the first value and the length minus one of each run, in
+	 * increasing order.
+	 */
+	final char[] runs;
+
+	final int numberOfRuns;
+
+	final int cardinality;
+
+	RoaringRunContainer(char[] runs, int numberOfRuns) {
+		this.runs = runs;
+		this.numberOfRuns = numberOfRuns;
+		int cardinality = 0;
+		for (int i = 0; i < numberOfRuns; i++) {
+			cardinality += this.runs[2 * i + 1] + 1;
+		}
+		this.cardinality = cardinality;
+	}
+
+	static RoaringRunContainer fromWords(long[] words, int numberOfRuns) {
+		char[] runs = new char[2 * numberOfRuns];
+		int start = nextBit(words, 0, true);
+		for (int i = 0; i < numberOfRuns; i++) {
+			int end = nextBit(words, start, false);
+			runs[2 * i] = (char) start;
+			runs[2 * i + 1] = (char) (end - start - 1);
+			start = nextBit(words, end, true);
+		}
+		return new RoaringRunContainer(runs, numberOfRuns);
+	}
+
+	static RoaringRunContainer readContent(DataInput input) throws IOException {
+		int numberOfRuns = input.readUnsignedShort();
+		if (numberOfRuns == 0) {
+			throw new IOException("Invalid size of run container: 0.");
+		}
+		char[] runs = new char[2 * numberOfRuns];
+		int next = 0;
+		for (int i = 0; i < numberOfRuns; i++) {
+			runs[2 * i] = input.readChar();
+			runs[2 * i + 1] = input.readChar();
+			int end = runs[2 * i] + runs[2 * i + 1];
+			if (runs[2 * i] < next || end > CONTAINER_MASK) {
+				throw new IOException("Runs of run container are not sorted.");
+			}
+			next = end + 2;
+		}
+		return new RoaringRunContainer(runs, numberOfRuns);
+	}
+
+	int getStart(int run) {
+		return this.runs[2 * run];
+	}
+
+	int getEnd(int run) {
+		return this.runs[2 * run] + this.runs[2 * run + 1];
+	}
+
+	/**
+	 * @return the index of the first run that ends at or after the given
+	 *         value, or the number of runs if there is none
+	 */
+	int findRun(int value) {
+		int low = 0;
+		int high = this.numberOfRuns;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (getEnd(middle) < value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return an array or bitmap container with the same values
+	 */
+	RoaringContainer toModifiableContainer() {
+		return fromWords(toWords());
+	}
+
+	@Override
+	int cardinality() {
+		return this.cardinality;
+	}
+
+	@Override
+	boolean contains(int value) {
+		int run = findRun(value);
+		return run < this.numberOfRuns && getStart(run) <= value;
+	}
+
+	@Override
+	RoaringContainer add(int value) {
+		if (contains(value)) {
+			return this;
+		}
+		return toModifiableContainer().add(value);
+	}
+
+	@Override
+	RoaringContainer remove(int value) {
+		if (!contains(value)) {
+			return this;
+		}
+		return toModifiableContainer().remove(value);
+	}
+
+	@Override
+	int rank(int value) {
+		int ret = 0;
+		for (int i = 0; i < this.numberOfRuns && getStart(i) <= value; i++) {
+			ret += Math.min(getEnd(i), value) - getStart(i) + 1;
+		}
+		return ret;
+	}
+
+	@Override
+	int select(int rank) {
+		int remaining = rank;
+		for (int i = 0; i < this.numberOfRuns; i++) {
+			int length = this.runs[2 * i + 1] + 1;
+			if (remaining < length) {
+				return getStart(i) + remaining;
+			}
+			remaining -= length;
+		}
+		throw new IllegalArgumentException("Rank " + rank
+				+ " is not less than the cardinality " + this.cardinality + ".");
+	}
+
+	@Override
+	int nextValue(int from) {
+		int run = findRun(from);
+		return run < this.numberOfRuns ? Math.max(from, getStart(run)) : -1;
+	}
+
+	@Override
+	long getWord(int wordIndex) {
+		int first = wordIndex << BitVectorImpl.LG_WORD_SIZE;
+		int last = first + BitVectorImpl.WORD_MASK;
+		long word = 0;
+		for (int i = findRun(first); i < this.numberOfRuns
+				&& getStart(i) <= last; i++) {
+			int from = Math.max(getStart(i), first) - first;
+			int to = Math.min(getEnd(i), last) - first;
+			word |= (-1L << from) & (-1L >>> (BitVectorImpl.WORD_MASK - to));
+		}
+		return word;
+	}
+
+	@Override
+	void orInto(long[] words) {
+		for (int i = 0; i < this.numberOfRuns; i++) {
+			setRange(words, getStart(i), getEnd(i));
+		}
+	}
+
+	@Override
+	void forEach(long base, LongConsumer consumer) {
+		for (int i = 0; i < this.numberOfRuns; i++) {
+			for (int value = getStart(i); value <= getEnd(i); value++) {
+				consumer.accept(base | value);
+			}
+		}
+	}
+
+	@Override
+	RoaringContainer copy() {
+		return new RoaringRunContainer(Arrays.copyOf(this.runs,
+				2 * this.numberOfRuns), this.numberOfRuns);
+	}
+
+	@Override
+	void writeTo(DataOutput output) throws IOException {
+		output.writeByte(RUN);
+		output.writeShort(this.numberOfRuns);
+		for (int i = 0; i < 2 * this.numberOfRuns; i++) {
+			output.writeChar(this.runs[i]);
+		}
+	}
+
+}
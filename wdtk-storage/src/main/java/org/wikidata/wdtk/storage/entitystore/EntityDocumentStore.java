@@ -0,0 +1,321 @@
+package org.wikidata.wdtk.storage.entitystore;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.Validate;
+import org.wikidata.wdtk.datamodel.helpers.DatamodelMapper;
+import org.wikidata.wdtk.datamodel.implementation.EntityDocumentImpl;
+import org.wikidata.wdtk.datamodel.implementation.StreamingSerializer;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentProcessor;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Store of {@link EntityDocument} objects, which keeps their JSON
+ * serialization in an {@link EntityStore}. Documents are stored by entity id,
+ * so that storing a document replaces the previous revision of the entity.
+ * <p>
+ * A store can be loaded from a dump by registering the processor returned by
+ * {@link #getBulkLoader()}:
+ *
+ * <pre>
+ * try (EntityDocumentStore store = new EntityDocumentStore(
+ * 		EntityStore.open(directory), Datamodel.SITE_WIKIDATA)) {
+ * 	dumpProcessingController.registerEntityDocumentProcessor(
+ * 			store.getBulkLoader(), null, true);
+ * 	dumpProcessingController.processMostRecentJsonDump();
+ * 	store.compact();
+ * }
+ * </pre>
+ *
+ * The methods of this class are thread-safe, like those of
+ * {@link EntityStore}.
+ */
+public class EntityDocumentStore implements Closeable {
+
+	static final JsonFactory jsonFactory = new JsonFactory();
+
+	final EntityStore entityStore;
+
+	final ObjectReader documentReader;
+
+	/**
+	 * Creates a store of documents backed by the given store. The store is
+	 * closed with this object.
+	 *
+	 * @param entityStore
+	 *            store of the serialized documents
+	 * @param siteIri
+	 *            IRI of the site of the documents, used when they are read
+	 */
+	public EntityDocumentStore(EntityStore entityStore, String siteIri) {
+		Validate.notNull(entityStore, "Entity store cannot be null.");
+		this.entityStore = entityStore;
+		this.documentReader = new DatamodelMapper(siteIri).readerFor(
+				EntityDocumentImpl.class).with(
+				DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT);
+	}
+
+	/**
+	 * Returns the store of the serialized documents, which gives access to
+	 * their JSON.
+	 *
+	 * @return the entity store
+	 */
+	public EntityStore getEntityStore() {
+		return this.entityStore;
+	}
+
+	/**
+	 * Stores a document, replacing the stored document of the same entity.
+	 *
+	 * @param document
+	 *            document to store
+	 * @throws IOException
+	 *             if the document cannot be written
+	 * @throws IllegalArgumentException
+	 *             if the document is not an item, property, lexeme or media
+	 *             info
+	 */
+	public void putEntityDocument(EntityDocument document) throws IOException {
+		Validate.notNull(document, "Entity document cannot be null.");
+		String entityId = document.getEntityId().getId();
+		EntityType type = EntityType.forEntityId(entityId);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+			StreamingSerializer.writeEntityDocument(generator, document);
+		}
+		this.entityStore.putBytes(type, EntityType.getNumericId(entityId),
+				out.toByteArray());
+	}
+
+	/**
+	 * Returns the stored document of an entity.
+	 *
+	 * @param entityId
+	 *            id of the entity, such as "Q42"
+	 * @return the document, or <code>null</code> if there is none
+	 * @throws IOException
+	 *             if the document cannot be read
+	 * @throws IllegalArgumentException
+	 *             if the id is not the id of an item, property, lexeme or
+	 *             media info
+	 */
+	public EntityDocument getEntityDocument(String entityId)
+			throws IOException {
+		byte[] json = this.entityStore.getBytes(
+				EntityType.forEntityId(entityId),
+				EntityType.getNumericId(entityId));
+		return json == null ? null : readDocument(json);
+	}
+
+	/**
+	 * Returns the stored documents of several entities. The documents of
+	 * each entity type are read in the order of the log.
+	 *
+	 * @param entityIds
+	 *            ids of the entities
+	 * @return map from the entity ids to their documents, in the order of the
+	 *         given ids, without the entities that have no document
+	 * @throws IOException
+	 *             if a document cannot be read
+	 * @throws IllegalArgumentException
+	 *             if an id is not the id of an item, property, lexeme or
+	 *             media info
+	 */
+	public Map<String, EntityDocument> getEntityDocuments(
+			List<String> entityIds) throws IOException {
+		Validate.notNull(entityIds, "Entity ids cannot be null.");
+		Map<EntityType, List<String>> idsByType = new EnumMap<>(
+				EntityType.class);
+		for (String entityId : entityIds) {
+			idsByType.computeIfAbsent(EntityType.forEntityId(entityId),
+					type -> new ArrayList<>()).add(entityId);
+		}
+		Map<String, EntityDocument> documents = new HashMap<>();
+		for (Map.Entry<EntityType, List<String>> entry : idsByType.entrySet()) {
+			List<String> ids = entry.getValue();
+			long[] numericIds = new long[ids.size()];
+			for (int i = 0; i < numericIds.length; i++) {
+				numericIds[i] = EntityType.getNumericId(ids.get(i));
+			}
+			byte[][] values = this.entityStore.getBytes(entry.getKey(),
+					numericIds);
+			for (int i = 0; i < values.length; i++) {
+				if (values[i] != null) {
+					documents.put(ids.get(i), readDocument(values[i]));
+				}
+			}
+		}
+		Map<String, EntityDocument> ret = new LinkedHashMap<>();
+		for (String entityId : entityIds) {
+			EntityDocument document = documents.get(entityId);
+			if (document != null) {
+				ret.put(entityId, document);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Deletes the stored document of an entity.
+	 *
+	 * @param entityId
+	 *            id of the entity, such as "Q42"
+	 * @return true if there was a document
+	 * @throws IOException
+	 *             if the deletion cannot be written
+	 */
+	public boolean deleteEntityDocument(String entityId) throws IOException {
+		return this.entityStore.delete(EntityType.forEntityId(entityId),
+				EntityType.getNumericId(entityId));
+	}
+
+	/**
+	 * Passes the stored documents of a range of entities of one type to a
+	 * consumer, in the order of their ids. See
+	 * {@link EntityStore#scanBytes(EntityType, long, long, java.util.function.ObjLongConsumer)}.
+	 *
+	 * @param type
+	 *            entity type
+	 * @param fromId
+	 *            first numeric id of the range
+	 * @param toId
+	 *            numeric id after the range
+	 * @param consumer
+	 *            consumer of the documents
+	 * @throws IOException
+	 *             if a document cannot be read
+	 */
+	public void scanEntityDocuments(EntityType type, long fromId, long toId,
+			Consumer<EntityDocument> consumer) throws IOException {
+		Validate.notNull(consumer, "Consumer cannot be null.");
+		this.entityStore.scanBytes(type, fromId, toId,
+				(json, id) -> consumer.accept(readDocumentUnchecked(json)));
+	}
+
+	/**
+	 * Returns a processor which stores all the documents it receives, for
+	 * loading the store with a
+	 * <code>org.wikidata.wdtk.dumpfiles.DumpProcessingController</code>.
+	 * Errors are reported as {@link UncheckedIOException}. The documents are
+	 * durable once the store is flushed or closed.
+	 *
+	 * @return the processor
+	 */
+	public EntityDocumentProcessor getBulkLoader() {
+		return new EntityDocumentProcessor() {
+
+			@Override
+			public void processItemDocument(ItemDocument itemDocument) {
+				putUnchecked(itemDocument);
+			}
+
+			@Override
+			public void processPropertyDocument(
+					PropertyDocument propertyDocument) {
+				putUnchecked(propertyDocument);
+			}
+
+			@Override
+			public void processLexemeDocument(LexemeDocument lexemeDocument) {
+				putUnchecked(lexemeDocument);
+			}
+
+			@Override
+			public void processMediaInfoDocument(
+					MediaInfoDocument mediaInfoDocument) {
+				putUnchecked(mediaInfoDocument);
+			}
+		};
+	}
+
+	void putUnchecked(EntityDocument document) {
+		try {
+			putEntityDocument(document);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to store "
+					+ document.getEntityId().getId() + ": " + e.getMessage(), e);
+		}
+	}
+
+	EntityDocument readDocument(byte[] json) throws IOException {
+		return this.documentReader.readValue(json);
+	}
+
+	EntityDocument readDocumentUnchecked(byte[] json) {
+		try {
+			return readDocument(json);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to read a stored document: "
+					+ e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * See {@link EntityStore#flush()}.
+	 *
+	 * @throws IOException
+	 *             if the store cannot be written
+	 */
+	public void flush() throws IOException {
+		this.entityStore.flush();
+	}
+
+	/**
+	 * See {@link EntityStore#compact()}.
+	 *
+	 * @throws IOException
+	 *             if the store cannot be written
+	 */
+	public void compact() throws IOException {
+		this.entityStore.compact();
+	}
+
+	/**
+	 * Closes the underlying {@link EntityStore}.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.entityStore.close();
+	}
+
+}
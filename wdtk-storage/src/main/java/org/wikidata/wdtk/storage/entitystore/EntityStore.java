@@ -0,0 +1,1011 @@
+package org.wikidata.wdtk.storage.entitystore;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Embedded, append-only store of binary values, such as serialized entity
+ * documents, keyed by {@link EntityType} and numeric id. See
+ * {@link EntityDocumentStore} for storing {@link org.wikidata.wdtk.datamodel.interfaces.EntityDocument}
+ * objects.
+ * <p>
+ * The store is a directory with a log file, to which every value is
+ * appended, compressed with {@link Deflater} if that makes it smaller, and
+ * one primary index per entity type. An index is a memory-mapped array of
+ * <b>long</b> values, which holds the offset in the log of the latest value
+ * of each id, or 0. Replacing or deleting a value only appends a record, so
+ * the log also contains outdated values, which {@link #compact()} removes.
+ * Compaction writes the values in the order of their keys, which makes
+ * subsequent range scans read the log sequentially.
+ * <p>
+ * The indexes are made durable by {@link #flush()} and {@link #close()}. If
+ * the store is modified and not flushed, for instance because the process
+ * crashed, the indexes are rebuilt from the log when the store is next
+ * opened for writing, and incomplete records at the end of the log are
+ * discarded. Such a store cannot be opened read-only.
+ * <p>
+ * The methods of this class are thread-safe. Reads run concurrently with
+ * each other, while updates, flushing and compaction are exclusive. Writing
+ * the same store from several processes at once is not supported.
+ */
+public class EntityStore implements Closeable {
+
+	static final Logger logger = LoggerFactory.getLogger(EntityStore.class);
+
+	static final String LOG_FILE_NAME = "entities.log";
+
+	static final String INDEX_FILE_SUFFIX = ".idx";
+
+	static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+	/**
+	 * The first bytes of the log: "WDTKELOG" in ASCII.
+	 */
+	static final long LOG_MAGIC_NUMBER = 0x474f4c454b544457L;
+
+	/**
+	 * The first bytes of an index: "WDTKINDX" in ASCII.
+	 */
+	static final long INDEX_MAGIC_NUMBER = 0x58444e494b544457L;
+
+	/**
+	 * Version of the file format. All values are stored in little-endian byte
+	 * order.
+	 */
+	static final long VERSION = 1;
+
+	static final int HEADER_MAGIC_NUMBER = 0;
+	static final int HEADER_VERSION = 1;
+	/**
+	 * Number of compactions of the store, which tells apart the indexes of
+	 * the current log from leftovers of an interrupted compaction.
+	 */
+	static final int HEADER_GENERATION = 2;
+	/**
+	 * Length of the log covered by the indexes, or 0 while the store has
+	 * unflushed modifications. This only appears in the header of the log.
+	 */
+	static final int HEADER_INDEXED_LENGTH = 3;
+
+	/**
+	 * Size in bytes of the header of the log, which has the same four
+	 * <b>long</b> values as the header of an index.
+	 */
+	static final int LOG_HEADER_SIZE = 8 * MappedLongArray.HEADER_LENGTH;
+
+	/**
+	 * Size in bytes of the header of a record. A record starts with the
+	 * length of its payload (<b>int</b>), followed by the ordinal of the
+	 * entity type (<b>byte</b>), the flags (<b>byte</b>), the numeric id
+	 * (<b>long</b>), the length of the uncompressed value (<b>int</b>), and
+	 * a CRC-32 checksum of the preceding values but the first and of the
+	 * payload (<b>int</b>).
+	 */
+	static final int RECORD_HEADER_SIZE = 22;
+
+	static final int RECORD_TYPE = 4;
+	static final int RECORD_FLAGS = 5;
+	static final int RECORD_ID = 6;
+	static final int RECORD_RAW_LENGTH = 14;
+	static final int RECORD_CHECKSUM = 18;
+
+	static final byte FLAG_COMPRESSED = 1;
+
+	/**
+	 * Flag of the records which mark a value as deleted.
+	 */
+	static final byte FLAG_DELETED = 2;
+
+	/**
+	 * Values smaller than this are not compressed.
+	 */
+	static final int MIN_COMPRESSED_SIZE = 64;
+
+	/**
+	 * Number of bytes read at once when reading a record, which is enough
+	 * for most compressed documents.
+	 */
+	static final int READ_AHEAD_SIZE = 4096;
+
+	/**
+	 * Maximum number of values read at once by a range scan.
+	 */
+	static final int SCAN_BATCH_SIZE = 1024;
+
+	/**
+	 * Binary logarithm of the size in bytes of the chunks in which indexes
+	 * are mapped by default. A chunk holds the offsets of 2<sup>24</sup> ids.
+	 */
+	static final int DEFAULT_LG_CHUNK_SIZE = 27;
+
+	static final EntityType[] ENTITY_TYPES = EntityType.values();
+
+	final Path directory;
+
+	final boolean writable;
+
+	final int lgChunkSize;
+
+	final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	FileChannel log;
+
+	/**
+	 * Primary indexes, by ordinal of the entity type, or <code>null</code>
+	 * for types without values.
+	 */
+	final MappedLongArray[] indexes = new MappedLongArray[ENTITY_TYPES.length];
+
+	long generation;
+
+	/**
+	 * Length of the log, where the next record is appended.
+	 */
+	long logLength;
+
+	/**
+	 * Value of {@link #HEADER_INDEXED_LENGTH} in the log.
+	 */
+	long indexedLength;
+
+	final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+	byte[] compressionBuffer = new byte[0];
+
+	boolean closed;
+
+	EntityStore(Path directory, boolean writable, int lgChunkSize)
+			throws IOException {
+		Validate.notNull(directory, "Directory cannot be null.");
+		this.directory = directory;
+		this.writable = writable;
+		this.lgChunkSize = lgChunkSize;
+		if (writable) {
+			Files.createDirectories(directory);
+		}
+		try {
+			openFiles();
+		} catch (IOException | RuntimeException e) {
+			closeFiles();
+			this.deflater.end();
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens the store in the given directory for reading and writing. The
+	 * directory and the store are created if needed.
+	 *
+	 * @param directory
+	 *            directory of the store
+	 * @return the store
+	 * @throws IOException
+	 *             if the store cannot be opened
+	 */
+	public static EntityStore open(Path directory) throws IOException {
+		return open(directory, true);
+	}
+
+	/**
+	 * Opens the store in the given directory.
+	 *
+	 * @param directory
+	 *            directory of the store
+	 * @param writable
+	 *            if true, the store can be modified, and it is created if
+	 *            needed; otherwise it must exist and have been flushed
+	 * @return the store
+	 * @throws IOException
+	 *             if the store cannot be opened
+	 */
+	public static EntityStore open(Path directory, boolean writable)
+			throws IOException {
+		return new EntityStore(directory, writable, DEFAULT_LG_CHUNK_SIZE);
+	}
+
+	Path getLogFile() {
+		return this.directory.resolve(LOG_FILE_NAME);
+	}
+
+	Path getIndexFile(EntityType type) {
+		return this.directory.resolve(type.getPrefix() + INDEX_FILE_SUFFIX);
+	}
+
+	static Path getTemporaryFile(Path file) {
+		return file.resolveSibling(file.getFileName() + TEMPORARY_FILE_SUFFIX);
+	}
+
+	/**
+	 * Opens the log and the indexes, and rebuilds the indexes if they do not
+	 * match the log.
+	 */
+	void openFiles() throws IOException {
+		Path logFile = getLogFile();
+		if (this.writable) {
+			this.log = FileChannel.open(logFile, StandardOpenOption.CREATE,
+					StandardOpenOption.READ, StandardOpenOption.WRITE);
+		} else {
+			this.log = FileChannel.open(logFile, StandardOpenOption.READ);
+		}
+		long fileLength = this.log.size();
+		if (fileLength == 0 && this.writable) {
+			// new store; indexes of an earlier store would not match
+			deleteIndexFiles();
+			ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_SIZE).order(
+					ByteOrder.LITTLE_ENDIAN);
+			header.putLong(LOG_MAGIC_NUMBER).putLong(VERSION).putLong(0)
+					.putLong(LOG_HEADER_SIZE);
+			((Buffer) header).flip();
+			writeFully(this.log, header, 0);
+			this.log.force(true);
+			fileLength = LOG_HEADER_SIZE;
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_SIZE).order(
+				ByteOrder.LITTLE_ENDIAN);
+		if (readFully(this.log, header, 0) < LOG_HEADER_SIZE
+				|| header.getLong(8 * HEADER_MAGIC_NUMBER) != LOG_MAGIC_NUMBER) {
+			throw new IOException("File " + logFile
+					+ " is not the log of an entity store.");
+		}
+		if (header.getLong(8 * HEADER_VERSION) != VERSION) {
+			throw new IOException("Unsupported version "
+					+ header.getLong(8 * HEADER_VERSION) + " of entity store "
+					+ this.directory + ".");
+		}
+		this.generation = header.getLong(8 * HEADER_GENERATION);
+		this.indexedLength = header.getLong(8 * HEADER_INDEXED_LENGTH);
+
+		boolean consistent = this.indexedLength == fileLength;
+		for (EntityType type : ENTITY_TYPES) {
+			if (Files.exists(getIndexFile(type))) {
+				MappedLongArray index = new MappedLongArray(
+						getIndexFile(type), this.writable, this.lgChunkSize);
+				this.indexes[type.ordinal()] = index;
+				consistent &= index.length() >= MappedLongArray.HEADER_LENGTH
+						&& index.getHeader(HEADER_MAGIC_NUMBER) == INDEX_MAGIC_NUMBER
+						&& index.getHeader(HEADER_VERSION) == VERSION
+						&& index.getHeader(HEADER_GENERATION) == this.generation;
+			}
+		}
+
+		if (consistent) {
+			this.logLength = fileLength;
+		} else if (this.writable) {
+			logger.warn("Entity store " + this.directory
+					+ " was not closed properly. Rebuilding its indexes.");
+			closeIndexes();
+			deleteIndexFiles();
+			rebuildIndexes(fileLength);
+			flush();
+		} else {
+			throw new IOException("Entity store " + this.directory
+					+ " was not closed properly."
+					+ " Open it for writing to rebuild its indexes.");
+		}
+	}
+
+	/**
+	 * Builds the indexes by reading the whole log, and truncates incomplete
+	 * records at its end.
+	 */
+	void rebuildIndexes(long fileLength) throws IOException {
+		long position = LOG_HEADER_SIZE;
+		while (position < fileLength) {
+			ByteBuffer record = readRecord(position, fileLength);
+			if (record == null || !hasValidChecksum(record)
+					|| record.get(RECORD_TYPE) < 0
+					|| record.get(RECORD_TYPE) >= ENTITY_TYPES.length) {
+				break;
+			}
+			EntityType type = ENTITY_TYPES[record.get(RECORD_TYPE)];
+			long id = record.getLong(RECORD_ID);
+			if ((record.get(RECORD_FLAGS) & FLAG_DELETED) != 0) {
+				if (this.indexes[type.ordinal()] != null) {
+					this.indexes[type.ordinal()].set(id, 0);
+				}
+			} else {
+				getIndex(type, true).set(id, position);
+			}
+			position += record.limit();
+		}
+		if (position < fileLength) {
+			logger.warn("Discarding " + (fileLength - position)
+					+ " bytes of incomplete records at the end of "
+					+ getLogFile() + ".");
+			this.log.truncate(position);
+		}
+		this.logLength = position;
+		this.indexedLength = 0;
+	}
+
+	void closeIndexes() throws IOException {
+		for (int i = 0; i < this.indexes.length; i++) {
+			if (this.indexes[i] != null) {
+				this.indexes[i].close();
+				this.indexes[i] = null;
+			}
+		}
+	}
+
+	void closeFiles() throws IOException {
+		closeIndexes();
+		if (this.log != null) {
+			this.log.close();
+			this.log = null;
+		}
+	}
+
+	void deleteIndexFiles() throws IOException {
+		for (EntityType type : ENTITY_TYPES) {
+			Files.deleteIfExists(getIndexFile(type));
+		}
+	}
+
+	/**
+	 * Returns the index of the given type, which is created if needed and
+	 * <i>create</i> is true.
+	 *
+	 * @return the index, or <code>null</code>
+	 */
+	MappedLongArray getIndex(EntityType type, boolean create)
+			throws IOException {
+		MappedLongArray index = this.indexes[type.ordinal()];
+		if (index == null && create) {
+			index = createIndex(getIndexFile(type), this.generation);
+			this.indexes[type.ordinal()] = index;
+		}
+		return index;
+	}
+
+	MappedLongArray createIndex(Path file, long generation)
+			throws IOException {
+		Files.deleteIfExists(file);
+		MappedLongArray index = new MappedLongArray(file, true,
+				this.lgChunkSize);
+		index.setHeader(HEADER_MAGIC_NUMBER, INDEX_MAGIC_NUMBER);
+		index.setHeader(HEADER_VERSION, VERSION);
+		index.setHeader(HEADER_GENERATION, generation);
+		return index;
+	}
+
+	static void checkKey(EntityType type, long id) {
+		Validate.notNull(type, "Entity type cannot be null.");
+		if (id < 0) {
+			throw new IllegalArgumentException("Wrong numeric id '" + id
+					+ "'. Numeric ids must be non-negative.");
+		}
+	}
+
+	void checkOpen() {
+		if (this.closed) {
+			throw new IllegalStateException("The entity store is closed.");
+		}
+	}
+
+	void checkWritable() {
+		checkOpen();
+		if (!this.writable) {
+			throw new UnsupportedOperationException(
+					"The entity store is read-only.");
+		}
+	}
+
+	static void writeFully(FileChannel channel, ByteBuffer buffer,
+			long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+
+	/**
+	 * Reads bytes until the buffer is full or the end of the file is
+	 * reached.
+	 *
+	 * @return the number of bytes read
+	 */
+	static int readFully(FileChannel channel, ByteBuffer buffer, long position)
+			throws IOException {
+		int start = buffer.position();
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position + buffer.position()
+					- start);
+			if (read < 0) {
+				break;
+			}
+		}
+		return buffer.position() - start;
+	}
+
+	/**
+	 * Reads the record at the given offset of the log. The returned buffer
+	 * starts with the header of the record, and its limit is the end of the
+	 * record.
+	 *
+	 * @param offset
+	 *            offset of the record
+	 * @param end
+	 *            end of the valid part of the log
+	 * @return the record, or <code>null</code> if it is incomplete
+	 */
+	ByteBuffer readRecord(long offset, long end) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(
+				(int) Math.min(READ_AHEAD_SIZE, end - offset)).order(
+				ByteOrder.LITTLE_ENDIAN);
+		int read = readFully(this.log, buffer, offset);
+		if (read < RECORD_HEADER_SIZE) {
+			return null;
+		}
+		int payloadLength = buffer.getInt(0);
+		if (payloadLength < 0
+				|| payloadLength > end - offset - RECORD_HEADER_SIZE) {
+			return null;
+		}
+		int recordLength = RECORD_HEADER_SIZE + payloadLength;
+		if (recordLength > read) {
+			ByteBuffer record = ByteBuffer.allocate(recordLength).order(
+					ByteOrder.LITTLE_ENDIAN);
+			((Buffer) buffer).flip();
+			record.put(buffer);
+			if (readFully(this.log, record, offset + read) < recordLength
+					- read) {
+				return null;
+			}
+			buffer = record;
+		}
+		((Buffer) buffer).clear().limit(recordLength);
+		return buffer;
+	}
+
+	static int computeChecksum(ByteBuffer record) {
+		CRC32 crc = new CRC32();
+		crc.update(record.array(), RECORD_TYPE, RECORD_CHECKSUM - RECORD_TYPE);
+		crc.update(record.array(), RECORD_HEADER_SIZE, record.limit()
+				- RECORD_HEADER_SIZE);
+		return (int) crc.getValue();
+	}
+
+	static boolean hasValidChecksum(ByteBuffer record) {
+		return record.getInt(RECORD_CHECKSUM) == computeChecksum(record);
+	}
+
+	/**
+	 * Returns the value stored in the record at the given offset of the log.
+	 */
+	byte[] readValue(long offset) throws IOException {
+		ByteBuffer record = readRecord(offset, this.logLength);
+		if (record == null) {
+			throw new IOException("Incomplete record at offset " + offset
+					+ " of " + getLogFile() + ".");
+		}
+		int payloadLength = record.limit() - RECORD_HEADER_SIZE;
+		if ((record.get(RECORD_FLAGS) & FLAG_COMPRESSED) == 0) {
+			return Arrays.copyOfRange(record.array(), RECORD_HEADER_SIZE,
+					record.limit());
+		}
+		int rawLength = record.getInt(RECORD_RAW_LENGTH);
+		byte[] ret = new byte[rawLength];
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(record.array(), RECORD_HEADER_SIZE,
+					payloadLength);
+			int length = 0;
+			while (length < rawLength && !inflater.finished()) {
+				int inflated = inflater.inflate(ret, length, rawLength
+						- length);
+				if (inflated == 0 && inflater.needsInput()) {
+					break;
+				}
+				length += inflated;
+			}
+			if (length != rawLength) {
+				throw new IOException("Corrupt record at offset " + offset
+						+ " of " + getLogFile() + ".");
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("Corrupt record at offset " + offset
+					+ " of " + getLogFile() + ": " + e.getMessage(), e);
+		} finally {
+			inflater.end();
+		}
+		return ret;
+	}
+
+	/**
+	 * Compresses the value into {@link #compressionBuffer}.
+	 *
+	 * @return the length of the compressed value, or -1 if it is not smaller
+	 *         than the value
+	 */
+	int compress(byte[] value) {
+		if (value.length < MIN_COMPRESSED_SIZE) {
+			return -1;
+		}
+		if (this.compressionBuffer.length < value.length) {
+			this.compressionBuffer = new byte[value.length];
+		}
+		this.deflater.reset();
+		this.deflater.setInput(value);
+		this.deflater.finish();
+		int length = 0;
+		while (!this.deflater.finished() && length < value.length) {
+			length += this.deflater.deflate(this.compressionBuffer, length,
+					value.length - length);
+		}
+		return this.deflater.finished() && length < value.length ? length
+				: -1;
+	}
+
+	/**
+	 * Marks the store as modified in the header of the log, so that the
+	 * indexes are rebuilt if the store is not flushed.
+	 */
+	void markModified() throws IOException {
+		if (this.indexedLength != 0) {
+			writeHeader(this.log, HEADER_INDEXED_LENGTH, 0);
+			this.log.force(false);
+			this.indexedLength = 0;
+		}
+	}
+
+	static void writeHeader(FileChannel channel, int index, long value)
+			throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(8)
+				.order(ByteOrder.LITTLE_ENDIAN).putLong(value);
+		((Buffer) buffer).flip();
+		writeFully(channel, buffer, 8 * index);
+	}
+
+	/**
+	 * Appends a record to the log.
+	 *
+	 * @return the offset of the record
+	 */
+	long appendRecord(EntityType type, long id, byte flags, byte[] payload,
+			int payloadLength, int rawLength) throws IOException {
+		markModified();
+		ByteBuffer record = ByteBuffer.allocate(
+				RECORD_HEADER_SIZE + payloadLength).order(
+				ByteOrder.LITTLE_ENDIAN);
+		record.putInt(payloadLength).put((byte) type.ordinal()).put(flags)
+				.putLong(id).putInt(rawLength).putInt(0)
+				.put(payload, 0, payloadLength);
+		((Buffer) record).flip();
+		record.putInt(RECORD_CHECKSUM, computeChecksum(record));
+		long offset = this.logLength;
+		writeFully(this.log, record, offset);
+		this.logLength += record.limit();
+		return offset;
+	}
+
+	/**
+	 * Stores a value, replacing the current value of the key, if any.
+	 *
+	 * @param type
+	 *            entity type
+	 * @param id
+	 *            numeric id
+	 * @param value
+	 *            value
+	 * @throws IOException
+	 *             if the value cannot be written
+	 * @throws UnsupportedOperationException
+	 *             if the store is read-only
+	 */
+	public void putBytes(EntityType type, long id, byte[] value)
+			throws IOException {
+		checkKey(type, id);
+		Validate.notNull(value, "Value cannot be null.");
+		this.lock.writeLock().lock();
+		try {
+			checkWritable();
+			int compressedLength = compress(value);
+			long offset;
+			if (compressedLength >= 0) {
+				offset = appendRecord(type, id, FLAG_COMPRESSED,
+						this.compressionBuffer, compressedLength, value.length);
+			} else {
+				offset = appendRecord(type, id, (byte) 0, value, value.length,
+						value.length);
+			}
+			getIndex(type, true).set(id, offset);
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the value of a key.
+	 *
+	 * @param type
+	 *            entity type
+	 * @param id
+	 *            numeric id
+	 * @return the value, or <code>null</code> if there is none
+	 * @throws IOException
+	 *             if the value cannot be read
+	 */
+	public byte[] getBytes(EntityType type, long id) throws IOException {
+		checkKey(type, id);
+		this.lock.readLock().lock();
+		try {
+			checkOpen();
+			long offset = getOffset(type, id);
+			return offset == 0 ? null : readValue(offset);
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	long getOffset(EntityType type, long id) {
+		MappedLongArray index = this.indexes[type.ordinal()];
+		return index == null ? 0 : index.get(id);
+	}
+
+	/**
+	 * Returns the values of several keys of the same type. The values are
+	 * read in the order in which they are stored in the log.
+	 *
+	 * @param type
+	 *            entity type
+	 * @param ids
+	 *            numeric ids
+	 * @return the values, in the order of the ids, with <code>null</code>
+	 *         for ids without value
+	 * @throws IOException
+	 *             if a value cannot be read
+	 */
+	public byte[][] getBytes(EntityType type, long[] ids) throws IOException {
+		Validate.notNull(ids, "Ids cannot be null.");
+		for (long id : ids) {
+			checkKey(type, id);
+		}
+		byte[][] ret = new byte[ids.length][];
+		long[] offsets = new long[ids.length];
+		this.lock.readLock().lock();
+		try {
+			checkOpen();
+			List<Integer> order = new ArrayList<>(ids.length);
+			for (int i = 0; i < ids.length; i++) {
+				offsets[i] = getOffset(type, ids[i]);
+				if (offsets[i] != 0) {
+					order.add(i);
+				}
+			}
+			order.sort(Comparator.comparingLong(i -> offsets[i]));
+			int previous = -1;
+			for (int i : order) {
+				if (previous >= 0 && offsets[previous] == offsets[i]) {
+					ret[i] = ret[previous].clone();
+				} else {
+					ret[i] = readValue(offsets[i]);
+				}
+				previous = i;
+			}
+		} finally {
+			this.lock.readLock().unlock();
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns true if a key has a value.
+	 *
+	 * @param type
+	 *            entity type
+	 * @param id
+	 *            numeric id
+	 * @return true if the key has a value
+	 */
+	public boolean contains(EntityType type, long id) {
+		checkKey(type, id);
+		this.lock.readLock().lock();
+		try {
+			checkOpen();
+			return getOffset(type, id) != 0;
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Deletes the value of a key.
+	 *
+	 * @param type
+	 *            entity type
+	 * @param id
+	 *            numeric id
+	 * @return true if the key had a value
+	 * @throws IOException
+	 *             if the deletion cannot be written
+	 * @throws UnsupportedOperationException
+	 *             if the store is read-only
+	 */
+	public boolean delete(EntityType type, long id) throws IOException {
+		checkKey(type, id);
+		this.lock.writeLock().lock();
+		try {
+			checkWritable();
+			if (getOffset(type, id) == 0) {
+				return false;
+			}
+			appendRecord(type, id, FLAG_DELETED, new byte[0], 0, 0);
+			getIndex(type, false).set(id, 0);
+			return true;
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Passes the values of a range of ids to a consumer, in the order of the
+	 * ids. The values are read in batches, and the store is not locked while
+	 * the consumer runs, so it may modify the store; the scan then sees
+	 * changes made to ids it has not reached.
+	 *
+	 * @param type
+	 *            entity type
+	 * @param fromId
+	 *            first numeric id of the range
+	 * @param toId
+	 *            numeric id after the range
+	 * @param consumer
+	 *            consumer of the values and their ids
+	 * @throws IOException
+	 *             if a value cannot be read
+	 */
+	public void scanBytes(EntityType type, long fromId, long toId,
+			ObjLongConsumer<byte[]> consumer) throws IOException {
+		checkKey(type, fromId);
+		Validate.notNull(consumer, "Consumer cannot be null.");
+		long[] batchIds = new long[SCAN_BATCH_SIZE];
+		byte[][] batchValues = new byte[SCAN_BATCH_SIZE][];
+		long id = fromId;
+		while (id < toId) {
+			int count = 0;
+			this.lock.readLock().lock();
+			try {
+				checkOpen();
+				MappedLongArray index = this.indexes[type.ordinal()];
+				long end = index == null ? 0 : Math.min(toId,
+						index.capacity());
+				if (id >= end) {
+					break;
+				}
+				for (; id < end && count < SCAN_BATCH_SIZE; id++) {
+					long offset = index.get(id);
+					if (offset != 0) {
+						batchIds[count] = id;
+						batchValues[count] = readValue(offset);
+						count++;
+					}
+				}
+			} finally {
+				this.lock.readLock().unlock();
+			}
+			for (int i = 0; i < count; i++) {
+				consumer.accept(batchValues[i], batchIds[i]);
+				batchValues[i] = null;
+			}
+		}
+	}
+
+	/**
+	 * Returns the length of the log in bytes, including outdated values.
+	 *
+	 * @return the length of the log
+	 */
+	public long getLogLength() {
+		this.lock.readLock().lock();
+		try {
+			return this.logLength;
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Writes the log and the indexes to disk, so that they are consistent if
+	 * the store is not closed properly. This does nothing if the store is
+	 * read-only.
+	 *
+	 * @throws IOException
+	 *             if the store cannot be written
+	 */
+	public void flush() throws IOException {
+		this.lock.writeLock().lock();
+		try {
+			checkOpen();
+			if (!this.writable || this.indexedLength == this.logLength) {
+				return;
+			}
+			this.log.force(false);
+			for (MappedLongArray index : this.indexes) {
+				if (index != null) {
+					index.force();
+				}
+			}
+			writeHeader(this.log, HEADER_INDEXED_LENGTH, this.logLength);
+			this.log.force(false);
+			this.indexedLength = this.logLength;
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Rewrites the log without outdated and deleted values, ordered by entity
+	 * type and id, and rebuilds the indexes. The store is locked during
+	 * compaction. If compaction is interrupted, the store is left unchanged,
+	 * or its indexes are rebuilt when it is next opened.
+	 *
+	 * @throws IOException
+	 *             if the store cannot be written
+	 * @throws UnsupportedOperationException
+	 *             if the store is read-only
+	 */
+	public void compact() throws IOException {
+		this.lock.writeLock().lock();
+		try {
+			checkWritable();
+			long newGeneration = this.generation + 1;
+			Path newLogFile = getTemporaryFile(getLogFile());
+			MappedLongArray[] newIndexes = new MappedLongArray[ENTITY_TYPES.length];
+			try (FileChannel newLog = FileChannel.open(newLogFile,
+					StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING,
+					StandardOpenOption.WRITE)) {
+				ByteBuffer output = ByteBuffer.allocate(1 << 20).order(
+						ByteOrder.LITTLE_ENDIAN);
+				output.putLong(LOG_MAGIC_NUMBER).putLong(VERSION)
+						.putLong(newGeneration).putLong(0);
+				long written = 0;
+				long position = LOG_HEADER_SIZE;
+				for (EntityType type : ENTITY_TYPES) {
+					MappedLongArray index = this.indexes[type.ordinal()];
+					if (index == null) {
+						continue;
+					}
+					for (long id = 0; id < index.capacity(); id++) {
+						long offset = index.get(id);
+						if (offset == 0) {
+							continue;
+						}
+						ByteBuffer record = readRecord(offset, this.logLength);
+						if (record == null) {
+							throw new IOException("Incomplete record at offset "
+									+ offset + " of " + getLogFile() + ".");
+						}
+						if (newIndexes[type.ordinal()] == null) {
+							newIndexes[type.ordinal()] = createIndex(
+									getTemporaryFile(getIndexFile(type)),
+									newGeneration);
+						}
+						newIndexes[type.ordinal()].set(id, position);
+						position += record.remaining();
+						if (record.remaining() > output.remaining()) {
+							((Buffer) output).flip();
+							int length = output.remaining();
+							writeFully(newLog, output, written);
+							written += length;
+							((Buffer) output).clear();
+						}
+						if (record.remaining() > output.remaining()) {
+							writeFully(newLog, record, written);
+							written += record.limit();
+						} else {
+							output.put(record);
+						}
+					}
+				}
+				((Buffer) output).flip();
+				writeFully(newLog, output, written);
+				writeHeader(newLog, HEADER_INDEXED_LENGTH, position);
+				newLog.force(true);
+				for (MappedLongArray index : newIndexes) {
+					if (index != null) {
+						index.force();
+						index.close();
+					}
+				}
+			} catch (IOException | RuntimeException e) {
+				for (EntityType type : ENTITY_TYPES) {
+					if (newIndexes[type.ordinal()] != null) {
+						newIndexes[type.ordinal()].close();
+					}
+					Files.deleteIfExists(getTemporaryFile(getIndexFile(type)));
+				}
+				Files.deleteIfExists(newLogFile);
+				throw e;
+			}
+
+			// the indexes of the old generation are rebuilt if this is
+			// interrupted after the log is replaced
+			closeFiles();
+			try {
+				Files.move(newLogFile, getLogFile(),
+						StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+				for (EntityType type : ENTITY_TYPES) {
+					if (newIndexes[type.ordinal()] != null) {
+						Files.move(getTemporaryFile(getIndexFile(type)),
+								getIndexFile(type),
+								StandardCopyOption.REPLACE_EXISTING,
+								StandardCopyOption.ATOMIC_MOVE);
+					} else {
+						Files.deleteIfExists(getIndexFile(type));
+					}
+				}
+			} finally {
+				openFiles();
+			}
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Flushes and closes the store. The store cannot be used afterwards.
+	 */
+	@Override
+	public void close() throws IOException {
+		this.lock.writeLock().lock();
+		try {
+			if (this.closed) {
+				return;
+			}
+			try {
+				flush();
+			} finally {
+				this.closed = true;
+				closeFiles();
+				this.deflater.end();
+			}
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+}
@@ -0,0 +1,113 @@
+package org.wikidata.wdtk.storage.entitystore;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Types of the entities kept in an {@link EntityStore}. Entities are stored
+ * by type and numeric id, so that the item Q42 is the entity 42 of type
+ * {@link #ITEM}. Entities without a numeric id of their own, such as forms
+ * and senses of lexemes, are stored as part of their lexeme.
+ */
+public enum EntityType {
+
+	// the ordinals are stored in the log, so new types must be added last
+	ITEM('Q'), PROPERTY('P'), LEXEME('L'), MEDIA_INFO('M');
+
+	private final char prefix;
+
+	EntityType(char prefix) {
+		this.prefix = prefix;
+	}
+
+	/**
+	 * Returns the letter which precedes the numeric ids of this type, such as
+	 * 'Q' for items.
+	 *
+	 * @return the prefix of the entity ids
+	 */
+	public char getPrefix() {
+		return this.prefix;
+	}
+
+	/**
+	 * Returns the id of the entity of this type with the given numeric id.
+	 *
+	 * @param numericId
+	 *            numeric id
+	 * @return the entity id, such as "Q42"
+	 */
+	public String getEntityId(long numericId) {
+		return this.prefix + Long.toString(numericId);
+	}
+
+	/**
+	 * Returns the type of the given entity id.
+	 *
+	 * @param entityId
+	 *            entity id, such as "Q42"
+	 * @return the type of the entity
+	 * @throws IllegalArgumentException
+	 *             if the id is not the id of an entity that can be stored
+	 */
+	public static EntityType forEntityId(String entityId) {
+		getNumericId(entityId);
+		return forPrefix(entityId.charAt(0));
+	}
+
+	/**
+	 * Returns the numeric part of the given entity id.
+	 *
+	 * @param entityId
+	 *            entity id, such as "Q42"
+	 * @return the numeric id, such as 42
+	 * @throws IllegalArgumentException
+	 *             if the id is not the id of an entity that can be stored
+	 */
+	public static long getNumericId(String entityId) {
+		if (entityId != null && entityId.length() > 1
+				&& forPrefix(entityId.charAt(0)) != null) {
+			long ret = 0;
+			int i = 1;
+			for (; i < entityId.length(); i++) {
+				char c = entityId.charAt(i);
+				if (c < '0' || c > '9' || ret > (Long.MAX_VALUE - 9) / 10) {
+					break;
+				}
+				ret = 10 * ret + (c - '0');
+			}
+			if (i == entityId.length()) {
+				return ret;
+			}
+		}
+		throw new IllegalArgumentException("Entity id '" + entityId
+				+ "' is not the id of an item, property, lexeme or media info.");
+	}
+
+	static EntityType forPrefix(char prefix) {
+		for (EntityType type : values()) {
+			if (type.prefix == prefix) {
+				return type;
+			}
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,165 @@
+package org.wikidata.wdtk.storage.entitystore;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.wikidata.wdtk.storage.io.MappedFile;
+
+/**
+ * Array of <b>long</b> values stored in a memory-mapped file, used as the
+ * primary index of an {@link EntityStore}. The array starts with a header of
+ * {@link #HEADER_LENGTH} values, and it grows when values beyond its end are
+ * set. Values that were never set are 0. The file is mapped in chunks, which
+ * are created at their full size, so the file is sparse while the array is
+ * filled sparsely.
+ * <p>
+ * Reading is thread-safe as long as no value is set at the same time.
+ */
+class MappedLongArray implements Closeable {
+
+	/**
+	 * Number of values of the header, which are not part of the array.
+	 */
+	static final int HEADER_LENGTH = 4;
+
+	final MappedFile file;
+
+	/**
+	 * Opens or creates the file of an array.
+	 *
+	 * @param file
+	 *            file
+	 * @param writable
+	 *            if true, the file is created if needed, and values can be
+	 *            set
+	 * @param lgChunkSize
+	 *            binary logarithm of the size of the chunks in bytes
+	 * @throws IOException
+	 *             if the file cannot be opened
+	 */
+	MappedLongArray(Path file, boolean writable, int lgChunkSize)
+			throws IOException {
+		FileChannel channel;
+		if (writable) {
+			channel = FileChannel.open(file, StandardOpenOption.CREATE,
+					StandardOpenOption.READ, StandardOpenOption.WRITE);
+		} else {
+			channel = FileChannel.open(file, StandardOpenOption.READ);
+		}
+		try {
+			long fileLength = channel.size() >>> MappedFile.LG_LONG_SIZE;
+			if (writable) {
+				this.file = new MappedFile(channel, true,
+						ByteOrder.LITTLE_ENDIAN, 0, lgChunkSize);
+				ensureLength(Math.max(HEADER_LENGTH, fileLength));
+			} else {
+				this.file = new MappedFile(channel, false,
+						ByteOrder.LITTLE_ENDIAN,
+						fileLength << MappedFile.LG_LONG_SIZE, lgChunkSize);
+			}
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Maps the chunks needed to store the given number of values, including
+	 * the header.
+	 */
+	void ensureLength(long length) throws IOException {
+		if (length > length()) {
+			this.file.ensureSize(length << MappedFile.LG_LONG_SIZE);
+		}
+	}
+
+	/**
+	 * Returns the number of values, including the header, that can be read
+	 * from the mapped chunks.
+	 */
+	long length() {
+		return this.file.size() >>> MappedFile.LG_LONG_SIZE;
+	}
+
+	/**
+	 * Returns a value of the header.
+	 */
+	long getHeader(int index) {
+		return this.file.getLong(index);
+	}
+
+	void setHeader(int index, long value) {
+		this.file.putLong(index, value);
+	}
+
+	/**
+	 * Returns the value at the given index of the array, or 0 if the index is
+	 * beyond the end of the array.
+	 */
+	long get(long index) {
+		long position = HEADER_LENGTH + index;
+		if (position >= length()) {
+			return 0;
+		}
+		return this.file.getLong(position);
+	}
+
+	/**
+	 * Sets the value at the given index of the array, which grows if needed.
+	 */
+	void set(long index, long value) throws IOException {
+		long position = HEADER_LENGTH + index;
+		if (position >= length()) {
+			if (value == 0) {
+				return;
+			}
+			ensureLength(position + 1);
+		}
+		this.file.putLong(position, value);
+	}
+
+	/**
+	 * Returns the number of values of the array that can be read without
+	 * growing it. Indexes beyond it contain 0.
+	 */
+	long capacity() {
+		return Math.max(0, length() - HEADER_LENGTH);
+	}
+
+	/**
+	 * Writes the mapped chunks to the file.
+	 */
+	void force() {
+		this.file.force();
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.file.close();
+	}
+
+}
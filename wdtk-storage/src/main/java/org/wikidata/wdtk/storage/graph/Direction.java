@@ -0,0 +1,39 @@
+package org.wikidata.wdtk.storage.graph;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+/**
+ * Direction in which the edges of an {@link ItemGraph} are followed.
+ */
+public enum Direction {
+
+	/**
+	 * From the subject of a statement to its value, for example from a class
+	 * to its superclasses along P279.
+	 */
+	OUTGOING,
+
+	/**
+	 * From the value of a statement to its subject, for example from a class
+	 * to its subclasses along P279.
+	 */
+	INCOMING
+
+}
@@ -0,0 +1,253 @@
+package org.wikidata.wdtk.storage.graph;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.function.LongConsumer;
+
+import org.wikidata.wdtk.storage.io.MappedFile;
+
+/**
+ * The edges of one property in an {@link ItemGraph}, stored in a
+ * memory-mapped file in compressed sparse row (CSR) format, once for each
+ * {@link Direction}. For each direction, the file holds the offsets of the
+ * neighbors of every node, followed by the numeric ids of all neighbors as
+ * 32 bit values, so the neighbors of a node are found without any search.
+ * Nodes are numeric item ids, such as 5 for Q5. The neighbors of a node are
+ * in increasing order, and each of them occurs only once.
+ * <p>
+ * The methods of this class are thread-safe. A layer is closed with its
+ * graph and must not be used afterwards.
+ */
+public class GraphLayer implements Closeable {
+
+	/**
+	 * The first bytes of a file: "WDTKCSRG" in ASCII.
+	 */
+	static final long MAGIC_NUMBER = 0x475253434b544457L;
+
+	/**
+	 * Version of the file format. All values are stored in little-endian byte
+	 * order.
+	 */
+	static final long VERSION = 1;
+
+	static final int HEADER_MAGIC_NUMBER = 0;
+	static final int HEADER_VERSION = 1;
+	static final int HEADER_PROPERTY_ID = 2;
+	static final int HEADER_NODE_COUNT = 3;
+	static final int HEADER_EDGE_COUNT = 4;
+
+	/**
+	 * Number of <b>long</b> values of the header, which precedes the
+	 * adjacency of the outgoing edges.
+	 */
+	static final int HEADER_LENGTH = 8;
+
+	/**
+	 * Largest node which can be stored in a layer. The builder packs an edge
+	 * into one <b>long</b> value and sorts these values as signed numbers, so
+	 * the source must not reach the sign bit.
+	 */
+	static final long MAX_NODE = Integer.MAX_VALUE;
+
+	static final int DEFAULT_LG_CHUNK_SIZE = 30;
+
+	final MappedFile file;
+
+	final long propertyId;
+
+	final long nodeCount;
+
+	final long edgeCount;
+
+	/**
+	 * Index of the first <b>long</b> value of the offsets of the outgoing
+	 * and the incoming edges.
+	 */
+	final long[] offsetsStart = new long[2];
+
+	/**
+	 * Index of the first <b>long</b> value of the neighbors along the
+	 * outgoing and the incoming edges.
+	 */
+	final long[] neighborsStart = new long[2];
+
+	GraphLayer(MappedFile file) throws IOException {
+		this.file = file;
+		long fileSize = file.size();
+		if (fileSize < 8 * HEADER_LENGTH
+				|| getLong(HEADER_MAGIC_NUMBER) != MAGIC_NUMBER) {
+			throw new IOException("The file is not a graph layer.");
+		}
+		if (getLong(HEADER_VERSION) != VERSION) {
+			throw new IOException("Unsupported version "
+					+ getLong(HEADER_VERSION) + " of graph layer.");
+		}
+		this.propertyId = getLong(HEADER_PROPERTY_ID);
+		this.nodeCount = getLong(HEADER_NODE_COUNT);
+		this.edgeCount = getLong(HEADER_EDGE_COUNT);
+		long neighborsLength = getNeighborsLength(this.edgeCount);
+		long expectedLength = getFileLength(this.nodeCount, this.edgeCount);
+		if (this.nodeCount < 0 || this.edgeCount < 0
+				|| expectedLength != fileSize) {
+			throw new IOException("The graph layer is incomplete.");
+		}
+		this.offsetsStart[0] = HEADER_LENGTH;
+		this.neighborsStart[0] = HEADER_LENGTH + this.nodeCount + 1;
+		this.offsetsStart[1] = this.neighborsStart[0] + neighborsLength;
+		this.neighborsStart[1] = this.offsetsStart[1] + this.nodeCount + 1;
+	}
+
+	/**
+	 * Returns the number of <b>long</b> values which hold the neighbors of
+	 * one direction.
+	 */
+	static long getNeighborsLength(long edgeCount) {
+		return (edgeCount + 1) >>> 1;
+	}
+
+	/**
+	 * Returns the length of a file in bytes.
+	 */
+	static long getFileLength(long nodeCount, long edgeCount) {
+		return (HEADER_LENGTH + 2 * (nodeCount + 1) + 2 * getNeighborsLength(edgeCount)) << 3;
+	}
+
+	static GraphLayer open(Path file, int lgChunkSize) throws IOException {
+		MappedFile mappedFile = MappedFile.open(file, ByteOrder.LITTLE_ENDIAN,
+				lgChunkSize);
+		try {
+			return new GraphLayer(mappedFile);
+		} catch (IOException | RuntimeException e) {
+			mappedFile.close();
+			throw e;
+		}
+	}
+
+	long getLong(long index) {
+		return this.file.getLong(index);
+	}
+
+	/**
+	 * Returns a neighbor, stored as an unsigned 32 bit value.
+	 */
+	long getNeighbor(Direction direction, long index) {
+		return Integer.toUnsignedLong(this.file.getInt(
+				(this.neighborsStart[direction.ordinal()] << 1) + index));
+	}
+
+	/**
+	 * Returns the id of the property of this layer, such as "P279".
+	 *
+	 * @return the property id
+	 */
+	public String getPropertyId() {
+		return "P" + this.propertyId;
+	}
+
+	/**
+	 * Returns the number of nodes of this layer, which is one more than the
+	 * largest node with an edge. Larger nodes have no neighbors.
+	 *
+	 * @return the number of nodes
+	 */
+	public long getNodeCount() {
+		return this.nodeCount;
+	}
+
+	/**
+	 * Returns the number of edges of this layer.
+	 *
+	 * @return the number of edges
+	 */
+	public long getEdgeCount() {
+		return this.edgeCount;
+	}
+
+	/**
+	 * Returns the number of neighbors of a node.
+	 *
+	 * @param node
+	 *            numeric item id
+	 * @param direction
+	 *            direction of the edges
+	 * @return the number of neighbors
+	 */
+	public long getDegree(long node, Direction direction) {
+		if (node < 0 || node >= this.nodeCount) {
+			return 0;
+		}
+		long offsets = this.offsetsStart[direction.ordinal()] + node;
+		return getLong(offsets + 1) - getLong(offsets);
+	}
+
+	/**
+	 * Calls the consumer with each neighbor of a node, in increasing order.
+	 *
+	 * @param node
+	 *            numeric item id
+	 * @param direction
+	 *            direction of the edges
+	 * @param consumer
+	 *            consumer of the numeric item ids of the neighbors
+	 */
+	public void forEachNeighbor(long node, Direction direction,
+			LongConsumer consumer) {
+		if (node < 0 || node >= this.nodeCount) {
+			return;
+		}
+		long offsets = this.offsetsStart[direction.ordinal()] + node;
+		long end = getLong(offsets + 1);
+		for (long i = getLong(offsets); i < end; i++) {
+			consumer.accept(getNeighbor(direction, i));
+		}
+	}
+
+	/**
+	 * Returns the neighbors of a node, in increasing order.
+	 *
+	 * @param node
+	 *            numeric item id
+	 * @param direction
+	 *            direction of the edges
+	 * @return the numeric item ids of the neighbors
+	 */
+	public long[] getNeighbors(long node, Direction direction) {
+		long[] ret = new long[(int) getDegree(node, direction)];
+		if (ret.length > 0) {
+			long start = getLong(this.offsetsStart[direction.ordinal()]
+					+ node);
+			for (int i = 0; i < ret.length; i++) {
+				ret[i] = getNeighbor(direction, start + i);
+			}
+		}
+		return ret;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.file.close();
+	}
+
+}
@@ -0,0 +1,305 @@
+package org.wikidata.wdtk.storage.graph;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.apache.commons.lang3.Validate;
+import org.wikidata.wdtk.storage.datastructures.BitVector;
+import org.wikidata.wdtk.storage.datastructures.ConcurrentBitVector;
+import org.wikidata.wdtk.storage.datastructures.RankedBitVector;
+
+/**
+ * Parallel traversals of an {@link ItemGraph}. The traversals are
+ * breadth-first searches which process the nodes of each level in parallel
+ * tasks of a {@link ForkJoinPool}. The visited nodes are marked in a
+ * {@link ConcurrentBitVector}, so that each node is expanded only once, and
+ * the result is returned as a {@link RankedBitVector} where the numeric ids
+ * of the nodes found are <code>true</code>.
+ * <p>
+ * Traversals can follow several layers at once, and their results can be
+ * combined. For example, all instances of human (Q5) or of its subclasses
+ * are found as follows:
+ *
+ * <pre>
+ * RankedBitVector classes = traversal.reachable(5, Direction.INCOMING, "P279");
+ * RankedBitVector humans = traversal.step(classes, Direction.INCOMING, "P31");
+ * </pre>
+ *
+ * The methods of this class are thread-safe.
+ */
+public class GraphTraversal {
+
+	/**
+	 * Largest number of nodes of a level which are expanded in a single
+	 * task.
+	 */
+	static final int SEQUENTIAL_THRESHOLD = 1024;
+
+	final ItemGraph graph;
+
+	final ForkJoinPool pool;
+
+	/**
+	 * Creates a traversal which uses the common pool.
+	 *
+	 * @param graph
+	 *            graph to traverse
+	 */
+	public GraphTraversal(ItemGraph graph) {
+		this(graph, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a traversal.
+	 *
+	 * @param graph
+	 *            graph to traverse
+	 * @param pool
+	 *            pool which runs the tasks of the traversals
+	 */
+	public GraphTraversal(ItemGraph graph, ForkJoinPool pool) {
+		Validate.notNull(graph, "Graph cannot be null.");
+		Validate.notNull(pool, "Pool cannot be null.");
+		this.graph = graph;
+		this.pool = pool;
+	}
+
+	/**
+	 * Returns the nodes reachable from a node, including the node itself.
+	 *
+	 * @param source
+	 *            numeric item id of the first node
+	 * @param direction
+	 *            direction in which the edges are followed
+	 * @param propertyIds
+	 *            properties of the layers whose edges are followed
+	 * @return the nodes found
+	 * @throws IllegalArgumentException
+	 *             if the graph has no layer for one of the properties
+	 */
+	public RankedBitVector reachable(long source, Direction direction,
+			String... propertyIds) {
+		return reachable(new long[] { source }, direction, Integer.MAX_VALUE,
+				propertyIds);
+	}
+
+	/**
+	 * Returns the nodes reachable from some nodes along at most the given
+	 * number of edges, including the nodes themselves.
+	 *
+	 * @param sources
+	 *            numeric item ids of the first nodes
+	 * @param direction
+	 *            direction in which the edges are followed
+	 * @param maxDepth
+	 *            largest number of edges followed from a source
+	 * @param propertyIds
+	 *            properties of the layers whose edges are followed
+	 * @return the nodes found
+	 * @throws IllegalArgumentException
+	 *             if the graph has no layer for one of the properties
+	 */
+	public RankedBitVector reachable(long[] sources, Direction direction,
+			int maxDepth, String... propertyIds) {
+		Validate.notNull(sources, "Sources cannot be null.");
+		Validate.isTrue(maxDepth >= 0, "Depth cannot be negative.");
+		return traverse(sources, true, direction, maxDepth,
+				getLayers(propertyIds));
+	}
+
+	/**
+	 * Returns the transitive closure of a node: the nodes reachable from it
+	 * along one or more edges. The node itself is only included if it is on
+	 * a cycle. For example, the closure of a class along outgoing P279 edges
+	 * are all its superclasses.
+	 *
+	 * @param source
+	 *            numeric item id of the first node
+	 * @param direction
+	 *            direction in which the edges are followed
+	 * @param propertyIds
+	 *            properties of the layers whose edges are followed
+	 * @return the nodes found
+	 * @throws IllegalArgumentException
+	 *             if the graph has no layer for one of the properties
+	 */
+	public RankedBitVector transitiveClosure(long source,
+			Direction direction, String... propertyIds) {
+		return traverse(new long[] { source }, false, direction,
+				Integer.MAX_VALUE, getLayers(propertyIds));
+	}
+
+	/**
+	 * Returns the neighbors of a set of nodes.
+	 *
+	 * @param nodes
+	 *            bit vector where the numeric ids of the nodes are
+	 *            <code>true</code>
+	 * @param direction
+	 *            direction in which the edges are followed
+	 * @param propertyIds
+	 *            properties of the layers whose edges are followed
+	 * @return the nodes found
+	 * @throws IllegalArgumentException
+	 *             if the graph has no layer for one of the properties
+	 */
+	public RankedBitVector step(BitVector nodes, Direction direction,
+			String... propertyIds) {
+		Validate.notNull(nodes, "Nodes cannot be null.");
+		NodeList sources = new NodeList();
+		nodes.forEachSetBit(sources::add);
+		return traverse(sources.toArray(), false, direction, 1,
+				getLayers(propertyIds));
+	}
+
+	GraphLayer[] getLayers(String... propertyIds) {
+		Validate.notEmpty(propertyIds, "At least one property must be given.");
+		GraphLayer[] ret = new GraphLayer[propertyIds.length];
+		for (int i = 0; i < propertyIds.length; i++) {
+			ret[i] = this.graph.getLayer(propertyIds[i]);
+			if (ret[i] == null) {
+				throw new IllegalArgumentException("The graph has no layer for "
+						+ propertyIds[i] + ".");
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Runs a breadth-first search.
+	 *
+	 * @param sources
+	 *            the first nodes
+	 * @param includeSources
+	 *            whether the sources are part of the result, or only if they
+	 *            are reached again
+	 * @param direction
+	 *            direction in which the edges are followed
+	 * @param maxDepth
+	 *            number of levels expanded
+	 * @param layers
+	 *            layers whose edges are followed
+	 * @return the nodes found
+	 */
+	RankedBitVector traverse(long[] sources, boolean includeSources,
+			Direction direction, int maxDepth, GraphLayer[] layers) {
+		Validate.notNull(direction, "Direction cannot be null.");
+		ConcurrentBitVector visited = new ConcurrentBitVector(
+				this.graph.getNodeCount());
+		long[] level = Arrays.stream(sources).distinct().toArray();
+		if (includeSources) {
+			for (long source : level) {
+				visited.setBit(source, true);
+			}
+		}
+		for (int depth = 0; depth < maxDepth && level.length > 0; depth++) {
+			level = this.pool.invoke(new ExpandTask(level, 0, level.length,
+					direction, layers, visited));
+		}
+		return visited.freeze();
+	}
+
+	/**
+	 * Task which expands a range of the nodes of a level, and returns the
+	 * nodes it has visited first, which make up the next level.
+	 */
+	static class ExpandTask extends RecursiveTask<long[]> {
+
+		private static final long serialVersionUID = 1L;
+
+		final long[] level;
+
+		final int from;
+
+		final int to;
+
+		final Direction direction;
+
+		final GraphLayer[] layers;
+
+		final ConcurrentBitVector visited;
+
+		ExpandTask(long[] level, int from, int to, Direction direction,
+				GraphLayer[] layers, ConcurrentBitVector visited) {
+			this.level = level;
+			this.from = from;
+			this.to = to;
+			this.direction = direction;
+			this.layers = layers;
+			this.visited = visited;
+		}
+
+		@Override
+		protected long[] compute() {
+			if (this.to - this.from > SEQUENTIAL_THRESHOLD) {
+				int middle = (this.from + this.to) >>> 1;
+				ExpandTask first = new ExpandTask(this.level, this.from,
+						middle, this.direction, this.layers, this.visited);
+				ExpandTask second = new ExpandTask(this.level, middle,
+						this.to, this.direction, this.layers, this.visited);
+				first.fork();
+				long[] secondResult = second.compute();
+				long[] firstResult = first.join();
+				long[] ret = Arrays.copyOf(firstResult, firstResult.length
+						+ secondResult.length);
+				System.arraycopy(secondResult, 0, ret, firstResult.length,
+						secondResult.length);
+				return ret;
+			}
+			NodeList next = new NodeList();
+			for (int i = this.from; i < this.to; i++) {
+				for (GraphLayer layer : this.layers) {
+					layer.forEachNeighbor(this.level[i], this.direction,
+							neighbor -> {
+								if (!this.visited.getAndSetBit(neighbor, true)) {
+									next.add(neighbor);
+								}
+							});
+				}
+			}
+			return next.toArray();
+		}
+	}
+
+	/**
+	 * Growable list of nodes.
+	 */
+	static class NodeList {
+
+		long[] nodes = new long[16];
+
+		int size;
+
+		void add(long node) {
+			if (this.size == this.nodes.length) {
+				this.nodes = Arrays.copyOf(this.nodes, 2 * this.size);
+			}
+			this.nodes[this.size++] = node;
+		}
+
+		long[] toArray() {
+			return Arrays.copyOf(this.nodes, this.size);
+		}
+	}
+
+}
@@ -0,0 +1,167 @@
+package org.wikidata.wdtk.storage.graph;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Graph of the statements between items, created by
+ * {@link ItemGraphBuilder}. The nodes are numeric item ids, and the edges of
+ * each property form a separate {@link GraphLayer}, which is stored in its
+ * own memory-mapped file in the directory of the graph. An edge leads from
+ * the subject of a statement to its value, and each layer can be traversed
+ * in both directions. {@link GraphTraversal} computes the nodes reachable
+ * along one or more layers, such as all subclasses of a class.
+ * <p>
+ * The methods of this class are thread-safe. The object must not be used
+ * after it is closed.
+ */
+public class ItemGraph implements Closeable {
+
+	/**
+	 * Suffix of the name of the file of a layer, which starts with the id of
+	 * its property.
+	 */
+	static final String LAYER_FILE_SUFFIX = ".csr";
+
+	/**
+	 * Layers by the numeric ids of their properties.
+	 */
+	final TreeMap<Long, GraphLayer> layers;
+
+	final long nodeCount;
+
+	ItemGraph(TreeMap<Long, GraphLayer> layers) {
+		this.layers = layers;
+		long nodeCount = 0;
+		for (GraphLayer layer : layers.values()) {
+			nodeCount = Math.max(nodeCount, layer.getNodeCount());
+		}
+		this.nodeCount = nodeCount;
+	}
+
+	/**
+	 * Opens the graph in a directory, with all layers found in it.
+	 *
+	 * @param directory
+	 *            directory of the graph
+	 * @return the graph
+	 * @throws IOException
+	 *             if the files cannot be read or a file is not a layer
+	 */
+	public static ItemGraph open(Path directory) throws IOException {
+		return open(directory, GraphLayer.DEFAULT_LG_CHUNK_SIZE);
+	}
+
+	static ItemGraph open(Path directory, int lgChunkSize) throws IOException {
+		Validate.notNull(directory, "Directory cannot be null.");
+		TreeMap<Long, GraphLayer> layers = new TreeMap<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(
+				directory, "P*" + LAYER_FILE_SUFFIX)) {
+			for (Path file : files) {
+				GraphLayer layer = GraphLayer.open(file, lgChunkSize);
+				layers.put(layer.propertyId, layer);
+			}
+		} catch (IOException | RuntimeException e) {
+			for (GraphLayer layer : layers.values()) {
+				layer.close();
+			}
+			throw e;
+		}
+		return new ItemGraph(layers);
+	}
+
+	/**
+	 * Returns the name of the file of the layer of a property.
+	 */
+	static String getLayerFileName(String propertyId) {
+		return propertyId + LAYER_FILE_SUFFIX;
+	}
+
+	/**
+	 * Returns the ids of the properties of the layers, in increasing order
+	 * of their numeric ids.
+	 *
+	 * @return the property ids
+	 */
+	public Set<String> getPropertyIds() {
+		Set<String> ret = new LinkedHashSet<>();
+		for (GraphLayer layer : this.layers.values()) {
+			ret.add(layer.getPropertyId());
+		}
+		return Collections.unmodifiableSet(ret);
+	}
+
+	/**
+	 * Returns the layer of a property.
+	 *
+	 * @param propertyId
+	 *            property id, such as "P279"
+	 * @return the layer, or <code>null</code> if the graph has no layer for
+	 *         the property
+	 */
+	public GraphLayer getLayer(String propertyId) {
+		Validate.notNull(propertyId, "Property id cannot be null.");
+		if (propertyId.length() < 2 || propertyId.charAt(0) != 'P') {
+			return null;
+		}
+		try {
+			return this.layers.get(Long.parseLong(propertyId.substring(1)));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the number of nodes of the graph, which is the largest number
+	 * of nodes of its layers.
+	 *
+	 * @return the number of nodes
+	 */
+	public long getNodeCount() {
+		return this.nodeCount;
+	}
+
+	@Override
+	public void close() throws IOException {
+		IOException exception = null;
+		for (GraphLayer layer : this.layers.values()) {
+			try {
+				layer.close();
+			} catch (IOException e) {
+				exception = e;
+			}
+		}
+		if (exception != null) {
+			throw exception;
+		}
+	}
+
+}
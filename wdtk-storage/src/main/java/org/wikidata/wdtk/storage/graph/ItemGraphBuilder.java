@@ -0,0 +1,251 @@
+package org.wikidata.wdtk.storage.graph;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentProcessor;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
+import org.wikidata.wdtk.datamodel.interfaces.StatementRank;
+import org.wikidata.wdtk.storage.entitystore.EntityType;
+import org.wikidata.wdtk.storage.io.LongWriter;
+
+/**
+ * Builds an {@link ItemGraph} from the statements of the item documents it
+ * processes, for instance while a dump is processed by a
+ * <code>org.wikidata.wdtk.dumpfiles.DumpProcessingController</code>. The
+ * graph is written by {@link #close()}, with one layer for each of the
+ * properties given to the constructor.
+ * <p>
+ * Each statement of one of these properties whose value is an item adds an
+ * edge from the subject to the value. Deprecated statements, qualifiers and
+ * references are ignored. The documents may be processed in any order.
+ * <p>
+ * The edges are kept in memory until the graph is written, each of them in
+ * one <b>long</b> value, so P31 and P279 of all of Wikidata take about 1 GB.
+ */
+public class ItemGraphBuilder implements EntityDocumentProcessor, Closeable {
+
+	static final Logger logger = LoggerFactory
+			.getLogger(ItemGraphBuilder.class);
+
+	static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+	static final int MAX_EDGE_COUNT = Integer.MAX_VALUE - 8;
+
+	final Path directory;
+
+	/**
+	 * Edges of the layers by the ids of their properties.
+	 */
+	final Map<String, EdgeList> layers = new HashMap<>();
+
+	boolean closed;
+
+	/**
+	 * Creates a builder.
+	 *
+	 * @param directory
+	 *            directory of the graph, which is created if needed; the
+	 *            files of the layers are overwritten
+	 * @param propertyIds
+	 *            ids of the properties whose statements are the edges, such
+	 *            as "P31" and "P279"
+	 */
+	public ItemGraphBuilder(Path directory, String... propertyIds) {
+		Validate.notNull(directory, "Directory cannot be null.");
+		Validate.notEmpty(propertyIds, "At least one property must be given.");
+		for (String propertyId : propertyIds) {
+			Validate.isTrue(
+					propertyId != null
+							&& EntityType.forEntityId(propertyId) == EntityType.PROPERTY,
+					"Wrong property id '%s'.", propertyId);
+			this.layers.put(propertyId,
+					new EdgeList(EntityType.getNumericId(propertyId)));
+		}
+		this.directory = directory;
+	}
+
+	@Override
+	public void processItemDocument(ItemDocument itemDocument) {
+		if (this.closed) {
+			throw new IllegalStateException("The graph has been written.");
+		}
+		long subject = EntityType.getNumericId(itemDocument.getEntityId()
+				.getId());
+		for (StatementGroup statementGroup : itemDocument.getStatementGroups()) {
+			EdgeList layer = this.layers.get(statementGroup.getProperty()
+					.getId());
+			if (layer == null) {
+				continue;
+			}
+			for (Statement statement : statementGroup) {
+				if (statement.getRank() != StatementRank.DEPRECATED
+						&& statement.getValue() instanceof ItemIdValue) {
+					layer.add(subject, EntityType
+							.getNumericId(((ItemIdValue) statement.getValue())
+									.getId()));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the layers of the graph. Afterwards, no more documents can be
+	 * processed.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		Files.createDirectories(this.directory);
+		for (Map.Entry<String, EdgeList> entry : this.layers.entrySet()) {
+			writeLayer(this.directory.resolve(ItemGraph
+					.getLayerFileName(entry.getKey())), entry.getValue());
+			entry.setValue(null);
+		}
+	}
+
+	/**
+	 * Writes a layer to a temporary file, which then replaces its file.
+	 */
+	static void writeLayer(Path file, EdgeList layer) throws IOException {
+		long[] edges = layer.edges;
+		Arrays.parallelSort(edges, 0, layer.size);
+		int edgeCount = 0;
+		long maxNode = -1;
+		for (int i = 0; i < layer.size; i++) {
+			if (i == 0 || edges[i] != edges[i - 1]) {
+				edges[edgeCount++] = edges[i];
+				maxNode = Math.max(maxNode,
+						Math.max(edges[i] >>> 32, edges[i] & GraphLayer.MAX_NODE));
+			}
+		}
+		long nodeCount = maxNode + 1;
+		logger.info("Writing {} edges between {} nodes of layer P{}.",
+				edgeCount, nodeCount, layer.propertyId);
+
+		Path temporaryFile = file.resolveSibling(file.getFileName()
+				+ TEMPORARY_FILE_SUFFIX);
+		try {
+			try (FileChannel channel = FileChannel.open(temporaryFile,
+					StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+					LongWriter writer = new LongWriter(channel,
+							ByteOrder.LITTLE_ENDIAN)) {
+				writer.write(GraphLayer.MAGIC_NUMBER);
+				writer.write(GraphLayer.VERSION);
+				writer.write(layer.propertyId);
+				writer.write(nodeCount);
+				writer.write(edgeCount);
+				while (writer.getPosition() < GraphLayer.HEADER_LENGTH) {
+					writer.write(0);
+				}
+				writeAdjacency(writer, edges, edgeCount, nodeCount);
+				// swaps source and target, to write the incoming edges
+				for (int i = 0; i < edgeCount; i++) {
+					edges[i] = (edges[i] << 32) | (edges[i] >>> 32);
+				}
+				Arrays.parallelSort(edges, 0, edgeCount);
+				writeAdjacency(writer, edges, edgeCount, nodeCount);
+				writer.flush();
+				channel.force(true);
+			}
+			Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+
+	/**
+	 * Writes the offsets and the neighbors of one direction, from sorted
+	 * edges with the source in the upper and the target in the lower half.
+	 */
+	static void writeAdjacency(LongWriter writer, long[] edges,
+			int edgeCount, long nodeCount) throws IOException {
+		int edge = 0;
+		for (long node = 0; node <= nodeCount; node++) {
+			while (edge < edgeCount && (edges[edge] >>> 32) < node) {
+				edge++;
+			}
+			writer.write(edge);
+		}
+		// two neighbors in each long value, the first in the lower half
+		for (int i = 0; i < edgeCount; i += 2) {
+			long first = edges[i] & GraphLayer.MAX_NODE;
+			long second = i + 1 < edgeCount ? edges[i + 1]
+					& GraphLayer.MAX_NODE : 0;
+			writer.write(first | (second << 32));
+		}
+	}
+
+	/**
+	 * The edges of a layer, each stored as one <b>long</b> value with the
+	 * source in the upper and the target in the lower 32 bits.
+	 */
+	static class EdgeList {
+
+		final long propertyId;
+
+		long[] edges = new long[16];
+
+		int size;
+
+		EdgeList(long propertyId) {
+			this.propertyId = propertyId;
+		}
+
+		void add(long source, long target) {
+			if (source > GraphLayer.MAX_NODE || target > GraphLayer.MAX_NODE) {
+				throw new IllegalArgumentException("Item id Q"
+						+ Math.max(source, target)
+						+ " is too large for an item graph.");
+			}
+			if (this.size == this.edges.length) {
+				if (this.size == MAX_EDGE_COUNT) {
+					throw new IllegalStateException("Too many edges for P"
+							+ this.propertyId + ".");
+				}
+				this.edges = Arrays.copyOf(this.edges, (int) Math.min(
+						MAX_EDGE_COUNT, this.size + (this.size >> 1)));
+			}
+			this.edges[this.size++] = (source << 32) | target;
+		}
+	}
+
+}
@@ -0,0 +1,101 @@
+package org.wikidata.wdtk.storage.io;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes <b>long</b> values to a file through a buffer, starting at the
+ * current position of the file.
+ */
+public class LongWriter implements Closeable {
+
+	final FileChannel channel;
+
+	final ByteBuffer buffer;
+
+	long position;
+
+	/**
+	 * Creates a writer.
+	 *
+	 * @param channel
+	 *            the file, which is not closed with the writer
+	 * @param order
+	 *            byte order of the values
+	 */
+	public LongWriter(FileChannel channel, ByteOrder order) {
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocate(1 << 16).order(order);
+	}
+
+	/**
+	 * Returns the number of values written so far.
+	 *
+	 * @return the number of values
+	 */
+	public long getPosition() {
+		return this.position;
+	}
+
+	/**
+	 * Writes a value.
+	 *
+	 * @param value
+	 *            the value
+	 * @throws IOException
+	 *             if the buffer is full and cannot be written
+	 */
+	public void write(long value) throws IOException {
+		if (!this.buffer.hasRemaining()) {
+			flush();
+		}
+		this.buffer.putLong(value);
+		this.position++;
+	}
+
+	/**
+	 * Writes the buffered values to the file.
+	 *
+	 * @throws IOException
+	 *             if the values cannot be written
+	 */
+	public void flush() throws IOException {
+		((Buffer) this.buffer).flip();
+		while (this.buffer.hasRemaining()) {
+			this.channel.write(this.buffer);
+		}
+		((Buffer) this.buffer).clear();
+	}
+
+	/**
+	 * Writes the buffered values to the file, which remains open.
+	 */
+	@Override
+	public void close() throws IOException {
+		flush();
+	}
+
+}
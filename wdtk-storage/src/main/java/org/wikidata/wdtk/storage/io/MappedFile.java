@@ -0,0 +1,315 @@
+package org.wikidata.wdtk.storage.io;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A file mapped into memory in chunks of a fixed size, a power of two, so
+ * that files larger than 2 GB can be mapped. Values are read and written by
+ * their position in the file. <b>long</b> and <b>int</b> values are
+ * addressed by their index, at a position which is a multiple of their size,
+ * so they never cross the end of a chunk; {@link #getLongAt(long)} reads
+ * values at any position.
+ * <p>
+ * A writable file can be extended with {@link #ensureSize(long)}. Reading is
+ * thread-safe as long as the file is not written or extended at the same
+ * time. The object must not be used after it is closed. The mapped memory
+ * is released by the garbage collector once the object is no longer
+ * referenced.
+ */
+public class MappedFile implements Closeable {
+
+	/**
+	 * Binary logarithm of the size of a <b>long</b> value in bytes.
+	 */
+	public static final int LG_LONG_SIZE = 3;
+
+	static final int LG_INT_SIZE = 2;
+
+	/**
+	 * Largest binary logarithm of the size of the chunks, which are indexed by
+	 * <b>int</b> values.
+	 */
+	public static final int MAX_LG_CHUNK_SIZE = 30;
+
+	final FileChannel channel;
+
+	final boolean writable;
+
+	final ByteOrder order;
+
+	/**
+	 * Binary logarithm of the size of a chunk in bytes.
+	 */
+	final int lgChunkSize;
+
+	final long chunkMask;
+
+	MappedByteBuffer[] chunks;
+
+	/**
+	 * Number of bytes which are mapped.
+	 */
+	long size;
+
+	/**
+	 * Maps the first bytes of a file. The file belongs to this object
+	 * afterwards, and it is closed with it. If the file is writable and
+	 * shorter than the given size, it is extended.
+	 *
+	 * @param channel
+	 *            the file
+	 * @param writable
+	 *            if true, the file is mapped for reading and writing
+	 * @param order
+	 *            byte order of the values
+	 * @param size
+	 *            number of bytes to map
+	 * @param lgChunkSize
+	 *            binary logarithm of the size of the chunks in bytes, from 3
+	 *            to {@link #MAX_LG_CHUNK_SIZE}
+	 * @throws IOException
+	 *             if the file cannot be mapped
+	 */
+	public MappedFile(FileChannel channel, boolean writable, ByteOrder order,
+			long size, int lgChunkSize) throws IOException {
+		Validate.isTrue(lgChunkSize >= LG_LONG_SIZE
+				&& lgChunkSize <= MAX_LG_CHUNK_SIZE,
+				"Wrong chunk size 2^%d.", lgChunkSize);
+		Validate.isTrue(size >= 0, "Wrong size %d.", size);
+		this.channel = channel;
+		this.writable = writable;
+		this.order = order;
+		this.lgChunkSize = lgChunkSize;
+		this.chunkMask = (1L << lgChunkSize) - 1;
+		this.chunks = new MappedByteBuffer[(int) ((size + this.chunkMask) >>> lgChunkSize)];
+		for (int i = 0; i < this.chunks.length; i++) {
+			long position = (long) i << lgChunkSize;
+			this.chunks[i] = map(i, Math.min(this.chunkMask + 1, size
+					- position));
+		}
+		this.size = size;
+	}
+
+	/**
+	 * Maps a whole file for reading only.
+	 *
+	 * @param file
+	 *            the file
+	 * @param order
+	 *            byte order of the values
+	 * @param lgChunkSize
+	 *            binary logarithm of the size of the chunks in bytes
+	 * @return the mapped file
+	 * @throws IOException
+	 *             if the file cannot be opened or mapped
+	 */
+	public static MappedFile open(Path file, ByteOrder order, int lgChunkSize)
+			throws IOException {
+		Validate.notNull(file, "File cannot be null.");
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			return new MappedFile(channel, false, order, channel.size(),
+					lgChunkSize);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	MappedByteBuffer map(int chunkIndex, long chunkSize) throws IOException {
+		MappedByteBuffer ret = this.channel.map(
+				this.writable ? MapMode.READ_WRITE : MapMode.READ_ONLY,
+				(long) chunkIndex << this.lgChunkSize, chunkSize);
+		ret.order(this.order);
+		return ret;
+	}
+
+	/**
+	 * Maps full chunks up to the given size, if fewer bytes are mapped. The
+	 * file is extended as needed, and the new bytes are 0.
+	 *
+	 * @param size
+	 *            number of bytes which must be mapped
+	 * @throws IOException
+	 *             if the file cannot be mapped
+	 * @throws IllegalStateException
+	 *             if the file is not writable
+	 */
+	public void ensureSize(long size) throws IOException {
+		if (size <= this.size) {
+			return;
+		}
+		if (!this.writable) {
+			throw new IllegalStateException(
+					"A file mapped for reading only cannot be extended.");
+		}
+		int numberOfChunks = (int) ((size + this.chunkMask) >>> this.lgChunkSize);
+		// the last chunk may have been mapped partially
+		int first = (this.size & this.chunkMask) == 0 ? this.chunks.length
+				: this.chunks.length - 1;
+		MappedByteBuffer[] newChunks = Arrays.copyOf(this.chunks,
+				numberOfChunks);
+		for (int i = first; i < numberOfChunks; i++) {
+			newChunks[i] = map(i, this.chunkMask + 1);
+		}
+		this.chunks = newChunks;
+		this.size = (long) numberOfChunks << this.lgChunkSize;
+	}
+
+	/**
+	 * Returns the number of bytes which are mapped.
+	 *
+	 * @return the size of the mapping
+	 */
+	public long size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the byte at a position.
+	 *
+	 * @param position
+	 *            position in bytes
+	 * @return the byte
+	 */
+	public byte getByte(long position) {
+		return this.chunks[(int) (position >>> this.lgChunkSize)]
+				.get((int) (position & this.chunkMask));
+	}
+
+	/**
+	 * Returns the <b>int</b> value with the given index, at the position
+	 * 4&nbsp;*&nbsp;<i>index</i>.
+	 *
+	 * @param index
+	 *            index of the value
+	 * @return the value
+	 */
+	public int getInt(long index) {
+		long position = index << LG_INT_SIZE;
+		return this.chunks[(int) (position >>> this.lgChunkSize)]
+				.getInt((int) (position & this.chunkMask));
+	}
+
+	/**
+	 * Returns the <b>long</b> value with the given index, at the position
+	 * 8&nbsp;*&nbsp;<i>index</i>.
+	 *
+	 * @param index
+	 *            index of the value
+	 * @return the value
+	 */
+	public long getLong(long index) {
+		long position = index << LG_LONG_SIZE;
+		return this.chunks[(int) (position >>> this.lgChunkSize)]
+				.getLong((int) (position & this.chunkMask));
+	}
+
+	/**
+	 * Sets the <b>long</b> value with the given index, at the position
+	 * 8&nbsp;*&nbsp;<i>index</i>.
+	 *
+	 * @param index
+	 *            index of the value
+	 * @param value
+	 *            the new value
+	 */
+	public void putLong(long index, long value) {
+		long position = index << LG_LONG_SIZE;
+		this.chunks[(int) (position >>> this.lgChunkSize)].putLong(
+				(int) (position & this.chunkMask), value);
+	}
+
+	/**
+	 * Returns the <b>long</b> value at any position, which may cross the end
+	 * of a chunk.
+	 *
+	 * @param position
+	 *            position in bytes
+	 * @return the value
+	 */
+	public long getLongAt(long position) {
+		int offset = (int) (position & this.chunkMask);
+		MappedByteBuffer chunk = this.chunks[(int) (position >>> this.lgChunkSize)];
+		if (offset + 8 <= chunk.limit()) {
+			return chunk.getLong(offset);
+		}
+		long ret = 0;
+		if (this.order == ByteOrder.BIG_ENDIAN) {
+			for (int i = 0; i < 8; i++) {
+				ret = (ret << 8) | (getByte(position + i) & 0xff);
+			}
+		} else {
+			for (int i = 7; i >= 0; i--) {
+				ret = (ret << 8) | (getByte(position + i) & 0xff);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Writes the changes of all chunks to the file.
+	 */
+	public void force() {
+		for (MappedByteBuffer chunk : this.chunks) {
+			chunk.force();
+		}
+	}
+
+	/**
+	 * Writes the changes of the chunk with the given position to the file,
+	 * such as a header.
+	 *
+	 * @param position
+	 *            position in bytes
+	 */
+	public void force(long position) {
+		this.chunks[(int) (position >>> this.lgChunkSize)].force();
+	}
+
+	/**
+	 * Returns true until the file is closed.
+	 *
+	 * @return true if the file is open
+	 */
+	public boolean isOpen() {
+		return this.channel.isOpen();
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.chunks = new MappedByteBuffer[0];
+		this.size = 0;
+		this.channel.close();
+	}
+
+}
@@ -0,0 +1,136 @@
+package org.wikidata.wdtk.storage.io;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merges sorted runs, such as the temporary files of an external sort. Each
+ * run has a current element, and {@link #next()} returns the run whose
+ * current element comes next in the order of all runs. The caller reads that
+ * element from the run before calling {@link #next()} again, which advances
+ * the run.
+ *
+ * @param <R>
+ *            type of the runs
+ */
+public class RunMerger<R extends RunMerger.Run> implements Closeable {
+
+	/**
+	 * Sorted sequence of elements, one of which is the current element.
+	 */
+	public interface Run extends Closeable {
+
+		/**
+		 * Moves to the next element, which becomes the current element.
+		 *
+		 * @return false if the run has no more elements
+		 * @throws IOException
+		 *             if the run cannot be read
+		 */
+		boolean next() throws IOException;
+	}
+
+	final List<R> runs = new ArrayList<>();
+
+	final PriorityQueue<R> queue;
+
+	boolean started;
+
+	R current;
+
+	/**
+	 * Creates a merger without runs.
+	 *
+	 * @param comparator
+	 *            order of the runs by their current elements
+	 */
+	public RunMerger(Comparator<? super R> comparator) {
+		this.queue = new PriorityQueue<>(comparator);
+	}
+
+	/**
+	 * Adds a run, which is closed with the merger. Runs cannot be added once
+	 * the merge has started.
+	 *
+	 * @param run
+	 *            run positioned before its first element
+	 */
+	public void add(R run) {
+		if (this.started) {
+			throw new IllegalStateException(
+					"Runs cannot be added to a merge which has started.");
+		}
+		this.runs.add(run);
+	}
+
+	/**
+	 * Advances the run returned before, and returns the run with the next
+	 * element as its current element.
+	 *
+	 * @return the run, or null if all runs are exhausted
+	 * @throws IOException
+	 *             if a run cannot be read
+	 */
+	public R next() throws IOException {
+		if (!this.started) {
+			this.started = true;
+			for (R run : this.runs) {
+				if (run.next()) {
+					this.queue.add(run);
+				}
+			}
+		} else if (this.current != null && this.current.next()) {
+			this.queue.add(this.current);
+		}
+		this.current = this.queue.poll();
+		return this.current;
+	}
+
+	/**
+	 * Closes all runs.
+	 */
+	@Override
+	public void close() throws IOException {
+		IOException exception = null;
+		for (R run : this.runs) {
+			try {
+				run.close();
+			} catch (IOException e) {
+				if (exception == null) {
+					exception = e;
+				} else {
+					exception.addSuppressed(e);
+				}
+			}
+		}
+		this.queue.clear();
+		this.current = null;
+		if (exception != null) {
+			throw exception;
+		}
+	}
+
+}
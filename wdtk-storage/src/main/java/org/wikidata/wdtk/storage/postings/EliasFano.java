@@ -0,0 +1,179 @@
+package org.wikidata.wdtk.storage.postings;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Elias-Fano encoding of strictly increasing sequences of non-negative
+ * numbers, used for the posting lists of a {@link PostingsIndex}. A sequence
+ * of <i>n</i> numbers up to <i>max</i> takes about
+ * 2 + log<sub>2</sub>(<i>max</i>/<i>n</i>) bits per number. Each number is
+ * split into <i>l</i> low bits, which are stored as they are, and high bits,
+ * which are stored in unary as gaps in a bit array.
+ * <p>
+ * An encoded sequence is a list of <b>long</b> values: the number of
+ * elements, the maximum shifted left by 8 bits together with <i>l</i>, the
+ * words of the low bits and the words of the high bits.
+ */
+final class EliasFano {
+
+	/**
+	 * Number of <b>long</b> values before the words of the low bits.
+	 */
+	static final int HEADER_LENGTH = 2;
+
+	private EliasFano() {
+	}
+
+	/**
+	 * Returns the number of low bits of each element, which is
+	 * floor(log<sub>2</sub>((<i>max</i> + 1) / <i>n</i>)).
+	 */
+	static int getLowBitCount(long n, long max) {
+		long ratio = (max + 1) / n;
+		return ratio <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(ratio);
+	}
+
+	static long getLowWordCount(long n, int lowBitCount) {
+		return (n * lowBitCount + 63) >>> 6;
+	}
+
+	static long getHighWordCount(long n, long max, int lowBitCount) {
+		return (n + (max >>> lowBitCount) + 63) >>> 6;
+	}
+
+	/**
+	 * Returns the number of <b>long</b> values of an encoded sequence.
+	 */
+	static long getEncodedLength(long n, long max) {
+		int lowBitCount = getLowBitCount(n, max);
+		return HEADER_LENGTH + getLowWordCount(n, lowBitCount)
+				+ getHighWordCount(n, max, lowBitCount);
+	}
+
+	/**
+	 * Encodes a sequence. The elements are read twice.
+	 *
+	 * @param n
+	 *            number of elements, which must be positive
+	 * @param max
+	 *            last element
+	 * @param first
+	 *            iterator over the elements, for the low bits
+	 * @param second
+	 *            another iterator over the elements, for the high bits
+	 * @param output
+	 *            consumer of the encoded <b>long</b> values
+	 */
+	static void encode(long n, long max, PrimitiveIterator.OfLong first,
+			PrimitiveIterator.OfLong second, LongConsumer output) {
+		int lowBitCount = getLowBitCount(n, max);
+		output.accept(n);
+		output.accept((max << 8) | lowBitCount);
+
+		if (lowBitCount > 0) {
+			long mask = -1L >>> (64 - lowBitCount);
+			long word = 0;
+			int bit = 0;
+			for (long i = 0; i < n; i++) {
+				long low = first.nextLong() & mask;
+				word |= low << bit;
+				bit += lowBitCount;
+				if (bit >= 64) {
+					output.accept(word);
+					bit -= 64;
+					// the bits of the element that did not fit
+					word = bit == 0 ? 0 : low >>> (lowBitCount - bit);
+				}
+			}
+			if (bit > 0) {
+				output.accept(word);
+			}
+		}
+
+		long highWordCount = getHighWordCount(n, max, lowBitCount);
+		long wordIndex = 0;
+		long word = 0;
+		for (long i = 0; i < n; i++) {
+			long position = (second.nextLong() >>> lowBitCount) + i;
+			while ((position >>> 6) > wordIndex) {
+				output.accept(word);
+				word = 0;
+				wordIndex++;
+			}
+			word |= 1L << position;
+		}
+		for (; wordIndex < highWordCount; wordIndex++) {
+			output.accept(word);
+			word = 0;
+		}
+	}
+
+	/**
+	 * Decodes a sequence and passes its elements to a consumer, in
+	 * increasing order.
+	 *
+	 * @param input
+	 *            function that returns the <b>long</b> value at an index
+	 * @param offset
+	 *            index of the first value of the encoded sequence
+	 * @param consumer
+	 *            consumer of the elements
+	 */
+	static void decode(LongUnaryOperator input, long offset,
+			LongConsumer consumer) {
+		long n = input.applyAsLong(offset);
+		int lowBitCount = (int) (input.applyAsLong(offset + 1) & 0xFF);
+		long lowStart = offset + HEADER_LENGTH;
+		long highStart = lowStart + getLowWordCount(n, lowBitCount);
+		long mask = lowBitCount == 0 ? 0 : -1L >>> (64 - lowBitCount);
+
+		long wordIndex = 0;
+		long word = input.applyAsLong(highStart);
+		long lowPosition = 0;
+		for (long i = 0; i < n; i++) {
+			while (word == 0) {
+				wordIndex++;
+				word = input.applyAsLong(highStart + wordIndex);
+			}
+			long high = (wordIndex << 6) + Long.numberOfTrailingZeros(word)
+					- i;
+			word &= word - 1;
+
+			long low = 0;
+			if (lowBitCount > 0) {
+				long lowWordIndex = lowStart + (lowPosition >>> 6);
+				int bit = (int) (lowPosition & 63);
+				low = input.applyAsLong(lowWordIndex) >>> bit;
+				if (bit + lowBitCount > 64) {
+					low |= input.applyAsLong(lowWordIndex + 1) << (64 - bit);
+				}
+				low &= mask;
+				lowPosition += lowBitCount;
+			}
+			consumer.accept((high << lowBitCount) | low);
+		}
+	}
+
+}
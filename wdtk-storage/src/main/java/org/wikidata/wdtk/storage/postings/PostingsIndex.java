@@ -0,0 +1,323 @@
+package org.wikidata.wdtk.storage.postings;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.apache.commons.lang3.Validate;
+import org.wikidata.wdtk.storage.datastructures.RoaringBitVector;
+import org.wikidata.wdtk.storage.entitystore.EntityType;
+import org.wikidata.wdtk.storage.io.MappedFile;
+
+/**
+ * Inverted index from properties and their item values to the entities
+ * whose statements have them, created by {@link PostingsIndexBuilder}. The
+ * index is stored in a memory-mapped file, which holds a compressed posting
+ * list of numeric entity ids for each pair of a property and an item value,
+ * and for each property, whatever its values.
+ * <p>
+ * Queries are written as <i>terms</i>: "P31=Q5" matches the entities with a
+ * statement for P31 whose value is Q5, and "P214" matches the entities with
+ * any statement for P214, including statements without value. The result of
+ * a query is a {@link RoaringBitVector}, where the numeric ids of the
+ * matching entities are <code>true</code>, and queries can be combined with
+ * the bulk operations of bit vectors. {@link #intersect(String...)} and
+ * {@link #union(String...)} do that for several terms.
+ * <p>
+ * The methods of this class are thread-safe. The object must not be used
+ * after it is closed.
+ */
+public class PostingsIndex implements Closeable {
+
+	/**
+	 * The first bytes of a file: "WDTKPOST" in ASCII.
+	 */
+	static final long MAGIC_NUMBER = 0x54534f504b544457L;
+
+	/**
+	 * Version of the file format. All values are stored in little-endian byte
+	 * order.
+	 */
+	static final long VERSION = 1;
+
+	static final int HEADER_MAGIC_NUMBER = 0;
+	static final int HEADER_VERSION = 1;
+	static final int HEADER_SUBJECT_TYPE = 2;
+	static final int HEADER_KEY_COUNT = 3;
+	/**
+	 * Index of the first <b>long</b> value of the directory, which holds the
+	 * keys in increasing order, each followed by the index of its posting
+	 * list. A list with a single id is not stored; the directory holds the
+	 * bitwise complement of the id instead, which is negative.
+	 */
+	static final int HEADER_DIRECTORY_START = 4;
+
+	/**
+	 * Number of <b>long</b> values of the header, which precedes the posting
+	 * lists.
+	 */
+	static final int HEADER_LENGTH = 8;
+
+	/**
+	 * Number of bits of a key used for the value. The property is stored in
+	 * the bits above.
+	 */
+	static final int VALUE_BITS = 40;
+
+	/**
+	 * Value part of the keys of the lists of all entities with a property.
+	 */
+	static final long ANY_VALUE = (1L << VALUE_BITS) - 1;
+
+	static final long MAX_PROPERTY_ID = (1L << (63 - VALUE_BITS)) - 1;
+
+	static final int DEFAULT_LG_CHUNK_SIZE = 30;
+
+	static final int LG_LONG_SIZE = 3;
+
+	final MappedFile file;
+
+	final EntityType subjectType;
+
+	final long keyCount;
+
+	final long directoryStart;
+
+	PostingsIndex(MappedFile file) throws IOException {
+		this.file = file;
+		long fileSize = file.size();
+		if (fileSize < 8 * HEADER_LENGTH
+				|| getLong(HEADER_MAGIC_NUMBER) != MAGIC_NUMBER) {
+			throw new IOException("The file is not a postings index.");
+		}
+		if (getLong(HEADER_VERSION) != VERSION) {
+			throw new IOException("Unsupported version "
+					+ getLong(HEADER_VERSION) + " of postings index.");
+		}
+		long subjectType = getLong(HEADER_SUBJECT_TYPE);
+		if (subjectType < 0 || subjectType >= EntityType.values().length) {
+			throw new IOException("Unknown entity type " + subjectType
+					+ " in postings index.");
+		}
+		this.subjectType = EntityType.values()[(int) subjectType];
+		this.keyCount = getLong(HEADER_KEY_COUNT);
+		this.directoryStart = getLong(HEADER_DIRECTORY_START);
+		if (((this.directoryStart + 2 * this.keyCount) << LG_LONG_SIZE) != fileSize) {
+			throw new IOException("The postings index is incomplete.");
+		}
+	}
+
+	/**
+	 * Opens an index.
+	 *
+	 * @param file
+	 *            file of the index
+	 * @return the index
+	 * @throws IOException
+	 *             if the file cannot be read or is not an index
+	 */
+	public static PostingsIndex open(Path file) throws IOException {
+		return open(file, DEFAULT_LG_CHUNK_SIZE);
+	}
+
+	static PostingsIndex open(Path file, int lgChunkSize) throws IOException {
+		MappedFile mappedFile = MappedFile.open(file, ByteOrder.LITTLE_ENDIAN,
+				lgChunkSize);
+		try {
+			return new PostingsIndex(mappedFile);
+		} catch (IOException | RuntimeException e) {
+			mappedFile.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the key of a property and a value.
+	 */
+	static long getKey(long propertyId, long valueId) {
+		if (propertyId > MAX_PROPERTY_ID) {
+			throw new IllegalArgumentException("Property id P" + propertyId
+					+ " is too large for a postings index.");
+		}
+		if (valueId > ANY_VALUE) {
+			throw new IllegalArgumentException("Item id Q" + valueId
+					+ " is too large for a postings index.");
+		}
+		return (propertyId << VALUE_BITS) | valueId;
+	}
+
+	/**
+	 * Returns the key of a term, such as "P31=Q5" or "P31".
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the term is not valid
+	 */
+	static long parseTerm(String term) {
+		Validate.notNull(term, "Term cannot be null.");
+		int separator = term.indexOf('=');
+		String propertyId = separator < 0 ? term : term.substring(0,
+				separator);
+		if (separator == term.length() - 1
+				|| EntityType.forEntityId(propertyId) != EntityType.PROPERTY) {
+			throw new IllegalArgumentException("Wrong term '" + term
+					+ "'. A term must be a property id, optionally followed"
+					+ " by '=' and an item id.");
+		}
+		long valueId = ANY_VALUE;
+		if (separator >= 0) {
+			String itemId = term.substring(separator + 1);
+			if (EntityType.forEntityId(itemId) != EntityType.ITEM) {
+				throw new IllegalArgumentException("Wrong term '" + term
+						+ "'. The value of a term must be an item id.");
+			}
+			valueId = EntityType.getNumericId(itemId);
+		}
+		return getKey(EntityType.getNumericId(propertyId), valueId);
+	}
+
+	long getLong(long index) {
+		return this.file.getLong(index);
+	}
+
+	/**
+	 * Finds the list of a key in the directory.
+	 *
+	 * @return the index of the list, the bitwise complement of the only id
+	 *         of the list, or 0 if there is no list
+	 */
+	long findList(long key) {
+		long low = 0;
+		long high = this.keyCount - 1;
+		while (low <= high) {
+			long middle = (low + high) >>> 1;
+			long middleKey = getLong(this.directoryStart + 2 * middle);
+			if (middleKey < key) {
+				low = middle + 1;
+			} else if (middleKey > key) {
+				high = middle - 1;
+			} else {
+				return getLong(this.directoryStart + 2 * middle + 1);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Returns the type of the entities in the posting lists.
+	 *
+	 * @return the entity type
+	 */
+	public EntityType getSubjectType() {
+		return this.subjectType;
+	}
+
+	/**
+	 * Returns the number of entities that match a term. This only reads the
+	 * directory and the header of the posting list.
+	 *
+	 * @param term
+	 *            term, such as "P31=Q5" or "P31"
+	 * @return the number of matching entities
+	 * @throws IllegalArgumentException
+	 *             if the term is not valid
+	 */
+	public long countEntities(String term) {
+		long list = findList(parseTerm(term));
+		if (list == 0) {
+			return 0;
+		}
+		return list < 0 ? 1 : getLong(list);
+	}
+
+	/**
+	 * Returns the entities that match a term.
+	 *
+	 * @param term
+	 *            term, such as "P31=Q5" or "P31"
+	 * @return bit vector where the numeric ids of the matching entities are
+	 *         <code>true</code>
+	 * @throws IllegalArgumentException
+	 *             if the term is not valid
+	 */
+	public RoaringBitVector getEntities(String term) {
+		RoaringBitVector ret = new RoaringBitVector();
+		long list = findList(parseTerm(term));
+		if (list < 0) {
+			ret.setBit(~list, true);
+		} else if (list > 0) {
+			EliasFano.decode(this::getLong, list,
+					id -> ret.setBit(id, true));
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the entities that match all the given terms. The lists are
+	 * intersected from the shortest one.
+	 *
+	 * @param terms
+	 *            terms, such as "P31=Q5" or "P31"
+	 * @return bit vector where the numeric ids of the matching entities are
+	 *         <code>true</code>
+	 * @throws IllegalArgumentException
+	 *             if there is no term or a term is not valid
+	 */
+	public RoaringBitVector intersect(String... terms) {
+		Validate.notEmpty(terms, "At least one term is required.");
+		String[] sorted = terms.clone();
+		Arrays.sort(sorted, Comparator.comparingLong(this::countEntities));
+		RoaringBitVector ret = getEntities(sorted[0]);
+		for (int i = 1; i < sorted.length && ret.cardinality() > 0; i++) {
+			ret.and(getEntities(sorted[i]));
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the entities that match any of the given terms.
+	 *
+	 * @param terms
+	 *            terms, such as "P31=Q5" or "P31"
+	 * @return bit vector where the numeric ids of the matching entities are
+	 *         <code>true</code>
+	 * @throws IllegalArgumentException
+	 *             if a term is not valid
+	 */
+	public RoaringBitVector union(String... terms) {
+		Validate.notNull(terms, "Terms cannot be null.");
+		RoaringBitVector ret = new RoaringBitVector();
+		for (String term : terms) {
+			ret.or(getEntities(term));
+		}
+		return ret;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.file.close();
+	}
+
+}
@@ -0,0 +1,576 @@
+package org.wikidata.wdtk.storage.postings;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+import org.apache.commons.lang3.Validate;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentProcessor;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.LexemeDocument;
+import org.wikidata.wdtk.datamodel.interfaces.MediaInfoDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+import org.wikidata.wdtk.datamodel.interfaces.Statement;
+import org.wikidata.wdtk.datamodel.interfaces.StatementDocument;
+import org.wikidata.wdtk.datamodel.interfaces.StatementGroup;
+import org.wikidata.wdtk.storage.entitystore.EntityType;
+import org.wikidata.wdtk.storage.io.LongWriter;
+import org.wikidata.wdtk.storage.io.RunMerger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Builds a {@link PostingsIndex} from the statements of the documents it
+ * processes, for instance while a dump is processed by a
+ * <code>org.wikidata.wdtk.dumpfiles.DumpProcessingController</code>. The
+ * index is written by {@link #close()}.
+ * <p>
+ * Only the documents of one entity type are indexed, items by default. For
+ * each statement group of a document, the entity is added to the list of the
+ * property, and for each statement whose value is an item, to the list of
+ * the property and the item. Qualifiers and references are not indexed.
+ * <p>
+ * The pairs of keys and entity ids are collected in a buffer of fixed size.
+ * When the buffer is full, it is sorted and written to a temporary file next
+ * to the index, and these files are merged when the index is written, so the
+ * memory used does not depend on the size of the input. The documents may be
+ * processed in any order.
+ */
+public class PostingsIndexBuilder implements EntityDocumentProcessor,
+		Closeable {
+
+	static final Logger logger = LoggerFactory
+			.getLogger(PostingsIndexBuilder.class);
+
+	/**
+	 * Default number of pairs in the buffer, which then takes 64 MB.
+	 */
+	static final int DEFAULT_BUFFER_SIZE = 1 << 22;
+
+	static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+	final Path file;
+
+	final EntityType subjectType;
+
+	/**
+	 * Pairs of keys and entity ids, stored one after the other.
+	 */
+	final long[] buffer;
+
+	int bufferLength;
+
+	/**
+	 * Sorted runs of pairs written to disk.
+	 */
+	final List<Path> runs = new ArrayList<>();
+
+	boolean closed;
+
+	/**
+	 * Creates a builder of an index of items.
+	 *
+	 * @param file
+	 *            file of the index, which is overwritten
+	 */
+	public PostingsIndexBuilder(Path file) {
+		this(file, EntityType.ITEM, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Creates a builder.
+	 *
+	 * @param file
+	 *            file of the index, which is overwritten
+	 * @param subjectType
+	 *            type of the indexed entities
+	 * @param bufferSize
+	 *            number of pairs of keys and entity ids kept in memory
+	 */
+	public PostingsIndexBuilder(Path file, EntityType subjectType,
+			int bufferSize) {
+		Validate.notNull(file, "File cannot be null.");
+		Validate.notNull(subjectType, "Entity type cannot be null.");
+		Validate.isTrue(bufferSize > 0 && bufferSize <= Integer.MAX_VALUE / 2,
+				"Wrong buffer size '%d'.", bufferSize);
+		this.file = file;
+		this.subjectType = subjectType;
+		this.buffer = new long[2 * bufferSize];
+	}
+
+	@Override
+	public void processItemDocument(ItemDocument itemDocument) {
+		processStatementDocument(EntityType.ITEM, itemDocument);
+	}
+
+	@Override
+	public void processPropertyDocument(PropertyDocument propertyDocument) {
+		processStatementDocument(EntityType.PROPERTY, propertyDocument);
+	}
+
+	@Override
+	public void processLexemeDocument(LexemeDocument lexemeDocument) {
+		processStatementDocument(EntityType.LEXEME, lexemeDocument);
+	}
+
+	@Override
+	public void processMediaInfoDocument(MediaInfoDocument mediaInfoDocument) {
+		processStatementDocument(EntityType.MEDIA_INFO, mediaInfoDocument);
+	}
+
+	void processStatementDocument(EntityType type, StatementDocument document) {
+		if (type != this.subjectType) {
+			return;
+		}
+		if (this.closed) {
+			throw new IllegalStateException("The index has been written.");
+		}
+		long entityId = EntityType.getNumericId(document.getEntityId()
+				.getId());
+		try {
+			for (StatementGroup statementGroup : document.getStatementGroups()) {
+				long propertyId = EntityType.getNumericId(statementGroup
+						.getProperty().getId());
+				addPair(PostingsIndex.getKey(propertyId,
+						PostingsIndex.ANY_VALUE), entityId);
+				for (Statement statement : statementGroup) {
+					if (statement.getValue() instanceof ItemIdValue) {
+						long itemId = EntityType
+								.getNumericId(((ItemIdValue) statement
+										.getValue()).getId());
+						addPair(PostingsIndex.getKey(propertyId, itemId),
+								entityId);
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to write the postings of "
+					+ document.getEntityId().getId() + ": " + e.getMessage(),
+					e);
+		}
+	}
+
+	void addPair(long key, long entityId) throws IOException {
+		if (this.bufferLength == this.buffer.length) {
+			writeRun();
+		}
+		this.buffer[this.bufferLength++] = key;
+		this.buffer[this.bufferLength++] = entityId;
+	}
+
+	/**
+	 * Sorts the buffer and writes it to a temporary file.
+	 */
+	void writeRun() throws IOException {
+		sortPairs(this.buffer, 0, this.bufferLength >>> 1);
+		Path run = this.file.resolveSibling(this.file.getFileName() + "."
+				+ this.runs.size() + TEMPORARY_FILE_SUFFIX);
+		this.runs.add(run);
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+			for (int i = 0; i < this.bufferLength; i++) {
+				out.writeLong(this.buffer[i]);
+			}
+		}
+		this.bufferLength = 0;
+	}
+
+	/**
+	 * Writes the index and deletes the temporary files. Documents cannot be
+	 * processed afterwards.
+	 *
+	 * @throws IOException
+	 *             if the index cannot be written
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		Path temporaryFile = this.file.resolveSibling(this.file.getFileName()
+				+ TEMPORARY_FILE_SUFFIX);
+		Path directoryFile = this.file.resolveSibling(this.file.getFileName()
+				+ ".directory" + TEMPORARY_FILE_SUFFIX);
+		List<PairCursor> cursors = new ArrayList<>();
+		try {
+			sortPairs(this.buffer, 0, this.bufferLength >>> 1);
+			cursors.add(new BufferCursor(this.buffer, this.bufferLength));
+			for (Path run : this.runs) {
+				cursors.add(new RunCursor(run));
+			}
+			writeIndex(new MergingCursor(cursors), temporaryFile,
+					directoryFile);
+			Files.move(temporaryFile, this.file,
+					StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			for (PairCursor cursor : cursors) {
+				cursor.close();
+			}
+			for (Path run : this.runs) {
+				Files.deleteIfExists(run);
+			}
+			Files.deleteIfExists(directoryFile);
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+
+	/**
+	 * Writes the posting lists of the pairs in the order of the cursor.
+	 */
+	void writeIndex(PairCursor pairs, Path file, Path directoryFile)
+			throws IOException {
+		try (FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+				LongWriter output = new LongWriter(channel,
+						ByteOrder.LITTLE_ENDIAN);
+				FileChannel directoryChannel = FileChannel.open(directoryFile,
+						StandardOpenOption.CREATE,
+						StandardOpenOption.TRUNCATE_EXISTING,
+						StandardOpenOption.READ, StandardOpenOption.WRITE);
+				LongWriter directory = new LongWriter(directoryChannel,
+						ByteOrder.LITTLE_ENDIAN)) {
+			for (int i = 0; i < PostingsIndex.HEADER_LENGTH; i++) {
+				output.write(0);
+			}
+
+			long keyCount = 0;
+			PostingList list = new PostingList();
+			boolean hasPair = pairs.next();
+			while (hasPair) {
+				long key = pairs.getKey();
+				list.clear();
+				do {
+					list.add(pairs.getEntityId());
+					hasPair = pairs.next();
+				} while (hasPair && pairs.getKey() == key);
+
+				directory.write(key);
+				if (list.count == 1) {
+					directory.write(~list.last);
+				} else {
+					directory.write(output.getPosition());
+					EliasFano.encode(list.count, list.last, list.iterator(),
+							list.iterator(), value -> {
+								try {
+									output.write(value);
+								} catch (IOException e) {
+									throw new UncheckedIOException(e);
+								}
+							});
+				}
+				keyCount++;
+			}
+
+			directory.flush();
+			long directoryStart = output.getPosition();
+			output.flush();
+			long position = directoryStart << PostingsIndex.LG_LONG_SIZE;
+			long size = directoryChannel.size();
+			long copied = 0;
+			while (copied < size) {
+				copied += channel.transferFrom(
+						directoryChannel.position(copied), position + copied,
+						size - copied);
+			}
+
+			ByteBuffer header = ByteBuffer.allocate(
+					8 * PostingsIndex.HEADER_LENGTH).order(
+					ByteOrder.LITTLE_ENDIAN);
+			header.putLong(PostingsIndex.MAGIC_NUMBER)
+					.putLong(PostingsIndex.VERSION)
+					.putLong(this.subjectType.ordinal()).putLong(keyCount)
+					.putLong(directoryStart);
+			((Buffer) header).flip();
+			while (header.hasRemaining()) {
+				channel.write(header, header.position());
+			}
+			channel.force(true);
+			logger.info("Wrote postings index " + this.file + " with "
+					+ keyCount + " posting lists.");
+		}
+	}
+
+	/**
+	 * Sorts pairs of <b>long</b> values stored one after the other, by the
+	 * first value and then by the second one.
+	 *
+	 * @param pairs
+	 *            array of pairs
+	 * @param from
+	 *            index of the first pair to sort
+	 * @param to
+	 *            index after the last pair to sort
+	 */
+	static void sortPairs(long[] pairs, int from, int to) {
+		while (to - from > 16) {
+			int middle = (from + to) >>> 1;
+			swapPairs(pairs, from, middle);
+			long pivotKey = pairs[2 * from];
+			long pivotValue = pairs[2 * from + 1];
+			// pairs in [from + 1, lt) are smaller than the pivot, and pairs
+			// in [gt, to) are larger
+			int lt = from + 1;
+			int i = from + 1;
+			int gt = to;
+			while (i < gt) {
+				int comparison = comparePairs(pairs[2 * i], pairs[2 * i + 1],
+						pivotKey, pivotValue);
+				if (comparison < 0) {
+					swapPairs(pairs, i++, lt++);
+				} else if (comparison > 0) {
+					swapPairs(pairs, i, --gt);
+				} else {
+					i++;
+				}
+			}
+			swapPairs(pairs, from, lt - 1);
+			// recurse into the smaller part to bound the stack depth
+			if (lt - 1 - from < to - gt) {
+				sortPairs(pairs, from, lt - 1);
+				from = gt;
+			} else {
+				sortPairs(pairs, gt, to);
+				to = lt - 1;
+			}
+		}
+		for (int i = from + 1; i < to; i++) {
+			for (int j = i; j > from
+					&& comparePairs(pairs[2 * j - 2], pairs[2 * j - 1],
+							pairs[2 * j], pairs[2 * j + 1]) > 0; j--) {
+				swapPairs(pairs, j - 1, j);
+			}
+		}
+	}
+
+	static int comparePairs(long key1, long value1, long key2, long value2) {
+		int ret = Long.compare(key1, key2);
+		return ret != 0 ? ret : Long.compare(value1, value2);
+	}
+
+	static void swapPairs(long[] pairs, int i, int j) {
+		long key = pairs[2 * i];
+		long value = pairs[2 * i + 1];
+		pairs[2 * i] = pairs[2 * j];
+		pairs[2 * i + 1] = pairs[2 * j + 1];
+		pairs[2 * j] = key;
+		pairs[2 * j + 1] = value;
+	}
+
+	/**
+	 * Increasing entity ids of the key being written, stored as
+	 * variable-length gaps.
+	 */
+	static class PostingList {
+
+		byte[] bytes = new byte[1024];
+
+		int length;
+
+		long count;
+
+		long last;
+
+		void clear() {
+			this.length = 0;
+			this.count = 0;
+			this.last = 0;
+		}
+
+		/**
+		 * Adds an entity id, unless it is the last one again.
+		 */
+		void add(long entityId) {
+			if (this.count > 0 && entityId == this.last) {
+				return;
+			}
+			if (this.bytes.length - this.length < 10) {
+				this.bytes = Arrays.copyOf(this.bytes, 2 * this.bytes.length);
+			}
+			long gap = entityId - (this.count == 0 ? 0 : this.last);
+			while ((gap & ~0x7FL) != 0) {
+				this.bytes[this.length++] = (byte) ((gap & 0x7F) | 0x80);
+				gap >>>= 7;
+			}
+			this.bytes[this.length++] = (byte) gap;
+			this.last = entityId;
+			this.count++;
+		}
+
+		PrimitiveIterator.OfLong iterator() {
+			return new PrimitiveIterator.OfLong() {
+
+				int position = 0;
+
+				long value = 0;
+
+				@Override
+				public boolean hasNext() {
+					return this.position < PostingList.this.length;
+				}
+
+				@Override
+				public long nextLong() {
+					long gap = 0;
+					int shift = 0;
+					byte b;
+					do {
+						b = PostingList.this.bytes[this.position++];
+						gap |= (long) (b & 0x7F) << shift;
+						shift += 7;
+					} while (b < 0);
+					this.value += gap;
+					return this.value;
+				}
+			};
+		}
+	}
+
+	/**
+	 * Cursor over pairs of keys and entity ids in increasing order.
+	 */
+	static abstract class PairCursor implements RunMerger.Run {
+
+		long key;
+
+		long entityId;
+
+		long getKey() {
+			return this.key;
+		}
+
+		long getEntityId() {
+			return this.entityId;
+		}
+
+		/**
+		 * Moves to the next pair.
+		 *
+		 * @return false if there is no next pair
+		 */
+		@Override
+		public abstract boolean next() throws IOException;
+
+		@Override
+		public void close() throws IOException {
+		}
+	}
+
+	static class BufferCursor extends PairCursor {
+
+		final long[] pairs;
+
+		final int length;
+
+		int position;
+
+		BufferCursor(long[] pairs, int length) {
+			this.pairs = pairs;
+			this.length = length;
+		}
+
+		@Override
+		public boolean next() {
+			if (this.position == this.length) {
+				return false;
+			}
+			this.key = this.pairs[this.position++];
+			this.entityId = this.pairs[this.position++];
+			return true;
+		}
+	}
+
+	static class RunCursor extends PairCursor {
+
+		final DataInputStream input;
+
+		RunCursor(Path run) throws IOException {
+			this.input = new DataInputStream(new BufferedInputStream(
+					Files.newInputStream(run), 1 << 16));
+		}
+
+		@Override
+		public boolean next() throws IOException {
+			try {
+				this.key = this.input.readLong();
+			} catch (EOFException e) {
+				return false;
+			}
+			this.entityId = this.input.readLong();
+			return true;
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.input.close();
+		}
+	}
+
+	/**
+	 * Merges sorted cursors.
+	 */
+	static class MergingCursor extends PairCursor {
+
+		final RunMerger<PairCursor> merger = new RunMerger<>(
+				(c1, c2) -> comparePairs(c1.key, c1.entityId, c2.key,
+						c2.entityId));
+
+		MergingCursor(List<PairCursor> cursors) {
+			for (PairCursor cursor : cursors) {
+				this.merger.add(cursor);
+			}
+		}
+
+		@Override
+		public boolean next() throws IOException {
+			PairCursor cursor = this.merger.next();
+			if (cursor == null) {
+				return false;
+			}
+			this.key = cursor.key;
+			this.entityId = cursor.entityId;
+			return true;
+		}
+	}
+
+}
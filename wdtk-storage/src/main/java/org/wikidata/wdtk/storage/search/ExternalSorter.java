@@ -0,0 +1,221 @@
+package org.wikidata.wdtk.storage.search;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.wikidata.wdtk.storage.io.RunMerger;
+
+/**
+ * Sorts more objects than fit into memory. The objects are collected in a
+ * buffer of fixed size. When the buffer is full, it is sorted and written to
+ * a temporary file, and {@link #sort(Consumer)} merges these runs with the
+ * rest of the buffer.
+ *
+ * @param <T>
+ *            type of the sorted objects
+ */
+class ExternalSorter<T> implements Closeable {
+
+	/**
+	 * Writes objects to runs and reads them back.
+	 *
+	 * @param <T>
+	 *            type of the objects
+	 */
+	interface Codec<T> {
+
+		void write(DataOutput output, T object) throws IOException;
+
+		T read(DataInput input) throws IOException;
+	}
+
+	final Path directory;
+
+	final String prefix;
+
+	final Comparator<? super T> comparator;
+
+	final Codec<T> codec;
+
+	final int bufferSize;
+
+	final List<T> buffer = new ArrayList<>();
+
+	final List<Path> runs = new ArrayList<>();
+
+	/**
+	 * Creates a sorter.
+	 *
+	 * @param directory
+	 *            directory of the temporary files
+	 * @param prefix
+	 *            prefix of the names of the temporary files
+	 * @param comparator
+	 *            order of the objects
+	 * @param codec
+	 *            serialization of the objects
+	 * @param bufferSize
+	 *            number of objects kept in memory
+	 */
+	ExternalSorter(Path directory, String prefix,
+			Comparator<? super T> comparator, Codec<T> codec, int bufferSize) {
+		this.directory = directory;
+		this.prefix = prefix;
+		this.comparator = comparator;
+		this.codec = codec;
+		this.bufferSize = bufferSize;
+	}
+
+	void add(T object) throws IOException {
+		if (this.buffer.size() == this.bufferSize) {
+			writeRun();
+		}
+		this.buffer.add(object);
+	}
+
+	/**
+	 * Sorts the buffer and writes it to a temporary file.
+	 */
+	void writeRun() throws IOException {
+		this.buffer.sort(this.comparator);
+		Files.createDirectories(this.directory);
+		Path run = Files.createTempFile(this.directory, this.prefix, ".tmp");
+		this.runs.add(run);
+		try (DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(run)))) {
+			for (T object : this.buffer) {
+				this.codec.write(output, object);
+			}
+		}
+		this.buffer.clear();
+	}
+
+	/**
+	 * Calls the consumer with all objects in order. Afterwards, the sorter is
+	 * empty.
+	 */
+	void sort(Consumer<? super T> consumer) throws IOException {
+		this.buffer.sort(this.comparator);
+		try (RunMerger<RunReader> merger = new RunMerger<>(
+				(reader1, reader2) -> this.comparator.compare(reader1.head,
+						reader2.head))) {
+			merger.add(new BufferReader());
+			for (Path run : this.runs) {
+				merger.add(new FileReader(run));
+			}
+			RunReader reader;
+			while ((reader = merger.next()) != null) {
+				consumer.accept(reader.head);
+			}
+		} finally {
+			this.buffer.clear();
+			close();
+		}
+	}
+
+	/**
+	 * Deletes the temporary files.
+	 */
+	@Override
+	public void close() throws IOException {
+		for (Path run : this.runs) {
+			Files.deleteIfExists(run);
+		}
+		this.runs.clear();
+	}
+
+	/**
+	 * Reads the objects of a run.
+	 */
+	abstract class RunReader implements RunMerger.Run {
+
+		T head;
+
+		@Override
+		public void close() throws IOException {
+		}
+	}
+
+	/**
+	 * Reads the sorted buffer.
+	 */
+	class BufferReader extends RunReader {
+
+		int position;
+
+		@Override
+		public boolean next() {
+			if (this.position == ExternalSorter.this.buffer.size()) {
+				return false;
+			}
+			this.head = ExternalSorter.this.buffer.get(this.position++);
+			return true;
+		}
+	}
+
+	/**
+	 * Reads a temporary file.
+	 */
+	class FileReader extends RunReader {
+
+		final DataInputStream input;
+
+		FileReader(Path run) throws IOException {
+			this.input = new DataInputStream(new BufferedInputStream(
+					Files.newInputStream(run)));
+		}
+
+		/**
+		 * Reads the next object into {@link #head}.
+		 *
+		 * @return false if the run has no more objects
+		 */
+		@Override
+		public boolean next() throws IOException {
+			try {
+				this.head = ExternalSorter.this.codec.read(this.input);
+				return true;
+			} catch (EOFException e) {
+				return false;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.input.close();
+		}
+	}
+
+}
@@ -0,0 +1,408 @@
+package org.wikidata.wdtk.storage.search;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.wikidata.wdtk.storage.datastructures.LongObjectHashMap;
+import org.wikidata.wdtk.storage.entitystore.EntityType;
+import org.wikidata.wdtk.storage.io.MappedFile;
+
+/**
+ * The terms of one language in a {@link TermIndex}, stored in a
+ * memory-mapped file. The file holds the normalized terms in increasing
+ * order of their UTF-8 bytes, in blocks of {@link #BLOCK_SIZE} terms. Within
+ * a block, each term only stores the bytes after the prefix it shares with
+ * the previous term, followed by its postings: the entities with a label or
+ * alias which has this normalized form, ordered by decreasing rank. Each
+ * block starts with the largest rank of its postings, so that a search can
+ * skip blocks which cannot contribute to the best results.
+ * <p>
+ * Blocks are found with a binary search over an index of their positions.
+ * The labels and descriptions of the entities follow, with an index of
+ * their positions by entity key. Numbers are stored as big-endian
+ * <b>long</b> values or as variable-length integers of seven bits per byte.
+ */
+class LanguageTerms implements Closeable {
+
+	/**
+	 * The first bytes of a file: "WDTKTERM" in ASCII.
+	 */
+	static final long MAGIC_NUMBER = 0x5744544b5445524dL;
+
+	static final long VERSION = 1;
+
+	static final int HEADER_MAGIC_NUMBER = 0;
+	static final int HEADER_VERSION = 1;
+	static final int HEADER_TERM_COUNT = 2;
+	static final int HEADER_BLOCK_COUNT = 3;
+	static final int HEADER_BLOCK_INDEX_START = 4;
+	static final int HEADER_ENTITY_COUNT = 5;
+	static final int HEADER_ENTITY_INDEX_START = 6;
+	static final int HEADER_SITE_IRI_START = 7;
+
+	/**
+	 * Number of <b>long</b> values of the header, which precedes the blocks.
+	 */
+	static final int HEADER_LENGTH = 8;
+
+	/**
+	 * Number of terms in a block.
+	 */
+	static final int BLOCK_SIZE = 32;
+
+	/**
+	 * Type of a posting of a label.
+	 */
+	static final int LABEL = 0;
+
+	/**
+	 * Type of a posting of an alias.
+	 */
+	static final int ALIAS = 1;
+
+	static final String FILE_SUFFIX = ".terms";
+
+	static final int DEFAULT_LG_CHUNK_SIZE = 30;
+
+	/**
+	 * Order of search results: exact matches of the normalized search string
+	 * first, then by decreasing rank, labels before aliases, and finally by
+	 * entity.
+	 */
+	static final Comparator<Candidate> CANDIDATE_ORDER = Comparator
+			.comparing((Candidate candidate) -> !candidate.exact)
+			.thenComparing(candidate -> -candidate.rank)
+			.thenComparingInt(candidate -> candidate.type)
+			.thenComparingLong(candidate -> candidate.key);
+
+	final String language;
+
+	final MappedFile file;
+
+	final long termCount;
+
+	final long blockCount;
+
+	final long blockIndexStart;
+
+	final long entityCount;
+
+	final long entityIndexStart;
+
+	final String siteIri;
+
+	LanguageTerms(String language, MappedFile file) throws IOException {
+		this.language = language;
+		this.file = file;
+		long fileSize = file.size();
+		if (fileSize < 8 * HEADER_LENGTH
+				|| getLong(8 * HEADER_MAGIC_NUMBER) != MAGIC_NUMBER) {
+			throw new IOException("The file is not a term index.");
+		}
+		if (getLong(8 * HEADER_VERSION) != VERSION) {
+			throw new IOException("Unsupported version "
+					+ getLong(8 * HEADER_VERSION) + " of term index.");
+		}
+		this.termCount = getLong(8 * HEADER_TERM_COUNT);
+		this.blockCount = getLong(8 * HEADER_BLOCK_COUNT);
+		this.blockIndexStart = getLong(8 * HEADER_BLOCK_INDEX_START);
+		this.entityCount = getLong(8 * HEADER_ENTITY_COUNT);
+		this.entityIndexStart = getLong(8 * HEADER_ENTITY_INDEX_START);
+		long siteIriStart = getLong(8 * HEADER_SITE_IRI_START);
+		if (this.blockIndexStart + 8 * this.blockCount > fileSize
+				|| this.entityIndexStart + 16 * this.entityCount > siteIriStart
+				|| siteIriStart >= fileSize) {
+			throw new IOException("The term index is incomplete.");
+		}
+		this.siteIri = new Reader(siteIriStart).readString();
+	}
+
+	static LanguageTerms open(String language, Path file, int lgChunkSize)
+			throws IOException {
+		MappedFile mappedFile = MappedFile.open(file, ByteOrder.BIG_ENDIAN,
+				lgChunkSize);
+		try {
+			return new LanguageTerms(language, mappedFile);
+		} catch (IOException | RuntimeException e) {
+			mappedFile.close();
+			throw e;
+		}
+	}
+
+	byte getByte(long position) {
+		return this.file.getByte(position);
+	}
+
+	long getLong(long position) {
+		return this.file.getLongAt(position);
+	}
+
+	/**
+	 * Compares a term to a prefix.
+	 *
+	 * @return a negative number if the term comes before all terms with the
+	 *         prefix, 0 if the term starts with the prefix, and a positive
+	 *         number if it comes after all terms with the prefix
+	 */
+	static int comparePrefix(byte[] term, int termLength, byte[] prefix) {
+		int length = Math.min(termLength, prefix.length);
+		for (int i = 0; i < length; i++) {
+			int difference = (term[i] & 0xff) - (prefix[i] & 0xff);
+			if (difference != 0) {
+				return difference;
+			}
+		}
+		return termLength < prefix.length ? -1 : 0;
+	}
+
+	/**
+	 * Returns the first term of a block.
+	 */
+	byte[] getFirstTerm(long block) {
+		Reader reader = new Reader(getLong(this.blockIndexStart + 8 * block));
+		reader.readVarLong(); // largest rank
+		reader.readVarLong(); // number of terms
+		reader.readVarLong(); // shared prefix, always 0
+		byte[] ret = new byte[(int) reader.readVarLong()];
+		reader.readBytes(ret, 0, ret.length);
+		return ret;
+	}
+
+	/**
+	 * Returns the last block whose first term is less than the prefix, or 0.
+	 */
+	long findFirstBlock(byte[] prefix) {
+		long low = 0;
+		long high = this.blockCount - 1;
+		long ret = 0;
+		while (low <= high) {
+			long middle = (low + high) >>> 1;
+			byte[] term = getFirstTerm(middle);
+			int comparison = comparePrefix(term, term.length, prefix);
+			if (comparison < 0) {
+				ret = middle;
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Finds the best entities with a term which starts with a normalized
+	 * prefix.
+	 *
+	 * @param prefix
+	 *            UTF-8 bytes of the normalized prefix
+	 * @param type
+	 *            type of the entities
+	 * @param count
+	 *            largest number of results
+	 * @return the best match of each entity found, ordered by
+	 *         {@link #CANDIDATE_ORDER}
+	 */
+	List<Candidate> search(byte[] prefix, EntityType type, int count) {
+		LongObjectHashMap<Candidate> best = new LongObjectHashMap<>();
+		// the worst of the best entities found so far, once there are enough
+		Candidate threshold = null;
+		byte[] term = new byte[64];
+		search: for (long block = findFirstBlock(prefix); block < this.blockCount; block++) {
+			Reader reader = new Reader(getLong(this.blockIndexStart + 8
+					* block));
+			long maxRank = reader.readVarLong();
+			int termsInBlock = (int) reader.readVarLong();
+			for (int i = 0; i < termsInBlock; i++) {
+				int shared = (int) reader.readVarLong();
+				int termLength = shared + (int) reader.readVarLong();
+				if (termLength > term.length) {
+					term = Arrays.copyOf(term, Math.max(termLength,
+							2 * term.length));
+				}
+				reader.readBytes(term, shared, termLength - shared);
+				int comparison = comparePrefix(term, termLength, prefix);
+				if (comparison > 0) {
+					break search;
+				}
+				boolean exact = comparison == 0 && termLength == prefix.length;
+				if (i == 0 && comparison == 0 && !exact && threshold != null
+						&& maxRank < threshold.rank) {
+					// no term of this block can be good enough
+					continue search;
+				}
+				int postingCount = (int) reader.readVarLong();
+				for (int j = 0; j < postingCount; j++) {
+					long key = reader.readVarLong();
+					int postingType = reader.readByte();
+					long rank = reader.readVarLong();
+					int textLength = (int) reader.readVarLong();
+					if (comparison != 0
+							|| TermIndex.getEntityType(key) != type) {
+						reader.skip(textLength);
+						continue;
+					}
+					Candidate candidate = new Candidate(key, exact, rank,
+							postingType);
+					Candidate previous = best.get(key);
+					if ((threshold != null && CANDIDATE_ORDER.compare(
+							candidate, threshold) > 0)
+							|| (previous != null && CANDIDATE_ORDER.compare(
+									candidate, previous) >= 0)) {
+						reader.skip(textLength);
+						continue;
+					}
+					byte[] text = new byte[textLength];
+					reader.readBytes(text, 0, textLength);
+					candidate.text = new String(text, StandardCharsets.UTF_8);
+					best.put(key, candidate);
+				}
+			}
+			if (best.size() >= 2 * count) {
+				List<Candidate> candidates = best.values();
+				candidates.sort(CANDIDATE_ORDER);
+				threshold = candidates.get(count - 1);
+				for (Candidate candidate : candidates.subList(count,
+						candidates.size())) {
+					best.remove(candidate.key);
+				}
+			}
+		}
+		List<Candidate> ret = best.values();
+		ret.sort(CANDIDATE_ORDER);
+		return ret.size() > count ? ret.subList(0, count) : ret;
+	}
+
+	/**
+	 * Returns the label and the description of an entity.
+	 *
+	 * @return an array with the label and the description, which are
+	 *         <code>null</code> if the entity has none
+	 */
+	String[] getLabelAndDescription(long key) {
+		long low = 0;
+		long high = this.entityCount - 1;
+		while (low <= high) {
+			long middle = (low + high) >>> 1;
+			long middleKey = getLong(this.entityIndexStart + 16 * middle);
+			if (middleKey < key) {
+				low = middle + 1;
+			} else if (middleKey > key) {
+				high = middle - 1;
+			} else {
+				Reader reader = new Reader(getLong(this.entityIndexStart + 16
+						* middle + 8));
+				return new String[] { reader.readString(), reader.readString() };
+			}
+		}
+		return new String[2];
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.file.close();
+	}
+
+	/**
+	 * The best match of an entity found by a search.
+	 */
+	static class Candidate {
+
+		final long key;
+
+		final boolean exact;
+
+		final long rank;
+
+		final int type;
+
+		/**
+		 * The label or alias which matched, before normalization.
+		 */
+		String text;
+
+		Candidate(long key, boolean exact, long rank, int type) {
+			this.key = key;
+			this.exact = exact;
+			this.rank = rank;
+			this.type = type;
+		}
+	}
+
+	/**
+	 * Reads values one after the other.
+	 */
+	class Reader {
+
+		long position;
+
+		Reader(long position) {
+			this.position = position;
+		}
+
+		int readByte() {
+			return getByte(this.position++) & 0xff;
+		}
+
+		long readVarLong() {
+			long ret = 0;
+			int shift = 0;
+			int b;
+			do {
+				b = readByte();
+				ret |= (long) (b & 0x7f) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return ret;
+		}
+
+		void readBytes(byte[] bytes, int offset, int length) {
+			for (int i = 0; i < length; i++) {
+				bytes[offset + i] = getByte(this.position++);
+			}
+		}
+
+		void skip(int length) {
+			this.position += length;
+		}
+
+		/**
+		 * Reads a string, stored as its length in UTF-8 plus one, followed by
+		 * its bytes, or as 0 for <code>null</code>.
+		 */
+		String readString() {
+			int length = (int) readVarLong();
+			if (length == 0) {
+				return null;
+			}
+			byte[] bytes = new byte[length - 1];
+			readBytes(bytes, 0, bytes.length);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+
+}
@@ -0,0 +1,271 @@
+package org.wikidata.wdtk.storage.search;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.Validate;
+import org.wikidata.wdtk.storage.entitystore.EntityType;
+import org.wikidata.wdtk.storage.search.LanguageTerms.Candidate;
+
+/**
+ * Offline index of the labels and aliases of items and properties, created
+ * by {@link TermIndexBuilder} from a dump. It answers the same searches as
+ * the wbsearchentities action of the Wikibase API, but it needs no network
+ * access. {@link TermIndexEntitySearcher} offers the searches with the
+ * parameters and results of the Wikibase API client.
+ * <p>
+ * A search finds the entities with a label or alias in the given language
+ * which starts with the search string, after both have been normalized with
+ * {@link #normalize(String)}. Entities whose normalized label or alias is
+ * the normalized search string come first, followed by the others in order
+ * of decreasing rank, which is the number of site links of an item.
+ * <p>
+ * Unlike the Wikibase API, the index has no language fallback, and the
+ * label and description of the results are in the language of the search.
+ * <p>
+ * Each language is stored in its own memory-mapped file in the directory of
+ * the index; see {@link LanguageTerms}. The methods of this class are
+ * thread-safe. The object must not be used after it is closed.
+ */
+public class TermIndex implements Closeable {
+
+	/**
+	 * Number of results of {@link #search(String, String)}, as for the
+	 * Wikibase API.
+	 */
+	static final long DEFAULT_LIMIT = 7;
+
+	/**
+	 * Position of the entity type in the keys of entities.
+	 */
+	static final int TYPE_SHIFT = 56;
+
+	static final long NUMERIC_ID_MASK = (1L << TYPE_SHIFT) - 1;
+
+	/**
+	 * Languages by their codes.
+	 */
+	final TreeMap<String, LanguageTerms> languages;
+
+	TermIndex(TreeMap<String, LanguageTerms> languages) {
+		this.languages = languages;
+	}
+
+	/**
+	 * Opens the index in a directory, with all languages found in it.
+	 *
+	 * @param directory
+	 *            directory of the index
+	 * @return the index
+	 * @throws IOException
+	 *             if the files cannot be read or a file is not a term index
+	 */
+	public static TermIndex open(Path directory) throws IOException {
+		return open(directory, LanguageTerms.DEFAULT_LG_CHUNK_SIZE);
+	}
+
+	static TermIndex open(Path directory, int lgChunkSize) throws IOException {
+		Validate.notNull(directory, "Directory cannot be null.");
+		TreeMap<String, LanguageTerms> languages = new TreeMap<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(
+				directory, "*" + LanguageTerms.FILE_SUFFIX)) {
+			for (Path file : files) {
+				String fileName = file.getFileName().toString();
+				String language = fileName.substring(0, fileName.length()
+						- LanguageTerms.FILE_SUFFIX.length());
+				languages.put(language,
+						LanguageTerms.open(language, file, lgChunkSize));
+			}
+		} catch (IOException | RuntimeException e) {
+			for (LanguageTerms languageTerms : languages.values()) {
+				languageTerms.close();
+			}
+			throw e;
+		}
+		return new TermIndex(languages);
+	}
+
+	/**
+	 * Returns the key of an entity: its numeric id, with the ordinal of its
+	 * type in the upper bits.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the id is not the id of an item, property, lexeme or
+	 *             media info entity
+	 */
+	static long getKey(String entityId) {
+		long numericId = EntityType.getNumericId(entityId);
+		if (numericId > NUMERIC_ID_MASK) {
+			throw new IllegalArgumentException("Entity id '" + entityId
+					+ "' is too large.");
+		}
+		return ((long) EntityType.forEntityId(entityId).ordinal() << TYPE_SHIFT)
+				| numericId;
+	}
+
+	static EntityType getEntityType(long key) {
+		return EntityType.values()[(int) (key >>> TYPE_SHIFT)];
+	}
+
+	/**
+	 * Returns the normalized form of a label, alias or search string, which
+	 * is compared by searches: it is decomposed, without diacritics and in
+	 * lower case, and each sequence of white space is replaced by a single
+	 * space, without leading and trailing white space.
+	 *
+	 * @param text
+	 *            text to normalize
+	 * @return the normalized text
+	 */
+	public static String normalize(String text) {
+		String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+		StringBuilder builder = new StringBuilder(decomposed.length());
+		boolean space = false;
+		for (int i = 0; i < decomposed.length();) {
+			int codePoint = decomposed.codePointAt(i);
+			i += Character.charCount(codePoint);
+			if (Character.getType(codePoint) == Character.NON_SPACING_MARK) {
+				continue;
+			}
+			if (Character.isWhitespace(codePoint)
+					|| Character.isSpaceChar(codePoint)) {
+				space = builder.length() > 0;
+				continue;
+			}
+			if (space) {
+				builder.append(' ');
+				space = false;
+			}
+			builder.appendCodePoint(Character.toLowerCase(codePoint));
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Returns the codes of the languages of the index.
+	 *
+	 * @return the language codes, in alphabetical order
+	 */
+	public Set<String> getLanguages() {
+		return Collections.unmodifiableSet(this.languages.keySet());
+	}
+
+	/**
+	 * Searches items with a label or alias in a language, like the
+	 * wbsearchentities action of the Wikibase API with default parameters.
+	 *
+	 * @param search
+	 *            search string
+	 * @param language
+	 *            language code
+	 * @return the best {@value #DEFAULT_LIMIT} items found
+	 * @throws IllegalArgumentException
+	 *             if the index has no terms of the language
+	 */
+	public List<TermSearchResult> search(String search, String language) {
+		return search(search, language, EntityType.ITEM, DEFAULT_LIMIT, 0);
+	}
+
+	/**
+	 * Searches entities with a label or alias in a language.
+	 *
+	 * @param search
+	 *            search string
+	 * @param language
+	 *            language code
+	 * @param type
+	 *            type of the entities, {@link EntityType#ITEM} or
+	 *            {@link EntityType#PROPERTY}
+	 * @param limit
+	 *            largest number of results
+	 * @param offset
+	 *            number of best results to skip
+	 * @return the entities found
+	 * @throws IllegalArgumentException
+	 *             if the parameters are not valid, or if the index has no
+	 *             terms of the language
+	 */
+	public List<TermSearchResult> search(String search, String language,
+			EntityType type, long limit, long offset) {
+		Validate.notNull(search, "Search string cannot be null.");
+		Validate.notNull(language, "Language cannot be null.");
+		Validate.isTrue(type == EntityType.ITEM || type == EntityType.PROPERTY,
+				"Unsupported entity type %s.", type);
+		Validate.isTrue(limit > 0 && offset >= 0
+				&& offset + limit <= Integer.MAX_VALUE,
+				"Wrong limit %d or offset %d.", limit, offset);
+		LanguageTerms languageTerms = this.languages.get(language);
+		if (languageTerms == null) {
+			throw new IllegalArgumentException("The index has no terms in '"
+					+ language + "'.");
+		}
+
+		String normalized = normalize(search);
+		if (normalized.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<Candidate> candidates = languageTerms.search(
+				normalized.getBytes(StandardCharsets.UTF_8), type,
+				(int) (offset + limit));
+		List<TermSearchResult> ret = new ArrayList<>();
+		for (Candidate candidate : candidates.subList(
+				(int) Math.min(offset, candidates.size()), candidates.size())) {
+			String entityId = type.getEntityId(candidate.key
+					& NUMERIC_ID_MASK);
+			String[] labelAndDescription = languageTerms
+					.getLabelAndDescription(candidate.key);
+			ret.add(new TermSearchResult(entityId, languageTerms.siteIri
+					+ entityId, type == EntityType.PROPERTY ? "Property:"
+					+ entityId : entityId, labelAndDescription[0],
+					labelAndDescription[1],
+					candidate.type == LanguageTerms.ALIAS, language,
+					candidate.text));
+		}
+		return ret;
+	}
+
+	@Override
+	public void close() throws IOException {
+		IOException exception = null;
+		for (LanguageTerms languageTerms : this.languages.values()) {
+			try {
+				languageTerms.close();
+			} catch (IOException e) {
+				exception = e;
+			}
+		}
+		if (exception != null) {
+			throw exception;
+		}
+	}
+
+}
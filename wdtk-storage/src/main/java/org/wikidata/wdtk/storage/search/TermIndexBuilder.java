@@ -0,0 +1,632 @@
+package org.wikidata.wdtk.storage.search;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentProcessor;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.MonolingualTextValue;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+import org.wikidata.wdtk.datamodel.interfaces.TermedDocument;
+
+/**
+ * Builds a {@link TermIndex} from the labels, aliases and descriptions of
+ * the item and property documents it processes, for instance while a dump
+ * is processed by a
+ * <code>org.wikidata.wdtk.dumpfiles.DumpProcessingController</code>. The
+ * index is written by {@link #close()}, with one file for each of the
+ * languages given to the constructor.
+ * <p>
+ * The rank of an item, which orders the results of searches, is its number
+ * of site links; properties have rank 0. The documents may be processed in
+ * any order. The terms are sorted on disk, so only a fixed number of them is
+ * kept in memory for each language; the temporary files are created in the
+ * directory of the index.
+ */
+public class TermIndexBuilder implements EntityDocumentProcessor, Closeable {
+
+	static final Logger logger = LoggerFactory
+			.getLogger(TermIndexBuilder.class);
+
+	static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+	/**
+	 * Number of terms and of entities of each language which are sorted in
+	 * memory if no buffer size is given.
+	 */
+	static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+	/**
+	 * Order of the terms in the index: by their normalized forms, then as the
+	 * postings of a term.
+	 */
+	static final Comparator<TermEntry> TERM_ORDER = (entry1, entry2) -> {
+		int comparison = LanguageTerms.comparePrefix(entry1.term,
+				entry1.term.length, entry2.term);
+		if (comparison == 0) {
+			comparison = Integer.compare(entry1.term.length,
+					entry2.term.length);
+		}
+		if (comparison == 0) {
+			comparison = Long.compare(entry2.rank, entry1.rank);
+		}
+		if (comparison == 0) {
+			comparison = Long.compare(entry1.key, entry2.key);
+		}
+		if (comparison == 0) {
+			comparison = Integer.compare(entry1.type, entry2.type);
+		}
+		return comparison;
+	};
+
+	static final Comparator<EntityEntry> ENTITY_ORDER = Comparator
+			.comparingLong(entry -> entry.key);
+
+	final Path directory;
+
+	/**
+	 * Terms and entities to write by language.
+	 */
+	final Map<String, LanguageData> languages = new TreeMap<>();
+
+	/**
+	 * IRI of the site of the entities, which prefixes the concept URIs of
+	 * the search results.
+	 */
+	String siteIri;
+
+	boolean closed;
+
+	/**
+	 * Creates a builder.
+	 *
+	 * @param directory
+	 *            directory of the index, which is created if needed; the
+	 *            files of the languages are overwritten
+	 * @param languages
+	 *            codes of the languages of the terms, such as "en"
+	 */
+	public TermIndexBuilder(Path directory, String... languages) {
+		this(directory, DEFAULT_BUFFER_SIZE, languages);
+	}
+
+	/**
+	 * Creates a builder.
+	 *
+	 * @param directory
+	 *            directory of the index, which is created if needed; the
+	 *            files of the languages are overwritten
+	 * @param bufferSize
+	 *            number of terms and of entities of each language which are
+	 *            sorted in memory
+	 * @param languages
+	 *            codes of the languages of the terms, such as "en"
+	 */
+	public TermIndexBuilder(Path directory, int bufferSize,
+			String... languages) {
+		Validate.notNull(directory, "Directory cannot be null.");
+		Validate.isTrue(bufferSize > 0, "Wrong buffer size %d.", bufferSize);
+		Validate.notEmpty(languages, "At least one language must be given.");
+		for (String language : languages) {
+			Validate.isTrue(language != null
+					&& language.matches("[a-zA-Z0-9-]+"),
+					"Wrong language code '%s'.", language);
+			this.languages.put(language, new LanguageData(directory,
+					language, bufferSize));
+		}
+		this.directory = directory;
+	}
+
+	@Override
+	public void processItemDocument(ItemDocument itemDocument) {
+		addTerms(itemDocument, itemDocument.getSiteLinks().size());
+	}
+
+	@Override
+	public void processPropertyDocument(PropertyDocument propertyDocument) {
+		addTerms(propertyDocument, 0);
+	}
+
+	void addTerms(TermedDocument document, long rank) {
+		if (this.closed) {
+			throw new IllegalStateException("The index has been written.");
+		}
+		if (this.siteIri == null) {
+			this.siteIri = document.getEntityId().getSiteIri();
+		}
+		long key = TermIndex.getKey(document.getEntityId().getId());
+		try {
+			for (LanguageData data : this.languages.values()) {
+				MonolingualTextValue label = document.getLabels().get(
+						data.language);
+				List<MonolingualTextValue> aliases = document.getAliases()
+						.get(data.language);
+				boolean found = false;
+				if (label != null) {
+					found |= data.addTerm(label.getText(), key,
+							LanguageTerms.LABEL, rank);
+				}
+				if (aliases != null) {
+					for (MonolingualTextValue alias : aliases) {
+						found |= data.addTerm(alias.getText(), key,
+								LanguageTerms.ALIAS, rank);
+					}
+				}
+				if (found) {
+					MonolingualTextValue description = document
+							.getDescriptions().get(data.language);
+					data.entities.add(new EntityEntry(key,
+							label == null ? null : label.getText(),
+							description == null ? null : description
+									.getText()));
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes the files of the languages. Afterwards, no more documents can be
+	 * processed.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		Files.createDirectories(this.directory);
+		String iri = this.siteIri == null ? Datamodel.SITE_WIKIDATA
+				: this.siteIri;
+		try {
+			for (LanguageData data : this.languages.values()) {
+				writeLanguage(this.directory.resolve(data.language
+						+ LanguageTerms.FILE_SUFFIX), data, iri);
+			}
+		} finally {
+			for (LanguageData data : this.languages.values()) {
+				data.terms.close();
+				data.entities.close();
+			}
+		}
+	}
+
+	/**
+	 * Writes the terms of a language to a temporary file, which then
+	 * replaces its file.
+	 */
+	void writeLanguage(Path file, LanguageData data, String iri)
+			throws IOException {
+		Path temporaryFile = file.resolveSibling(file.getFileName()
+				+ TEMPORARY_FILE_SUFFIX);
+		Path blockIndexFile = Files.createTempFile(this.directory,
+				data.language, TEMPORARY_FILE_SUFFIX);
+		Path entityIndexFile = Files.createTempFile(this.directory,
+				data.language, TEMPORARY_FILE_SUFFIX);
+		try {
+			long[] header = new long[LanguageTerms.HEADER_LENGTH];
+			header[LanguageTerms.HEADER_MAGIC_NUMBER] = LanguageTerms.MAGIC_NUMBER;
+			header[LanguageTerms.HEADER_VERSION] = LanguageTerms.VERSION;
+			try (Output output = new Output(Files.newOutputStream(temporaryFile))) {
+				output.write(new byte[8 * LanguageTerms.HEADER_LENGTH]);
+
+				try (DataOutputStream blockIndex = new DataOutputStream(
+						new BufferedOutputStream(
+								Files.newOutputStream(blockIndexFile)))) {
+					BlockWriter writer = new BlockWriter(output, blockIndex);
+					try {
+						data.terms.sort(entry -> {
+							try {
+								writer.add(entry);
+							} catch (IOException e) {
+								throw new UncheckedIOException(e);
+							}
+						});
+					} catch (UncheckedIOException e) {
+						throw e.getCause();
+					}
+					writer.finishTerm();
+					writer.finishBlock();
+					header[LanguageTerms.HEADER_TERM_COUNT] = writer.termCount;
+					header[LanguageTerms.HEADER_BLOCK_COUNT] = writer.blockCount;
+				}
+				header[LanguageTerms.HEADER_BLOCK_INDEX_START] = output.position;
+				Files.copy(blockIndexFile, output);
+
+				long[] entityCount = new long[1];
+				try (DataOutputStream entityIndex = new DataOutputStream(
+						new BufferedOutputStream(
+								Files.newOutputStream(entityIndexFile)))) {
+					long[] previousKey = { -1 };
+					try {
+						data.entities.sort(entry -> {
+							if (entry.key == previousKey[0]) {
+								return;
+							}
+							previousKey[0] = entry.key;
+							try {
+								entityIndex.writeLong(entry.key);
+								entityIndex.writeLong(output.position);
+								output.writeString(entry.label);
+								output.writeString(entry.description);
+							} catch (IOException e) {
+								throw new UncheckedIOException(e);
+							}
+							entityCount[0]++;
+						});
+					} catch (UncheckedIOException e) {
+						throw e.getCause();
+					}
+				}
+				header[LanguageTerms.HEADER_ENTITY_COUNT] = entityCount[0];
+				header[LanguageTerms.HEADER_ENTITY_INDEX_START] = output.position;
+				Files.copy(entityIndexFile, output);
+
+				header[LanguageTerms.HEADER_SITE_IRI_START] = output.position;
+				output.writeString(iri);
+				logger.info("Writing {} terms of {} entities in language {}.",
+						header[LanguageTerms.HEADER_TERM_COUNT],
+						entityCount[0], data.language);
+			}
+
+			try (FileChannel channel = FileChannel.open(temporaryFile,
+					StandardOpenOption.WRITE)) {
+				ByteBuffer buffer = ByteBuffer
+						.allocate(8 * LanguageTerms.HEADER_LENGTH);
+				buffer.asLongBuffer().put(header);
+				while (buffer.hasRemaining()) {
+					channel.write(buffer, buffer.position());
+				}
+				channel.force(true);
+			}
+			Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temporaryFile);
+			Files.deleteIfExists(blockIndexFile);
+			Files.deleteIfExists(entityIndexFile);
+		}
+	}
+
+	static void writeVarLong(OutputStream output, long value)
+			throws IOException {
+		while ((value & ~0x7fL) != 0) {
+			output.write((int) (value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		output.write((int) value);
+	}
+
+	/**
+	 * The terms and entities of one language, sorted on disk.
+	 */
+	static class LanguageData {
+
+		final String language;
+
+		final ExternalSorter<TermEntry> terms;
+
+		final ExternalSorter<EntityEntry> entities;
+
+		LanguageData(Path directory, String language, int bufferSize) {
+			this.language = language;
+			this.terms = new ExternalSorter<>(directory, language + "-terms",
+					TERM_ORDER, TermEntry.CODEC, bufferSize);
+			this.entities = new ExternalSorter<>(directory, language
+					+ "-entities", ENTITY_ORDER, EntityEntry.CODEC,
+					bufferSize);
+		}
+
+		/**
+		 * Adds a label or alias, unless it is empty once normalized.
+		 *
+		 * @return true if the term was added
+		 */
+		boolean addTerm(String text, long key, int type, long rank)
+				throws IOException {
+			String normalized = TermIndex.normalize(text);
+			if (normalized.isEmpty()) {
+				return false;
+			}
+			this.terms.add(new TermEntry(normalized
+					.getBytes(StandardCharsets.UTF_8), key, type, rank, text
+					.getBytes(StandardCharsets.UTF_8)));
+			return true;
+		}
+	}
+
+	/**
+	 * A posting of a normalized term.
+	 */
+	static class TermEntry {
+
+		static final ExternalSorter.Codec<TermEntry> CODEC = new ExternalSorter.Codec<TermEntry>() {
+
+			@Override
+			public void write(DataOutput output, TermEntry entry)
+					throws IOException {
+				output.writeInt(entry.term.length);
+				output.write(entry.term);
+				output.writeLong(entry.key);
+				output.writeByte(entry.type);
+				output.writeLong(entry.rank);
+				output.writeInt(entry.text.length);
+				output.write(entry.text);
+			}
+
+			@Override
+			public TermEntry read(DataInput input) throws IOException {
+				byte[] term = new byte[input.readInt()];
+				input.readFully(term);
+				long key = input.readLong();
+				int type = input.readByte();
+				long rank = input.readLong();
+				byte[] text = new byte[input.readInt()];
+				input.readFully(text);
+				return new TermEntry(term, key, type, rank, text);
+			}
+		};
+
+		/**
+		 * UTF-8 bytes of the normalized term.
+		 */
+		final byte[] term;
+
+		final long key;
+
+		final int type;
+
+		final long rank;
+
+		/**
+		 * UTF-8 bytes of the label or alias.
+		 */
+		final byte[] text;
+
+		TermEntry(byte[] term, long key, int type, long rank, byte[] text) {
+			this.term = term;
+			this.key = key;
+			this.type = type;
+			this.rank = rank;
+			this.text = text;
+		}
+	}
+
+	/**
+	 * The label and description of an entity.
+	 */
+	static class EntityEntry {
+
+		static final ExternalSorter.Codec<EntityEntry> CODEC = new ExternalSorter.Codec<EntityEntry>() {
+
+			@Override
+			public void write(DataOutput output, EntityEntry entry)
+					throws IOException {
+				output.writeLong(entry.key);
+				writeString(output, entry.label);
+				writeString(output, entry.description);
+			}
+
+			@Override
+			public EntityEntry read(DataInput input) throws IOException {
+				return new EntityEntry(input.readLong(), readString(input),
+						readString(input));
+			}
+
+			void writeString(DataOutput output, String string)
+					throws IOException {
+				if (string == null) {
+					output.writeInt(-1);
+				} else {
+					byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+					output.writeInt(bytes.length);
+					output.write(bytes);
+				}
+			}
+
+			String readString(DataInput input) throws IOException {
+				int length = input.readInt();
+				if (length < 0) {
+					return null;
+				}
+				byte[] bytes = new byte[length];
+				input.readFully(bytes);
+				return new String(bytes, StandardCharsets.UTF_8);
+			}
+		};
+
+		final long key;
+
+		final String label;
+
+		final String description;
+
+		EntityEntry(long key, String label, String description) {
+			this.key = key;
+			this.label = label;
+			this.description = description;
+		}
+	}
+
+	/**
+	 * Writes the sorted postings of a language as blocks of front-coded
+	 * terms.
+	 */
+	static class BlockWriter {
+
+		final Output output;
+
+		final DataOutputStream blockIndex;
+
+		final ByteArrayOutputStream block = new ByteArrayOutputStream();
+
+		final ByteArrayOutputStream postings = new ByteArrayOutputStream();
+
+		long termCount;
+
+		long blockCount;
+
+		int termsInBlock;
+
+		long maxRank;
+
+		byte[] previousTerm;
+
+		byte[] term;
+
+		int postingCount;
+
+		long previousKey;
+
+		BlockWriter(Output output, DataOutputStream blockIndex) {
+			this.output = output;
+			this.blockIndex = blockIndex;
+		}
+
+		void add(TermEntry entry) throws IOException {
+			if (this.term != null && Arrays.equals(this.term, entry.term)) {
+				if (entry.key == this.previousKey) {
+					// another label or alias of the entity, with the same
+					// normalized form
+					return;
+				}
+			} else {
+				finishTerm();
+				this.term = entry.term;
+			}
+			this.previousKey = entry.key;
+			this.maxRank = Math.max(this.maxRank, entry.rank);
+			writeVarLong(this.postings, entry.key);
+			this.postings.write(entry.type);
+			writeVarLong(this.postings, entry.rank);
+			writeVarLong(this.postings, entry.text.length);
+			this.postings.write(entry.text);
+			this.postingCount++;
+		}
+
+		void finishTerm() throws IOException {
+			if (this.term == null) {
+				return;
+			}
+			int shared = 0;
+			if (this.termsInBlock > 0) {
+				int length = Math.min(this.term.length,
+						this.previousTerm.length);
+				while (shared < length
+						&& this.term[shared] == this.previousTerm[shared]) {
+					shared++;
+				}
+			}
+			writeVarLong(this.block, shared);
+			writeVarLong(this.block, this.term.length - shared);
+			this.block.write(this.term, shared, this.term.length - shared);
+			writeVarLong(this.block, this.postingCount);
+			this.postings.writeTo(this.block);
+			this.postings.reset();
+			this.postingCount = 0;
+			this.previousTerm = this.term;
+			this.term = null;
+			this.termCount++;
+			if (++this.termsInBlock == LanguageTerms.BLOCK_SIZE) {
+				finishBlock();
+			}
+		}
+
+		void finishBlock() throws IOException {
+			if (this.termsInBlock == 0) {
+				return;
+			}
+			this.blockIndex.writeLong(this.output.position);
+			writeVarLong(this.output, this.maxRank);
+			writeVarLong(this.output, this.termsInBlock);
+			this.block.writeTo(this.output);
+			this.block.reset();
+			this.termsInBlock = 0;
+			this.maxRank = 0;
+			this.blockCount++;
+		}
+	}
+
+	/**
+	 * Writes to a file and counts the bytes written.
+	 */
+	static class Output extends FilterOutputStream {
+
+		long position;
+
+		Output(OutputStream output) {
+			super(new BufferedOutputStream(output, 1 << 16));
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			this.out.write(b);
+			this.position++;
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length)
+				throws IOException {
+			this.out.write(bytes, offset, length);
+			this.position += length;
+		}
+
+		/**
+		 * Writes a string as its length in UTF-8 plus one, followed by its
+		 * bytes, or 0 for <code>null</code>.
+		 */
+		void writeString(String string) throws IOException {
+			if (string == null) {
+				writeVarLong(this, 0);
+			} else {
+				byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+				writeVarLong(this, bytes.length + 1);
+				write(bytes);
+			}
+		}
+	}
+
+}
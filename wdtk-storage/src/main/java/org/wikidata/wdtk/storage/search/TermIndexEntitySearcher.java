@@ -0,0 +1,306 @@
+package org.wikidata.wdtk.storage.search;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.commons.lang3.Validate;
+import org.wikidata.wdtk.storage.entitystore.EntityType;
+import org.wikidata.wdtk.wikibaseapi.WbGetEntitiesSearchData;
+import org.wikidata.wdtk.wikibaseapi.WbSearchEntitiesResult;
+import org.wikidata.wdtk.wikibaseapi.WikibaseDataFetcher;
+
+/**
+ * Answers the searches of
+ * {@link WikibaseDataFetcher#searchEntities(WbGetEntitiesSearchData)} with a
+ * {@link TermIndex}, so code can switch between the Wikibase API and the
+ * offline index.
+ * <p>
+ * This class needs the wdtk-wikibaseapi module, which is an optional
+ * dependency of wdtk-storage: projects that use it must depend on that
+ * module themselves. The results have no URL and no page id, and their
+ * aliases list the matched alias only. The parameters strictlanguage and
+ * uselang are ignored.
+ */
+public class TermIndexEntitySearcher {
+
+	final TermIndex index;
+
+	/**
+	 * Creates a searcher.
+	 *
+	 * @param index
+	 *            the index to search, which remains owned by the caller
+	 */
+	public TermIndexEntitySearcher(TermIndex index) {
+		Validate.notNull(index, "Index cannot be null.");
+		this.index = index;
+	}
+
+	/**
+	 * Searches items with a label or alias in English.
+	 *
+	 * @param search
+	 *            search string
+	 * @return the items found
+	 * @see WikibaseDataFetcher#searchEntities(String)
+	 */
+	public List<WbSearchEntitiesResult> searchEntities(String search) {
+		WbGetEntitiesSearchData properties = new WbGetEntitiesSearchData();
+		properties.search = search;
+		properties.language = "en";
+		return searchEntities(properties);
+	}
+
+	/**
+	 * Searches items with a label or alias in a language.
+	 *
+	 * @param search
+	 *            search string
+	 * @param language
+	 *            language code
+	 * @return the items found
+	 * @see WikibaseDataFetcher#searchEntities(String, String)
+	 */
+	public List<WbSearchEntitiesResult> searchEntities(String search,
+			String language) {
+		WbGetEntitiesSearchData properties = new WbGetEntitiesSearchData();
+		properties.search = search;
+		properties.language = language;
+		return searchEntities(properties);
+	}
+
+	/**
+	 * Searches items with a label or alias in English.
+	 *
+	 * @param search
+	 *            search string
+	 * @param limit
+	 *            largest number of results
+	 * @return the items found
+	 * @see WikibaseDataFetcher#searchEntities(String, Long)
+	 */
+	public List<WbSearchEntitiesResult> searchEntities(String search,
+			Long limit) {
+		WbGetEntitiesSearchData properties = new WbGetEntitiesSearchData();
+		properties.search = search;
+		properties.language = "en";
+		properties.limit = limit;
+		return searchEntities(properties);
+	}
+
+	/**
+	 * Searches items with a label or alias in a language.
+	 *
+	 * @param search
+	 *            search string
+	 * @param language
+	 *            language code
+	 * @param limit
+	 *            largest number of results
+	 * @return the items found
+	 * @see WikibaseDataFetcher#searchEntities(String, String, Long)
+	 */
+	public List<WbSearchEntitiesResult> searchEntities(String search,
+			String language, Long limit) {
+		WbGetEntitiesSearchData properties = new WbGetEntitiesSearchData();
+		properties.search = search;
+		properties.language = language;
+		properties.limit = limit;
+		return searchEntities(properties);
+	}
+
+	/**
+	 * Searches entities with a label or alias. The search string and the
+	 * language are required. The type can be "item", which is the default, or
+	 * "property". The limit defaults to 7 and the offset to 0.
+	 *
+	 * @param properties
+	 *            parameters of the search
+	 * @return the entities found
+	 * @throws IllegalArgumentException
+	 *             if the parameters are not valid, or if the index has no
+	 *             terms of the language
+	 * @see WikibaseDataFetcher#searchEntities(WbGetEntitiesSearchData)
+	 */
+	public List<WbSearchEntitiesResult> searchEntities(
+			WbGetEntitiesSearchData properties) {
+		Validate.notNull(properties.search,
+				"Search parameter must be specified for this action.");
+		Validate.notNull(properties.language,
+				"Language parameter must be specified for this action.");
+		EntityType type;
+		if (properties.type == null || "item".equals(properties.type)) {
+			type = EntityType.ITEM;
+		} else if ("property".equals(properties.type)) {
+			type = EntityType.PROPERTY;
+		} else {
+			throw new IllegalArgumentException("Unsupported entity type '"
+					+ properties.type + "'.");
+		}
+		List<WbSearchEntitiesResult> ret = new ArrayList<>();
+		for (TermSearchResult result : this.index.search(properties.search,
+				properties.language, type,
+				properties.limit == null ? TermIndex.DEFAULT_LIMIT
+						: properties.limit,
+				properties.offset == null ? 0 : properties.offset)) {
+			ret.add(new SearchResult(result));
+		}
+		return ret;
+	}
+
+	/**
+	 * A {@link TermSearchResult} as a result of the Wikibase API.
+	 */
+	static class SearchResult implements WbSearchEntitiesResult {
+
+		final TermSearchResult result;
+
+		final TermMatch match;
+
+		SearchResult(TermSearchResult result) {
+			this.result = result;
+			this.match = new TermMatch(result.isAliasMatch() ? "alias"
+					: "label", result.getMatchLanguage(),
+					result.getMatchText());
+		}
+
+		@Override
+		public String getEntityId() {
+			return this.result.getEntityId();
+		}
+
+		@Override
+		public String getConceptUri() {
+			return this.result.getConceptUri();
+		}
+
+		/**
+		 * Returns <code>null</code>, since the index does not know the URL
+		 * of the wiki.
+		 */
+		@Override
+		public String getUrl() {
+			return null;
+		}
+
+		@Override
+		public String getTitle() {
+			return this.result.getTitle();
+		}
+
+		/**
+		 * Returns 0, since the index does not know the page ids.
+		 */
+		@Override
+		public long getPageId() {
+			return 0;
+		}
+
+		@Override
+		public String getLabel() {
+			return this.result.getLabel();
+		}
+
+		@Override
+		public String getDescription() {
+			return this.result.getDescription();
+		}
+
+		@Override
+		public Match getMatch() {
+			return this.match;
+		}
+
+		@Override
+		public List<String> getAliases() {
+			if (this.result.isAliasMatch()) {
+				return Collections.singletonList(this.result.getMatchText());
+			}
+			return Collections.emptyList();
+		}
+
+		@Override
+		public String toString() {
+			return this.result.toString();
+		}
+	}
+
+	/**
+	 * Description of the term which matched the search.
+	 */
+	static class TermMatch implements WbSearchEntitiesResult.Match {
+
+		final String type;
+
+		final String language;
+
+		final String text;
+
+		TermMatch(String type, String language, String text) {
+			this.type = type;
+			this.language = language;
+			this.text = text;
+		}
+
+		@Override
+		public String getType() {
+			return this.type;
+		}
+
+		@Override
+		public String getLanguage() {
+			return this.language;
+		}
+
+		@Override
+		public String getText() {
+			return this.text;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.type, this.language, this.text);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof TermMatch)) {
+				return false;
+			}
+			TermMatch other = (TermMatch) obj;
+			return Objects.equals(this.type, other.type)
+					&& Objects.equals(this.language, other.language)
+					&& Objects.equals(this.text, other.text);
+		}
+
+		@Override
+		public String toString() {
+			return this.type + "@" + this.language + ": " + this.text;
+		}
+	}
+
+}
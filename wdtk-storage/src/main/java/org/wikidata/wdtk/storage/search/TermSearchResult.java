@@ -0,0 +1,139 @@
+package org.wikidata.wdtk.storage.search;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+/**
+ * Result of a search in a {@link TermIndex}: an entity with the label or
+ * alias which matched the search.
+ */
+public class TermSearchResult {
+
+	final String entityId;
+
+	final String conceptUri;
+
+	final String title;
+
+	final String label;
+
+	final String description;
+
+	final boolean alias;
+
+	final String language;
+
+	final String text;
+
+	TermSearchResult(String entityId, String conceptUri, String title,
+			String label, String description, boolean alias, String language,
+			String text) {
+		this.entityId = entityId;
+		this.conceptUri = conceptUri;
+		this.title = title;
+		this.label = label;
+		this.description = description;
+		this.alias = alias;
+		this.language = language;
+		this.text = text;
+	}
+
+	/**
+	 * Returns the id of the entity, such as "Q42".
+	 *
+	 * @return the entity id
+	 */
+	public String getEntityId() {
+		return this.entityId;
+	}
+
+	/**
+	 * Returns the concept URI of the entity: the site IRI followed by the
+	 * entity id.
+	 *
+	 * @return the concept URI
+	 */
+	public String getConceptUri() {
+		return this.conceptUri;
+	}
+
+	/**
+	 * Returns the title of the page of the entity, such as "Q42" or
+	 * "Property:P31".
+	 *
+	 * @return the page title
+	 */
+	public String getTitle() {
+		return this.title;
+	}
+
+	/**
+	 * Returns the label of the entity in the language of the search.
+	 *
+	 * @return the label, or <code>null</code> if the entity has none
+	 */
+	public String getLabel() {
+		return this.label;
+	}
+
+	/**
+	 * Returns the description of the entity in the language of the search.
+	 *
+	 * @return the description, or <code>null</code> if the entity has none
+	 */
+	public String getDescription() {
+		return this.description;
+	}
+
+	/**
+	 * Returns true if an alias matched the search, and false if the label
+	 * did.
+	 *
+	 * @return true if the match is an alias
+	 */
+	public boolean isAliasMatch() {
+		return this.alias;
+	}
+
+	/**
+	 * Returns the language of the term which matched.
+	 *
+	 * @return the language code
+	 */
+	public String getMatchLanguage() {
+		return this.language;
+	}
+
+	/**
+	 * Returns the label or alias which matched, as in the document.
+	 *
+	 * @return the text of the term
+	 */
+	public String getMatchText() {
+		return this.text;
+	}
+
+	@Override
+	public String toString() {
+		return this.entityId + " (" + this.label + "): "
+				+ (this.alias ? "alias" : "label") + "@" + this.language
+				+ ": " + this.text;
+	}
+
+}
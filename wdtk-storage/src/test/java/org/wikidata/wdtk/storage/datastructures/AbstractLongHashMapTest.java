@@ -0,0 +1,178 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.LongBinaryOperator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases shared by the maps with primitive values, which are run once for
+ * each type of value. The values are passed as <b>long</b> values and
+ * truncated by {@link #truncate(long)} to the range of the map.
+ *
+ * @param <M>
+ *            type of the tested map
+ */
+public abstract class AbstractLongHashMapTest<M extends AbstractLongHashMap> {
+
+	abstract M create(int expectedSize);
+
+	abstract M create();
+
+	/**
+	 * Returns the given value as it is stored in the tested map.
+	 */
+	abstract long truncate(long value);
+
+	abstract long put(M map, long key, long value);
+
+	abstract long getOrDefault(M map, long key, long defaultValue);
+
+	abstract long addTo(M map, long key, long increment);
+
+	abstract long remove(M map, long key);
+
+	abstract void merge(M map, M other, LongBinaryOperator function);
+
+	abstract Map<Long, Long> getEntries(M map);
+
+	void assertSameEntries(Map<Long, Long> expected, M actual) {
+		Assert.assertEquals(expected.size(), actual.size());
+		Assert.assertEquals(expected, getEntries(actual));
+		long[] keys = actual.keys();
+		Arrays.sort(keys);
+		Assert.assertArrayEquals(expected.keySet().stream().sorted()
+				.mapToLong(Long::longValue).toArray(), keys);
+	}
+
+	@Test
+	public void testEmptyMap() {
+		M map = create(0);
+		Assert.assertTrue(map.isEmpty());
+		Assert.assertFalse(map.containsKey(0));
+		Assert.assertEquals(-1, getOrDefault(map, 5, -1));
+		Assert.assertEquals(0, remove(map, 5));
+		Assert.assertArrayEquals(new long[0], map.keys());
+	}
+
+	@Test
+	public void testPutGetRemove() {
+		M map = create();
+		Assert.assertEquals(0, put(map, 42, 1));
+		Assert.assertEquals(1, put(map, 42, 2));
+		Assert.assertEquals(0, put(map, 0, 3));
+		Assert.assertEquals(0, put(map, -7, 4));
+		Assert.assertEquals(0, put(map, Long.MIN_VALUE, 5));
+		Assert.assertEquals(4, map.size());
+		Assert.assertEquals(2, getOrDefault(map, 42, -1));
+		Assert.assertEquals(3, getOrDefault(map, 0, -1));
+		Assert.assertEquals(4, getOrDefault(map, -7, -1));
+		Assert.assertEquals(5, getOrDefault(map, Long.MIN_VALUE, -1));
+		Assert.assertEquals(3, remove(map, 0));
+		Assert.assertFalse(map.containsKey(0));
+		Assert.assertEquals(7, addTo(map, 0, 7));
+		Assert.assertEquals(10, addTo(map, 0, 3));
+		Assert.assertEquals(4, map.size());
+		map.clear();
+		Assert.assertTrue(map.isEmpty());
+		Assert.assertFalse(map.containsKey(42));
+		Assert.assertEquals(-1, getOrDefault(map, 0, -1));
+	}
+
+	@Test
+	public void testRandomOperations() {
+		Random random = new Random(7);
+		M map = create();
+		Map<Long, Long> expected = new HashMap<>();
+		for (int i = 0; i < 200000; i++) {
+			// few distinct keys, so that removals hit existing keys
+			long key = random.nextInt(5000) - 100;
+			long value = truncate(random.nextLong());
+			switch (random.nextInt(4)) {
+			case 0:
+				Assert.assertEquals(expected.getOrDefault(key, 0L).longValue(),
+						put(map, key, value));
+				expected.put(key, value);
+				break;
+			case 1:
+				Assert.assertEquals(expected.merge(key, value,
+						(v1, v2) -> truncate(v1 + v2)).longValue(),
+						addTo(map, key, value));
+				break;
+			case 2:
+				Long removed = expected.remove(key);
+				Assert.assertEquals(removed == null ? 0 : removed.longValue(),
+						remove(map, key));
+				break;
+			default:
+				Assert.assertEquals(expected.containsKey(key),
+						map.containsKey(key));
+				Assert.assertEquals(expected.getOrDefault(key, -1L).longValue(),
+						getOrDefault(map, key, -1));
+			}
+		}
+		assertSameEntries(expected, map);
+	}
+
+	@Test
+	public void testGrowth() {
+		M map = create(1);
+		Map<Long, Long> expected = new HashMap<>();
+		for (int i = 0; i < 100000; i++) {
+			// keys which collide in the lowest bits
+			long key = (long) i << 32;
+			put(map, key, i);
+			expected.put(key, (long) i);
+		}
+		assertSameEntries(expected, map);
+	}
+
+	@Test
+	public void testMerge() {
+		M first = create();
+		M second = create();
+		Map<Long, Long> expected = new HashMap<>();
+		for (long key = 0; key < 1000; key++) {
+			put(first, key, 1);
+			expected.merge(key, 1L, Long::sum);
+			put(second, key + 500, 2);
+			expected.merge(key + 500, 2L, Long::sum);
+		}
+		merge(first, second, Long::sum);
+		assertSameEntries(expected, first);
+		Assert.assertEquals(1000, second.size());
+
+		merge(first, second, Math::max);
+		Assert.assertEquals(3, getOrDefault(first, 600, 0));
+		Assert.assertEquals(2, getOrDefault(first, 1200, 0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeSize() {
+		create(-1);
+	}
+
+}
@@ -0,0 +1,193 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Iterator;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark comparing the ways to visit the <code>true</code> values of a
+ * bit vector, and the word-parallel set operations of {@link BitVectorImpl}
+ * with the bit-by-bit default methods of {@link BitVector}, on sparse and
+ * dense random bit vectors.
+ * <p>
+ * This is not run with the unit tests. After compiling the tests, run the
+ * {@link #main(String[])} method of this class with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BitVectorBulkBenchmark {
+
+	@Param({ "100000000" })
+	public int size;
+
+	/**
+	 * Fraction of <code>true</code> values.
+	 */
+	@Param({ "0.001", "0.5" })
+	public double density;
+
+	private BitVectorImpl first;
+
+	private BitVectorImpl second;
+
+	private RoaringBitVector firstRoaring;
+
+	private RoaringBitVector secondRoaring;
+
+	@Setup
+	public void setUp() {
+		first = makeBitVector(1);
+		second = makeBitVector(2);
+		firstRoaring = new RoaringBitVector(first);
+		secondRoaring = new RoaringBitVector(second);
+	}
+
+	private BitVectorImpl makeBitVector(long seed) {
+		Random random = new Random(seed);
+		BitVectorImpl ret = new BitVectorImpl(size);
+		for (int i = 0; i < size; i++) {
+			if (random.nextDouble() < density) {
+				ret.setBit(i, true);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns a bit vector that only implements the abstract methods of
+	 * {@link BitVector}, so that the default methods are used.
+	 */
+	static BitVector withDefaultMethods(BitVectorImpl bitVector) {
+		return new BitVector() {
+
+			@Override
+			public boolean getBit(long position) {
+				return bitVector.getBit(position);
+			}
+
+			@Override
+			public long size() {
+				return bitVector.size();
+			}
+
+			@Override
+			public Iterator<Boolean> iterator() {
+				return bitVector.iterator();
+			}
+
+			@Override
+			public boolean addBit(boolean bit) {
+				return bitVector.addBit(bit);
+			}
+
+			@Override
+			public void setBit(long position, boolean bit) {
+				bitVector.setBit(position, bit);
+			}
+		};
+	}
+
+	@Benchmark
+	public long iterateBooleans() {
+		long ret = 0;
+		long position = 0;
+		for (Boolean bit : first) {
+			if (bit) {
+				ret += position;
+			}
+			position++;
+		}
+		return ret;
+	}
+
+	@Benchmark
+	public long setBitIterator() {
+		long ret = 0;
+		PrimitiveIterator.OfLong iterator = first.setBitIterator();
+		while (iterator.hasNext()) {
+			ret += iterator.nextLong();
+		}
+		return ret;
+	}
+
+	@Benchmark
+	public void forEachSetBit(Blackhole blackhole) {
+		first.forEachSetBit(blackhole::consume);
+	}
+
+	@Benchmark
+	public void forEachSetBitRoaring(Blackhole blackhole) {
+		firstRoaring.forEachSetBit(blackhole::consume);
+	}
+
+	@Benchmark
+	public BitVector orWords() {
+		BitVectorImpl ret = new BitVectorImpl(first);
+		ret.or(second);
+		ret.andNot(first);
+		return ret;
+	}
+
+	@Benchmark
+	public BitVector orDefault() {
+		BitVector ret = withDefaultMethods(new BitVectorImpl(first));
+		ret.or(second);
+		ret.andNot(first);
+		return ret;
+	}
+
+	@Benchmark
+	public BitVector orRoaring() {
+		RoaringBitVector ret = new RoaringBitVector(firstRoaring);
+		ret.or(secondRoaring);
+		ret.andNot(firstRoaring);
+		return ret;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(BitVectorBulkBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
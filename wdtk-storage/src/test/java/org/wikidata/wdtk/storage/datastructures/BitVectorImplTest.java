@@ -20,6 +20,13 @@ package org.wikidata.wdtk.storage.datastructures;
  * #L%
  */
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -247,6 +254,192 @@ public class BitVectorImplTest {
 
 	}
 
+	/**
+	 * Returns a bit vector that only implements the abstract methods of
+	 * {@link BitVector}, to test its default methods.
+	 */
+	static BitVector withDefaultMethods(BitVectorImpl bitVector) {
+		return new BitVector() {
+
+			@Override
+			public boolean getBit(long position) {
+				return bitVector.getBit(position);
+			}
+
+			@Override
+			public long size() {
+				return bitVector.size();
+			}
+
+			@Override
+			public Iterator<Boolean> iterator() {
+				return bitVector.iterator();
+			}
+
+			@Override
+			public boolean addBit(boolean bit) {
+				return bitVector.addBit(bit);
+			}
+
+			@Override
+			public void setBit(long position, boolean bit) {
+				bitVector.setBit(position, bit);
+			}
+		};
+	}
+
+	static BitSet makeBitSet(int size, double density, long seed) {
+		Random random = new Random(seed);
+		BitSet ret = new BitSet(size);
+		for (int i = 0; i < size; i++) {
+			if (random.nextDouble() < density) {
+				ret.set(i);
+			}
+		}
+		return ret;
+	}
+
+	static BitVectorImpl makeBitVector(BitSet bits, int size) {
+		BitVectorImpl ret = new BitVectorImpl(size);
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+			ret.setBit(i, true);
+		}
+		return ret;
+	}
+
+	static void assertSameBits(BitSet expected, long size, BitVector bitVector) {
+		Assert.assertEquals(size, bitVector.size());
+		for (int i = 0; i < size; i++) {
+			Assert.assertEquals(expected.get(i), bitVector.getBit(i));
+		}
+	}
+
+	@Test
+	public void testNextSetAndClearBit() {
+		for (double density : new double[] { 0.01, 0.5, 0.99 }) {
+			BitSet bits = makeBitSet(1000, density, 1);
+			BitVectorImpl bv = makeBitVector(bits, 1000);
+			for (BitVector bitVector : new BitVector[] { bv,
+					withDefaultMethods(bv) }) {
+				for (int i = 0; i < 1010; i++) {
+					long expectedSet = i < 1000 ? bits.nextSetBit(i) : -1;
+					Assert.assertEquals(expectedSet, bitVector.nextSetBit(i));
+					Assert.assertEquals(Math.min(bits.nextClearBit(i), Math.max(i, 1000)),
+							bitVector.nextClearBit(i));
+				}
+			}
+		}
+		BitVectorImpl full = new BitVectorImpl(128);
+		full.setRange(0, 128);
+		Assert.assertEquals(-1, new BitVectorImpl(128).nextSetBit(0));
+		Assert.assertEquals(128, full.nextClearBit(5));
+		Assert.assertEquals(128, withDefaultMethods(full).nextClearBit(5));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testNextSetBitNegative() {
+		new BitVectorImpl(10).nextSetBit(-1);
+	}
+
+	@Test
+	public void testSetBitIteration() {
+		BitSet bits = makeBitSet(1000, 0.2, 2);
+		BitVectorImpl bv = makeBitVector(bits, 1000);
+		List<Long> expected = new ArrayList<>();
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+			expected.add((long) i);
+		}
+		for (BitVector bitVector : new BitVector[] { bv, withDefaultMethods(bv) }) {
+			List<Long> iterated = new ArrayList<>();
+			PrimitiveIterator.OfLong iterator = bitVector.setBitIterator();
+			while (iterator.hasNext()) {
+				iterated.add(iterator.nextLong());
+			}
+			Assert.assertEquals(expected, iterated);
+			List<Long> consumed = new ArrayList<>();
+			bitVector.forEachSetBit(consumed::add);
+			Assert.assertEquals(expected, consumed);
+		}
+	}
+
+	@Test
+	public void testRanges() {
+		int[][] ranges = { { 3, 3 }, { 5, 60 }, { 64, 128 }, { 100, 700 },
+				{ 650, 655 }, { 900, 1100 } };
+		for (int[] range : ranges) {
+			BitSet bits = makeBitSet(1000, 0.5, range[0]);
+			BitVectorImpl bv = makeBitVector(bits, 1000);
+			BitVectorImpl copy = new BitVectorImpl(bv);
+			BitVector withDefaults = withDefaultMethods(copy);
+			BitSet expected = (BitSet) bits.clone();
+			expected.set(range[0], range[1]);
+			bv.setRange(range[0], range[1]);
+			withDefaults.setRange(range[0], range[1]);
+			assertSameBits(expected, Math.max(1000, range[1]), bv);
+			assertSameBits(expected, Math.max(1000, range[1]), withDefaults);
+
+			expected.clear(range[0] + 1, range[1] + 10);
+			bv.clearRange(range[0] + 1, range[1] + 10);
+			withDefaults.clearRange(range[0] + 1, range[1] + 10);
+			assertSameBits(expected, Math.max(1000, range[1]), bv);
+			assertSameBits(expected, Math.max(1000, range[1]), withDefaults);
+			Assert.assertEquals(bv.hashCode(), new BitVectorImpl(withDefaults).hashCode());
+		}
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testInvalidRange() {
+		new BitVectorImpl(10).setRange(5, 4);
+	}
+
+	@Test
+	public void testBulkOperations() {
+		BitSet first = makeBitSet(1000, 0.5, 3);
+		BitSet second = makeBitSet(1500, 0.3, 4);
+		for (int operation = 0; operation < 4; operation++) {
+			BitSet expected = (BitSet) first.clone();
+			switch (operation) {
+			case 0:
+				expected.and(second);
+				break;
+			case 1:
+				expected.andNot(second);
+				break;
+			case 2:
+				expected.or(second);
+				break;
+			default:
+				expected.xor(second);
+			}
+			long expectedSize = operation < 2 ? 1000 : 1500;
+
+			BitVector[] others = { makeBitVector(second, 1500),
+					new RankedBitVectorImpl(makeBitVector(second, 1500)),
+					withDefaultMethods(makeBitVector(second, 1500)) };
+			for (BitVector other : others) {
+				BitVectorImpl bv = makeBitVector(first, 1000);
+				BitVector withDefaults = withDefaultMethods(makeBitVector(first, 1000));
+				for (BitVector bitVector : new BitVector[] { bv, withDefaults }) {
+					switch (operation) {
+					case 0:
+						bitVector.and(other);
+						break;
+					case 1:
+						bitVector.andNot(other);
+						break;
+					case 2:
+						bitVector.or(other);
+						break;
+					default:
+						bitVector.xor(other);
+					}
+					assertSameBits(expected, expectedSize, bitVector);
+				}
+				Assert.assertEquals(new BitVectorImpl(withDefaults), bv);
+			}
+		}
+	}
+
 	@Test
 	public void testSize() {
 		{
@@ -0,0 +1,277 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link ConcurrentBitVector}.
+ */
+public class ConcurrentBitVectorTest {
+
+	static final int THREADS = 4;
+
+	/**
+	 * Runs a task in several threads at once and waits for all of them.
+	 */
+	static void runInThreads(int threads, ThreadTask task)
+			throws InterruptedException {
+		List<Thread> list = new ArrayList<>();
+		List<Throwable> errors = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			final int threadIndex = i;
+			Thread thread = new Thread(() -> task.run(threadIndex));
+			thread.setUncaughtExceptionHandler((t, e) -> {
+				synchronized (errors) {
+					errors.add(e);
+				}
+			});
+			list.add(thread);
+		}
+		for (Thread thread : list) {
+			thread.start();
+		}
+		for (Thread thread : list) {
+			thread.join();
+		}
+		Assert.assertEquals(new ArrayList<Throwable>(), errors);
+	}
+
+	interface ThreadTask {
+		void run(int threadIndex);
+	}
+
+	static void assertSameBits(BitSet expected, long size, BitVector bv) {
+		Assert.assertEquals(size, bv.size());
+		for (long position = 0; position < size; position++) {
+			Assert.assertEquals("position " + position,
+					expected.get((int) position), bv.getBit(position));
+		}
+	}
+
+	@Test
+	public void testEmpty() {
+		ConcurrentBitVector bv = new ConcurrentBitVector();
+		Assert.assertEquals(0, bv.size());
+		Assert.assertFalse(bv.getBit(1000));
+		Assert.assertEquals(-1, bv.nextSetBit(0));
+		Assert.assertEquals(new BitVectorImpl(), bv);
+		Assert.assertEquals(new BitVectorImpl().hashCode(), bv.hashCode());
+		Assert.assertEquals(0, bv.freeze().size());
+	}
+
+	@Test
+	public void testSetBitInThreads() throws InterruptedException {
+		int size = 3 * (1 << ConcurrentBitVector.LG_SEGMENT_SIZE) + 17;
+		ConcurrentBitVector bv = new ConcurrentBitVector(size);
+		BitSet expected = new BitSet();
+		Random random = new Random(42);
+		for (int i = 0; i < 20000; i++) {
+			expected.set(random.nextInt(size));
+		}
+		// neighbouring bits are set by different threads, so that they
+		// update the same words
+		runInThreads(THREADS, threadIndex -> {
+			for (int position = expected.nextSetBit(0); position >= 0; position = expected
+					.nextSetBit(position + 1)) {
+				if (position % THREADS == threadIndex) {
+					bv.setBit(position, true);
+				}
+			}
+		});
+		assertSameBits(expected, size, bv);
+
+		BitVectorImpl copy = new BitVectorImpl(bv);
+		Assert.assertEquals(copy, bv);
+		Assert.assertEquals(bv, copy);
+		Assert.assertEquals(copy.hashCode(), bv.hashCode());
+		Assert.assertEquals(copy.toString(), bv.toString());
+
+		long position = -1;
+		for (int expectedPosition = expected.nextSetBit(0); expectedPosition >= 0; expectedPosition = expected
+				.nextSetBit(expectedPosition + 1)) {
+			position = bv.nextSetBit(position + 1);
+			Assert.assertEquals(expectedPosition, position);
+		}
+		Assert.assertEquals(-1, bv.nextSetBit(position + 1));
+	}
+
+	@Test
+	public void testClearBitInThreads() throws InterruptedException {
+		int size = 10000;
+		ConcurrentBitVector bv = new ConcurrentBitVector(size);
+		BitSet expected = new BitSet();
+		for (int position = 0; position < size; position++) {
+			bv.setBit(position, true);
+			if (position % 3 != 0) {
+				expected.set(position);
+			}
+		}
+		runInThreads(THREADS, threadIndex -> {
+			for (int position = threadIndex * 3; position < size; position += THREADS * 3) {
+				bv.setBit(position, false);
+			}
+		});
+		assertSameBits(expected, size, bv);
+	}
+
+	@Test
+	public void testGetAndSetBitOnlyOnce() throws InterruptedException {
+		int size = 5000;
+		ConcurrentBitVector bv = new ConcurrentBitVector();
+		AtomicInteger firstVisits = new AtomicInteger();
+		// every thread visits every position; only one of them may be first
+		runInThreads(THREADS, threadIndex -> {
+			for (int position = 0; position < size; position++) {
+				if (!bv.getAndSetBit(position, true)) {
+					firstVisits.incrementAndGet();
+				}
+			}
+		});
+		Assert.assertEquals(size, firstVisits.get());
+		Assert.assertEquals(size, bv.size());
+		Assert.assertTrue(bv.getAndSetBit(0, false));
+		Assert.assertFalse(bv.getAndSetBit(0, false));
+	}
+
+	@Test
+	public void testAddBitInThreads() throws InterruptedException {
+		int bitsPerThread = 10000;
+		ConcurrentBitVector bv = new ConcurrentBitVector();
+		runInThreads(THREADS, threadIndex -> {
+			for (int i = 0; i < bitsPerThread; i++) {
+				bv.addBit(i % 2 == 0);
+			}
+		});
+		Assert.assertEquals(THREADS * bitsPerThread, bv.size());
+		Assert.assertEquals(THREADS * bitsPerThread / 2,
+				bv.freeze().countBits(true, bv.size() - 1));
+	}
+
+	@Test
+	public void testGrowth() {
+		ConcurrentBitVector bv = new ConcurrentBitVector();
+		long far = 5L << ConcurrentBitVector.LG_SEGMENT_SIZE;
+		bv.setBit(far, true);
+		Assert.assertEquals(far + 1, bv.size());
+		Assert.assertTrue(bv.getBit(far));
+		Assert.assertFalse(bv.getBit(far - 1));
+		Assert.assertEquals(far, bv.nextSetBit(0));
+		Assert.assertEquals(-1, bv.nextSetBit(far + 1));
+
+		// clearing a bit does not allocate a segment, but enlarges the vector
+		bv.setBit(far + 100, false);
+		Assert.assertEquals(far + 101, bv.size());
+		Assert.assertNull(bv.segments.get(6));
+
+		bv.setBit(ConcurrentBitVector.MAX_SIZE - 1, true);
+		Assert.assertEquals(ConcurrentBitVector.MAX_SIZE, bv.size());
+		Assert.assertEquals(ConcurrentBitVector.MAX_SIZE - 1,
+				bv.nextSetBit(far + 1));
+		Assert.assertFalse(bv.getBit(ConcurrentBitVector.MAX_SIZE));
+	}
+
+	@Test
+	public void testFreeze() {
+		int size = 2 * (1 << ConcurrentBitVector.LG_SEGMENT_SIZE) + 1234;
+		ConcurrentBitVector bv = new ConcurrentBitVector(size);
+		RankedBitVectorImpl expected = new RankedBitVectorImpl(size);
+		Random random = new Random(7);
+		for (int i = 0; i < 5000; i++) {
+			long position = random.nextInt(size);
+			bv.setBit(position, true);
+			expected.setBit(position, true);
+		}
+		int hashCode = bv.hashCode();
+
+		RankedBitVector frozen = bv.freeze();
+		Assert.assertSame(frozen, bv.freeze());
+		Assert.assertEquals(expected, frozen);
+		Assert.assertEquals(frozen, expected);
+		Assert.assertEquals(expected, bv);
+		Assert.assertEquals(hashCode, frozen.hashCode());
+		Assert.assertEquals(hashCode, bv.hashCode());
+		Assert.assertEquals(size, bv.size());
+
+		for (long position = 0; position < size; position += 997) {
+			Assert.assertEquals(expected.countBits(true, position),
+					frozen.countBits(true, position));
+			Assert.assertEquals(expected.countBits(false, position),
+					frozen.countBits(false, position));
+		}
+		for (long n = 1; n <= expected.countBits(true, size - 1); n += 13) {
+			Assert.assertEquals(expected.findPosition(true, n),
+					frozen.findPosition(true, n));
+		}
+		Assert.assertEquals(expected.findPosition(false, 1000),
+				frozen.findPosition(false, 1000));
+		Assert.assertEquals(expected.nextSetBit(size / 2),
+				bv.nextSetBit(size / 2));
+	}
+
+	@Test
+	public void testModifyAfterFreeze() {
+		ConcurrentBitVector bv = new ConcurrentBitVector(10);
+		bv.setBit(3, true);
+		RankedBitVector frozen = bv.freeze();
+		Assert.assertThrows(IllegalStateException.class,
+				() -> bv.setBit(4, true));
+		Assert.assertThrows(IllegalStateException.class,
+				() -> bv.getAndSetBit(4, true));
+		Assert.assertThrows(IllegalStateException.class,
+				() -> bv.addBit(true));
+		Assert.assertTrue(bv.getBit(3));
+		Assert.assertFalse(bv.getBit(4));
+
+		Assert.assertThrows(UnsupportedOperationException.class,
+				() -> frozen.setBit(4, true));
+		Assert.assertThrows(UnsupportedOperationException.class,
+				() -> frozen.addBit(true));
+		Assert.assertThrows(UnsupportedOperationException.class,
+				() -> frozen.setRange(0, 5));
+		Assert.assertThrows(UnsupportedOperationException.class,
+				() -> frozen.or(new BitVectorImpl()));
+		Assert.assertEquals(10, frozen.size());
+	}
+
+	@Test
+	public void testInvalidArguments() {
+		ConcurrentBitVector bv = new ConcurrentBitVector();
+		Assert.assertThrows(IndexOutOfBoundsException.class,
+				() -> bv.setBit(-1, true));
+		Assert.assertThrows(IndexOutOfBoundsException.class,
+				() -> bv.setBit(ConcurrentBitVector.MAX_SIZE, true));
+		Assert.assertThrows(IndexOutOfBoundsException.class,
+				() -> bv.getBit(-1));
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> new ConcurrentBitVector(-1));
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> new ConcurrentBitVector(ConcurrentBitVector.MAX_SIZE + 1));
+	}
+
+}
@@ -0,0 +1,102 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.interfaces.EntityIdValue;
+
+/**
+ * Test class for {@link EntityCounter}.
+ */
+public class EntityCounterTest {
+
+	static final EntityIdValue Q5 = Datamodel.makeWikidataItemIdValue("Q5");
+	static final EntityIdValue P5 = Datamodel
+			.makeWikidataPropertyIdValue("P5");
+	static final EntityIdValue L5 = Datamodel.makeWikidataLexemeIdValue("L5");
+	static final EntityIdValue M5 = Datamodel
+			.makeMediaInfoIdValue("M5", Datamodel.SITE_WIKIDATA);
+
+	@Test
+	public void testCounts() {
+		EntityCounter counter = new EntityCounter();
+		Assert.assertEquals(1, counter.increment(Q5));
+		Assert.assertEquals(2, counter.increment(Q5));
+		Assert.assertEquals(3, counter.add(P5, 3));
+		Assert.assertEquals(0, counter.add(L5, 0));
+		Assert.assertEquals(1, counter.increment(M5));
+		Assert.assertEquals(4, counter.size());
+		Assert.assertEquals(2, counter.getCount(Q5));
+		Assert.assertEquals(3, counter.getCount(P5));
+		Assert.assertEquals(0, counter.getCount(L5));
+		Assert.assertTrue(counter.contains(L5));
+		Assert.assertFalse(counter.contains(Datamodel
+				.makeWikidataItemIdValue("Q6")));
+
+		Map<EntityIdValue, Integer> counts = new HashMap<>();
+		counter.forEach(counts::put);
+		Map<EntityIdValue, Integer> expected = new HashMap<>();
+		expected.put(Q5, 2);
+		expected.put(P5, 3);
+		expected.put(L5, 0);
+		expected.put(M5, 1);
+		Assert.assertEquals(expected, counts);
+	}
+
+	@Test
+	public void testMerge() {
+		EntityCounter first = new EntityCounter();
+		first.increment(Q5);
+		first.increment(P5);
+		EntityCounter second = new EntityCounter();
+		second.add(P5, 2);
+		second.increment(L5);
+		first.merge(second);
+		Assert.assertEquals(3, first.size());
+		Assert.assertEquals(1, first.getCount(Q5));
+		Assert.assertEquals(3, first.getCount(P5));
+		Assert.assertEquals(1, first.getCount(L5));
+
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> first.merge(new EntityCounter("http://example.org/")));
+	}
+
+	@Test
+	public void testOtherSite() {
+		EntityCounter counter = new EntityCounter("http://example.org/");
+		counter.increment(Datamodel.makeItemIdValue("Q5",
+				"http://example.org/"));
+		counter.forEach((entityIdValue, count) -> Assert.assertEquals(
+				Datamodel.makeItemIdValue("Q5", "http://example.org/"),
+				entityIdValue));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupportedEntity() {
+		new EntityCounter().increment(Datamodel
+				.makeWikidataFormIdValue("L5-F1"));
+	}
+
+}
@@ -0,0 +1,83 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongBinaryOperator;
+
+import org.junit.Assert;
+
+/**
+ * Test class for {@link LongIntHashMap}.
+ */
+public class LongIntHashMapTest extends AbstractLongHashMapTest<LongIntHashMap> {
+
+	@Override
+	LongIntHashMap create(int expectedSize) {
+		return new LongIntHashMap(expectedSize);
+	}
+
+	@Override
+	LongIntHashMap create() {
+		return new LongIntHashMap();
+	}
+
+	@Override
+	long truncate(long value) {
+		return (int) value;
+	}
+
+	@Override
+	long put(LongIntHashMap map, long key, long value) {
+		return map.put(key, (int) value);
+	}
+
+	@Override
+	long getOrDefault(LongIntHashMap map, long key, long defaultValue) {
+		return map.getOrDefault(key, (int) defaultValue);
+	}
+
+	@Override
+	long addTo(LongIntHashMap map, long key, long increment) {
+		return map.addTo(key, (int) increment);
+	}
+
+	@Override
+	long remove(LongIntHashMap map, long key) {
+		return map.remove(key);
+	}
+
+	@Override
+	void merge(LongIntHashMap map, LongIntHashMap other,
+			LongBinaryOperator function) {
+		map.merge(other, (value1, value2) -> (int) function.applyAsLong(
+				value1, value2));
+	}
+
+	@Override
+	Map<Long, Long> getEntries(LongIntHashMap map) {
+		Map<Long, Long> entries = new HashMap<>();
+		map.forEach((key, value) -> Assert.assertNull(entries.put(key,
+				(long) value)));
+		return entries;
+	}
+
+}
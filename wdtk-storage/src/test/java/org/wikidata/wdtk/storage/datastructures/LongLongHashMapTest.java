@@ -0,0 +1,83 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongBinaryOperator;
+
+import org.junit.Assert;
+
+/**
+ * Test class for {@link LongLongHashMap}.
+ */
+public class LongLongHashMapTest extends
+		AbstractLongHashMapTest<LongLongHashMap> {
+
+	@Override
+	LongLongHashMap create(int expectedSize) {
+		return new LongLongHashMap(expectedSize);
+	}
+
+	@Override
+	LongLongHashMap create() {
+		return new LongLongHashMap();
+	}
+
+	@Override
+	long truncate(long value) {
+		return value;
+	}
+
+	@Override
+	long put(LongLongHashMap map, long key, long value) {
+		return map.put(key, value);
+	}
+
+	@Override
+	long getOrDefault(LongLongHashMap map, long key, long defaultValue) {
+		return map.getOrDefault(key, defaultValue);
+	}
+
+	@Override
+	long addTo(LongLongHashMap map, long key, long increment) {
+		return map.addTo(key, increment);
+	}
+
+	@Override
+	long remove(LongLongHashMap map, long key) {
+		return map.remove(key);
+	}
+
+	@Override
+	void merge(LongLongHashMap map, LongLongHashMap other,
+			LongBinaryOperator function) {
+		map.merge(other, function);
+	}
+
+	@Override
+	Map<Long, Long> getEntries(LongLongHashMap map) {
+		Map<Long, Long> entries = new HashMap<>();
+		map.forEach((key, value) -> Assert.assertNull(entries.put(key,
+				value)));
+		return entries;
+	}
+
+}
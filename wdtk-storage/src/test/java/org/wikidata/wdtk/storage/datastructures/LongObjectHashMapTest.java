@@ -0,0 +1,110 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link LongObjectHashMap}.
+ */
+public class LongObjectHashMapTest {
+
+	@Test
+	public void testPutGetRemove() {
+		LongObjectHashMap<String> map = new LongObjectHashMap<>();
+		Assert.assertNull(map.get(42));
+		Assert.assertNull(map.put(42, "a"));
+		Assert.assertEquals("a", map.put(42, "b"));
+		Assert.assertNull(map.put(0, "zero"));
+		Assert.assertEquals("b", map.get(42));
+		Assert.assertEquals("zero", map.get(0));
+		Assert.assertEquals("zero", map.computeIfAbsent(0, key -> "other"));
+		Assert.assertEquals("Q7", map.computeIfAbsent(7, key -> "Q" + key));
+		Assert.assertEquals(3, map.size());
+		List<String> values = map.values();
+		Collections.sort(values);
+		Assert.assertEquals(Arrays.asList("Q7", "b", "zero"), values);
+		Assert.assertEquals("zero", map.remove(0));
+		Assert.assertNull(map.remove(0));
+		Assert.assertEquals(2, map.size());
+		map.clear();
+		Assert.assertNull(map.get(42));
+		Assert.assertTrue(map.isEmpty());
+		Assert.assertThrows(NullPointerException.class,
+				() -> map.put(1, null));
+		Assert.assertThrows(NullPointerException.class,
+				() -> map.computeIfAbsent(1, key -> null));
+	}
+
+	@Test
+	public void testRandomOperations() {
+		Random random = new Random(17);
+		LongObjectHashMap<Long> map = new LongObjectHashMap<>(4);
+		Map<Long, Long> expected = new HashMap<>();
+		for (int i = 0; i < 100000; i++) {
+			long key = random.nextInt(3000);
+			if (random.nextBoolean()) {
+				Long value = random.nextLong();
+				Assert.assertEquals(expected.put(key, value),
+						map.put(key, value));
+			} else {
+				Assert.assertEquals(expected.remove(key), map.remove(key));
+			}
+		}
+		Map<Long, Long> entries = new HashMap<>();
+		map.forEach(entries::put);
+		Assert.assertEquals(expected, entries);
+		// removed values must not be referenced any longer
+		for (long key : map.keys()) {
+			map.remove(key);
+		}
+		for (Object value : map.values) {
+			Assert.assertNull(value);
+		}
+	}
+
+	@Test
+	public void testMerge() {
+		LongObjectHashMap<List<String>> first = new LongObjectHashMap<>();
+		LongObjectHashMap<List<String>> second = new LongObjectHashMap<>();
+		first.computeIfAbsent(1, key -> new ArrayList<>()).add("a");
+		first.computeIfAbsent(2, key -> new ArrayList<>()).add("b");
+		second.computeIfAbsent(2, key -> new ArrayList<>()).add("c");
+		second.computeIfAbsent(3, key -> new ArrayList<>()).add("d");
+		first.merge(second, (list1, list2) -> {
+			list1.addAll(list2);
+			return list1;
+		});
+		Assert.assertEquals(3, first.size());
+		Assert.assertEquals(Arrays.asList("a"), first.get(1));
+		Assert.assertEquals(Arrays.asList("b", "c"), first.get(2));
+		Assert.assertEquals(Arrays.asList("d"), first.get(3));
+	}
+
+}
@@ -0,0 +1,174 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.LongStream;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for {@link MappedRankedBitVector}. The results are compared with
+ * {@link RankedBitVectorImpl}.
+ */
+public class MappedRankedBitVectorTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	Path newFile() throws IOException {
+		return this.folder.newFile().toPath();
+	}
+
+	void assertSameBits(RankedBitVector expected, RankedBitVector bitVector) {
+		Assert.assertEquals(expected.size(), bitVector.size());
+		Assert.assertEquals(expected, bitVector);
+		Assert.assertEquals(bitVector, expected);
+		Assert.assertEquals(expected.hashCode(), bitVector.hashCode());
+		for (long position = 0; position < expected.size(); position++) {
+			Assert.assertEquals(expected.getBit(position),
+					bitVector.getBit(position));
+		}
+		for (long position = -1; position <= expected.size(); position++) {
+			Assert.assertEquals(expected.countBits(true, position),
+					bitVector.countBits(true, position));
+			Assert.assertEquals(expected.countBits(false, position),
+					bitVector.countBits(false, position));
+		}
+		for (long n = 0; n <= expected.size() + 1; n++) {
+			Assert.assertEquals(expected.findPosition(true, n),
+					bitVector.findPosition(true, n));
+			Assert.assertEquals(expected.findPosition(false, n),
+					bitVector.findPosition(false, n));
+		}
+	}
+
+	@Test
+	public void testSmallChunks() throws IOException {
+		long[] sizes = { 0, 1, 63, 64, 65, 511, 512, 513, 2000 };
+		for (long size : sizes) {
+			RankedBitVectorImpl expected = new RankedBitVectorImpl(
+					RankSelectIndexTest.makeBitVector(size, 0.3, size));
+			// chunks of 8 long values, so that values are read from many chunks
+			try (MappedRankedBitVector bitVector = MappedRankedBitVector
+					.create(newFile(), size, 7, 6)) {
+				bitVector.copyFrom(expected);
+				assertSameBits(expected, bitVector);
+			}
+		}
+	}
+
+	@Test
+	public void testCreateAndOpen() throws IOException {
+		Path file = newFile();
+		RankedBitVectorImpl expected = new RankedBitVectorImpl(
+				RankSelectIndexTest.makeBitVector(100000, 0.1, 42));
+		try (MappedRankedBitVector bitVector = MappedRankedBitVector.create(
+				file, expected)) {
+			assertSameBits(expected, bitVector);
+		}
+		try (MappedRankedBitVector bitVector = MappedRankedBitVector
+				.open(file)) {
+			Assert.assertFalse(bitVector.hasChanged);
+			assertSameBits(expected, bitVector);
+			Assert.assertThrows(UnsupportedOperationException.class,
+					() -> bitVector.setBit(0, true));
+		}
+	}
+
+	@Test
+	public void testCreateFromPositions() throws IOException {
+		RankedBitVectorImpl expected = new RankedBitVectorImpl(3000);
+		for (long position = 5; position < 3000; position += 7) {
+			expected.setBit(position, true);
+		}
+		try (MappedRankedBitVector bitVector = MappedRankedBitVector.create(
+				newFile(), 3000, LongStream.iterate(5, x -> x + 7).limit(428))) {
+			assertSameBits(expected, bitVector);
+		}
+	}
+
+	@Test
+	public void testModify() throws IOException {
+		Path file = newFile();
+		RankedBitVectorImpl expected = new RankedBitVectorImpl(
+				RankSelectIndexTest.makeBitVector(5000, 0.5, 1));
+		try (MappedRankedBitVector bitVector = MappedRankedBitVector.create(
+				file, expected)) {
+			assertSameBits(expected, bitVector);
+		}
+		try (MappedRankedBitVector bitVector = MappedRankedBitVector.open(
+				file, true)) {
+			for (long position = 0; position < 5000; position += 3) {
+				expected.setBit(position, !expected.getBit(position));
+				bitVector.setBit(position, !bitVector.getBit(position));
+			}
+			assertSameBits(expected, bitVector);
+
+			// the directory is not written yet
+			Assert.assertThrows(IOException.class,
+					() -> MappedRankedBitVector.open(file));
+		}
+		try (MappedRankedBitVector bitVector = MappedRankedBitVector
+				.open(file)) {
+			assertSameBits(expected, bitVector);
+		}
+	}
+
+	@Test
+	public void testFixedSize() throws IOException {
+		try (MappedRankedBitVector bitVector = MappedRankedBitVector.create(
+				newFile(), 10)) {
+			Assert.assertThrows(UnsupportedOperationException.class,
+					() -> bitVector.addBit(true));
+			Assert.assertThrows(IndexOutOfBoundsException.class,
+					() -> bitVector.getBit(10));
+			Assert.assertThrows(IndexOutOfBoundsException.class,
+					() -> bitVector.setBit(-1, true));
+			Assert.assertEquals("0000000000", bitVector.toString());
+		}
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> MappedRankedBitVector.create(newFile(), -1));
+	}
+
+	@Test
+	public void testInvalidFile() throws IOException {
+		Path file = newFile();
+		Files.write(file, "not a bit vector".getBytes());
+		Assert.assertThrows(IOException.class,
+				() -> MappedRankedBitVector.open(file));
+
+		try (MappedRankedBitVector bitVector = MappedRankedBitVector.create(
+				file, 1000)) {
+			bitVector.setBit(3, true);
+		}
+		Files.write(file, new byte[8], StandardOpenOption.APPEND);
+		Assert.assertThrows(IOException.class,
+				() -> MappedRankedBitVector.open(file));
+	}
+
+}
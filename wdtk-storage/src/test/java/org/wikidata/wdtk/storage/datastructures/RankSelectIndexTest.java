@@ -0,0 +1,130 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link RankSelectIndex}. The results are compared with the
+ * simple implementations in {@link CountBitsArray} and
+ * {@link FindPositionArray}.
+ */
+public class RankSelectIndexTest {
+
+	static int naiveSelectInWord(long word, int rank) {
+		for (int i = 0; i < BitVectorImpl.WORD_SIZE; i++) {
+			if ((word & (1L << i)) != 0) {
+				if (rank == 0) {
+					return i;
+				}
+				rank--;
+			}
+		}
+		throw new IllegalArgumentException();
+	}
+
+	static BitVectorImpl makeBitVector(long size, double density, long seed) {
+		Random random = new Random(seed);
+		BitVectorImpl ret = new BitVectorImpl(size);
+		for (long i = 0; i < size; i++) {
+			if (random.nextDouble() < density) {
+				ret.setBit(i, true);
+			}
+		}
+		return ret;
+	}
+
+	void assertSameAsReference(BitVectorImpl bitVector, int sampleRate) {
+		RankSelectIndex index = new RankSelectIndex(bitVector, sampleRate);
+		CountBitsArray counts = new CountBitsArray(bitVector, 0x40);
+		for (long position = -1; position <= bitVector.size() + 1; position++) {
+			Assert.assertEquals(counts.countBits(true, position),
+					index.countBits(true, position));
+			Assert.assertEquals(counts.countBits(false, position),
+					index.countBits(false, position));
+		}
+		for (boolean bit : new boolean[] { true, false }) {
+			FindPositionArray positions = new FindPositionArray(0x40,
+					bitVector, bit);
+			for (long n = 0; n <= bitVector.size() + 1; n++) {
+				Assert.assertEquals(positions.findPosition(n),
+						index.findPosition(bit, n));
+			}
+		}
+	}
+
+	@Test
+	public void testSelectInWord() {
+		Random random = new Random(42);
+		for (int i = 0; i < 1000; i++) {
+			long word = random.nextLong();
+			if (i % 3 == 0) {
+				word &= random.nextLong();
+			}
+			for (int rank = 0; rank < Long.bitCount(word); rank++) {
+				Assert.assertEquals(naiveSelectInWord(word, rank),
+						RankSelectIndex.selectInWord(word, rank));
+			}
+		}
+		Assert.assertEquals(63, RankSelectIndex.selectInWord(-1L, 63));
+		Assert.assertEquals(63, RankSelectIndex.selectInWord(Long.MIN_VALUE, 0));
+	}
+
+	@Test
+	public void testSizesAroundBlockBoundaries() {
+		long[] sizes = { 0, 1, 63, 64, 65, 511, 512, 513, 1000 };
+		for (long size : sizes) {
+			assertSameAsReference(makeBitVector(size, 0.5, size), 1);
+			assertSameAsReference(makeBitVector(size, 0.5, size), 0x40);
+		}
+	}
+
+	@Test
+	public void testDensities() {
+		for (double density : new double[] { 0.0, 0.01, 0.3, 0.99, 1.0 }) {
+			assertSameAsReference(makeBitVector(5000, density, 7), 0x40);
+			assertSameAsReference(makeBitVector(5000, density, 7), 0x2000);
+		}
+	}
+
+	@Test
+	public void testUpdate() {
+		BitVectorImpl bitVector = makeBitVector(1000, 0.5, 3);
+		RankSelectIndex index = new RankSelectIndex(bitVector, 0x40);
+		long before = index.countBits(true, 999);
+
+		bitVector.setBit(0, !bitVector.getBit(0));
+		bitVector.addBit(true);
+		Assert.assertEquals(before, index.countBits(true, 999));
+		index.update();
+		Assert.assertEquals(before + (bitVector.getBit(0) ? 2 : 0),
+				index.countBits(true, 1000));
+		assertSameAsReference(bitVector, 0x40);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidSampleRate() {
+		new RankSelectIndex(new BitVectorImpl(), 0);
+	}
+}
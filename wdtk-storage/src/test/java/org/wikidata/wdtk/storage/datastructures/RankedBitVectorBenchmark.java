@@ -0,0 +1,167 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark comparing the word-based {@link RankSelectIndex} used by
+ * {@link RankedBitVectorImpl} with the block-based {@link CountBitsArray} and
+ * {@link FindPositionArray}, on a large random bit vector. The rebuild
+ * benchmarks measure the first query after a modification.
+ * <p>
+ * This is not run with the unit tests. After compiling the tests, run the
+ * {@link #main(String[])} method of this class with the test classpath. The
+ * default size needs a heap of about 2 GB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class RankedBitVectorBenchmark {
+
+	static final int QUERIES = 1024;
+
+	@Param({ "1000000000" })
+	public long size;
+
+	private BitVectorImpl bitVector;
+
+	private RankSelectIndex index;
+
+	private CountBitsArray countBitsArray;
+
+	private FindPositionArray findPositionArray;
+
+	private long[] positions;
+
+	private long[] occurrences;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		bitVector = new BitVectorImpl(size);
+		for (int i = 0; i < bitVector.arrayOfBits.length; i++) {
+			bitVector.arrayOfBits[i] = random.nextLong();
+		}
+		// bits beyond the size must stay unset
+		int lastWord = (int) (size >>> BitVectorImpl.LG_WORD_SIZE);
+		if (lastWord < bitVector.arrayOfBits.length) {
+			bitVector.arrayOfBits[lastWord] &= (1L << (size & BitVectorImpl.WORD_MASK)) - 1;
+			for (int i = lastWord + 1; i < bitVector.arrayOfBits.length; i++) {
+				bitVector.arrayOfBits[i] = 0;
+			}
+		}
+
+		index = new RankSelectIndex(bitVector,
+				RankedBitVectorImpl.defaultFindPositionBlockSize);
+		countBitsArray = new CountBitsArray(bitVector, 0x400);
+		findPositionArray = new FindPositionArray(bitVector, true,
+				RankedBitVectorImpl.defaultFindPositionBlockSize);
+		long trueCount = index.countBits(true, size - 1);
+		countBitsArray.countBits(true, 0);
+		findPositionArray.findPosition(1);
+
+		positions = new long[QUERIES];
+		occurrences = new long[QUERIES];
+		for (int i = 0; i < QUERIES; i++) {
+			positions[i] = (long) (random.nextDouble() * size);
+			occurrences[i] = 1 + (long) (random.nextDouble() * trueCount);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public void countBitsWords(Blackhole blackhole) {
+		for (long position : positions) {
+			blackhole.consume(index.countBits(true, position));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public void countBitsBlocks(Blackhole blackhole) {
+		for (long position : positions) {
+			blackhole.consume(countBitsArray.countBits(true, position));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public void findPositionWords(Blackhole blackhole) {
+		for (long n : occurrences) {
+			blackhole.consume(index.findPosition(true, n));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public void findPositionBlocks(Blackhole blackhole) {
+		for (long n : occurrences) {
+			blackhole.consume(findPositionArray.findPosition(n));
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Measurement(iterations = 5)
+	public long rebuildWords() {
+		index.update();
+		return index.countBits(true, 0);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Measurement(iterations = 5)
+	public long rebuildBlocks() {
+		countBitsArray.update();
+		findPositionArray.update();
+		return countBitsArray.countBits(true, 0) + findPositionArray.findPosition(1);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(RankedBitVectorBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
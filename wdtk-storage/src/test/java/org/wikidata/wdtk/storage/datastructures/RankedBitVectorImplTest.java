@@ -211,6 +211,35 @@ public class RankedBitVectorImplTest {
 		}
 	}
 
+	@Test
+	public void testBulkOperations() {
+		RankedBitVectorImpl bv = new RankedBitVectorImpl(0x1000);
+		bv.setRange(0x100, 0x300);
+		Assert.assertEquals(0x200, bv.countBits(true, 0xFFF));
+		Assert.assertEquals(0x100, bv.findPosition(true, 1));
+
+		bv.clearRange(0x100, 0x180);
+		Assert.assertEquals(0x180, bv.countBits(true, 0xFFF));
+		Assert.assertEquals(0x180, bv.findPosition(true, 1));
+
+		BitVectorImpl other = new BitVectorImpl(0x2000);
+		other.setRange(0x1800, 0x1900);
+		bv.or(other);
+		Assert.assertEquals(0x2000, bv.size());
+		Assert.assertEquals(0x280, bv.countBits(true, 0x1FFF));
+		bv.andNot(other);
+		Assert.assertEquals(0x180, bv.countBits(true, 0x1FFF));
+		bv.xor(other);
+		Assert.assertEquals(0x280, bv.countBits(true, 0x1FFF));
+		bv.and(other);
+		Assert.assertEquals(0x100, bv.countBits(true, 0x1FFF));
+		Assert.assertEquals(0x1800, bv.nextSetBit(0));
+		Assert.assertEquals(0x1900, bv.nextClearBit(0x1800));
+		for (int i = 0; i < bv.size(); i++) {
+			assertCorrectCount(bv, i);
+		}
+	}
+
 	@Test
 	public void testEmptyBitVector() {
 		RankedBitVectorImpl bv0 = new RankedBitVectorImpl();
@@ -251,7 +280,7 @@ public class RankedBitVectorImplTest {
 	@Test
 	public void testFindPositionBlockSize() {
 		for (int x = 0x80; x >= 0x40; x--) {
-			testFindPositionWithBitVector(new RankedBitVectorImpl(0, 0x10, x));
+			testFindPositionWithBitVector(new RankedBitVectorImpl(0, x));
 		}
 	}
 
@@ -287,16 +316,23 @@ public class RankedBitVectorImplTest {
 		Assert.assertEquals(RankedBitVector.NOT_FOUND, bv.findPosition(true, 5));
 	}
 
+	@SuppressWarnings("deprecation")
 	@Test(expected = IllegalArgumentException.class)
 	public void testInvalidInitialSizes0() {
 		new RankedBitVectorImpl(1, 0, 0x40);
 	}
 
+	@SuppressWarnings("deprecation")
 	@Test(expected = IllegalArgumentException.class)
 	public void testInvalidInitialSizes1() {
 		new RankedBitVectorImpl(1, 2, 0x3F);
 	}
 
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidFindPositionBlockSize() {
+		new RankedBitVectorImpl(1, 0x3F);
+	}
+
 	@Test(expected = IllegalArgumentException.class)
 	public void testInvalidInitialSizes2() {
 		new CountBitsArray(new BitVectorImpl(), 0);
@@ -413,10 +449,12 @@ public class RankedBitVectorImplTest {
 		Assert.assertEquals(4, fpa.findPosition(2));
 	}
 
+	@SuppressWarnings("deprecation")
 	@Test
 	public void testValidInitialSizes() {
 		new RankedBitVectorImpl(1, 1, 0x40);
 		new RankedBitVectorImpl(1, 2, 0x40);
+		new RankedBitVectorImpl(1, 0x40);
 		new CountBitsArray(new BitVectorImpl(), 1);
 		new FindPositionArray(1, new BitVectorImpl(), true);
 		new FindPositionArray(new BitVectorImpl(), true, 0x40);
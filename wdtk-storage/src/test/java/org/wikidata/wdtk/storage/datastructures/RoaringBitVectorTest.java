@@ -0,0 +1,329 @@
+package org.wikidata.wdtk.storage.datastructures;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link RoaringBitVector}. The results are compared with
+ * {@link RankedBitVectorImpl} and {@link BitSet}.
+ */
+public class RoaringBitVectorTest {
+
+	static final int SIZE = 5 * RoaringContainer.CONTAINER_SIZE + 1000;
+
+	/**
+	 * Returns a bit set with sparse, dense and full containers, and an empty
+	 * one.
+	 */
+	static BitSet makeBitSet(long seed) {
+		Random random = new Random(seed);
+		BitSet ret = new BitSet();
+		int base = 0;
+		for (int i = 0; i < 200; i++) {
+			ret.set(base + random.nextInt(RoaringContainer.CONTAINER_SIZE));
+		}
+		base += RoaringContainer.CONTAINER_SIZE;
+		for (int i = 0; i < RoaringContainer.CONTAINER_SIZE; i++) {
+			if (random.nextInt(4) == 0) {
+				ret.set(base + i);
+			}
+		}
+		base += 2 * RoaringContainer.CONTAINER_SIZE;
+		ret.set(base + 10, base + 30000);
+		ret.set(base + 40000, base + RoaringContainer.CONTAINER_SIZE + 500);
+		ret.set(SIZE - 1);
+		return ret;
+	}
+
+	static RoaringBitVector makeBitVector(BitSet bits, long size) {
+		RoaringBitVector ret = new RoaringBitVector(size);
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+			ret.setBit(i, true);
+		}
+		return ret;
+	}
+
+	static void assertSameBits(BitSet expected, RoaringBitVector bitVector) {
+		Assert.assertEquals(expected.cardinality(), bitVector.cardinality());
+		List<Long> positions = new ArrayList<>();
+		bitVector.forEachSetBit(positions::add);
+		List<Long> iterated = new ArrayList<>();
+		PrimitiveIterator.OfLong iterator = bitVector.setBitIterator();
+		while (iterator.hasNext()) {
+			iterated.add(iterator.nextLong());
+		}
+		List<Long> expectedPositions = new ArrayList<>();
+		for (int i = expected.nextSetBit(0); i >= 0; i = expected
+				.nextSetBit(i + 1)) {
+			expectedPositions.add((long) i);
+		}
+		Assert.assertEquals(expectedPositions, positions);
+		Assert.assertEquals(expectedPositions, iterated);
+		for (int i = 0; i < bitVector.size(); i++) {
+			Assert.assertEquals(expected.get(i), bitVector.getBit(i));
+		}
+	}
+
+	@Test
+	public void testSameAsRankedBitVectorImpl() {
+		RoaringBitVector bitVector = makeBitVector(makeBitSet(1), SIZE);
+		RankedBitVectorImpl expected = new RankedBitVectorImpl(bitVector);
+		Assert.assertEquals(expected, bitVector);
+		Assert.assertEquals(bitVector, expected);
+		Assert.assertEquals(expected.hashCode(), bitVector.hashCode());
+		for (long position = -1; position <= SIZE + 1; position++) {
+			Assert.assertEquals(expected.countBits(true, position),
+					bitVector.countBits(true, position));
+			Assert.assertEquals(expected.countBits(false, position),
+					bitVector.countBits(false, position));
+		}
+		for (long n = 0; n <= SIZE + 1; n++) {
+			Assert.assertEquals(expected.findPosition(true, n),
+					bitVector.findPosition(true, n));
+			Assert.assertEquals(expected.findPosition(false, n),
+					bitVector.findPosition(false, n));
+		}
+
+		bitVector.runOptimize();
+		Assert.assertEquals(expected, bitVector);
+		for (long n = 1; n <= SIZE; n += 7) {
+			Assert.assertEquals(expected.findPosition(false, n),
+					bitVector.findPosition(false, n));
+			Assert.assertEquals(expected.countBits(true, n),
+					bitVector.countBits(true, n));
+		}
+	}
+
+	@Test
+	public void testNextSetBit() {
+		BitSet bits = makeBitSet(2);
+		RoaringBitVector bitVector = makeBitVector(bits, SIZE);
+		for (int i = 0; i < SIZE + 10; i++) {
+			int expected = bits.nextSetBit(i);
+			Assert.assertEquals(expected, bitVector.nextSetBit(i));
+		}
+		Assert.assertThrows(IndexOutOfBoundsException.class,
+				() -> bitVector.nextSetBit(-1));
+	}
+
+	@Test
+	public void testContainerTransitions() {
+		RoaringBitVector bitVector = new RoaringBitVector();
+		BitSet expected = new BitSet();
+		for (int i = 0; i < 2 * RoaringContainer.MAX_ARRAY_SIZE; i++) {
+			bitVector.setBit(2 * i, true);
+			expected.set(2 * i);
+		}
+		Assert.assertTrue(bitVector.containers[0] instanceof RoaringBitmapContainer);
+		for (int i = 0; i < 2 * RoaringContainer.MAX_ARRAY_SIZE; i += 2) {
+			bitVector.setBit(2 * i, false);
+			expected.clear(2 * i);
+		}
+		Assert.assertTrue(bitVector.containers[0] instanceof RoaringArrayContainer);
+		assertSameBits(expected, bitVector);
+
+		bitVector.setBit(1000000, true);
+		bitVector.setBit(1000000, false);
+		expected.set(1000000, false);
+		Assert.assertEquals(1, bitVector.numberOfContainers);
+		Assert.assertEquals(1000001, bitVector.size());
+		assertSameBits(expected, bitVector);
+	}
+
+	@Test
+	public void testRunOptimize() {
+		BitSet expected = makeBitSet(3);
+		RoaringBitVector bitVector = makeBitVector(expected, SIZE);
+		bitVector.runOptimize();
+		Assert.assertTrue(bitVector.containers[2] instanceof RoaringRunContainer);
+		Assert.assertTrue(bitVector.containers[1] instanceof RoaringBitmapContainer);
+		assertSameBits(expected, bitVector);
+
+		bitVector.setBit(3 * RoaringContainer.CONTAINER_SIZE + 5, true);
+		expected.set(3 * RoaringContainer.CONTAINER_SIZE + 5);
+		bitVector.setBit(3 * RoaringContainer.CONTAINER_SIZE + 20, false);
+		expected.clear(3 * RoaringContainer.CONTAINER_SIZE + 20);
+		assertSameBits(expected, bitVector);
+	}
+
+	@Test
+	public void testSetOperations() {
+		for (boolean optimize : new boolean[] { false, true }) {
+			BitSet first = makeBitSet(4);
+			BitSet second = makeBitSet(5);
+			second.set(7 * RoaringContainer.CONTAINER_SIZE);
+			for (int i = 0; i < SIZE; i += 3) {
+				second.set(i);
+			}
+			RoaringBitVector a = makeBitVector(first, SIZE);
+			RoaringBitVector b = makeBitVector(second, 7 * RoaringContainer.CONTAINER_SIZE + 1);
+			if (optimize) {
+				a.runOptimize();
+				b.runOptimize();
+			}
+
+			RoaringBitVector and = new RoaringBitVector(a);
+			and.and(b);
+			BitSet expectedAnd = (BitSet) first.clone();
+			expectedAnd.and(second);
+			assertSameBits(expectedAnd, and);
+			Assert.assertEquals(SIZE, and.size());
+
+			RoaringBitVector andNot = new RoaringBitVector(a);
+			andNot.andNot(b);
+			BitSet expectedAndNot = (BitSet) first.clone();
+			expectedAndNot.andNot(second);
+			assertSameBits(expectedAndNot, andNot);
+
+			RoaringBitVector or = new RoaringBitVector(a);
+			or.or(b);
+			BitSet expectedOr = (BitSet) first.clone();
+			expectedOr.or(second);
+			assertSameBits(expectedOr, or);
+			Assert.assertEquals(b.size(), or.size());
+
+			RoaringBitVector xor = new RoaringBitVector(a);
+			xor.xor(b);
+			BitSet expectedXor = (BitSet) first.clone();
+			expectedXor.xor(second);
+			assertSameBits(expectedXor, xor);
+
+			// the operands are unchanged
+			assertSameBits(first, a);
+			assertSameBits(second, b);
+		}
+	}
+
+	@Test
+	public void testNextClearBit() {
+		BitSet bits = makeBitSet(7);
+		RoaringBitVector bitVector = makeBitVector(bits, SIZE);
+		for (int i = 0; i < SIZE + 10; i++) {
+			Assert.assertEquals(Math.min(bits.nextClearBit(i), Math.max(i, SIZE)),
+					bitVector.nextClearBit(i));
+		}
+	}
+
+	@Test
+	public void testRanges() {
+		long[][] ranges = { { 0, 0 }, { 5, 70000 },
+				{ 3 * RoaringContainer.CONTAINER_SIZE, 4 * RoaringContainer.CONTAINER_SIZE },
+				{ 100, 200 }, { SIZE - 10, SIZE + 100 } };
+		for (long[] range : ranges) {
+			BitSet expected = makeBitSet(8);
+			RoaringBitVector bitVector = makeBitVector(expected, SIZE);
+			expected.set((int) range[0], (int) range[1]);
+			bitVector.setRange(range[0], range[1]);
+			Assert.assertEquals(Math.max(SIZE, range[1]), bitVector.size());
+			assertSameBits(expected, bitVector);
+
+			expected.clear((int) range[0] + 3, (int) range[1] + 1000);
+			bitVector.clearRange(range[0] + 3, range[1] + 1000);
+			Assert.assertEquals(Math.max(SIZE, range[1]), bitVector.size());
+			assertSameBits(expected, bitVector);
+		}
+	}
+
+	@Test
+	public void testSetOperationsWithOtherBitVectors() {
+		BitSet first = makeBitSet(9);
+		BitSet second = makeBitSet(10);
+		BitVectorImpl other = new BitVectorImpl(SIZE);
+		for (int i = second.nextSetBit(0); i >= 0; i = second.nextSetBit(i + 1)) {
+			other.setBit(i, true);
+		}
+
+		RoaringBitVector or = makeBitVector(first, SIZE);
+		or.or(other);
+		BitSet expectedOr = (BitSet) first.clone();
+		expectedOr.or(second);
+		assertSameBits(expectedOr, or);
+
+		RoaringBitVector and = makeBitVector(first, SIZE);
+		and.and(new RankedBitVectorImpl(other));
+		BitSet expectedAnd = (BitSet) first.clone();
+		expectedAnd.and(second);
+		assertSameBits(expectedAnd, and);
+
+		// word-parallel operations of BitVectorImpl with compressed bit vectors
+		BitVectorImpl xor = new BitVectorImpl(other);
+		xor.xor(makeBitVector(first, SIZE));
+		BitSet expectedXor = (BitSet) second.clone();
+		expectedXor.xor(first);
+		assertSameBits(expectedXor, new RoaringBitVector(xor));
+	}
+
+	@Test
+	public void testSerialization() throws IOException {
+		BitSet expected = makeBitSet(6);
+		RoaringBitVector bitVector = makeBitVector(expected, SIZE + 100);
+		bitVector.runOptimize();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		bitVector.writeTo(new DataOutputStream(bytes));
+		RoaringBitVector read = RoaringBitVector.readFrom(new DataInputStream(
+				new ByteArrayInputStream(bytes.toByteArray())));
+		Assert.assertEquals(bitVector, read);
+		Assert.assertEquals(SIZE + 100, read.size());
+		assertSameBits(expected, read);
+		Assert.assertTrue(bytes.size() < SIZE / 8);
+
+		byte[] truncated = new byte[bytes.size() - 1];
+		System.arraycopy(bytes.toByteArray(), 0, truncated, 0,
+				truncated.length);
+		Assert.assertThrows(IOException.class, () -> RoaringBitVector
+				.readFrom(new DataInputStream(new ByteArrayInputStream(
+						truncated))));
+	}
+
+	@Test
+	public void testFlexibleSize() {
+		RoaringBitVector bitVector = new RoaringBitVector();
+		BitVectorImpl expected = new BitVectorImpl();
+		for (int i = 0; i < 1000; i++) {
+			bitVector.addBit(i % 3 == 0);
+			expected.addBit(i % 3 == 0);
+		}
+		bitVector.setBit(1500, false);
+		expected.setBit(1500, false);
+		Assert.assertEquals(expected, bitVector);
+		Assert.assertEquals(expected.hashCode(), bitVector.hashCode());
+		Assert.assertEquals(expected.toString(), bitVector.toString());
+		Assert.assertFalse(bitVector.getBit(100000));
+		Assert.assertThrows(IndexOutOfBoundsException.class,
+				() -> bitVector.getBit(-1));
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> new RoaringBitVector(-1));
+	}
+
+}
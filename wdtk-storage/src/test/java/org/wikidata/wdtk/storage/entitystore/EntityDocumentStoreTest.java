@@ -0,0 +1,163 @@
+package org.wikidata.wdtk.storage.entitystore;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.ItemDocumentBuilder;
+import org.wikidata.wdtk.datamodel.helpers.PropertyDocumentBuilder;
+import org.wikidata.wdtk.datamodel.helpers.StatementBuilder;
+import org.wikidata.wdtk.datamodel.interfaces.DatatypeIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
+import org.wikidata.wdtk.datamodel.interfaces.EntityDocumentProcessor;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyDocument;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
+
+/**
+ * Test class for {@link EntityDocumentStore}.
+ */
+public class EntityDocumentStoreTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	static final PropertyIdValue P31 = Datamodel
+			.makeWikidataPropertyIdValue("P31");
+
+	static ItemDocument makeItem(int id, String label) {
+		ItemIdValue itemId = Datamodel.makeWikidataItemIdValue("Q" + id);
+		return ItemDocumentBuilder
+				.forItemId(itemId)
+				.withLabel(label, "en")
+				.withAlias(label + " alias", "de")
+				.withStatement(
+						StatementBuilder
+								.forSubjectAndProperty(itemId, P31)
+								.withValue(
+										Datamodel.makeWikidataItemIdValue("Q5"))
+								.withId("Q" + id + "$1").build())
+				.withRevisionId(1000 + id).build();
+	}
+
+	static PropertyDocument makeProperty() {
+		return PropertyDocumentBuilder
+				.forPropertyIdAndJsonDatatype(P31, DatatypeIdValue.JSON_DT_ITEM)
+				.withLabel("instance of", "en").withRevisionId(7).build();
+	}
+
+	EntityDocumentStore open(Path directory) throws IOException {
+		return new EntityDocumentStore(new EntityStore(directory, true,
+				EntityStoreTest.LG_CHUNK_SIZE), Datamodel.SITE_WIKIDATA);
+	}
+
+	@Test
+	public void testPutAndGet() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		try (EntityDocumentStore store = open(directory)) {
+			store.putEntityDocument(makeItem(42, "Douglas Adams"));
+			store.putEntityDocument(makeProperty());
+			Assert.assertEquals(makeItem(42, "Douglas Adams"),
+					store.getEntityDocument("Q42"));
+			Assert.assertNull(store.getEntityDocument("Q43"));
+
+			store.putEntityDocument(makeItem(42, "Douglas Noël Adams"));
+			Assert.assertEquals(makeItem(42, "Douglas Noël Adams"),
+					store.getEntityDocument("Q42"));
+
+			String json = new String(store.getEntityStore().getBytes(
+					EntityType.PROPERTY, 31), StandardCharsets.UTF_8);
+			Assert.assertTrue(json.contains("\"instance of\""));
+		}
+		try (EntityDocumentStore store = new EntityDocumentStore(
+				EntityStore.open(directory, false), Datamodel.SITE_WIKIDATA)) {
+			Assert.assertEquals(makeProperty(), store.getEntityDocument("P31"));
+			Assert.assertEquals(makeItem(42, "Douglas Noël Adams"),
+					store.getEntityDocument("Q42"));
+		}
+	}
+
+	@Test
+	public void testGetEntityDocuments() throws IOException {
+		try (EntityDocumentStore store = open(folder.getRoot().toPath())) {
+			for (int id = 1; id <= 20; id++) {
+				store.putEntityDocument(makeItem(id, "item " + id));
+			}
+			store.putEntityDocument(makeProperty());
+			Map<String, EntityDocument> documents = store
+					.getEntityDocuments(Arrays.asList("Q20", "P31", "Q21",
+							"Q3", "P1"));
+			Assert.assertEquals(Arrays.asList("Q20", "P31", "Q3"),
+					new ArrayList<>(documents.keySet()));
+			Assert.assertEquals(makeItem(3, "item 3"), documents.get("Q3"));
+			Assert.assertEquals(makeProperty(), documents.get("P31"));
+		}
+	}
+
+	@Test
+	public void testBulkLoadAndScan() throws IOException {
+		try (EntityDocumentStore store = open(folder.getRoot().toPath())) {
+			EntityDocumentProcessor loader = store.getBulkLoader();
+			for (int id = 300; id > 0; id -= 3) {
+				loader.processItemDocument(makeItem(id, "item " + id));
+			}
+			loader.processPropertyDocument(makeProperty());
+			store.compact();
+
+			List<EntityDocument> documents = new ArrayList<>();
+			store.scanEntityDocuments(EntityType.ITEM, 100, 200,
+					documents::add);
+			Assert.assertEquals(33, documents.size());
+			Assert.assertEquals(makeItem(102, "item 102"), documents.get(0));
+			Assert.assertEquals(makeItem(198, "item 198"),
+					documents.get(documents.size() - 1));
+
+			Assert.assertTrue(store.deleteEntityDocument("Q102"));
+			Assert.assertFalse(store.deleteEntityDocument("Q102"));
+			Assert.assertNull(store.getEntityDocument("Q102"));
+		}
+	}
+
+	@Test
+	public void testInvalidEntityIds() throws IOException {
+		try (EntityDocumentStore store = open(folder.getRoot().toPath())) {
+			Assert.assertThrows(IllegalArgumentException.class,
+					() -> store.getEntityDocument("L1-F1"));
+			Assert.assertThrows(IllegalArgumentException.class,
+					() -> store.getEntityDocuments(Arrays.asList("Q1", "X1")));
+			Assert.assertThrows(NullPointerException.class,
+					() -> store.putEntityDocument(null));
+		}
+	}
+
+}
@@ -0,0 +1,334 @@
+package org.wikidata.wdtk.storage.entitystore;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for {@link EntityStore}.
+ */
+public class EntityStoreTest {
+
+	/**
+	 * Small chunks, so that indexes have several of them; a chunk holds 128
+	 * values.
+	 */
+	static final int LG_CHUNK_SIZE = 10;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	static EntityStore open(Path directory, boolean writable)
+			throws IOException {
+		return new EntityStore(directory, writable, LG_CHUNK_SIZE);
+	}
+
+	static byte[] makeValue(long id, int repetitions) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < repetitions; i++) {
+			sb.append("{\"id\":\"Q").append(id).append("\"}");
+		}
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Copies the files of a store, as they would be found after a crash.
+	 */
+	static void copyDirectory(Path from, Path to) throws IOException {
+		Files.createDirectories(to);
+		try (java.util.stream.Stream<Path> files = Files.list(from)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				Files.copy(file, to.resolve(file.getFileName()),
+						StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+	}
+
+	@Test
+	public void testPutAndGet() throws IOException {
+		Path directory = folder.getRoot().toPath().resolve("store");
+		try (EntityStore store = open(directory, true)) {
+			Assert.assertNull(store.getBytes(EntityType.ITEM, 1));
+			store.putBytes(EntityType.ITEM, 1, makeValue(1, 1));
+			// compressed value
+			store.putBytes(EntityType.ITEM, 300, makeValue(300, 100));
+			store.putBytes(EntityType.PROPERTY, 1, new byte[0]);
+
+			Assert.assertArrayEquals(makeValue(1, 1),
+					store.getBytes(EntityType.ITEM, 1));
+			Assert.assertArrayEquals(makeValue(300, 100),
+					store.getBytes(EntityType.ITEM, 300));
+			Assert.assertArrayEquals(new byte[0],
+					store.getBytes(EntityType.PROPERTY, 1));
+			Assert.assertNull(store.getBytes(EntityType.LEXEME, 1));
+			Assert.assertNull(store.getBytes(EntityType.ITEM, 2));
+			Assert.assertNull(store.getBytes(EntityType.ITEM, 100000));
+			Assert.assertTrue(store.contains(EntityType.ITEM, 300));
+			Assert.assertFalse(store.contains(EntityType.PROPERTY, 300));
+			Assert.assertTrue(store.getLogLength() < EntityStore.LOG_HEADER_SIZE
+					+ 3 * EntityStore.RECORD_HEADER_SIZE
+					+ makeValue(1, 1).length + makeValue(300, 100).length / 2);
+
+			store.putBytes(EntityType.ITEM, 1, makeValue(1, 2));
+			Assert.assertArrayEquals(makeValue(1, 2),
+					store.getBytes(EntityType.ITEM, 1));
+		}
+
+		try (EntityStore store = open(directory, false)) {
+			Assert.assertArrayEquals(makeValue(1, 2),
+					store.getBytes(EntityType.ITEM, 1));
+			Assert.assertArrayEquals(makeValue(300, 100),
+					store.getBytes(EntityType.ITEM, 300));
+			Assert.assertThrows(UnsupportedOperationException.class,
+					() -> store.putBytes(EntityType.ITEM, 2, new byte[1]));
+			Assert.assertThrows(UnsupportedOperationException.class,
+					() -> store.delete(EntityType.ITEM, 1));
+		}
+	}
+
+	@Test
+	public void testDelete() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		try (EntityStore store = open(directory, true)) {
+			store.putBytes(EntityType.ITEM, 5, makeValue(5, 1));
+			Assert.assertTrue(store.delete(EntityType.ITEM, 5));
+			Assert.assertFalse(store.delete(EntityType.ITEM, 5));
+			Assert.assertFalse(store.delete(EntityType.PROPERTY, 5));
+			Assert.assertNull(store.getBytes(EntityType.ITEM, 5));
+		}
+		try (EntityStore store = open(directory, true)) {
+			Assert.assertNull(store.getBytes(EntityType.ITEM, 5));
+		}
+	}
+
+	@Test
+	public void testBatchGet() throws IOException {
+		try (EntityStore store = open(folder.getRoot().toPath(), true)) {
+			for (long id = 1000; id > 0; id -= 7) {
+				store.putBytes(EntityType.ITEM, id, makeValue(id, (int) id % 5));
+			}
+			long[] ids = { 993, 2, 6, 993, 13, 50000 };
+			byte[][] values = store.getBytes(EntityType.ITEM, ids);
+			Assert.assertEquals(ids.length, values.length);
+			Assert.assertArrayEquals(makeValue(993, 3), values[0]);
+			Assert.assertNull(values[1]);
+			Assert.assertArrayEquals(makeValue(6, 1), values[2]);
+			Assert.assertArrayEquals(makeValue(993, 3), values[3]);
+			Assert.assertNotSame(values[0], values[3]);
+			Assert.assertArrayEquals(makeValue(13, 3), values[4]);
+			Assert.assertNull(values[5]);
+			Assert.assertEquals(0,
+					store.getBytes(EntityType.PROPERTY, new long[0]).length);
+		}
+	}
+
+	@Test
+	public void testScan() throws IOException {
+		try (EntityStore store = open(folder.getRoot().toPath(), true)) {
+			for (long id = 1; id < 5000; id += 3) {
+				store.putBytes(EntityType.ITEM, id, makeValue(id, 1));
+			}
+			List<Long> ids = new ArrayList<>();
+			store.scanBytes(EntityType.ITEM, 100, 4000, (value, id) -> {
+				Assert.assertArrayEquals(makeValue(id, 1), value);
+				ids.add(id);
+			});
+			Assert.assertEquals(1300, ids.size());
+			Assert.assertEquals(Long.valueOf(100), ids.get(0));
+			Assert.assertEquals(Long.valueOf(3997), ids.get(ids.size() - 1));
+
+			// the consumer may modify the store, and the scan sees the values
+			// added after its current position
+			ids.clear();
+			store.scanBytes(EntityType.ITEM, 4990, 6000,
+					(value, id) -> {
+						ids.add(id);
+						try {
+							store.putBytes(EntityType.ITEM, id + 1000,
+									makeValue(id, 1));
+						} catch (IOException e) {
+							throw new RuntimeException(e);
+						}
+					});
+			Assert.assertEquals(8, ids.size());
+			Assert.assertEquals(Long.valueOf(4999), ids.get(3));
+			Assert.assertEquals(Long.valueOf(5999), ids.get(7));
+			Assert.assertTrue(store.contains(EntityType.ITEM, 6999));
+
+			ids.clear();
+			store.scanBytes(EntityType.PROPERTY, 0, 10,
+					(value, id) -> ids.add(id));
+			Assert.assertTrue(ids.isEmpty());
+		}
+	}
+
+	@Test
+	public void testCompaction() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		try (EntityStore store = open(directory, true)) {
+			for (int round = 0; round < 3; round++) {
+				for (long id = 500; id > 0; id--) {
+					store.putBytes(EntityType.ITEM, id, makeValue(id, round));
+				}
+			}
+			store.putBytes(EntityType.LEXEME, 7, makeValue(7, 1));
+			store.putBytes(EntityType.PROPERTY, 3, makeValue(3, 1));
+			store.delete(EntityType.PROPERTY, 3);
+			long length = store.getLogLength();
+			store.compact();
+			Assert.assertTrue(store.getLogLength() < length / 2);
+			Assert.assertFalse(Files.exists(store.getIndexFile(EntityType.PROPERTY)));
+			for (long id = 1; id <= 500; id++) {
+				Assert.assertArrayEquals(makeValue(id, 2),
+						store.getBytes(EntityType.ITEM, id));
+			}
+			Assert.assertNull(store.getBytes(EntityType.PROPERTY, 3));
+
+			// the compacted log is ordered by id
+			long previous = 0;
+			for (long id = 1; id <= 500; id++) {
+				long offset = store.getOffset(EntityType.ITEM, id);
+				Assert.assertTrue(offset > previous);
+				previous = offset;
+			}
+			Assert.assertTrue(store.getOffset(EntityType.LEXEME, 7) > previous);
+
+			store.putBytes(EntityType.ITEM, 501, makeValue(501, 1));
+		}
+		try (EntityStore store = open(directory, false)) {
+			Assert.assertEquals(1, store.generation);
+			Assert.assertArrayEquals(makeValue(501, 1),
+					store.getBytes(EntityType.ITEM, 501));
+			Assert.assertArrayEquals(makeValue(7, 1),
+					store.getBytes(EntityType.LEXEME, 7));
+		}
+	}
+
+	@Test
+	public void testRecovery() throws IOException {
+		Path directory = folder.getRoot().toPath().resolve("store");
+		Path crashed = folder.getRoot().toPath().resolve("crashed");
+		try (EntityStore store = open(directory, true)) {
+			for (long id = 1; id <= 300; id++) {
+				store.putBytes(EntityType.ITEM, id, makeValue(id, 1));
+			}
+			store.flush();
+			store.putBytes(EntityType.ITEM, 1, makeValue(1, 3));
+			store.delete(EntityType.ITEM, 2);
+			copyDirectory(directory, crashed);
+		}
+		// an incomplete record at the end of the log
+		Files.write(crashed.resolve(EntityStore.LOG_FILE_NAME), new byte[] {
+				100, 0, 0, 0, 0, 0, 0 }, StandardOpenOption.APPEND);
+		long length = Files.size(crashed.resolve(EntityStore.LOG_FILE_NAME));
+
+		Assert.assertThrows(IOException.class, () -> open(crashed, false));
+		try (EntityStore store = open(crashed, true)) {
+			Assert.assertEquals(length - 7, store.getLogLength());
+			Assert.assertArrayEquals(makeValue(1, 3),
+					store.getBytes(EntityType.ITEM, 1));
+			Assert.assertNull(store.getBytes(EntityType.ITEM, 2));
+			Assert.assertArrayEquals(makeValue(300, 1),
+					store.getBytes(EntityType.ITEM, 300));
+		}
+		try (EntityStore store = open(crashed, false)) {
+			Assert.assertArrayEquals(makeValue(1, 3),
+					store.getBytes(EntityType.ITEM, 1));
+		}
+	}
+
+	@Test
+	public void testIndexOfOtherGeneration() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		Path oldIndex = folder.newFile("Q.idx.old").toPath();
+		try (EntityStore store = open(directory.resolve("store"), true)) {
+			store.putBytes(EntityType.ITEM, 1, makeValue(1, 1));
+			store.putBytes(EntityType.ITEM, 1, makeValue(1, 2));
+			store.flush();
+			Files.copy(store.getIndexFile(EntityType.ITEM), oldIndex,
+					StandardCopyOption.REPLACE_EXISTING);
+			store.compact();
+		}
+		// as if compaction was interrupted after replacing the log
+		Files.copy(oldIndex, directory.resolve("store").resolve("Q.idx"),
+				StandardCopyOption.REPLACE_EXISTING);
+		Assert.assertThrows(IOException.class,
+				() -> open(directory.resolve("store"), false));
+		try (EntityStore store = open(directory.resolve("store"), true)) {
+			Assert.assertArrayEquals(makeValue(1, 2),
+					store.getBytes(EntityType.ITEM, 1));
+		}
+	}
+
+	@Test
+	public void testInvalidArguments() throws IOException {
+		EntityStore store = open(folder.getRoot().toPath(), true);
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> store.putBytes(EntityType.ITEM, -1, new byte[1]));
+		Assert.assertThrows(NullPointerException.class,
+				() -> store.putBytes(null, 1, new byte[1]));
+		Assert.assertThrows(NullPointerException.class,
+				() -> store.putBytes(EntityType.ITEM, 1, null));
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> store.getBytes(EntityType.ITEM, new long[] { 1, -1 }));
+		store.close();
+		store.close();
+		Assert.assertThrows(IllegalStateException.class,
+				() -> store.getBytes(EntityType.ITEM, 1));
+
+		Path notAStore = folder.newFolder("other").toPath();
+		Files.write(notAStore.resolve(EntityStore.LOG_FILE_NAME),
+				new byte[100]);
+		Assert.assertThrows(IOException.class, () -> open(notAStore, true));
+	}
+
+	@Test
+	public void testEntityType() {
+		Assert.assertEquals(EntityType.ITEM, EntityType.forEntityId("Q42"));
+		Assert.assertEquals(42, EntityType.getNumericId("Q42"));
+		Assert.assertEquals(EntityType.MEDIA_INFO,
+				EntityType.forEntityId("M7"));
+		Assert.assertEquals("L12", EntityType.LEXEME.getEntityId(12));
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> EntityType.forEntityId("L1-F1"));
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> EntityType.getNumericId("X5"));
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> EntityType.getNumericId("Q"));
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> EntityType.getNumericId("Q99999999999999999999"));
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> EntityType.getNumericId(null));
+	}
+
+}
@@ -0,0 +1,145 @@
+package org.wikidata.wdtk.storage.graph;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.wikidata.wdtk.storage.datastructures.BitVector;
+import org.wikidata.wdtk.storage.datastructures.BitVectorImpl;
+import org.wikidata.wdtk.storage.datastructures.RankedBitVector;
+
+/**
+ * Test class for {@link GraphTraversal}.
+ */
+public class GraphTraversalTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	static List<Long> getNodes(BitVector bitVector) {
+		List<Long> ret = new ArrayList<>();
+		bitVector.forEachSetBit(ret::add);
+		return ret;
+	}
+
+	static List<Long> list(long... nodes) {
+		List<Long> ret = new ArrayList<>();
+		for (long node : nodes) {
+			ret.add(node);
+		}
+		return ret;
+	}
+
+	@Test
+	public void testClassHierarchy() throws IOException {
+		Path directory = this.folder.getRoot().toPath();
+		ItemGraphTest.buildGraph(directory);
+		try (ItemGraph graph = ItemGraph.open(directory)) {
+			GraphTraversal traversal = new GraphTraversal(graph);
+
+			Assert.assertEquals(list(5, 35120, 154954, 215627),
+					getNodes(traversal.reachable(5, Direction.OUTGOING, "P279")));
+			Assert.assertEquals(list(35120, 154954, 215627),
+					getNodes(traversal.transitiveClosure(5,
+							Direction.OUTGOING, "P279")));
+			Assert.assertEquals(list(5, 154954, 215627), getNodes(traversal
+					.transitiveClosure(35120, Direction.INCOMING, "P279")));
+			Assert.assertEquals(list(5, 154954, 215627),
+					getNodes(traversal.reachable(new long[] { 5 },
+							Direction.OUTGOING, 1, "P279")));
+			Assert.assertEquals(list(5, 7), getNodes(traversal.reachable(
+					new long[] { 7, 5, 7 }, Direction.OUTGOING, 0, "P279")));
+
+			// instances of Q215627 or of its subclasses
+			RankedBitVector classes = traversal.reachable(215627,
+					Direction.INCOMING, "P279");
+			Assert.assertEquals(list(1, 42, 100000), getNodes(traversal
+					.step(classes, Direction.INCOMING, "P31")));
+			Assert.assertEquals(list(5, 42, 35120, 154954, 215627),
+					getNodes(traversal.reachable(42, Direction.OUTGOING,
+							"P31", "P279")));
+
+			Assert.assertThrows(IllegalArgumentException.class,
+					() -> traversal.reachable(5, Direction.OUTGOING, "P17"));
+			Assert.assertThrows(IllegalArgumentException.class,
+					() -> traversal.reachable(5, Direction.OUTGOING));
+		}
+	}
+
+	@Test
+	public void testRandomGraph() throws IOException {
+		Random random = new Random(13);
+		int nodeCount = 20000;
+		List<List<Long>> successors = new ArrayList<>();
+		for (int i = 0; i < nodeCount; i++) {
+			successors.add(new ArrayList<>());
+		}
+		Path directory = this.folder.getRoot().toPath();
+		try (ItemGraphBuilder builder = new ItemGraphBuilder(directory,
+				"P279")) {
+			for (int i = 1; i < nodeCount; i++) {
+				String[] statements = new String[1 + random.nextInt(3)];
+				for (int j = 0; j < statements.length; j++) {
+					long target = 1 + random.nextInt(nodeCount - 1);
+					statements[j] = "P279=Q" + target;
+					successors.get(i).add(target);
+				}
+				builder.processItemDocument(ItemGraphTest.makeItem(i,
+						statements));
+			}
+		}
+
+		BitVectorImpl expected = new BitVectorImpl();
+		ArrayDeque<Long> queue = new ArrayDeque<>();
+		queue.add(1L);
+		expected.setBit(1, true);
+		while (!queue.isEmpty()) {
+			for (long next : successors.get(queue.poll().intValue())) {
+				if (!expected.getBit(next)) {
+					expected.setBit(next, true);
+					queue.add(next);
+				}
+			}
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try (ItemGraph graph = ItemGraph.open(directory)) {
+			RankedBitVector actual = new GraphTraversal(graph, pool)
+					.reachable(1, Direction.OUTGOING, "P279");
+			// large enough for levels which are split into several tasks
+			Assert.assertTrue(getNodes(expected).size() > 4
+					* GraphTraversal.SEQUENTIAL_THRESHOLD);
+			Assert.assertEquals(getNodes(expected), getNodes(actual));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+}
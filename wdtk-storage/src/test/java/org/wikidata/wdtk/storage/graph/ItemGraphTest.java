@@ -0,0 +1,198 @@
+package org.wikidata.wdtk.storage.graph;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.ItemDocumentBuilder;
+import org.wikidata.wdtk.datamodel.helpers.StatementBuilder;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.StatementRank;
+
+/**
+ * Test class for {@link ItemGraph}, {@link GraphLayer} and
+ * {@link ItemGraphBuilder}.
+ */
+public class ItemGraphTest {
+
+	/**
+	 * Small chunks, so that the adjacency crosses chunk boundaries.
+	 */
+	static final int LG_CHUNK_SIZE = 12;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Creates an item with statements such as "P279=Q5", or "P279=-Q5" for
+	 * a deprecated statement, or "P279" for a statement without value.
+	 */
+	static ItemDocument makeItem(long id, String... statements) {
+		ItemIdValue itemId = Datamodel.makeWikidataItemIdValue("Q" + id);
+		ItemDocumentBuilder builder = ItemDocumentBuilder.forItemId(itemId);
+		for (String statement : statements) {
+			String[] parts = statement.split("=");
+			StatementBuilder statementBuilder = StatementBuilder
+					.forSubjectAndProperty(itemId,
+							Datamodel.makeWikidataPropertyIdValue(parts[0]));
+			if (parts.length == 1) {
+				statementBuilder.withSomeValue();
+			} else if (parts[1].startsWith("-")) {
+				statementBuilder.withRank(StatementRank.DEPRECATED).withValue(
+						Datamodel.makeWikidataItemIdValue(parts[1].substring(1)));
+			} else {
+				statementBuilder.withValue(Datamodel
+						.makeWikidataItemIdValue(parts[1]));
+			}
+			builder.withStatement(statementBuilder.build());
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Builds a small class hierarchy and some instances.
+	 */
+	static void buildGraph(Path directory) throws IOException {
+		try (ItemGraphBuilder builder = new ItemGraphBuilder(directory,
+				"P279", "P31", "P1647")) {
+			builder.processItemDocument(makeItem(5, "P279=Q215627",
+					"P279=Q154954"));
+			builder.processItemDocument(makeItem(215627, "P279=Q35120"));
+			builder.processItemDocument(makeItem(154954, "P279=Q35120",
+					"P279=-Q5"));
+			builder.processItemDocument(makeItem(42, "P31=Q5", "P31=Q5",
+					"P279"));
+			builder.processItemDocument(makeItem(1, "P31=Q215627",
+					"P17=Q5"));
+			builder.processItemDocument(makeItem(100000, "P31=Q5"));
+			builder.processItemDocument(makeItem(7));
+		}
+	}
+
+	@Test
+	public void testLayers() throws IOException {
+		Path directory = this.folder.getRoot().toPath().resolve("graph");
+		buildGraph(directory);
+		Assert.assertEquals(
+				Arrays.asList("P1647.csr", "P279.csr", "P31.csr"),
+				Files.list(directory).map(file -> file.getFileName()
+						.toString()).sorted().collect(Collectors.toList()));
+
+		try (ItemGraph graph = ItemGraph.open(directory, LG_CHUNK_SIZE)) {
+			Assert.assertEquals(Arrays.asList("P31", "P279", "P1647"),
+					graph.getPropertyIds().stream().collect(Collectors.toList()));
+			Assert.assertEquals(215628, graph.getNodeCount());
+			Assert.assertNull(graph.getLayer("P17"));
+			Assert.assertNull(graph.getLayer("Q31"));
+
+			GraphLayer subclassOf = graph.getLayer("P279");
+			Assert.assertEquals("P279", subclassOf.getPropertyId());
+			Assert.assertEquals(4, subclassOf.getEdgeCount());
+			Assert.assertEquals(215628, subclassOf.getNodeCount());
+			Assert.assertArrayEquals(new long[] { 154954, 215627 },
+					subclassOf.getNeighbors(5, Direction.OUTGOING));
+			Assert.assertArrayEquals(new long[] { 154954, 215627 },
+					subclassOf.getNeighbors(35120, Direction.INCOMING));
+			Assert.assertArrayEquals(new long[] { 5 },
+					subclassOf.getNeighbors(215627, Direction.INCOMING));
+			Assert.assertArrayEquals(new long[0],
+					subclassOf.getNeighbors(35120, Direction.OUTGOING));
+			Assert.assertArrayEquals(new long[0],
+					subclassOf.getNeighbors(1000000, Direction.OUTGOING));
+			Assert.assertEquals(2,
+					subclassOf.getDegree(5, Direction.OUTGOING));
+			Assert.assertEquals(0,
+					subclassOf.getDegree(-1, Direction.INCOMING));
+
+			GraphLayer instanceOf = graph.getLayer("P31");
+			Assert.assertEquals(3, instanceOf.getEdgeCount());
+			Assert.assertArrayEquals(new long[] { 42, 100000 },
+					instanceOf.getNeighbors(5, Direction.INCOMING));
+			Assert.assertArrayEquals(new long[] { 5 },
+					instanceOf.getNeighbors(100000, Direction.OUTGOING));
+			StringBuilder neighbors = new StringBuilder();
+			instanceOf.forEachNeighbor(1, Direction.OUTGOING,
+					neighbor -> neighbors.append(neighbor));
+			Assert.assertEquals("215627", neighbors.toString());
+
+			GraphLayer empty = graph.getLayer("P1647");
+			Assert.assertEquals(0, empty.getEdgeCount());
+			Assert.assertEquals(0, empty.getNodeCount());
+			Assert.assertArrayEquals(new long[0],
+					empty.getNeighbors(5, Direction.OUTGOING));
+		}
+	}
+
+	@Test
+	public void testEmptyDirectory() throws IOException {
+		try (ItemGraph graph = ItemGraph.open(this.folder.getRoot().toPath())) {
+			Assert.assertEquals(Collections.emptySet(), graph.getPropertyIds());
+			Assert.assertEquals(0, graph.getNodeCount());
+		}
+	}
+
+	@Test
+	public void testCorruptLayer() throws IOException {
+		Path directory = this.folder.getRoot().toPath();
+		buildGraph(directory);
+		Path file = directory.resolve("P31.csr");
+		byte[] content = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(content, content.length - 8));
+		Assert.assertThrows(IOException.class, () -> ItemGraph.open(directory));
+		Files.write(file, new byte[100]);
+		Assert.assertThrows(IOException.class, () -> ItemGraph.open(directory));
+	}
+
+	@Test
+	public void testWrongArguments() throws IOException {
+		Path directory = this.folder.getRoot().toPath();
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> new ItemGraphBuilder(directory));
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> new ItemGraphBuilder(directory, "Q31"));
+		ItemGraphBuilder builder = new ItemGraphBuilder(directory, "P31");
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> new ItemGraphBuilder.EdgeList(31).add(1L << 32, 5));
+		// ids from 2^31 would sort before all smaller ids
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> new ItemGraphBuilder.EdgeList(31).add(1L << 31, 5));
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> new ItemGraphBuilder.EdgeList(31).add(5, 1L << 31));
+		ItemGraphBuilder.EdgeList largest = new ItemGraphBuilder.EdgeList(31);
+		largest.add(Integer.MAX_VALUE, 5);
+		largest.add(5, Integer.MAX_VALUE);
+		Assert.assertEquals(2, largest.size);
+		builder.close();
+		Assert.assertThrows(IllegalStateException.class,
+				() -> builder.processItemDocument(makeItem(1, "P31=Q5")));
+	}
+
+}
@@ -0,0 +1,151 @@
+package org.wikidata.wdtk.storage.io;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for {@link MappedFile} and {@link LongWriter}.
+ */
+public class MappedFileTest {
+
+	/**
+	 * Chunks of 32 bytes, so that the values below cross chunk boundaries.
+	 */
+	static final int LG_CHUNK_SIZE = 5;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	Path writeValues(ByteOrder order, int count) throws IOException {
+		Path file = this.folder.newFile().toPath();
+		try (FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.WRITE);
+				LongWriter writer = new LongWriter(channel, order)) {
+			for (int i = 0; i < count; i++) {
+				writer.write(value(i));
+			}
+			assertEquals(count, writer.getPosition());
+		}
+		return file;
+	}
+
+	static long value(int i) {
+		return 0x0102030405060708L * (i + 1);
+	}
+
+	@Test
+	public void testReadLittleEndian() throws IOException {
+		Path file = writeValues(ByteOrder.LITTLE_ENDIAN, 9);
+		try (MappedFile mappedFile = MappedFile.open(file,
+				ByteOrder.LITTLE_ENDIAN, LG_CHUNK_SIZE)) {
+			assertEquals(72, mappedFile.size());
+			for (int i = 0; i < 9; i++) {
+				assertEquals(value(i), mappedFile.getLong(i));
+				assertEquals(value(i), mappedFile.getLongAt(8 * i));
+				assertEquals((int) value(i), mappedFile.getInt(2 * i));
+				assertEquals((byte) value(i), mappedFile.getByte(8 * i));
+			}
+			// crosses the end of the first chunk
+			assertEquals((value(3) << 24) | (value(2) >>> 40),
+					mappedFile.getLongAt(21));
+		}
+	}
+
+	@Test
+	public void testReadBigEndian() throws IOException {
+		Path file = writeValues(ByteOrder.BIG_ENDIAN, 9);
+		try (MappedFile mappedFile = MappedFile.open(file,
+				ByteOrder.BIG_ENDIAN, LG_CHUNK_SIZE)) {
+			for (int i = 0; i < 9; i++) {
+				assertEquals(value(i), mappedFile.getLong(i));
+			}
+			assertEquals((value(2) << 40) | (value(3) >>> 24),
+					mappedFile.getLongAt(21));
+		}
+	}
+
+	@Test
+	public void testEnsureSize() throws IOException {
+		Path file = writeValues(ByteOrder.LITTLE_ENDIAN, 5);
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try (MappedFile mappedFile = new MappedFile(channel, true,
+				ByteOrder.LITTLE_ENDIAN, channel.size(), LG_CHUNK_SIZE)) {
+			assertEquals(40, mappedFile.size());
+			mappedFile.ensureSize(100);
+			assertEquals(128, mappedFile.size());
+			for (int i = 0; i < 5; i++) {
+				assertEquals(value(i), mappedFile.getLong(i));
+			}
+			assertEquals(0, mappedFile.getLong(5));
+			mappedFile.putLong(15, 42);
+			mappedFile.force();
+		}
+		assertEquals(128, Files.size(file));
+		try (MappedFile mappedFile = MappedFile.open(file,
+				ByteOrder.LITTLE_ENDIAN, LG_CHUNK_SIZE)) {
+			assertEquals(value(4), mappedFile.getLong(4));
+			assertEquals(42, mappedFile.getLong(15));
+		}
+	}
+
+	@Test
+	public void testEnsureSizeReadOnly() throws IOException {
+		Path file = writeValues(ByteOrder.LITTLE_ENDIAN, 1);
+		try (MappedFile mappedFile = MappedFile.open(file,
+				ByteOrder.LITTLE_ENDIAN, LG_CHUNK_SIZE)) {
+			mappedFile.ensureSize(8);
+			assertThrows(IllegalStateException.class,
+					() -> mappedFile.ensureSize(9));
+		}
+	}
+
+	@Test
+	public void testClose() throws IOException {
+		Path file = writeValues(ByteOrder.LITTLE_ENDIAN, 1);
+		MappedFile mappedFile = MappedFile.open(file, ByteOrder.LITTLE_ENDIAN,
+				LG_CHUNK_SIZE);
+		mappedFile.close();
+		assertFalse(mappedFile.isOpen());
+		assertEquals(0, mappedFile.size());
+	}
+
+	@Test
+	public void testWrongChunkSize() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new MappedFile(null, false, ByteOrder.LITTLE_ENDIAN, 0,
+						MappedFile.MAX_LG_CHUNK_SIZE + 1));
+	}
+
+}
@@ -0,0 +1,99 @@
+package org.wikidata.wdtk.storage.io;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link RunMerger}.
+ */
+public class RunMergerTest {
+
+	static class ArrayRun implements RunMerger.Run {
+
+		final int[] values;
+
+		int position = -1;
+
+		boolean closed;
+
+		ArrayRun(int... values) {
+			this.values = values;
+		}
+
+		int getValue() {
+			return this.values[this.position];
+		}
+
+		@Override
+		public boolean next() {
+			return ++this.position < this.values.length;
+		}
+
+		@Override
+		public void close() {
+			this.closed = true;
+		}
+	}
+
+	@Test
+	public void testMerge() throws IOException {
+		List<ArrayRun> runs = Arrays.asList(new ArrayRun(1, 4, 7),
+				new ArrayRun(), new ArrayRun(2, 3, 8, 9), new ArrayRun(5));
+		List<Integer> merged = new ArrayList<>();
+		try (RunMerger<ArrayRun> merger = new RunMerger<>(
+				Comparator.comparingInt(ArrayRun::getValue))) {
+			for (ArrayRun run : runs) {
+				merger.add(run);
+			}
+			ArrayRun run;
+			while ((run = merger.next()) != null) {
+				merged.add(run.getValue());
+			}
+			assertNull(merger.next());
+			assertThrows(IllegalStateException.class,
+					() -> merger.add(new ArrayRun()));
+		}
+		assertEquals(Arrays.asList(1, 2, 3, 4, 5, 7, 8, 9), merged);
+		for (ArrayRun run : runs) {
+			assertTrue(run.closed);
+		}
+	}
+
+	@Test
+	public void testEmpty() throws IOException {
+		try (RunMerger<ArrayRun> merger = new RunMerger<>(
+				Comparator.comparingInt(ArrayRun::getValue))) {
+			assertNull(merger.next());
+		}
+	}
+
+}
@@ -0,0 +1,269 @@
+package org.wikidata.wdtk.storage.postings;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.ItemDocumentBuilder;
+import org.wikidata.wdtk.datamodel.helpers.PropertyDocumentBuilder;
+import org.wikidata.wdtk.datamodel.helpers.StatementBuilder;
+import org.wikidata.wdtk.datamodel.interfaces.DatatypeIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.datamodel.interfaces.ItemIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.PropertyIdValue;
+import org.wikidata.wdtk.storage.datastructures.RoaringBitVector;
+import org.wikidata.wdtk.storage.entitystore.EntityType;
+
+/**
+ * Test class for {@link PostingsIndex}, {@link PostingsIndexBuilder} and
+ * {@link EliasFano}.
+ */
+public class PostingsIndexTest {
+
+	/**
+	 * Small chunks, so that posting lists cross chunk boundaries.
+	 */
+	static final int LG_CHUNK_SIZE = 8;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	static ItemDocument makeItem(long id, String... terms) {
+		ItemIdValue itemId = Datamodel.makeWikidataItemIdValue("Q" + id);
+		ItemDocumentBuilder builder = ItemDocumentBuilder.forItemId(itemId);
+		for (String term : terms) {
+			String[] parts = term.split("=");
+			PropertyIdValue property = Datamodel
+					.makeWikidataPropertyIdValue(parts[0]);
+			StatementBuilder statement = StatementBuilder
+					.forSubjectAndProperty(itemId, property);
+			if (parts.length == 1) {
+				statement.withSomeValue();
+			} else if (parts[1].startsWith("Q")) {
+				statement.withValue(Datamodel
+						.makeWikidataItemIdValue(parts[1]));
+			} else {
+				statement.withValue(Datamodel.makeStringValue(parts[1]));
+			}
+			builder.withStatement(statement.build());
+		}
+		return builder.build();
+	}
+
+	static RoaringBitVector makeBitVector(long... ids) {
+		RoaringBitVector ret = new RoaringBitVector();
+		for (long id : ids) {
+			ret.setBit(id, true);
+		}
+		return ret;
+	}
+
+	static void assertSameIds(RoaringBitVector expected,
+			RoaringBitVector actual) {
+		List<Long> expectedIds = new ArrayList<>();
+		expected.forEachSetBit(expectedIds::add);
+		List<Long> actualIds = new ArrayList<>();
+		actual.forEachSetBit(actualIds::add);
+		Assert.assertEquals(expectedIds, actualIds);
+	}
+
+	@Test
+	public void testEliasFano() {
+		Random random = new Random(11);
+		long[][] sequences = { { 0 }, { 5, 6 }, { 0, 1, 2, 3, 4 },
+				{ 3, 1L << 39 }, null, null, null };
+		for (int s = 4; s < sequences.length; s++) {
+			TreeSet<Long> set = new TreeSet<>();
+			long universe = s == 4 ? 300 : s == 5 ? 1 << 20 : 1L << 36;
+			while (set.size() < 200) {
+				set.add((long) (random.nextDouble() * universe));
+			}
+			sequences[s] = set.stream().mapToLong(Long::longValue).toArray();
+		}
+		for (long[] sequence : sequences) {
+			long max = sequence[sequence.length - 1];
+			List<Long> encoded = new ArrayList<>();
+			encoded.add(-1L);
+			EliasFano.encode(sequence.length, max,
+					Arrays.stream(sequence).iterator(),
+					Arrays.stream(sequence).iterator(), encoded::add);
+			Assert.assertEquals(
+					EliasFano.getEncodedLength(sequence.length, max),
+					encoded.size() - 1);
+			List<Long> decoded = new ArrayList<>();
+			EliasFano.decode(i -> encoded.get((int) i), 1, decoded::add);
+			Assert.assertEquals(Arrays.stream(sequence).boxed()
+					.collect(java.util.stream.Collectors.toList()), decoded);
+		}
+	}
+
+	@Test
+	public void testSortPairs() {
+		Random random = new Random(3);
+		int n = 5000;
+		long[] pairs = new long[2 * n];
+		List<long[]> expected = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			pairs[2 * i] = random.nextInt(50);
+			pairs[2 * i + 1] = random.nextInt(100);
+			expected.add(new long[] { pairs[2 * i], pairs[2 * i + 1] });
+		}
+		expected.sort((a, b) -> PostingsIndexBuilder.comparePairs(a[0],
+				a[1], b[0], b[1]));
+		PostingsIndexBuilder.sortPairs(pairs, 0, n);
+		for (int i = 0; i < n; i++) {
+			Assert.assertEquals(expected.get(i)[0], pairs[2 * i]);
+			Assert.assertEquals(expected.get(i)[1], pairs[2 * i + 1]);
+		}
+	}
+
+	@Test
+	public void testQueries() throws IOException {
+		Path file = folder.getRoot().toPath().resolve("postings");
+		// a small buffer, so that the pairs are merged from several runs
+		try (PostingsIndexBuilder builder = new PostingsIndexBuilder(file,
+				EntityType.ITEM, 3)) {
+			builder.processItemDocument(makeItem(42, "P31=Q5", "P214=113230702"));
+			builder.processItemDocument(makeItem(1, "P31=Q515", "P31=Q1549591"));
+			builder.processItemDocument(makeItem(80, "P31=Q5", "P31=Q5", "P214"));
+			builder.processItemDocument(makeItem(7, "P31=Q5", "P18=image.jpg"));
+			builder.processItemDocument(makeItem(3));
+			builder.processPropertyDocument(PropertyDocumentBuilder
+					.forPropertyIdAndJsonDatatype(
+							Datamodel.makeWikidataPropertyIdValue("P31"),
+							DatatypeIdValue.JSON_DT_ITEM)
+					.withStatement(
+							StatementBuilder
+									.forSubjectAndProperty(
+											Datamodel.makeWikidataPropertyIdValue("P31"),
+											Datamodel.makeWikidataPropertyIdValue("P1647"))
+									.withValue(Datamodel.makeWikidataItemIdValue("Q5"))
+									.build()).build());
+		}
+		Assert.assertEquals(Collections.singletonList(file), Files.list(
+				folder.getRoot().toPath()).collect(
+				java.util.stream.Collectors.toList()));
+
+		try (PostingsIndex index = PostingsIndex.open(file, LG_CHUNK_SIZE)) {
+			Assert.assertEquals(EntityType.ITEM, index.getSubjectType());
+			assertSameIds(makeBitVector(7, 42, 80), index.getEntities("P31=Q5"));
+			assertSameIds(makeBitVector(1), index.getEntities("P31=Q515"));
+			assertSameIds(makeBitVector(1, 7, 42, 80), index.getEntities("P31"));
+			assertSameIds(makeBitVector(42, 80), index.getEntities("P214"));
+			assertSameIds(makeBitVector(), index.getEntities("P1647"));
+			assertSameIds(makeBitVector(), index.getEntities("P214=Q5"));
+			Assert.assertEquals(3, index.countEntities("P31=Q5"));
+			Assert.assertEquals(1, index.countEntities("P31=Q1549591"));
+			Assert.assertEquals(0, index.countEntities("P999"));
+
+			assertSameIds(makeBitVector(42, 80),
+					index.intersect("P31=Q5", "P214"));
+			assertSameIds(makeBitVector(),
+					index.intersect("P31=Q515", "P214", "P31"));
+			assertSameIds(makeBitVector(1, 7, 42, 80),
+					index.union("P31=Q5", "P31=Q515"));
+			assertSameIds(makeBitVector(), index.union());
+
+			Assert.assertThrows(IllegalArgumentException.class,
+					() -> index.getEntities("Q5"));
+			Assert.assertThrows(IllegalArgumentException.class,
+					() -> index.getEntities("P31="));
+			Assert.assertThrows(IllegalArgumentException.class,
+					() -> index.getEntities("P31=P5"));
+			Assert.assertThrows(IllegalArgumentException.class,
+					() -> index.intersect());
+		}
+	}
+
+	@Test
+	public void testRandomDocuments() throws IOException {
+		Random random = new Random(5);
+		Map<String, RoaringBitVector> expected = new HashMap<>();
+		Path file = folder.getRoot().toPath().resolve("postings");
+		try (PostingsIndexBuilder builder = new PostingsIndexBuilder(file,
+				EntityType.ITEM, 100)) {
+			for (int i = 0; i < 3000; i++) {
+				long id = 1 + random.nextInt(100000);
+				List<String> terms = new ArrayList<>();
+				for (int j = random.nextInt(5); j >= 0; j--) {
+					String property = "P" + (1 + random.nextInt(4));
+					String term = property + "=Q" + (1 + random.nextInt(20));
+					terms.add(term);
+					expected.computeIfAbsent(term, t -> new RoaringBitVector())
+							.setBit(id, true);
+					expected.computeIfAbsent(property,
+							t -> new RoaringBitVector()).setBit(id, true);
+				}
+				builder.processItemDocument(makeItem(id,
+						terms.toArray(new String[0])));
+			}
+		}
+		try (PostingsIndex index = PostingsIndex.open(file, LG_CHUNK_SIZE)) {
+			for (Map.Entry<String, RoaringBitVector> entry : expected
+					.entrySet()) {
+				assertSameIds(entry.getValue(),
+						index.getEntities(entry.getKey()));
+				Assert.assertEquals(entry.getValue().cardinality(),
+						index.countEntities(entry.getKey()));
+			}
+			RoaringBitVector intersection = new RoaringBitVector(
+					expected.get("P1=Q1"));
+			intersection.and(expected.get("P2"));
+			assertSameIds(intersection, index.intersect("P2", "P1=Q1"));
+		}
+	}
+
+	@Test
+	public void testOtherSubjectType() throws IOException {
+		Path file = folder.getRoot().toPath().resolve("postings");
+		try (PostingsIndexBuilder builder = new PostingsIndexBuilder(file,
+				EntityType.LEXEME, 10)) {
+			builder.processItemDocument(makeItem(42, "P31=Q5"));
+		}
+		try (PostingsIndex index = PostingsIndex.open(file)) {
+			Assert.assertEquals(EntityType.LEXEME, index.getSubjectType());
+			Assert.assertEquals(0, index.countEntities("P31"));
+		}
+	}
+
+	@Test
+	public void testNotAnIndex() throws IOException {
+		Path file = folder.newFile().toPath();
+		Files.write(file, new byte[100]);
+		Assert.assertThrows(IOException.class, () -> PostingsIndex.open(file));
+	}
+
+}
@@ -0,0 +1,416 @@
+package org.wikidata.wdtk.storage.search;
+
+/*
+ * #%L
+ * Wikidata Toolkit Storage
+ * %%
+ * Copyright (C) 2014 - 2026 Wikidata Toolkit Developers
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.helpers.ItemDocumentBuilder;
+import org.wikidata.wdtk.datamodel.helpers.PropertyDocumentBuilder;
+import org.wikidata.wdtk.datamodel.interfaces.DatatypeIdValue;
+import org.wikidata.wdtk.datamodel.interfaces.ItemDocument;
+import org.wikidata.wdtk.storage.entitystore.EntityType;
+import org.wikidata.wdtk.wikibaseapi.WbGetEntitiesSearchData;
+import org.wikidata.wdtk.wikibaseapi.WbSearchEntitiesResult;
+
+/**
+ * Test class for {@link TermIndex}, {@link TermIndexBuilder},
+ * {@link TermIndexEntitySearcher} and {@link ExternalSorter}.
+ */
+public class TermIndexTest {
+
+	/**
+	 * Small chunks, so that the terms cross chunk boundaries.
+	 */
+	static final int LG_CHUNK_SIZE = 8;
+
+	/**
+	 * A small buffer, so that the terms are sorted in several runs.
+	 */
+	static final int BUFFER_SIZE = 5;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Creates an item with an English label, description and aliases, and
+	 * the given number of site links.
+	 */
+	static ItemDocument makeItem(long id, int siteLinks, String label,
+			String description, String... aliases) {
+		ItemDocumentBuilder builder = ItemDocumentBuilder
+				.forItemId(Datamodel.makeWikidataItemIdValue("Q" + id));
+		if (label != null) {
+			builder.withLabel(label, "en");
+		}
+		if (description != null) {
+			builder.withDescription(description, "en");
+		}
+		for (String alias : aliases) {
+			builder.withAlias(alias, "en");
+		}
+		for (int i = 0; i < siteLinks; i++) {
+			builder.withSiteLink(label + i, "wiki" + i);
+		}
+		return builder.build();
+	}
+
+	static void buildIndex(Path directory) throws IOException {
+		try (TermIndexBuilder builder = new TermIndexBuilder(directory,
+				BUFFER_SIZE, "en", "de")) {
+			builder.processItemDocument(makeItem(42, 3, "Douglas Adams",
+					"English writer", "Douglas Noël Adams", "DNA"));
+			builder.processItemDocument(makeItem(64, 10, "Berlin",
+					"capital of Germany"));
+			builder.processItemDocument(makeItem(821244, 1, "Berlin",
+					"town in New Hampshire"));
+			builder.processItemDocument(makeItem(614184, 5,
+					"Berlin Brandenburg Airport", null, "BER"));
+			builder.processItemDocument(makeItem(1022, 0, "Stuttgart",
+					null, "Berlin-like city", "berlin-like City"));
+			builder.processItemDocument(makeItem(5, 20, "human", "person",
+					"Berliner"));
+			builder.processItemDocument(makeItem(7, 0, null, null, "   "));
+			builder.processItemDocument(ItemDocumentBuilder
+					.forItemId(Datamodel.makeWikidataItemIdValue("Q1"))
+					.withLabel("Universum", "de")
+					.withSiteLink("Universum", "dewiki").build());
+			builder.processPropertyDocument(PropertyDocumentBuilder
+					.forPropertyIdAndDatatype(
+							Datamodel.makeWikidataPropertyIdValue("P31"),
+							DatatypeIdValue.DT_ITEM)
+					.withLabel("instance of", "en")
+					.withAlias("is a", "en").build());
+			builder.processPropertyDocument(PropertyDocumentBuilder
+					.forPropertyIdAndDatatype(
+							Datamodel.makeWikidataPropertyIdValue("P1082"),
+							DatatypeIdValue.DT_QUANTITY)
+					.withLabel("Berlin population", "en").build());
+			for (int i = 0; i < 200; i++) {
+				builder.processItemDocument(makeItem(1000 + i, i % 13,
+						"Item " + i, null));
+			}
+		}
+	}
+
+	static List<String> getIds(List<WbSearchEntitiesResult> results) {
+		return results.stream().map(WbSearchEntitiesResult::getEntityId)
+				.collect(Collectors.toList());
+	}
+
+	@Test
+	public void testNormalize() {
+		Assert.assertEquals("noel adams",
+				TermIndex.normalize("  Noël \t ADAMS "));
+		Assert.assertEquals("istanbul", TermIndex.normalize("İstanbul"));
+		Assert.assertEquals("fi", TermIndex.normalize("ﬁ"));
+		Assert.assertEquals("", TermIndex.normalize(" \n"));
+	}
+
+	@Test
+	public void testKeys() {
+		long key = TermIndex.getKey("P31");
+		Assert.assertEquals(EntityType.PROPERTY, TermIndex.getEntityType(key));
+		Assert.assertEquals(31, key & TermIndex.NUMERIC_ID_MASK);
+		Assert.assertEquals(EntityType.ITEM,
+				TermIndex.getEntityType(TermIndex.getKey("Q31")));
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> TermIndex.getKey("Q" + (1L << 56)));
+	}
+
+	@Test
+	public void testFiles() throws IOException {
+		Path directory = this.folder.getRoot().toPath().resolve("terms");
+		buildIndex(directory);
+		Assert.assertEquals(Arrays.asList("de.terms", "en.terms"), Files
+				.list(directory).map(file -> file.getFileName().toString())
+				.sorted().collect(Collectors.toList()));
+		try (TermIndex index = TermIndex.open(directory, LG_CHUNK_SIZE)) {
+			TermIndexEntitySearcher searcher = new TermIndexEntitySearcher(index);
+			Assert.assertEquals(Arrays.asList("de", "en"),
+					new ArrayList<>(index.getLanguages()));
+			LanguageTerms english = index.languages.get("en");
+			Assert.assertTrue(english.blockCount > 1);
+			Assert.assertEquals(Datamodel.SITE_WIKIDATA, english.siteIri);
+			Assert.assertEquals(Arrays.asList("Q1"),
+					getIds(searcher.searchEntities("universum", "de")));
+		}
+	}
+
+	@Test
+	public void testSearch() throws IOException {
+		Path directory = this.folder.getRoot().toPath();
+		buildIndex(directory);
+		try (TermIndex index = TermIndex.open(directory, LG_CHUNK_SIZE)) {
+			TermIndexEntitySearcher searcher = new TermIndexEntitySearcher(index);
+			// exact matches first, then by number of site links
+			Assert.assertEquals(Arrays.asList("Q64", "Q821244", "Q5",
+					"Q614184", "Q1022"), getIds(searcher.searchEntities("berlin")));
+			Assert.assertEquals(Arrays.asList("Q1022"),
+					getIds(searcher.searchEntities(" BERLIN-", "en")));
+			Assert.assertEquals(Arrays.asList("Q42"),
+					getIds(searcher.searchEntities("douglas noel")));
+			Assert.assertEquals(Collections.emptyList(),
+					searcher.searchEntities("berlinz"));
+			Assert.assertEquals(Collections.emptyList(),
+					searcher.searchEntities("   "));
+			Assert.assertEquals(Collections.emptyList(),
+					searcher.searchEntities("universum"));
+
+			WbSearchEntitiesResult result = searcher.searchEntities("Berlin")
+					.get(0);
+			Assert.assertEquals("Q64", result.getEntityId());
+			Assert.assertEquals("Q64", result.getTitle());
+			Assert.assertEquals(Datamodel.SITE_WIKIDATA + "Q64",
+					result.getConceptUri());
+			Assert.assertEquals("Berlin", result.getLabel());
+			Assert.assertEquals("capital of Germany", result.getDescription());
+			Assert.assertEquals("label", result.getMatch().getType());
+			Assert.assertEquals("en", result.getMatch().getLanguage());
+			Assert.assertEquals("Berlin", result.getMatch().getText());
+			Assert.assertEquals(Collections.emptyList(), result.getAliases());
+
+			result = searcher.searchEntities("dna").get(0);
+			Assert.assertEquals("Douglas Adams", result.getLabel());
+			Assert.assertEquals("alias", result.getMatch().getType());
+			Assert.assertEquals("DNA", result.getMatch().getText());
+			Assert.assertEquals(Arrays.asList("DNA"), result.getAliases());
+
+			result = searcher.searchEntities("berliner").get(0);
+			Assert.assertEquals("Q5", result.getEntityId());
+			Assert.assertEquals("alias", result.getMatch().getType());
+		}
+	}
+
+	@Test
+	public void testSearchWithoutApiTypes() throws IOException {
+		Path directory = this.folder.getRoot().toPath();
+		buildIndex(directory);
+		try (TermIndex index = TermIndex.open(directory, LG_CHUNK_SIZE)) {
+			List<TermSearchResult> results = index.search("dna", "en");
+			Assert.assertEquals(1, results.size());
+			TermSearchResult result = results.get(0);
+			Assert.assertEquals("Q42", result.getEntityId());
+			Assert.assertEquals("Douglas Adams", result.getLabel());
+			Assert.assertEquals("English writer", result.getDescription());
+			Assert.assertTrue(result.isAliasMatch());
+			Assert.assertEquals("en", result.getMatchLanguage());
+			Assert.assertEquals("DNA", result.getMatchText());
+
+			results = index.search("Berlin", "en", EntityType.PROPERTY, 5, 0);
+			Assert.assertEquals(1, results.size());
+			Assert.assertEquals("Property:P1082", results.get(0).getTitle());
+			Assert.assertFalse(results.get(0).isAliasMatch());
+			Assert.assertThrows(IllegalArgumentException.class,
+					() -> index.search("Berlin", "en", EntityType.LEXEME, 5, 0));
+		}
+	}
+
+	@Test
+	public void testBestMatch() throws IOException {
+		Path directory = this.folder.getRoot().toPath();
+		buildIndex(directory);
+		try (TermIndex index = TermIndex.open(directory, LG_CHUNK_SIZE)) {
+			TermIndexEntitySearcher searcher = new TermIndexEntitySearcher(index);
+			// the label is preferred to the alias with the same form
+			WbSearchEntitiesResult result = searcher.searchEntities("douglas")
+					.get(0);
+			Assert.assertEquals("label", result.getMatch().getType());
+			Assert.assertEquals("Douglas Adams", result.getMatch().getText());
+			// the exact alias is preferred to the longer label
+			result = searcher.searchEntities("ber").get(0);
+			Assert.assertEquals("Q614184", result.getEntityId());
+			Assert.assertEquals("BER", result.getMatch().getText());
+		}
+	}
+
+	@Test
+	public void testLimitAndOffset() throws IOException {
+		Path directory = this.folder.getRoot().toPath();
+		buildIndex(directory);
+		try (TermIndex index = TermIndex.open(directory, LG_CHUNK_SIZE)) {
+			TermIndexEntitySearcher searcher = new TermIndexEntitySearcher(index);
+			List<String> expected = new ArrayList<>();
+			for (int siteLinks = 12; siteLinks >= 0; siteLinks--) {
+				for (int i = siteLinks; i < 200; i += 13) {
+					expected.add("Q" + (1000 + i));
+				}
+			}
+			Assert.assertEquals(expected.subList(0, 7),
+					getIds(searcher.searchEntities("item")));
+			Assert.assertEquals(expected.subList(0, 30),
+					getIds(searcher.searchEntities("ITEM ", 30L)));
+			Assert.assertEquals(expected,
+					getIds(searcher.searchEntities("item", "en", 500L)));
+
+			WbGetEntitiesSearchData properties = new WbGetEntitiesSearchData();
+			properties.search = "item";
+			properties.language = "en";
+			properties.limit = 20L;
+			properties.offset = 95L;
+			Assert.assertEquals(expected.subList(95, 115),
+					getIds(searcher.searchEntities(properties)));
+			properties.offset = 195L;
+			Assert.assertEquals(expected.subList(195, 200),
+					getIds(searcher.searchEntities(properties)));
+			properties.offset = 300L;
+			Assert.assertEquals(Collections.emptyList(),
+					searcher.searchEntities(properties));
+
+			Assert.assertEquals(Arrays.asList("Q1100"),
+					getIds(searcher.searchEntities("item 100")));
+			// the exact match first, then by number of site links
+			Assert.assertEquals(Arrays.asList("Q1019", "Q1194", "Q1193",
+					"Q1192", "Q1191", "Q1190", "Q1199", "Q1198", "Q1197",
+					"Q1196", "Q1195"), getIds(searcher.searchEntities("item 19",
+					20L)));
+		}
+	}
+
+	@Test
+	public void testProperties() throws IOException {
+		Path directory = this.folder.getRoot().toPath();
+		buildIndex(directory);
+		try (TermIndex index = TermIndex.open(directory, LG_CHUNK_SIZE)) {
+			TermIndexEntitySearcher searcher = new TermIndexEntitySearcher(index);
+			WbGetEntitiesSearchData properties = new WbGetEntitiesSearchData();
+			properties.search = "i";
+			properties.language = "en";
+			properties.type = "property";
+			List<WbSearchEntitiesResult> results = searcher
+					.searchEntities(properties);
+			Assert.assertEquals(Arrays.asList("P31"), getIds(results));
+			Assert.assertEquals("Property:P31", results.get(0).getTitle());
+			Assert.assertEquals("instance of", results.get(0).getMatch()
+					.getText());
+			properties.search = "Berlin";
+			Assert.assertEquals(Arrays.asList("P1082"),
+					getIds(searcher.searchEntities(properties)));
+			properties.search = "is a";
+			Assert.assertEquals("alias", searcher.searchEntities(properties)
+					.get(0).getMatch().getType());
+		}
+	}
+
+	@Test
+	public void testWrongParameters() throws IOException {
+		Path directory = this.folder.getRoot().toPath();
+		buildIndex(directory);
+		try (TermIndex index = TermIndex.open(directory, LG_CHUNK_SIZE)) {
+			TermIndexEntitySearcher searcher = new TermIndexEntitySearcher(index);
+			Assert.assertThrows(IllegalArgumentException.class,
+					() -> searcher.searchEntities("Berlin", "fr"));
+			Assert.assertThrows(NullPointerException.class,
+					() -> searcher.searchEntities((String) null));
+			Assert.assertThrows(IllegalArgumentException.class,
+					() -> searcher.searchEntities("Berlin", 0L));
+			WbGetEntitiesSearchData properties = new WbGetEntitiesSearchData();
+			properties.search = "Berlin";
+			properties.language = "en";
+			properties.type = "lexeme";
+			Assert.assertThrows(IllegalArgumentException.class,
+					() -> searcher.searchEntities(properties));
+		}
+	}
+
+	@Test
+	public void testWrongLanguage() {
+		Path directory = this.folder.getRoot().toPath();
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> new TermIndexBuilder(directory, "../en"));
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> new TermIndexBuilder(directory));
+	}
+
+	@Test
+	public void testProcessAfterClose() throws IOException {
+		TermIndexBuilder builder = new TermIndexBuilder(this.folder.getRoot()
+				.toPath(), "en");
+		builder.close();
+		Assert.assertThrows(IllegalStateException.class,
+				() -> builder.processItemDocument(makeItem(1, 0, "a", null)));
+	}
+
+	@Test
+	public void testEmptyIndex() throws IOException {
+		Path directory = this.folder.getRoot().toPath();
+		new TermIndexBuilder(directory, "en").close();
+		try (TermIndex index = TermIndex.open(directory)) {
+			TermIndexEntitySearcher searcher = new TermIndexEntitySearcher(index);
+			Assert.assertEquals(Collections.emptyList(),
+					searcher.searchEntities("Berlin"));
+		}
+	}
+
+	@Test
+	public void testNotAnIndex() throws IOException {
+		Path directory = this.folder.getRoot().toPath();
+		Files.write(directory.resolve("en.terms"), new byte[100]);
+		Assert.assertThrows(IOException.class, () -> TermIndex.open(directory));
+	}
+
+	@Test
+	public void testExternalSorter() throws IOException {
+		Path directory = this.folder.getRoot().toPath().resolve("runs");
+		List<Integer> numbers = new ArrayList<>();
+		ExternalSorter.Codec<Integer> codec = new ExternalSorter.Codec<Integer>() {
+
+			@Override
+			public void write(DataOutput output, Integer object)
+					throws IOException {
+				output.writeInt(object);
+			}
+
+			@Override
+			public Integer read(DataInput input) throws IOException {
+				return input.readInt();
+			}
+		};
+		try (ExternalSorter<Integer> sorter = new ExternalSorter<>(directory,
+				"test", Integer::compare, codec, 7)) {
+			for (int i = 0; i < 100; i++) {
+				sorter.add((i * 37) % 101);
+			}
+			Assert.assertEquals(14, sorter.runs.size());
+			sorter.sort(numbers::add);
+			Assert.assertEquals(0, Files.list(directory).count());
+		}
+		List<Integer> expected = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			expected.add((i * 37) % 101);
+		}
+		Collections.sort(expected);
+		Assert.assertEquals(expected, numbers);
+	}
+
+}
@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.util.*;
 
 import org.wikidata.wdtk.datamodel.helpers.Datamodel;
+import org.wikidata.wdtk.datamodel.interfaces.CompiledDocumentDataFilter;
 import org.wikidata.wdtk.datamodel.interfaces.DocumentDataFilter;
 import org.wikidata.wdtk.datamodel.interfaces.EntityDocument;
 import org.wikidata.wdtk.datamodel.interfaces.MediaInfoIdValue;
@@ -449,9 +450,10 @@ public class WikibaseDataFetcher {
 	 * @param properties
 	 */
 	void configureProperties(WbGetEntitiesActionData properties) {
-		setRequestProps(properties);
-		setRequestLanguages(properties);
-		setRequestSitefilter(properties);
+		CompiledDocumentDataFilter compiledFilter = this.filter.compile();
+		setRequestProps(properties, compiledFilter);
+		setRequestLanguages(properties, compiledFilter);
+		setRequestSitefilter(properties, compiledFilter);
 	}
 
 	/**
@@ -460,17 +462,20 @@ public class WikibaseDataFetcher {
 	 *
 	 * @param properties
 	 *            current setting of parameters
+	 * @param compiledFilter
+	 *            the filter to apply
 	 */
-	private void setRequestProps(WbGetEntitiesActionData properties) {
+	private void setRequestProps(WbGetEntitiesActionData properties,
+			CompiledDocumentDataFilter compiledFilter) {
 		StringBuilder builder = new StringBuilder();
 		builder.append("info|datatype");
-		if (!this.filter.excludeAllLanguages()) {
+		if (!compiledFilter.excludeAllLanguages()) {
 			builder.append("|labels|aliases|descriptions");
 		}
-		if (!this.filter.excludeAllProperties()) {
+		if (!compiledFilter.excludeAllProperties()) {
 			builder.append("|claims");
 		}
-		if (!this.filter.excludeAllSiteLinks()) {
+		if (!compiledFilter.excludeAllSiteLinks()) {
 			builder.append("|sitelinks");
 		}
 
@@ -483,13 +488,16 @@ public class WikibaseDataFetcher {
 	 *
 	 * @param properties
 	 *            current setting of parameters
+	 * @param compiledFilter
+	 *            the filter to apply
 	 */
-	private void setRequestLanguages(WbGetEntitiesActionData properties) {
-		if (this.filter.excludeAllLanguages()
-				|| this.filter.getLanguageFilter() == null) {
+	private void setRequestLanguages(WbGetEntitiesActionData properties,
+			CompiledDocumentDataFilter compiledFilter) {
+		if (compiledFilter.excludeAllLanguages()
+				|| compiledFilter.getLanguageFilter() == null) {
 			return;
 		}
-		properties.languages = ApiConnection.implodeObjects(this.filter
+		properties.languages = ApiConnection.implodeObjects(compiledFilter
 				.getLanguageFilter());
 	}
 
@@ -499,13 +507,16 @@ public class WikibaseDataFetcher {
 	 *
 	 * @param properties
 	 *            current setting of parameters
+	 * @param compiledFilter
+	 *            the filter to apply
 	 */
-	private void setRequestSitefilter(WbGetEntitiesActionData properties) {
-		if (this.filter.excludeAllSiteLinks()
-				|| this.filter.getSiteLinkFilter() == null) {
+	private void setRequestSitefilter(WbGetEntitiesActionData properties,
+			CompiledDocumentDataFilter compiledFilter) {
+		if (compiledFilter.excludeAllSiteLinks()
+				|| compiledFilter.getSiteLinkFilter() == null) {
 			return;
 		}
-		properties.sitefilter = ApiConnection.implodeObjects(this.filter
+		properties.sitefilter = ApiConnection.implodeObjects(compiledFilter
 				.getSiteLinkFilter());
 	}
 